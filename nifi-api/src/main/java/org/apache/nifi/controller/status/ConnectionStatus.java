@@ -16,6 +16,9 @@
  */
 package org.apache.nifi.controller.status;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 import org.apache.nifi.processor.DataUnit;
 
 /**
@@ -40,6 +43,10 @@ public class ConnectionStatus implements Cloneable {
     private long outputBytes;
     private int maxQueuedCount;
     private long maxQueuedBytes;
+    private long queuedDurationMillisP50;
+    private long queuedDurationMillisP99;
+    private long queuedDurationMillisMax;
+    private Collection<QueuePartitionStatus> queuePartitionStatus = new ArrayList<>();
 
     public String getId() {
         return id;
@@ -186,6 +193,51 @@ public class ConnectionStatus implements Cloneable {
         this.backPressureBytesThreshold = backPressureBytesThreshold;
     }
 
+    /**
+     * @return the time, in milliseconds, within which half of the FlowFiles pulled from the connection had been queued
+     */
+    public long getQueuedDurationMillisP50() {
+        return queuedDurationMillisP50;
+    }
+
+    public void setQueuedDurationMillisP50(long queuedDurationMillisP50) {
+        this.queuedDurationMillisP50 = queuedDurationMillisP50;
+    }
+
+    /**
+     * @return the time, in milliseconds, within which 99 percent of the FlowFiles pulled from the connection had been queued
+     */
+    public long getQueuedDurationMillisP99() {
+        return queuedDurationMillisP99;
+    }
+
+    public void setQueuedDurationMillisP99(long queuedDurationMillisP99) {
+        this.queuedDurationMillisP99 = queuedDurationMillisP99;
+    }
+
+    /**
+     * @return the longest time, in milliseconds, that a FlowFile pulled from the connection had been queued
+     */
+    public long getQueuedDurationMillisMax() {
+        return queuedDurationMillisMax;
+    }
+
+    public void setQueuedDurationMillisMax(long queuedDurationMillisMax) {
+        this.queuedDurationMillisMax = queuedDurationMillisMax;
+    }
+
+    /**
+     * @return the status of each partition of the connection's queue. This is empty unless the connection is load balanced
+     *         across the nodes of a cluster.
+     */
+    public Collection<QueuePartitionStatus> getQueuePartitionStatus() {
+        return queuePartitionStatus;
+    }
+
+    public void setQueuePartitionStatus(final Collection<QueuePartitionStatus> queuePartitionStatus) {
+        this.queuePartitionStatus = queuePartitionStatus;
+    }
+
     @Override
     public ConnectionStatus clone() {
         final ConnectionStatus clonedObj = new ConnectionStatus();
@@ -203,9 +255,21 @@ public class ConnectionStatus implements Cloneable {
         clonedObj.destinationId = destinationId;
         clonedObj.destinationName = destinationName;
         clonedObj.backPressureDataSizeThreshold = backPressureDataSizeThreshold;
+        clonedObj.backPressureBytesThreshold = backPressureBytesThreshold;
         clonedObj.backPressureObjectThreshold = backPressureObjectThreshold;
         clonedObj.maxQueuedBytes = maxQueuedBytes;
         clonedObj.maxQueuedCount = maxQueuedCount;
+        clonedObj.queuedDurationMillisP50 = queuedDurationMillisP50;
+        clonedObj.queuedDurationMillisP99 = queuedDurationMillisP99;
+        clonedObj.queuedDurationMillisMax = queuedDurationMillisMax;
+
+        final Collection<QueuePartitionStatus> clonedPartitionStatus = new ArrayList<>();
+        if (queuePartitionStatus != null) {
+            for (final QueuePartitionStatus partitionStatus : queuePartitionStatus) {
+                clonedPartitionStatus.add(partitionStatus.clone());
+            }
+        }
+        clonedObj.queuePartitionStatus = clonedPartitionStatus;
         return clonedObj;
     }
 
@@ -246,6 +310,14 @@ public class ConnectionStatus implements Cloneable {
         builder.append(maxQueuedCount);
         builder.append(", maxQueueBytes=");
         builder.append(maxQueuedBytes);
+        builder.append(", queuedDurationMillisP50=");
+        builder.append(queuedDurationMillisP50);
+        builder.append(", queuedDurationMillisP99=");
+        builder.append(queuedDurationMillisP99);
+        builder.append(", queuedDurationMillisMax=");
+        builder.append(queuedDurationMillisMax);
+        builder.append(", queuePartitionStatus=");
+        builder.append(queuePartitionStatus);
         builder.append("]");
         return builder.toString();
     }
@@ -19,6 +19,7 @@ package org.apache.nifi.controller.status;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -419,6 +420,29 @@ public class ProcessGroupStatus implements Cloneable {
             merged.setInputBytes(merged.getInputBytes() + statusToMerge.getInputBytes());
             merged.setOutputCount(merged.getOutputCount() + statusToMerge.getOutputCount());
             merged.setOutputBytes(merged.getOutputBytes() + statusToMerge.getOutputBytes());
+
+            // percentiles cannot be combined without the underlying distributions, so the slowest node's are reported
+            merged.setQueuedDurationMillisP50(Math.max(merged.getQueuedDurationMillisP50(), statusToMerge.getQueuedDurationMillisP50()));
+            merged.setQueuedDurationMillisP99(Math.max(merged.getQueuedDurationMillisP99(), statusToMerge.getQueuedDurationMillisP99()));
+            merged.setQueuedDurationMillisMax(Math.max(merged.getQueuedDurationMillisMax(), statusToMerge.getQueuedDurationMillisMax()));
+
+            // partitions are keyed by the node that their FlowFiles are destined for
+            final Map<String, QueuePartitionStatus> mergedPartitionMap = new LinkedHashMap<>();
+            for (final QueuePartitionStatus partitionStatus : merged.getQueuePartitionStatus()) {
+                mergedPartitionMap.put(partitionStatus.getNodeId(), partitionStatus);
+            }
+
+            for (final QueuePartitionStatus partitionToMerge : statusToMerge.getQueuePartitionStatus()) {
+                final QueuePartitionStatus mergedPartition = mergedPartitionMap.get(partitionToMerge.getNodeId());
+                if (mergedPartition == null) {
+                    mergedPartitionMap.put(partitionToMerge.getNodeId(), partitionToMerge.clone());
+                    continue;
+                }
+
+                mergedPartition.setQueuedCount(mergedPartition.getQueuedCount() + partitionToMerge.getQueuedCount());
+                mergedPartition.setQueuedBytes(mergedPartition.getQueuedBytes() + partitionToMerge.getQueuedBytes());
+            }
+            merged.setQueuePartitionStatus(new ArrayList<>(mergedPartitionMap.values()));
         }
         target.setConnectionStatus(mergedConnectionMap.values());
 
@@ -445,6 +469,10 @@ public class ProcessGroupStatus implements Cloneable {
             merged.setOutputCount(merged.getOutputCount() + statusToMerge.getOutputCount());
             merged.setProcessingNanos(merged.getProcessingNanos() + statusToMerge.getProcessingNanos());
             merged.setFlowFilesRemoved(merged.getFlowFilesRemoved() + statusToMerge.getFlowFilesRemoved());
+            merged.setProvenanceEventsDiscarded(merged.getProvenanceEventsDiscarded() + statusToMerge.getProvenanceEventsDiscarded());
+            merged.setOnTriggerNanosP50(Math.max(merged.getOnTriggerNanosP50(), statusToMerge.getOnTriggerNanosP50()));
+            merged.setOnTriggerNanosP99(Math.max(merged.getOnTriggerNanosP99(), statusToMerge.getOnTriggerNanosP99()));
+            merged.setOnTriggerNanosMax(Math.max(merged.getOnTriggerNanosMax(), statusToMerge.getOnTriggerNanosMax()));
 
             // if the status to merge is invalid allow it to take precedence. whether the
             // processor run status is disabled/stopped/running is part of the flow configuration
@@ -47,6 +47,10 @@ public class ProcessorStatus implements Cloneable {
     private long bytesReceived;
     private int flowFilesSent;
     private long bytesSent;
+    private int provenanceEventsDiscarded;
+    private long onTriggerNanosP50;
+    private long onTriggerNanosP99;
+    private long onTriggerNanosMax;
     private Map<String, Long> counters;
 
     public String getId() {
@@ -225,6 +229,51 @@ public class ProcessorStatus implements Cloneable {
         this.bytesSent = bytesSent;
     }
 
+    /**
+     * @return the number of Provenance Events generated by the processor that were discarded by the
+     *         Provenance Sampling Policy instead of being sent to the Provenance Repository
+     */
+    public int getProvenanceEventsDiscarded() {
+        return provenanceEventsDiscarded;
+    }
+
+    public void setProvenanceEventsDiscarded(int provenanceEventsDiscarded) {
+        this.provenanceEventsDiscarded = provenanceEventsDiscarded;
+    }
+
+    /**
+     * @return the time, in nanoseconds, within which half of the invocations of the processor's onTrigger method completed
+     */
+    public long getOnTriggerNanosP50() {
+        return onTriggerNanosP50;
+    }
+
+    public void setOnTriggerNanosP50(long onTriggerNanosP50) {
+        this.onTriggerNanosP50 = onTriggerNanosP50;
+    }
+
+    /**
+     * @return the time, in nanoseconds, within which 99 percent of the invocations of the processor's onTrigger method completed
+     */
+    public long getOnTriggerNanosP99() {
+        return onTriggerNanosP99;
+    }
+
+    public void setOnTriggerNanosP99(long onTriggerNanosP99) {
+        this.onTriggerNanosP99 = onTriggerNanosP99;
+    }
+
+    /**
+     * @return the time, in nanoseconds, taken by the longest invocation of the processor's onTrigger method
+     */
+    public long getOnTriggerNanosMax() {
+        return onTriggerNanosMax;
+    }
+
+    public void setOnTriggerNanosMax(long onTriggerNanosMax) {
+        this.onTriggerNanosMax = onTriggerNanosMax;
+    }
+
     public Map<String, Long> getCounters() {
         return counters;
     }
@@ -254,6 +303,10 @@ public class ProcessorStatus implements Cloneable {
         clonedObj.processingNanos = processingNanos;
         clonedObj.averageLineageDuration = averageLineageDuration;
         clonedObj.flowFilesRemoved = flowFilesRemoved;
+        clonedObj.provenanceEventsDiscarded = provenanceEventsDiscarded;
+        clonedObj.onTriggerNanosP50 = onTriggerNanosP50;
+        clonedObj.onTriggerNanosP99 = onTriggerNanosP99;
+        clonedObj.onTriggerNanosMax = onTriggerNanosMax;
         clonedObj.runStatus = runStatus;
         clonedObj.executionNode = executionNode;
         clonedObj.type = type;
@@ -294,6 +347,14 @@ public class ProcessorStatus implements Cloneable {
         builder.append(processingNanos);
         builder.append(", activeThreadCount=");
         builder.append(activeThreadCount);
+        builder.append(", provenanceEventsDiscarded=");
+        builder.append(provenanceEventsDiscarded);
+        builder.append(", onTriggerNanosP50=");
+        builder.append(onTriggerNanosP50);
+        builder.append(", onTriggerNanosP99=");
+        builder.append(onTriggerNanosP99);
+        builder.append(", onTriggerNanosMax=");
+        builder.append(onTriggerNanosMax);
         builder.append(", counters=");
         builder.append(counters);
         builder.append("]");
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status;
+
+/**
+ * The status of one partition of a load-balanced connection. Each partition holds the FlowFiles that are destined for a single
+ * node in the cluster; the partition for the local node holds the FlowFiles that are to be processed by this node.
+ */
+public class QueuePartitionStatus implements Cloneable {
+
+    private String nodeId;
+    private String nodeAddress;
+    private int queuedCount;
+    private long queuedBytes;
+
+    /**
+     * @return the identifier of the node that the FlowFiles in this partition are destined for
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(final String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * @return the address of the node that the FlowFiles in this partition are destined for
+     */
+    public String getNodeAddress() {
+        return nodeAddress;
+    }
+
+    public void setNodeAddress(final String nodeAddress) {
+        this.nodeAddress = nodeAddress;
+    }
+
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    public void setQueuedCount(final int queuedCount) {
+        this.queuedCount = queuedCount;
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public void setQueuedBytes(final long queuedBytes) {
+        this.queuedBytes = queuedBytes;
+    }
+
+    @Override
+    public QueuePartitionStatus clone() {
+        final QueuePartitionStatus clonedObj = new QueuePartitionStatus();
+        clonedObj.nodeId = nodeId;
+        clonedObj.nodeAddress = nodeAddress;
+        clonedObj.queuedCount = queuedCount;
+        clonedObj.queuedBytes = queuedBytes;
+        return clonedObj;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("QueuePartitionStatus [nodeId=");
+        builder.append(nodeId);
+        builder.append(", nodeAddress=");
+        builder.append(nodeAddress);
+        builder.append(", queuedCount=");
+        builder.append(queuedCount);
+        builder.append(", queuedBytes=");
+        builder.append(queuedBytes);
+        builder.append("]");
+        return builder.toString();
+    }
+}
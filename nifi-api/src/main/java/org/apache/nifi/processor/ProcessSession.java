@@ -31,6 +31,8 @@ import org.apache.nifi.processor.exception.FlowFileAccessException;
 import org.apache.nifi.processor.exception.FlowFileHandlingException;
 import org.apache.nifi.processor.exception.MissingFlowFileException;
 import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.io.ContentChannel;
+import org.apache.nifi.processor.io.InputChannelCallback;
 import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.processor.io.StreamCallback;
@@ -240,6 +242,29 @@ public interface ProcessSession {
      */
     FlowFile create(FlowFile parent);
 
+    /**
+     * Creates one new FlowFile for each element of <code>childAttributes</code>,
+     * each with no content and with a parent linkage to <code>parent</code>.
+     * Each new FlowFile will inherit all of the parent's attributes except for
+     * the UUID, and will then have the corresponding attributes from
+     * <code>childAttributes</code> added to it. The result is equivalent to
+     * calling {@link #create(FlowFile)} followed by
+     * {@link #putAllAttributes(FlowFile, Map)} for each child, but allows the
+     * session to perform the bookkeeping for all children at once. This is
+     * intended for Processors, such as those that split their input, that
+     * generate a large number of children from a single parent. A single
+     * Provenance FORK event is generated for all of the children.
+     *
+     * @param parent to base the new flowfiles on
+     * @param childAttributes the attributes to add to each of the new
+     * flowfiles; one flowfile is created per element. An element may be
+     * <code>null</code> or empty if no attributes should be added. Any UUID
+     * attribute is ignored
+     * @return the newly created flowfiles, in the same order as
+     * <code>childAttributes</code>
+     */
+    List<FlowFile> create(FlowFile parent, List<Map<String, String>> childAttributes);
+
     /**
      * Creates a new FlowFile in the repository with no content but with a
      * parent linkage to the FlowFiles specified by the parents Collection. The
@@ -612,6 +637,39 @@ public interface ProcessSession {
      */
     void read(FlowFile source, boolean allowSessionStreamManagement, InputStreamCallback reader) throws FlowFileAccessException;
 
+    /**
+     * Executes the given callback against the contents corresponding to the
+     * given FlowFile, providing the content as a {@link ContentChannel} rather
+     * than an InputStream. When the content is backed by a file, the
+     * {@link ContentChannel#transferTo(java.nio.channels.WritableByteChannel)} method
+     * allows the content to be sent to a socket or file without being copied into
+     * the JVM's heap.
+     *
+     * <i>Note</i>: The ContentChannel provided to the given InputChannelCallback
+     * will not be accessible once this method has completed its execution.
+     *
+     * @param source flowfile to retrieve content of
+     * @param reader that will be called to read the flowfile content
+     * @throws IllegalStateException if detected that this method is being
+     *             called from within a write callback of another method (i.e., from within the callback
+     *             that is passed to {@link #write(FlowFile, OutputStreamCallback)} or {@link #write(FlowFile, StreamCallback)})
+     *             or has an OutputStream open (via a call to {@link #write(FlowFile)}) in this session and for
+     *             the given FlowFile(s). Said another way, it is not permissible to call this method while writing to
+     *             the same FlowFile.
+     * @throws FlowFileHandlingException if the given FlowFile is already
+     *             transferred or removed or doesn't belong to this session. Automatic
+     *             rollback will occur.
+     * @throws MissingFlowFileException if the given FlowFile content cannot be
+     *             found. The FlowFile should no longer be referenced, will be internally
+     *             destroyed, and the session is automatically rolled back and what is left
+     *             of the FlowFile is destroyed.
+     * @throws FlowFileAccessException if some IO problem occurs accessing
+     *             FlowFile content; if an attempt is made to access the ContentChannel
+     *             provided to the given InputChannelCallback after this method completed its
+     *             execution
+     */
+    void readChannel(FlowFile source, InputChannelCallback reader) throws FlowFileAccessException;
+
     /**
      * Combines the content of all given source FlowFiles into a single given
      * destination FlowFile.
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.processor.io;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A read-only channel over the content of a FlowFile. In addition to being read like
+ * any other {@link ReadableByteChannel}, the content may be moved directly into another
+ * channel via {@link #transferTo(WritableByteChannel)}. When the content is stored in a file
+ * and the target is a socket or file channel, the transfer is performed by the Operating
+ * System without copying the content into the JVM.
+ */
+public interface ContentChannel extends ReadableByteChannel {
+
+    /**
+     * @return the number of bytes of content that this channel provides access to
+     */
+    long size();
+
+    /**
+     * Transfers all content that has not yet been consumed from this channel to the given target.
+     * The channel is considered fully consumed once this method returns, unless the given target
+     * is in non-blocking mode and was unable to accept all of the content.
+     *
+     * @param target the channel to write the content to
+     * @return the number of bytes that were transferred
+     * @throws IOException if unable to read the content or unable to write to the target
+     */
+    long transferTo(WritableByteChannel target) throws IOException;
+
+}
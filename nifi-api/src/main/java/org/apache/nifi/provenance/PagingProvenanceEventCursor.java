@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ProvenanceEventCursor} that reads events from a repository one page at a time. This is used by repositories
+ * that are not able to iterate over their events directly. Only a single page of events is held in memory at any time.
+ */
+public class PagingProvenanceEventCursor implements ProvenanceEventCursor {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private final PageReader pageReader;
+    private final Supplier<Long> maxEventIdSupplier;
+    private final Predicate<ProvenanceEventRecord> filter;
+    private final int pageSize;
+
+    private long nextEventId;
+    private long lastEventIdRead = -1L;
+    private Iterator<ProvenanceEventRecord> page = Collections.emptyIterator();
+    private boolean exhausted = false;
+
+    /**
+     * @param firstEventId the ID of the first event to read
+     * @param filter the filter that events must match in order to be returned, or <code>null</code> to return all events
+     * @param pageSize the maximum number of events to read from the repository at once
+     * @param pageReader reads a page of events, in the same manner as {@link ProvenanceEventRepository#getEvents(long, int)}
+     * @param maxEventIdSupplier provides the largest Event ID in the repository, in the same manner as {@link ProvenanceEventRepository#getMaxEventId()}
+     */
+    public PagingProvenanceEventCursor(final long firstEventId, final Predicate<ProvenanceEventRecord> filter, final int pageSize,
+        final PageReader pageReader, final Supplier<Long> maxEventIdSupplier) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+
+        this.nextEventId = Math.max(0L, firstEventId);
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.pageReader = pageReader;
+        this.maxEventIdSupplier = maxEventIdSupplier;
+    }
+
+    @Override
+    public ProvenanceEventRecord nextEvent() throws IOException {
+        while (true) {
+            while (page.hasNext()) {
+                final ProvenanceEventRecord event = page.next();
+                lastEventIdRead = event.getEventId();
+
+                if (filter == null || filter.test(event)) {
+                    return event;
+                }
+            }
+
+            if (exhausted || !readPage()) {
+                return null;
+            }
+        }
+    }
+
+    private boolean readPage() throws IOException {
+        final Long maxEventId = maxEventIdSupplier.get();
+        if (maxEventId == null || nextEventId > maxEventId) {
+            exhausted = true;
+            return false;
+        }
+
+        final List<ProvenanceEventRecord> events = pageReader.readPage(nextEventId, pageSize);
+        if (events == null || events.isEmpty()) {
+            // The page reader may leave out events, such as those that a user is not authorized to access, so an empty page
+            // does not necessarily mean that there are no more events. Move past the range that was read and try again.
+            lastEventIdRead = Math.min(maxEventId, nextEventId + pageSize - 1);
+            nextEventId += pageSize;
+            page = Collections.emptyIterator();
+            return true;
+        }
+
+        nextEventId = events.get(events.size() - 1).getEventId() + 1;
+        page = events.iterator();
+        return true;
+    }
+
+    @Override
+    public long getLastEventIdRead() {
+        return lastEventIdRead;
+    }
+
+    @Override
+    public void close() {
+        page = Collections.emptyIterator();
+        exhausted = true;
+    }
+
+    /**
+     * Reads a page of events from a repository
+     */
+    @FunctionalInterface
+    public interface PageReader {
+        /**
+         * @param firstEventId the ID of the first event to read
+         * @param maxEvents the maximum number of events to read
+         * @return the events that were read, in ascending order of their Event ID's
+         * @throws IOException if unable to read from the repository
+         */
+        List<ProvenanceEventRecord> readPage(long firstEventId, int maxEvents) throws IOException;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <p>
+ * A cursor over the events in a {@link ProvenanceEventRepository}. Events are provided in ascending order of their
+ * Event ID's and are read from the repository as the cursor advances, so the cursor can be used to export any number
+ * of events without holding more than a small number of them in memory at any time.
+ * </p>
+ *
+ * <p>
+ * A cursor may be created with a filter, in which case only those events that match the filter are returned from
+ * {@link #nextEvent()}. The ID of the last event that the cursor has read, whether or not it matched the filter, is
+ * available from {@link #getLastEventIdRead()} so that a caller that records its position is able to resume after
+ * any events that were filtered out.
+ * </p>
+ *
+ * <p>
+ * Cursors are not thread-safe and must be closed once they are no longer needed.
+ * </p>
+ */
+public interface ProvenanceEventCursor extends Closeable {
+
+    /**
+     * Advances the cursor to the next event that matches the cursor's filter
+     *
+     * @return the next matching event, or <code>null</code> if the cursor has reached the end of the events in the repository
+     * @throws IOException if unable to read events from the repository
+     */
+    ProvenanceEventRecord nextEvent() throws IOException;
+
+    /**
+     * @return the ID of the last event that the cursor read from the repository, regardless of whether or not the event
+     *         matched the cursor's filter, or <code>-1</code> if no event has been read yet
+     */
+    long getLastEventIdRead();
+}
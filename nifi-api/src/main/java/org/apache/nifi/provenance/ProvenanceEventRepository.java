@@ -18,6 +18,7 @@ package org.apache.nifi.provenance;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * This Repository houses Provenance Events. The repository is responsible for
@@ -69,6 +70,24 @@ public interface ProvenanceEventRepository {
      */
     List<ProvenanceEventRecord> getEvents(long firstRecordId, final int maxRecords) throws IOException;
 
+    /**
+     * Returns a cursor over all <code>ProvenanceEventRecord</code>s in the
+     * repository starting with the given ID, in ascending order of their
+     * IDs. Unlike {@link #getEvents(long, int)}, the events are read as the
+     * cursor advances rather than being gathered up front, so any number of
+     * events can be read through a single cursor. This method performs no
+     * authorization of the events. The returned cursor must be closed.
+     *
+     * @param firstRecordId id of the first record to retrieve
+     * @param filter the filter that an event must match in order to be
+     *            returned by the cursor, or <code>null</code> to return all events
+     * @return a cursor over the events
+     * @throws java.io.IOException if error reading from repository
+     */
+    default ProvenanceEventCursor getEventCursor(long firstRecordId, Predicate<ProvenanceEventRecord> filter) throws IOException {
+        return new PagingProvenanceEventCursor(firstRecordId, filter, PagingProvenanceEventCursor.DEFAULT_PAGE_SIZE, this::getEvents, this::getMaxEventId);
+    }
+
 
     /**
      * @return the largest ID of any event that is queryable in the repository.
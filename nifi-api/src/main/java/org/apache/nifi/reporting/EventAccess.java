@@ -27,11 +27,19 @@ import java.util.List;
 public interface EventAccess {
 
     /**
+     * The returned status may be shared with other callers and should be
+     * treated as read-only; use {@link ProcessGroupStatus#clone()} to obtain
+     * a copy that can be modified.
+     *
      * @return the status for all components in this Controller
      */
     ProcessGroupStatus getControllerStatus();
 
     /**
+     * The returned status may be shared with other callers and should be
+     * treated as read-only.
+     *
+     * @param groupId the identifier of the group
      * @return the status of all components in the specified group.
      */
     ProcessGroupStatus getGroupStatus(final String groupId);
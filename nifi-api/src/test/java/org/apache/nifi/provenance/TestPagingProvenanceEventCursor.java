@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestPagingProvenanceEventCursor {
+
+    @Test
+    public void testReadsAllEventsInPages() throws IOException {
+        final List<ProvenanceEventRecord> events = createEvents(25);
+        final AtomicInteger pagesRead = new AtomicInteger(0);
+
+        final PagingProvenanceEventCursor.PageReader pageReader = (firstEventId, maxEvents) -> {
+            pagesRead.incrementAndGet();
+            return readPage(events, firstEventId, maxEvents);
+        };
+
+        try (final ProvenanceEventCursor cursor = new PagingProvenanceEventCursor(3L, null, 10, pageReader, () -> 24L)) {
+            for (long expectedId = 3L; expectedId < 25L; expectedId++) {
+                assertEquals(expectedId, cursor.nextEvent().getEventId());
+            }
+
+            assertNull(cursor.nextEvent());
+            assertEquals(24L, cursor.getLastEventIdRead());
+        }
+
+        assertEquals(3, pagesRead.get());
+    }
+
+    @Test
+    public void testFilterSkipsEventsButTracksLastEventRead() throws IOException {
+        final List<ProvenanceEventRecord> events = createEvents(25);
+
+        try (final ProvenanceEventCursor cursor = new PagingProvenanceEventCursor(0L, event -> event.getEventId() % 10 == 0L, 7,
+            (firstEventId, maxEvents) -> readPage(events, firstEventId, maxEvents), () -> 24L)) {
+
+            assertEquals(0L, cursor.nextEvent().getEventId());
+            assertEquals(10L, cursor.nextEvent().getEventId());
+            assertEquals(20L, cursor.nextEvent().getEventId());
+            assertNull(cursor.nextEvent());
+            assertEquals(24L, cursor.getLastEventIdRead());
+        }
+    }
+
+    @Test
+    public void testContinuesPastEmptyPages() throws IOException {
+        final List<ProvenanceEventRecord> events = createEvents(50);
+
+        // Simulate a user who is authorized only for the last few events
+        final PagingProvenanceEventCursor.PageReader pageReader = (firstEventId, maxEvents) -> {
+            final List<ProvenanceEventRecord> authorized = new ArrayList<>();
+            for (final ProvenanceEventRecord event : readPage(events, firstEventId, maxEvents)) {
+                if (event.getEventId() >= 45L) {
+                    authorized.add(event);
+                }
+            }
+            return authorized;
+        };
+
+        try (final ProvenanceEventCursor cursor = new PagingProvenanceEventCursor(0L, null, 10, pageReader, () -> 49L)) {
+            for (long expectedId = 45L; expectedId < 50L; expectedId++) {
+                assertEquals(expectedId, cursor.nextEvent().getEventId());
+            }
+
+            assertNull(cursor.nextEvent());
+        }
+    }
+
+    @Test
+    public void testEmptyRepository() throws IOException {
+        try (final ProvenanceEventCursor cursor = new PagingProvenanceEventCursor(0L, null, 10,
+            (firstEventId, maxEvents) -> new ArrayList<>(), () -> null)) {
+            assertNull(cursor.nextEvent());
+            assertEquals(-1L, cursor.getLastEventIdRead());
+        }
+    }
+
+    private List<ProvenanceEventRecord> readPage(final List<ProvenanceEventRecord> events, final long firstEventId, final int maxEvents) {
+        final int fromIndex = (int) Math.min(firstEventId, events.size());
+        final int toIndex = Math.min(fromIndex + maxEvents, events.size());
+        return new ArrayList<>(events.subList(fromIndex, toIndex));
+    }
+
+    private List<ProvenanceEventRecord> createEvents(final int count) {
+        final List<ProvenanceEventRecord> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final ProvenanceEventRecord event = Mockito.mock(ProvenanceEventRecord.class);
+            Mockito.when(event.getEventId()).thenReturn((long) i);
+            events.add(event);
+        }
+
+        return events;
+    }
+}
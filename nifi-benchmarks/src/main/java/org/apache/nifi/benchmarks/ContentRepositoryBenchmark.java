@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing content to and reading content from the File System Content Repository, using a directory
+ * on the local disk. Written content is released as soon as it has been written so that the repository's
+ * background threads can destroy it, keeping the disk usage of a long run bounded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ContentRepositoryBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int contentSize;
+
+    private LocalRepositories repositories;
+    private ContentRepository contentRepository;
+    private ResourceClaimManager claimManager;
+    private byte[] content;
+    private byte[] readBuffer;
+    private ContentClaim readClaim;
+    private final Set<ResourceClaim> awaitingDestruction = new LinkedHashSet<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new LocalRepositories();
+        contentRepository = repositories.getContentRepository();
+        claimManager = repositories.getResourceClaimManager();
+
+        content = new byte[contentSize];
+        new Random(contentSize).nextBytes(content);
+        readBuffer = new byte[8192];
+
+        readClaim = contentRepository.create(false);
+        try (final OutputStream out = contentRepository.write(readClaim)) {
+            out.write(content);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public ContentClaim write() throws IOException {
+        final ContentClaim claim = contentRepository.create(false);
+        try (final OutputStream out = contentRepository.write(claim)) {
+            out.write(content);
+        }
+
+        release(claim);
+        return claim;
+    }
+
+    @Benchmark
+    public long read() throws IOException {
+        long total = 0L;
+        try (final InputStream in = contentRepository.read(readClaim)) {
+            int len;
+            while ((len = in.read(readBuffer)) > 0) {
+                total += len;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Mirrors what the FlowFile Repository does when the last FlowFile that references a Resource Claim goes away:
+     * the Resource Claim may be destroyed only once nothing is appending to it any longer.
+     */
+    private void release(final ContentClaim claim) {
+        final ResourceClaim resourceClaim = claim.getResourceClaim();
+        if (contentRepository.decrementClaimantCount(claim) == 0) {
+            awaitingDestruction.add(resourceClaim);
+        }
+
+        final Iterator<ResourceClaim> itr = awaitingDestruction.iterator();
+        while (itr.hasNext()) {
+            final ResourceClaim awaiting = itr.next();
+            if (!awaiting.isInUse() && claimManager.getClaimantCount(awaiting) == 0) {
+                claimManager.markDestructable(awaiting);
+                itr.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.attribute.expression.language.PreparedQuery;
+import org.apache.nifi.attribute.expression.language.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures evaluating Expression Language against the attributes of a FlowFile, both for an expression that
+ * was prepared ahead of time, as a processor does for a property, and for one that is prepared again on every
+ * evaluation, as happens when a property value is created for each FlowFile. Preparing the same text again is
+ * served from the {@link Query#getPreparedQueryCache() prepared query cache}, so it should not parse.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpressionLanguageBenchmark {
+
+    @Param({
+        "${filename}",
+        "${filename:substringBefore('.'):toUpper()}-${now():format('yyyyMMdd')}",
+        "${fileSize:gt(1024):and(${mime.type:startsWith('text/')})}",
+        "${path:replaceAll('/+', '_'):append('/'):append(${uuid}):length():plus(${fileSize}):mod(97)}"
+    })
+    private String expression;
+
+    private Map<String, String> attributes;
+    private PreparedQuery preparedQuery;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        attributes = new HashMap<>();
+        attributes.put("uuid", "6cb4e8b1-4ba8-4e3e-8de7-d1f4a8fba6a2");
+        attributes.put("filename", "benchmark-data.txt");
+        attributes.put("path", "/data/incoming/benchmarks/");
+        attributes.put("fileSize", "65536");
+        attributes.put("mime.type", "text/plain");
+
+        preparedQuery = Query.prepare(expression);
+    }
+
+    @Benchmark
+    public String evaluatePrepared() {
+        return preparedQuery.evaluateExpressions(attributes, null);
+    }
+
+    @Benchmark
+    public String prepareAndEvaluate() {
+        return Query.prepare(expression).evaluateExpressions(attributes, null);
+    }
+}
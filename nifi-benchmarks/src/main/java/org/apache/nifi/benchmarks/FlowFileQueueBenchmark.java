@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures putting FlowFiles into and polling them from a single connection's queue while several threads contend
+ * for it, the way that the concurrent tasks of a processor do. Every thread puts a batch and then polls a batch, so
+ * the queue stays small and the benchmark measures locking and prioritization rather than swapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class FlowFileQueueBenchmark {
+    private static final AtomicLong idGenerator = new AtomicLong(0L);
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private LocalRepositories repositories;
+    private FlowFileQueue queue;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new LocalRepositories();
+        queue = repositories.createFunnelConnection("queue-benchmark").getFlowFileQueue();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private final Set<FlowFileRecord> expired = new HashSet<>();
+        private List<FlowFileRecord> flowFiles;
+
+        @Setup(Level.Trial)
+        public void setup(final FlowFileQueueBenchmark benchmark) {
+            flowFiles = new ArrayList<>(benchmark.batchSize);
+            for (int i = 0; i < benchmark.batchSize; i++) {
+                flowFiles.add(new StandardFlowFileRecord.Builder()
+                    .id(idGenerator.getAndIncrement())
+                    .entryDate(System.currentTimeMillis())
+                    .addAttribute("uuid", "benchmark-" + i)
+                    .build());
+            }
+        }
+    }
+
+    @Benchmark
+    public void putAndPoll(final ThreadState state, final Blackhole blackhole) {
+        if (batchSize == 1) {
+            queue.put(state.flowFiles.get(0));
+            final FlowFileRecord polled = queue.poll(state.expired);
+            if (polled != null) {
+                queue.acknowledge(polled);
+            }
+            blackhole.consume(polled);
+        } else {
+            queue.putAll(state.flowFiles);
+            final List<FlowFileRecord> polled = queue.poll(batchSize, state.expired);
+            queue.acknowledge(polled);
+            blackhole.consume(polled);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.RepositoryRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.util.NiFiProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures updating the Write-Ahead FlowFile Repository, for each of the available Write-Ahead Log implementations.
+ * Each invocation journals the creation of a batch of FlowFiles and then their deletion, which is the pattern that a
+ * processor creating FlowFiles and a downstream processor consuming them produce between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@Threads(4)
+public class FlowFileRepositoryBenchmark {
+
+    @Param({"org.wali.MinimalLockingWriteAheadLog", "org.wali.SequentialAccessWriteAheadLog"})
+    private String walImplementation;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private LocalRepositories repositories;
+    private FlowFileRepository flowFileRepository;
+    private FlowFileQueue queue;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION, walImplementation);
+        repositories = new LocalRepositories(properties);
+
+        flowFileRepository = repositories.getFlowFileRepository();
+        queue = repositories.createFunnelConnection("flowfile-repository-benchmark").getFlowFileQueue();
+        flowFileRepository.loadFlowFiles(() -> Collections.singleton(queue), 0L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public void createAndDelete() throws IOException {
+        final List<RepositoryRecord> created = new ArrayList<>(batchSize);
+        final List<RepositoryRecord> deleted = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < batchSize; i++) {
+            final long id = flowFileRepository.getNextFlowFileSequence();
+            final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+                .id(id)
+                .entryDate(System.currentTimeMillis())
+                .addAttribute(CoreAttributes.UUID.key(), "00000000-0000-0000-0000-" + String.format("%012d", id))
+                .addAttribute(CoreAttributes.FILENAME.key(), "file-" + id)
+                .addAttribute("benchmark.attribute", "value")
+                .build();
+
+            final StandardRepositoryRecord createRecord = new StandardRepositoryRecord(queue);
+            createRecord.setWorking(flowFile);
+            createRecord.setDestination(queue);
+            created.add(createRecord);
+
+            final StandardRepositoryRecord deleteRecord = new StandardRepositoryRecord(queue, flowFile);
+            deleteRecord.markForDelete();
+            deleted.add(deleteRecord);
+        }
+
+        flowFileRepository.updateRepository(created);
+        flowFileRepository.updateRepository(deleted);
+    }
+}
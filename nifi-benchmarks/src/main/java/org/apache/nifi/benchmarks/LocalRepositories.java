@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.connectable.Funnel;
+import org.apache.nifi.connectable.StandardConnection;
+import org.apache.nifi.controller.FileSystemSwapManager;
+import org.apache.nifi.controller.ProcessScheduler;
+import org.apache.nifi.controller.StandardFunnel;
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.VolatileProvenanceRepository;
+import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.util.file.FileUtils;
+
+/**
+ * Creates the repositories that the benchmarks run against. Every instance owns its own
+ * temporary directory, which is removed again when the instance is closed, so that
+ * benchmarks never interfere with one another or with a NiFi instance on the same host.
+ */
+public class LocalRepositories implements AutoCloseable {
+    private final File baseDirectory;
+    private final NiFiProperties nifiProperties;
+    private final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+
+    private FileSystemRepository contentRepository;
+    private WriteAheadFlowFileRepository flowFileRepository;
+    private VolatileProvenanceRepository provenanceRepository;
+
+    public LocalRepositories() throws IOException {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * @param additionalProperties NiFi properties that override the defaults used by the benchmarks
+     * @throws IOException if the temporary directory cannot be created
+     */
+    public LocalRepositories(final Map<String, String> additionalProperties) throws IOException {
+        baseDirectory = Files.createTempDirectory("nifi-benchmark").toFile();
+
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, new File(baseDirectory, "flowfile_repository").getAbsolutePath());
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_PARTITIONS, "16");
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL, "2 mins");
+        properties.put(NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", new File(baseDirectory, "content_repository").getAbsolutePath());
+        properties.put(NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false");
+        properties.put(NiFiProperties.MAX_APPENDABLE_CLAIM_SIZE, "1 MB");
+        properties.put(NiFiProperties.MAX_FLOWFILES_PER_CLAIM, "100");
+        properties.putAll(additionalProperties);
+
+        nifiProperties = NiFiProperties.createBasicNiFiProperties(null, properties);
+    }
+
+    public NiFiProperties getNiFiProperties() {
+        return nifiProperties;
+    }
+
+    public ResourceClaimManager getResourceClaimManager() {
+        return claimManager;
+    }
+
+    public synchronized FileSystemRepository getContentRepository() throws IOException {
+        if (contentRepository == null) {
+            contentRepository = new FileSystemRepository(nifiProperties);
+            contentRepository.initialize(claimManager);
+        }
+        return contentRepository;
+    }
+
+    /**
+     * @return a FlowFile Repository that has been initialized; the caller is responsible for loading FlowFiles
+     *         from it before updating it
+     * @throws IOException if the repository cannot be initialized
+     */
+    public synchronized WriteAheadFlowFileRepository getFlowFileRepository() throws IOException {
+        if (flowFileRepository == null) {
+            flowFileRepository = new WriteAheadFlowFileRepository(nifiProperties);
+            flowFileRepository.initialize(claimManager);
+        }
+        return flowFileRepository;
+    }
+
+    public synchronized VolatileProvenanceRepository getProvenanceRepository() throws IOException {
+        if (provenanceRepository == null) {
+            provenanceRepository = new VolatileProvenanceRepository(nifiProperties);
+            provenanceRepository.initialize(null, null, null, null);
+        }
+        return provenanceRepository;
+    }
+
+    /**
+     * Creates a Connection between two Funnels whose queue is backed by the repositories of this instance. The queue
+     * never swaps, so that the benchmarks measure only the in-memory behavior of the queue.
+     *
+     * @param identifier the identifier of the connection
+     * @return the connection, which has been added to both its source and its destination
+     * @throws IOException if the repositories cannot be initialized
+     */
+    public Connection createFunnelConnection(final String identifier) throws IOException {
+        final ProcessScheduler scheduler = createNoOpScheduler();
+        final Funnel source = new StandardFunnel(identifier + "-source", null, scheduler);
+        final Funnel destination = new StandardFunnel(identifier + "-destination", null, scheduler);
+
+        final Connection connection = new StandardConnection.Builder(scheduler)
+            .id(identifier)
+            .source(source)
+            .destination(destination)
+            .relationships(Collections.singleton(Relationship.ANONYMOUS))
+            .swapManager(new FileSystemSwapManager(nifiProperties))
+            .flowFileRepository(getFlowFileRepository())
+            .provenanceRepository(getProvenanceRepository())
+            .resourceClaimManager(claimManager)
+            .queueSwapThreshold(Integer.MAX_VALUE)
+            .build();
+
+        source.addConnection(connection);
+        destination.addConnection(connection);
+        return connection;
+    }
+
+    /**
+     * @return a ProcessScheduler that ignores every request. The queues that the benchmarks use notify the scheduler when
+     *         they receive data, but nothing is ever scheduled while a benchmark runs.
+     */
+    public static ProcessScheduler createNoOpScheduler() {
+        return (ProcessScheduler) Proxy.newProxyInstance(LocalRepositories.class.getClassLoader(), new Class<?>[] {ProcessScheduler.class},
+            (proxy, method, args) -> {
+                final Class<?> returnType = method.getReturnType();
+                if (returnType == boolean.class) {
+                    return false;
+                }
+                if (returnType == int.class) {
+                    return 0;
+                }
+                if (returnType == long.class) {
+                    return 0L;
+                }
+                return null;
+            });
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (contentRepository != null) {
+                contentRepository.shutdown();
+            }
+            if (flowFileRepository != null) {
+                flowFileRepository.close();
+            }
+            if (provenanceRepository != null) {
+                provenanceRepository.close();
+            }
+        } finally {
+            FileUtils.deleteFile(baseDirectory, true);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.CounterRepository;
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.ProcessContext;
+import org.apache.nifi.controller.repository.StandardCounterRepository;
+import org.apache.nifi.controller.repository.StandardProcessSession;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the full life of a batch of FlowFiles through the Process Session: one session creates the FlowFiles,
+ * writes their content, updates their attributes, transfers them to a connection and commits; a second session then
+ * pulls them from that connection, removes them and commits. Both sessions run against the real File System Content
+ * Repository and Write-Ahead FlowFile Repository in a temporary directory and the Volatile Provenance Repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ProcessSessionBenchmark {
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    @Param({"0", "1024"})
+    private int contentSize;
+
+    private LocalRepositories repositories;
+    private ProcessContext sourceContext;
+    private ProcessContext destinationContext;
+    private byte[] content;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new LocalRepositories();
+
+        final Connection connection = repositories.createFunnelConnection("session-benchmark");
+        final ContentRepository contentRepository = repositories.getContentRepository();
+        final FlowFileRepository flowFileRepository = repositories.getFlowFileRepository();
+        final ProvenanceEventRepository provenanceRepository = repositories.getProvenanceRepository();
+        final FlowFileEventRepository flowFileEventRepository = new RingBufferEventRepository(5);
+        final CounterRepository counterRepository = new StandardCounterRepository();
+
+        flowFileRepository.loadFlowFiles(() -> Collections.singleton(connection.getFlowFileQueue()), 0L);
+
+        sourceContext = new ProcessContext(connection.getSource(), new AtomicLong(0L), contentRepository, flowFileRepository,
+            flowFileEventRepository, counterRepository, provenanceRepository);
+        destinationContext = new ProcessContext(connection.getDestination(), new AtomicLong(0L), contentRepository, flowFileRepository,
+            flowFileEventRepository, counterRepository, provenanceRepository);
+
+        content = new byte[contentSize];
+        new Random(contentSize).nextBytes(content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repositories.close();
+    }
+
+    @Benchmark
+    public int createTransferAndRemove() {
+        final StandardProcessSession createSession = new StandardProcessSession(sourceContext);
+        for (int i = 0; i < batchSize; i++) {
+            FlowFile flowFile = createSession.create();
+            if (contentSize > 0) {
+                flowFile = createSession.write(flowFile, out -> out.write(content));
+            }
+            flowFile = createSession.putAttribute(flowFile, "benchmark.index", String.valueOf(i));
+            createSession.transfer(flowFile, Relationship.ANONYMOUS);
+        }
+        createSession.commit();
+
+        final StandardProcessSession removeSession = new StandardProcessSession(destinationContext);
+        final List<FlowFile> flowFiles = removeSession.get(batchSize);
+        removeSession.remove(flowFiles);
+        removeSession.commit();
+
+        return flowFiles.size();
+    }
+}
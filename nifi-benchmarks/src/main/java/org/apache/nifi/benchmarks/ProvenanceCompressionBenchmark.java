@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
+import org.apache.nifi.provenance.serialization.EventFileCompressor;
+import org.apache.nifi.provenance.serialization.RecordReader;
+import org.apache.nifi.provenance.serialization.RecordReaders;
+import org.apache.nifi.provenance.serialization.RecordWriter;
+import org.apache.nifi.provenance.serialization.RecordWriters;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.provenance.toc.TocWriter;
+import org.apache.nifi.util.file.FileUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the codecs that can be used to compress Provenance Event files. A single uncompressed event file is written
+ * once per trial; the {@code compress} benchmark then measures how quickly the background compression task can compress
+ * it, and the {@code readRandomEvent} benchmark measures how long a query takes to open the compressed file and decompress
+ * the block that holds a randomly chosen event. The compression ratio that each codec achieves is logged at the end of the trial.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ProvenanceCompressionBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(ProvenanceCompressionBenchmark.class);
+
+    private static final int EVENT_COUNT = 100_000;
+
+    @Param({"gzip", "lz4", "zstd"})
+    private String codecName;
+
+    @Param({"1048576"})
+    private int blockSize;
+
+    private EventFileCodec codec;
+    private File baseDirectory;
+    private File uncompressedFile;
+    private File compressedFile;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        codec = EventFileCodecs.forName(codecName);
+        baseDirectory = Files.createTempDirectory("nifi-benchmark").toFile();
+
+        uncompressedFile = new File(baseDirectory, "0.prov");
+        try (final RecordWriter writer = RecordWriters.newSchemaRecordWriter(uncompressedFile, new AtomicLong(0L), (EventFileCodec) null, true, blockSize)) {
+            writer.writeHeader(0L);
+            for (int i = 0; i < EVENT_COUNT; i++) {
+                writer.writeRecord(createEvent(i));
+            }
+        }
+
+        compressedFile = compress(new File(baseDirectory, "compressed"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        final double ratio = (double) uncompressedFile.length() / compressedFile.length();
+        logger.info("Codec {} compressed {} bytes of Provenance Events to {} bytes, a compression ratio of {}",
+            codecName, uncompressedFile.length(), compressedFile.length(), String.format("%.2f", ratio));
+
+        FileUtils.deleteFile(baseDirectory, true);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void compress(final CompressedBytes counters) throws IOException {
+        compress(new File(baseDirectory, "compress-" + Thread.currentThread().getId()));
+        counters.uncompressedBytes += uncompressedFile.length();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ProvenanceEventRecord readRandomEvent() throws IOException {
+        final long eventId = ThreadLocalRandom.current().nextLong(EVENT_COUNT);
+
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, null, 65536)) {
+            final Optional<ProvenanceEventRecord> event = reader.skipToEvent(eventId);
+            if (!event.isPresent()) {
+                throw new IllegalStateException("Could not find Provenance Event " + eventId + " in " + compressedFile);
+            }
+
+            return event.get();
+        }
+    }
+
+    private File compress(final File outputDirectory) throws IOException {
+        outputDirectory.mkdirs();
+
+        final File output = new File(outputDirectory, uncompressedFile.getName() + codec.getFileExtension());
+        try (final TocReader tocReader = new StandardTocReader(TocUtil.getTocFile(uncompressedFile));
+            final TocWriter tocWriter = new StandardTocWriter(TocUtil.getTocFile(output), codec, false)) {
+            EventFileCompressor.compress(uncompressedFile, tocReader, output, tocWriter, codec);
+        }
+
+        return output;
+    }
+
+    private static ProvenanceEventRecord createEvent(final int index) {
+        final String uuid = "00000000-0000-0000-0000-" + String.format("%012d", index);
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", uuid);
+        attributes.put("filename", "file-" + index + ".txt");
+        attributes.put("path", "./");
+        attributes.put("mime.type", "application/json");
+        attributes.put("benchmark.sequence", String.valueOf(index));
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventTime(System.currentTimeMillis())
+            .setEventType(ProvenanceEventType.ATTRIBUTES_MODIFIED)
+            .setComponentId("9c1f0bcb-0160-1000-ffff-ffffb7c5a1d2")
+            .setComponentType("UpdateAttribute")
+            .setFlowFileUUID(uuid)
+            .setFlowFileEntryDate(System.currentTimeMillis())
+            .setLineageStartDate(System.currentTimeMillis())
+            .setAttributes(attributes, attributes)
+            .setCurrentContentClaim("default", "1", "1517351226000-" + (index / 100), (long) (index % 100) * 1024L, 1024L)
+            .build();
+    }
+
+    /**
+     * Reports the number of uncompressed bytes that the {@code compress} benchmark processes, as a rate per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CompressedBytes {
+        public long uncompressedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            uncompressedBytes = 0L;
+        }
+    }
+}
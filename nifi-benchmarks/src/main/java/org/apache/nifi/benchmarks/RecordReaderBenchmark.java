@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the work that text-based Record Readers, such as the CSV reader, do for each Record: converting the text of each column
+ * to the type of the corresponding field in the schema. The generic path calls {@link DataTypeUtils#convertType} for every value, while
+ * the planned path creates a converter for each field once, via {@link DataTypeUtils#createConverter}, and applies it to every value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RecordReaderBenchmark {
+    private static final int RECORD_COUNT = 1000;
+
+    private RecordSchema schema;
+    private String[][] rows;
+    private int rowIndex;
+    private Supplier<DateFormat> dateFormat;
+    private Supplier<DateFormat> timeFormat;
+    private Supplier<DateFormat> timestampFormat;
+    private Function<Object, Object>[] converters;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.LONG.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("age", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("balance", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("city", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("visits", RecordFieldType.LONG.getDataType()));
+        fields.add(new RecordField("rating", RecordFieldType.FLOAT.getDataType()));
+        schema = new SimpleRecordSchema(fields);
+
+        rows = new String[RECORD_COUNT][];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            rows[i] = new String[] {String.valueOf(i), "User " + i, String.valueOf(20 + i % 50), String.valueOf(i * 1.5D), String.valueOf(i % 2 == 0),
+                "City " + i % 100, String.valueOf(i * 7L), String.valueOf(i % 5 + 0.5F)};
+        }
+
+        // As the CSV reader does, each format is created once and shared by all of the values read
+        final DateFormat df = DataTypeUtils.getDateFormat(RecordFieldType.DATE.getDefaultFormat());
+        final DateFormat tf = DataTypeUtils.getDateFormat(RecordFieldType.TIME.getDefaultFormat());
+        final DateFormat tsf = DataTypeUtils.getDateFormat(RecordFieldType.TIMESTAMP.getDefaultFormat());
+        dateFormat = () -> df;
+        timeFormat = () -> tf;
+        timestampFormat = () -> tsf;
+
+        converters = new Function[schema.getFieldCount()];
+        for (int i = 0; i < converters.length; i++) {
+            final RecordField field = schema.getField(i);
+            converters[i] = DataTypeUtils.createConverter(field.getDataType(), dateFormat, timeFormat, timestampFormat, field.getFieldName());
+        }
+    }
+
+    private String[] nextRow() {
+        rowIndex = (rowIndex + 1) % RECORD_COUNT;
+        return rows[rowIndex];
+    }
+
+    @Benchmark
+    public Object[] convertGeneric() {
+        final String[] row = nextRow();
+        final Object[] values = new Object[schema.getFieldCount()];
+        for (int i = 0; i < values.length; i++) {
+            final RecordField field = schema.getField(i);
+            values[i] = DataTypeUtils.convertType(row[i], field.getDataType(), dateFormat, timeFormat, timestampFormat, field.getFieldName());
+        }
+        return values;
+    }
+
+    @Benchmark
+    public Object[] convertPlanned() {
+        final String[] row = nextRow();
+        final Object[] values = new Object[converters.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = converters[i].apply(row[i]);
+        }
+        return values;
+    }
+}
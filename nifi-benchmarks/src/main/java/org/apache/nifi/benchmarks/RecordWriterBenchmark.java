@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmarks;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.nifi.avro.AvroConversionPlan;
+import org.apache.nifi.avro.AvroTypeUtil;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the work that Record Writers do for each Record: converting a Record into an Avro Record, as the Avro writers do, and
+ * formatting its timestamp, as the CSV writer does. Each is measured both along the generic path, which looks up fields and dispatches
+ * on their types, or creates a date format, for every value, and along the planned path, which reuses an {@link AvroConversionPlan}
+ * or a cached formatter for every Record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RecordWriterBenchmark {
+    private static final int RECORD_COUNT = 1000;
+    private static final String TIMESTAMP_FORMAT = RecordFieldType.TIMESTAMP.getDefaultFormat();
+
+    private Schema avroSchema;
+    private Record[] records;
+    private int recordIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.LONG.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("email", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("age", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("balance", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("updated", RecordFieldType.TIMESTAMP.getDataType()));
+        fields.add(new RecordField("city", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("country", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("visits", RecordFieldType.LONG.getDataType()));
+        final RecordSchema recordSchema = new SimpleRecordSchema(fields);
+
+        avroSchema = AvroTypeUtil.extractAvroSchema(recordSchema);
+
+        records = new Record[RECORD_COUNT];
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            final Object[] values = new Object[] {(long) i, "User " + i, "user" + i + "@example.com", 20 + i % 50, i * 1.5D, i % 2 == 0,
+                new Timestamp(1510596012345L + i * 1000L), "City " + i % 100, "Country " + i % 10, i * 7L};
+            records[i] = new ArrayRecord(recordSchema, values);
+        }
+    }
+
+    private Record nextRecord() {
+        recordIndex = (recordIndex + 1) % RECORD_COUNT;
+        return records[recordIndex];
+    }
+
+    @Benchmark
+    public GenericRecord convertGeneric() {
+        final Record record = nextRecord();
+        final GenericRecord rec = new GenericData.Record(avroSchema);
+        for (final RecordField recordField : record.getSchema().getFields()) {
+            final Field field = avroSchema.getField(recordField.getFieldName());
+            if (field != null) {
+                rec.put(recordField.getFieldName(), AvroTypeUtil.convertToAvroObject(record.getValue(recordField), field.schema()));
+            }
+        }
+        return rec;
+    }
+
+    @Benchmark
+    public GenericRecord convertPlanned() {
+        final Record record = nextRecord();
+        return AvroConversionPlan.getPlan(record.getSchema(), avroSchema).convert(record);
+    }
+
+    @Benchmark
+    public String formatTimestampGeneric() {
+        return DataTypeUtils.getDateFormat(TIMESTAMP_FORMAT).format((java.util.Date) nextRecord().getValue("updated"));
+    }
+
+    @Benchmark
+    public String formatTimestampPlanned() {
+        return DataTypeUtils.toString(nextRecord().getValue("updated"), TIMESTAMP_FORMAT);
+    }
+}
@@ -51,6 +51,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
 
     private final Collection<String> flowFileUuids;
     private final Collection<ProvenanceEventRecord> relevantRecords = new ArrayList<>();
+    private final Set<Long> relevantEventIds = new HashSet<>();
     private final Set<LineageNode> nodes = new HashSet<>();
     private final Set<LineageEdge> edges = new HashSet<>();
     private final int numSteps;
@@ -66,6 +67,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
     private int numCompletedSteps = 0;
 
     private volatile boolean canceled = false;
+    private boolean partialLineageStale = false;
     private final Object completionMonitor = new Object();
 
     public StandardLineageResult(final int numSteps, final Collection<String> flowFileUuids) {
@@ -76,8 +78,14 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
         updateExpiration();
     }
 
+    /**
+     * Returns the nodes of the lineage graph. If the computation has not yet finished, the nodes
+     * are those of a partial graph, built from the events that have been found so far.
+     */
     @Override
     public List<LineageNode> getNodes() {
+        refreshPartialLineage();
+
         readLock.lock();
         try {
             return new ArrayList<>(nodes);
@@ -86,8 +94,14 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
         }
     }
 
+    /**
+     * Returns the edges of the lineage graph. If the computation has not yet finished, the edges
+     * are those of a partial graph, built from the events that have been found so far.
+     */
     @Override
     public List<LineageEdge> getEdges() {
+        refreshPartialLineage();
+
         readLock.lock();
         try {
             return new ArrayList<>(edges);
@@ -97,6 +111,8 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
     }
 
     public int getNumberOfEdges() {
+        refreshPartialLineage();
+
         readLock.lock();
         try {
             return edges.size();
@@ -106,6 +122,8 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
     }
 
     public int getNumberOfNodes() {
+        refreshPartialLineage();
+
         readLock.lock();
         try {
             return nodes.size();
@@ -186,15 +204,25 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
 
         writeLock.lock();
         try {
-            relevantRecords.addAll(records);
+            // An event may be returned by more than one step, if the FlowFile UUIDs are searched in several batches
+            // and the event refers to FlowFiles in more than one of them, so we keep only the first copy of each event.
+            boolean added = false;
+            for (final ProvenanceEventRecord record : records) {
+                if (relevantEventIds.add(record.getEventId())) {
+                    relevantRecords.add(record);
+                    added = true;
+                }
+            }
 
             numCompletedSteps++;
             updateExpiration();
 
             if (numCompletedSteps >= numSteps && error == null) {
                 computationComplete = true;
-                computeLineage();
+                computeLineage(true);
                 computationNanos = System.nanoTime() - creationNanos;
+            } else if (added) {
+                partialLineageStale = true;
             }
         } finally {
             writeLock.unlock();
@@ -210,12 +238,42 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
         }
     }
 
+    /**
+     * @return a copy of the Provenance Events that the lineage is computed from
+     */
+    public List<ProvenanceEventRecord> getRelevantRecords() {
+        readLock.lock();
+        try {
+            return new ArrayList<>(relevantRecords);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the partial lineage graph if events have been received since it was last built and the
+     * computation has not yet completed. The graph is built only when it is requested so that the cost
+     * of building it is not paid for every step of the computation.
+     */
+    private void refreshPartialLineage() {
+        writeLock.lock();
+        try {
+            if (partialLineageStale && numCompletedSteps < numSteps && error == null) {
+                computeLineage(false);
+            }
+            partialLineageStale = false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     /**
      * Computes the lineage from the relevant Provenance Event Records. This
-     * method must be called with the write lock held and is only going to be
-     * useful after all of the records have been successfully obtained
+     * method must be called with the write lock held. If the computation is not yet
+     * complete, the result is a partial graph, and a graph that cannot be built is not
+     * considered an error because the events that are still missing may resolve it.
      */
-    private void computeLineage() {
+    private void computeLineage(final boolean complete) {
         logger.debug("Computing lineage with the following events: {}", relevantRecords);
         final long startNanos = System.nanoTime();
 
@@ -285,8 +343,10 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
                             if (!isNewFlowFile) {
                                 final String msg = "Unable to generate Lineage Graph because multiple "
                                     + "events were registered claiming to have generated the same FlowFile (UUID = " + childNode.getFlowFileUuid() + ")";
-                                logger.error(msg);
-                                setError(msg);
+                                if (complete) {
+                                    logger.error(msg);
+                                    setError(msg);
+                                }
                                 return;
                             }
 
@@ -313,8 +373,10 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
                     if (!isNewFlowFile) {
                         final String msg = "Found cycle in graph. This indicates that multiple events "
                             + "were registered claiming to have generated the same FlowFile (UUID = " + flowFileNode.getFlowFileUuid() + ")";
-                        setError(msg);
-                        logger.error(msg);
+                        if (complete) {
+                            setError(msg);
+                            logger.error(msg);
+                        }
                         return;
                     }
                     edges.add(new EdgeNode(record.getFlowFileUuid(), lineageNode, flowFileNode));
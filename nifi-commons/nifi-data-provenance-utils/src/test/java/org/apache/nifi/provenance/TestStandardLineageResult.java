@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.nifi.provenance.lineage.LineageNodeType;
+import org.junit.Test;
+
+public class TestStandardLineageResult {
+
+    @Test
+    public void testPartialLineageIsAvailableBeforeCompletion() {
+        final StandardLineageResult result = new StandardLineageResult(3, Collections.singleton("1234"));
+        assertTrue(result.getNodes().isEmpty());
+
+        result.update(Collections.singletonList(createEvent(1L, 1000L, "1234")), 1L);
+        assertFalse(result.isFinished());
+        assertEquals(1, result.getNodes().size());
+        assertTrue(result.getEdges().isEmpty());
+
+        result.update(Collections.singletonList(createEvent(2L, 2000L, "1234")), 1L);
+        assertFalse(result.isFinished());
+        assertEquals(2, result.getNodes().size());
+        assertEquals(1, result.getEdges().size());
+
+        result.update(Collections.emptyList(), 0L);
+        assertTrue(result.isFinished());
+        assertNull(result.getError());
+        assertEquals(2, result.getNodes().size());
+        assertEquals(1, result.getEdges().size());
+    }
+
+    @Test
+    public void testEventsReturnedByMultipleStepsAreCountedOnce() {
+        final StandardLineageResult result = new StandardLineageResult(2, Arrays.asList("1234", "5678"));
+
+        final ProvenanceEventRecord event = createEvent(1L, 1000L, "1234");
+        result.update(Arrays.asList(event, createEvent(2L, 2000L, "5678")), 2L);
+        result.update(Collections.singletonList(event), 1L);
+
+        assertTrue(result.isFinished());
+        assertNull(result.getError());
+        assertEquals(2, result.getTotalHitCount());
+        assertEquals(2, result.getRelevantRecords().size());
+        assertEquals(2L, result.getNodes().stream().filter(node -> node.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE).count());
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final long timestamp, final String uuid) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.CONTENT_MODIFIED)
+            .setAttributes(previousAttributes, Collections.emptyMap())
+            .setComponentId("component-1")
+            .setComponentType("unit test")
+            .setEventId(eventId)
+            .setEventTime(timestamp)
+            .setFlowFileEntryDate(timestamp)
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(timestamp)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+            .build();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * A bounded cache of {@link PreparedQuery} instances, keyed by the text of the query, so that the same
+ * Expression Language text is parsed only once no matter how many components or property values make use of it.
+ * A PreparedQuery holds no state that is specific to an evaluation, so a single instance can safely be shared.
+ * </p>
+ *
+ * <p>
+ * Lookups do not lock. When the cache is full, an arbitrary entry is evicted to make room for a new one.
+ * The cache used by {@link Query#prepare(String)} holds at most {@value #DEFAULT_MAX_SIZE} entries unless the
+ * {@value #MAX_SIZE_PROPERTY} system property specifies otherwise; a value less than 1 disables caching.
+ * </p>
+ */
+public class PreparedQueryCache {
+
+    public static final String MAX_SIZE_PROPERTY = "nifi.expression.language.prepared.query.cache.size";
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    private final ConcurrentMap<String, PreparedQuery> preparedQueries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    public PreparedQueryCache(final int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the PreparedQuery for the given query, parsing the query only if it is not already cached
+     *
+     * @param query the query to prepare
+     * @return the PreparedQuery for the given query
+     */
+    public PreparedQuery getPrepared(final String query) {
+        final PreparedQuery cached = preparedQueries.get(query);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+
+        missCount.increment();
+        final PreparedQuery prepared = Query.parse(query);
+        if (maxSize < 1) {
+            return prepared;
+        }
+
+        evictIfFull();
+        final PreparedQuery existing = preparedQueries.putIfAbsent(query, prepared);
+        return existing == null ? prepared : existing;
+    }
+
+    private void evictIfFull() {
+        final Iterator<String> itr = preparedQueries.keySet().iterator();
+        while (preparedQueries.size() >= maxSize && itr.hasNext()) {
+            itr.next();
+            itr.remove();
+        }
+    }
+
+    /**
+     * @return the number of times that a PreparedQuery was found in the cache
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of times that a query had to be parsed because it was not found in the cache
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of PreparedQuery instances currently cached
+     */
+    public int size() {
+        return preparedQueries.size();
+    }
+
+    /**
+     * @return the maximum number of PreparedQuery instances that will be cached
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes all cached PreparedQuery instances. The hit and miss counts are not reset.
+     */
+    public void clear() {
+        preparedQueries.clear();
+    }
+}
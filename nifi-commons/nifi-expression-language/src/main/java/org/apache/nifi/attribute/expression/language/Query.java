@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.antlr.runtime.tree.Tree;
+import org.apache.nifi.attribute.expression.language.compile.CompiledEvaluation;
 import org.apache.nifi.attribute.expression.language.compile.CompiledExpression;
 import org.apache.nifi.attribute.expression.language.compile.ExpressionCompiler;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
@@ -39,6 +40,9 @@ import org.apache.nifi.processor.exception.ProcessException;
  */
 public class Query {
 
+    private static final PreparedQueryCache PREPARED_QUERY_CACHE = new PreparedQueryCache(
+        Integer.getInteger(PreparedQueryCache.MAX_SIZE_PROPERTY, PreparedQueryCache.DEFAULT_MAX_SIZE));
+
     private final String query;
     private final Tree tree;
     private final Evaluator<?> evaluator;
@@ -203,6 +207,17 @@ public class Query {
     static String evaluateExpression(final Tree tree, final String queryText, final Map<String, String> valueMap, final AttributeValueDecorator decorator,
                                      final Map<String, String> stateVariables) throws ProcessException {
         final Object evaluated = Query.fromTree(tree, queryText).evaluate(valueMap, stateVariables).getValue();
+        return decorate(evaluated, decorator);
+    }
+
+    static String evaluateExpression(final CompiledEvaluation<?> evaluation, final Map<String, String> valueMap, final AttributeValueDecorator decorator)
+            throws ProcessException {
+        // compiled evaluations never reference state variables, so there is no need to wrap the value map
+        final Object evaluated = evaluation.evaluate(valueMap);
+        return decorate(evaluated, decorator);
+    }
+
+    private static String decorate(final Object evaluated, final AttributeValueDecorator decorator) {
         if (evaluated == null) {
             return null;
         }
@@ -242,11 +257,33 @@ public class Query {
     }
 
 
+    /**
+     * Returns a PreparedQuery for the given query. The parsed form of any query that contains Expression Language is
+     * cached and shared, so that the same text is parsed only once regardless of how often it is prepared.
+     *
+     * @param query the query to prepare
+     * @return a PreparedQuery for the given query
+     */
     public static PreparedQuery prepare(final String query) throws AttributeExpressionLanguageParsingException {
         if (query == null) {
             return new EmptyPreparedQuery(null);
         }
 
+        if (!query.contains("${")) {
+            return new EmptyPreparedQuery(query.replace("$$", "$"));
+        }
+
+        return PREPARED_QUERY_CACHE.getPrepared(query);
+    }
+
+    /**
+     * @return the cache that holds the PreparedQuery instances returned by {@link #prepare(String)}
+     */
+    public static PreparedQueryCache getPreparedQueryCache() {
+        return PREPARED_QUERY_CACHE;
+    }
+
+    static PreparedQuery parse(final String query) throws AttributeExpressionLanguageParsingException {
         final List<Range> ranges = extractExpressionRanges(query);
 
         if (ranges.isEmpty()) {
@@ -17,12 +17,15 @@
 package org.apache.nifi.attribute.expression.language;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.nifi.attribute.expression.language.compile.CompiledEvaluation;
 import org.apache.nifi.attribute.expression.language.compile.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.compile.EvaluatorCompiler;
 import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
 import org.apache.nifi.attribute.expression.language.evaluation.selection.AllAttributesEvaluator;
@@ -39,11 +42,29 @@ public class StandardPreparedQuery implements PreparedQuery {
 
     private final List<String> queryStrings;
     private final Map<String, CompiledExpression> expressions;
+    private final Map<String, CompiledEvaluation<?>> compiledEvaluations;
     private volatile VariableImpact variableImpact;
 
     public StandardPreparedQuery(final List<String> queryStrings, final Map<String, CompiledExpression> expressions) {
         this.queryStrings = queryStrings;
         this.expressions = expressions;
+        this.compiledEvaluations = compileEvaluations(expressions);
+    }
+
+    private static Map<String, CompiledEvaluation<?>> compileEvaluations(final Map<String, CompiledExpression> expressions) {
+        if (!EvaluatorCompiler.isEnabled()) {
+            return Collections.emptyMap();
+        }
+
+        // Expressions that cannot be compiled are left out of the map and are interpreted on each evaluation
+        final Map<String, CompiledEvaluation<?>> compiled = new HashMap<>();
+        for (final Map.Entry<String, CompiledExpression> entry : expressions.entrySet()) {
+            final CompiledEvaluation<?> evaluation = EvaluatorCompiler.compile(entry.getValue().getRootEvaluator());
+            if (evaluation != null) {
+                compiled.put(entry.getKey(), evaluation);
+            }
+        }
+        return compiled;
     }
 
     @Override
@@ -54,7 +75,10 @@ public class StandardPreparedQuery implements PreparedQuery {
             if (expression == null) {
                 sb.append(val);
             } else {
-                final String evaluated = Query.evaluateExpression(expression.getTree(), val, valMap, decorator, stateVariables);
+                final CompiledEvaluation<?> evaluation = compiledEvaluations.get(val);
+                final String evaluated = evaluation == null
+                    ? Query.evaluateExpression(expression.getTree(), val, valMap, decorator, stateVariables)
+                    : Query.evaluateExpression(evaluation, valMap, decorator);
                 if (evaluated != null) {
                     sb.append(evaluated);
                 }
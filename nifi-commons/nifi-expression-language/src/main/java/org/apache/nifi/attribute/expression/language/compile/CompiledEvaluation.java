@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import java.util.Map;
+
+/**
+ * A compiled form of an {@link org.apache.nifi.attribute.expression.language.evaluation.Evaluator Evaluator} tree.
+ * Evaluating it produces the same value as evaluating the tree that it was compiled from, but intermediate values
+ * are passed directly between functions rather than being wrapped in a QueryResult, and anything that does not
+ * depend on the attributes is resolved once, when the expression is compiled.
+ *
+ * @param <T> the type of value produced
+ */
+@FunctionalInterface
+public interface CompiledEvaluation<T> {
+
+    /**
+     * @param attributes the attributes to evaluate the expression against
+     * @return the value of the expression, which may be <code>null</code>
+     */
+    T evaluate(Map<String, String> attributes);
+}
@@ -0,0 +1,865 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.regex.Pattern;
+
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.BooleanCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.DecimalCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.NumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.StringCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.WholeNumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ContainsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.DivideEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EndsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsIgnoreCaseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.FindEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IfElseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.InEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IndexOfEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LastIndexOfEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LengthEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.MatchesEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.MinusEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ModEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.MultiplyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PlusEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PrependEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ReplaceNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringAfterEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringAfterLastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringBeforeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringBeforeLastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.SubstringEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToLowerEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToStringEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.DecimalLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.util.NumberParsing;
+import org.apache.nifi.expression.AttributeExpression.ResultType;
+
+/**
+ * <p>
+ * Compiles an {@link Evaluator} tree into a {@link CompiledEvaluation}, so that an expression can be evaluated
+ * repeatedly without building a new Evaluator tree for each evaluation and without wrapping each intermediate value
+ * in a QueryResult. Literals, and functions whose arguments are all literals, are evaluated once when the expression
+ * is compiled, and a regular expression that is given as a literal is compiled only once.
+ * </p>
+ *
+ * <p>
+ * Only stateless functions can be compiled. If any Evaluator in the tree references multiple attributes, reduces
+ * values, depends on state, or is not otherwise known to this compiler, the tree is not compiled and must be
+ * interpreted instead. Each compiled function mirrors the logic of the Evaluator that it replaces, including the
+ * order in which its arguments are evaluated and the exceptions that it throws.
+ * </p>
+ *
+ * <p>
+ * Compilation may be disabled by setting the {@value #DISABLED_PROPERTY} system property to <code>true</code>.
+ * </p>
+ */
+public class EvaluatorCompiler {
+
+    public static final String DISABLED_PROPERTY = "nifi.expression.language.compilation.disabled";
+
+    private static final UnsupportedEvaluatorException UNSUPPORTED = new UnsupportedEvaluatorException();
+
+    private EvaluatorCompiler() {
+    }
+
+    /**
+     * @return <code>true</code> unless compilation has been disabled by the {@value #DISABLED_PROPERTY} system property
+     */
+    public static boolean isEnabled() {
+        return !Boolean.getBoolean(DISABLED_PROPERTY);
+    }
+
+    /**
+     * @param evaluator the root of the Evaluator tree to compile
+     * @return a compiled form of the given Evaluator tree, or <code>null</code> if the tree contains an Evaluator that cannot be compiled
+     */
+    public static CompiledEvaluation<?> compile(final Evaluator<?> evaluator) {
+        try {
+            return compileEvaluator(evaluator);
+        } catch (final UnsupportedEvaluatorException uee) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompiledEvaluation<T> compileTyped(final Evaluator<T> evaluator) {
+        return (CompiledEvaluation<T>) compileEvaluator(evaluator);
+    }
+
+    private static CompiledEvaluation<?> compileEvaluator(final Evaluator<?> evaluator) {
+        if (evaluator == null) {
+            throw UNSUPPORTED;
+        }
+
+        if (evaluator instanceof StringLiteralEvaluator || evaluator instanceof WholeNumberLiteralEvaluator
+            || evaluator instanceof DecimalLiteralEvaluator || evaluator instanceof BooleanLiteralEvaluator) {
+            return new ConstantEvaluation<>(evaluator.evaluate(null).getValue());
+        }
+        if (evaluator instanceof AttributeEvaluator) {
+            return compileAttribute((AttributeEvaluator) evaluator);
+        }
+        if (evaluator instanceof StringCastEvaluator || evaluator instanceof ToStringEvaluator) {
+            final CompiledEvaluation<?> subject = compileEvaluator(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final Object value = subject.evaluate(attributes);
+                return value == null ? null : value.toString();
+            }, subject);
+        }
+        if (evaluator instanceof BooleanCastEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? null : Boolean.valueOf(value.trim());
+            }, subject);
+        }
+        if (evaluator instanceof WholeNumberCastEvaluator) {
+            return compileWholeNumberCast(evaluator.getSubjectEvaluator());
+        }
+        if (evaluator instanceof DecimalCastEvaluator) {
+            return compileDecimalCast(evaluator.getSubjectEvaluator());
+        }
+        if (evaluator instanceof NumberCastEvaluator) {
+            return compileNumberCast(evaluator.getSubjectEvaluator());
+        }
+
+        final CompiledEvaluation<?> function = compileStringFunction(evaluator);
+        if (function != null) {
+            return function;
+        }
+
+        final CompiledEvaluation<?> predicate = compilePredicate(evaluator);
+        if (predicate != null) {
+            return predicate;
+        }
+
+        final CompiledEvaluation<?> arithmetic = compileArithmetic(evaluator);
+        if (arithmetic != null) {
+            return arithmetic;
+        }
+
+        throw UNSUPPORTED;
+    }
+
+    private static CompiledEvaluation<String> compileAttribute(final AttributeEvaluator evaluator) {
+        final Evaluator<String> nameEvaluator = evaluator.getNameEvaluator();
+        final CompiledEvaluation<String> name = compileTyped(nameEvaluator);
+        if (name instanceof ConstantEvaluation) {
+            final String attributeName = name.evaluate(null);
+            return attributes -> attributes.get(attributeName);
+        }
+
+        return attributes -> attributes.get(name.evaluate(attributes));
+    }
+
+    private static CompiledEvaluation<?> compileStringFunction(final Evaluator<?> evaluator) {
+        if (evaluator instanceof TrimEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? null : value.trim();
+            }, subject);
+        }
+        if (evaluator instanceof ToLowerEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? null : value.toLowerCase();
+            }, subject);
+        }
+        if (evaluator instanceof ToUpperEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? null : value.toUpperCase();
+            }, subject);
+        }
+        if (evaluator instanceof AppendEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> append = compileTyped(((AppendEvaluator) evaluator).getAppendEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                final String appendValue = append.evaluate(attributes);
+                return (value == null ? "" : value) + (appendValue == null ? "" : appendValue);
+            }, subject, append);
+        }
+        if (evaluator instanceof PrependEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> prepend = compileTyped(((PrependEvaluator) evaluator).getPrependEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                final String prependValue = prepend.evaluate(attributes);
+                return (prependValue == null ? "" : prependValue) + (value == null ? "" : value);
+            }, subject, prepend);
+        }
+        if (evaluator instanceof SubstringEvaluator) {
+            final SubstringEvaluator substring = (SubstringEvaluator) evaluator;
+            final CompiledEvaluation<String> subject = compileString(substring.getSubjectEvaluator());
+            final CompiledEvaluation<Long> start = compileTyped(substring.getStartIndexEvaluator());
+            if (substring.getEndIndexEvaluator() == null) {
+                return fold(attributes -> {
+                    final String value = subject.evaluate(attributes);
+                    if (value == null) {
+                        return "";
+                    }
+                    return value.substring(start.evaluate(attributes).intValue());
+                }, subject, start);
+            }
+
+            final CompiledEvaluation<Long> end = compileTyped(substring.getEndIndexEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return "";
+                }
+                final int startIndex = start.evaluate(attributes).intValue();
+                final int endIndex = end.evaluate(attributes).intValue();
+                return value.substring(startIndex, endIndex);
+            }, subject, start, end);
+        }
+        if (evaluator instanceof SubstringBeforeEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> before = compileTyped(((SubstringBeforeEvaluator) evaluator).getBeforeEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return "";
+                }
+                final String beforeValue = before.evaluate(attributes);
+                if (beforeValue == null || beforeValue.length() == 0) {
+                    return value;
+                }
+                final int index = value.indexOf(beforeValue);
+                return index < 0 ? value : value.substring(0, index);
+            }, subject, before);
+        }
+        if (evaluator instanceof SubstringBeforeLastEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> before = compileTyped(((SubstringBeforeLastEvaluator) evaluator).getBeforeEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return "";
+                }
+                final int index = value.lastIndexOf(before.evaluate(attributes));
+                return index < 0 ? value : value.substring(0, index);
+            }, subject, before);
+        }
+        if (evaluator instanceof SubstringAfterEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> after = compileTyped(((SubstringAfterEvaluator) evaluator).getAfterEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return "";
+                }
+                final String afterValue = after.evaluate(attributes);
+                if (afterValue == null || afterValue.length() == 0) {
+                    return value;
+                }
+                final int index = value.indexOf(afterValue);
+                return index < 0 ? value : value.substring(index + afterValue.length());
+            }, subject, after);
+        }
+        if (evaluator instanceof SubstringAfterLastEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> after = compileTyped(((SubstringAfterLastEvaluator) evaluator).getAfterEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return "";
+                }
+                final String afterValue = after.evaluate(attributes);
+                final int index = value.lastIndexOf(afterValue);
+                if (index < 0 || index >= value.length()) {
+                    return value;
+                }
+                return value.substring(index + afterValue.length());
+            }, subject, after);
+        }
+        if (evaluator instanceof ReplaceNullEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> result = compileTyped(((ReplaceNullEvaluator) evaluator).getResultEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? result.evaluate(attributes) : value;
+            }, subject, result);
+        }
+        if (evaluator instanceof ReplaceEmptyEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> replacement = compileTyped(((ReplaceEmptyEvaluator) evaluator).getReplacementEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null || value.trim().isEmpty() ? replacement.evaluate(attributes) : value;
+            }, subject, replacement);
+        }
+        if (evaluator instanceof ReplaceEvaluator) {
+            final ReplaceEvaluator replace = (ReplaceEvaluator) evaluator;
+            final CompiledEvaluation<String> subject = compileString(replace.getSubjectEvaluator());
+            final CompiledEvaluation<String> search = compileTyped(replace.getSearchEvaluator());
+            final CompiledEvaluation<String> replacement = compileTyped(replace.getReplacementEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return null;
+                }
+                final String searchValue = search.evaluate(attributes);
+                final String replacementValue = replacement.evaluate(attributes);
+                return value.replace(searchValue, replacementValue);
+            }, subject, search, replacement);
+        }
+        if (evaluator instanceof LengthEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return (long) (value == null ? 0 : value.length());
+            }, subject);
+        }
+        if (evaluator instanceof IndexOfEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> index = compileTyped(((IndexOfEvaluator) evaluator).getIndexEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? -1L : (long) value.indexOf(index.evaluate(attributes));
+            }, subject, index);
+        }
+        if (evaluator instanceof LastIndexOfEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> index = compileTyped(((LastIndexOfEvaluator) evaluator).getIndexEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                return value == null ? -1L : (long) value.lastIndexOf(index.evaluate(attributes));
+            }, subject, index);
+        }
+        if (evaluator instanceof IfElseEvaluator) {
+            final IfElseEvaluator ifElse = (IfElseEvaluator) evaluator;
+            final CompiledEvaluation<Boolean> subject = compileBoolean(ifElse.getSubjectEvaluator());
+            final CompiledEvaluation<String> trueValue = compileTyped(ifElse.getTrueEvaluator());
+            final CompiledEvaluation<String> falseValue = compileTyped(ifElse.getFalseEvaluator());
+            return fold(attributes -> Boolean.TRUE.equals(subject.evaluate(attributes)) ? trueValue.evaluate(attributes) : falseValue.evaluate(attributes),
+                subject, trueValue, falseValue);
+        }
+
+        return null;
+    }
+
+    private static CompiledEvaluation<?> compilePredicate(final Evaluator<?> evaluator) {
+        if (evaluator instanceof IsNullEvaluator) {
+            final CompiledEvaluation<?> subject = compileEvaluator(evaluator.getSubjectEvaluator());
+            return fold(attributes -> subject.evaluate(attributes) == null, subject);
+        }
+        if (evaluator instanceof NotNullEvaluator) {
+            final CompiledEvaluation<?> subject = compileEvaluator(evaluator.getSubjectEvaluator());
+            return fold(attributes -> subject.evaluate(attributes) != null, subject);
+        }
+        if (evaluator instanceof IsEmptyEvaluator) {
+            final CompiledEvaluation<?> subject = compileEvaluator(evaluator.getSubjectEvaluator());
+            return fold(attributes -> {
+                final Object value = subject.evaluate(attributes);
+                return value == null || value.toString().trim().isEmpty();
+            }, subject);
+        }
+        if (evaluator instanceof StartsWithEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> search = compileTyped(((StartsWithEvaluator) evaluator).getSearchEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return false;
+                }
+                final String searchValue = search.evaluate(attributes);
+                return searchValue != null && value.startsWith(searchValue);
+            }, subject, search);
+        }
+        if (evaluator instanceof EndsWithEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> search = compileTyped(((EndsWithEvaluator) evaluator).getSearchEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return false;
+                }
+                final String searchValue = search.evaluate(attributes);
+                return searchValue != null && value.endsWith(searchValue);
+            }, subject, search);
+        }
+        if (evaluator instanceof ContainsEvaluator) {
+            final CompiledEvaluation<String> subject = compileString(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<String> search = compileTyped(((ContainsEvaluator) evaluator).getSearchEvaluator());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return false;
+                }
+                final String searchValue = search.evaluate(attributes);
+                return searchValue != null && value.contains(searchValue);
+            }, subject, search);
+        }
+        if (evaluator instanceof MatchesEvaluator) {
+            final MatchesEvaluator matches = (MatchesEvaluator) evaluator;
+            return compilePattern(compileString(matches.getSubjectEvaluator()), matches.getSearchEvaluator(), true);
+        }
+        if (evaluator instanceof FindEvaluator) {
+            final FindEvaluator find = (FindEvaluator) evaluator;
+            return compilePattern(compileString(find.getSubjectEvaluator()), find.getSearchEvaluator(), false);
+        }
+        if (evaluator instanceof InEvaluator) {
+            final InEvaluator in = (InEvaluator) evaluator;
+            final CompiledEvaluation<String> subject = compileString(in.getSubjectEvaluator());
+            final List<CompiledEvaluation<String>> searchList = new ArrayList<>();
+            for (final Evaluator<String> searchEvaluator : in.getSearchEvaluators()) {
+                searchList.add(compileTyped(searchEvaluator));
+            }
+
+            @SuppressWarnings("unchecked")
+            final CompiledEvaluation<String>[] searches = searchList.toArray(new CompiledEvaluation[searchList.size()]);
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return false;
+                }
+                for (final CompiledEvaluation<String> search : searches) {
+                    final String searchValue = search.evaluate(attributes);
+                    if (searchValue != null && value.equals(searchValue)) {
+                        return true;
+                    }
+                }
+                return false;
+            }, concat(subject, searches));
+        }
+        if (evaluator instanceof EqualsEvaluator) {
+            return compileEquals(evaluator.getSubjectEvaluator(), ((EqualsEvaluator) evaluator).getCompareToEvaluator());
+        }
+        if (evaluator instanceof EqualsIgnoreCaseEvaluator) {
+            final CompiledEvaluation<?> subject = compileEvaluator(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<?> compareTo = compileEvaluator(((EqualsIgnoreCaseEvaluator) evaluator).getCompareToEvaluator());
+            return fold(attributes -> {
+                final Object a = subject.evaluate(attributes);
+                if (a == null) {
+                    return false;
+                }
+                final Object b = compareTo.evaluate(attributes);
+                if (b == null) {
+                    return false;
+                }
+                if (a instanceof String && b instanceof String) {
+                    return ((String) a).equalsIgnoreCase((String) b);
+                }
+                return a.equals(b);
+            }, subject, compareTo);
+        }
+        if (evaluator instanceof GreaterThanEvaluator) {
+            return compileComparison(evaluator.getSubjectEvaluator(), ((GreaterThanEvaluator) evaluator).getComparisonEvaluator(), (a, b) -> a > b, (a, b) -> a > b);
+        }
+        if (evaluator instanceof GreaterThanOrEqualEvaluator) {
+            return compileComparison(evaluator.getSubjectEvaluator(), ((GreaterThanOrEqualEvaluator) evaluator).getComparisonEvaluator(), (a, b) -> a >= b, (a, b) -> a >= b);
+        }
+        if (evaluator instanceof LessThanEvaluator) {
+            return compileComparison(evaluator.getSubjectEvaluator(), ((LessThanEvaluator) evaluator).getComparisonEvaluator(), (a, b) -> a < b, (a, b) -> a < b);
+        }
+        if (evaluator instanceof LessThanOrEqualEvaluator) {
+            return compileComparison(evaluator.getSubjectEvaluator(), ((LessThanOrEqualEvaluator) evaluator).getComparisonEvaluator(), (a, b) -> a <= b, (a, b) -> a <= b);
+        }
+        if (evaluator instanceof AndEvaluator) {
+            final CompiledEvaluation<Boolean> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<Boolean> rhs = compileTyped(((AndEvaluator) evaluator).getRhsEvaluator());
+            return fold(attributes -> Boolean.FALSE.equals(subject.evaluate(attributes)) ? Boolean.FALSE : rhs.evaluate(attributes), subject, rhs);
+        }
+        if (evaluator instanceof OrEvaluator) {
+            final CompiledEvaluation<Boolean> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            final CompiledEvaluation<Boolean> rhs = compileTyped(((OrEvaluator) evaluator).getRhsEvaluator());
+            return fold(attributes -> Boolean.TRUE.equals(subject.evaluate(attributes)) ? Boolean.TRUE : rhs.evaluate(attributes), subject, rhs);
+        }
+        if (evaluator instanceof NotEvaluator) {
+            final CompiledEvaluation<Boolean> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            return fold(attributes -> !subject.evaluate(attributes), subject);
+        }
+
+        return null;
+    }
+
+    private static CompiledEvaluation<Boolean> compilePattern(final CompiledEvaluation<String> subject, final Evaluator<String> searchEvaluator, final boolean matchEntireValue) {
+        // mirror the Evaluators, which compile the pattern up front only when it is given as a literal
+        if (searchEvaluator instanceof StringLiteralEvaluator) {
+            final Pattern pattern = Pattern.compile(searchEvaluator.evaluate(null).getValue());
+            return fold(attributes -> {
+                final String value = subject.evaluate(attributes);
+                if (value == null) {
+                    return false;
+                }
+                return matchEntireValue ? pattern.matcher(value).matches() : pattern.matcher(value).find();
+            }, subject);
+        }
+
+        final CompiledEvaluation<String> search = compileTyped(searchEvaluator);
+        if (search instanceof ConstantEvaluation) {
+            // the pattern does not depend on the attributes, so compile it once unless it is invalid,
+            // in which case the error must surface when the expression is evaluated
+            try {
+                final Pattern pattern = Pattern.compile(search.evaluate(null));
+                return attributes -> {
+                    final String value = subject.evaluate(attributes);
+                    if (value == null) {
+                        return false;
+                    }
+                    return matchEntireValue ? pattern.matcher(value).matches() : pattern.matcher(value).find();
+                };
+            } catch (final RuntimeException e) {
+                // fall through to compiling the pattern on each evaluation
+            }
+        }
+
+        return attributes -> {
+            final String value = subject.evaluate(attributes);
+            if (value == null) {
+                return false;
+            }
+            final Pattern pattern = Pattern.compile(search.evaluate(attributes));
+            return matchEntireValue ? pattern.matcher(value).matches() : pattern.matcher(value).find();
+        };
+    }
+
+    private static CompiledEvaluation<Boolean> compileEquals(final Evaluator<?> subjectEvaluator, final Evaluator<?> compareToEvaluator) {
+        final CompiledEvaluation<?> subject = compileEvaluator(subjectEvaluator);
+        final CompiledEvaluation<?> compareTo = compileEvaluator(compareToEvaluator);
+        final ResultType subjectType = subjectEvaluator.getResultType();
+        final ResultType compareToType = compareToEvaluator.getResultType();
+
+        if (subjectType == compareToType) {
+            return fold(attributes -> {
+                final Object a = subject.evaluate(attributes);
+                if (a == null) {
+                    return false;
+                }
+                final Object b = compareTo.evaluate(attributes);
+                return b != null && a.equals(b);
+            }, subject, compareTo);
+        }
+
+        return fold(attributes -> {
+            final Object a = subject.evaluate(attributes);
+            if (a == null) {
+                return false;
+            }
+            final Object b = compareTo.evaluate(attributes);
+            if (b == null) {
+                return false;
+            }
+            return normalizeValue(subjectType, a).equals(normalizeValue(compareToType, b));
+        }, subject, compareTo);
+    }
+
+    private static String normalizeValue(final ResultType type, final Object value) {
+        switch (type) {
+            case STRING:
+                return (String) value;
+            case DATE:
+                return String.valueOf(((Date) value).getTime());
+            default:
+                return String.valueOf(value);
+        }
+    }
+
+    private static CompiledEvaluation<Boolean> compileComparison(final Evaluator<?> subjectEvaluator, final Evaluator<Number> comparisonEvaluator,
+            final LongComparison longComparison, final DoubleComparison doubleComparison) {
+        final CompiledEvaluation<Number> subject = compileNumber(subjectEvaluator);
+        final CompiledEvaluation<Number> comparison = compileTyped(comparisonEvaluator);
+        return fold(attributes -> {
+            final Number subjectValue = subject.evaluate(attributes);
+            if (subjectValue == null) {
+                return false;
+            }
+            final Number comparisonValue = comparison.evaluate(attributes);
+            if (comparisonValue == null) {
+                return false;
+            }
+            if (subjectValue instanceof Double || comparisonValue instanceof Double) {
+                return doubleComparison.test(subjectValue.doubleValue(), comparisonValue.doubleValue());
+            }
+            return longComparison.test(subjectValue.longValue(), comparisonValue.longValue());
+        }, subject, comparison);
+    }
+
+    private static CompiledEvaluation<?> compileArithmetic(final Evaluator<?> evaluator) {
+        if (evaluator instanceof PlusEvaluator) {
+            return compileArithmetic(evaluator.getSubjectEvaluator(), ((PlusEvaluator) evaluator).getOperandEvaluator(), (a, b) -> a + b, (a, b) -> a + b);
+        }
+        if (evaluator instanceof MinusEvaluator) {
+            return compileArithmetic(evaluator.getSubjectEvaluator(), ((MinusEvaluator) evaluator).getOperandEvaluator(), (a, b) -> a - b, (a, b) -> a - b);
+        }
+        if (evaluator instanceof MultiplyEvaluator) {
+            return compileArithmetic(evaluator.getSubjectEvaluator(), ((MultiplyEvaluator) evaluator).getOperandEvaluator(), (a, b) -> a * b, (a, b) -> a * b);
+        }
+        if (evaluator instanceof DivideEvaluator) {
+            return compileArithmetic(evaluator.getSubjectEvaluator(), ((DivideEvaluator) evaluator).getOperandEvaluator(), (a, b) -> a / b, (a, b) -> a / b);
+        }
+        if (evaluator instanceof ModEvaluator) {
+            return compileArithmetic(evaluator.getSubjectEvaluator(), ((ModEvaluator) evaluator).getOperandEvaluator(), (a, b) -> a % b, (a, b) -> a % b);
+        }
+
+        return null;
+    }
+
+    private static CompiledEvaluation<Number> compileArithmetic(final Evaluator<?> subjectEvaluator, final Evaluator<Number> operandEvaluator,
+            final LongBinaryOperator longOperator, final DoubleBinaryOperator doubleOperator) {
+        final CompiledEvaluation<Number> subject = compileNumber(subjectEvaluator);
+        final CompiledEvaluation<Number> operand = compileTyped(operandEvaluator);
+        return fold(attributes -> {
+            final Number subjectValue = subject.evaluate(attributes);
+            if (subjectValue == null) {
+                return null;
+            }
+            final Number operandValue = operand.evaluate(attributes);
+            if (operandValue == null) {
+                return null;
+            }
+            if (subjectValue instanceof Double || operandValue instanceof Double) {
+                return doubleOperator.applyAsDouble(subjectValue.doubleValue(), operandValue.doubleValue());
+            }
+            return longOperator.applyAsLong(subjectValue.longValue(), operandValue.longValue());
+        }, subject, operand);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompiledEvaluation<Long> compileWholeNumberCast(final Evaluator<?> subjectEvaluator) {
+        final CompiledEvaluation<?> subject = compileEvaluator(subjectEvaluator);
+        switch (subjectEvaluator.getResultType()) {
+            case WHOLE_NUMBER:
+                return (CompiledEvaluation<Long>) subject;
+            case STRING: {
+                final CompiledEvaluation<String> stringSubject = (CompiledEvaluation<String>) subject;
+                return fold(attributes -> {
+                    final String value = stringSubject.evaluate(attributes);
+                    return value == null ? null : toWholeNumber(value);
+                }, subject);
+            }
+            case DECIMAL:
+            case NUMBER: {
+                final CompiledEvaluation<Number> numberSubject = (CompiledEvaluation<Number>) subject;
+                return fold(attributes -> {
+                    final Number value = numberSubject.evaluate(attributes);
+                    return value == null ? null : Long.valueOf(value.longValue());
+                }, subject);
+            }
+            default:
+                throw UNSUPPORTED;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompiledEvaluation<Double> compileDecimalCast(final Evaluator<?> subjectEvaluator) {
+        final CompiledEvaluation<?> subject = compileEvaluator(subjectEvaluator);
+        switch (subjectEvaluator.getResultType()) {
+            case DECIMAL:
+                return (CompiledEvaluation<Double>) subject;
+            case STRING: {
+                final CompiledEvaluation<String> stringSubject = (CompiledEvaluation<String>) subject;
+                return fold(attributes -> {
+                    final String value = stringSubject.evaluate(attributes);
+                    return value == null ? null : toDecimal(value);
+                }, subject);
+            }
+            case WHOLE_NUMBER:
+            case NUMBER: {
+                final CompiledEvaluation<Number> numberSubject = (CompiledEvaluation<Number>) subject;
+                return fold(attributes -> {
+                    final Number value = numberSubject.evaluate(attributes);
+                    return value == null ? null : Double.valueOf(value.doubleValue());
+                }, subject);
+            }
+            default:
+                throw UNSUPPORTED;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompiledEvaluation<Number> compileNumberCast(final Evaluator<?> subjectEvaluator) {
+        final CompiledEvaluation<?> subject = compileEvaluator(subjectEvaluator);
+        switch (subjectEvaluator.getResultType()) {
+            case NUMBER:
+            case WHOLE_NUMBER:
+            case DECIMAL:
+                return (CompiledEvaluation<Number>) subject;
+            case STRING: {
+                final CompiledEvaluation<String> stringSubject = (CompiledEvaluation<String>) subject;
+                return fold(attributes -> {
+                    final String value = stringSubject.evaluate(attributes);
+                    return value == null ? null : toNumber(value);
+                }, subject);
+            }
+            default:
+                throw UNSUPPORTED;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompiledEvaluation<String> compileString(final Evaluator<?> evaluator) {
+        if (evaluator.getResultType() != ResultType.STRING) {
+            throw UNSUPPORTED;
+        }
+        return (CompiledEvaluation<String>) compileEvaluator(evaluator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompiledEvaluation<Boolean> compileBoolean(final Evaluator<?> evaluator) {
+        if (evaluator.getResultType() != ResultType.BOOLEAN) {
+            throw UNSUPPORTED;
+        }
+        return (CompiledEvaluation<Boolean>) compileEvaluator(evaluator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompiledEvaluation<Number> compileNumber(final Evaluator<?> evaluator) {
+        switch (evaluator.getResultType()) {
+            case NUMBER:
+            case WHOLE_NUMBER:
+            case DECIMAL:
+                return (CompiledEvaluation<Number>) compileEvaluator(evaluator);
+            default:
+                throw UNSUPPORTED;
+        }
+    }
+
+    private static Long toWholeNumber(final String value) {
+        final String trimmed = value.trim();
+        switch (NumberParsing.parse(trimmed)) {
+            case DECIMAL:
+                return Double.valueOf(trimmed).longValue();
+            case WHOLE_NUMBER:
+                return parseLong(trimmed);
+            default:
+                return null;
+        }
+    }
+
+    private static Double toDecimal(final String value) {
+        final String trimmed = value.trim();
+        switch (NumberParsing.parse(trimmed)) {
+            case DECIMAL:
+                return Double.valueOf(trimmed);
+            case WHOLE_NUMBER:
+                return parseLong(trimmed).doubleValue();
+            default:
+                return null;
+        }
+    }
+
+    private static Number toNumber(final String value) {
+        final String trimmed = value.trim();
+        switch (NumberParsing.parse(trimmed)) {
+            case DECIMAL:
+                return Double.valueOf(trimmed);
+            case WHOLE_NUMBER:
+                return parseLong(trimmed);
+            default:
+                return null;
+        }
+    }
+
+    private static Long parseLong(final String trimmed) {
+        try {
+            return Long.valueOf(trimmed);
+        } catch (final NumberFormatException nfe) {
+            // Will only occur if trimmed is a hex number
+            return Long.decode(trimmed);
+        }
+    }
+
+    private static CompiledEvaluation<?>[] concat(final CompiledEvaluation<?> first, final CompiledEvaluation<?>[] others) {
+        final CompiledEvaluation<?>[] all = new CompiledEvaluation<?>[others.length + 1];
+        all[0] = first;
+        System.arraycopy(others, 0, all, 1, others.length);
+        return all;
+    }
+
+    /**
+     * Evaluates the given evaluation once, up front, if all of its inputs are constant. If evaluating it fails, the
+     * evaluation is returned as-is so that the failure surfaces when the expression is evaluated, as it would when
+     * the expression is interpreted.
+     */
+    private static <T> CompiledEvaluation<T> fold(final CompiledEvaluation<T> evaluation, final CompiledEvaluation<?>... inputs) {
+        for (final CompiledEvaluation<?> input : inputs) {
+            if (!(input instanceof ConstantEvaluation)) {
+                return evaluation;
+            }
+        }
+
+        try {
+            return new ConstantEvaluation<>(evaluation.evaluate(Collections.emptyMap()));
+        } catch (final RuntimeException e) {
+            return evaluation;
+        }
+    }
+
+    private static class ConstantEvaluation<T> implements CompiledEvaluation<T> {
+        private final T value;
+
+        ConstantEvaluation(final T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T evaluate(final Map<String, String> attributes) {
+            return value;
+        }
+    }
+
+    private interface LongComparison {
+        boolean test(long a, long b);
+    }
+
+    private interface DoubleComparison {
+        boolean test(double a, double b);
+    }
+
+    private static class UnsupportedEvaluatorException extends RuntimeException {
+        UnsupportedEvaluatorException() {
+            super("Evaluator cannot be compiled", null, false, false);
+        }
+    }
+}
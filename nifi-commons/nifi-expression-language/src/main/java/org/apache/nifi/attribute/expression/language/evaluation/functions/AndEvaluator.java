@@ -57,4 +57,8 @@ public class AndEvaluator extends BooleanEvaluator {
         return subjectEvaluator;
     }
 
+    public Evaluator<Boolean> getRhsEvaluator() {
+        return rhsEvaluator;
+    }
+
 }
@@ -47,4 +47,9 @@ public class AppendEvaluator extends StringEvaluator {
     public Evaluator<?> getSubjectEvaluator() {
         return subject;
     }
+
+    public Evaluator<String> getAppendEvaluator() {
+        return appendEvaluator;
+    }
+
 }
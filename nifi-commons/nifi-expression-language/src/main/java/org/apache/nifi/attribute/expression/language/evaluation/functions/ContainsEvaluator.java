@@ -49,4 +49,8 @@ public class ContainsEvaluator extends BooleanEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getSearchEvaluator() {
+        return search;
+    }
+
 }
@@ -59,4 +59,8 @@ public class DivideEvaluator extends NumberEvaluator {
         return subject;
     }
 
+    public Evaluator<Number> getOperandEvaluator() {
+        return divideValue;
+    }
+
 }
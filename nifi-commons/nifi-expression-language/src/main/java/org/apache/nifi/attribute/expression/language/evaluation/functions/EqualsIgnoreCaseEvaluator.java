@@ -57,4 +57,8 @@ public class EqualsIgnoreCaseEvaluator extends BooleanEvaluator {
         return subject;
     }
 
+    public Evaluator<?> getCompareToEvaluator() {
+        return compareTo;
+    }
+
 }
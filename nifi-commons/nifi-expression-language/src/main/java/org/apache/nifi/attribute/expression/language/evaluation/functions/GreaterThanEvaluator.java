@@ -57,4 +57,8 @@ public class GreaterThanEvaluator extends BooleanEvaluator {
         return subject;
     }
 
+    public Evaluator<Number> getComparisonEvaluator() {
+        return comparison;
+    }
+
 }
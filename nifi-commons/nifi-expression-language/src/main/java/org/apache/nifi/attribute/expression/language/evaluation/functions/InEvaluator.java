@@ -58,4 +58,8 @@ public class InEvaluator extends BooleanEvaluator {
         return subject;
     }
 
+    public List<Evaluator<String>> getSearchEvaluators() {
+        return search;
+    }
+
 }
@@ -49,4 +49,8 @@ public class LastIndexOfEvaluator extends WholeNumberEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getIndexEvaluator() {
+        return indexEvaluator;
+    }
+
 }
@@ -59,4 +59,8 @@ public class MinusEvaluator extends NumberEvaluator {
         return subject;
     }
 
+    public Evaluator<Number> getOperandEvaluator() {
+        return minusValue;
+    }
+
 }
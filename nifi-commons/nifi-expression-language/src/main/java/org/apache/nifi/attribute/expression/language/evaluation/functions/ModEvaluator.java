@@ -59,4 +59,8 @@ public class ModEvaluator extends NumberEvaluator {
         return subject;
     }
 
+    public Evaluator<Number> getOperandEvaluator() {
+        return modValue;
+    }
+
 }
@@ -59,4 +59,8 @@ public class MultiplyEvaluator extends NumberEvaluator {
         return subject;
     }
 
+    public Evaluator<Number> getOperandEvaluator() {
+        return multiplyValue;
+    }
+
 }
@@ -59,4 +59,8 @@ public class PlusEvaluator extends NumberEvaluator {
         return subject;
     }
 
+    public Evaluator<Number> getOperandEvaluator() {
+        return plusValue;
+    }
+
 }
@@ -47,4 +47,8 @@ public class PrependEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getPrependEvaluator() {
+        return prependEvaluator;
+    }
+
 }
@@ -52,4 +52,12 @@ public class ReplaceEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getSearchEvaluator() {
+        return search;
+    }
+
+    public Evaluator<String> getReplacementEvaluator() {
+        return replacement;
+    }
+
 }
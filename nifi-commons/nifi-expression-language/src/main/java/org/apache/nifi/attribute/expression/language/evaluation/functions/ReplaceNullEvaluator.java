@@ -44,4 +44,8 @@ public class ReplaceNullEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getResultEvaluator() {
+        return resultEvaluator;
+    }
+
 }
@@ -56,4 +56,8 @@ public class SubstringAfterEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getAfterEvaluator() {
+        return afterEvaluator;
+    }
+
 }
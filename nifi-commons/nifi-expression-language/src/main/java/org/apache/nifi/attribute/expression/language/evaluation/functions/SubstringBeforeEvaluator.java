@@ -55,4 +55,8 @@ public class SubstringBeforeEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<String> getBeforeEvaluator() {
+        return beforeEvaluator;
+    }
+
 }
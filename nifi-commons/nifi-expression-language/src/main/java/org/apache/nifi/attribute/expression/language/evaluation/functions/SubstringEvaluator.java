@@ -61,4 +61,12 @@ public class SubstringEvaluator extends StringEvaluator {
         return subject;
     }
 
+    public Evaluator<Long> getStartIndexEvaluator() {
+        return startIndex;
+    }
+
+    public Evaluator<Long> getEndIndexEvaluator() {
+        return endIndex;
+    }
+
 }
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.nifi.attribute.expression.language.compile.CompiledEvaluation;
+import org.apache.nifi.attribute.expression.language.compile.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.compile.EvaluatorCompiler;
+import org.apache.nifi.attribute.expression.language.compile.ExpressionCompiler;
+import org.junit.Test;
+
+/**
+ * Verifies that each compiled expression produces the same value, or throws the same type of Exception,
+ * as the interpreted expression for a variety of attribute values.
+ */
+public class TestEvaluatorCompiler {
+
+    private static final List<String> VALUES = Arrays.asList(null, "", " ", "abc", "ABC", " abc ", "a.b.c", "hello world",
+        "10", " 10 ", "-3", "0", "3.5", "-0.5", "1e3", "0x1F", "9223372036854775807", "NaN", "true", "false", " TRUE ");
+
+    private static final List<String> COMPILABLE_EXPRESSIONS = Arrays.asList(
+        "${a}",
+        "${'a'}",
+        "${literal('a')}",
+        "${a:trim()}",
+        "${a:toLower()}",
+        "${a:toUpper():append(${b})}",
+        "${a:prepend('x'):append('y')}",
+        "${a:length()}",
+        "${a:substring(1)}",
+        "${a:substring(0, 2)}",
+        "${a:substringBefore('.')}",
+        "${a:substringBeforeLast('.')}",
+        "${a:substringAfter(${b})}",
+        "${a:substringAfterLast('.')}",
+        "${a:replace('a', 'z')}",
+        "${a:replace(${b}, 'z')}",
+        "${a:replaceNull('none')}",
+        "${a:replaceNull(${b})}",
+        "${a:replaceEmpty('empty')}",
+        "${a:indexOf('b')}",
+        "${a:lastIndexOf(${b})}",
+        "${a:isNull()}",
+        "${a:notNull()}",
+        "${a:isEmpty()}",
+        "${a:startsWith('a')}",
+        "${a:endsWith(${b})}",
+        "${a:contains('b')}",
+        "${a:matches('[a-z]+')}",
+        "${a:find('\\d')}",
+        "${a:matches(${b})}",
+        "${a:in('abc', 'ABC', ${b})}",
+        "${a:equals(${b})}",
+        "${a:equals('abc')}",
+        "${a:equalsIgnoreCase(${b})}",
+        "${a:toNumber():equals(10)}",
+        "${a:toNumber():equals(${b})}",
+        "${a:toDecimal():equals(${b:toDecimal()})}",
+        "${a:gt(${b})}",
+        "${a:ge(3)}",
+        "${a:lt(3.5)}",
+        "${a:le(${b})}",
+        "${a:toNumber()}",
+        "${a:toDecimal()}",
+        "${a:toNumber():toString()}",
+        "${a:plus(${b})}",
+        "${a:minus(1)}",
+        "${a:multiply(2.5)}",
+        "${a:divide(${b})}",
+        "${a:mod(${b})}",
+        "${a:toDecimal():divide(0)}",
+        "${a:plus(1):gt(${b:minus(1)})}",
+        "${a:toBoolean()}",
+        "${a:equals('abc'):and(${b:isEmpty()})}",
+        "${a:isNull():or(${b:equals('abc')})}",
+        "${a:toBoolean():and(${b:toBoolean()})}",
+        "${a:toBoolean():or(${b:toBoolean()})}",
+        "${a:isEmpty():not()}",
+        "${a:toBoolean():not()}",
+        "${a:startsWith('a'):ifElse('yes', 'no')}",
+        "${a:toBoolean():ifElse(${b}, 'no')}",
+        "${'abc':toUpper():substring(1)}",
+        "${literal(10):plus(5):multiply(${a})}",
+        "${${a}}",
+        "${${a}:length():gt(2)}"
+    );
+
+    private static final List<String> INTERPRETED_EXPRESSIONS = Arrays.asList(
+        "${allAttributes('a', 'b'):isEmpty()}",
+        "${anyAttribute('a', 'b'):equals('abc')}",
+        "${a:count()}",
+        "${a:toDate('yyyy'):format('yyyy')}",
+        "${now()}",
+        "${random()}",
+        "${a:jsonPath('$.a')}"
+    );
+
+    @Test
+    public void testCompiledEvaluationMatchesInterpreter() {
+        for (final String expression : COMPILABLE_EXPRESSIONS) {
+            final CompiledExpression compiledExpression = new ExpressionCompiler().compile(expression);
+            final CompiledEvaluation<?> evaluation = EvaluatorCompiler.compile(compiledExpression.getRootEvaluator());
+            assertNotNull("Expected expression to be compiled: " + expression, evaluation);
+
+            for (final Map<String, String> attributes : createAttributeMaps()) {
+                final Object expected = interpret(compiledExpression, attributes);
+                final Object actual = evaluate(evaluation, attributes);
+                assertEquals("Unexpected result for " + expression + " with attributes " + attributes, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedExpressionsAreInterpreted() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("a", "abc");
+
+        for (final String expression : INTERPRETED_EXPRESSIONS) {
+            final CompiledExpression compiledExpression = new ExpressionCompiler().compile(expression);
+            assertNull("Did not expect expression to be compiled: " + expression, EvaluatorCompiler.compile(compiledExpression.getRootEvaluator()));
+
+            // the expression must still be evaluated by the interpreter
+            Query.prepare(expression).evaluateExpressions(attributes, null);
+        }
+    }
+
+    @Test
+    public void testPreparedQueryUsesCompiledEvaluation() {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("a", "hello");
+        attributes.put("b", "world");
+
+        final PreparedQuery preparedQuery = Query.prepare("${a:toUpper()}, ${b:append('!')} $${a}");
+        for (int i = 0; i < 3; i++) {
+            assertEquals("HELLO, world! ${a}", preparedQuery.evaluateExpressions(attributes, null));
+        }
+
+        final Map<String, String> stateVariables = new HashMap<>();
+        stateVariables.put("a", "state");
+        assertEquals("HELLO, world! ${a}", preparedQuery.evaluateExpressions(attributes, null, stateVariables));
+    }
+
+    private static Object interpret(final CompiledExpression compiledExpression, final Map<String, String> attributes) {
+        try {
+            return Query.fromTree(compiledExpression.getTree(), compiledExpression.getExpression()).evaluate(attributes).getValue();
+        } catch (final Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private static Object evaluate(final CompiledEvaluation<?> evaluation, final Map<String, String> attributes) {
+        try {
+            return evaluation.evaluate(attributes);
+        } catch (final Exception e) {
+            return e.getClass();
+        }
+    }
+
+    private static List<Map<String, String>> createAttributeMaps() {
+        final List<Map<String, String>> attributeMaps = new ArrayList<>();
+        for (final String a : VALUES) {
+            for (final String b : VALUES) {
+                final Map<String, String> attributes = new HashMap<>();
+                if (a != null) {
+                    attributes.put("a", a);
+                }
+                if (b != null) {
+                    attributes.put("b", b);
+                }
+                attributeMaps.add(attributes);
+            }
+        }
+        return attributeMaps;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestPreparedQueryCache {
+
+    @Test
+    public void testCachedQueryIsReused() {
+        final PreparedQueryCache cache = new PreparedQueryCache(10);
+        final PreparedQuery first = cache.getPrepared("${filename:toUpper()}");
+        final PreparedQuery second = cache.getPrepared("${filename:toUpper()}");
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "abc");
+        assertEquals("ABC", second.evaluateExpressions(attributes, null));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        final PreparedQueryCache cache = new PreparedQueryCache(3);
+        for (int i = 0; i < 10; i++) {
+            cache.getPrepared("${attr" + i + "}");
+        }
+
+        assertTrue(cache.size() <= 3);
+        assertEquals(10, cache.getMissCount());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testCachingDisabled() {
+        final PreparedQueryCache cache = new PreparedQueryCache(0);
+        final PreparedQuery first = cache.getPrepared("${filename}");
+        final PreparedQuery second = cache.getPrepared("${filename}");
+
+        assertNotSame(first, second);
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidQueryIsCached() {
+        final PreparedQueryCache cache = new PreparedQueryCache(10);
+        final PreparedQuery first = cache.getPrepared("${filename:unknownFunction()}");
+
+        assertTrue(first instanceof InvalidPreparedQuery);
+        assertSame(first, cache.getPrepared("${filename:unknownFunction()}"));
+    }
+
+    @Test
+    public void testPrepareUsesSharedCache() {
+        final PreparedQueryCache cache = Query.getPreparedQueryCache();
+        final String query = "${testPrepareUsesSharedCache:append('!')}";
+
+        final long hits = cache.getHitCount();
+        final PreparedQuery first = Query.prepare(query);
+        final PreparedQuery second = Query.prepare(query);
+
+        assertSame(first, second);
+        assertTrue(cache.getHitCount() > hits);
+    }
+
+    @Test
+    public void testValueWithoutExpressionIsNotCached() {
+        final PreparedQueryCache cache = Query.getPreparedQueryCache();
+        final long misses = cache.getMissCount();
+        final long hits = cache.getHitCount();
+
+        assertEquals("$5 {abc}", Query.prepare("$$5 {abc}").evaluateExpressions(new HashMap<>(), null));
+        assertEquals(misses, cache.getMissCount());
+        assertEquals(hits, cache.getHitCount());
+    }
+}
@@ -77,6 +77,7 @@ public abstract class NiFiProperties {
     public static final String ADMINISTRATIVE_YIELD_DURATION = "nifi.administrative.yield.duration";
     public static final String PERSISTENT_STATE_DIRECTORY = "nifi.persistent.state.directory";
     public static final String BORED_YIELD_DURATION = "nifi.bored.yield.duration";
+    public static final String TIMER_DRIVEN_SCHEDULER = "nifi.timer.driven.scheduler";
     public static final String PROCESSOR_SCHEDULING_TIMEOUT = "nifi.processor.scheduling.timeout";
 
     // content repository properties
@@ -89,10 +90,12 @@ public abstract class NiFiProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_REPOSITORY_MAPPED_CACHE_SIZE = "nifi.content.repository.mapped.cache.size";
     public static final String CONTENT_VIEWER_URL = "nifi.content.viewer.url";
 
     // flowfile repository properties
     public static final String FLOWFILE_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.repository.implementation";
+    public static final String FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION = "nifi.flowfile.repository.wal.implementation";
     public static final String FLOWFILE_REPOSITORY_ALWAYS_SYNC = "nifi.flowfile.repository.always.sync";
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_PARTITIONS = "nifi.flowfile.repository.partitions";
@@ -103,6 +106,7 @@ public abstract class NiFiProperties {
     public static final String SWAP_IN_PERIOD = "nifi.swap.in.period";
     public static final String SWAP_OUT_THREADS = "nifi.swap.out.threads";
     public static final String SWAP_OUT_PERIOD = "nifi.swap.out.period";
+    public static final String SWAP_COMPRESSION_ENABLED = "nifi.swap.compression.enabled";
 
     // provenance properties
     public static final String PROVENANCE_REPO_IMPLEMENTATION_CLASS = "nifi.provenance.repository.implementation";
@@ -123,6 +127,9 @@ public abstract class NiFiProperties {
     public static final String PROVENANCE_REPO_ENCRYPTION_KEY_PROVIDER_IMPLEMENTATION_CLASS = "nifi.provenance.repository.encryption.key.provider.implementation";
     public static final String PROVENANCE_REPO_ENCRYPTION_KEY_PROVIDER_LOCATION = "nifi.provenance.repository.encryption.key.provider.location";
     public static final String PROVENANCE_REPO_DEBUG_FREQUENCY = "nifi.provenance.repository.debug.frequency";
+    public static final String PROVENANCE_SAMPLING_POLICY = "nifi.provenance.sampling.policy";
+    public static final String PROVENANCE_SAMPLING_POLICY_EVENT_TYPE_PREFIX = "nifi.provenance.sampling.policy.event.type.";
+    public static final String PROVENANCE_SAMPLING_POLICY_COMPONENT_PREFIX = "nifi.provenance.sampling.policy.component.";
 
     // component status repository properties
     public static final String COMPONENT_STATUS_REPOSITORY_IMPLEMENTATION = "nifi.components.status.repository.implementation";
@@ -193,6 +200,10 @@ public abstract class NiFiProperties {
     public static final String CLUSTER_NODE_CONNECTION_TIMEOUT = "nifi.cluster.node.connection.timeout";
     public static final String CLUSTER_NODE_READ_TIMEOUT = "nifi.cluster.node.read.timeout";
     public static final String CLUSTER_NODE_MAX_CONCURRENT_REQUESTS = "nifi.cluster.node.max.concurrent.requests";
+    public static final String LOAD_BALANCE_ADDRESS = "nifi.cluster.load.balance.address";
+    public static final String LOAD_BALANCE_PORT = "nifi.cluster.load.balance.port";
+    public static final String LOAD_BALANCE_MAX_THREAD_COUNT = "nifi.cluster.load.balance.max.thread.count";
+    public static final String LOAD_BALANCE_COMMS_TIMEOUT = "nifi.cluster.load.balance.comms.timeout";
     public static final String CLUSTER_FIREWALL_FILE = "nifi.cluster.firewall.file";
     public static final String FLOW_ELECTION_MAX_WAIT_TIME = "nifi.cluster.flow.election.max.wait.time";
     public static final String FLOW_ELECTION_MAX_CANDIDATES = "nifi.cluster.flow.election.max.candidates";
@@ -239,16 +250,21 @@ public abstract class NiFiProperties {
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "2 min";
     public static final int DEFAULT_MAX_FLOWFILES_PER_CLAIM = 100;
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "1 MB";
+    public static final String DEFAULT_CONTENT_REPOSITORY_MAPPED_CACHE_SIZE = "0 MB";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
     public static final String DEFAULT_SWAP_STORAGE_LOCATION = "./flowfile_repository/swap";
     public static final String DEFAULT_SWAP_IN_PERIOD = "1 sec";
     public static final String DEFAULT_SWAP_OUT_PERIOD = "5 sec";
     public static final int DEFAULT_SWAP_IN_THREADS = 4;
     public static final int DEFAULT_SWAP_OUT_THREADS = 4;
+    public static final String DEFAULT_SWAP_COMPRESSION_ENABLED = "false";
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_PERSISTENT_STATE_DIRECTORY = "./conf/state";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
+    public static final String TIMER_DRIVEN_SCHEDULER_POLLING = "polling";
+    public static final String TIMER_DRIVEN_SCHEDULER_QUEUE_AWARE = "queue-aware";
+    public static final String DEFAULT_TIMER_DRIVEN_SCHEDULER = TIMER_DRIVEN_SCHEDULER_POLLING;
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_ROOT_NODE = "/nifi";
@@ -274,6 +290,9 @@ public abstract class NiFiProperties {
     // cluster node defaults
     public static final int DEFAULT_CLUSTER_NODE_PROTOCOL_THREADS = 10;
     public static final int DEFAULT_CLUSTER_NODE_PROTOCOL_MAX_THREADS = 50;
+    public static final int DEFAULT_LOAD_BALANCE_PORT = 6342;
+    public static final int DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT = 8;
+    public static final String DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT = "30 sec";
     public static final String DEFAULT_REQUEST_REPLICATION_CLAIM_TIMEOUT = "15 secs";
     public static final String DEFAULT_FLOW_ELECTION_MAX_WAIT_TIME = "5 mins";
 
@@ -382,6 +401,13 @@ public abstract class NiFiProperties {
         return getProperty(SWAP_OUT_PERIOD, DEFAULT_SWAP_OUT_PERIOD);
     }
 
+    /**
+     * @return whether or not FlowFile swap files should be compressed when they are written
+     */
+    public boolean isSwapCompressionEnabled() {
+        return Boolean.parseBoolean(getProperty(SWAP_COMPRESSION_ENABLED, DEFAULT_SWAP_COMPRESSION_ENABLED));
+    }
+
     public String getAdministrativeYieldDuration() {
         return getProperty(ADMINISTRATIVE_YIELD_DURATION, DEFAULT_ADMINISTRATIVE_YIELD_DURATION);
     }
@@ -710,6 +736,44 @@ public abstract class NiFiProperties {
         }
     }
 
+    /**
+     * Returns the address on which this node listens for FlowFiles that are sent to it by other nodes in the cluster
+     * when a connection is load balanced. If no address is configured, the cluster node address is used.
+     *
+     * @return the load balance address
+     */
+    public InetSocketAddress getClusterLoadBalanceAddress() {
+        try {
+            String address = getProperty(LOAD_BALANCE_ADDRESS);
+            if (StringUtils.isBlank(address)) {
+                address = getProperty(CLUSTER_NODE_ADDRESS);
+            }
+            if (StringUtils.isBlank(address)) {
+                address = "localhost";
+            }
+
+            return InetSocketAddress.createUnresolved(address, getClusterLoadBalancePort());
+        } catch (Exception ex) {
+            throw new RuntimeException("Invalid load balance address/port due to: " + ex, ex);
+        }
+    }
+
+    public int getClusterLoadBalancePort() {
+        return getIntegerProperty(LOAD_BALANCE_PORT, DEFAULT_LOAD_BALANCE_PORT);
+    }
+
+    /**
+     * @return the maximum number of threads that are used to send FlowFiles to other nodes in the cluster, and the maximum
+     *         number of threads that are used to receive FlowFiles from other nodes, when connections are load balanced
+     */
+    public int getClusterLoadBalanceMaxThreadCount() {
+        return getIntegerProperty(LOAD_BALANCE_MAX_THREAD_COUNT, DEFAULT_LOAD_BALANCE_MAX_THREAD_COUNT);
+    }
+
+    public String getClusterLoadBalanceCommsTimeout() {
+        return getProperty(LOAD_BALANCE_COMMS_TIMEOUT, DEFAULT_LOAD_BALANCE_COMMS_TIMEOUT);
+    }
+
     /**
      * @deprecated Use getClusterNodeProtocolCorePoolSize() and getClusterNodeProtocolMaxPoolSize() instead
      */
@@ -1111,6 +1175,17 @@ public abstract class NiFiProperties {
         return getProperty(BORED_YIELD_DURATION, DEFAULT_BORED_YIELD_DURATION);
     }
 
+    /**
+     * Returns the name of the scheduler that is used to run Timer-Driven components,
+     * either {@link #TIMER_DRIVEN_SCHEDULER_POLLING} or {@link #TIMER_DRIVEN_SCHEDULER_QUEUE_AWARE}.
+     * Default is {@link #DEFAULT_TIMER_DRIVEN_SCHEDULER}
+     *
+     * @return the name of the Timer-Driven scheduler
+     */
+    public String getTimerDrivenScheduler() {
+        return getProperty(TIMER_DRIVEN_SCHEDULER, DEFAULT_TIMER_DRIVEN_SCHEDULER).trim();
+    }
+
     public File getStateManagementConfigFile() {
         return new File(getProperty(STATE_MANAGEMENT_CONFIG_FILE, DEFAULT_STATE_MANAGEMENT_CONFIG_FILE));
     }
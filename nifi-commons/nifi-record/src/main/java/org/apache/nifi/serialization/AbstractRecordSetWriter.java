@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.Map;
 
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSet;
 
 public abstract class AbstractRecordSetWriter implements RecordSetWriter {
@@ -60,6 +61,13 @@ public abstract class AbstractRecordSetWriter implements RecordSetWriter {
         return WriteResult.of(++recordCount, attributes);
     }
 
+    @Override
+    public final WriteResult write(final RecordBatch batch) throws IOException {
+        final Map<String, String> attributes = writeRecords(batch);
+        recordCount += batch.size();
+        return WriteResult.of(recordCount, attributes == null ? Collections.emptyMap() : attributes);
+    }
+
     protected OutputStream getOutputStream() {
         return out;
     }
@@ -118,4 +126,20 @@ public abstract class AbstractRecordSetWriter implements RecordSetWriter {
     }
 
     protected abstract Map<String, String> writeRecord(Record record) throws IOException;
+
+    /**
+     * Writes all of the records in the given batch. By default, this calls {@link #writeRecord(Record)} for each record;
+     * subclasses may override it in order to write many records at once.
+     *
+     * @param batch the records to write
+     * @return a Map of key/value pairs that should be added to the FlowFile as attributes
+     * @throws IOException if unable to write to the underlying stream
+     */
+    protected Map<String, String> writeRecords(final RecordBatch batch) throws IOException {
+        Map<String, String> attributes = Collections.emptyMap();
+        for (final Record record : batch) {
+            attributes = writeRecord(record);
+        }
+        return attributes;
+    }
 }
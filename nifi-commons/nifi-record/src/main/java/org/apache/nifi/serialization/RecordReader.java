@@ -21,6 +21,7 @@ import java.io.Closeable;
 import java.io.IOException;
 
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.RecordSet;
 
@@ -70,6 +71,28 @@ public interface RecordReader extends Closeable {
      */
     Record nextRecord(boolean coerceTypes, boolean dropUnknownFields) throws IOException, MalformedRecordException;
 
+    /**
+     * Clears the given batch and then fills it with as many records as it can hold, or as many as remain in the stream if fewer.
+     * Types will be coerced and any unknown fields will be dropped, as for {@link #nextRecord()}.
+     *
+     * @param batch the batch to fill
+     * @return the number of records that were added to the batch, which is 0 if no more records are available
+     *
+     * @throws IOException if unable to read from the underlying data
+     * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse a record
+     * @throws SchemaValidationException if a Record contains a field that violates the schema and cannot be coerced into the appropriate field type.
+     */
+    default int nextRecords(final RecordBatch batch) throws IOException, MalformedRecordException {
+        batch.clear();
+
+        Record record;
+        while (!batch.isFull() && (record = nextRecord()) != null) {
+            batch.add(record);
+        }
+
+        return batch.size();
+    }
+
     /**
      * @return a RecordSchema that is appropriate for the records in the stream
      * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse the underlying data
@@ -21,6 +21,7 @@ import java.io.Closeable;
 import java.io.IOException;
 
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordBatch;
 
 public interface RecordWriter extends Closeable {
     /**
@@ -32,6 +33,21 @@ public interface RecordWriter extends Closeable {
      */
     WriteResult write(Record record) throws IOException;
 
+    /**
+     * Writes all of the records in the given batch to the underlying stream, in order
+     *
+     * @param batch the records to write
+     * @return the results of writing the data
+     * @throws IOException if unable to write to the underlying stream
+     */
+    default WriteResult write(final RecordBatch batch) throws IOException {
+        WriteResult result = WriteResult.EMPTY;
+        for (final Record record : batch) {
+            result = write(record);
+        }
+        return result;
+    }
+
     /**
      * @return the MIME Type that the Record Writer produces. This will be added to FlowFiles using
      *         the mime.type attribute.
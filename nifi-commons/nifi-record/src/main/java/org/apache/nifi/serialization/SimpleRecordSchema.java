@@ -152,7 +152,8 @@ public class SimpleRecordSchema implements RecordSchema {
         return Optional.empty();
     }
 
-    private OptionalInt getFieldIndex(final String fieldName) {
+    @Override
+    public OptionalInt getFieldIndex(final String fieldName) {
         final Integer index = fieldIndices.get(fieldName);
         return index == null ? OptionalInt.empty() : OptionalInt.of(index);
     }
@@ -0,0 +1,585 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.nifi.serialization.SchemaValidationException;
+import org.apache.nifi.serialization.record.type.ArrayDataType;
+import org.apache.nifi.serialization.record.type.MapDataType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.util.IllegalTypeConversionException;
+
+/**
+ * <p>
+ * A Record whose values are held in an array, in the same order as the fields of its schema. Unlike {@link MapRecord},
+ * looking up the value of a field requires no hashing once the index of the field is known, and a reader can create
+ * a record without building a Map for it. The value of a field can be obtained by its index via {@link #getValue(int)}.
+ * </p>
+ *
+ * <p>
+ * Values are resolved in the same way as they are for a MapRecord: a field with no value, or a <code>null</code> value,
+ * takes the field's default value, and values may be set for fields that are not part of the schema unless unknown
+ * fields are dropped. The raw field names of an ArrayRecord are the names of the schema's fields that are present in
+ * the record, in schema order, followed by the names of any fields that are not part of the schema. A reader for which the
+ * order or spelling of the fields in the data matters, such as a CSV reader whose header may name the fields by their
+ * aliases, can instead supply the raw field names when it creates the record; any field that is later added to the record
+ * is then appended to them.
+ * </p>
+ */
+public class ArrayRecord implements Record {
+    private RecordSchema schema;
+    private Object[] values;
+    private boolean[] missing;
+    private Map<String, Object> unknownValues;
+    private Optional<SerializedForm> serializedForm;
+    private Set<String> rawFieldNames;
+    private Set<String> sourceFieldNames;
+    private final boolean checkTypes;
+    private final boolean dropUnknownFields;
+
+    /**
+     * @param schema the schema of the record
+     * @param values the value of each of the schema's fields, in the order that the fields appear in the schema
+     */
+    public ArrayRecord(final RecordSchema schema, final Object[] values) {
+        this(schema, values, null, null, null, false, false);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, null, null, checkTypes, dropUnknownFields);
+    }
+
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, null, null, serializedForm, checkTypes, dropUnknownFields);
+    }
+
+    /**
+     * @param schema the schema of the record
+     * @param values the value of each of the schema's fields, in the order that the fields appear in the schema
+     * @param missing indicates, for each of the schema's fields, whether the field was absent from the data, as opposed to present with
+     *            a <code>null</code> value, or <code>null</code> if every field is present
+     * @param unknownValues the values of fields that are not part of the schema, keyed by field name, or <code>null</code> if there are none
+     * @param serializedForm the serialized form of the record, or <code>null</code> if not known
+     * @param checkTypes whether or not the values should be validated against the schema
+     * @param dropUnknownFields whether or not fields that are not part of the schema should be dropped
+     */
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final boolean[] missing, final Map<String, Object> unknownValues,
+                       final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        this(schema, values, missing, unknownValues, null, serializedForm, checkTypes, dropUnknownFields);
+    }
+
+    /**
+     * @param schema the schema of the record
+     * @param values the value of each of the schema's fields, in the order that the fields appear in the schema
+     * @param missing indicates, for each of the schema's fields, whether the field was absent from the data, as opposed to present with
+     *            a <code>null</code> value, or <code>null</code> if every field is present
+     * @param unknownValues the values of fields that are not part of the schema, keyed by field name, or <code>null</code> if there are none
+     * @param sourceFieldNames the names of the fields that are present in the record, in the order and with the names that they have in the
+     *            data that the record was read from, or <code>null</code> to derive them from the schema. The Set is not copied, so that a
+     *            reader may share one Set between many records, and must not be modified afterward.
+     * @param serializedForm the serialized form of the record, or <code>null</code> if not known
+     * @param checkTypes whether or not the values should be validated against the schema
+     * @param dropUnknownFields whether or not fields that are not part of the schema should be dropped
+     */
+    public ArrayRecord(final RecordSchema schema, final Object[] values, final boolean[] missing, final Map<String, Object> unknownValues,
+                       final Set<String> sourceFieldNames, final SerializedForm serializedForm, final boolean checkTypes, final boolean dropUnknownFields) {
+        Objects.requireNonNull(values);
+
+        this.schema = Objects.requireNonNull(schema);
+        if (values.length != schema.getFieldCount()) {
+            throw new IllegalArgumentException("Record has " + values.length + " values but its schema has " + schema.getFieldCount() + " fields");
+        }
+        if (missing != null && missing.length != values.length) {
+            throw new IllegalArgumentException("Record has " + values.length + " values but indicates whether " + missing.length + " fields are missing");
+        }
+
+        this.values = checkTypes ? checkTypes(values, schema) : values;
+        this.missing = missing;
+        this.unknownValues = dropUnknownFields || unknownValues == null || unknownValues.isEmpty() ? null : unknownValues;
+        this.serializedForm = Optional.ofNullable(serializedForm);
+        this.sourceFieldNames = sourceFieldNames == null ? null : Collections.unmodifiableSet(sourceFieldNames);
+        this.checkTypes = checkTypes;
+        this.dropUnknownFields = dropUnknownFields;
+    }
+
+    private Object[] checkTypes(final Object[] values, final RecordSchema schema) {
+        for (int i = 0; i < values.length; i++) {
+            final RecordField field = schema.getField(i);
+            final Object value = values[i];
+
+            if (value == null) {
+                if (field.isNullable()) {
+                    continue;
+                }
+
+                throw new SchemaValidationException("Field " + field.getFieldName() + " cannot be null");
+            }
+
+            if (!DataTypeUtils.isCompatibleDataType(value, field.getDataType())) {
+                throw new SchemaValidationException("Field " + field.getFieldName() + " has a value of " + value
+                    + ", which cannot be coerced into the appropriate data type of " + field.getDataType());
+            }
+        }
+
+        return values;
+    }
+
+    @Override
+    public boolean isDropUnknownFields() {
+        return dropUnknownFields;
+    }
+
+    @Override
+    public boolean isTypeChecked() {
+        return checkTypes;
+    }
+
+    @Override
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public Object[] getValues() {
+        final Object[] resolved = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            resolved[i] = getValue(i);
+        }
+        return resolved;
+    }
+
+    /**
+     * @param fieldIndex the index of the field in the record's schema
+     * @return the value of the field at the given index, or the field's default value if the record has no value for it
+     *
+     * @throws IndexOutOfBoundsException if the index is &lt; 0 or &gt;= the number of fields in the schema
+     */
+    public Object getValue(final int fieldIndex) {
+        final Object value = values[fieldIndex];
+        if (value != null) {
+            return value;
+        }
+
+        return schema.getField(fieldIndex).getDefaultValue();
+    }
+
+    @Override
+    public Object getValue(final String fieldName) {
+        final OptionalInt fieldIndex = schema.getFieldIndex(fieldName);
+        if (fieldIndex.isPresent()) {
+            return getValue(fieldIndex.getAsInt());
+        }
+
+        if (dropUnknownFields || unknownValues == null) {
+            return null;
+        }
+
+        return unknownValues.get(fieldName);
+    }
+
+    @Override
+    public Object getValue(final RecordField field) {
+        final int fieldIndex = getFieldIndex(field);
+        if (fieldIndex > -1) {
+            final Object value = values[fieldIndex];
+            if (value != null) {
+                return value;
+            }
+        } else {
+            final Object value = getUnknownValue(field);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        final Object defaultValue = field.getDefaultValue();
+        if (defaultValue != null) {
+            return defaultValue;
+        }
+
+        if (fieldIndex > -1) {
+            return schema.getField(fieldIndex).getDefaultValue();
+        }
+
+        return null;
+    }
+
+    private int getFieldIndex(final RecordField field) {
+        OptionalInt fieldIndex = schema.getFieldIndex(field.getFieldName());
+        if (fieldIndex.isPresent()) {
+            return fieldIndex.getAsInt();
+        }
+
+        for (final String alias : field.getAliases()) {
+            fieldIndex = schema.getFieldIndex(alias);
+            if (fieldIndex.isPresent()) {
+                return fieldIndex.getAsInt();
+            }
+        }
+
+        return -1;
+    }
+
+    private Object getUnknownValue(final RecordField field) {
+        if (unknownValues == null) {
+            return null;
+        }
+
+        Object value = unknownValues.get(field.getFieldName());
+        if (value != null) {
+            return value;
+        }
+
+        for (final String alias : field.getAliases()) {
+            value = unknownValues.get(alias);
+            if (value != null) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean isMissing(final int fieldIndex) {
+        return missing != null && missing[fieldIndex];
+    }
+
+    private void markPresent(final int fieldIndex) {
+        if (isMissing(fieldIndex)) {
+            missing[fieldIndex] = false;
+            fieldAdded(schema.getField(fieldIndex).getFieldName());
+        }
+    }
+
+    private void fieldAdded(final String fieldName) {
+        if (sourceFieldNames == null) {
+            rawFieldNames = null;
+            return;
+        }
+
+        // The Set of source field names may be shared with other records, so copy it rather than adding to it.
+        if (!sourceFieldNames.contains(fieldName)) {
+            final Set<String> updated = new LinkedHashSet<>(sourceFieldNames);
+            updated.add(fieldName);
+            sourceFieldNames = Collections.unmodifiableSet(updated);
+        }
+    }
+
+    @Override
+    public String getAsString(final String fieldName) {
+        final Optional<DataType> dataTypeOption = schema.getDataType(fieldName);
+        if (dataTypeOption.isPresent()) {
+            return convertToString(getValue(fieldName), dataTypeOption.get().getFormat());
+        }
+
+        return DataTypeUtils.toString(getValue(fieldName), (Supplier<DateFormat>) null);
+    }
+
+    @Override
+    public String getAsString(final String fieldName, final String format) {
+        return convertToString(getValue(fieldName), format);
+    }
+
+    @Override
+    public String getAsString(final RecordField field, final String format) {
+        return convertToString(getValue(field), format);
+    }
+
+    private String convertToString(final Object value, final String format) {
+        if (value == null) {
+            return null;
+        }
+
+        return DataTypeUtils.toString(value, format);
+    }
+
+    @Override
+    public Long getAsLong(final String fieldName) {
+        return DataTypeUtils.toLong(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Integer getAsInt(final String fieldName) {
+        return DataTypeUtils.toInteger(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Double getAsDouble(final String fieldName) {
+        return DataTypeUtils.toDouble(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Float getAsFloat(final String fieldName) {
+        return DataTypeUtils.toFloat(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Record getAsRecord(String fieldName, final RecordSchema schema) {
+        return DataTypeUtils.toRecord(getValue(fieldName), schema, fieldName);
+    }
+
+    @Override
+    public Boolean getAsBoolean(final String fieldName) {
+        return DataTypeUtils.toBoolean(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public Date getAsDate(final String fieldName, final String format) {
+        return DataTypeUtils.toDate(getValue(fieldName), () -> DataTypeUtils.getDateFormat(format), fieldName);
+    }
+
+    @Override
+    public Object[] getAsArray(final String fieldName) {
+        return DataTypeUtils.toArray(getValue(fieldName), fieldName);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 + 41 * Arrays.hashCode(values) + 7 * schema.hashCode() + 3 * getUnknownValues().hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (!(obj instanceof ArrayRecord)) {
+            return false;
+        }
+        final ArrayRecord other = (ArrayRecord) obj;
+        return schema.equals(other.schema) && Arrays.equals(values, other.values) && getRawFieldNames().equals(other.getRawFieldNames())
+            && getUnknownValues().equals(other.getUnknownValues());
+    }
+
+    private Map<String, Object> getUnknownValues() {
+        return unknownValues == null ? Collections.emptyMap() : unknownValues;
+    }
+
+    @Override
+    public String toString() {
+        final Map<String, Object> rawValues = new LinkedHashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            if (!isMissing(i)) {
+                rawValues.put(schema.getField(i).getFieldName(), values[i]);
+            }
+        }
+        rawValues.putAll(getUnknownValues());
+
+        return "ArrayRecord[" + rawValues + "]";
+    }
+
+    @Override
+    public Optional<SerializedForm> getSerializedForm() {
+        return serializedForm;
+    }
+
+    @Override
+    public void setValue(final String fieldName, final Object value) {
+        final OptionalInt fieldIndex = getSchema().getFieldIndex(fieldName);
+        if (!fieldIndex.isPresent()) {
+            if (dropUnknownFields) {
+                return;
+            }
+
+            if (unknownValues == null) {
+                unknownValues = new LinkedHashMap<>();
+            }
+
+            final boolean newField = !unknownValues.containsKey(fieldName);
+            final Object previousValue = unknownValues.put(fieldName, value);
+            if (newField) {
+                fieldAdded(fieldName);
+            }
+            if (!Objects.equals(value, previousValue)) {
+                serializedForm = Optional.empty();
+            }
+
+            return;
+        }
+
+        final int index = fieldIndex.getAsInt();
+        final RecordField recordField = schema.getField(index);
+        final Object coerced = isTypeChecked() ? DataTypeUtils.convertType(value, recordField.getDataType(), fieldName) : value;
+        final Object previousValue = values[index];
+        values[index] = coerced;
+        markPresent(index);
+        if (!Objects.equals(coerced, previousValue)) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public void setArrayValue(final String fieldName, final int arrayIndex, final Object value) {
+        final OptionalInt fieldIndex = getSchema().getFieldIndex(fieldName);
+        if (!fieldIndex.isPresent()) {
+            return;
+        }
+
+        final RecordField recordField = schema.getField(fieldIndex.getAsInt());
+        final DataType dataType = recordField.getDataType();
+        if (dataType.getFieldType() != RecordFieldType.ARRAY) {
+            throw new IllegalTypeConversionException("Cannot set the value of an array index on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an ARRAY type");
+        }
+
+        final Object arrayObject = values[fieldIndex.getAsInt()];
+        if (arrayObject == null) {
+            return;
+        }
+        if (!(arrayObject instanceof Object[])) {
+            return;
+        }
+
+        final Object[] array = (Object[]) arrayObject;
+        if (arrayIndex >= array.length) {
+            return;
+        }
+
+        final ArrayDataType arrayDataType = (ArrayDataType) dataType;
+        final DataType elementType = arrayDataType.getElementType();
+        final Object coerced = DataTypeUtils.convertType(value, elementType, fieldName);
+
+        final boolean update = !Objects.equals(coerced, array[arrayIndex]);
+        if (update) {
+            array[arrayIndex] = coerced;
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setMapValue(final String fieldName, final String mapKey, final Object value) {
+        final OptionalInt fieldIndex = getSchema().getFieldIndex(fieldName);
+        if (!fieldIndex.isPresent()) {
+            return;
+        }
+
+        final RecordField recordField = schema.getField(fieldIndex.getAsInt());
+        final DataType dataType = recordField.getDataType();
+        if (dataType.getFieldType() != RecordFieldType.MAP) {
+            throw new IllegalTypeConversionException("Cannot set the value of map entry on Record because the field '" + fieldName
+                + "' is of type '" + dataType + "' and cannot be coerced into an MAP type");
+        }
+
+        Object mapObject = values[fieldIndex.getAsInt()];
+        if (mapObject == null) {
+            mapObject = new HashMap<String, Object>();
+        }
+        if (!(mapObject instanceof Map)) {
+            return;
+        }
+
+        final Map<String, Object> map = (Map<String, Object>) mapObject;
+
+        final MapDataType mapDataType = (MapDataType) dataType;
+        final DataType valueDataType = mapDataType.getValueType();
+        final Object coerced = DataTypeUtils.convertType(value, valueDataType, fieldName);
+
+        final Object replaced = map.put(mapKey, coerced);
+        if (replaced == null || !replaced.equals(coerced)) {
+            serializedForm = Optional.empty();
+        }
+    }
+
+    @Override
+    public void incorporateSchema(final RecordSchema other) {
+        final RecordSchema mergedSchema = DataTypeUtils.merge(this.schema, other);
+        if (mergedSchema == this.schema) {
+            return;
+        }
+
+        // The fields of the merged schema may not be in the same positions as before, and fields that were
+        // previously unknown may now be part of the schema, so move each value to its new position.
+        final Object[] mergedValues = new Object[mergedSchema.getFieldCount()];
+        final boolean[] mergedMissing = new boolean[mergedValues.length];
+        Arrays.fill(mergedMissing, true);
+
+        for (int i = 0; i < values.length; i++) {
+            final OptionalInt mergedIndex = mergedSchema.getFieldIndex(schema.getField(i).getFieldName());
+            if (mergedIndex.isPresent()) {
+                mergedValues[mergedIndex.getAsInt()] = values[i];
+                mergedMissing[mergedIndex.getAsInt()] = isMissing(i);
+            }
+        }
+
+        Map<String, Object> mergedUnknownValues = null;
+        if (unknownValues != null) {
+            for (final Map.Entry<String, Object> entry : unknownValues.entrySet()) {
+                final OptionalInt mergedIndex = mergedSchema.getFieldIndex(entry.getKey());
+                if (mergedIndex.isPresent()) {
+                    if (mergedMissing[mergedIndex.getAsInt()] || mergedValues[mergedIndex.getAsInt()] == null) {
+                        mergedValues[mergedIndex.getAsInt()] = entry.getValue();
+                        mergedMissing[mergedIndex.getAsInt()] = false;
+                    }
+                } else {
+                    if (mergedUnknownValues == null) {
+                        mergedUnknownValues = new LinkedHashMap<>();
+                    }
+                    mergedUnknownValues.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        this.schema = mergedSchema;
+        this.values = mergedValues;
+        this.missing = mergedMissing;
+        this.unknownValues = mergedUnknownValues;
+        this.rawFieldNames = null;
+    }
+
+    @Override
+    public Set<String> getRawFieldNames() {
+        if (sourceFieldNames != null) {
+            return sourceFieldNames;
+        }
+
+        final Set<String> existing = rawFieldNames;
+        if (existing != null) {
+            return existing;
+        }
+
+        final Set<String> fieldNames = new LinkedHashSet<>();
+        for (int i = 0; i < values.length; i++) {
+            if (!isMissing(i)) {
+                fieldNames.add(schema.getField(i).getFieldName());
+            }
+        }
+        if (unknownValues != null) {
+            fieldNames.addAll(unknownValues.keySet());
+        }
+
+        final Set<String> unmodifiable = Collections.unmodifiableSet(fieldNames);
+        rawFieldNames = unmodifiable;
+        return unmodifiable;
+    }
+}
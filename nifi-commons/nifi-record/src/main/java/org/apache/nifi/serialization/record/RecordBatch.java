@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A reusable, fixed-capacity group of Records that allows a reader to hand many records to a writer in a single call,
+ * rather than one call per record. A batch is typically filled by {@link org.apache.nifi.serialization.RecordReader#nextRecords(RecordBatch)},
+ * written by {@link org.apache.nifi.serialization.RecordWriter#write(RecordBatch)}, and then cleared and filled again.
+ * A RecordBatch is not thread-safe.
+ */
+public class RecordBatch implements Iterable<Record> {
+    private final Record[] records;
+    private int size = 0;
+
+    public RecordBatch(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity of a Record Batch must be a positive integer but was " + capacity);
+        }
+
+        this.records = new Record[capacity];
+    }
+
+    /**
+     * Adds the given record to the batch
+     *
+     * @param record the record to add
+     * @throws IllegalStateException if the batch is already full
+     */
+    public void add(final Record record) {
+        if (isFull()) {
+            throw new IllegalStateException("Cannot add Record to batch because the batch already contains " + size + " Records");
+        }
+
+        records[size++] = record;
+    }
+
+    /**
+     * @param index the 0-based index of the record to return
+     * @return the record at the given index
+     * @throws IndexOutOfBoundsException if the index is &lt; 0 or &gt;= the number of records in the batch
+     */
+    public Record get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not valid for a batch of " + size + " Records");
+        }
+
+        return records[index];
+    }
+
+    /**
+     * @return the number of records in the batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of records that the batch can hold
+     */
+    public int getCapacity() {
+        return records.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isFull() {
+        return size == records.length;
+    }
+
+    /**
+     * Removes all records from the batch so that it can be filled again
+     */
+    public void clear() {
+        Arrays.fill(records, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Record> iterator() {
+        return new Iterator<Record>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Record next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return records[index++];
+            }
+        };
+    }
+}
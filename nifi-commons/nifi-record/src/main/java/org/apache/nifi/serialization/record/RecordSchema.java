@@ -19,6 +19,7 @@ package org.apache.nifi.serialization.record;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 public interface RecordSchema {
     /**
@@ -72,6 +73,23 @@ public interface RecordSchema {
      */
     Optional<RecordField> getField(String fieldName);
 
+    /**
+     * @param fieldName the name or an alias of the field
+     * @return the 0-based index of the field with the given name or alias, or an empty OptionalInt if the schema
+     *         does not contain such a field
+     */
+    default OptionalInt getFieldIndex(final String fieldName) {
+        final List<RecordField> fields = getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            final RecordField field = fields.get(i);
+            if (field.getFieldName().equals(fieldName) || field.getAliases().contains(fieldName)) {
+                return OptionalInt.of(i);
+            }
+        }
+
+        return OptionalInt.empty();
+    }
+
     /**
      * @return the SchemaIdentifier, which provides various attributes for identifying a schema
      */
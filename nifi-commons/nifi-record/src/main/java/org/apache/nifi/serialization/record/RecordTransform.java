@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+/**
+ * An operation that is applied to each Record as it passes from a {@link org.apache.nifi.serialization.RecordReader} to a
+ * {@link org.apache.nifi.serialization.RecordSetWriter}, such as updating fields, enriching the Record, or deciding whether to keep it.
+ * Transforms are chained together with {@link #andThen(RecordTransform)} so that several operations can be applied in a single pass
+ * over the Records, rather than writing the Records out and reading them back in between each operation.
+ */
+@FunctionalInterface
+public interface RecordTransform {
+
+    /**
+     * Transforms the given Record
+     *
+     * @param record the Record to transform
+     * @return the Record to pass on, which may be the given Record, updated in place, or a different Record; or <code>null</code> if the Record is to be dropped
+     */
+    Record transform(Record record);
+
+    /**
+     * Transforms each of the Records in the given batch, adding the results to the destination batch. Records that are dropped are not added.
+     *
+     * @param records the Records to transform
+     * @param destination the batch to add the transformed Records to; must have at least as much capacity as <code>records</code> has Records
+     * @return the number of Records that were added to the destination batch
+     */
+    default int transform(final RecordBatch records, final RecordBatch destination) {
+        int added = 0;
+        for (final Record record : records) {
+            final Record transformed = transform(record);
+            if (transformed != null) {
+                destination.add(transformed);
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Returns a transform that applies this transform and then, unless this transform drops the Record, the given transform
+     *
+     * @param next the transform to apply to the Records that this transform produces
+     * @return a transform that applies this transform followed by the given transform
+     */
+    default RecordTransform andThen(final RecordTransform next) {
+        return record -> {
+            final Record transformed = transform(record);
+            return transformed == null ? null : next.transform(transformed);
+        };
+    }
+
+    /**
+     * @return a transform that passes on every Record unchanged
+     */
+    static RecordTransform identity() {
+        return record -> record;
+    }
+}
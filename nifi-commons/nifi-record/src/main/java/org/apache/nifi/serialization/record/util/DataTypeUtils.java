@@ -24,6 +24,9 @@ import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -34,6 +37,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
@@ -80,6 +86,13 @@ public class DataTypeUtils {
     private static final Supplier<DateFormat> DEFAULT_TIME_FORMAT = () -> getDateFormat(RecordFieldType.TIME.getDefaultFormat());
     private static final Supplier<DateFormat> DEFAULT_TIMESTAMP_FORMAT = () -> getDateFormat(RecordFieldType.TIMESTAMP.getDefaultFormat());
 
+    // java.util.Date uses the Julian calendar before the Gregorian cutover, and a DateTimeFormatter pads years with more than 4 digits
+    // differently than a SimpleDateFormat does, so DateTimeFormatters are used only for dates in between.
+    private static final long GREGORIAN_CUTOVER_MILLIS = -12219292800000L;
+    private static final long YEAR_10000_MILLIS = 253402300800000L;
+    private static final int MAX_CACHED_DATE_TIME_FORMATTERS = 1000;
+    private static final ConcurrentMap<String, Optional<DateTimeFormatter>> dateTimeFormatters = new ConcurrentHashMap<>();
+
     public static Object convertType(final Object value, final DataType dataType, final String fieldName) {
         return convertType(value, dataType, DEFAULT_DATE_FORMAT, DEFAULT_TIME_FORMAT, DEFAULT_TIMESTAMP_FORMAT, fieldName);
     }
@@ -156,6 +169,77 @@ public class DataTypeUtils {
     }
 
 
+    public static Function<Object, Object> createConverter(final DataType dataType, final String fieldName) {
+        return createConverter(dataType, DEFAULT_DATE_FORMAT, DEFAULT_TIME_FORMAT, DEFAULT_TIMESTAMP_FORMAT, fieldName);
+    }
+
+    /**
+     * Creates a function that converts values to the given data type, exactly as {@link #convertType(Object, DataType, Supplier, Supplier, Supplier, String)}
+     * does, but with the choice of conversion made once rather than for every value. Callers that convert many values to the same type,
+     * such as the value of a given field in each Record that a reader produces, should create the converter once and reuse it.
+     *
+     * @param dataType the data type to convert values to
+     * @param dateFormat the format to use for dates
+     * @param timeFormat the format to use for times
+     * @param timestampFormat the format to use for timestamps
+     * @param fieldName the name of the field whose values are converted, for error messages
+     * @return a function that converts values to the given data type
+     */
+    public static Function<Object, Object> createConverter(final DataType dataType, final Supplier<DateFormat> dateFormat, final Supplier<DateFormat> timeFormat,
+        final Supplier<DateFormat> timestampFormat, final String fieldName) {
+
+        final Function<Object, Object> converter;
+        switch (dataType.getFieldType()) {
+            case BIGINT:
+                converter = value -> toBigInt(value, fieldName);
+                break;
+            case BOOLEAN:
+                converter = value -> toBoolean(value, fieldName);
+                break;
+            case BYTE:
+                converter = value -> toByte(value, fieldName);
+                break;
+            case CHAR:
+                converter = value -> toCharacter(value, fieldName);
+                break;
+            case DATE:
+                converter = value -> toDate(value, dateFormat, fieldName);
+                break;
+            case DOUBLE:
+                converter = value -> toDouble(value, fieldName);
+                break;
+            case FLOAT:
+                converter = value -> toFloat(value, fieldName);
+                break;
+            case INT:
+                converter = value -> toInteger(value, fieldName);
+                break;
+            case LONG:
+                converter = value -> toLong(value, fieldName);
+                break;
+            case SHORT:
+                converter = value -> toShort(value, fieldName);
+                break;
+            case STRING: {
+                final Supplier<DateFormat> stringFormat = () -> getDateFormat(dataType.getFieldType(), dateFormat, timeFormat, timestampFormat);
+                converter = value -> toString(value, stringFormat);
+                break;
+            }
+            case TIME:
+                converter = value -> toTime(value, timeFormat, fieldName);
+                break;
+            case TIMESTAMP:
+                converter = value -> toTimestamp(value, timestampFormat, fieldName);
+                break;
+            default:
+                converter = value -> convertType(value, dataType, dateFormat, timeFormat, timestampFormat, fieldName);
+                break;
+        }
+
+        return value -> value == null ? null : converter.apply(value);
+    }
+
+
     public static boolean isCompatibleDataType(final Object value, final DataType dataType) {
         switch (dataType.getFieldType()) {
             case ARRAY:
@@ -374,16 +458,16 @@ public class DataTypeUtils {
         }
 
         if (value instanceof java.sql.Date) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return formatDate((java.util.Date) value, format);
         }
         if (value instanceof java.sql.Time) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return formatDate((java.util.Date) value, format);
         }
         if (value instanceof java.sql.Timestamp) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return formatDate((java.util.Date) value, format);
         }
         if (value instanceof java.util.Date) {
-            return getDateFormat(format).format((java.util.Date) value);
+            return formatDate((java.util.Date) value, format);
         }
 
         if (value instanceof Object[]) {
@@ -393,6 +477,18 @@ public class DataTypeUtils {
         return value.toString();
     }
 
+    private static String formatDate(final java.util.Date date, final String format) {
+        final long millis = date.getTime();
+        if (millis >= GREGORIAN_CUTOVER_MILLIS && millis < YEAR_10000_MILLIS) {
+            final Optional<DateTimeFormatter> formatter = getDateTimeFormatter(format);
+            if (formatter.isPresent()) {
+                return formatter.get().format(Instant.ofEpochMilli(millis));
+            }
+        }
+
+        return getDateFormat(format).format(date);
+    }
+
     public static boolean isStringTypeCompatible(final Object value) {
         return value != null;
     }
@@ -525,6 +621,110 @@ public class DataTypeUtils {
         return df;
     }
 
+    /**
+     * Returns a thread-safe {@link DateTimeFormatter} that formats dates in GMT the same way as the {@link DateFormat} returned by
+     * {@link #getDateFormat(String)}, so that a single formatter can be shared rather than a new DateFormat being created for each value.
+     * Formatters are created once for each format and then cached. Only numeric formats whose pattern letters have the same meaning for
+     * both classes (years, months, days, hours, minutes, seconds, milliseconds, and time zone offsets) are supported.
+     *
+     * @param format the date format
+     * @return a formatter for the given format, or an empty Optional if the format must be handled by a {@link DateFormat}
+     */
+    public static Optional<DateTimeFormatter> getDateTimeFormatter(final String format) {
+        if (format == null) {
+            return Optional.empty();
+        }
+
+        final Optional<DateTimeFormatter> existing = dateTimeFormatters.get(format);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (dateTimeFormatters.size() >= MAX_CACHED_DATE_TIME_FORMATTERS) {
+            dateTimeFormatters.clear();
+        }
+
+        Optional<DateTimeFormatter> formatter = Optional.empty();
+        if (isDateTimeFormatterCompatible(format)) {
+            try {
+                formatter = Optional.of(DateTimeFormatter.ofPattern(format).withZone(ZoneOffset.UTC));
+            } catch (final IllegalArgumentException iae) {
+                formatter = Optional.empty();
+            }
+        }
+
+        dateTimeFormatters.put(format, formatter);
+        return formatter;
+    }
+
+    private static boolean isDateTimeFormatterCompatible(final String format) {
+        boolean quoted = false;
+        int i = 0;
+        while (i < format.length()) {
+            final char c = format.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                i++;
+                continue;
+            }
+
+            if (quoted) {
+                i++;
+                continue;
+            }
+
+            // DateTimeFormatter reserves these characters for optional sections and future use, whereas DateFormat treats them as literals
+            if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                return false;
+            }
+
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                i++;
+                continue;
+            }
+
+            int count = 1;
+            while (i + count < format.length() && format.charAt(i + count) == c) {
+                count++;
+            }
+
+            switch (c) {
+                case 'y':
+                    if (count > 4) {
+                        return false;
+                    }
+                    break;
+                case 'M':
+                case 'd':
+                case 'H':
+                case 'h':
+                case 'm':
+                case 's':
+                    if (count > 2) {
+                        return false;
+                    }
+                    break;
+                case 'S':
+                    if (count != 3) {
+                        return false;
+                    }
+                    break;
+                case 'Z':
+                case 'X':
+                    if (count > 3) {
+                        return false;
+                    }
+                    break;
+                default:
+                    return false;
+            }
+
+            i += count;
+        }
+
+        return !quoted;
+    }
+
     public static boolean isTimeTypeCompatible(final Object value, final String format) {
         return isDateTypeCompatible(value, format);
     }
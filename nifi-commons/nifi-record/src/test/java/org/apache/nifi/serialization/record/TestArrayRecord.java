@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.junit.Test;
+
+public class TestArrayRecord {
+
+    private RecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType(), Collections.singleton("fullName")));
+        fields.add(new RecordField("greeting", RecordFieldType.STRING.getDataType(), "hello"));
+        return new SimpleRecordSchema(fields);
+    }
+
+    @Test
+    public void testValuesMatchMapRecord() {
+        final RecordSchema schema = createSchema();
+        final Record arrayRecord = new ArrayRecord(schema, new Object[] {1, "John Doe", null});
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", 1);
+        values.put("name", "John Doe");
+        values.put("greeting", null);
+        final Record mapRecord = new MapRecord(schema, values);
+
+        for (final String fieldName : Arrays.asList("id", "name", "fullName", "greeting", "other")) {
+            assertEquals(fieldName, mapRecord.getValue(fieldName), arrayRecord.getValue(fieldName));
+        }
+        for (final RecordField field : schema.getFields()) {
+            assertEquals(field.getFieldName(), mapRecord.getValue(field), arrayRecord.getValue(field));
+        }
+
+        final RecordField aliasedField = new RecordField("fullName", RecordFieldType.STRING.getDataType());
+        assertEquals("John Doe", arrayRecord.getValue(aliasedField));
+
+        final RecordField fieldWithDefault = new RecordField("id", RecordFieldType.INT.getDataType(), 42);
+        assertEquals(1, arrayRecord.getValue(fieldWithDefault));
+
+        assertTrue(Arrays.equals(mapRecord.getValues(), arrayRecord.getValues()));
+        assertEquals(mapRecord.getRawFieldNames(), arrayRecord.getRawFieldNames());
+        assertEquals(Integer.valueOf(1), arrayRecord.getAsInt("id"));
+        assertEquals("hello", arrayRecord.getAsString("greeting"));
+    }
+
+    @Test
+    public void testValueByIndex() {
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, "John Doe", null});
+        final ArrayRecord arrayRecord = (ArrayRecord) record;
+
+        assertEquals(1, arrayRecord.getValue(0));
+        assertEquals("John Doe", arrayRecord.getValue(1));
+        assertEquals("hello", arrayRecord.getValue(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongNumberOfValues() {
+        new ArrayRecord(createSchema(), new Object[] {1, "John Doe"});
+    }
+
+    @Test
+    public void testMissingAndUnknownFields() {
+        final Map<String, Object> unknownValues = new LinkedHashMap<>();
+        unknownValues.put("age", 42);
+
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, null, null}, new boolean[] {false, true, false}, unknownValues, null, false, false);
+        assertEquals(Arrays.asList("id", "greeting", "age"), new ArrayList<>(record.getRawFieldNames()));
+        assertEquals(42, record.getValue("age"));
+        assertNull(record.getValue("name"));
+
+        record.setValue("name", "John Doe");
+        record.setValue("city", "My City");
+        assertEquals(Arrays.asList("id", "name", "greeting", "age", "city"), new ArrayList<>(record.getRawFieldNames()));
+        assertEquals("John Doe", record.getValue("fullName"));
+        assertEquals("My City", record.getValue("city"));
+
+        final Record dropped = new ArrayRecord(createSchema(), new Object[] {1, null, null}, null, unknownValues, null, false, true);
+        assertNull(dropped.getValue("age"));
+        dropped.setValue("city", "My City");
+        assertNull(dropped.getValue("city"));
+        assertFalse(dropped.getRawFieldNames().contains("city"));
+    }
+
+    @Test
+    public void testSetValueClearsSerializedForm() {
+        final SerializedForm serializedForm = SerializedForm.of("{}", "application/json");
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, "John Doe", null}, serializedForm, false, false);
+
+        record.setValue("id", 1);
+        assertTrue(record.getSerializedForm().isPresent());
+
+        record.setValue("id", 2);
+        assertFalse(record.getSerializedForm().isPresent());
+        assertEquals(2, record.getValue("id"));
+    }
+
+    @Test
+    public void testIncorporateSchema() {
+        final Map<String, Object> unknownValues = new LinkedHashMap<>();
+        unknownValues.put("age", 42);
+        final Record record = new ArrayRecord(createSchema(), new Object[] {1, "John Doe", null}, null, unknownValues, null, false, false);
+
+        final List<RecordField> otherFields = new ArrayList<>();
+        otherFields.add(new RecordField("age", RecordFieldType.INT.getDataType()));
+        otherFields.add(new RecordField("city", RecordFieldType.STRING.getDataType()));
+        record.incorporateSchema(new SimpleRecordSchema(otherFields));
+
+        assertEquals(5, record.getSchema().getFieldCount());
+        assertEquals(1, record.getValue("id"));
+        assertEquals("John Doe", record.getValue("name"));
+        assertEquals(42, record.getValue("age"));
+        assertNull(record.getValue("city"));
+        assertEquals(Arrays.asList("id", "name", "greeting", "age"), new ArrayList<>(record.getRawFieldNames()));
+    }
+
+    @Test
+    public void testSourceFieldNames() {
+        final RecordSchema schema = createSchema();
+        final boolean[] missing = new boolean[] {false, false, true};
+        final Set<String> sourceFieldNames = new LinkedHashSet<>(Arrays.asList("fullName", "id", "other"));
+        final Map<String, Object> unknownValues = Collections.singletonMap("other", "value");
+
+        final ArrayRecord record = new ArrayRecord(schema, new Object[] {1, "John Doe", null}, missing, new LinkedHashMap<>(unknownValues), sourceFieldNames, null, false, false);
+        assertEquals(Arrays.asList("fullName", "id", "other"), new ArrayList<>(record.getRawFieldNames()));
+        assertEquals("John Doe", record.getValue("fullName"));
+
+        // Setting a field that is already present does not change the names
+        record.setValue("name", "Jane Doe");
+        assertEquals(Arrays.asList("fullName", "id", "other"), new ArrayList<>(record.getRawFieldNames()));
+
+        // Fields that are added are appended, without changing the Set that was given to the record
+        final ArrayRecord other = new ArrayRecord(schema, new Object[] {2, "Jim Doe", null}, missing.clone(), null, sourceFieldNames, null, false, false);
+        other.setValue("greeting", "hi");
+        other.setValue("new", "field");
+        assertEquals(Arrays.asList("fullName", "id", "other", "greeting", "new"), new ArrayList<>(other.getRawFieldNames()));
+        assertEquals(Arrays.asList("fullName", "id", "other"), new ArrayList<>(record.getRawFieldNames()));
+        assertEquals(3, sourceFieldNames.size());
+
+        // Names are kept when the schema changes
+        final List<RecordField> otherFields = new ArrayList<>(schema.getFields());
+        otherFields.add(0, new RecordField("other", RecordFieldType.STRING.getDataType()));
+        record.incorporateSchema(new SimpleRecordSchema(otherFields));
+        assertEquals(Arrays.asList("fullName", "id", "other"), new ArrayList<>(record.getRawFieldNames()));
+        assertEquals("value", record.getValue("other"));
+    }
+
+    @Test
+    public void testRecordBatch() {
+        final RecordSchema schema = createSchema();
+        final RecordBatch batch = new RecordBatch(2);
+        assertTrue(batch.isEmpty());
+
+        batch.add(new ArrayRecord(schema, new Object[] {1, "John Doe", null}));
+        batch.add(new ArrayRecord(schema, new Object[] {2, "Jane Doe", null}));
+        assertTrue(batch.isFull());
+        assertEquals(2, batch.get(1).getValue("id"));
+
+        int count = 0;
+        for (final Record record : batch) {
+            assertEquals(++count, record.getValue("id"));
+        }
+        assertEquals(2, count);
+
+        try {
+            batch.add(new ArrayRecord(schema, new Object[] {3, "Jim Doe", null}));
+            fail("Was able to add a Record to a full batch");
+        } catch (final IllegalStateException expected) {
+            // expected
+        }
+
+        batch.clear();
+        assertEquals(0, batch.size());
+        assertEquals(2, batch.getCapacity());
+    }
+}
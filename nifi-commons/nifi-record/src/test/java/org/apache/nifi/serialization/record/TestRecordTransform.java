@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.junit.Test;
+
+public class TestRecordTransform {
+
+    private final RecordSchema schema = new SimpleRecordSchema(Collections.singletonList(new RecordField("id", RecordFieldType.INT.getDataType())));
+
+    private Record createRecord(final int id) {
+        return new ArrayRecord(schema, new Object[] {id});
+    }
+
+    @Test
+    public void testIdentity() {
+        final Record record = createRecord(1);
+        assertSame(record, RecordTransform.identity().transform(record));
+    }
+
+    @Test
+    public void testAndThenAppliesInOrder() {
+        final RecordTransform addOne = record -> {
+            record.setValue("id", record.getAsInt("id") + 1);
+            return record;
+        };
+        final RecordTransform doubleIt = record -> {
+            record.setValue("id", record.getAsInt("id") * 2);
+            return record;
+        };
+
+        assertEquals(Integer.valueOf(4), addOne.andThen(doubleIt).transform(createRecord(1)).getAsInt("id"));
+        assertEquals(Integer.valueOf(3), doubleIt.andThen(addOne).transform(createRecord(1)).getAsInt("id"));
+    }
+
+    @Test
+    public void testAndThenStopsWhenRecordDropped() {
+        final RecordTransform dropAll = record -> null;
+        final RecordTransform failing = record -> {
+            throw new AssertionError("Transform should not be applied to a dropped Record");
+        };
+
+        assertNull(dropAll.andThen(failing).transform(createRecord(1)));
+    }
+
+    @Test
+    public void testTransformBatch() {
+        final RecordTransform keepEven = record -> record.getAsInt("id") % 2 == 0 ? record : null;
+
+        final RecordBatch batch = new RecordBatch(10);
+        for (int i = 0; i < 10; i++) {
+            batch.add(createRecord(i));
+        }
+
+        final RecordBatch destination = new RecordBatch(10);
+        assertEquals(5, keepEven.transform(batch, destination));
+        assertEquals(5, destination.size());
+        for (int i = 0; i < destination.size(); i++) {
+            assertEquals(Integer.valueOf(i * 2), destination.get(i).getAsInt("id"));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.serialization.record.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.function.Function;
+
+import org.apache.nifi.serialization.record.DataType;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.junit.Test;
+
+public class TestDataTypeUtils {
+
+    @Test
+    public void testDateTimeFormatterMatchesDateFormat() {
+        final String[] formats = new String[] {RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(),
+            "yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yyyy-MM-dd'T'HH:mm:ss.SSSXXX", "yy/M/d h:m:s", "dd.MM.yyyy", "''yyyy''"};
+        final long[] times = new long[] {0L, 1L, -1L, 1510596012345L, -2208988800000L, 4102444799999L, -12219292800000L, 253402300799999L};
+
+        for (final String format : formats) {
+            assertTrue(format, DataTypeUtils.getDateTimeFormatter(format).isPresent());
+
+            for (final long time : times) {
+                final String expected = DataTypeUtils.getDateFormat(format).format(new java.util.Date(time));
+                assertEquals(format, expected, DataTypeUtils.toString(new java.util.Date(time), format));
+                assertEquals(format, expected, DataTypeUtils.toString(new Date(time), format));
+                assertEquals(format, expected, DataTypeUtils.toString(new Time(time), format));
+                assertEquals(format, expected, DataTypeUtils.toString(new Timestamp(time), format));
+            }
+        }
+    }
+
+    @Test
+    public void testDateFormatUsedForUnsupportedFormats() {
+        final String[] formats = new String[] {"MMM dd, yyyy", "EEE HH:mm", "yyyy [MM]", "S", "yyyy-MM-dd'T"};
+        final java.util.Date date = new java.util.Date(1510596012345L);
+
+        for (final String format : formats) {
+            assertFalse(format, DataTypeUtils.getDateTimeFormatter(format).isPresent());
+        }
+
+        assertEquals(DataTypeUtils.getDateFormat("MMM dd, yyyy").format(date), DataTypeUtils.toString(date, "MMM dd, yyyy"));
+        assertEquals(DataTypeUtils.getDateFormat("yyyy [MM]").format(date), DataTypeUtils.toString(date, "yyyy [MM]"));
+
+        // Dates before the Gregorian cutover are formatted according to the Julian calendar, as a DateFormat does
+        final java.util.Date julianDate = new java.util.Date(-12219292800001L);
+        assertEquals(DataTypeUtils.getDateFormat("yyyy-MM-dd").format(julianDate), DataTypeUtils.toString(julianDate, "yyyy-MM-dd"));
+    }
+
+    @Test
+    public void testConverterMatchesConvertType() {
+        final Object[] values = new Object[] {"12", 12, 12L, 12.5D, "true", "2017-11-13", 1510596012345L, new Date(1510596012345L), "a"};
+        final RecordFieldType[] fieldTypes = new RecordFieldType[] {RecordFieldType.BOOLEAN, RecordFieldType.INT, RecordFieldType.LONG, RecordFieldType.DOUBLE,
+            RecordFieldType.FLOAT, RecordFieldType.SHORT, RecordFieldType.BYTE, RecordFieldType.CHAR, RecordFieldType.BIGINT, RecordFieldType.STRING,
+            RecordFieldType.DATE, RecordFieldType.TIME, RecordFieldType.TIMESTAMP};
+
+        for (final RecordFieldType fieldType : fieldTypes) {
+            final DataType dataType = fieldType.getDataType();
+            final Function<Object, Object> converter = DataTypeUtils.createConverter(dataType, "field");
+            assertNull(converter.apply(null));
+
+            for (final Object value : values) {
+                Object expected;
+                try {
+                    expected = DataTypeUtils.convertType(value, dataType, "field");
+                } catch (final RuntimeException e) {
+                    expected = e.toString();
+                }
+
+                Object actual;
+                try {
+                    actual = converter.apply(value);
+                } catch (final RuntimeException e) {
+                    actual = e.toString();
+                }
+
+                assertEquals(fieldType + " " + value, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testConverterForComplexType() {
+        final DataType choiceType = RecordFieldType.CHOICE.getChoiceDataType(RecordFieldType.INT.getDataType(), RecordFieldType.STRING.getDataType());
+        final Function<Object, Object> converter = DataTypeUtils.createConverter(choiceType, "choice");
+
+        assertEquals(DataTypeUtils.convertType(12, choiceType, "choice"), converter.apply(12));
+        assertEquals(DataTypeUtils.convertType("hello", choiceType, "choice"), converter.apply("hello"));
+    }
+}
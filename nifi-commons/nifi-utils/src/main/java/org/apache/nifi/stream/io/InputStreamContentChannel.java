@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.stream.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.nifi.processor.io.ContentChannel;
+
+/**
+ * Provides a {@link ContentChannel} over an InputStream, for use when the content is not available
+ * from a file. Transfers to another channel are performed by copying through a heap buffer. If a
+ * non-blocking target stops accepting bytes, the transfer returns early and any bytes already read from
+ * the stream are provided first by the next read or transfer. Closing this channel does not close the
+ * underlying InputStream.
+ */
+public class InputStreamContentChannel implements ContentChannel {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+    private final long size;
+    private ByteBuffer pending;
+    private boolean closed = false;
+
+    public InputStreamContentChannel(final InputStream in, final long size) {
+        this.channel = Channels.newChannel(new NonCloseableInputStream(in));
+        this.size = size;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        ensureOpen();
+
+        if (pending == null) {
+            return channel.read(dst);
+        }
+
+        // Bytes that were read from the stream by a previous transfer but not accepted by its target come first
+        final int count = Math.min(dst.remaining(), pending.remaining());
+        final ByteBuffer slice = pending.duplicate();
+        slice.limit(slice.position() + count);
+        dst.put(slice);
+        pending.position(pending.position() + count);
+        if (!pending.hasRemaining()) {
+            pending = null;
+        }
+
+        return count;
+    }
+
+    @Override
+    public long transferTo(final WritableByteChannel target) throws IOException {
+        ensureOpen();
+
+        final ByteBuffer buffer = pending == null ? ByteBuffer.allocate(BUFFER_SIZE) : pending.compact();
+        pending = null;
+
+        long transferred = 0L;
+        while (channel.read(buffer) >= 0 || buffer.position() > 0) {
+            buffer.flip();
+            final int written = target.write(buffer);
+            transferred += written;
+
+            if (written == 0 && buffer.hasRemaining()) {
+                // A non-blocking target that is full. Hold on to the bytes that have already been read from the
+                // stream so that they are not lost, and let the caller retry once the target is writable again.
+                pending = buffer;
+                return transferred;
+            }
+
+            buffer.compact();
+        }
+
+        return transferred;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.stream.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestInputStreamContentChannel {
+
+    private byte[] createContent(final int length) {
+        final byte[] content = new byte[length];
+        new Random(1L).nextBytes(content);
+        return content;
+    }
+
+    @Test
+    public void testTransferToBlockingTarget() throws IOException {
+        final byte[] content = createContent(100_000);
+        final InputStreamContentChannel channel = new InputStreamContentChannel(new ByteArrayInputStream(content), content.length);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        assertEquals(content.length, channel.transferTo(Channels.newChannel(baos)));
+        assertArrayEquals(content, baos.toByteArray());
+        assertEquals(-1, channel.read(ByteBuffer.allocate(10)));
+    }
+
+    @Test(timeout = 10000)
+    public void testTransferToFullNonBlockingTargetReturnsWithoutLosingData() throws IOException {
+        final byte[] content = createContent(100_000);
+        final InputStreamContentChannel channel = new InputStreamContentChannel(new ByteArrayInputStream(content), content.length);
+        final ThrottledChannel target = new ThrottledChannel();
+
+        // Target accepts nothing: the transfer must return rather than spin
+        assertEquals(0L, channel.transferTo(target));
+
+        // Target accepts a few bytes at a time until full again
+        long transferred = 0L;
+        while (transferred < content.length) {
+            target.allow(1000);
+            transferred += channel.transferTo(target);
+        }
+
+        assertEquals(content.length, transferred);
+        assertArrayEquals(content, target.getBytes());
+    }
+
+    @Test
+    public void testReadAfterPartialTransfer() throws IOException {
+        final byte[] content = createContent(20_000);
+        final InputStreamContentChannel channel = new InputStreamContentChannel(new ByteArrayInputStream(content), content.length);
+        final ThrottledChannel target = new ThrottledChannel();
+        target.allow(100);
+        assertEquals(100L, channel.transferTo(target));
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(target.getBytes());
+        final ByteBuffer buffer = ByteBuffer.allocate(777);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            baos.write(buffer.array(), 0, buffer.limit());
+            buffer.clear();
+        }
+
+        assertArrayEquals(content, baos.toByteArray());
+    }
+
+    /**
+     * Behaves like a non-blocking channel whose send buffer only has room for as many bytes as have been allowed
+     */
+    private static class ThrottledChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        private int allowed = 0;
+
+        void allow(final int bytes) {
+            allowed += bytes;
+        }
+
+        byte[] getBytes() {
+            return baos.toByteArray();
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int count = Math.min(allowed, src.remaining());
+            for (int i = 0; i < count; i++) {
+                baos.write(src.get());
+            }
+            allowed -= count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
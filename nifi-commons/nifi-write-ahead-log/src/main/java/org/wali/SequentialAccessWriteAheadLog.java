@@ -0,0 +1,962 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wali;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This implementation writes all updates to a single, append-only journal rather than spreading
+ * them across many partitions. Records are serialized by the calling thread before any lock is obtained,
+ * so the only work that is performed while holding the journal lock is copying the already-serialized
+ * bytes into the journal. When updates are to be synced to disk, concurrent callers share a single
+ * <code>fsync</code>: whichever thread syncs first makes durable all of the transactions that have been
+ * written up to that point, so that the others need not sync again (group commit).
+ * </p>
+ *
+ * <p>
+ * Checkpointing does not stop the world. The repository lock is held only long enough to roll over to a
+ * new journal, which happens once all in-flight updates have completed, and to copy the references to the records
+ * and swap locations. The records are then serialized to the snapshot without holding any lock. Because the copy is
+ * taken under the same lock as the rollover, the snapshot reflects exactly the transactions in the journals that it
+ * replaces, and none of the transactions in the new journal. This matters for SerDes that write only the changes
+ * between two versions of a record: each edit in the new journal is replayed against precisely the version of the
+ * record that it was serialized against. The records themselves must not be mutated once they have been passed to
+ * {@link #update(Collection, boolean)}, as the snapshot serializes the instances that it copied.
+ * </p>
+ *
+ * <p>
+ * If the storage directory contains a repository that was written by {@link MinimalLockingWriteAheadLog},
+ * its records are recovered and written to a snapshot in the new format, after which the old files are removed.
+ * </p>
+ *
+ * <p>
+ * As with {@link MinimalLockingWriteAheadLog}, this implementation is ONLY appropriate if it can be guaranteed
+ * that only a single thread will ever issue updates for a given Record at any one time. Additionally, every SerDe
+ * that is created by the SerDeFactory for writing (i.e., with a <code>null</code> encoding name) must produce the
+ * same header, as records that are serialized by any of them may be written to the same journal.
+ * </p>
+ *
+ * @param <T> type of record this WAL is for
+ */
+public final class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T> {
+    private static final Logger logger = LoggerFactory.getLogger(SequentialAccessWriteAheadLog.class);
+
+    private static final String JOURNAL_EXTENSION = ".journal";
+    private static final Pattern JOURNAL_FILENAME_PATTERN = Pattern.compile("\\d+\\.journal");
+    private static final Pattern LEGACY_PARTITION_PATTERN = Pattern.compile("partition-\\d+");
+    private static final byte TRANSACTION_CONTINUE = 1;
+    private static final byte TRANSACTION_COMMIT = 2;
+    private static final int NUL_BYTE = 0;
+
+    private final Path storageDirectory;
+    private final Path journalDirectory;
+    private final Path snapshotPath;
+    private final Path partialPath;
+    private final SortedSet<Path> legacyPaths;
+
+    private final SerDeFactory<T> serdeFactory;
+    private final SyncListener syncListener;
+    private final FileChannel lockChannel;
+    private final Queue<SerDe<T>> serdePool = new ConcurrentLinkedQueue<>();
+    private final AtomicLong transactionIdGenerator = new AtomicLong(0L);
+
+    private final ConcurrentMap<Object, T> recordMap = new ConcurrentHashMap<>();
+    private final Map<Object, T> unmodifiableRecordMap = Collections.unmodifiableMap(recordMap);
+    private final Set<String> externalLocations = new CopyOnWriteArraySet<>();
+    private final Set<String> recoveredExternalLocations = new CopyOnWriteArraySet<>();
+
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock(); // required to update the repository
+    private final Lock writeLock = rwLock.writeLock(); // required to roll over the journal
+
+    private final Object journalMonitor = new Object();
+    private Journal journal; // guarded by journalMonitor
+
+    private volatile boolean updated = false;
+    private volatile boolean recovered = false;
+    private volatile boolean migratedFromLegacy = false;
+
+    /**
+     * Creates a Write-Ahead Log that uses the given SerDe for all serialization. Because records are serialized concurrently
+     * by the threads that update the repository, the SerDe must be thread-safe.
+     *
+     * @param storageDirectory the directory to write the journal and snapshot to
+     * @param serde the serializer/deserializer for records
+     * @param syncListener the listener, or <code>null</code> if no listener is to be notified
+     * @throws IOException if unable to initialize due to IO issue
+     */
+    public SequentialAccessWriteAheadLog(final Path storageDirectory, final SerDe<T> serde, final SyncListener syncListener) throws IOException {
+        this(new TreeSet<>(Collections.singleton(storageDirectory)), new SingletonSerDeFactory<T>(serde), syncListener);
+    }
+
+    public SequentialAccessWriteAheadLog(final Path storageDirectory, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        this(new TreeSet<>(Collections.singleton(storageDirectory)), serdeFactory, syncListener);
+    }
+
+    /**
+     * @param paths a sorted set of Paths. The journal and snapshot will always be written to the first path specified.
+     *            All paths are inspected for partitions of a repository that was written by {@link MinimalLockingWriteAheadLog}
+     *            so that those records can be recovered.
+     * @param serdeFactory the factory for the serializer/deserializer for records
+     * @param syncListener the listener, or <code>null</code> if no listener is to be notified
+     * @throws IOException if unable to initialize due to IO issue
+     */
+    public SequentialAccessWriteAheadLog(final SortedSet<Path> paths, final SerDeFactory<T> serdeFactory, final SyncListener syncListener) throws IOException {
+        requireNonNull(paths);
+        requireNonNull(serdeFactory);
+
+        if (paths.isEmpty()) {
+            throw new IllegalArgumentException("Paths must be non-empty");
+        }
+
+        this.storageDirectory = paths.first();
+        this.legacyPaths = paths;
+        this.journalDirectory = storageDirectory.resolve("journals");
+        this.snapshotPath = storageDirectory.resolve("checkpoint");
+        this.partialPath = storageDirectory.resolve("checkpoint.partial");
+        this.serdeFactory = serdeFactory;
+        this.syncListener = syncListener;
+
+        Files.createDirectories(journalDirectory);
+        final File directory = journalDirectory.toFile();
+        if (!directory.canWrite() || !directory.canRead() || !directory.canExecute()) {
+            throw new IOException("Path given [" + journalDirectory + "] must be readable, writable, and executable");
+        }
+
+        // Use a lock file that is distinct from the one used by MinimalLockingWriteAheadLog so that we are able
+        // to recover a legacy repository that lives in the same directory.
+        final Path lockPath = journalDirectory.resolve("wali.lock");
+        lockChannel = new FileOutputStream(lockPath.toFile()).getChannel();
+        lockChannel.lock();
+    }
+
+    @Override
+    public int update(final Collection<T> records, final boolean forceSync) throws IOException {
+        if (!recovered) {
+            throw new IllegalStateException("Cannot update repository until record recovery has been performed");
+        }
+
+        if (records.isEmpty()) {
+            return -1;
+        }
+
+        updated = true;
+        readLock.lock();
+        try {
+            // Serialize the records before obtaining the journal lock so that many threads can serialize concurrently.
+            final byte[] serialized = serialize(records);
+
+            final Journal currentJournal;
+            final long journalPosition;
+            synchronized (journalMonitor) {
+                currentJournal = journal;
+                if (currentJournal == null) {
+                    throw new IllegalStateException("Write-Ahead Log has been shut down");
+                }
+
+                final long transactionId = transactionIdGenerator.getAndIncrement();
+                if (logger.isTraceEnabled()) {
+                    for (final T record : records) {
+                        logger.trace("{} performing Transaction {}: {}", new Object[] {this, transactionId, record});
+                    }
+                }
+
+                journalPosition = currentJournal.write(transactionId, serialized);
+            }
+
+            if (forceSync) {
+                currentJournal.sync(journalPosition);
+
+                if (syncListener != null) {
+                    syncListener.onSync(0);
+                }
+            }
+
+            for (final T record : records) {
+                applyUpdate(record, serdeFactory.getUpdateType(record), serdeFactory.getRecordIdentifier(record));
+            }
+
+            return 0;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void applyUpdate(final T record, final UpdateType updateType, final Object recordIdentifier) {
+        if (updateType == UpdateType.DELETE) {
+            recordMap.remove(recordIdentifier);
+        } else if (updateType == UpdateType.SWAP_OUT) {
+            final String newLocation = serdeFactory.getLocation(record);
+            if (newLocation == null) {
+                logger.error("Received Record (ID=" + recordIdentifier + ") with UpdateType of SWAP_OUT but "
+                    + "no indicator of where the Record is to be Swapped Out to; these records may be "
+                    + "lost when the repository is restored!");
+            } else {
+                recordMap.remove(recordIdentifier);
+                externalLocations.add(newLocation);
+            }
+        } else if (updateType == UpdateType.SWAP_IN) {
+            final String newLocation = serdeFactory.getLocation(record);
+            if (newLocation == null) {
+                logger.error("Received Record (ID=" + recordIdentifier + ") with UpdateType of SWAP_IN but no "
+                    + "indicator of where the Record is to be Swapped In from; these records may be duplicated "
+                    + "when the repository is restored!");
+            } else {
+                externalLocations.remove(newLocation);
+            }
+            recordMap.put(recordIdentifier, record);
+        } else {
+            recordMap.put(recordIdentifier, record);
+        }
+    }
+
+    private byte[] serialize(final Collection<T> records) throws IOException {
+        final SerDe<T> serde = borrowSerDe();
+        try (final ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+            final DataOutputStream out = new DataOutputStream(baos)) {
+
+            final int numEditsToSerialize = records.size();
+            int editsSerialized = 0;
+            for (final T record : records) {
+                final Object recordId = serde.getRecordIdentifier(record);
+                final T previousVersion = recordMap.get(recordId);
+
+                serde.serializeEdit(previousVersion, record, out);
+                if (++editsSerialized < numEditsToSerialize) {
+                    out.write(TRANSACTION_CONTINUE);
+                } else {
+                    out.write(TRANSACTION_COMMIT);
+                }
+            }
+
+            out.flush();
+            return baos.toByteArray();
+        } finally {
+            serdePool.offer(serde);
+        }
+    }
+
+    private SerDe<T> borrowSerDe() {
+        final SerDe<T> pooled = serdePool.poll();
+        return pooled == null ? serdeFactory.createSerDe(null) : pooled;
+    }
+
+    @Override
+    public Collection<T> recoverRecords() throws IOException {
+        if (updated) {
+            throw new IllegalStateException("Cannot recover records after updating the repository; must call recoverRecords first");
+        }
+
+        final long recoverStart = System.nanoTime();
+        writeLock.lock();
+        try {
+            Long maxTransactionId = recoverFromLegacyLog();
+            if (maxTransactionId == null) {
+                maxTransactionId = recoverFromSnapshot();
+            }
+
+            final long maxRecoveredTransactionId = recoverFromJournals(maxTransactionId);
+            this.transactionIdGenerator.set(maxRecoveredTransactionId + 1);
+            this.externalLocations.addAll(recoveredExternalLocations);
+
+            synchronized (journalMonitor) {
+                journal = createJournal(transactionIdGenerator.get());
+            }
+
+            logger.info("{} finished recovering records. Performing Checkpoint to ensure proper state of Journals before updates", this);
+        } finally {
+            writeLock.unlock();
+        }
+
+        final long recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoverStart);
+        logger.info("Successfully recovered {} records in {} milliseconds", recordMap.size(), recoveryMillis);
+        checkpoint();
+
+        if (migratedFromLegacy) {
+            deleteLegacyFiles();
+        }
+
+        recovered = true;
+        return recordMap.values();
+    }
+
+    @Override
+    public Set<String> getRecoveredSwapLocations() throws IOException {
+        return recoveredExternalLocations;
+    }
+
+    private boolean isLegacyRepository(final Path path) {
+        if (Files.exists(path.resolve("snapshot")) || Files.exists(path.resolve("snapshot.partial"))) {
+            return true;
+        }
+
+        final File[] children = path.toFile().listFiles();
+        if (children == null) {
+            return false;
+        }
+
+        for (final File child : children) {
+            if (child.isDirectory() && LEGACY_PARTITION_PATTERN.matcher(child.getName()).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int countLegacyPartitions() {
+        int partitions = 0;
+        for (final Path path : legacyPaths) {
+            final File[] children = path.toFile().listFiles();
+            if (children == null) {
+                continue;
+            }
+
+            for (final File child : children) {
+                if (child.isDirectory() && LEGACY_PARTITION_PATTERN.matcher(child.getName()).matches()) {
+                    partitions++;
+                }
+            }
+        }
+
+        return partitions;
+    }
+
+    /**
+     * If any of the paths contain a repository that was written by {@link MinimalLockingWriteAheadLog}, recovers
+     * the records and swap locations from that repository.
+     *
+     * @return the max transaction id that was recovered, or <code>null</code> if there is no legacy repository
+     * @throws IOException if unable to recover from the legacy repository
+     */
+    private Long recoverFromLegacyLog() throws IOException {
+        boolean legacyExists = false;
+        for (final Path path : legacyPaths) {
+            if (isLegacyRepository(path)) {
+                legacyExists = true;
+                break;
+            }
+        }
+
+        if (!legacyExists) {
+            return null;
+        }
+
+        if (Files.exists(snapshotPath)) {
+            // We have already written a snapshot in the new format, which means that we have already migrated the records.
+            // We must have failed to delete the legacy files, so just delete them now.
+            logger.info("{} found files from a MinimalLockingWriteAheadLog but has already migrated the records; will delete the old files", this);
+            migratedFromLegacy = true;
+            return null;
+        }
+
+        final int partitionCount = Math.max(1, countLegacyPartitions());
+        logger.info("{} found a repository written by MinimalLockingWriteAheadLog with {} partitions; will recover records from it", this, partitionCount);
+
+        final MinimalLockingWriteAheadLog<T> legacyLog = new MinimalLockingWriteAheadLog<>(legacyPaths, partitionCount, serdeFactory, null);
+        try {
+            for (final T record : legacyLog.recoverRecords()) {
+                recordMap.put(serdeFactory.getRecordIdentifier(record), record);
+            }
+
+            recoveredExternalLocations.addAll(legacyLog.getRecoveredSwapLocations());
+        } finally {
+            legacyLog.shutdown();
+        }
+
+        migratedFromLegacy = true;
+        return -1L;
+    }
+
+    private void deleteLegacyFiles() throws IOException {
+        for (final Path path : legacyPaths) {
+            Files.deleteIfExists(path.resolve("snapshot"));
+            Files.deleteIfExists(path.resolve("snapshot.partial"));
+            Files.deleteIfExists(path.resolve("wali.lock"));
+
+            final File[] children = path.toFile().listFiles();
+            if (children == null) {
+                continue;
+            }
+
+            for (final File child : children) {
+                if (!child.isDirectory() || !LEGACY_PARTITION_PATTERN.matcher(child.getName()).matches()) {
+                    continue;
+                }
+
+                final File[] journalFiles = child.listFiles();
+                if (journalFiles != null) {
+                    for (final File journalFile : journalFiles) {
+                        Files.deleteIfExists(journalFile.toPath());
+                    }
+                }
+
+                Files.deleteIfExists(child.toPath());
+            }
+        }
+
+        migratedFromLegacy = false;
+        logger.info("{} removed the files of the MinimalLockingWriteAheadLog from which records were migrated", this);
+    }
+
+    private Long recoverFromSnapshot() throws IOException {
+        final boolean partialExists = Files.exists(partialPath);
+        final boolean snapshotExists = Files.exists(snapshotPath);
+
+        if (!partialExists && !snapshotExists) {
+            return null;
+        }
+
+        if (partialExists && snapshotExists) {
+            // both files exist -- assume we failed while checkpointing. Delete the partial file
+            Files.delete(partialPath);
+        } else if (partialExists) {
+            // partial exists but snapshot does not -- we must have completed creating the partial, deleted the snapshot
+            // but crashed before renaming the partial to the snapshot. Just rename partial to snapshot
+            Files.move(partialPath, snapshotPath);
+        }
+
+        if (Files.size(snapshotPath) == 0) {
+            logger.warn("{} Found 0-byte Snapshot file; skipping Snapshot file in recovery", this);
+            return null;
+        }
+
+        try (final DataInputStream dataIn = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath, StandardOpenOption.READ)))) {
+            final String waliImplementationClass = dataIn.readUTF();
+            final int waliImplementationVersion = dataIn.readInt();
+
+            if (!waliImplementationClass.equals(SequentialAccessWriteAheadLog.class.getName())) {
+                throw new IOException("Write-Ahead Log located at " + snapshotPath + " was written using the "
+                    + waliImplementationClass + " class; cannot restore using " + getClass().getName());
+            }
+
+            if (waliImplementationVersion > getVersion()) {
+                throw new IOException("Write-Ahead Log located at " + snapshotPath + " was written using version "
+                    + waliImplementationVersion + " of the " + waliImplementationClass + " class; cannot restore using Version " + getVersion());
+            }
+
+            final String serdeEncoding = dataIn.readUTF();
+            final int serdeVersion = dataIn.readInt();
+            final long maxTransactionId = dataIn.readLong();
+            final int numRecords = dataIn.readInt();
+
+            final SerDe<T> serde = serdeFactory.createSerDe(serdeEncoding);
+            serde.readHeader(dataIn);
+
+            for (int i = 0; i < numRecords; i++) {
+                final T record = serde.deserializeRecord(dataIn, serdeVersion);
+                if (record == null) {
+                    throw new EOFException();
+                }
+
+                final UpdateType updateType = serde.getUpdateType(record);
+                if (updateType == UpdateType.DELETE) {
+                    logger.warn("While recovering from snapshot, found record with type 'DELETE'; this record will not be restored");
+                    continue;
+                }
+
+                logger.trace("Recovered from snapshot: {}", record);
+                recordMap.put(serde.getRecordIdentifier(record), record);
+            }
+
+            final int numSwapRecords = dataIn.readInt();
+            for (int i = 0; i < numSwapRecords; i++) {
+                recoveredExternalLocations.add(dataIn.readUTF());
+            }
+
+            serde.close();
+            logger.debug("{} restored {} Records and {} Swap Files from Snapshot, ending with Transaction ID {}",
+                new Object[] {this, numRecords, recoveredExternalLocations.size(), maxTransactionId});
+            return maxTransactionId;
+        }
+    }
+
+    /**
+     * Replays all transactions in the journals whose ID is greater than the given max transaction ID.
+     *
+     * @param maxTransactionIdRestored the max transaction id that was restored from the snapshot, or <code>null</code> if no snapshot exists
+     * @return the max transaction id that was restored
+     * @throws IOException if unable to recover from the journals
+     */
+    private long recoverFromJournals(final Long maxTransactionIdRestored) throws IOException {
+        long maxTransactionId = maxTransactionIdRestored == null ? -1L : maxTransactionIdRestored;
+        final Map<Object, T> updateMap = new HashMap<>();
+        final Set<Object> idsRemoved = new HashSet<>();
+
+        for (final Path journalPath : getJournalPaths()) {
+            if (Files.size(journalPath) == 0L) {
+                continue;
+            }
+
+            logger.debug("{} recovering from {}", this, journalPath);
+            try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath, StandardOpenOption.READ)))) {
+                final SerDe<T> serde;
+                final int serdeVersion;
+                try {
+                    final String waliImplementationClass = in.readUTF();
+                    if (!SequentialAccessWriteAheadLog.class.getName().equals(waliImplementationClass)) {
+                        logger.warn("Found journal {} but it was not written by {}; will ignore this file", journalPath, getClass().getSimpleName());
+                        continue;
+                    }
+
+                    final int waliVersion = in.readInt();
+                    if (waliVersion > getVersion()) {
+                        throw new IOException("Cannot recover from file " + journalPath + " because it was written using "
+                            + "WALI version " + waliVersion + ", but the version used to restore it is only " + getVersion());
+                    }
+
+                    final String serdeEncoding = in.readUTF();
+                    serdeVersion = in.readInt();
+                    serde = serdeFactory.createSerDe(serdeEncoding);
+                    serde.readHeader(in);
+                } catch (final EOFException eof) {
+                    logger.warn("Failed to recover data from Write-Ahead Log journal {} because the header information could not be read properly. "
+                        + "This often is the result of the file not being fully written out before the application is restarted. This file will be ignored.", journalPath);
+                    continue;
+                }
+
+                while (true) {
+                    final long transactionId;
+                    final byte[] transaction;
+                    try {
+                        transactionId = in.readLong();
+                        final int length = in.readInt();
+                        if (length <= 0) {
+                            // If the stream consists solely of NUL bytes, then we want to treat it the same as an EOF
+                            // because we see this happen when we suddenly lose power while writing to a file.
+                            if (transactionId == 0L && length == 0 && remainingBytesAllNul(in)) {
+                                logger.warn("Failed to recover data from Write-Ahead Log journal {} because encountered trailing NUL bytes. "
+                                    + "This will sometimes happen after a sudden power loss. The rest of this journal file will be skipped for recovery purposes.", journalPath);
+                                break;
+                            }
+
+                            throw new IOException("Write-Ahead Log journal " + journalPath + " is corrupt: found Transaction " + transactionId + " with length " + length);
+                        }
+
+                        transaction = new byte[length];
+                        in.readFully(transaction);
+                    } catch (final EOFException eof) {
+                        // We have reached the end of the journal, or we crashed while writing the last transaction. Either way, there is
+                        // nothing more to recover from this journal.
+                        break;
+                    }
+
+                    if (transactionId <= maxTransactionId) {
+                        // skip the transaction, because our snapshot already contained it
+                        continue;
+                    }
+
+                    updateMap.clear();
+                    idsRemoved.clear();
+                    recoverTransaction(transaction, serde, serdeVersion, updateMap, idsRemoved);
+                    recordMap.putAll(updateMap);
+                    for (final Object id : idsRemoved) {
+                        recordMap.remove(id);
+                    }
+
+                    maxTransactionId = transactionId;
+                }
+
+                serde.close();
+            }
+        }
+
+        return maxTransactionId;
+    }
+
+    private void recoverTransaction(final byte[] transaction, final SerDe<T> serde, final int serdeVersion, final Map<Object, T> updatedRecordMap,
+        final Set<Object> idsRemoved) throws IOException {
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(transaction));
+        int transactionFlag;
+        do {
+            final T record = serde.deserializeEdit(in, unmodifiableRecordMap, serdeVersion);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} Recovering Transaction: {}", this, record);
+            }
+
+            final Object recordId = serde.getRecordIdentifier(record);
+            final UpdateType updateType = serde.getUpdateType(record);
+            if (updateType == UpdateType.DELETE) {
+                updatedRecordMap.remove(recordId);
+                idsRemoved.add(recordId);
+            } else if (updateType == UpdateType.SWAP_IN) {
+                final String location = serde.getLocation(record);
+                if (location == null) {
+                    logger.error("Recovered SWAP_IN record from edit log, but it did not contain a Location; skipping record");
+                } else {
+                    recoveredExternalLocations.remove(location);
+                    updatedRecordMap.put(recordId, record);
+                    idsRemoved.remove(recordId);
+                }
+            } else if (updateType == UpdateType.SWAP_OUT) {
+                final String location = serde.getLocation(record);
+                if (location == null) {
+                    logger.error("Recovered SWAP_OUT record from edit log, but it did not contain a Location; skipping record");
+                } else {
+                    recoveredExternalLocations.add(location);
+                    updatedRecordMap.remove(recordId);
+                    idsRemoved.add(recordId);
+                }
+            } else {
+                updatedRecordMap.put(recordId, record);
+                idsRemoved.remove(recordId);
+            }
+
+            transactionFlag = in.read();
+        } while (transactionFlag == TRANSACTION_CONTINUE);
+
+        if (transactionFlag != TRANSACTION_COMMIT) {
+            throw new IOException("Write-Ahead Log transaction was not properly terminated; expected Transaction Commit marker but found " + transactionFlag);
+        }
+    }
+
+    private boolean remainingBytesAllNul(final InputStream in) throws IOException {
+        int nextByte;
+        while ((nextByte = in.read()) != -1) {
+            if (nextByte != NUL_BYTE) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private List<Path> getJournalPaths() {
+        final List<Path> paths = new ArrayList<>();
+        final File[] journalFiles = journalDirectory.toFile().listFiles();
+        if (journalFiles == null) {
+            return paths;
+        }
+
+        for (final File file : journalFiles) {
+            if (file.isFile() && JOURNAL_FILENAME_PATTERN.matcher(file.getName()).matches()) {
+                paths.add(file.toPath());
+            }
+        }
+
+        // Sort journal files by the numeric portion of the filename, which is the ID of the first transaction in the journal
+        paths.sort((a, b) -> Long.compare(getFirstTransactionId(a), getFirstTransactionId(b)));
+        return paths;
+    }
+
+    private static long getFirstTransactionId(final Path journalPath) {
+        final String filename = journalPath.toFile().getName();
+        return Long.parseLong(filename.substring(0, filename.indexOf('.')));
+    }
+
+    private Journal createJournal(final long firstTransactionId) throws IOException {
+        final Path journalPath = journalDirectory.resolve(firstTransactionId + JOURNAL_EXTENSION);
+        final SerDe<T> serde = borrowSerDe();
+        try {
+            return new Journal(journalPath.toFile(), firstTransactionId, serde, getVersion());
+        } finally {
+            serdePool.offer(serde);
+        }
+    }
+
+    @Override
+    public synchronized int checkpoint() throws IOException {
+        final long startNanos = System.nanoTime();
+
+        final Journal rolledOverJournal;
+        final long maxTransactionId;
+        final long stopTheWorldNanos;
+
+        // Obtaining the write lock waits for all in-flight updates to complete, so once we have rolled over the journal,
+        // every transaction in the old journal is reflected in the record map, and no transaction in the new journal is.
+        // The lock is held only long enough to create the new journal and copy the references to the records.
+        final List<T> records;
+        final Set<String> swapLocations;
+        writeLock.lock();
+        try {
+            final long stopTheWorldStart = System.nanoTime();
+            synchronized (journalMonitor) {
+                maxTransactionId = transactionIdGenerator.get() - 1;
+                if (journal != null && journal.getFirstTransactionId() > maxTransactionId) {
+                    // nothing has been written to the current journal, so there is no need to roll over
+                    rolledOverJournal = null;
+                } else {
+                    rolledOverJournal = journal;
+                    journal = createJournal(maxTransactionId + 1);
+                }
+            }
+
+            records = new ArrayList<>(recordMap.values());
+            swapLocations = new HashSet<>(externalLocations);
+            stopTheWorldNanos = System.nanoTime() - stopTheWorldStart;
+        } finally {
+            writeLock.unlock();
+        }
+
+        // Close the old journal outside of the lock, as it has to flush the data to disk.
+        if (rolledOverJournal != null) {
+            rolledOverJournal.close();
+        }
+
+        if (syncListener != null) {
+            syncListener.onGlobalSync();
+        }
+
+        final SerDe<T> serde = serdeFactory.createSerDe(null);
+        try (final FileOutputStream fileOut = new FileOutputStream(partialPath.toFile());
+            final DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+
+            dataOut.writeUTF(SequentialAccessWriteAheadLog.class.getName());
+            dataOut.writeInt(getVersion());
+            dataOut.writeUTF(serde.getClass().getName());
+            dataOut.writeInt(serde.getVersion());
+            dataOut.writeLong(maxTransactionId);
+            dataOut.writeInt(records.size());
+            serde.writeHeader(dataOut);
+
+            for (final T record : records) {
+                logger.trace("Checkpointing {}", record);
+                serde.serializeRecord(record, dataOut);
+            }
+
+            dataOut.writeInt(swapLocations.size());
+            for (final String swapLocation : swapLocations) {
+                dataOut.writeUTF(swapLocation);
+            }
+
+            dataOut.flush();
+            fileOut.getFD().sync();
+        } finally {
+            serde.close();
+        }
+
+        // delete the snapshot, if it exists, and rename the .partial to snapshot
+        Files.deleteIfExists(snapshotPath);
+        Files.move(partialPath, snapshotPath);
+
+        // Remove any journal whose transactions are all contained in the snapshot
+        final long journalStart = System.nanoTime();
+        for (final Path journalPath : getJournalPaths()) {
+            if (getFirstTransactionId(journalPath) <= maxTransactionId) {
+                Files.deleteIfExists(journalPath);
+            }
+        }
+        final long journalEnd = System.nanoTime();
+
+        final long millis = TimeUnit.NANOSECONDS.toMillis(journalEnd - startNanos);
+        final long journalMillis = TimeUnit.NANOSECONDS.toMillis(journalEnd - journalStart);
+        final long stopTheWorldMillis = TimeUnit.NANOSECONDS.toMillis(stopTheWorldNanos);
+
+        logger.info("{} checkpointed with {} Records and {} Swap Files in {} milliseconds (Stop-the-world "
+            + "time = {} milliseconds, Clear Journals time = {} millis), max Transaction ID {}",
+            new Object[] {this, records.size(), swapLocations.size(), millis, stopTheWorldMillis, journalMillis, maxTransactionId});
+
+        return records.size();
+    }
+
+    @Override
+    public void shutdown() throws IOException {
+        writeLock.lock();
+        try {
+            final Journal toClose;
+            synchronized (journalMonitor) {
+                toClose = journal;
+                journal = null;
+            }
+
+            if (toClose != null) {
+                toClose.close();
+            }
+
+            SerDe<T> serde;
+            while ((serde = serdePool.poll()) != null) {
+                serde.close();
+            }
+        } finally {
+            writeLock.unlock();
+            lockChannel.close();
+        }
+    }
+
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public String toString() {
+        return "SequentialAccessWriteAheadLog[" + storageDirectory + "]";
+    }
+
+
+    /**
+     * A single, append-only journal file. Each transaction is written as the transaction ID, followed by the
+     * length of the serialized transaction, followed by the serialized transaction itself. The length allows
+     * a transaction that was only partially written before a crash to be detected and ignored on recovery.
+     *
+     * {@link #write(long, byte[])} must be called with the journal monitor of the owning Write-Ahead Log held.
+     */
+    private static class Journal {
+        private final File file;
+        private final long firstTransactionId;
+        private final FileOutputStream fileOut;
+        private final DataOutputStream dataOut;
+        private final Object syncMonitor = new Object();
+
+        private volatile long bytesWritten = 0L;
+        private volatile long bytesSynced = 0L;
+        private volatile boolean poisoned = false;
+        private boolean closed = false; // guarded by syncMonitor
+
+        public Journal(final File file, final long firstTransactionId, final SerDe<?> serde, final int writeAheadLogVersion) throws IOException {
+            this.file = file;
+            this.firstTransactionId = firstTransactionId;
+            this.fileOut = new FileOutputStream(file);
+
+            try {
+                this.dataOut = new DataOutputStream(new BufferedOutputStream(fileOut, 65536));
+                dataOut.writeUTF(SequentialAccessWriteAheadLog.class.getName());
+                dataOut.writeInt(writeAheadLogVersion);
+                dataOut.writeUTF(serde.getClass().getName());
+                dataOut.writeInt(serde.getVersion());
+                serde.writeHeader(dataOut);
+                dataOut.flush();
+            } catch (final IOException ioe) {
+                try {
+                    fileOut.close();
+                } catch (final IOException inner) {
+                    ioe.addSuppressed(inner);
+                }
+
+                throw ioe;
+            }
+        }
+
+        public long getFirstTransactionId() {
+            return firstTransactionId;
+        }
+
+        /**
+         * Writes the given transaction to the journal and flushes it to the Operating System.
+         *
+         * @return the number of bytes that must be synced in order for this transaction to be durable
+         */
+        public long write(final long transactionId, final byte[] serialized) throws IOException {
+            if (poisoned) {
+                throw new IOException("Cannot update journal " + file + " because a previous update failed; the Write-Ahead Log must be checkpointed before updates may continue");
+            }
+
+            try {
+                dataOut.writeLong(transactionId);
+                dataOut.writeInt(serialized.length);
+                dataOut.write(serialized);
+                dataOut.flush();
+            } catch (final Throwable t) {
+                // We may have written a partial transaction. This is handled on recovery because the transaction's length is known,
+                // but we cannot continue to write to this journal, as the next transaction would not be recoverable.
+                poisoned = true;
+                throw t;
+            }
+
+            final long position = bytesWritten + 12 + serialized.length;
+            bytesWritten = position;
+            return position;
+        }
+
+        /**
+         * Ensures that at least the given number of bytes have been synced to disk. If another thread has already
+         * synced past this position, this method returns immediately without syncing again.
+         */
+        public void sync(final long position) throws IOException {
+            if (bytesSynced >= position) {
+                return;
+            }
+
+            synchronized (syncMonitor) {
+                if (bytesSynced >= position || closed) {
+                    return;
+                }
+
+                // Everything that has been counted in bytesWritten has already been flushed to the FileOutputStream,
+                // so a single sync makes all of those transactions durable.
+                final long syncTarget = bytesWritten;
+                fileOut.getFD().sync();
+                bytesSynced = syncTarget;
+            }
+        }
+
+        public void close() throws IOException {
+            synchronized (syncMonitor) {
+                if (closed) {
+                    return;
+                }
+
+                closed = true;
+
+                // Note that we close fileOut and NOT dataOut. See the note in MinimalLockingWriteAheadLog.Partition#close()
+                // for an explanation of why. We have already flushed dataOut after every write.
+                try {
+                    fileOut.getFD().sync();
+                    bytesSynced = bytesWritten;
+                } finally {
+                    fileOut.close();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Journal[" + file + "]";
+        }
+    }
+}
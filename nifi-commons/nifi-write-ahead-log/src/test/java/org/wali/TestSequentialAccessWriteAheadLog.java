@@ -0,0 +1,356 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wali;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class TestSequentialAccessWriteAheadLog {
+
+    @Test
+    public void testUpdateAndRecover() throws IOException, InterruptedException {
+        final Path path = Paths.get("target/sequential-access-repo");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        final Collection<DummyRecord> initialRecs = repo.recoverRecords();
+        assertTrue(initialRecs.isEmpty());
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final int startIndex = 1000000 * i;
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    final DummyRecord record = new DummyRecord(String.valueOf(startIndex + j), UpdateType.CREATE);
+                    record.setProperty("A", "B");
+                    try {
+                        repo.update(Collections.singleton(record), j % 100 == 0);
+                    } catch (final IOException e) {
+                        Assert.fail("Failed to update: " + e.toString());
+                    }
+                }
+            }));
+        }
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        repo.shutdown();
+
+        final WriteAheadRepository<DummyRecord> recoverRepo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            final Collection<DummyRecord> recoveredRecords = recoverRepo.recoverRecords();
+            assertEquals(10000, recoveredRecords.size());
+            for (final DummyRecord record : recoveredRecords) {
+                assertEquals("B", record.getProperty("A"));
+            }
+        } finally {
+            recoverRepo.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecoverFromCheckpointAndJournal() throws IOException {
+        final Path path = Paths.get("target/sequential-access-repo-checkpoint");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        repo.recoverRecords();
+
+        repo.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE).setProperty("state", "created")), false);
+        repo.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE).setProperty("state", "created")), false);
+        repo.update(Collections.singleton(new DummyRecord("3", UpdateType.CREATE).setProperty("state", "created")), false);
+        assertEquals(3, repo.checkpoint());
+
+        final List<DummyRecord> afterCheckpoint = new ArrayList<>();
+        afterCheckpoint.add(new DummyRecord("1", UpdateType.UPDATE).setProperty("state", "updated"));
+        afterCheckpoint.add(new DummyRecord("2", UpdateType.DELETE));
+        afterCheckpoint.add(new DummyRecord("4", UpdateType.CREATE).setProperty("state", "created"));
+        repo.update(afterCheckpoint, false);
+        repo.shutdown();
+
+        final WriteAheadRepository<DummyRecord> recoverRepo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            final Map<Object, DummyRecord> recovered = toMap(recoverRepo.recoverRecords());
+            assertEquals(3, recovered.size());
+            assertEquals("updated", recovered.get("1").getProperty("state"));
+            assertFalse(recovered.containsKey("2"));
+            assertEquals("created", recovered.get("3").getProperty("state"));
+            assertEquals("created", recovered.get("4").getProperty("state"));
+        } finally {
+            recoverRepo.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecoverWithTruncatedTransaction() throws IOException {
+        final Path path = Paths.get("target/sequential-access-repo-truncated");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        repo.recoverRecords();
+        for (int i = 0; i < 10; i++) {
+            repo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("A", "B")), false);
+        }
+        repo.shutdown();
+
+        // Chop off the last few bytes of the journal, as if we crashed while writing the final transaction
+        final File[] journals = path.resolve("journals").toFile().listFiles((dir, name) -> name.endsWith(".journal"));
+        assertNotNull(journals);
+        assertEquals(1, journals.length);
+        try (final RandomAccessFile raf = new RandomAccessFile(journals[0], "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        final WriteAheadRepository<DummyRecord> recoverRepo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            final Map<Object, DummyRecord> recovered = toMap(recoverRepo.recoverRecords());
+            assertEquals(9, recovered.size());
+            assertFalse(recovered.containsKey("9"));
+
+            // ensure that the repository can still be updated and recovered after the truncated transaction
+            recoverRepo.update(Collections.singleton(new DummyRecord("9", UpdateType.CREATE).setProperty("A", "B")), false);
+        } finally {
+            recoverRepo.shutdown();
+        }
+
+        final WriteAheadRepository<DummyRecord> thirdRepo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            assertEquals(10, thirdRepo.recoverRecords().size());
+        } finally {
+            thirdRepo.shutdown();
+        }
+    }
+
+    @Test
+    public void testRecoverFromMinimalLockingWriteAheadLog() throws IOException {
+        final Path path = Paths.get("target/sequential-access-repo-migration");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        final WriteAheadRepository<DummyRecord> legacyRepo = new MinimalLockingWriteAheadLog<>(path, 4, new DummyRecordSerde(), null);
+        legacyRepo.recoverRecords();
+        for (int i = 0; i < 100; i++) {
+            legacyRepo.update(Collections.singleton(new DummyRecord(String.valueOf(i), UpdateType.CREATE).setProperty("A", "B")), false);
+        }
+        legacyRepo.update(Collections.singleton(new DummyRecord("0", UpdateType.DELETE)), false);
+        legacyRepo.shutdown();
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            final Map<Object, DummyRecord> recovered = toMap(repo.recoverRecords());
+            assertEquals(99, recovered.size());
+            assertFalse(recovered.containsKey("0"));
+            assertEquals("B", recovered.get("99").getProperty("A"));
+        } finally {
+            repo.shutdown();
+        }
+
+        // The files of the old implementation should be gone, and the records should now be recovered from the new format
+        assertFalse(Files.exists(path.resolve("snapshot")));
+        assertFalse(Files.exists(path.resolve("partition-0")));
+
+        final WriteAheadRepository<DummyRecord> recoverRepo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            assertEquals(99, recoverRepo.recoverRecords().size());
+        } finally {
+            recoverRepo.shutdown();
+        }
+    }
+
+    @Test
+    public void testForceSyncNotifiesListener() throws IOException {
+        final Path path = Paths.get("target/sequential-access-repo-sync");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        final AtomicInteger partitionSyncs = new AtomicInteger(0);
+        final AtomicInteger globalSyncs = new AtomicInteger(0);
+        final SyncListener listener = new SyncListener() {
+            @Override
+            public void onSync(final int partitionIndex) {
+                partitionSyncs.incrementAndGet();
+            }
+
+            @Override
+            public void onGlobalSync() {
+                globalSyncs.incrementAndGet();
+            }
+        };
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), listener);
+        try {
+            repo.recoverRecords();
+            repo.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), false);
+            assertEquals(0, partitionSyncs.get());
+
+            repo.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE)), true);
+            assertEquals(1, partitionSyncs.get());
+
+            final int globalSyncsBeforeCheckpoint = globalSyncs.get();
+            repo.checkpoint();
+            assertEquals(globalSyncsBeforeCheckpoint + 1, globalSyncs.get());
+        } finally {
+            repo.shutdown();
+        }
+    }
+
+    @Test
+    public void testCheckpointExcludesUpdatesMadeAfterRollover() throws IOException {
+        final Path path = Paths.get("target/sequential-access-repo-rollover");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        // The listener is notified of the global sync after the journal has been rolled over but before the snapshot is written,
+        // so an update made from it must be left to the new journal rather than being written to the snapshot.
+        final AtomicReference<WriteAheadRepository<DummyRecord>> repoToUpdate = new AtomicReference<>();
+        final SyncListener listener = new SyncListener() {
+            @Override
+            public void onSync(final int partitionIndex) {
+            }
+
+            @Override
+            public void onGlobalSync() {
+                final WriteAheadRepository<DummyRecord> toUpdate = repoToUpdate.getAndSet(null);
+                if (toUpdate == null) {
+                    return;
+                }
+
+                try {
+                    toUpdate.update(Collections.singleton(new DummyRecord("2", UpdateType.CREATE)), false);
+                } catch (final IOException e) {
+                    Assert.fail("Failed to update: " + e.toString());
+                }
+            }
+        };
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), listener);
+        repo.recoverRecords();
+        repo.update(Collections.singleton(new DummyRecord("1", UpdateType.CREATE)), false);
+
+        repoToUpdate.set(repo);
+        assertEquals(1, repo.checkpoint());
+        repo.shutdown();
+
+        final WriteAheadRepository<DummyRecord> recoverRepo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        try {
+            final Collection<DummyRecord> recovered = recoverRepo.recoverRecords();
+            assertEquals(2, recovered.size());
+        } finally {
+            recoverRepo.shutdown();
+        }
+    }
+
+    @Test
+    @Ignore("for local testing only")
+    public void testUpdatePerformance() throws IOException, InterruptedException {
+        final Path path = Paths.get("target/sequential-access-repo");
+        deleteRecursively(path.toFile());
+        assertTrue(path.toFile().mkdirs());
+
+        final WriteAheadRepository<DummyRecord> repo = new SequentialAccessWriteAheadLog<>(path, new DummyRecordSerde(), null);
+        final Collection<DummyRecord> initialRecs = repo.recoverRecords();
+        assertTrue(initialRecs.isEmpty());
+
+        final int updateCountPerThread = 1_000_000;
+        final int numThreads = 16;
+
+        final Thread[] threads = new Thread[numThreads];
+
+        for (int j = 0; j < 2; j++) {
+            for (int i = 0; i < numThreads; i++) {
+                final Thread t = new Thread(() -> {
+                    for (int k = 0; k < updateCountPerThread; k++) {
+                        final DummyRecord record = new DummyRecord(String.valueOf(k), UpdateType.CREATE);
+                        try {
+                            repo.update(Collections.singleton(record), false);
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                            Assert.fail(e.toString());
+                        }
+                    }
+                });
+
+                threads[i] = t;
+            }
+
+            final long start = System.nanoTime();
+            for (final Thread t : threads) {
+                t.start();
+            }
+            for (final Thread t : threads) {
+                t.join();
+            }
+
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (j == 0) {
+                System.out.println(millis + " ms to insert " + updateCountPerThread * numThreads + " updates using " + numThreads + " threads, *as a warmup!*");
+            } else {
+                System.out.println(millis + " ms to insert " + updateCountPerThread * numThreads + " updates using " + numThreads + " threads");
+            }
+        }
+
+        repo.shutdown();
+    }
+
+    private Map<Object, DummyRecord> toMap(final Collection<DummyRecord> records) {
+        final Map<Object, DummyRecord> map = new HashMap<>();
+        for (final DummyRecord record : records) {
+            map.put(record.getId(), record);
+        }
+        return map;
+    }
+
+    private void deleteRecursively(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                deleteRecursively(child);
+            }
+        }
+
+        file.delete();
+    }
+}
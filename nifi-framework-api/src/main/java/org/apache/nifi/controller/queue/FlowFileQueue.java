@@ -106,6 +106,12 @@ public interface FlowFileQueue {
      */
     boolean isActiveQueueEmpty();
 
+    /**
+     * @return the time, in milliseconds since the epoch, at which the first FlowFile in the active queue will no longer be penalized,
+     *         or <code>0</code> if the queue may contain a FlowFile that is available for processing now, or if the active queue is empty
+     */
+    long getPenaltyExpiration();
+
     /**
      * Returns a QueueSize that represents all FlowFiles that are 'unacknowledged'. A FlowFile
      * is considered to be unacknowledged if it has been pulled from the queue by some component
@@ -173,6 +179,28 @@ public interface FlowFileQueue {
 
     void setFlowFileExpiration(String flowExpirationPeriod);
 
+    /**
+     * Sets how the FlowFiles in this queue are to be distributed across the nodes of a cluster
+     *
+     * @param strategy the strategy to use
+     * @param partitioningAttribute the name of the FlowFile attribute used to determine which node a FlowFile is sent to.
+     *            Required if the strategy is {@link LoadBalanceStrategy#PARTITION_BY_ATTRIBUTE}, ignored otherwise.
+     *
+     * @throws IllegalArgumentException if the strategy is {@link LoadBalanceStrategy#PARTITION_BY_ATTRIBUTE} and no partitioning attribute is given
+     */
+    void setLoadBalanceStrategy(LoadBalanceStrategy strategy, String partitioningAttribute);
+
+    /**
+     * @return the strategy that is used to distribute the FlowFiles in this queue across the nodes of a cluster
+     */
+    LoadBalanceStrategy getLoadBalanceStrategy();
+
+    /**
+     * @return the name of the FlowFile attribute used to determine which node a FlowFile is sent to, or <code>null</code>
+     *         if the load balance strategy is not {@link LoadBalanceStrategy#PARTITION_BY_ATTRIBUTE}
+     */
+    String getPartitioningAttribute();
+
     /**
      * Initiates a request to drop all FlowFiles in this queue. This method returns
      * a DropFlowFileStatus that can be used to determine the current state of the request.
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue;
+
+/**
+ * Determines how the FlowFiles in a queue are distributed across the nodes of a cluster
+ */
+public enum LoadBalanceStrategy {
+
+    /**
+     * FlowFiles are not distributed and remain on the node on which they were queued
+     */
+    DO_NOT_LOAD_BALANCE,
+
+    /**
+     * FlowFiles are distributed across all nodes in the cluster, one node after another
+     */
+    ROUND_ROBIN,
+
+    /**
+     * FlowFiles are distributed according to the value of a configured attribute, so that all FlowFiles
+     * that have the same value for that attribute are sent to the same node
+     */
+    PARTITION_BY_ATTRIBUTE,
+
+    /**
+     * All FlowFiles are sent to a single node in the cluster. Which node receives the data is not configurable,
+     * but all nodes in the cluster will agree on the same node.
+     */
+    SINGLE_NODE;
+}
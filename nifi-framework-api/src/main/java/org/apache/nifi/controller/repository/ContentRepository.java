@@ -19,6 +19,7 @@ package org.apache.nifi.controller.repository;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Set;
@@ -242,6 +243,26 @@ public interface ContentRepository {
      */
     InputStream read(ContentClaim claim) throws IOException;
 
+    /**
+     * Provides a FileChannel over the file that backs the given claim, positioned
+     * at the first byte of the claim's content. This allows callers to move the
+     * content of a claim to another channel, such as a socket, via
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}
+     * without copying the content into the JVM's heap. The caller is responsible
+     * for closing the channel and must not read beyond the length of the claim, as
+     * the underlying file may contain content for other claims.
+     *
+     * @param claim to read from
+     * @return a FileChannel positioned at the start of the content of the given claim,
+     *         or <code>null</code> if the repository does not store the content of the
+     *         claim in a file that can be accessed directly, in which case callers should
+     *         fall back to {@link #read(ContentClaim)}
+     * @throws IOException if unable to open the channel
+     */
+    default FileChannel readChannel(ContentClaim claim) throws IOException {
+        return null;
+    }
+
     /**
      * Obtains an OutputStream to the content for the given claim.
      *
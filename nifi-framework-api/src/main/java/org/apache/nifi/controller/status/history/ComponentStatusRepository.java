@@ -51,6 +51,13 @@ public interface ComponentStatusRepository {
      */
     void capture(ProcessGroupStatus rootGroupStatus, Date timestamp);
 
+    /**
+     * Releases any resources held by the repository. Called when the flow controller is shut down; no further
+     * status will be captured afterward.
+     */
+    default void shutdown() {
+    }
+
     /**
      * @return the Date at which the latest capture was performed
      */
@@ -28,6 +28,7 @@ import org.apache.nifi.provenance.search.SearchableField;
 import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public interface ProvenanceRepository extends ProvenanceEventRepository {
 
@@ -61,6 +62,25 @@ public interface ProvenanceRepository extends ProvenanceEventRepository {
      */
     List<ProvenanceEventRecord> getEvents(long firstRecordId, final int maxRecords, NiFiUser user) throws IOException;
 
+    /**
+     * Returns a cursor over all <code>ProvenanceEventRecord</code>s in the
+     * repository starting with the given ID, in ascending order of their IDs.
+     * Each event that is read is authorized against the given NiFiUser. If the
+     * user does not have authorization for the event, the event will not be
+     * returned by the cursor. The returned cursor must be closed.
+     *
+     * @param firstRecordId id of the first record to retrieve
+     * @param filter        the filter that an event must match in order to be returned
+     *                      by the cursor, or <code>null</code> to return all events
+     * @param user          the NiFi user that the events should be authorized against
+     * @return a cursor over the events
+     * @throws java.io.IOException if error reading from repository
+     */
+    default ProvenanceEventCursor getEventCursor(long firstRecordId, Predicate<ProvenanceEventRecord> filter, NiFiUser user) throws IOException {
+        return new PagingProvenanceEventCursor(firstRecordId, filter, PagingProvenanceEventCursor.DEFAULT_PAGE_SIZE,
+            (firstId, maxEvents) -> getEvents(firstId, maxEvents, user), this::getMaxEventId);
+    }
+
     /**
      * @return the {@link ProvenanceEventRepository} backing this ProvenanceRepository
      */
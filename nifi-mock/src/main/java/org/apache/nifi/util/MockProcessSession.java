@@ -53,10 +53,12 @@ import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.FlowFileAccessException;
 import org.apache.nifi.processor.exception.FlowFileHandlingException;
 import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.io.InputChannelCallback;
 import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.processor.io.StreamCallback;
 import org.apache.nifi.provenance.ProvenanceReporter;
+import org.apache.nifi.stream.io.InputStreamContentChannel;
 import org.junit.Assert;
 
 public class MockProcessSession implements ProcessSession {
@@ -302,6 +304,24 @@ public class MockProcessSession implements ProcessSession {
         return newFlowFile;
     }
 
+    @Override
+    public List<FlowFile> create(final FlowFile parent, final List<Map<String, String>> childAttributes) {
+        final List<FlowFile> children = new ArrayList<>(childAttributes.size());
+        for (final Map<String, String> attributes : childAttributes) {
+            final MockFlowFile child = create(parent);
+            if (attributes == null || attributes.isEmpty()) {
+                children.add(child);
+                continue;
+            }
+
+            final Map<String, String> updatedAttributes = new HashMap<>(attributes);
+            updatedAttributes.remove(CoreAttributes.UUID.key());
+            children.add(putAllAttributes(child, updatedAttributes));
+        }
+
+        return children;
+    }
+
     @Override
     public MockFlowFile create(final Collection<FlowFile> flowFiles) {
         MockFlowFile newFlowFile = create();
@@ -555,6 +575,16 @@ public class MockProcessSession implements ProcessSession {
         }
     }
 
+    @Override
+    public void readChannel(final FlowFile flowFile, final InputChannelCallback callback) {
+        if (callback == null || flowFile == null) {
+            throw new IllegalArgumentException("argument cannot be null");
+        }
+
+        final MockFlowFile mock = validateState(flowFile);
+        read(mock, false, in -> callback.process(new InputStreamContentChannel(in, mock.getSize())));
+    }
+
     private void incrementReadCount(final FlowFile flowFile) {
         readRecursionSet.compute(flowFile, (ff, count) -> count == null ? 1 : count + 1);
     }
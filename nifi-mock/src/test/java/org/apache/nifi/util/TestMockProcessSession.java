@@ -17,14 +17,21 @@
 package org.apache.nifi.util;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.processor.AbstractProcessor;
 import org.apache.nifi.processor.ProcessContext;
 import org.apache.nifi.processor.ProcessSession;
@@ -80,6 +87,25 @@ public class TestMockProcessSession {
 
     }
 
+    @Test
+    public void testCreateChildrenInBulk() {
+        final Processor processor = new PoorlyBehavedProcessor();
+        final MockProcessSession session = new MockProcessSession(new SharedSessionState(processor, new AtomicLong(0L)), processor);
+        final FlowFile parent = session.putAttribute(session.create(), "abc", "xyz");
+
+        final Map<String, String> childAttributes = new HashMap<>();
+        childAttributes.put("fragment.index", "0");
+        childAttributes.put(CoreAttributes.UUID.key(), "ignored");
+
+        final List<FlowFile> children = session.create(parent, Arrays.asList(childAttributes, null));
+        assertEquals(2, children.size());
+        assertEquals("xyz", children.get(0).getAttribute("abc"));
+        assertEquals("0", children.get(0).getAttribute("fragment.index"));
+        assertNotEquals("ignored", children.get(0).getAttribute(CoreAttributes.UUID.key()));
+        assertEquals("xyz", children.get(1).getAttribute("abc"));
+        assertNull(children.get(1).getAttribute("fragment.index"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testRejectTransferNewlyCreatedFileToSelf() {
         final Processor processor = new PoorlyBehavedProcessor();
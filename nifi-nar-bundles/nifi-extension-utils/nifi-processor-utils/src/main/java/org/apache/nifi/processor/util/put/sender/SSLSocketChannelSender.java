@@ -18,12 +18,14 @@ package org.apache.nifi.processor.util.put.sender;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.processor.io.ContentChannel;
 import org.apache.nifi.remote.io.socket.ssl.SSLSocketChannel;
 import org.apache.nifi.remote.io.socket.ssl.SSLSocketChannelOutputStream;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
 
 /**
  * Sends messages over an SSLSocketChannel.
@@ -74,6 +76,14 @@ public class SSLSocketChannelSender extends SocketChannelSender {
         sslChannel = null;
     }
 
+    /**
+     * Sends the content by copying it through the SSL output stream, as the content has to be encrypted before it is written to the socket.
+     */
+    @Override
+    public void transferFrom(final ContentChannel content) throws IOException {
+        IOUtils.copy(Channels.newInputStream(content), sslOutputStream);
+    }
+
     @Override
     public OutputStream getOutputStream() {
         return sslOutputStream;
@@ -18,6 +18,7 @@ package org.apache.nifi.processor.util.put.sender;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.processor.io.ContentChannel;
 import org.apache.nifi.remote.io.socket.SocketChannelOutputStream;
 
 import java.io.IOException;
@@ -27,13 +28,17 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.SocketTimeoutException;
 import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Sends messages over a SocketChannel.
  */
 public class SocketChannelSender extends ChannelSender {
 
+    private static final long CHANNEL_FULL_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
     protected SocketChannel channel;
     protected SocketChannelOutputStream socketChannelOutput;
 
@@ -111,6 +116,46 @@ public class SocketChannelSender extends ChannelSender {
         channel = null;
     }
 
+    /**
+     * Sends all of the content of the given channel. Content that is held in a file is transferred directly from the file
+     * to the socket, without being copied onto the heap. Because the socket is non-blocking, the content is transferred
+     * as the socket is able to accept it; if no progress is made for longer than the timeout, a SocketTimeoutException is thrown.
+     *
+     * @param content the content to send
+     * @throws IOException if there was an error communicating over the channel
+     */
+    public void transferFrom(final ContentChannel content) throws IOException {
+        final long size = content.size();
+        long bytesTransferred = 0L;
+        long maxTime = System.currentTimeMillis() + timeout;
+        long sleepNanos = 1L;
+
+        while (bytesTransferred < size) {
+            final long count = content.transferTo(channel);
+            if (count > 0) {
+                bytesTransferred += count;
+                maxTime = System.currentTimeMillis() + timeout;
+                sleepNanos = 1L;
+                continue;
+            }
+
+            if (System.currentTimeMillis() > maxTime) {
+                throw new SocketTimeoutException("Timed out writing to socket after sending " + bytesTransferred + " of " + size + " bytes");
+            }
+
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ClosedByInterruptException();
+            }
+
+            sleepNanos = Math.min(sleepNanos * 2, CHANNEL_FULL_WAIT_NANOS);
+        }
+
+        updateLastUsed();
+    }
+
     public OutputStream getOutputStream() {
         return new OutputStream() {
             @Override
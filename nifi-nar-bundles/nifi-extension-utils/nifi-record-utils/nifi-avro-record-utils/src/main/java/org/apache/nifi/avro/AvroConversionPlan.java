@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.avro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+
+/**
+ * <p>
+ * A plan for converting Records that have a given {@link RecordSchema} into Avro Records that have a given Avro {@link Schema}.
+ * </p>
+ *
+ * <p>
+ * Converting a Record field by field requires finding the Avro field that corresponds to each field of the Record and then
+ * choosing, from the Avro field's type and logical type, how the value is to be converted. These choices depend only on the two
+ * schemas, so a plan makes them once, when it is created, and then applies them to every Record that it converts. The
+ * conversions themselves are the same as those performed by {@link AvroTypeUtil#convertToAvroObject(Object, Schema)}.
+ * </p>
+ *
+ * <p>
+ * Plans are obtained via {@link #getPlan(RecordSchema, Schema)}, which caches them by the identity of the two schemas, since
+ * Record Readers and Writers use the same schema objects for all of the Records that they produce or consume. This class is thread-safe.
+ * </p>
+ */
+public class AvroConversionPlan {
+    private static final int MAX_CACHED_PLANS = 1000;
+    private static final ConcurrentMap<PlanKey, AvroConversionPlan> plans = new ConcurrentHashMap<>();
+
+    private final RecordSchema recordSchema;
+    private final Schema avroSchema;
+    private final RecordField[] recordFields;
+    private final int[] recordFieldIndices;
+    private final int[] avroFieldPositions;
+    private final Function<Object, Object>[] converters;
+    private final Field[] defaultedFields;
+
+    @SuppressWarnings("unchecked")
+    public AvroConversionPlan(final RecordSchema recordSchema, final Schema avroSchema) {
+        this.recordSchema = recordSchema;
+        this.avroSchema = avroSchema;
+
+        final List<RecordField> fields = recordSchema.getFields();
+        final List<Integer> indices = new ArrayList<>(fields.size());
+        final List<Field> avroFields = new ArrayList<>(fields.size());
+        for (int i = 0; i < fields.size(); i++) {
+            final Field avroField = avroSchema.getField(fields.get(i).getFieldName());
+            if (avroField != null) {
+                indices.add(i);
+                avroFields.add(avroField);
+            }
+        }
+
+        final int fieldCount = indices.size();
+        recordFields = new RecordField[fieldCount];
+        recordFieldIndices = new int[fieldCount];
+        avroFieldPositions = new int[fieldCount];
+        converters = new Function[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            final RecordField recordField = fields.get(indices.get(i));
+            final Field avroField = avroFields.get(i);
+
+            recordFields[i] = recordField;
+            recordFieldIndices[i] = indices.get(i);
+            avroFieldPositions[i] = avroField.pos();
+            converters[i] = AvroTypeUtil.createAvroConverter(avroField.schema(), recordField.getFieldName());
+        }
+
+        // Fields of the Avro schema that are not in the RecordSchema are given their default values, if they have any
+        final List<Field> defaulted = new ArrayList<>();
+        for (final Field field : avroSchema.getFields()) {
+            if (!recordSchema.getField(field.name()).isPresent() && field.defaultVal() != null) {
+                defaulted.add(field);
+            }
+        }
+        defaultedFields = defaulted.toArray(new Field[defaulted.size()]);
+    }
+
+    /**
+     * Returns the plan for converting Records with the given schema into Avro Records with the given Avro schema, creating the plan
+     * if it has not already been created
+     *
+     * @param recordSchema the schema of the Records to convert
+     * @param avroSchema the schema of the Avro Records to create
+     * @return the plan for the given schemas
+     */
+    public static AvroConversionPlan getPlan(final RecordSchema recordSchema, final Schema avroSchema) {
+        final PlanKey key = new PlanKey(recordSchema, avroSchema);
+        final AvroConversionPlan existing = plans.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Schemas that are created on the fly, such as by merging schemas for each Record, would otherwise fill the cache indefinitely.
+        if (plans.size() >= MAX_CACHED_PLANS) {
+            plans.clear();
+        }
+
+        final AvroConversionPlan plan = new AvroConversionPlan(recordSchema, avroSchema);
+        plans.put(key, plan);
+        return plan;
+    }
+
+    /**
+     * Converts the given Record into an Avro Record. The Record is expected to have the schema that this plan was created for;
+     * values are obtained from the Record by field so that a Record with an equivalent schema is converted correctly as well.
+     *
+     * @param record the Record to convert
+     * @return an Avro Record that holds the values of the Record
+     */
+    public GenericRecord convert(final Record record) {
+        final GenericRecord rec = new GenericData.Record(avroSchema);
+
+        // An ArrayRecord with this plan's schema holds its values in the order of the schema's fields, so they can be read by index
+        final ArrayRecord arrayRecord = record instanceof ArrayRecord && record.getSchema() == recordSchema ? (ArrayRecord) record : null;
+
+        for (int i = 0; i < converters.length; i++) {
+            final Object rawValue = arrayRecord == null ? record.getValue(recordFields[i]) : arrayRecord.getValue(recordFieldIndices[i]);
+            rec.put(avroFieldPositions[i], converters[i].apply(rawValue));
+        }
+
+        for (final Field field : defaultedFields) {
+            rec.put(field.pos(), field.defaultVal());
+        }
+
+        return rec;
+    }
+
+    public RecordSchema getRecordSchema() {
+        return recordSchema;
+    }
+
+    public Schema getAvroSchema() {
+        return avroSchema;
+    }
+
+    private static class PlanKey {
+        private final RecordSchema recordSchema;
+        private final Schema avroSchema;
+
+        PlanKey(final RecordSchema recordSchema, final Schema avroSchema) {
+            this.recordSchema = recordSchema;
+            this.avroSchema = avroSchema;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(recordSchema) + System.identityHashCode(avroSchema);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof PlanKey)) {
+                return false;
+            }
+
+            final PlanKey other = (PlanKey) obj;
+            return recordSchema == other.recordSchema && avroSchema == other.avroSchema;
+        }
+    }
+}
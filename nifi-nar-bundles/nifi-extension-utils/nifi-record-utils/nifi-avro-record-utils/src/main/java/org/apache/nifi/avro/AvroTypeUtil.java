@@ -48,6 +48,7 @@ import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.specific.SpecificRecord;
 import org.apache.avro.util.Utf8;
 import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
@@ -416,33 +417,17 @@ public class AvroTypeUtil {
         return bb;
     }
 
+    /**
+     * Converts the given Record into an Avro Record with the given schema. The work of matching the fields of the Record's schema to the
+     * fields of the Avro Schema, and of choosing how each field is to be converted, is done once per pair of schemas by an
+     * {@link AvroConversionPlan} and then reused for every Record that has the same schema.
+     *
+     * @param record the Record to convert
+     * @param avroSchema the schema of the Avro Record to create
+     * @return an Avro Record that holds the Record's values
+     */
     public static GenericRecord createAvroRecord(final Record record, final Schema avroSchema) throws IOException {
-        final GenericRecord rec = new GenericData.Record(avroSchema);
-        final RecordSchema recordSchema = record.getSchema();
-
-        for (final RecordField recordField : recordSchema.getFields()) {
-            final Object rawValue = record.getValue(recordField);
-            final String fieldName = recordField.getFieldName();
-
-            final Field field = avroSchema.getField(fieldName);
-            if (field == null) {
-                continue;
-            }
-
-            final Object converted = convertToAvroObject(rawValue, field.schema(), fieldName);
-            rec.put(fieldName, converted);
-        }
-
-        // see if the Avro schema has any fields that aren't in the RecordSchema, and if those fields have a default
-        // value then we want to populate it in the GenericRecord being produced
-        for (final Field field : avroSchema.getFields()) {
-            final Optional<RecordField> recordField = recordSchema.getField(field.name());
-            if (!recordField.isPresent() && rec.get(field.name()) == null && field.defaultVal() != null) {
-                rec.put(field.name(), field.defaultVal());
-            }
-        }
-
-        return rec;
+        return AvroConversionPlan.getPlan(record.getSchema(), avroSchema).convert(record);
     }
 
     /**
@@ -597,39 +582,157 @@ public class AvroTypeUtil {
         return rawValue;
     }
 
-    public static Map<String, Object> convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema) {
-        final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
+    /**
+     * Creates a function that converts a raw value to an Avro object of the given schema, exactly as {@link #convertToAvroObject(Object, Schema, String)}
+     * does, but with the decision of how to convert the value made once rather than for every value. Types whose conversion depends on more than the
+     * schema, such as arrays, maps, and records, are delegated to {@link #convertToAvroObject(Object, Schema, String)}.
+     *
+     * @param fieldSchema the Avro schema of the values to produce
+     * @param fieldName the name of the field, for error messages
+     * @return a function that converts raw values to Avro objects
+     */
+    static Function<Object, Object> createAvroConverter(final Schema fieldSchema, final String fieldName) {
+        final Function<Object, Object> converter = createNonNullAvroConverter(fieldSchema, fieldName);
+        return rawValue -> rawValue == null ? null : converter.apply(rawValue);
+    }
 
-        for (final RecordField recordField : recordSchema.getFields()) {
-            Object value = avroRecord.get(recordField.getFieldName());
-            if (value == null) {
-                for (final String alias : recordField.getAliases()) {
-                    value = avroRecord.get(alias);
-                    if (value != null) {
-                        break;
+    private static Function<Object, Object> createNonNullAvroConverter(final Schema fieldSchema, final String fieldName) {
+        final LogicalType logicalType = fieldSchema.getLogicalType();
+        final String logicalTypeName = logicalType == null ? null : logicalType.getName();
+
+        switch (fieldSchema.getType()) {
+            case INT:
+                if (LOGICAL_TYPE_DATE.equals(logicalTypeName) || LOGICAL_TYPE_TIME_MILLIS.equals(logicalTypeName)) {
+                    break;
+                }
+                return rawValue -> DataTypeUtils.toInteger(rawValue, fieldName);
+            case LONG:
+                if (LOGICAL_TYPE_TIME_MICROS.equals(logicalTypeName)) {
+                    break;
+                }
+                if (LOGICAL_TYPE_TIMESTAMP_MICROS.equals(logicalTypeName)) {
+                    return rawValue -> DataTypeUtils.toLong(rawValue, fieldName) * 1000L;
+                }
+                return rawValue -> DataTypeUtils.toLong(rawValue, fieldName);
+            case UNION:
+                return createUnionConverter(fieldSchema, fieldName);
+            case BOOLEAN:
+                return rawValue -> DataTypeUtils.toBoolean(rawValue, fieldName);
+            case DOUBLE:
+                return rawValue -> DataTypeUtils.toDouble(rawValue, fieldName);
+            case FLOAT:
+                return rawValue -> DataTypeUtils.toFloat(rawValue, fieldName);
+            case NULL:
+                return rawValue -> null;
+            case ENUM:
+                return rawValue -> new GenericData.EnumSymbol(fieldSchema, rawValue);
+            case STRING:
+                return rawValue -> DataTypeUtils.toString(rawValue, (String) null);
+        }
+
+        return rawValue -> convertToAvroObject(rawValue, fieldSchema, fieldName);
+    }
+
+    /**
+     * Creates the counterpart of {@link #convertUnionFieldValue(Object, Schema, Function, String)} for a given union: the non-null types of the union,
+     * the data type that each corresponds to, and the converter for each, are all determined up front.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createUnionConverter(final Schema fieldSchema, final String fieldName) {
+        final List<Schema> nonNullFieldSchemas = getNonNullSubSchemas(fieldSchema);
+        if (nonNullFieldSchemas.isEmpty()) {
+            return rawValue -> null;
+        }
+
+        final int subSchemaCount = nonNullFieldSchemas.size();
+        final DataType[] desiredDataTypes = new DataType[subSchemaCount];
+        final boolean[] logicalTypes = new boolean[subSchemaCount];
+        final Function<Object, Object>[] converters = new Function[subSchemaCount];
+        for (int i = 0; i < subSchemaCount; i++) {
+            final Schema nonNullFieldSchema = nonNullFieldSchemas.get(i);
+            desiredDataTypes[i] = AvroTypeUtil.determineDataType(nonNullFieldSchema);
+            logicalTypes[i] = nonNullFieldSchema.getLogicalType() != null;
+            converters[i] = createNonNullAvroConverter(nonNullFieldSchema, fieldName);
+        }
+
+        return rawValue -> {
+            for (int i = 0; i < subSchemaCount; i++) {
+                final DataType desiredDataType = desiredDataTypes[i];
+                try {
+                    final Object convertedValue = converters[i].apply(rawValue);
+
+                    if (isCompatibleDataType(convertedValue, desiredDataType)) {
+                        return convertedValue;
+                    }
+
+                    // For logical types those store with different type (e.g. BigDecimal as ByteBuffer), check compatibility using the original rawValue
+                    if (logicalTypes[i] && DataTypeUtils.isCompatibleDataType(rawValue, desiredDataType)) {
+                        return convertedValue;
+                    }
+                } catch (Exception e) {
+                    // If failed with one of possible types, continue with the next available option.
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Cannot convert value {} to type {}", rawValue, desiredDataType, e);
                     }
                 }
             }
 
-            final String fieldName = recordField.getFieldName();
-            final Field avroField = avroRecord.getSchema().getField(fieldName);
-            if (avroField == null) {
-                values.put(fieldName, null);
-                continue;
-            }
+            throw new IllegalTypeConversionException("Cannot convert value " + rawValue + " of type " + rawValue.getClass()
+                + " because no compatible types exist in the UNION for field " + fieldName);
+        };
+    }
+
+    public static Map<String, Object> convertAvroRecordToMap(final GenericRecord avroRecord, final RecordSchema recordSchema) {
+        final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
 
-            final Schema fieldSchema = avroField.schema();
-            final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
+        for (final RecordField recordField : recordSchema.getFields()) {
+            values.put(recordField.getFieldName(), convertAvroField(avroRecord, recordField));
+        }
 
-            final DataType desiredType = recordField.getDataType();
-            final Object coercedValue = DataTypeUtils.convertType(rawValue, desiredType, fieldName);
+        return values;
+    }
 
-            values.put(fieldName, coercedValue);
+    /**
+     * Converts the given Avro Record into the values of a Record with the given schema
+     *
+     * @param avroRecord the Avro Record to convert
+     * @param recordSchema the schema of the Record
+     * @return the value of each of the schema's fields, in the order that the fields appear in the schema, suitable for creating an {@link ArrayRecord}
+     */
+    public static Object[] convertAvroRecordToValues(final GenericRecord avroRecord, final RecordSchema recordSchema) {
+        final Object[] values = new Object[recordSchema.getFieldCount()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = convertAvroField(avroRecord, recordSchema.getField(i));
         }
 
         return values;
     }
 
+    private static Object convertAvroField(final GenericRecord avroRecord, final RecordField recordField) {
+        Object value = avroRecord.get(recordField.getFieldName());
+        if (value == null) {
+            for (final String alias : recordField.getAliases()) {
+                value = avroRecord.get(alias);
+                if (value != null) {
+                    break;
+                }
+            }
+        }
+
+        final String fieldName = recordField.getFieldName();
+        final Field avroField = avroRecord.getSchema().getField(fieldName);
+        if (avroField == null) {
+            return null;
+        }
+
+        final Schema fieldSchema = avroField.schema();
+        final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
+
+        final DataType desiredType = recordField.getDataType();
+        return DataTypeUtils.convertType(rawValue, desiredType, fieldName);
+    }
+
     /**
      * Convert value of a nullable union field.
      * @param originalValue original value
@@ -750,14 +853,14 @@ public class AvroTypeUtil {
                 final GenericData.Record record = (GenericData.Record) value;
                 final Schema recordSchema = record.getSchema();
                 final List<Field> recordFields = recordSchema.getFields();
-                final Map<String, Object> values = new HashMap<>(recordFields.size());
-                for (final Field field : recordFields) {
+                final Object[] values = new Object[recordFields.size()];
+                for (int i = 0; i < values.length; i++) {
+                    final Field field = recordFields.get(i);
                     final Object avroFieldValue = record.get(field.name());
-                    final Object fieldValue = normalizeValue(avroFieldValue, field.schema(), fieldName + "/" + field.name());
-                    values.put(field.name(), fieldValue);
+                    values[i] = normalizeValue(avroFieldValue, field.schema(), fieldName + "/" + field.name());
                 }
                 final RecordSchema childSchema = AvroTypeUtil.createSchema(recordSchema);
-                return new MapRecord(childSchema, values);
+                return new ArrayRecord(childSchema, values);
             case BYTES:
                 final ByteBuffer bb = (ByteBuffer) value;
                 final LogicalType logicalType = avroSchema.getLogicalType();
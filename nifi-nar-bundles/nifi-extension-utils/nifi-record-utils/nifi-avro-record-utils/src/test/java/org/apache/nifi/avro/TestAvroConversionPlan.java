@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.avro;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.ArrayRecord;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.junit.Test;
+
+public class TestAvroConversionPlan {
+
+    private static final String AVRO_SCHEMA_TEXT = "{\"namespace\": \"org.apache.nifi.testing\", \"name\": \"Person\", \"type\": \"record\", \"fields\": ["
+        + "{\"name\": \"id\", \"type\": \"int\"},"
+        + "{\"name\": \"name\", \"type\": [\"null\", \"string\"]},"
+        + "{\"name\": \"score\", \"type\": [\"null\", \"double\"]},"
+        + "{\"name\": \"active\", \"type\": \"boolean\"},"
+        + "{\"name\": \"created\", \"type\": {\"type\": \"long\", \"logicalType\": \"timestamp-millis\"}},"
+        + "{\"name\": \"day\", \"type\": {\"type\": \"int\", \"logicalType\": \"date\"}},"
+        + "{\"name\": \"tags\", \"type\": {\"type\": \"array\", \"items\": \"string\"}},"
+        + "{\"name\": \"choice\", \"type\": [\"null\", \"int\", \"string\"]},"
+        + "{\"name\": \"color\", \"type\": {\"type\": \"enum\", \"name\": \"Color\", \"symbols\": [\"RED\", \"GREEN\"]}},"
+        + "{\"name\": \"status\", \"type\": \"string\", \"default\": \"new\"}"
+        + "]}";
+
+    private RecordSchema createRecordSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("score", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("created", RecordFieldType.TIMESTAMP.getDataType()));
+        fields.add(new RecordField("day", RecordFieldType.DATE.getDataType()));
+        fields.add(new RecordField("tags", RecordFieldType.ARRAY.getArrayDataType(RecordFieldType.STRING.getDataType())));
+        fields.add(new RecordField("choice", RecordFieldType.CHOICE.getChoiceDataType(RecordFieldType.INT.getDataType(), RecordFieldType.STRING.getDataType())));
+        fields.add(new RecordField("color", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("extra", RecordFieldType.STRING.getDataType()));
+        return new SimpleRecordSchema(fields);
+    }
+
+    private Map<String, Object> createValues() {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("id", "42");
+        values.put("name", "John Doe");
+        values.put("score", 12);
+        values.put("active", "true");
+        values.put("created", new Timestamp(1510596012345L));
+        values.put("day", new Date(3 * 24 * 60 * 60 * 1000L));
+        values.put("tags", new Object[] {"a", "b"});
+        values.put("choice", "x");
+        values.put("color", "RED");
+        values.put("extra", "not in the Avro schema");
+        return values;
+    }
+
+    @Test
+    public void testConvertMatchesGenericConversion() {
+        final Schema avroSchema = new Schema.Parser().parse(AVRO_SCHEMA_TEXT);
+        final RecordSchema recordSchema = createRecordSchema();
+        final Map<String, Object> values = createValues();
+
+        final Object[] arrayValues = new Object[recordSchema.getFieldCount()];
+        for (int i = 0; i < arrayValues.length; i++) {
+            arrayValues[i] = values.get(recordSchema.getField(i).getFieldName());
+        }
+
+        final Record mapRecord = new MapRecord(recordSchema, values);
+        final Record arrayRecord = new ArrayRecord(recordSchema, arrayValues);
+        final AvroConversionPlan plan = AvroConversionPlan.getPlan(recordSchema, avroSchema);
+
+        for (final Record record : new Record[] {mapRecord, arrayRecord}) {
+            final GenericRecord avroRecord = plan.convert(record);
+
+            for (final Field field : avroSchema.getFields()) {
+                if (field.name().equals("status")) {
+                    continue;
+                }
+
+                final Object expected = AvroTypeUtil.convertToAvroObject(record.getValue(field.name()), field.schema());
+                assertEquals(field.name(), expected, avroRecord.get(field.name()));
+            }
+
+            assertEquals(42, avroRecord.get("id"));
+            assertEquals(12D, avroRecord.get("score"));
+            assertEquals(1510596012345L, avroRecord.get("created"));
+            assertEquals(3, avroRecord.get("day"));
+            assertEquals(Arrays.asList("a", "b"), avroRecord.get("tags"));
+            assertEquals("x", avroRecord.get("choice"));
+            assertEquals("new", String.valueOf(avroRecord.get("status")));
+        }
+    }
+
+    @Test
+    public void testNullValues() {
+        final Schema avroSchema = new Schema.Parser().parse(AVRO_SCHEMA_TEXT);
+        final RecordSchema recordSchema = createRecordSchema();
+
+        final GenericRecord avroRecord = AvroConversionPlan.getPlan(recordSchema, avroSchema).convert(new MapRecord(recordSchema, new HashMap<>()));
+        assertNull(avroRecord.get("name"));
+        assertNull(avroRecord.get("choice"));
+        assertEquals("new", String.valueOf(avroRecord.get("status")));
+    }
+
+    @Test
+    public void testPlansCachedBySchemaInstance() {
+        final Schema avroSchema = new Schema.Parser().parse(AVRO_SCHEMA_TEXT);
+        final RecordSchema recordSchema = createRecordSchema();
+
+        final AvroConversionPlan plan = AvroConversionPlan.getPlan(recordSchema, avroSchema);
+        assertSame(plan, AvroConversionPlan.getPlan(recordSchema, avroSchema));
+        assertSame(recordSchema, plan.getRecordSchema());
+        assertSame(avroSchema, plan.getAvroSchema());
+
+        assertNotSame(plan, AvroConversionPlan.getPlan(createRecordSchema(), avroSchema));
+    }
+}
@@ -40,6 +40,8 @@ public class ConnectionDTO extends ComponentDTO {
     private String backPressureDataSizeThreshold;
     private String flowFileExpiration;
     private List<String> prioritizers;
+    private String loadBalanceStrategy;
+    private String loadBalancePartitionAttribute;
     private List<PositionDTO> bends;
 
     /**
@@ -231,6 +233,40 @@ public class ConnectionDTO extends ComponentDTO {
         this.prioritizers = prioritizers;
     }
 
+    /**
+     * How the FlowFiles in this connection are distributed across the nodes of a cluster.
+     *
+     * @return The load balance strategy
+     */
+    @ApiModelProperty(
+            value = "How to distribute the FlowFiles in this connection across the nodes of the cluster.",
+            allowableValues = "DO_NOT_LOAD_BALANCE, ROUND_ROBIN, PARTITION_BY_ATTRIBUTE, SINGLE_NODE"
+    )
+    public String getLoadBalanceStrategy() {
+        return loadBalanceStrategy;
+    }
+
+    public void setLoadBalanceStrategy(String loadBalanceStrategy) {
+        this.loadBalanceStrategy = loadBalanceStrategy;
+    }
+
+    /**
+     * The FlowFile attribute that determines which node a FlowFile is sent to when the load balance strategy is PARTITION_BY_ATTRIBUTE.
+     *
+     * @return The partitioning attribute
+     */
+    @ApiModelProperty(
+            value = "The FlowFile attribute that determines which node a FlowFile is sent to. All FlowFiles with the same value for this attribute are sent "
+                    + "to the same node. Required if the load balance strategy is PARTITION_BY_ATTRIBUTE, ignored otherwise."
+    )
+    public String getLoadBalancePartitionAttribute() {
+        return loadBalancePartitionAttribute;
+    }
+
+    public void setLoadBalancePartitionAttribute(String loadBalancePartitionAttribute) {
+        this.loadBalancePartitionAttribute = loadBalancePartitionAttribute;
+    }
+
     @Override
     public String toString() {
         return "ConnectionDTO [id: " + getId() + "]";
@@ -65,6 +65,13 @@ public class SystemDiagnosticsSnapshotDTO implements Cloneable {
     private Set<StorageUsageDTO> provenanceRepositoryStorageUsage;
     private Set<GarbageCollectionDTO> garbageCollection;
 
+    private String contentRepositoryMapped;
+    private Long contentRepositoryMappedBytes;
+    private Integer contentRepositoryMappedFileCount;
+    private Long contentRepositoryMappedReadHits;
+    private Long contentRepositoryMappedReadMisses;
+    private String contentRepositoryMappedReadHitRatio;
+
     private Date statsLastRefreshed;
 
     private VersionInfoDTO versionInfo;
@@ -232,6 +239,60 @@ public class SystemDiagnosticsSnapshotDTO implements Cloneable {
         this.garbageCollection = garbageCollection;
     }
 
+    @ApiModelProperty("Amount of content repository data that is currently memory-mapped for reading.")
+    public String getContentRepositoryMapped() {
+        return contentRepositoryMapped;
+    }
+
+    public void setContentRepositoryMapped(String contentRepositoryMapped) {
+        this.contentRepositoryMapped = contentRepositoryMapped;
+    }
+
+    @ApiModelProperty("The number of bytes of content repository data that are currently memory-mapped for reading")
+    public Long getContentRepositoryMappedBytes() {
+        return contentRepositoryMappedBytes;
+    }
+
+    public void setContentRepositoryMappedBytes(Long contentRepositoryMappedBytes) {
+        this.contentRepositoryMappedBytes = contentRepositoryMappedBytes;
+    }
+
+    @ApiModelProperty("The number of content repository files that are currently memory-mapped for reading")
+    public Integer getContentRepositoryMappedFileCount() {
+        return contentRepositoryMappedFileCount;
+    }
+
+    public void setContentRepositoryMappedFileCount(Integer contentRepositoryMappedFileCount) {
+        this.contentRepositoryMappedFileCount = contentRepositoryMappedFileCount;
+    }
+
+    @ApiModelProperty("The number of content reads that were served from a file that was already memory-mapped")
+    public Long getContentRepositoryMappedReadHits() {
+        return contentRepositoryMappedReadHits;
+    }
+
+    public void setContentRepositoryMappedReadHits(Long contentRepositoryMappedReadHits) {
+        this.contentRepositoryMappedReadHits = contentRepositoryMappedReadHits;
+    }
+
+    @ApiModelProperty("The number of content reads that required a file to be memory-mapped first")
+    public Long getContentRepositoryMappedReadMisses() {
+        return contentRepositoryMappedReadMisses;
+    }
+
+    public void setContentRepositoryMappedReadMisses(Long contentRepositoryMappedReadMisses) {
+        this.contentRepositoryMappedReadMisses = contentRepositoryMappedReadMisses;
+    }
+
+    @ApiModelProperty("Percentage of memory-mapped content reads that were served from a file that was already memory-mapped.")
+    public String getContentRepositoryMappedReadHitRatio() {
+        return contentRepositoryMappedReadHitRatio;
+    }
+
+    public void setContentRepositoryMappedReadHitRatio(String contentRepositoryMappedReadHitRatio) {
+        this.contentRepositoryMappedReadHitRatio = contentRepositoryMappedReadHitRatio;
+    }
+
     @XmlJavaTypeAdapter(TimeAdapter.class)
     @ApiModelProperty(
             value = "When the diagnostics were generated.",
@@ -389,6 +450,13 @@ public class SystemDiagnosticsSnapshotDTO implements Cloneable {
             }
         }
 
+        other.setContentRepositoryMapped(getContentRepositoryMapped());
+        other.setContentRepositoryMappedBytes(getContentRepositoryMappedBytes());
+        other.setContentRepositoryMappedFileCount(getContentRepositoryMappedFileCount());
+        other.setContentRepositoryMappedReadHits(getContentRepositoryMappedReadHits());
+        other.setContentRepositoryMappedReadMisses(getContentRepositoryMappedReadMisses());
+        other.setContentRepositoryMappedReadHitRatio(getContentRepositoryMappedReadHitRatio());
+
         other.setVersionInfo(getVersionInfo().clone());
 
         other.setUptime(getUptime());
@@ -19,6 +19,8 @@ package org.apache.nifi.web.api.dto.status;
 import io.swagger.annotations.ApiModelProperty;
 
 import javax.xml.bind.annotation.XmlType;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * DTO for serializing the status of a connection.
@@ -48,6 +50,10 @@ public class ConnectionStatusSnapshotDTO implements Cloneable {
     private String queuedCount;
     private Integer percentUseCount;
     private Integer percentUseBytes;
+    private Long queuedDurationMillisP50 = 0L;
+    private Long queuedDurationMillisP99 = 0L;
+    private Long queuedDurationMillisMax = 0L;
+    private List<QueuePartitionStatusSnapshotDTO> partitionSnapshots;
 
     /* getters / setters */
     /**
@@ -271,6 +277,43 @@ public class ConnectionStatusSnapshotDTO implements Cloneable {
         this.percentUseBytes = percentUseBytes;
     }
 
+    @ApiModelProperty("The median number of milliseconds that FlowFiles pulled from the connection in the last 5 minutes had been queued.")
+    public Long getQueuedDurationMillisP50() {
+        return queuedDurationMillisP50;
+    }
+
+    public void setQueuedDurationMillisP50(Long queuedDurationMillisP50) {
+        this.queuedDurationMillisP50 = queuedDurationMillisP50;
+    }
+
+    @ApiModelProperty("The 99th percentile of the number of milliseconds that FlowFiles pulled from the connection in the last 5 minutes had been queued.")
+    public Long getQueuedDurationMillisP99() {
+        return queuedDurationMillisP99;
+    }
+
+    public void setQueuedDurationMillisP99(Long queuedDurationMillisP99) {
+        this.queuedDurationMillisP99 = queuedDurationMillisP99;
+    }
+
+    @ApiModelProperty("The largest number of milliseconds that a FlowFile pulled from the connection in the last 5 minutes had been queued.")
+    public Long getQueuedDurationMillisMax() {
+        return queuedDurationMillisMax;
+    }
+
+    public void setQueuedDurationMillisMax(Long queuedDurationMillisMax) {
+        this.queuedDurationMillisMax = queuedDurationMillisMax;
+    }
+
+    @ApiModelProperty("The status of each partition of the connection, keyed by the node that the FlowFiles in the partition are destined for. "
+        + "This is only populated when the connection is load balanced across the nodes of a cluster.")
+    public List<QueuePartitionStatusSnapshotDTO> getPartitionSnapshots() {
+        return partitionSnapshots;
+    }
+
+    public void setPartitionSnapshots(List<QueuePartitionStatusSnapshotDTO> partitionSnapshots) {
+        this.partitionSnapshots = partitionSnapshots;
+    }
+
     @Override
     public ConnectionStatusSnapshotDTO clone() {
         final ConnectionStatusSnapshotDTO other = new ConnectionStatusSnapshotDTO();
@@ -295,6 +338,17 @@ public class ConnectionStatusSnapshotDTO implements Cloneable {
         other.setQueuedSize(getQueuedSize());
         other.setPercentUseBytes(getPercentUseBytes());
         other.setPercentUseCount(getPercentUseCount());
+        other.setQueuedDurationMillisP50(getQueuedDurationMillisP50());
+        other.setQueuedDurationMillisP99(getQueuedDurationMillisP99());
+        other.setQueuedDurationMillisMax(getQueuedDurationMillisMax());
+
+        if (getPartitionSnapshots() != null) {
+            final List<QueuePartitionStatusSnapshotDTO> partitionSnapshots = new ArrayList<>(getPartitionSnapshots().size());
+            for (final QueuePartitionStatusSnapshotDTO partitionSnapshot : getPartitionSnapshots()) {
+                partitionSnapshots.add(partitionSnapshot.clone());
+            }
+            other.setPartitionSnapshots(partitionSnapshots);
+        }
 
         return other;
     }
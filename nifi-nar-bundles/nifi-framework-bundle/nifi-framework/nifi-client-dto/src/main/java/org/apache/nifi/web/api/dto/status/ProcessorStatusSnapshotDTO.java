@@ -51,6 +51,10 @@ public class ProcessorStatusSnapshotDTO implements Cloneable {
     private String tasks;
     private String tasksDuration;
     private Integer activeThreadCount = 0;
+    private Integer provenanceEventsDiscarded = 0;
+    private Long onTriggerNanosP50 = 0L;
+    private Long onTriggerNanosP99 = 0L;
+    private Long onTriggerNanosMax = 0L;
 
     /* getters / setters */
     /**
@@ -284,6 +288,42 @@ public class ProcessorStatusSnapshotDTO implements Cloneable {
         this.tasksDurationNanos = taskNanos;
     }
 
+    @ApiModelProperty("The number of Provenance Events generated by this Processor in the last 5 minutes that were discarded by the Provenance Sampling Policy")
+    public Integer getProvenanceEventsDiscarded() {
+        return provenanceEventsDiscarded;
+    }
+
+    public void setProvenanceEventsDiscarded(Integer provenanceEventsDiscarded) {
+        this.provenanceEventsDiscarded = provenanceEventsDiscarded;
+    }
+
+    @ApiModelProperty("The median number of nanoseconds that a single invocation of this Processor took in the last 5 minutes")
+    public Long getOnTriggerNanosP50() {
+        return onTriggerNanosP50;
+    }
+
+    public void setOnTriggerNanosP50(Long onTriggerNanosP50) {
+        this.onTriggerNanosP50 = onTriggerNanosP50;
+    }
+
+    @ApiModelProperty("The 99th percentile of the number of nanoseconds that a single invocation of this Processor took in the last 5 minutes")
+    public Long getOnTriggerNanosP99() {
+        return onTriggerNanosP99;
+    }
+
+    public void setOnTriggerNanosP99(Long onTriggerNanosP99) {
+        this.onTriggerNanosP99 = onTriggerNanosP99;
+    }
+
+    @ApiModelProperty("The largest number of nanoseconds that a single invocation of this Processor took in the last 5 minutes")
+    public Long getOnTriggerNanosMax() {
+        return onTriggerNanosMax;
+    }
+
+    public void setOnTriggerNanosMax(Long onTriggerNanosMax) {
+        this.onTriggerNanosMax = onTriggerNanosMax;
+    }
+
     @Override
     public ProcessorStatusSnapshotDTO clone() {
         final ProcessorStatusSnapshotDTO other = new ProcessorStatusSnapshotDTO();
@@ -304,6 +344,10 @@ public class ProcessorStatusSnapshotDTO implements Cloneable {
         other.setTasksDuration(getTasksDuration());
         other.setTasksDurationNanos(getTasksDurationNanos());
         other.setActiveThreadCount(getActiveThreadCount());
+        other.setProvenanceEventsDiscarded(getProvenanceEventsDiscarded());
+        other.setOnTriggerNanosP50(getOnTriggerNanosP50());
+        other.setOnTriggerNanosP99(getOnTriggerNanosP99());
+        other.setOnTriggerNanosMax(getOnTriggerNanosMax());
         other.setInput(getInput());
         other.setOutput(getOutput());
         other.setRead(getRead());
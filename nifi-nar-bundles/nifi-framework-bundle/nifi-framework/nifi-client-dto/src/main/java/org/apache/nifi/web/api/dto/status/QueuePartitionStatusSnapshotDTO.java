@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.api.dto.status;
+
+import io.swagger.annotations.ApiModelProperty;
+
+import javax.xml.bind.annotation.XmlType;
+
+/**
+ * DTO for serializing the status of one partition of a load-balanced connection.
+ */
+@XmlType(name = "queuePartitionStatusSnapshot")
+public class QueuePartitionStatusSnapshotDTO implements Cloneable {
+
+    private String nodeId;
+    private String nodeAddress;
+    private Integer flowFilesQueued = 0;
+    private Long bytesQueued = 0L;
+    private String queued;
+
+    @ApiModelProperty("The id of the node that the FlowFiles in the partition are destined for.")
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    @ApiModelProperty("The address of the node that the FlowFiles in the partition are destined for.")
+    public String getNodeAddress() {
+        return nodeAddress;
+    }
+
+    public void setNodeAddress(String nodeAddress) {
+        this.nodeAddress = nodeAddress;
+    }
+
+    @ApiModelProperty("The number of FlowFiles that are currently queued in the partition.")
+    public Integer getFlowFilesQueued() {
+        return flowFilesQueued;
+    }
+
+    public void setFlowFilesQueued(Integer flowFilesQueued) {
+        this.flowFilesQueued = flowFilesQueued;
+    }
+
+    @ApiModelProperty("The size of the FlowFiles that are currently queued in the partition.")
+    public Long getBytesQueued() {
+        return bytesQueued;
+    }
+
+    public void setBytesQueued(Long bytesQueued) {
+        this.bytesQueued = bytesQueued;
+    }
+
+    @ApiModelProperty("The count and size of the FlowFiles queued in the partition, pretty printed.")
+    public String getQueued() {
+        return queued;
+    }
+
+    public void setQueued(String queued) {
+        this.queued = queued;
+    }
+
+    @Override
+    public QueuePartitionStatusSnapshotDTO clone() {
+        final QueuePartitionStatusSnapshotDTO other = new QueuePartitionStatusSnapshotDTO();
+        other.setNodeId(getNodeId());
+        other.setNodeAddress(getNodeAddress());
+        other.setFlowFilesQueued(getFlowFilesQueued());
+        other.setBytesQueued(getBytesQueued());
+        other.setQueued(getQueued());
+        return other;
+    }
+}
@@ -67,6 +67,17 @@ public class NodeIdentifier {
      */
     private final int socketPort;
 
+    /**
+     * the IP or hostname that other nodes should use to send FlowFiles to this node when load balancing a connection
+     */
+    private final String loadBalanceAddress;
+
+    /**
+     * the port that other nodes should use to send FlowFiles to this node when load balancing a connection, or
+     * null if the node does not accept load-balanced FlowFiles
+     */
+    private final Integer loadBalancePort;
+
     /**
      * the IP or hostname that external clients should use to communicate with this node via Site-to-Site
      */
@@ -98,6 +109,12 @@ public class NodeIdentifier {
 
     public NodeIdentifier(final String id, final String apiAddress, final int apiPort, final String socketAddress, final int socketPort,
         final String siteToSiteAddress, final Integer siteToSitePort, final Integer siteToSiteHttpApiPort, final boolean siteToSiteSecure, final String dn) {
+        this(id, apiAddress, apiPort, socketAddress, socketPort, null, null, siteToSiteAddress, siteToSitePort, siteToSiteHttpApiPort, siteToSiteSecure, dn);
+    }
+
+    public NodeIdentifier(final String id, final String apiAddress, final int apiPort, final String socketAddress, final int socketPort,
+        final String loadBalanceAddress, final Integer loadBalancePort,
+        final String siteToSiteAddress, final Integer siteToSitePort, final Integer siteToSiteHttpApiPort, final boolean siteToSiteSecure, final String dn) {
 
         if (StringUtils.isBlank(id)) {
             throw new IllegalArgumentException("Node ID may not be empty or null.");
@@ -112,12 +129,17 @@ public class NodeIdentifier {
         if (siteToSitePort != null) {
             validatePort(siteToSitePort);
         }
+        if (loadBalancePort != null) {
+            validatePort(loadBalancePort);
+        }
 
         this.id = id;
         this.apiAddress = apiAddress;
         this.apiPort = apiPort;
         this.socketAddress = socketAddress;
         this.socketPort = socketPort;
+        this.loadBalanceAddress = loadBalanceAddress == null ? socketAddress : loadBalanceAddress;
+        this.loadBalancePort = loadBalancePort;
         this.nodeDn = dn;
         this.siteToSiteAddress = siteToSiteAddress == null ? apiAddress : siteToSiteAddress;
         this.siteToSitePort = siteToSitePort;
@@ -134,6 +156,8 @@ public class NodeIdentifier {
         this.apiPort = 0;
         this.socketAddress = null;
         this.socketPort = 0;
+        this.loadBalanceAddress = null;
+        this.loadBalancePort = null;
         this.nodeDn = null;
         this.siteToSiteAddress = null;
         this.siteToSitePort = null;
@@ -165,6 +189,14 @@ public class NodeIdentifier {
         return socketPort;
     }
 
+    public String getLoadBalanceAddress() {
+        return loadBalanceAddress;
+    }
+
+    public Integer getLoadBalancePort() {
+        return loadBalancePort;
+    }
+
     private void validatePort(final int port) {
         if (port < 1 || port > 65535) {
             throw new IllegalArgumentException("Port must be inclusively in the range [1, 65535].  Port given: " + port);
@@ -25,6 +25,8 @@ public class AdaptedNodeIdentifier {
     private int apiPort;
     private String socketAddress;
     private int socketPort;
+    private String loadBalanceAddress;
+    private Integer loadBalancePort;
     private String siteToSiteAddress;
     private Integer siteToSitePort;
     private Integer siteToSiteHttpApiPort;
@@ -74,6 +76,22 @@ public class AdaptedNodeIdentifier {
         this.socketPort = socketPort;
     }
 
+    public String getLoadBalanceAddress() {
+        return loadBalanceAddress;
+    }
+
+    public void setLoadBalanceAddress(String loadBalanceAddress) {
+        this.loadBalanceAddress = loadBalanceAddress;
+    }
+
+    public Integer getLoadBalancePort() {
+        return loadBalancePort;
+    }
+
+    public void setLoadBalancePort(Integer loadBalancePort) {
+        this.loadBalancePort = loadBalancePort;
+    }
+
     public String getSiteToSiteAddress() {
         return siteToSiteAddress;
     }
@@ -43,6 +43,7 @@ import org.apache.nifi.web.api.dto.status.ProcessGroupStatusDTO;
 import org.apache.nifi.web.api.dto.status.ProcessGroupStatusSnapshotDTO;
 import org.apache.nifi.web.api.dto.status.ProcessorStatusDTO;
 import org.apache.nifi.web.api.dto.status.ProcessorStatusSnapshotDTO;
+import org.apache.nifi.web.api.dto.status.QueuePartitionStatusSnapshotDTO;
 import org.apache.nifi.web.api.dto.status.RemoteProcessGroupStatusDTO;
 import org.apache.nifi.web.api.dto.status.RemoteProcessGroupStatusSnapshotDTO;
 import org.apache.nifi.web.api.entity.ConnectionStatusSnapshotEntity;
@@ -55,6 +56,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -412,6 +414,12 @@ public class StatusMerger {
         target.setTaskCount(target.getTaskCount() + toMerge.getTaskCount());
         target.setTasksDurationNanos(target.getTasksDurationNanos() + toMerge.getTasksDurationNanos());
         target.setActiveThreadCount(target.getActiveThreadCount() + toMerge.getActiveThreadCount());
+        target.setProvenanceEventsDiscarded(target.getProvenanceEventsDiscarded() + toMerge.getProvenanceEventsDiscarded());
+
+        // percentiles cannot be combined without the underlying distributions, so the slowest node's are reported
+        target.setOnTriggerNanosP50(Math.max(target.getOnTriggerNanosP50(), toMerge.getOnTriggerNanosP50()));
+        target.setOnTriggerNanosP99(Math.max(target.getOnTriggerNanosP99(), toMerge.getOnTriggerNanosP99()));
+        target.setOnTriggerNanosMax(Math.max(target.getOnTriggerNanosMax(), toMerge.getOnTriggerNanosMax()));
         updatePrettyPrintedFields(target);
     }
 
@@ -470,15 +478,56 @@ public class StatusMerger {
             target.setPercentUseCount(Math.max(target.getPercentUseCount(), toMerge.getPercentUseCount()));
         }
 
+        // percentiles cannot be combined without the underlying distributions, so the slowest node's are reported
+        target.setQueuedDurationMillisP50(Math.max(target.getQueuedDurationMillisP50(), toMerge.getQueuedDurationMillisP50()));
+        target.setQueuedDurationMillisP99(Math.max(target.getQueuedDurationMillisP99(), toMerge.getQueuedDurationMillisP99()));
+        target.setQueuedDurationMillisMax(Math.max(target.getQueuedDurationMillisMax(), toMerge.getQueuedDurationMillisMax()));
+
+        target.setPartitionSnapshots(mergePartitionSnapshots(target.getPartitionSnapshots(), toMerge.getPartitionSnapshots()));
+
         updatePrettyPrintedFields(target);
     }
 
+    private static List<QueuePartitionStatusSnapshotDTO> mergePartitionSnapshots(final List<QueuePartitionStatusSnapshotDTO> target,
+                                                                                   final List<QueuePartitionStatusSnapshotDTO> toMerge) {
+        if (toMerge == null || toMerge.isEmpty()) {
+            return target;
+        }
+
+        // partitions are keyed by the node that their FlowFiles are destined for
+        final Map<String, QueuePartitionStatusSnapshotDTO> mergedPartitions = new LinkedHashMap<>();
+        if (target != null) {
+            for (final QueuePartitionStatusSnapshotDTO partitionSnapshot : target) {
+                mergedPartitions.put(partitionSnapshot.getNodeId(), partitionSnapshot);
+            }
+        }
+
+        for (final QueuePartitionStatusSnapshotDTO partitionToMerge : toMerge) {
+            final QueuePartitionStatusSnapshotDTO merged = mergedPartitions.get(partitionToMerge.getNodeId());
+            if (merged == null) {
+                mergedPartitions.put(partitionToMerge.getNodeId(), partitionToMerge.clone());
+                continue;
+            }
+
+            merged.setFlowFilesQueued(merged.getFlowFilesQueued() + partitionToMerge.getFlowFilesQueued());
+            merged.setBytesQueued(merged.getBytesQueued() + partitionToMerge.getBytesQueued());
+        }
+
+        return new ArrayList<>(mergedPartitions.values());
+    }
+
     public static void updatePrettyPrintedFields(final ConnectionStatusSnapshotDTO target) {
         target.setQueued(prettyPrint(target.getFlowFilesQueued(), target.getBytesQueued()));
         target.setQueuedCount(formatCount(target.getFlowFilesQueued()));
         target.setQueuedSize(formatDataSize(target.getBytesQueued()));
         target.setInput(prettyPrint(target.getFlowFilesIn(), target.getBytesIn()));
         target.setOutput(prettyPrint(target.getFlowFilesOut(), target.getBytesOut()));
+
+        if (target.getPartitionSnapshots() != null) {
+            for (final QueuePartitionStatusSnapshotDTO partitionSnapshot : target.getPartitionSnapshots()) {
+                partitionSnapshot.setQueued(prettyPrint(partitionSnapshot.getFlowFilesQueued(), partitionSnapshot.getBytesQueued()));
+            }
+        }
     }
 
 
@@ -606,6 +655,10 @@ public class StatusMerger {
         target.setTotalThreads(target.getTotalThreads() + toMerge.getTotalThreads());
         target.setUsedHeapBytes(target.getUsedHeapBytes() + toMerge.getUsedHeapBytes());
         target.setUsedNonHeapBytes(target.getUsedNonHeapBytes() + toMerge.getUsedNonHeapBytes());
+        target.setContentRepositoryMappedBytes(target.getContentRepositoryMappedBytes() + toMerge.getContentRepositoryMappedBytes());
+        target.setContentRepositoryMappedFileCount(target.getContentRepositoryMappedFileCount() + toMerge.getContentRepositoryMappedFileCount());
+        target.setContentRepositoryMappedReadHits(target.getContentRepositoryMappedReadHits() + toMerge.getContentRepositoryMappedReadHits());
+        target.setContentRepositoryMappedReadMisses(target.getContentRepositoryMappedReadMisses() + toMerge.getContentRepositoryMappedReadMisses());
 
         merge(target.getContentRepositoryStorageUsage(), toMerge.getContentRepositoryStorageUsage());
         merge(target.getProvenanceRepositoryStorageUsage(), toMerge.getProvenanceRepositoryStorageUsage());
@@ -633,6 +686,13 @@ public class StatusMerger {
         if (target.getMaxNonHeapBytes() != -1) {
             target.setNonHeapUtilization(FormatUtils.formatUtilization(getUtilization(target.getUsedNonHeapBytes(), target.getMaxNonHeapBytes())));
         }
+
+        // memory-mapped content
+        target.setContentRepositoryMapped(FormatUtils.formatDataSize(target.getContentRepositoryMappedBytes()));
+        final long mappedReads = target.getContentRepositoryMappedReadHits() + target.getContentRepositoryMappedReadMisses();
+        if (mappedReads > 0) {
+            target.setContentRepositoryMappedReadHitRatio(FormatUtils.formatUtilization(getUtilization(target.getContentRepositoryMappedReadHits(), mappedReads)));
+        }
     }
 
     public static void merge(final Set<StorageUsageDTO> targetSet, final Set<StorageUsageDTO> toMerge) {
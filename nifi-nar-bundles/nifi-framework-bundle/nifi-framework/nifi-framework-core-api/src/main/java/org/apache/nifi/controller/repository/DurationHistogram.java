@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A distribution of durations that were recorded for a component, such as the time that a Processor
+ * took to be triggered or the time that FlowFiles spent in a Connection's queue. Percentiles are
+ * approximate; each reported value is within a few percent of a duration that was actually recorded.
+ */
+public interface DurationHistogram {
+
+    /**
+     * @return the number of durations that were recorded
+     */
+    long getCount();
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @param timeUnit the unit of the returned duration
+     * @return the duration at or below which the given percentage of the recorded durations fall, or 0 if no durations were recorded
+     */
+    long getPercentile(double percentile, TimeUnit timeUnit);
+
+    /**
+     * @param timeUnit the unit of the returned duration
+     * @return the longest duration that was recorded, or 0 if no durations were recorded
+     */
+    long getMax(TimeUnit timeUnit);
+}
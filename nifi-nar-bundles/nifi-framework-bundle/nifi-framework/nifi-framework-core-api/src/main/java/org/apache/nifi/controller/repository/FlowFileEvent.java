@@ -54,6 +54,8 @@ public interface FlowFileEvent {
 
     int getInvocations();
 
+    int getProvenanceEventsDiscarded();
+
     Map<String, Long> getCounters();
 
 }
@@ -18,6 +18,8 @@ package org.apache.nifi.controller.repository;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 public interface FlowFileEventRepository extends Closeable {
 
@@ -29,12 +31,41 @@ public interface FlowFileEventRepository extends Closeable {
      */
     void updateRepository(FlowFileEvent event) throws IOException;
 
+    /**
+     * Records a single duration for the given component. For a Processor, this
+     * is the time taken by one invocation of onTrigger; for a Connection, the
+     * time that a FlowFile was queued before it was pulled from the queue.
+     * Recording a duration must not allocate memory, so that it is cheap
+     * enough to be done for every invocation and every FlowFile.
+     *
+     * @param componentId the id of the component
+     * @param duration the duration
+     * @param timeUnit the unit of the duration
+     */
+    void recordDuration(String componentId, long duration, TimeUnit timeUnit);
+
     /**
      * @param sinceEpochMillis age of report
-     * @return a report of processing activity since the given time
+     * @return a report of processing activity since the given time, including
+     *         the durations that were recorded for each component
      */
     RepositoryStatusReport reportTransferEvents(long sinceEpochMillis);
 
+    /**
+     * Unlike {@link #reportTransferEvents(long)}, the values in this report are
+     * not limited to a time window and are not affected by
+     * {@link #purgeTransferEvents(long)}, so that they only ever increase.
+     * Only the given components are included, so that the cost of the report
+     * depends on the number of components requested rather than on the size
+     * of the flow.
+     *
+     * @param componentIds the ids of the components to report on
+     * @return a report of all processing activity of the given components since
+     *         the repository was created; a component that has not processed
+     *         any data has no entry
+     */
+    RepositoryStatusReport reportAggregateEvents(Collection<String> componentIds);
+
     /**
      * Causes any flow file events of the given entry age in epoch milliseconds
      * or older to be purged from the repository
@@ -42,4 +73,14 @@ public interface FlowFileEventRepository extends Closeable {
      * @param cutoffEpochMilliseconds cutoff
      */
     void purgeTransferEvents(long cutoffEpochMilliseconds);
+
+    /**
+     * Removes all events, durations and aggregate values of the given
+     * component. This is called when the component is removed from the flow,
+     * so that the repository does not hold state for every component that
+     * ever existed.
+     *
+     * @param componentIdentifier the id of the component
+     */
+    void purgeTransferEvents(String componentIdentifier);
 }
@@ -25,4 +25,13 @@ public interface RepositoryStatusReport {
     Map<String, FlowFileEvent> getReportEntries();
 
     FlowFileEvent getReportEntry(String componentId);
+
+    void addDurationHistogram(String componentId, DurationHistogram histogram);
+
+    /**
+     * @param componentId the id of a component
+     * @return the durations that were recorded for the given component during the period
+     *         covered by this report, or <code>null</code> if none were recorded
+     */
+    DurationHistogram getDurationHistogram(String componentId);
 }
@@ -49,6 +49,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -84,7 +85,7 @@ public final class StandardConnection implements Connection {
         relationships = new AtomicReference<>(Collections.unmodifiableCollection(builder.relationships));
         scheduler = builder.scheduler;
         flowFileQueue = new StandardFlowFileQueue(id, this, builder.flowFileRepository, builder.provenanceRepository, builder.resourceClaimManager,
-                scheduler, builder.swapManager, builder.eventReporter, builder.queueSwapThreshold);
+                scheduler, builder.swapManager, builder.eventReporter, builder.queueSwapThreshold, builder.swapOutExecutor, builder.swapInExecutor);
         hashCode = new HashCodeBuilder(7, 67).append(id).toHashCode();
     }
 
@@ -383,6 +384,8 @@ public final class StandardConnection implements Connection {
         private ProvenanceEventRepository provenanceRepository;
         private ResourceClaimManager resourceClaimManager;
         private int queueSwapThreshold;
+        private Executor swapOutExecutor;
+        private Executor swapInExecutor;
 
         public Builder(final ProcessScheduler scheduler) {
             this.scheduler = scheduler;
@@ -459,6 +462,16 @@ public final class StandardConnection implements Connection {
             return this;
         }
 
+        public Builder swapOutExecutor(final Executor swapOutExecutor) {
+            this.swapOutExecutor = swapOutExecutor;
+            return this;
+        }
+
+        public Builder swapInExecutor(final Executor swapInExecutor) {
+            this.swapInExecutor = swapInExecutor;
+            return this;
+        }
+
         public StandardConnection build() {
             if (source == null) {
                 throw new IllegalStateException("Cannot build a Connection without a Source");
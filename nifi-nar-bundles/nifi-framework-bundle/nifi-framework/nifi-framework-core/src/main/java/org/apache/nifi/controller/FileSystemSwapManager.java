@@ -37,6 +37,8 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
@@ -75,6 +77,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     private static final Logger logger = LoggerFactory.getLogger(FileSystemSwapManager.class);
 
     private final File storageDirectory;
+    private final boolean compress;
 
     // effectively final
     private FlowFileRepository flowFileRepository;
@@ -83,11 +86,15 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     private static final byte[] MAGIC_HEADER = {'S', 'W', 'A', 'P'};
 
+    // Compressed swap files begin with this header, followed by a GZIP stream that contains exactly what an uncompressed swap file would contain.
+    private static final byte[] COMPRESSED_MAGIC_HEADER = {'S', 'W', 'P', 'Z'};
+
     /**
      * Default no args constructor for service loading only.
      */
     public FileSystemSwapManager() {
         storageDirectory = null;
+        compress = false;
     }
 
     public FileSystemSwapManager(final NiFiProperties nifiProperties) {
@@ -97,6 +104,8 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         if (!storageDirectory.exists() && !storageDirectory.mkdirs()) {
             throw new RuntimeException("Cannot create Swap Storage directory " + storageDirectory.getAbsolutePath());
         }
+
+        this.compress = nifiProperties.isSwapCompressionEnabled();
     }
 
     @Override
@@ -118,12 +127,17 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         final SwapSerializer serializer = new SchemaSwapSerializer();
         try (final FileOutputStream fos = new FileOutputStream(swapTempFile);
-            final OutputStream out = new BufferedOutputStream(fos)) {
+            final OutputStream contentOut = createSwapOutputStream(fos);
+            final OutputStream out = new BufferedOutputStream(contentOut)) {
             out.write(MAGIC_HEADER);
             final DataOutputStream dos = new DataOutputStream(out);
             dos.writeUTF(serializer.getSerializationName());
 
             serializer.serializeFlowFiles(toSwap, flowFileQueue, swapLocation, out);
+            out.flush();
+            if (contentOut instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) contentOut).finish();
+            }
             fos.getFD().sync();
         } catch (final IOException ioe) {
             // we failed to write out the entire swap file. Delete the temporary file, if we can.
@@ -160,9 +174,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             throw new FileNotFoundException("Failed to swap in FlowFiles from external storage location " + swapLocation + " into FlowFile Queue because the file could not be found");
         }
 
-        try (final InputStream fis = new FileInputStream(swapFile);
-                final InputStream bis = new BufferedInputStream(fis);
-                final DataInputStream in = new DataInputStream(bis)) {
+        try (final DataInputStream in = openSwapFile(swapFile)) {
 
             final SwapDeserializer deserializer = createSwapDeserializer(in);
             return deserializer.deserializeFlowFiles(in, swapLocation, flowFileQueue, claimManager);
@@ -225,9 +237,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             }
 
             // Read the queue identifier from the swap file to check if the swap file is for this queue
-            try (final InputStream fis = new FileInputStream(swapFile);
-                    final InputStream bufferedIn = new BufferedInputStream(fis);
-                    final DataInputStream in = new DataInputStream(bufferedIn)) {
+            try (final DataInputStream in = openSwapFile(swapFile)) {
 
                 final SwapDeserializer deserializer;
                 try {
@@ -258,9 +268,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File swapFile = new File(swapLocation);
 
         // read record from disk via the swap file
-        try (final InputStream fis = new FileInputStream(swapFile);
-                final InputStream bufferedIn = new BufferedInputStream(fis);
-                final DataInputStream in = new DataInputStream(bufferedIn)) {
+        try (final DataInputStream in = openSwapFile(swapFile)) {
 
             final SwapDeserializer deserializer = createSwapDeserializer(in);
             return deserializer.getSwapSummary(in, swapLocation, claimManager);
@@ -268,6 +276,44 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     }
 
 
+    /**
+     * Returns the stream that the contents of a swap file should be written to. If compression is enabled, the compressed
+     * header is written and the returned stream compresses its data; otherwise, the file stream is returned as-is and closing
+     * the returned stream closes the file stream.
+     */
+    private OutputStream createSwapOutputStream(final FileOutputStream fileOut) throws IOException {
+        if (!compress) {
+            return fileOut;
+        }
+
+        fileOut.write(COMPRESSED_MAGIC_HEADER);
+        return new GZIPOutputStream(fileOut, 65536);
+    }
+
+    /**
+     * Opens the given Swap File for reading, decompressing it if it was written with compression.
+     * The returned stream is positioned at the beginning of the (uncompressed) swap file contents.
+     */
+    private DataInputStream openSwapFile(final File swapFile) throws IOException {
+        final InputStream fis = new FileInputStream(swapFile);
+        try {
+            final InputStream bufferedIn = new BufferedInputStream(fis);
+            bufferedIn.mark(COMPRESSED_MAGIC_HEADER.length);
+
+            final byte[] header = new byte[COMPRESSED_MAGIC_HEADER.length];
+            final int headerLength = StreamUtils.fillBuffer(bufferedIn, header, false);
+            if (headerLength == header.length && Arrays.equals(header, COMPRESSED_MAGIC_HEADER)) {
+                return new DataInputStream(new BufferedInputStream(new GZIPInputStream(bufferedIn, 65536)));
+            }
+
+            bufferedIn.reset();
+            return new DataInputStream(bufferedIn);
+        } catch (final IOException ioe) {
+            fis.close();
+            throw ioe;
+        }
+    }
+
     private SwapDeserializer createSwapDeserializer(final DataInputStream dis) throws IOException {
         dis.mark(MAGIC_HEADER.length);
 
@@ -71,18 +71,26 @@ import org.apache.nifi.controller.label.StandardLabel;
 import org.apache.nifi.controller.leader.election.LeaderElectionManager;
 import org.apache.nifi.controller.leader.election.LeaderElectionStateChangeListener;
 import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.clustered.ConnectionLoadBalancer;
+import org.apache.nifi.controller.queue.clustered.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.partition.RemoteQueuePartition;
+import org.apache.nifi.controller.queue.clustered.server.ConnectionLoadBalanceServer;
+import org.apache.nifi.controller.queue.clustered.server.StandardLoadBalanceProtocol;
 import org.apache.nifi.controller.reporting.ReportingTaskInstantiationException;
 import org.apache.nifi.controller.reporting.ReportingTaskProvider;
 import org.apache.nifi.controller.reporting.StandardReportingInitializationContext;
 import org.apache.nifi.controller.reporting.StandardReportingTaskNode;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.CounterRepository;
+import org.apache.nifi.controller.repository.DurationHistogram;
 import org.apache.nifi.controller.repository.FlowFileEvent;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.ProvenanceSamplingPolicy;
 import org.apache.nifi.controller.repository.QueueProvider;
 import org.apache.nifi.controller.repository.RepositoryStatusReport;
 import org.apache.nifi.controller.repository.StandardCounterRepository;
@@ -100,6 +108,7 @@ import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.controller.scheduling.EventDrivenSchedulingAgent;
 import org.apache.nifi.controller.scheduling.ProcessContextFactory;
 import org.apache.nifi.controller.scheduling.QuartzSchedulingAgent;
+import org.apache.nifi.controller.scheduling.QueueAwareSchedulingAgent;
 import org.apache.nifi.controller.scheduling.StandardProcessScheduler;
 import org.apache.nifi.controller.scheduling.TimerDrivenSchedulingAgent;
 import org.apache.nifi.controller.serialization.FlowSerializationException;
@@ -115,9 +124,11 @@ import org.apache.nifi.controller.service.StandardControllerServiceProvider;
 import org.apache.nifi.controller.state.manager.StandardStateManagerProvider;
 import org.apache.nifi.controller.state.server.ZooKeeperStateServer;
 import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.ControllerStatusSnapshot;
 import org.apache.nifi.controller.status.PortStatus;
 import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.QueuePartitionStatus;
 import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
 import org.apache.nifi.controller.status.RunStatus;
 import org.apache.nifi.controller.status.TransmissionStatus;
@@ -246,6 +257,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -278,11 +290,17 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
     private final AtomicReference<FlowEngine> timerDrivenEngineRef;
     private final AtomicReference<FlowEngine> eventDrivenEngineRef;
     private final EventDrivenSchedulingAgent eventDrivenSchedulingAgent;
+    private final QueueAwareSchedulingAgent queueAwareSchedulingAgent; // null unless configured as the Timer-Driven scheduler
+    private final FlowEngine swapOutEngine; // null if swap files are to be written synchronously
+    private final FlowEngine swapInEngine; // null if swap files are not to be read ahead of time
+    private final FlowEngine loadBalanceEngine; // null if not configured for clustering
+    private final ConnectionLoadBalanceServer loadBalanceServer; // null if not configured for clustering
 
     private final ContentRepository contentRepository;
     private final FlowFileRepository flowFileRepository;
     private final FlowFileEventRepository flowFileEventRepository;
     private final ProvenanceRepository provenanceRepository;
+    private final ProvenanceSamplingPolicy provenanceSamplingPolicy;
     private final BulletinRepository bulletinRepository;
     private final StandardProcessScheduler processScheduler;
     private final SnippetManager snippetManager;
@@ -386,6 +404,11 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
     private final Lock readLock = rwLock.readLock();
     private final Lock writeLock = rwLock.writeLock();
 
+    // the most recently computed status of the flow, shared by all readers until it expires
+    static final long STATUS_SNAPSHOT_MAX_AGE_MILLIS = 1000L;
+    private final AtomicReference<ControllerStatusSnapshot> statusSnapshotRef = new AtomicReference<>();
+    private final Lock statusSnapshotLock = new ReentrantLock();
+
     private static final Logger LOG = LoggerFactory.getLogger(FlowController.class);
 
     public static FlowController createStandaloneInstance(
@@ -469,6 +492,11 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
         timerDrivenEngineRef = new AtomicReference<>(new FlowEngine(maxTimerDrivenThreads.get(), "Timer-Driven Process"));
         eventDrivenEngineRef = new AtomicReference<>(new FlowEngine(maxEventDrivenThreads.get(), "Event-Driven Process"));
 
+        final int swapOutThreads = nifiProperties.getSwapOutThreads();
+        swapOutEngine = swapOutThreads > 0 ? new FlowEngine(swapOutThreads, "Swap Out", true) : null;
+        final int swapInThreads = nifiProperties.getSwapInThreads();
+        swapInEngine = swapInThreads > 0 ? new FlowEngine(swapInThreads, "Swap In", true) : null;
+
         final FlowFileRepository flowFileRepo = createFlowFileRepository(nifiProperties, resourceClaimManager);
         flowFileRepository = flowFileRepo;
         flowFileEventRepository = flowFileEventRepo;
@@ -484,6 +512,11 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
             throw new RuntimeException("Unable to create Provenance Repository", e);
         }
 
+        this.provenanceSamplingPolicy = ProvenanceSamplingPolicy.fromProperties(nifiProperties);
+        if (!provenanceSamplingPolicy.isRetainAll()) {
+            LOG.info("Provenance Events will be sampled according to {}", provenanceSamplingPolicy);
+        }
+
         try {
             this.contentRepository = createContentRepository(nifiProperties);
         } catch (final Exception e) {
@@ -499,7 +532,8 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
         processScheduler = new StandardProcessScheduler(this, encryptor, stateManagerProvider, this.nifiProperties);
         eventDrivenWorkerQueue = new EventDrivenWorkerQueue(false, false, processScheduler);
 
-        final ProcessContextFactory contextFactory = new ProcessContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository);
+        final ProcessContextFactory contextFactory = new ProcessContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(),
+            provenanceRepository, provenanceSamplingPolicy);
 
         eventDrivenSchedulingAgent = new EventDrivenSchedulingAgent(
             eventDrivenEngineRef.get(), this, stateManagerProvider, eventDrivenWorkerQueue, contextFactory, maxEventDrivenThreads.get(), encryptor);
@@ -507,7 +541,18 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
         final QuartzSchedulingAgent quartzSchedulingAgent = new QuartzSchedulingAgent(this, timerDrivenEngineRef.get(), contextFactory, encryptor);
         final TimerDrivenSchedulingAgent timerDrivenAgent = new TimerDrivenSchedulingAgent(this, timerDrivenEngineRef.get(), contextFactory, encryptor, this.nifiProperties);
-        processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenAgent);
+        final String timerDrivenScheduler = nifiProperties.getTimerDrivenScheduler();
+        if (NiFiProperties.TIMER_DRIVEN_SCHEDULER_QUEUE_AWARE.equalsIgnoreCase(timerDrivenScheduler)) {
+            queueAwareSchedulingAgent = new QueueAwareSchedulingAgent(this, timerDrivenEngineRef.get(), contextFactory, encryptor, this.nifiProperties, maxTimerDrivenThreads.get());
+            processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, queueAwareSchedulingAgent);
+        } else {
+            if (!NiFiProperties.TIMER_DRIVEN_SCHEDULER_POLLING.equalsIgnoreCase(timerDrivenScheduler)) {
+                LOG.warn("Invalid value '{}' for property '{}'; will use '{}'", timerDrivenScheduler, NiFiProperties.TIMER_DRIVEN_SCHEDULER, NiFiProperties.TIMER_DRIVEN_SCHEDULER_POLLING);
+            }
+
+            queueAwareSchedulingAgent = null;
+            processScheduler.setSchedulingAgent(SchedulingStrategy.TIMER_DRIVEN, timerDrivenAgent);
+        }
         // PRIMARY_NODE_ONLY is deprecated, but still exists to handle processors that are still defined with it (they haven't been re-configured with executeNode = PRIMARY).
         processScheduler.setSchedulingAgent(SchedulingStrategy.PRIMARY_NODE_ONLY, timerDrivenAgent);
         processScheduler.setSchedulingAgent(SchedulingStrategy.CRON_DRIVEN, quartzSchedulingAgent);
@@ -636,8 +681,18 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
             leaderElectionManager.start();
             heartbeatMonitor.start();
+
+            final int loadBalanceThreads = nifiProperties.getClusterLoadBalanceMaxThreadCount();
+            final int loadBalanceTimeoutMillis = (int) FormatUtils.getTimeDuration(nifiProperties.getClusterLoadBalanceCommsTimeout(), TimeUnit.MILLISECONDS);
+            final StandardLoadBalanceProtocol loadBalanceProtocol = new StandardLoadBalanceProtocol(this::getConnection, flowFileRepository, contentRepository, provenanceRepository);
+            loadBalanceServer = new ConnectionLoadBalanceServer(nifiProperties.getProperty(NiFiProperties.LOAD_BALANCE_ADDRESS), nifiProperties.getClusterLoadBalancePort(),
+                sslContext, loadBalanceThreads, loadBalanceTimeoutMillis, loadBalanceProtocol);
+            // one additional thread for the task that hands batches of FlowFiles to the threads that send them
+            loadBalanceEngine = new FlowEngine(loadBalanceThreads + 1, "Load-Balanced Connection Client", true);
         } else {
             heartbeater = null;
+            loadBalanceServer = null;
+            loadBalanceEngine = null;
         }
     }
 
@@ -727,7 +782,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
             // Begin expiring FlowFiles that are old
             final ProcessContextFactory contextFactory = new ProcessContextFactory(contentRepository, flowFileRepository,
-                flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository);
+                flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository, provenanceSamplingPolicy);
             processScheduler.scheduleFrameworkTask(new ExpireFlowFiles(this, contextFactory), "Expire FlowFiles", 30L, 30L, TimeUnit.SECONDS);
 
             // now that we've loaded the FlowFiles, this has restored our ContentClaims' states, so we can tell the
@@ -738,6 +793,14 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
                 listener.start();
             }
 
+            if (loadBalanceServer != null) {
+                loadBalanceServer.start();
+
+                final int loadBalanceTimeoutMillis = (int) FormatUtils.getTimeDuration(nifiProperties.getClusterLoadBalanceCommsTimeout(), TimeUnit.MILLISECONDS);
+                final ConnectionLoadBalancer loadBalancer = new ConnectionLoadBalancer(this, clusterCoordinator, contentRepository, sslContext, loadBalanceTimeoutMillis, loadBalanceEngine);
+                loadBalanceEngine.scheduleWithFixedDelay(loadBalancer, 0L, 100L, TimeUnit.MILLISECONDS);
+            }
+
             notifyComponentsConfigurationRestored();
 
             timerDrivenEngineRef.get().scheduleWithFixedDelay(new Runnable() {
@@ -954,6 +1017,8 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
                 .destination(destination)
                 .swapManager(swapManager)
                 .queueSwapThreshold(nifiProperties.getQueueSwapThreshold())
+                .swapOutExecutor(swapOutEngine)
+                .swapInExecutor(swapInEngine)
                 .eventReporter(eventReporter)
                 .resourceClaimManager(resourceClaimManager)
                 .flowFileRepository(flowFileRepository)
@@ -1482,6 +1547,19 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
                 LOG.info("Interrupted while waiting for controller termination.");
             }
 
+            // Allow any swap files that are being written or read to complete before closing the FlowFile Repository
+            shutdownSwapEngine(swapOutEngine, kill);
+            shutdownSwapEngine(swapInEngine, kill);
+
+            // Stop exchanging load-balanced FlowFiles with other nodes. Any FlowFile that has not been confirmed as received by
+            // another node remains in the FlowFile Repository and is restored to this node's queue on restart.
+            if (loadBalanceServer != null) {
+                loadBalanceServer.stop();
+            }
+            if (loadBalanceEngine != null) {
+                loadBalanceEngine.shutdownNow();
+            }
+
             try {
                 flowFileRepository.close();
             } catch (final Throwable t) {
@@ -1507,6 +1585,8 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
                 contentRepository.shutdown();
             }
 
+            componentStatusRepository.shutdown();
+
             if (provenanceRepository != null) {
                 try {
                     provenanceRepository.close();
@@ -1522,6 +1602,27 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
         }
     }
 
+    private void shutdownSwapEngine(final FlowEngine swapEngine, final boolean kill) {
+        if (swapEngine == null) {
+            return;
+        }
+
+        if (kill) {
+            swapEngine.shutdownNow();
+            return;
+        }
+
+        swapEngine.shutdown();
+        try {
+            if (!swapEngine.awaitTermination(gracefulShutdownSeconds / 2, TimeUnit.SECONDS)) {
+                LOG.warn("Swap threads did not complete within {} seconds; FlowFiles that were being swapped will be restored from the FlowFile Repository on restart",
+                    gracefulShutdownSeconds / 2);
+            }
+        } catch (final InterruptedException ie) {
+            LOG.info("Interrupted while waiting for swap threads to complete.");
+        }
+    }
+
     /**
      * Serializes the current state of the controller to the given OutputStream
      *
@@ -1612,6 +1713,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
         writeLock.lock();
         try {
             setMaxThreadCount(maxThreadCount, this.timerDrivenEngineRef.get(), this.maxTimerDrivenThreads);
+            processScheduler.setMaxThreadCount(SchedulingStrategy.TIMER_DRIVEN, maxThreadCount);
         } finally {
             writeLock.unlock();
         }
@@ -2025,6 +2127,9 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
                 queue.setBackPressureDataSizeThreshold(connectionDTO.getBackPressureDataSizeThreshold());
                 queue.setBackPressureObjectThreshold(connectionDTO.getBackPressureObjectThreshold());
                 queue.setFlowFileExpiration(connectionDTO.getFlowFileExpiration());
+                if (connectionDTO.getLoadBalanceStrategy() != null) {
+                    queue.setLoadBalanceStrategy(LoadBalanceStrategy.valueOf(connectionDTO.getLoadBalanceStrategy()), connectionDTO.getLoadBalancePartitionAttribute());
+                }
 
                 final List<String> prioritizers = connectionDTO.getPrioritizers();
                 if (prioritizers != null) {
@@ -2406,6 +2511,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
     public void onProcessorRemoved(final ProcessorNode procNode) {
         allProcessors.remove(procNode.getIdentifier());
+        flowFileEventRepository.purgeTransferEvents(procNode.getIdentifier());
     }
 
     public ProcessorNode getProcessorNode(final String id) {
@@ -2418,6 +2524,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
     public void onConnectionRemoved(final Connection connection) {
         allConnections.remove(connection.getIdentifier());
+        flowFileEventRepository.purgeTransferEvents(connection.getIdentifier());
     }
 
     public Connection getConnection(final String id) {
@@ -2430,6 +2537,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
     public void onInputPortRemoved(final Port inputPort) {
         allInputPorts.remove(inputPort.getIdentifier());
+        flowFileEventRepository.purgeTransferEvents(inputPort.getIdentifier());
     }
 
     public Port getInputPort(final String id) {
@@ -2442,6 +2550,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
     public void onOutputPortRemoved(final Port outputPort) {
         allOutputPorts.remove(outputPort.getIdentifier());
+        flowFileEventRepository.purgeTransferEvents(outputPort.getIdentifier());
     }
 
     public Port getOutputPort(final String id) {
@@ -2454,6 +2563,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
     public void onFunnelRemoved(final Funnel funnel) {
         allFunnels.remove(funnel.getIdentifier());
+        flowFileEventRepository.purgeTransferEvents(funnel.getIdentifier());
     }
 
     public Funnel getFunnel(final String id) {
@@ -2472,26 +2582,137 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
 
     /**
      * Returns the status of all components in the specified group. This request
-     * is not in the context of a user so the results will be unfiltered.
+     * is not in the context of a user so the results will be unfiltered. The
+     * status is taken from the shared status snapshot and must not be modified.
      *
      * @param groupId group id
      * @return the component status
      */
     @Override
     public ProcessGroupStatus getGroupStatus(final String groupId) {
-        return getGroupStatus(groupId, getProcessorStats());
+        final ControllerStatusSnapshot snapshot = getStatusSnapshot();
+        final ProcessGroupStatus groupStatus = snapshot.getGroupStatus(groupId);
+        if (groupStatus != null) {
+            return groupStatus;
+        }
+
+        // the group may have been added after the snapshot was taken
+        return getGroupStatus(groupId, snapshot.getStatusReport());
     }
 
     /**
      * Returns the status for components in the specified group. This request is
      * made by the specified user so the results will be filtered accordingly.
+     * The status is a copy of the shared status snapshot in which the name of
+     * each component that the user is not permitted to read is redacted.
      *
      * @param groupId group id
      * @param user user making request
      * @return the component status
      */
     public ProcessGroupStatus getGroupStatus(final String groupId, final NiFiUser user) {
-        return getGroupStatus(groupId, getProcessorStats(), user);
+        final ProcessGroupStatus groupStatus = getGroupStatus(groupId);
+        if (groupStatus == null) {
+            return null;
+        }
+
+        final ProcessGroupStatus userGroupStatus = groupStatus.clone();
+        redactGroupStatus(userGroupStatus, authorizable -> authorizable.isAuthorized(authorizer, RequestAction.READ, user));
+        return userGroupStatus;
+    }
+
+    /**
+     * Replaces the names in the given status of every component that is not authorized by the given
+     * predicate, in the same way as {@link #getGroupStatus(ProcessGroup, RepositoryStatusReport, Predicate)}.
+     * A component that has been removed since the status was computed is treated as unauthorized.
+     *
+     * @param status the status to redact, which must not be shared
+     * @param isAuthorized is authorized check
+     */
+    private void redactGroupStatus(final ProcessGroupStatus status, final Predicate<Authorizable> isAuthorized) {
+        final ProcessGroup group = getGroup(status.getId());
+        if (group == null || !isAuthorized.evaluate(group)) {
+            status.setName(status.getId());
+        }
+
+        for (final ProcessorStatus procStatus : status.getProcessorStatus()) {
+            final ProcessorNode procNode = group == null ? null : group.getProcessor(procStatus.getId());
+            if (procNode == null || !isAuthorized.evaluate(procNode)) {
+                procStatus.setName(procStatus.getId());
+                procStatus.setType("Processor");
+            }
+        }
+
+        for (final ConnectionStatus connStatus : status.getConnectionStatus()) {
+            final Connection conn = group == null ? null : group.getConnection(connStatus.getId());
+            if (conn == null || !isAuthorized.evaluate(conn)) {
+                connStatus.setName(connStatus.getId());
+            }
+            if (conn == null || !isAuthorized.evaluate(conn.getSource())) {
+                connStatus.setSourceName(connStatus.getSourceId());
+            }
+            if (conn == null || !isAuthorized.evaluate(conn.getDestination())) {
+                connStatus.setDestinationName(connStatus.getDestinationId());
+            }
+        }
+
+        for (final RemoteProcessGroupStatus remoteStatus : status.getRemoteProcessGroupStatus()) {
+            final RemoteProcessGroup remoteGroup = group == null ? null : group.getRemoteProcessGroup(remoteStatus.getId());
+            if (remoteGroup == null || !isAuthorized.evaluate(remoteGroup)) {
+                remoteStatus.setName(remoteStatus.getId());
+                remoteStatus.setTargetUri(null);
+            }
+        }
+
+        for (final PortStatus portStatus : status.getInputPortStatus()) {
+            final Port port = group == null ? null : group.getInputPort(portStatus.getId());
+            if (port == null || !isAuthorized.evaluate(port)) {
+                portStatus.setName(portStatus.getId());
+            }
+        }
+
+        for (final PortStatus portStatus : status.getOutputPortStatus()) {
+            final Port port = group == null ? null : group.getOutputPort(portStatus.getId());
+            if (port == null || !isAuthorized.evaluate(port)) {
+                portStatus.setName(portStatus.getId());
+            }
+        }
+
+        for (final ProcessGroupStatus childStatus : status.getProcessGroupStatus()) {
+            redactGroupStatus(childStatus, isAuthorized);
+        }
+    }
+
+    /**
+     * Returns the shared status snapshot, computing a new one if the current snapshot
+     * has expired. Only a single thread computes the snapshot; any other threads that
+     * request the status meanwhile wait for and then share that result rather than each
+     * aggregating the FlowFile Event Repository and walking the entire flow.
+     *
+     * @return the current status snapshot
+     */
+    private ControllerStatusSnapshot getStatusSnapshot() {
+        final ControllerStatusSnapshot snapshot = statusSnapshotRef.get();
+        if (snapshot != null && !snapshot.isExpired(System.currentTimeMillis(), STATUS_SNAPSHOT_MAX_AGE_MILLIS)) {
+            return snapshot;
+        }
+
+        statusSnapshotLock.lock();
+        try {
+            final ControllerStatusSnapshot currentSnapshot = statusSnapshotRef.get();
+            final long now = System.currentTimeMillis();
+            if (currentSnapshot != null && !currentSnapshot.isExpired(now, STATUS_SNAPSHOT_MAX_AGE_MILLIS)) {
+                return currentSnapshot;
+            }
+
+            final RepositoryStatusReport statusReport = getProcessorStats();
+            final ProcessGroupStatus rootGroupStatus = getGroupStatus(getGroup(getRootGroupId()), statusReport, authorizable -> true);
+            final ControllerStatusSnapshot refreshedSnapshot = new ControllerStatusSnapshot(statusReport, rootGroupStatus, now);
+            statusSnapshotRef.set(refreshedSnapshot);
+            return refreshedSnapshot;
+        } finally {
+            statusSnapshotLock.unlock();
+        }
     }
 
     /**
@@ -2665,6 +2886,17 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
                 connStatus.setQueuedBytes(connectionQueuedBytes);
                 connStatus.setQueuedCount(connectionQueuedCount);
             }
+
+            if (conn.getFlowFileQueue() instanceof LoadBalancedFlowFileQueue) {
+                connStatus.setQueuePartitionStatus(createQueuePartitionStatus((LoadBalancedFlowFileQueue) conn.getFlowFileQueue()));
+            }
+
+            final DurationHistogram queuedDurations = statusReport.getDurationHistogram(conn.getIdentifier());
+            if (queuedDurations != null) {
+                connStatus.setQueuedDurationMillisP50(queuedDurations.getPercentile(50D, TimeUnit.MILLISECONDS));
+                connStatus.setQueuedDurationMillisP99(queuedDurations.getPercentile(99D, TimeUnit.MILLISECONDS));
+                connStatus.setQueuedDurationMillisMax(queuedDurations.getMax(TimeUnit.MILLISECONDS));
+            }
             connectionStatusCollection.add(connStatus);
             queuedCount += connectionQueuedCount;
             queuedContentSize += connectionQueuedBytes;
@@ -2956,6 +3188,7 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
             status.setFlowFilesSent(entry.getFlowFilesSent());
             status.setBytesSent(entry.getBytesSent());
             status.setFlowFilesRemoved(entry.getFlowFilesRemoved());
+            status.setProvenanceEventsDiscarded(entry.getProvenanceEventsDiscarded());
 
             if (isProcessorAuthorized) {
                 status.setCounters(entry.getCounters());
@@ -2976,6 +3209,13 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
             status.setRunStatus(RunStatus.Stopped);
         }
 
+        final DurationHistogram onTriggerDurations = report.getDurationHistogram(procNode.getIdentifier());
+        if (onTriggerDurations != null) {
+            status.setOnTriggerNanosP50(onTriggerDurations.getPercentile(50D, TimeUnit.NANOSECONDS));
+            status.setOnTriggerNanosP99(onTriggerDurations.getPercentile(99D, TimeUnit.NANOSECONDS));
+            status.setOnTriggerNanosMax(onTriggerDurations.getMax(TimeUnit.NANOSECONDS));
+        }
+
         status.setExecutionNode(procNode.getExecutionNode());
         status.setActiveThreadCount(processScheduler.getActiveThreadCount(procNode));
 
@@ -3584,7 +3824,8 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
     public int getActiveThreadCount() {
         final int timerDrivenCount = timerDrivenEngineRef.get().getActiveCount();
         final int eventDrivenCount = eventDrivenSchedulingAgent.getActiveThreadCount();
-        return timerDrivenCount + eventDrivenCount;
+        final int queueAwareCount = queueAwareSchedulingAgent == null ? 0 : queueAwareSchedulingAgent.getActiveThreadCount();
+        return timerDrivenCount + eventDrivenCount + queueAwareCount;
     }
 
     private RepositoryStatusReport getProcessorStats() {
@@ -3596,6 +3837,17 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
         return flowFileEventRepository.reportTransferEvents(since);
     }
 
+    /**
+     * Returns the processing activity of the given components since this instance was started. Unlike
+     * the component status, which covers the last five minutes, these values only ever increase.
+     *
+     * @param componentIds the ids of the components to report on
+     * @return the aggregate processing activity of each of the given components
+     */
+    public RepositoryStatusReport getAggregateProcessorStats(final Collection<String> componentIds) {
+        return flowFileEventRepository.reportAggregateEvents(componentIds);
+    }
+
     //
     // Clustering methods
     //
@@ -3695,6 +3947,31 @@ public class FlowController implements EventAccess, ControllerServiceProvider, R
         }
     }
 
+    private Collection<QueuePartitionStatus> createQueuePartitionStatus(final LoadBalancedFlowFileQueue queue) {
+        final List<RemoteQueuePartition> remotePartitions = queue.getRemotePartitions();
+        final NodeIdentifier localNodeId = nodeId;
+        if (remotePartitions.isEmpty() || localNodeId == null) {
+            return Collections.emptyList();
+        }
+
+        final Collection<QueuePartitionStatus> partitionStatus = new ArrayList<>(remotePartitions.size() + 1);
+        partitionStatus.add(createQueuePartitionStatus(localNodeId, queue.getLocalPartitionSize()));
+        for (final RemoteQueuePartition partition : remotePartitions) {
+            partitionStatus.add(createQueuePartitionStatus(partition.getNodeIdentifier(), partition.size()));
+        }
+
+        return partitionStatus;
+    }
+
+    private QueuePartitionStatus createQueuePartitionStatus(final NodeIdentifier nodeIdentifier, final QueueSize queueSize) {
+        final QueuePartitionStatus status = new QueuePartitionStatus();
+        status.setNodeId(nodeIdentifier.getId());
+        status.setNodeAddress(nodeIdentifier.getApiAddress() + ":" + nodeIdentifier.getApiPort());
+        status.setQueuedCount(queueSize.getObjectCount());
+        status.setQueuedBytes(queueSize.getByteCount());
+        return status;
+    }
+
     /**
      * The node identifier of this instance.
      *
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.controller;
 
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.connectable.Connectable;
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.queue.DropFlowFileState;
 import org.apache.nifi.controller.queue.DropFlowFileStatus;
@@ -24,7 +26,14 @@ import org.apache.nifi.controller.queue.FlowFileSummary;
 import org.apache.nifi.controller.queue.ListFlowFileRequest;
 import org.apache.nifi.controller.queue.ListFlowFileState;
 import org.apache.nifi.controller.queue.ListFlowFileStatus;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.clustered.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.partition.CorrelationAttributePartitioner;
+import org.apache.nifi.controller.queue.clustered.partition.FirstNodePartitioner;
+import org.apache.nifi.controller.queue.clustered.partition.FlowFilePartitioner;
+import org.apache.nifi.controller.queue.clustered.partition.RemoteQueuePartition;
+import org.apache.nifi.controller.queue.clustered.partition.RoundRobinPartitioner;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
@@ -62,24 +71,37 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A FlowFileQueue is used to queue FlowFile objects that are awaiting further
  * processing. Must be thread safe.
  *
+ * When the queue is load balanced and the node is part of a cluster, FlowFiles that belong
+ * to another node are held in a {@link RemoteQueuePartition} until they are sent to that node.
+ * Only the local partition is available to the destination of the connection.
  */
-public class StandardFlowFileQueue implements FlowFileQueue {
+public class StandardFlowFileQueue implements LoadBalancedFlowFileQueue {
 
     public static final int MAX_EXPIRED_RECORDS_PER_ITERATION = 100000;
     public static final int SWAP_RECORD_POLL_SIZE = 10000;
@@ -88,12 +110,23 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
     private PriorityQueue<FlowFileRecord> activeQueue = null;
 
+    // FlowFiles that were added to the queue without obtaining the write lock. This is done only when no prioritizers
+    // are configured, so that many concurrent producers do not contend for the write lock. These FlowFiles are already
+    // accounted for in the active queue size and MUST be drained into the active queue (with the write lock held)
+    // before the active queue is accessed.
+    private final Queue<FlowFileRecord> incomingQueue = new ConcurrentLinkedQueue<>();
+    private volatile boolean prioritized = false;
+
     // guarded by lock
     private ArrayList<FlowFileRecord> swapQueue = null;
 
     private final AtomicReference<FlowFileQueueSize> size = new AtomicReference<>(new FlowFileQueueSize(0, 0L, 0, 0L, 0, 0, 0L));
 
-    private boolean swapMode = false;
+    private volatile boolean swapMode = false;
+
+    // set when the destination checks whether it must wait for a penalty to expire, so that it is signaled when another
+    // FlowFile is queued, even though the queue is not transitioning from empty to non-empty.
+    private volatile boolean waitingOnPenalty = false;
 
     public static final int DEFAULT_BACKPRESSURE_COUNT = 10000;
     public static final String DEFAULT_BACKPRESSURE_SIZE = "1 GB";
@@ -108,6 +141,23 @@ public class StandardFlowFileQueue implements FlowFileQueue {
     private final int swapThreshold;
     private final FlowFileSwapManager swapManager;
     private final List<String> swapLocations = new ArrayList<>();
+
+    // Executors that are used to write Swap Files and to read the next Swap File ahead of time. If the Swap Out Executor is null,
+    // Swap Files are written while the write lock is held. If the Swap In Executor is null, Swap Files are not read ahead of time.
+    private final Executor swapOutExecutor;
+    private final Executor swapInExecutor;
+
+    // guarded by lock. Batches of FlowFiles that have been removed from the queue in order to be written to Swap Files in the background,
+    // in the order in which they were swapped out. These are always newer than the Swap Files in swapLocations and are accounted for in
+    // the swapped count of the queue size.
+    private final List<PendingSwapOut> pendingSwapOuts = new ArrayList<>();
+
+    // Swap Out tasks are run one at a time, in order, so that Swap Files are written in the same order in which they are swapped in.
+    private final Queue<FutureTask<String>> swapOutTasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean swapOutTaskRunning = new AtomicBoolean(false);
+
+    // guarded by lock. The Swap File at the head of swapLocations that is being read in the background, if any.
+    private PendingSwapIn pendingSwapIn = null;
     private final TimedLock readLock;
     private final TimedLock writeLock;
     private final String identifier;
@@ -121,8 +171,24 @@ public class StandardFlowFileQueue implements FlowFileQueue {
     // SCHEDULER CANNOT BE NOTIFIED OF EVENTS WITH THE WRITE LOCK HELD! DOING SO WILL RESULT IN A DEADLOCK!
     private final ProcessScheduler scheduler;
 
+    // The partition lock is held for reading while a FlowFile is placed into a remote partition and for writing while the
+    // set of partitions changes, so that no FlowFile can be placed into a partition that has already been discarded.
+    private final ReadWriteLock partitionLock = new ReentrantReadWriteLock();
+    private volatile LoadBalanceStrategy loadBalanceStrategy = LoadBalanceStrategy.DO_NOT_LOAD_BALANCE;
+    private volatile String partitioningAttribute = null;
+    private volatile FlowFilePartitioner partitioner = null; // null if not load balanced
+    private volatile QueuePartitions queuePartitions = QueuePartitions.LOCAL_ONLY;
+    private NodeIdentifier localNodeIdentifier = null; // guarded by partitionLock
+    private List<NodeIdentifier> nodeIdentifiers = Collections.emptyList(); // guarded by partitionLock
+
     public StandardFlowFileQueue(final String identifier, final Connection connection, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
         final ResourceClaimManager resourceClaimManager, final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter, final int swapThreshold) {
+        this(identifier, connection, flowFileRepo, provRepo, resourceClaimManager, scheduler, swapManager, eventReporter, swapThreshold, null, null);
+    }
+
+    public StandardFlowFileQueue(final String identifier, final Connection connection, final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo,
+        final ResourceClaimManager resourceClaimManager, final ProcessScheduler scheduler, final FlowFileSwapManager swapManager, final EventReporter eventReporter, final int swapThreshold,
+        final Executor swapOutExecutor, final Executor swapInExecutor) {
         activeQueue = new PriorityQueue<>(20, new Prioritizer(new ArrayList<FlowFilePrioritizer>()));
         priorities = new ArrayList<>();
         swapQueue = new ArrayList<>();
@@ -134,6 +200,8 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
         this.identifier = identifier;
         this.swapThreshold = swapThreshold;
+        this.swapOutExecutor = swapOutExecutor;
+        this.swapInExecutor = swapInExecutor;
         this.scheduler = scheduler;
         this.connection = connection;
 
@@ -155,11 +223,14 @@ public class StandardFlowFileQueue implements FlowFileQueue {
     public void setPriorities(final List<FlowFilePrioritizer> newPriorities) {
         writeLock.lock();
         try {
+            drainIncomingQueue();
+
             final PriorityQueue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new Prioritizer(newPriorities));
             newQueue.addAll(activeQueue);
             activeQueue = newQueue;
             priorities.clear();
             priorities.addAll(newPriorities);
+            prioritized = !newPriorities.isEmpty();
         } finally {
             writeLock.unlock("setPriorities");
         }
@@ -199,7 +270,12 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
     @Override
     public QueueSize size() {
-        return getQueueSize();
+        QueueSize queueSize = getQueueSize();
+        for (final RemoteQueuePartition partition : queuePartitions.getRemotePartitions()) {
+            queueSize = queueSize.add(partition.size());
+        }
+
+        return queueSize;
     }
 
 
@@ -209,7 +285,17 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
     @Override
     public boolean isEmpty() {
-        return size.get().isEmpty();
+        if (!size.get().isEmpty()) {
+            return false;
+        }
+
+        for (final RemoteQueuePartition partition : queuePartitions.getRemotePartitions()) {
+            if (!partition.isEmpty()) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     @Override
@@ -218,18 +304,47 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         return queueSize.activeQueueCount == 0 && queueSize.swappedCount == 0;
     }
 
+    @Override
+    public long getPenaltyExpiration() {
+        // Set before the queue is checked, so that a FlowFile queued concurrently is either seen here or signals the destination.
+        waitingOnPenalty = true;
+
+        final long penaltyExpiration;
+        readLock.lock();
+        try {
+            // FlowFiles that were added without the lock have not yet been ordered, so one of them may be available.
+            if (!incomingQueue.isEmpty() || activeQueue.isEmpty()) {
+                penaltyExpiration = 0L;
+            } else {
+                // Penalized FlowFiles are ordered after all others, by penalty expiration, so only the first FlowFile needs to be checked.
+                final FlowFileRecord first = activeQueue.peek();
+                penaltyExpiration = first.isPenalized() ? first.getPenaltyExpirationMillis() : 0L;
+            }
+        } finally {
+            readLock.unlock("getPenaltyExpiration");
+        }
+
+        if (penaltyExpiration == 0L) {
+            waitingOnPenalty = false;
+        }
+
+        return penaltyExpiration;
+    }
+
     public QueueSize getActiveQueueSize() {
         return size.get().activeQueueSize();
     }
 
     @Override
     public void acknowledge(final FlowFileRecord flowFile) {
-        incrementUnacknowledgedQueueSize(-1, -flowFile.getSize());
+        final FlowFileQueueSize originalSize = incrementUnacknowledgedQueueSize(-1, -flowFile.getSize());
 
         if (connection.getSource().getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
             // queue was full but no longer is. Notify that the source may now be available to run,
             // because of back pressure caused by this queue.
             scheduler.registerEvent(connection.getSource());
+        } else {
+            registerBackPressureReleasedEvent(originalSize);
         }
     }
 
@@ -240,17 +355,41 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             totalSize += flowFile.getSize();
         }
 
-        incrementUnacknowledgedQueueSize(-flowFiles.size(), -totalSize);
+        final FlowFileQueueSize originalSize = incrementUnacknowledgedQueueSize(-flowFiles.size(), -totalSize);
 
         if (connection.getSource().getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
             // it's possible that queue was full but no longer is. Notify that the source may now be available to run,
             // because of back pressure caused by this queue.
             scheduler.registerEvent(connection.getSource());
+        } else {
+            registerBackPressureReleasedEvent(originalSize);
+        }
+    }
+
+    private void registerBackPressureReleasedEvent(final FlowFileQueueSize originalSize) {
+        // If this queue was applying back pressure but no longer is, let the source's Scheduling Agent know, in case the
+        // source is idle waiting for room in this queue.
+        if (isFull(originalSize.toQueueSize()) && !isFull()) {
+            scheduler.registerEvent(connection.getSource());
         }
     }
 
     @Override
     public boolean isFull() {
+        return isFull(size());
+    }
+
+    @Override
+    public boolean isLocalPartitionFull() {
+        return isFull(getQueueSize());
+    }
+
+    @Override
+    public QueueSize getLocalPartitionSize() {
+        return getQueueSize();
+    }
+
+    private boolean isFull(final QueueSize queueSize) {
         final MaxQueueSize maxSize = maxQueueSize.get();
 
         // Check if max size is set
@@ -258,7 +397,6 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             return false;
         }
 
-        final QueueSize queueSize = getQueueSize();
         if (maxSize.getMaxCount() > 0 && queueSize.getObjectCount() >= maxSize.getMaxCount()) {
             return true;
         }
@@ -273,51 +411,159 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
     @Override
     public void put(final FlowFileRecord file) {
+        if (partitioner != null) {
+            partitionLock.readLock().lock();
+            try {
+                final RemoteQueuePartition remotePartition = queuePartitions.getRemotePartition(partitioner, file);
+                if (remotePartition != null) {
+                    remotePartition.put(file);
+                    return;
+                }
+            } finally {
+                partitionLock.readLock().unlock();
+            }
+        }
+
+        putLocal(file);
+    }
+
+    @Override
+    public void putAll(final Collection<FlowFileRecord> files) {
+        if (partitioner == null) {
+            putAllLocal(files);
+            return;
+        }
+
+        final List<FlowFileRecord> localFlowFiles = new ArrayList<>(files.size());
+        partitionLock.readLock().lock();
+        try {
+            final FlowFilePartitioner currentPartitioner = partitioner;
+            final QueuePartitions partitions = queuePartitions;
+            for (final FlowFileRecord file : files) {
+                final RemoteQueuePartition remotePartition = currentPartitioner == null ? null : partitions.getRemotePartition(currentPartitioner, file);
+                if (remotePartition == null) {
+                    localFlowFiles.add(file);
+                } else {
+                    remotePartition.put(file);
+                }
+            }
+        } finally {
+            partitionLock.readLock().unlock();
+        }
+
+        if (!localFlowFiles.isEmpty()) {
+            putAllLocal(localFlowFiles);
+        }
+    }
+
+    @Override
+    public void receiveFromPeer(final Collection<FlowFileRecord> flowFiles) {
+        putAllLocal(flowFiles);
+    }
+
+    private void putLocal(final FlowFileRecord file) {
+        if (isLockFreePutAllowed(1)) {
+            // increment the size before making the FlowFile available so that a consumer never decrements the size first
+            final FlowFileQueueSize originalSize = incrementActiveQueueSize(1, file.getSize());
+            incomingQueue.offer(file);
+            registerDestinationEvent(originalSize);
+            return;
+        }
+
+        final FlowFileQueueSize originalSize;
         writeLock.lock();
         try {
+            drainIncomingQueue();
+
             if (swapMode || activeQueue.size() >= swapThreshold) {
                 swapQueue.add(file);
-                incrementSwapQueueSize(1, file.getSize(), 0);
+                originalSize = incrementSwapQueueSize(1, file.getSize(), 0);
                 swapMode = true;
                 writeSwapFilesIfNecessary();
             } else {
-                incrementActiveQueueSize(1, file.getSize());
+                originalSize = incrementActiveQueueSize(1, file.getSize());
                 activeQueue.add(file);
             }
         } finally {
             writeLock.unlock("put(FlowFileRecord)");
         }
 
-        if (connection.getDestination().getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
-            scheduler.registerEvent(connection.getDestination());
-        }
+        registerDestinationEvent(originalSize);
     }
 
-    @Override
-    public void putAll(final Collection<FlowFileRecord> files) {
+    private void putAllLocal(final Collection<FlowFileRecord> files) {
         final int numFiles = files.size();
         long bytes = 0L;
         for (final FlowFile flowFile : files) {
             bytes += flowFile.getSize();
         }
 
+        if (isLockFreePutAllowed(numFiles)) {
+            final FlowFileQueueSize originalSize = incrementActiveQueueSize(numFiles, bytes);
+            incomingQueue.addAll(files);
+            registerDestinationEvent(originalSize);
+            return;
+        }
+
+        final FlowFileQueueSize originalSize;
         writeLock.lock();
         try {
+            drainIncomingQueue();
+
             if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
                 swapQueue.addAll(files);
-                incrementSwapQueueSize(numFiles, bytes, 0);
+                originalSize = incrementSwapQueueSize(numFiles, bytes, 0);
                 swapMode = true;
                 writeSwapFilesIfNecessary();
             } else {
-                incrementActiveQueueSize(numFiles, bytes);
+                originalSize = incrementActiveQueueSize(numFiles, bytes);
                 activeQueue.addAll(files);
             }
         } finally {
             writeLock.unlock("putAll");
         }
 
-        if (connection.getDestination().getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
-            scheduler.registerEvent(connection.getDestination());
+        registerDestinationEvent(originalSize);
+    }
+
+    private void registerDestinationEvent(final FlowFileQueueSize originalSize) {
+        final Connectable destination = connection.getDestination();
+        if (destination.getSchedulingStrategy() == SchedulingStrategy.EVENT_DRIVEN) {
+            scheduler.registerEvent(destination);
+        } else if (originalSize.activeQueueCount == 0 && originalSize.swappedCount == 0) {
+            // The queue has gone from empty to non-empty. Scheduling Agents that do not poll use this to wake the destination.
+            scheduler.registerEvent(destination);
+        } else if (waitingOnPenalty) {
+            // The destination is waiting for a penalty to expire, but the FlowFile just queued may be available now.
+            waitingOnPenalty = false;
+            scheduler.registerEvent(destination);
+        }
+    }
+
+    /**
+     * Determines whether or not the given number of FlowFiles can be added to the queue without obtaining the write lock.
+     * This is the case only if there are no prioritizers configured and the FlowFiles will fit on the active queue without
+     * needing to be swapped out. The check is made without holding the lock, so the active queue may exceed the swap threshold
+     * by a small amount if many threads are adding FlowFiles concurrently. That is acceptable, as the swap threshold is
+     * a soft limit, and the next FlowFile that is added while holding the lock will cause the queue to swap.
+     *
+     * @param numFiles the number of FlowFiles to add
+     * @return <code>true</code> if the FlowFiles can be added to the incoming queue, <code>false</code> if the write lock must be obtained
+     */
+    private boolean isLockFreePutAllowed(final int numFiles) {
+        return !prioritized && !swapMode && size.get().activeQueueCount + numFiles < swapThreshold;
+    }
+
+    /**
+     * Moves any FlowFiles that were added without obtaining the lock onto the active queue. The size of the
+     * queue is not updated, since it was already updated when the FlowFiles were added.
+     *
+     * This method MUST be called with the write lock held.
+     */
+    private void drainIncomingQueue() {
+        FlowFileRecord flowFile;
+        while ((flowFile = incomingQueue.poll()) != null) {
+            activeQueue.add(flowFile);
         }
     }
 
@@ -365,6 +611,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         FlowFileRecord flowFile;
         boolean isExpired;
 
+        drainIncomingQueue();
         migrateSwapToActive();
 
         long expiredBytes = 0L;
@@ -414,6 +661,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
     }
 
     private void doPoll(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords) {
+        drainIncomingQueue();
         migrateSwapToActive();
 
         final long bytesDrained = drainQueue(activeQueue, records, maxResults, expiredRecords);
@@ -448,11 +696,35 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         // Swap Queue to the Active Queue. However, we don't do this if there are FlowFiles already swapped out
         // to disk, because we want them to be swapped back in in the same order that they were swapped out.
 
+        completePendingSwapOuts();
+        readAheadSwapFile();
+
         final int activeQueueSize = activeQueue.size();
         if (activeQueueSize > 0 && activeQueueSize > swapThreshold - SWAP_RECORD_POLL_SIZE) {
             return;
         }
 
+        // If the oldest swapped-out FlowFiles have not yet been written to a Swap File, there is no need to wait for that to happen.
+        // If the Swap File has not yet been started, we can take the FlowFiles back directly. Otherwise, if there is nothing else for
+        // the queue to provide, we wait for the Swap File to be written so that it can be swapped back in below.
+        if (swapLocations.isEmpty() && !pendingSwapOuts.isEmpty()) {
+            final PendingSwapOut pendingSwapOut = pendingSwapOuts.get(0);
+            if (pendingSwapOut.getTask().cancel(false)) {
+                pendingSwapOuts.remove(0);
+
+                final List<FlowFileRecord> flowFiles = pendingSwapOut.getFlowFiles();
+                incrementSwapQueueSize(-flowFiles.size(), -pendingSwapOut.getBytes(), -1);
+                incrementActiveQueueSize(flowFiles.size(), pendingSwapOut.getBytes());
+                activeQueue.addAll(flowFiles);
+                return;
+            }
+
+            if (activeQueueSize == 0) {
+                awaitSwapOut(pendingSwapOut);
+                completePendingSwapOuts();
+            }
+        }
+
         // If there are swap files waiting to be swapped in, swap those in first. We do this in order to ensure that those that
         // were swapped out first are then swapped back in first. If we instead just immediately migrated the FlowFiles from the
         // swap queue to the active queue, and we never run out of FlowFiles in the active queue (because destination cannot
@@ -463,7 +735,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             boolean partialContents = false;
             SwapContents swapContents = null;
             try {
-                swapContents = swapManager.swapIn(swapLocation, this);
+                swapContents = swapIn(swapLocation);
                 swapLocations.remove(0);
             } catch (final IncompleteSwapFileException isfe) {
                 logger.error("Failed to swap in all FlowFiles from Swap File {}; Swap File ended prematurely. The records that were present will still be swapped in", swapLocation);
@@ -519,6 +791,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             }
 
             activeQueue.addAll(swapContents.getFlowFiles());
+            readAheadSwapFile();
             return;
         }
 
@@ -573,6 +846,15 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             originalSwapQueueBytes += flowFile.getSize();
         }
 
+        // FlowFiles may be added to the incoming queue concurrently, and those are already accounted for in the size
+        // of the active queue. As a result, we must update the active queue size based on how much it changed here,
+        // rather than setting it to the number of FlowFiles that we place back on the active queue.
+        final int originalActiveQueueCount = activeQueue.size();
+        long originalActiveQueueBytes = 0L;
+        for (final FlowFileRecord flowFile : activeQueue) {
+            originalActiveQueueBytes += flowFile.getSize();
+        }
+
         // Create a new Priority queue with the prioritizers that are set, but reverse the
         // prioritizers because we want to pull the lowest-priority FlowFiles to swap out
         final PriorityQueue<FlowFileRecord> tempQueue = new PriorityQueue<>(activeQueue.size() + swapQueue.size(), Collections.reverseOrder(new Prioritizer(priorities)));
@@ -581,21 +863,30 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
         long bytesSwappedOut = 0L;
         int flowFilesSwappedOut = 0;
+        int swapFilesCreated = 0;
         final List<String> swapLocations = new ArrayList<>(numSwapFiles);
         for (int i = 0; i < numSwapFiles; i++) {
             // Create a new swap file for the next SWAP_RECORD_POLL_SIZE records
             final List<FlowFileRecord> toSwap = new ArrayList<>(SWAP_RECORD_POLL_SIZE);
+            long bytesToSwap = 0L;
             for (int j = 0; j < SWAP_RECORD_POLL_SIZE; j++) {
                 final FlowFileRecord flowFile = tempQueue.poll();
                 toSwap.add(flowFile);
-                bytesSwappedOut += flowFile.getSize();
-                flowFilesSwappedOut++;
+                bytesToSwap += flowFile.getSize();
             }
 
             try {
                 Collections.reverse(toSwap); // currently ordered in reverse priority order based on the ordering of the temp queue.
-                final String swapLocation = swapManager.swapOut(toSwap, this);
-                swapLocations.add(swapLocation);
+                if (swapOutExecutor == null) {
+                    final String swapLocation = swapManager.swapOut(toSwap, this);
+                    swapLocations.add(swapLocation);
+                } else {
+                    scheduleSwapOut(toSwap, bytesToSwap);
+                }
+
+                bytesSwappedOut += bytesToSwap;
+                flowFilesSwappedOut += toSwap.size();
+                swapFilesCreated++;
             } catch (final IOException ioe) {
                 tempQueue.addAll(toSwap); // if we failed, we must add the FlowFiles back to the queue.
                 logger.error("FlowFile Queue with identifier {} has {} FlowFiles queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
@@ -639,10 +930,12 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             final int addedSwapRecords = swapQueue.size() - originalSwapQueueCount;
             final long addedSwapBytes = updatedSwapQueueBytes - originalSwapQueueBytes;
 
-            final FlowFileQueueSize newSize = new FlowFileQueueSize(activeQueue.size(), activeQueueBytes,
+            final FlowFileQueueSize newSize = new FlowFileQueueSize(
+                originalSize.activeQueueCount + activeQueue.size() - originalActiveQueueCount,
+                originalSize.activeQueueBytes + activeQueueBytes - originalActiveQueueBytes,
                 originalSize.swappedCount + addedSwapRecords + flowFilesSwappedOut,
                 originalSize.swappedBytes + addedSwapBytes + bytesSwappedOut,
-                originalSize.swapFiles + numSwapFiles,
+                originalSize.swapFiles + swapFilesCreated,
                 originalSize.unacknowledgedCount, originalSize.unacknowledgedBytes);
             updated = size.compareAndSet(originalSize, newSize);
         }
@@ -650,6 +943,183 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         this.swapLocations.addAll(swapLocations);
     }
 
+    /**
+     * Removes the given FlowFiles from the queue's in-memory structures by handing them to the Swap Out Executor, which will write them
+     * to a Swap File in the background. The FlowFiles remain accounted for in the swapped count of the queue.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private void scheduleSwapOut(final List<FlowFileRecord> toSwap, final long bytes) throws IOException {
+        final FutureTask<String> task = new FutureTask<>(() -> swapManager.swapOut(toSwap, this));
+        pendingSwapOuts.add(new PendingSwapOut(toSwap, bytes, task));
+        swapOutTasks.offer(task);
+
+        if (swapOutTaskRunning.compareAndSet(false, true)) {
+            try {
+                swapOutExecutor.execute(this::runSwapOutTasks);
+            } catch (final RejectedExecutionException ree) {
+                // Executor has been shut down. Write the Swap File in this thread instead.
+                logger.debug("Swap Out Executor rejected task for {}; will write Swap File synchronously", this);
+                runSwapOutTasks();
+            }
+        }
+    }
+
+    /**
+     * Runs any queued Swap Out tasks, one at a time, until there are none left.
+     */
+    private void runSwapOutTasks() {
+        while (true) {
+            final FutureTask<String> task = swapOutTasks.poll();
+            if (task != null) {
+                task.run();
+                continue;
+            }
+
+            swapOutTaskRunning.set(false);
+
+            // Another task may have been queued after we polled but before we released the flag.
+            if (swapOutTasks.isEmpty() || !swapOutTaskRunning.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the locations of any Swap Files that have finished being written in the background into swapLocations,
+     * in the order in which they were swapped out. If a Swap File could not be written, its FlowFiles are placed back
+     * onto the swap queue.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private void completePendingSwapOuts() {
+        while (!pendingSwapOuts.isEmpty()) {
+            final PendingSwapOut pendingSwapOut = pendingSwapOuts.get(0);
+            final FutureTask<String> task = pendingSwapOut.getTask();
+            if (!task.isDone()) {
+                return;
+            }
+
+            pendingSwapOuts.remove(0);
+
+            try {
+                swapLocations.add(task.get());
+            } catch (final InterruptedException ie) {
+                // Cannot happen, since the task is done.
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException ee) {
+                final Throwable cause = ee.getCause();
+                logger.error("FlowFile Queue with identifier {} has {} FlowFiles queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
+                    + "the Java heap space but failed to write information to disk due to {}", getIdentifier(), getQueueSize().getObjectCount(), cause.toString());
+                logger.error("", cause);
+                if (eventReporter != null) {
+                    eventReporter.reportEvent(Severity.ERROR, "Failed to Overflow to Disk", "Flowfile Queue with identifier " + getIdentifier() + " has " + getQueueSize().getObjectCount() +
+                        " queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting the Java heap space but failed to write information to disk. "
+                        + "See logs for more information.");
+                }
+
+                // These FlowFiles are older than any on the swap queue, so add them to the front of it. They are already accounted for in the swapped count.
+                swapQueue.addAll(0, pendingSwapOut.getFlowFiles());
+                incrementSwapQueueSize(0, 0L, -1);
+                swapMode = true;
+            }
+        }
+    }
+
+    /**
+     * Waits for the given Swap File to be written. This MUST NOT be called with the write lock held unless the Swap Out task
+     * has already been started, since the task may otherwise be queued behind this thread.
+     */
+    private void awaitSwapOut(final PendingSwapOut pendingSwapOut) {
+        try {
+            pendingSwapOut.getTask().get();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException ee) {
+            // failure will be handled by completePendingSwapOuts()
+        }
+    }
+
+    /**
+     * Ensures that there are no Swap Files being written in the background. Any that have not yet been started are canceled and
+     * their FlowFiles are placed back onto the swap queue; any others are waited upon.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private void awaitPendingSwapOuts() {
+        final List<FlowFileRecord> reclaimed = new ArrayList<>();
+        final Iterator<PendingSwapOut> itr = pendingSwapOuts.iterator();
+        while (itr.hasNext()) {
+            final PendingSwapOut pendingSwapOut = itr.next();
+            if (pendingSwapOut.getTask().cancel(false)) {
+                itr.remove();
+                reclaimed.addAll(pendingSwapOut.getFlowFiles());
+                incrementSwapQueueSize(0, 0L, -1);
+            } else {
+                awaitSwapOut(pendingSwapOut);
+            }
+        }
+
+        completePendingSwapOuts();
+        swapQueue.addAll(0, reclaimed);
+    }
+
+    /**
+     * If there is a Swap File waiting to be swapped in and it is not already being read, begins swapping it in
+     * using the Swap In Executor so that its FlowFiles are available as soon as the active queue needs them.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private void readAheadSwapFile() {
+        if (swapInExecutor == null || pendingSwapIn != null || swapLocations.isEmpty()) {
+            return;
+        }
+
+        final String swapLocation = swapLocations.get(0);
+        final FutureTask<SwapContents> task = new FutureTask<>(() -> swapManager.swapIn(swapLocation, this));
+        try {
+            swapInExecutor.execute(task);
+            pendingSwapIn = new PendingSwapIn(swapLocation, task);
+        } catch (final RejectedExecutionException ree) {
+            logger.debug("Swap In Executor rejected task for {}; Swap File {} will be swapped in synchronously", this, swapLocation);
+        }
+    }
+
+    /**
+     * Swaps in the FlowFiles from the given Swap File, using the results of reading ahead if the Swap File has already been read.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private SwapContents swapIn(final String swapLocation) throws IOException {
+        final PendingSwapIn readAhead = pendingSwapIn;
+        if (readAhead == null || !readAhead.getSwapLocation().equals(swapLocation)) {
+            return swapManager.swapIn(swapLocation, this);
+        }
+
+        pendingSwapIn = null;
+        try {
+            return readAhead.getTask().get();
+        } catch (final InterruptedException ie) {
+            // The task is still running and will take ownership of the Swap File, so we must not forget about it.
+            pendingSwapIn = readAhead;
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for FlowFiles to be swapped in from " + swapLocation, ie);
+        } catch (final ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new IOException("Failed to swap in FlowFiles from " + swapLocation, cause);
+        }
+    }
+
 
     @Override
     public long drainQueue(final Queue<FlowFileRecord> sourceQueue, final List<FlowFileRecord> destination, int maxResults, final Set<FlowFileRecord> expiredRecords) {
@@ -682,6 +1152,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
 
         writeLock.lock();
         try {
+            drainIncomingQueue();
             migrateSwapToActive();
 
             final long expirationMillis = expirationPeriod.get().getMillis();
@@ -823,6 +1294,245 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         expirationPeriod.set(new TimePeriod(flowExpirationPeriod, millis));
     }
 
+    @Override
+    public void setLoadBalanceStrategy(final LoadBalanceStrategy strategy, final String partitioningAttribute) {
+        final LoadBalanceStrategy updatedStrategy = strategy == null ? LoadBalanceStrategy.DO_NOT_LOAD_BALANCE : strategy;
+        if (updatedStrategy == LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE && (partitioningAttribute == null || partitioningAttribute.trim().isEmpty())) {
+            throw new IllegalArgumentException("Cannot partition FlowFiles by attribute without the name of the attribute to partition by");
+        }
+
+        final List<FlowFileRecord> toRedistribute;
+        partitionLock.writeLock().lock();
+        try {
+            final String updatedAttribute = updatedStrategy == LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE ? partitioningAttribute : null;
+            if (updatedStrategy == this.loadBalanceStrategy && Objects.equals(updatedAttribute, this.partitioningAttribute)) {
+                return;
+            }
+
+            this.loadBalanceStrategy = updatedStrategy;
+            this.partitioningAttribute = updatedAttribute;
+            this.partitioner = createPartitioner(updatedStrategy, updatedAttribute);
+
+            // The partitioner determines which node each FlowFile belongs to, so any FlowFile that has not yet been sent must be placed again.
+            toRedistribute = updatePartitions(true);
+        } finally {
+            partitionLock.writeLock().unlock();
+        }
+
+        if (!toRedistribute.isEmpty()) {
+            putAll(toRedistribute);
+        }
+    }
+
+    @Override
+    public LoadBalanceStrategy getLoadBalanceStrategy() {
+        return loadBalanceStrategy;
+    }
+
+    @Override
+    public String getPartitioningAttribute() {
+        return partitioningAttribute;
+    }
+
+    @Override
+    public void setNodeIdentifiers(final NodeIdentifier localNodeIdentifier, final Collection<NodeIdentifier> nodeIdentifiers) {
+        final List<NodeIdentifier> sortedNodeIds = new ArrayList<>(nodeIdentifiers.size() + 1);
+        for (final NodeIdentifier nodeId : nodeIdentifiers) {
+            // Nodes that do not listen for load-balanced FlowFiles cannot be given a share of the data
+            if (nodeId.equals(localNodeIdentifier) || nodeId.getLoadBalancePort() != null) {
+                sortedNodeIds.add(nodeId);
+            }
+        }
+        if (localNodeIdentifier != null && !sortedNodeIds.contains(localNodeIdentifier)) {
+            sortedNodeIds.add(localNodeIdentifier);
+        }
+
+        // Every node must agree on the order of the partitions in order to agree on where a FlowFile belongs
+        sortedNodeIds.sort(Comparator.comparing(NodeIdentifier::getId));
+
+        final List<FlowFileRecord> toRedistribute;
+        partitionLock.writeLock().lock();
+        try {
+            this.localNodeIdentifier = localNodeIdentifier;
+            this.nodeIdentifiers = sortedNodeIds;
+            toRedistribute = updatePartitions(false);
+        } finally {
+            partitionLock.writeLock().unlock();
+        }
+
+        if (!toRedistribute.isEmpty()) {
+            putAll(toRedistribute);
+        }
+    }
+
+    /**
+     * Rebuilds the set of partitions from the current partitioner and node identifiers. Partitions for nodes that remain in the
+     * cluster are retained, along with the FlowFiles that they hold, unless <code>drainAll</code> is <code>true</code>.
+     *
+     * This method MUST be called with the partition write lock held.
+     *
+     * @param drainAll whether or not to remove the queued FlowFiles from all remote partitions, rather than only from the partitions that are discarded
+     * @return the FlowFiles that were removed from remote partitions and that must be placed into the queue again
+     */
+    private List<FlowFileRecord> updatePartitions(final boolean drainAll) {
+        final QueuePartitions existing = queuePartitions;
+
+        final QueuePartitions updated;
+        if (partitioner == null || localNodeIdentifier == null || nodeIdentifiers.size() < 2) {
+            updated = QueuePartitions.LOCAL_ONLY;
+        } else {
+            final Map<String, RemoteQueuePartition> existingPartitions = new HashMap<>();
+            for (final RemoteQueuePartition partition : existing.getRemotePartitions()) {
+                existingPartitions.put(partition.getNodeIdentifier().getId(), partition);
+            }
+
+            final RemoteQueuePartition[] partitions = new RemoteQueuePartition[nodeIdentifiers.size()];
+            int localIndex = -1;
+            for (int i = 0; i < partitions.length; i++) {
+                final NodeIdentifier nodeId = nodeIdentifiers.get(i);
+                if (nodeId.equals(localNodeIdentifier)) {
+                    localIndex = i;
+                    continue;
+                }
+
+                final RemoteQueuePartition existingPartition = existingPartitions.get(nodeId.getId());
+                final boolean sameAddress = existingPartition != null
+                    && Objects.equals(existingPartition.getNodeIdentifier().getLoadBalanceAddress(), nodeId.getLoadBalanceAddress())
+                    && Objects.equals(existingPartition.getNodeIdentifier().getLoadBalancePort(), nodeId.getLoadBalancePort());
+                partitions[i] = sameAddress ? existingPartition : new RemoteQueuePartition(nodeId, this, swapManager, swapThreshold);
+            }
+
+            updated = new QueuePartitions(partitions, localIndex);
+        }
+
+        final List<FlowFileRecord> toRedistribute = new ArrayList<>();
+        for (final RemoteQueuePartition partition : existing.getRemotePartitions()) {
+            if (drainAll || !updated.contains(partition)) {
+                toRedistribute.addAll(partition.drainQueued());
+            }
+        }
+
+        queuePartitions = updated;
+        if (!existing.getRemotePartitions().isEmpty() || !updated.getRemotePartitions().isEmpty()) {
+            logger.info("{} is now distributing FlowFiles using strategy {} across {} partitions; {} FlowFiles will be redistributed",
+                this, loadBalanceStrategy, Math.max(1, updated.getPartitionCount()), toRedistribute.size());
+        }
+
+        return toRedistribute;
+    }
+
+    private static FlowFilePartitioner createPartitioner(final LoadBalanceStrategy strategy, final String partitioningAttribute) {
+        switch (strategy) {
+            case ROUND_ROBIN:
+                return new RoundRobinPartitioner();
+            case PARTITION_BY_ATTRIBUTE:
+                return new CorrelationAttributePartitioner(partitioningAttribute);
+            case SINGLE_NODE:
+                return new FirstNodePartitioner();
+            case DO_NOT_LOAD_BALANCE:
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public List<RemoteQueuePartition> getRemotePartitions() {
+        return queuePartitions.getRemotePartitions();
+    }
+
+    @Override
+    public List<FlowFileRecord> startTransfer(final RemoteQueuePartition partition, final int maxFlowFiles, final long maxBytes) {
+        final boolean wasFull = isFull();
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final List<FlowFileRecord> batch = partition.startTransfer(maxFlowFiles, maxBytes, expirationPeriod.get().getMillis(), expiredRecords);
+        if (expiredRecords.isEmpty()) {
+            return batch;
+        }
+
+        final List<FlowFileRecord> expired = new ArrayList<>(expiredRecords);
+        final List<ProvenanceEventRecord> provenanceEvents = new ArrayList<>(expired.size());
+        for (final FlowFileRecord flowFile : expired) {
+            provenanceEvents.add(createExpireEvent(flowFile));
+        }
+
+        try {
+            removeFlowFiles(expired, provenanceEvents);
+            logger.info("{} {} FlowFiles waiting to be sent to {} have expired and were removed", this, expired.size(), partition.getNodeIdentifier());
+        } catch (final IOException ioe) {
+            // The FlowFiles are no longer held by the queue. If they cannot be removed from the FlowFile Repository, they will be restored on restart.
+            logger.error("{} {} FlowFiles waiting to be sent to {} have expired but could not be removed from the FlowFile Repository",
+                this, expired.size(), partition.getNodeIdentifier(), ioe);
+        }
+
+        if (wasFull && !isFull()) {
+            scheduler.registerEvent(connection.getSource());
+        }
+
+        return batch;
+    }
+
+    @Override
+    public void onTransferComplete(final RemoteQueuePartition partition, final List<FlowFileRecord> flowFiles, final String transitUri) {
+        final boolean wasFull = isFull();
+
+        final List<ProvenanceEventRecord> provenanceEvents = new ArrayList<>(flowFiles.size());
+        for (final FlowFileRecord flowFile : flowFiles) {
+            provenanceEvents.add(createSendEvent(flowFile, transitUri));
+        }
+
+        try {
+            removeFlowFiles(flowFiles, provenanceEvents);
+        } catch (final IOException ioe) {
+            // The FlowFiles now belong to the other node. If they cannot be removed from the FlowFile Repository, they will be
+            // restored on restart and sent again, so they are delivered at least once.
+            logger.error("Sent {} FlowFiles from {} to {} but failed to remove them from the FlowFile Repository; they will be restored and sent again on restart",
+                flowFiles.size(), this, partition.getNodeIdentifier(), ioe);
+        }
+
+        partition.onTransferComplete(flowFiles);
+
+        if (wasFull && !isFull()) {
+            scheduler.registerEvent(connection.getSource());
+        }
+    }
+
+    @Override
+    public void onTransferFailed(final RemoteQueuePartition partition, final List<FlowFileRecord> flowFiles, final long penaltyMillis) {
+        partitionLock.readLock().lock();
+        try {
+            if (queuePartitions.contains(partition)) {
+                partition.onTransferFailed(flowFiles, penaltyMillis);
+                return;
+            }
+        } finally {
+            partitionLock.readLock().unlock();
+        }
+
+        // The node is no longer part of the cluster, so its FlowFiles must be redistributed
+        putAll(flowFiles);
+    }
+
+    private ProvenanceEventRecord createSendEvent(final FlowFileRecord flowFile, final String transitUri) {
+        final ProvenanceEventBuilder builder = provRepository.eventBuilder();
+        builder.fromFlowFile(flowFile);
+        builder.setEventType(ProvenanceEventType.SEND);
+        builder.setLineageStartDate(flowFile.getLineageStartDate());
+        builder.setComponentId(getIdentifier());
+        builder.setComponentType("Connection");
+        builder.setAttributes(flowFile.getAttributes(), Collections.<String, String> emptyMap());
+        builder.setTransitUri(transitUri);
+        builder.setDetails("Sent to another node in the cluster for a load-balanced Connection");
+        builder.setSourceQueueIdentifier(getIdentifier());
+
+        final ContentClaim contentClaim = flowFile.getContentClaim();
+        if (contentClaim != null) {
+            final ResourceClaim resourceClaim = contentClaim.getResourceClaim();
+            builder.setPreviousContentClaim(resourceClaim.getContainer(), resourceClaim.getSection(), resourceClaim.getId(), contentClaim.getOffset(), flowFile.getSize());
+        }
+
+        return builder.build();
+    }
+
 
     @Override
     public void purgeSwapFiles() {
@@ -940,6 +1650,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
                 try {
                     logger.debug("{} Acquired lock to perform listing of FlowFiles", StandardFlowFileQueue.this);
                     allFlowFiles = new ArrayList<>(activeQueue);
+                    allFlowFiles.addAll(incomingQueue);
                     prioritizer = new Prioritizer(StandardFlowFileQueue.this.priorities);
                 } finally {
                     readLock.unlock("List FlowFiles");
@@ -1051,6 +1762,12 @@ public class StandardFlowFileQueue implements FlowFileQueue {
                     return flowFile;
                 }
             }
+
+            for (final FlowFileRecord flowFile : incomingQueue) {
+                if (flowFileUuid.equals(flowFile.getAttribute(CoreAttributes.UUID.key()))) {
+                    return flowFile;
+                }
+            }
         } finally {
             readLock.unlock("getFlowFile");
         }
@@ -1085,7 +1802,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         }
 
         final DropFlowFileRequest dropRequest = new DropFlowFileRequest(requestIdentifier);
-        final QueueSize originalSize = getQueueSize();
+        final QueueSize originalSize = size();
         dropRequest.setCurrentSize(originalSize);
         dropRequest.setOriginalSize(originalSize);
         if (originalSize.getObjectCount() == 0) {
@@ -1104,6 +1821,8 @@ public class StandardFlowFileQueue implements FlowFileQueue {
                     logger.debug("For DropFlowFileRequest {}, original size is {}", requestIdentifier, getQueueSize());
 
                     try {
+                        drainIncomingQueue();
+                        awaitPendingSwapOuts();
                         final List<FlowFileRecord> activeQueueRecords = new ArrayList<>(activeQueue);
 
                         QueueSize droppedSize;
@@ -1153,6 +1872,30 @@ public class StandardFlowFileQueue implements FlowFileQueue {
                         incrementSwapQueueSize(-droppedSize.getObjectCount(), -droppedSize.getByteCount(), 0);
                         logger.debug("For DropFlowFileRequest {}, dropped {} from Swap Queue", requestIdentifier, droppedSize);
 
+                        // FlowFiles that are currently being sent to another node are not dropped, since they may already have been received.
+                        for (final RemoteQueuePartition partition : queuePartitions.getRemotePartitions()) {
+                            if (dropRequest.getState() == DropFlowFileState.CANCELED) {
+                                logger.info("Cancel requested for DropFlowFileRequest {}", requestIdentifier);
+                                return;
+                            }
+
+                            final List<FlowFileRecord> partitionRecords = partition.drainQueued();
+                            try {
+                                droppedSize = drop(partitionRecords, requestor);
+                            } catch (final IOException ioe) {
+                                partition.putAll(partitionRecords);
+                                logger.error("Failed to drop the FlowFiles from queue {} due to {}", StandardFlowFileQueue.this.getIdentifier(), ioe.toString());
+                                logger.error("", ioe);
+
+                                dropRequest.setState(DropFlowFileState.FAILURE, "Failed to drop FlowFiles due to " + ioe.toString());
+                                return;
+                            }
+
+                            dropRequest.setDroppedSize(dropRequest.getDroppedSize().add(droppedSize));
+                            dropRequest.setCurrentSize(size());
+                            logger.debug("For DropFlowFileRequest {}, dropped {} from {}", requestIdentifier, droppedSize, partition);
+                        }
+
                         final int swapFileCount = swapLocations.size();
                         final Iterator<String> swapLocationItr = swapLocations.iterator();
                         while (swapLocationItr.hasNext()) {
@@ -1165,7 +1908,7 @@ public class StandardFlowFileQueue implements FlowFileQueue {
                                     return;
                                 }
 
-                                swapContents = swapManager.swapIn(swapLocation, StandardFlowFileQueue.this);
+                                swapContents = swapIn(swapLocation);
                                 droppedSize = drop(swapContents.getFlowFiles(), requestor);
                             } catch (final IncompleteSwapFileException isfe) {
                                 swapContents = isfe.getPartialContents();
@@ -1224,11 +1967,18 @@ public class StandardFlowFileQueue implements FlowFileQueue {
     }
 
     private QueueSize drop(final List<FlowFileRecord> flowFiles, final String requestor) throws IOException {
-        // Create a Provenance Event and a FlowFile Repository record for each FlowFile
         final List<ProvenanceEventRecord> provenanceEvents = new ArrayList<>(flowFiles.size());
-        final List<RepositoryRecord> flowFileRepoRecords = new ArrayList<>(flowFiles.size());
         for (final FlowFileRecord flowFile : flowFiles) {
             provenanceEvents.add(createDropEvent(flowFile, requestor));
+        }
+
+        return removeFlowFiles(flowFiles, provenanceEvents);
+    }
+
+    private QueueSize removeFlowFiles(final List<FlowFileRecord> flowFiles, final List<ProvenanceEventRecord> provenanceEvents) throws IOException {
+        // Create a FlowFile Repository record for each FlowFile
+        final List<RepositoryRecord> flowFileRepoRecords = new ArrayList<>(flowFiles.size());
+        for (final FlowFileRecord flowFile : flowFiles) {
             flowFileRepoRecords.add(createDeleteRepositoryRecord(flowFile));
         }
 
@@ -1273,6 +2023,26 @@ public class StandardFlowFileQueue implements FlowFileQueue {
         return builder.build();
     }
 
+    private ProvenanceEventRecord createExpireEvent(final FlowFileRecord flowFile) {
+        final ProvenanceEventBuilder builder = provRepository.eventBuilder();
+        builder.fromFlowFile(flowFile);
+        builder.setEventType(ProvenanceEventType.EXPIRE);
+        builder.setLineageStartDate(flowFile.getLineageStartDate());
+        builder.setComponentId(getIdentifier());
+        builder.setComponentType("Connection");
+        builder.setAttributes(flowFile.getAttributes(), Collections.<String, String> emptyMap());
+        builder.setDetails("Expiration Threshold = " + getFlowFileExpiration());
+        builder.setSourceQueueIdentifier(getIdentifier());
+
+        final ContentClaim contentClaim = flowFile.getContentClaim();
+        if (contentClaim != null) {
+            final ResourceClaim resourceClaim = contentClaim.getResourceClaim();
+            builder.setPreviousContentClaim(resourceClaim.getContainer(), resourceClaim.getSection(), resourceClaim.getId(), contentClaim.getOffset(), flowFile.getSize());
+        }
+
+        return builder.build();
+    }
+
     private RepositoryRecord createDeleteRepositoryRecord(final FlowFileRecord flowFile) {
         return new RepositoryRecord() {
             @Override
@@ -1370,44 +2140,38 @@ public class StandardFlowFileQueue implements FlowFileQueue {
     }
 
 
-    private void incrementActiveQueueSize(final int count, final long bytes) {
-        boolean updated = false;
-        while (!updated) {
+    private FlowFileQueueSize incrementActiveQueueSize(final int count, final long bytes) {
+        while (true) {
             final FlowFileQueueSize original = size.get();
             final FlowFileQueueSize newSize = new FlowFileQueueSize(original.activeQueueCount + count, original.activeQueueBytes + bytes,
                 original.swappedCount, original.swappedBytes, original.swapFiles, original.unacknowledgedCount, original.unacknowledgedBytes);
-            updated = size.compareAndSet(original, newSize);
-
-            if (updated) {
+            if (size.compareAndSet(original, newSize)) {
                 logIfNegative(original, newSize, "active");
+                return original;
             }
         }
     }
 
-    private void incrementSwapQueueSize(final int count, final long bytes, final int fileCount) {
-        boolean updated = false;
-        while (!updated) {
+    private FlowFileQueueSize incrementSwapQueueSize(final int count, final long bytes, final int fileCount) {
+        while (true) {
             final FlowFileQueueSize original = size.get();
             final FlowFileQueueSize newSize = new FlowFileQueueSize(original.activeQueueCount, original.activeQueueBytes,
                 original.swappedCount + count, original.swappedBytes + bytes, original.swapFiles + fileCount, original.unacknowledgedCount, original.unacknowledgedBytes);
-            updated = size.compareAndSet(original, newSize);
-
-            if (updated) {
+            if (size.compareAndSet(original, newSize)) {
                 logIfNegative(original, newSize, "swap");
+                return original;
             }
         }
     }
 
-    private void incrementUnacknowledgedQueueSize(final int count, final long bytes) {
-        boolean updated = false;
-        while (!updated) {
+    private FlowFileQueueSize incrementUnacknowledgedQueueSize(final int count, final long bytes) {
+        while (true) {
             final FlowFileQueueSize original = size.get();
             final FlowFileQueueSize newSize = new FlowFileQueueSize(original.activeQueueCount, original.activeQueueBytes,
                 original.swappedCount, original.swappedBytes, original.swapFiles, original.unacknowledgedCount + count, original.unacknowledgedBytes + bytes);
-            updated = size.compareAndSet(original, newSize);
-
-            if (updated) {
+            if (size.compareAndSet(original, newSize)) {
                 logIfNegative(original, newSize, "Unacknowledged");
+                return original;
             }
         }
     }
@@ -1522,4 +2286,100 @@ public class StandardFlowFileQueue implements FlowFileQueue {
             return period;
         }
     }
+
+    private static class PendingSwapOut {
+        private final List<FlowFileRecord> flowFiles;
+        private final long bytes;
+        private final FutureTask<String> task;
+
+        public PendingSwapOut(final List<FlowFileRecord> flowFiles, final long bytes, final FutureTask<String> task) {
+            this.flowFiles = flowFiles;
+            this.bytes = bytes;
+            this.task = task;
+        }
+
+        public List<FlowFileRecord> getFlowFiles() {
+            return flowFiles;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public FutureTask<String> getTask() {
+            return task;
+        }
+    }
+
+    /**
+     * An immutable view of the partitions of the queue, one for each node that FlowFiles are distributed to. The element of the
+     * array at the index of the local partition is <code>null</code>, because FlowFiles for the local node are held by the queue itself.
+     */
+    private static class QueuePartitions {
+        private static final QueuePartitions LOCAL_ONLY = new QueuePartitions(new RemoteQueuePartition[] {null}, 0);
+
+        private final RemoteQueuePartition[] partitions;
+        private final int localPartitionIndex;
+        private final List<RemoteQueuePartition> remotePartitions;
+
+        public QueuePartitions(final RemoteQueuePartition[] partitions, final int localPartitionIndex) {
+            this.partitions = partitions;
+            this.localPartitionIndex = localPartitionIndex;
+
+            final List<RemoteQueuePartition> remote = new ArrayList<>(partitions.length);
+            for (final RemoteQueuePartition partition : partitions) {
+                if (partition != null) {
+                    remote.add(partition);
+                }
+            }
+            this.remotePartitions = Collections.unmodifiableList(remote);
+        }
+
+        public int getPartitionCount() {
+            return partitions.length;
+        }
+
+        public List<RemoteQueuePartition> getRemotePartitions() {
+            return remotePartitions;
+        }
+
+        public boolean contains(final RemoteQueuePartition partition) {
+            for (final RemoteQueuePartition candidate : partitions) {
+                if (candidate == partition) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        /**
+         * @return the partition that the given FlowFile is to be sent to, or <code>null</code> if the FlowFile belongs to the local node
+         */
+        public RemoteQueuePartition getRemotePartition(final FlowFilePartitioner partitioner, final FlowFileRecord flowFile) {
+            if (remotePartitions.isEmpty()) {
+                return null;
+            }
+
+            return partitions[partitioner.getPartition(flowFile, partitions.length, localPartitionIndex)];
+        }
+    }
+
+    private static class PendingSwapIn {
+        private final String swapLocation;
+        private final FutureTask<SwapContents> task;
+
+        public PendingSwapIn(final String swapLocation, final FutureTask<SwapContents> task) {
+            this.swapLocation = swapLocation;
+            this.task = task;
+        }
+
+        public String getSwapLocation() {
+            return swapLocation;
+        }
+
+        public FutureTask<SwapContents> getTask() {
+            return task;
+        }
+    }
 }
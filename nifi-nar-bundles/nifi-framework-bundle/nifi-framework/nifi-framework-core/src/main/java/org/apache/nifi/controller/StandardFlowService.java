@@ -202,6 +202,7 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
 
             final InetSocketAddress nodeApiAddress = nifiProperties.getNodeApiAddress();
             final InetSocketAddress nodeSocketAddress = nifiProperties.getClusterNodeProtocolAddress();
+            final InetSocketAddress loadBalanceAddress = nifiProperties.getClusterLoadBalanceAddress();
 
             String nodeUuid = null;
             final StateManager stateManager = controller.getStateManagerProvider().getStateManager(CLUSTER_NODE_CONFIG);
@@ -217,8 +218,9 @@ public class StandardFlowService implements FlowService, ProtocolHandler {
             this.nodeId = new NodeIdentifier(nodeUuid,
                     nodeApiAddress.getHostName(), nodeApiAddress.getPort(),
                     nodeSocketAddress.getHostName(), nodeSocketAddress.getPort(),
+                    loadBalanceAddress.getHostName(), loadBalanceAddress.getPort(),
                     nifiProperties.getRemoteInputHost(), nifiProperties.getRemoteInputPort(),
-                    nifiProperties.getRemoteInputHttpPort(), nifiProperties.isSiteToSiteSecure());
+                    nifiProperties.getRemoteInputHttpPort(), nifiProperties.isSiteToSiteSecure(), null);
 
         } else {
             this.configuredForClustering = false;
@@ -63,6 +63,7 @@ import org.apache.nifi.connectable.Position;
 import org.apache.nifi.connectable.Size;
 import org.apache.nifi.controller.exception.ProcessorInstantiationException;
 import org.apache.nifi.controller.label.Label;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.reporting.ReportingTaskInstantiationException;
 import org.apache.nifi.controller.reporting.StandardReportingInitializationContext;
 import org.apache.nifi.controller.serialization.FlowEncodingVersion;
@@ -960,6 +961,10 @@ public class StandardFlowSynchronizer implements FlowSynchronizer {
             if (dto.getFlowFileExpiration() != null) {
                 connection.getFlowFileQueue().setFlowFileExpiration(dto.getFlowFileExpiration());
             }
+
+            if (dto.getLoadBalanceStrategy() != null) {
+                connection.getFlowFileQueue().setLoadBalanceStrategy(LoadBalanceStrategy.valueOf(dto.getLoadBalanceStrategy()), dto.getLoadBalancePartitionAttribute());
+            }
         }
 
         // Replace the templates with those from the proposed flow
@@ -1376,6 +1381,10 @@ public class StandardFlowSynchronizer implements FlowSynchronizer {
                 connection.getFlowFileQueue().setFlowFileExpiration(dto.getFlowFileExpiration());
             }
 
+            if (dto.getLoadBalanceStrategy() != null) {
+                connection.getFlowFileQueue().setLoadBalanceStrategy(LoadBalanceStrategy.valueOf(dto.getLoadBalanceStrategy()), dto.getLoadBalancePartitionAttribute());
+            }
+
             processGroup.addConnection(connection);
         }
 
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.client.SocketLoadBalanceClient;
+import org.apache.nifi.controller.queue.clustered.partition.RemoteQueuePartition;
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.groups.ProcessGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically keeps the load-balanced queues of the flow up to date with the nodes in the cluster and hands any FlowFiles
+ * that are waiting in a remote partition to a pool of threads that send them to the node that the partition represents.
+ * At most one batch is in flight for any partition at a time.
+ */
+public class ConnectionLoadBalancer implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionLoadBalancer.class);
+
+    static final int MAX_BATCH_FLOWFILES = 1000;
+    static final long MAX_BATCH_BYTES = 10L * 1024L * 1024L;
+    static final long FAILURE_PENALTY_MILLIS = 5000L;
+    static final long QUEUE_FULL_PENALTY_MILLIS = 1000L;
+
+    private final FlowController flowController;
+    private final ClusterCoordinator clusterCoordinator;
+    private final ContentRepository contentRepository;
+    private final SSLContext sslContext;
+    private final int timeoutMillis;
+    private final ExecutorService transferExecutor;
+
+    // only accessed by the thread that runs this task
+    private final Map<String, String> appliedTopologies = new HashMap<>();
+    private SocketLoadBalanceClient client;
+    private NodeIdentifier clientNodeIdentifier;
+
+    public ConnectionLoadBalancer(final FlowController flowController, final ClusterCoordinator clusterCoordinator, final ContentRepository contentRepository,
+        final SSLContext sslContext, final int timeoutMillis, final ExecutorService transferExecutor) {
+        this.flowController = flowController;
+        this.clusterCoordinator = clusterCoordinator;
+        this.contentRepository = contentRepository;
+        this.sslContext = sslContext;
+        this.timeoutMillis = timeoutMillis;
+        this.transferExecutor = transferExecutor;
+    }
+
+    @Override
+    public void run() {
+        try {
+            final NodeIdentifier localNodeId = clusterCoordinator.getLocalNodeIdentifier();
+            final ProcessGroup rootGroup = flowController.getRootGroup();
+            if (localNodeId == null || rootGroup == null) {
+                return;
+            }
+
+            if (!localNodeId.equals(clientNodeIdentifier)) {
+                client = new SocketLoadBalanceClient(localNodeId.getId(), contentRepository, sslContext, timeoutMillis);
+                clientNodeIdentifier = localNodeId;
+            }
+
+            final Set<NodeIdentifier> nodeIds = clusterCoordinator.getNodeIdentifiers(NodeConnectionState.CONNECTED, NodeConnectionState.CONNECTING);
+            final String topology = describeTopology(localNodeId, nodeIds);
+
+            final Map<String, String> updatedTopologies = new HashMap<>();
+            for (final Connection connection : rootGroup.findAllConnections()) {
+                final FlowFileQueue flowFileQueue = connection.getFlowFileQueue();
+                if (!(flowFileQueue instanceof LoadBalancedFlowFileQueue)) {
+                    continue;
+                }
+
+                final LoadBalancedFlowFileQueue queue = (LoadBalancedFlowFileQueue) flowFileQueue;
+                if (!topology.equals(appliedTopologies.get(queue.getIdentifier()))) {
+                    queue.setNodeIdentifiers(localNodeId, nodeIds);
+                }
+                updatedTopologies.put(queue.getIdentifier(), topology);
+
+                for (final RemoteQueuePartition partition : queue.getRemotePartitions()) {
+                    dispatch(queue, partition);
+                }
+            }
+
+            appliedTopologies.clear();
+            appliedTopologies.putAll(updatedTopologies);
+        } catch (final Throwable t) {
+            logger.error("Failed to distribute FlowFiles for load-balanced Connections", t);
+        }
+    }
+
+    private void dispatch(final LoadBalancedFlowFileQueue queue, final RemoteQueuePartition partition) {
+        final List<FlowFileRecord> batch = queue.startTransfer(partition, MAX_BATCH_FLOWFILES, MAX_BATCH_BYTES);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final SocketLoadBalanceClient transferClient = client;
+        try {
+            transferExecutor.submit(() -> transfer(transferClient, queue, partition, batch));
+        } catch (final RejectedExecutionException ree) {
+            queue.onTransferFailed(partition, batch, 0L);
+        }
+    }
+
+    private void transfer(final SocketLoadBalanceClient transferClient, final LoadBalancedFlowFileQueue queue, final RemoteQueuePartition partition,
+        final List<FlowFileRecord> batch) {
+        final NodeIdentifier nodeId = partition.getNodeIdentifier();
+        final String transitUri = "nifi://" + nodeId.getLoadBalanceAddress() + ":" + nodeId.getLoadBalancePort() + "/loadbalance/" + queue.getIdentifier();
+
+        boolean transferred = false;
+        try {
+            final long start = System.nanoTime();
+            if (transferClient.send(nodeId, queue.getIdentifier(), batch)) {
+                transferred = true;
+                queue.onTransferComplete(partition, batch, transitUri);
+                logger.debug("Sent {} FlowFiles from {} to {} in {} millis", batch.size(), queue, nodeId, (System.nanoTime() - start) / 1_000_000L);
+            } else {
+                logger.debug("{} declined {} FlowFiles from {} because its partition of the queue is full", nodeId, batch.size(), queue);
+                queue.onTransferFailed(partition, batch, QUEUE_FULL_PENALTY_MILLIS);
+            }
+        } catch (final IOException ioe) {
+            logger.warn("Failed to send {} FlowFiles from {} to {}; will try again in {} millis", batch.size(), queue, nodeId, FAILURE_PENALTY_MILLIS, ioe);
+            queue.onTransferFailed(partition, batch, FAILURE_PENALTY_MILLIS);
+        } catch (final Throwable t) {
+            logger.error("Failed to send {} FlowFiles from {} to {}", batch.size(), queue, nodeId, t);
+            if (!transferred) {
+                queue.onTransferFailed(partition, batch, FAILURE_PENALTY_MILLIS);
+            }
+        }
+    }
+
+    private static String describeTopology(final NodeIdentifier localNodeId, final Collection<NodeIdentifier> nodeIds) {
+        final Map<String, String> sorted = new TreeMap<>();
+        for (final NodeIdentifier nodeId : nodeIds) {
+            sorted.put(nodeId.getId(), nodeId.getLoadBalanceAddress() + ":" + nodeId.getLoadBalancePort());
+        }
+
+        final List<String> entries = new ArrayList<>(sorted.size() + 1);
+        entries.add(localNodeId.getId());
+        for (final Map.Entry<String, String> entry : sorted.entrySet()) {
+            entries.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return String.join(",", entries);
+    }
+}
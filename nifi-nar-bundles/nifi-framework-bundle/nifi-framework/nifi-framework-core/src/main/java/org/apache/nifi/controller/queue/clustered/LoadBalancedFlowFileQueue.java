@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.clustered.partition.RemoteQueuePartition;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+/**
+ * A FlowFile Queue whose FlowFiles may be distributed across the nodes of a cluster. The queue is split into partitions, one for each
+ * node in the cluster. The local partition behaves as an ordinary queue, from which the destination of the connection pulls FlowFiles.
+ * Each remote partition holds the FlowFiles that are waiting to be sent to the node that it represents.
+ */
+public interface LoadBalancedFlowFileQueue extends FlowFileQueue {
+
+    /**
+     * Updates the set of nodes across which the FlowFiles in the queue are distributed. FlowFiles that are waiting to be sent to a node
+     * that is no longer in the given collection are redistributed.
+     *
+     * @param localNodeIdentifier the identifier of the local node
+     * @param nodeIdentifiers the identifiers of all nodes that FlowFiles may be distributed to, including the local node
+     */
+    void setNodeIdentifiers(NodeIdentifier localNodeIdentifier, Collection<NodeIdentifier> nodeIdentifiers);
+
+    /**
+     * @return the partitions that hold FlowFiles waiting to be sent to other nodes. This will be empty if the queue is not load balanced
+     *         or the node is not part of a cluster.
+     */
+    List<RemoteQueuePartition> getRemotePartitions();
+
+    /**
+     * @return the size of the partition that holds the FlowFiles that are to be processed by this node
+     */
+    QueueSize getLocalPartitionSize();
+
+    /**
+     * @return <code>true</code> if the partition that holds the FlowFiles to be processed by this node has reached the back pressure threshold
+     */
+    boolean isLocalPartitionFull();
+
+    /**
+     * Removes the next batch of FlowFiles from the given partition so that they can be sent to the node that the partition represents.
+     * FlowFiles that have expired are removed from this node's repositories rather than included in the batch.
+     *
+     * @param partition the partition to obtain the FlowFiles from
+     * @param maxFlowFiles the maximum number of FlowFiles to include in the batch
+     * @param maxBytes the maximum number of bytes to include in the batch; at least one FlowFile is always included, regardless of its size
+     * @return the FlowFiles to send, or an empty list if the partition has nothing to send at this time
+     */
+    List<FlowFileRecord> startTransfer(RemoteQueuePartition partition, int maxFlowFiles, long maxBytes);
+
+/**
+     * Indicates that the given FlowFiles, obtained from the given partition, have been received by the node that the partition represents.
+     * The FlowFiles are removed from this node's repositories.
+     *
+     * @param partition the partition that the FlowFiles were obtained from
+     * @param flowFiles the FlowFiles that were sent
+     * @param transitUri the URI that identifies where the FlowFiles were sent
+     */
+    void onTransferComplete(RemoteQueuePartition partition, List<FlowFileRecord> flowFiles, String transitUri);
+
+    /**
+     * Indicates that the given FlowFiles, obtained from the given partition, could not be sent to the node that the partition represents.
+     *
+     * @param partition the partition that the FlowFiles were obtained from
+     * @param flowFiles the FlowFiles that could not be sent
+     * @param penaltyMillis how long to wait before attempting to send FlowFiles to the node again
+     */
+    void onTransferFailed(RemoteQueuePartition partition, List<FlowFileRecord> flowFiles, long penaltyMillis);
+
+    /**
+     * Adds FlowFiles that were sent to this node by another node in the cluster. The FlowFiles are placed directly into the local partition
+     * and are not redistributed. The FlowFiles must already have been persisted to the FlowFile Repository.
+     *
+     * @param flowFiles the FlowFiles that were received
+     */
+    void receiveFromPeer(Collection<FlowFileRecord> flowFiles);
+}
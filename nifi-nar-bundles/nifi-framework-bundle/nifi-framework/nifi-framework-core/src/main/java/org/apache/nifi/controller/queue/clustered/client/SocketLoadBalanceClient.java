@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.client;
+
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_PROTOCOL_NEGOTIATION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONNECTION_NOT_FOUND;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.MORE_FLOWFILES;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.NO_MORE_FLOWFILES;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.PROTOCOL_VERSION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.QUEUE_FULL;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.REJECT_CHECKSUM;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.SPACE_AVAILABLE;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.VERSION_ACCEPTED;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.queue.clustered.protocol.FlowFileAttributesCodec;
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.stream.io.StreamUtils;
+
+/**
+ * Sends the FlowFiles of a load-balanced connection to another node in the cluster, one transaction per socket connection.
+ * See {@link org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants} for a description of the protocol.
+ */
+public class SocketLoadBalanceClient {
+    private final String localNodeIdentifier;
+    private final ContentRepository contentRepository;
+    private final SSLContext sslContext;
+    private final int timeoutMillis;
+
+    public SocketLoadBalanceClient(final String localNodeIdentifier, final ContentRepository contentRepository, final SSLContext sslContext, final int timeoutMillis) {
+        this.localNodeIdentifier = localNodeIdentifier;
+        this.contentRepository = contentRepository;
+        this.sslContext = sslContext;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Sends the given FlowFiles to the given node, to be placed in the connection with the given identifier. When this method returns
+     * <code>true</code>, the node has persisted the FlowFiles and taken ownership of them.
+     *
+     * @param nodeId the node to send the FlowFiles to
+     * @param connectionId the identifier of the connection
+     * @param flowFiles the FlowFiles to send
+     * @return <code>true</code> if the FlowFiles were transferred, <code>false</code> if the node declined them because its partition of the queue is full
+     * @throws IOException if unable to communicate with the node, or if the node failed to receive the FlowFiles
+     */
+    public boolean send(final NodeIdentifier nodeId, final String connectionId, final List<FlowFileRecord> flowFiles) throws IOException {
+        final Integer port = nodeId.getLoadBalancePort();
+        if (port == null) {
+            throw new IOException("Cannot send FlowFiles to " + nodeId + " because the node does not accept load-balanced FlowFiles");
+        }
+
+        try (final Socket socket = createSocket(nodeId.getLoadBalanceAddress(), port)) {
+            return send(nodeId, connectionId, flowFiles, socket.getInputStream(), socket.getOutputStream());
+        }
+    }
+
+    /**
+     * Carries out a single transaction over the given streams. Package-private so that the protocol can be tested without sockets.
+     */
+    boolean send(final NodeIdentifier nodeId, final String connectionId, final List<FlowFileRecord> flowFiles, final InputStream socketIn, final OutputStream socketOut)
+            throws IOException {
+        final OutputStream rawOut = new BufferedOutputStream(socketOut, 65536);
+        final DataOutputStream out = new DataOutputStream(rawOut);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socketIn));
+
+        out.writeInt(PROTOCOL_VERSION);
+        out.flush();
+
+        final int versionResponse = readResponse(in, nodeId);
+        if (versionResponse == ABORT_PROTOCOL_NEGOTIATION) {
+            throw new IOException("Cannot send FlowFiles to " + nodeId + " because it does not support version " + PROTOCOL_VERSION + " of the load balance protocol");
+        } else if (versionResponse != VERSION_ACCEPTED) {
+            throw unexpectedResponse(versionResponse, nodeId);
+        }
+
+        out.writeUTF(localNodeIdentifier);
+        out.writeUTF(connectionId);
+        out.flush();
+
+        final int spaceResponse = readResponse(in, nodeId);
+        if (spaceResponse == QUEUE_FULL) {
+            return false;
+        } else if (spaceResponse == CONNECTION_NOT_FOUND) {
+            throw new IOException("Cannot send FlowFiles to " + nodeId + " because the node has no Connection with ID " + connectionId);
+        } else if (spaceResponse != SPACE_AVAILABLE) {
+            throw unexpectedResponse(spaceResponse, nodeId);
+        }
+
+        final CRC32 checksum = new CRC32();
+        final DataOutputStream checkedOut = new DataOutputStream(new CheckedOutputStream(rawOut, checksum));
+        for (final FlowFileRecord flowFile : flowFiles) {
+            checkedOut.write(MORE_FLOWFILES);
+            FlowFileAttributesCodec.writeAttributes(flowFile.getAttributes(), checkedOut);
+            checkedOut.writeLong(flowFile.getLineageStartDate());
+            checkedOut.writeLong(flowFile.getEntryDate());
+            checkedOut.writeLong(flowFile.getSize());
+            writeContent(flowFile, checkedOut);
+        }
+        checkedOut.write(NO_MORE_FLOWFILES);
+
+        out.writeLong(checksum.getValue());
+        out.flush();
+
+        final int checksumResponse = readResponse(in, nodeId);
+        if (checksumResponse == REJECT_CHECKSUM) {
+            throw new IOException("Failed to send FlowFiles to " + nodeId + " because the node reported that the data it received was corrupt");
+        } else if (checksumResponse != CONFIRM_CHECKSUM) {
+            throw unexpectedResponse(checksumResponse, nodeId);
+        }
+
+        out.write(COMPLETE_TRANSACTION);
+        out.flush();
+
+        final int completeResponse = readResponse(in, nodeId);
+        if (completeResponse != CONFIRM_COMPLETE_TRANSACTION) {
+            throw unexpectedResponse(completeResponse, nodeId);
+        }
+
+        return true;
+    }
+
+    private void writeContent(final FlowFileRecord flowFile, final OutputStream out) throws IOException {
+        if (flowFile.getSize() == 0L) {
+            return;
+        }
+
+        final ContentClaim contentClaim = flowFile.getContentClaim();
+        if (contentClaim == null) {
+            throw new IOException("Cannot send " + flowFile + " because it has a size of " + flowFile.getSize() + " bytes but no Content Claim");
+        }
+
+        try (final InputStream in = contentRepository.read(contentClaim)) {
+            StreamUtils.skip(in, flowFile.getContentClaimOffset());
+            StreamUtils.copy(in, out, flowFile.getSize());
+        }
+    }
+
+    private Socket createSocket(final String hostname, final int port) throws IOException {
+        final Socket socket = sslContext == null ? new Socket() : sslContext.getSocketFactory().createSocket();
+        try {
+            socket.setSoTimeout(timeoutMillis);
+            socket.connect(new InetSocketAddress(hostname, port), timeoutMillis);
+        } catch (final IOException ioe) {
+            socket.close();
+            throw ioe;
+        }
+
+        return socket;
+    }
+
+    private int readResponse(final DataInputStream in, final NodeIdentifier nodeId) throws IOException {
+        final int response = in.read();
+        if (response < 0) {
+            throw new EOFException("Connection to " + nodeId + " was closed unexpectedly");
+        }
+
+        return response;
+    }
+
+    private IOException unexpectedResponse(final int response, final NodeIdentifier nodeId) {
+        return new IOException("Received unexpected response 0x" + Integer.toHexString(response) + " from " + nodeId);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+/**
+ * Places all FlowFiles that have the same value for a given attribute in the same partition. FlowFiles that do not
+ * have the attribute are all placed in the same partition as one another.
+ */
+public class CorrelationAttributePartitioner implements FlowFilePartitioner {
+    private final String partitioningAttribute;
+
+    public CorrelationAttributePartitioner(final String partitioningAttribute) {
+        this.partitioningAttribute = partitioningAttribute;
+    }
+
+    @Override
+    public int getPartition(final FlowFileRecord flowFile, final int partitionCount, final int localPartitionIndex) {
+        final String value = flowFile.getAttribute(partitioningAttribute);
+        if (value == null) {
+            return 0;
+        }
+
+        // String.hashCode() is fully specified, so every node computes the same hash for the same value. Spread the
+        // high bits into the low bits so that values differing only in their last characters are not clustered together.
+        final int hash = value.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+
+    public String getPartitioningAttribute() {
+        return partitioningAttribute;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+/**
+ * Determines which node in the cluster a FlowFile in a load-balanced connection belongs to. Each node in the cluster
+ * is represented by a partition, and all nodes order their partitions the same way, so that a partitioner that does
+ * not depend on local state will place a given FlowFile in the same partition on every node.
+ */
+public interface FlowFilePartitioner {
+
+    /**
+     * Determines which partition the given FlowFile belongs in
+     *
+     * @param flowFile the FlowFile
+     * @param partitionCount the number of partitions, one for each node in the cluster, including the local node
+     * @param localPartitionIndex the index of the partition that represents the local node
+     * @return the index of the partition that the FlowFile belongs in, in the range [0, partitionCount)
+     */
+    int getPartition(FlowFileRecord flowFile, int partitionCount, int localPartitionIndex);
+}
@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Set;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.StandardFlowFileQueue;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.IncompleteSwapFileException;
+import org.apache.nifi.controller.repository.SwapContents;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Holds the FlowFiles of a load-balanced queue that are waiting to be sent to another node in the cluster. FlowFiles are
+ * sent in batches, one batch at a time, in the order in which they were added to the partition. A batch that is being
+ * sent remains accounted for in the size of the partition until the transfer completes.
+ * </p>
+ *
+ * <p>
+ * Like the local partition, a remote partition keeps at most the queue's swap threshold of FlowFiles on the heap. Beyond that,
+ * FlowFiles are written to Swap Files using the queue's Swap Manager and are swapped back in, oldest first, as batches are sent.
+ * Because Swap Files belong to the queue, any that remain when NiFi is restarted are recovered into the local partition.
+ * </p>
+ */
+public class RemoteQueuePartition {
+    private static final Logger logger = LoggerFactory.getLogger(RemoteQueuePartition.class);
+
+    private final NodeIdentifier nodeIdentifier;
+    private final FlowFileQueue flowFileQueue;
+    private final FlowFileSwapManager swapManager;
+    private final int swapThreshold;
+
+    // all guarded by synchronizing on 'this'
+    private final Deque<FlowFileRecord> queue = new ArrayDeque<>();
+    private final List<FlowFileRecord> swapQueue = new ArrayList<>();
+    private final List<String> swapLocations = new ArrayList<>();
+    private final List<QueueSize> swapFileSizes = new ArrayList<>();
+    private long queuedBytes = 0L;
+    private int swappedCount = 0;
+    private long swappedBytes = 0L;
+    private int inFlightCount = 0;
+    private long inFlightBytes = 0L;
+    private boolean transferring = false;
+    private long penaltyExpiration = 0L;
+
+    /**
+     * @param nodeIdentifier the node that the FlowFiles in this partition are to be sent to
+     * @param flowFileQueue the queue that this partition belongs to
+     * @param swapManager the Swap Manager used to write FlowFiles to Swap Files when the partition holds more than the swap threshold
+     * @param swapThreshold the maximum number of FlowFiles to hold on the heap before swapping
+     */
+    public RemoteQueuePartition(final NodeIdentifier nodeIdentifier, final FlowFileQueue flowFileQueue, final FlowFileSwapManager swapManager, final int swapThreshold) {
+        this.nodeIdentifier = nodeIdentifier;
+        this.flowFileQueue = flowFileQueue;
+        this.swapManager = swapManager;
+        this.swapThreshold = swapThreshold;
+    }
+
+    public NodeIdentifier getNodeIdentifier() {
+        return nodeIdentifier;
+    }
+
+    public synchronized void put(final FlowFileRecord flowFile) {
+        queuedBytes += flowFile.getSize();
+
+        // Once FlowFiles have been swapped out, newer FlowFiles must wait behind them so that the order is kept.
+        if (swapQueue.isEmpty() && swapLocations.isEmpty() && queue.size() < swapThreshold) {
+            queue.addLast(flowFile);
+            return;
+        }
+
+        swapQueue.add(flowFile);
+        if (swapQueue.size() >= StandardFlowFileQueue.SWAP_RECORD_POLL_SIZE) {
+            writeSwapFile();
+        }
+    }
+
+    public synchronized void putAll(final Collection<FlowFileRecord> flowFiles) {
+        for (final FlowFileRecord flowFile : flowFiles) {
+            put(flowFile);
+        }
+    }
+
+    /**
+     * Writes the FlowFiles on the swap queue to a Swap File. If the Swap File cannot be written, the FlowFiles remain on the heap.
+     *
+     * This method MUST be called while synchronized on 'this'.
+     */
+    private void writeSwapFile() {
+        long bytes = 0L;
+        for (final FlowFileRecord flowFile : swapQueue) {
+            bytes += flowFile.getSize();
+        }
+
+        final String swapLocation;
+        try {
+            swapLocation = swapManager.swapOut(swapQueue, flowFileQueue);
+        } catch (final IOException ioe) {
+            logger.error("{} has {} FlowFiles waiting to be sent to {}. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
+                + "the Java heap space but failed to write information to disk", flowFileQueue, size().getObjectCount(), nodeIdentifier, ioe);
+            return;
+        }
+
+        swapLocations.add(swapLocation);
+        swapFileSizes.add(new QueueSize(swapQueue.size(), bytes));
+        swappedCount += swapQueue.size();
+        swappedBytes += bytes;
+        queuedBytes -= bytes;
+        swapQueue.clear();
+    }
+
+    /**
+     * Refills the in-memory queue once it has been emptied, first from the oldest Swap File and then from the swap queue.
+     *
+     * This method MUST be called while synchronized on 'this'.
+     *
+     * @return <code>true</code> if the FlowFiles of the oldest Swap File could not be read, <code>false</code> otherwise
+     */
+    private boolean swapInIfNecessary() {
+        if (!queue.isEmpty()) {
+            return false;
+        }
+
+        if (swapLocations.isEmpty()) {
+            queue.addAll(swapQueue);
+            swapQueue.clear();
+            return false;
+        }
+
+        final String swapLocation = swapLocations.get(0);
+        final QueueSize swapFileSize = swapFileSizes.get(0);
+        List<FlowFileRecord> swappedIn;
+        try {
+            final SwapContents contents = swapManager.swapIn(swapLocation, flowFileQueue);
+            swappedIn = contents.getFlowFiles();
+        } catch (final IncompleteSwapFileException isfe) {
+            logger.error("Failed to swap in all FlowFiles for {} from Swap File {}; Swap File ended prematurely. The records that were present will still be swapped in",
+                nodeIdentifier, swapLocation, isfe);
+            swappedIn = isfe.getPartialContents().getFlowFiles();
+        } catch (final IOException ioe) {
+            // The Swap File remains accounted for, so that it is tried again, as the failure may be recoverable.
+            logger.error("Failed to swap in FlowFiles for {} from Swap File {}", nodeIdentifier, swapLocation, ioe);
+            return true;
+        }
+
+        swapLocations.remove(0);
+        swapFileSizes.remove(0);
+        swappedCount -= swapFileSize.getObjectCount();
+        swappedBytes -= swapFileSize.getByteCount();
+
+        for (final FlowFileRecord flowFile : swappedIn) {
+            queue.addLast(flowFile);
+            queuedBytes += flowFile.getSize();
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the size of the partition, including any FlowFiles that are currently being sent
+     */
+    public synchronized QueueSize size() {
+        return new QueueSize(queue.size() + swapQueue.size() + swappedCount + inFlightCount, queuedBytes + swappedBytes + inFlightBytes);
+    }
+
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty() && swapQueue.isEmpty() && swappedCount == 0 && inFlightCount == 0;
+    }
+
+    /**
+     * Removes the next batch of FlowFiles from the partition so that they can be sent to the node. Until {@link #onTransferComplete(List)} or
+     * {@link #onTransferFailed(List, long)} is called, no other batch will be provided. FlowFiles that have been queued for longer than the
+     * given expiration period are removed from the partition and added to the given set rather than to the batch.
+     *
+     * @param maxFlowFiles the maximum number of FlowFiles to include in the batch
+     * @param maxBytes the maximum number of bytes to include in the batch; at least one FlowFile is always included, regardless of its size
+     * @param expirationMillis how long a FlowFile may be queued before it expires, or 0 if FlowFiles do not expire
+     * @param expiredRecords the set to add any expired FlowFiles to
+     * @return the FlowFiles to send, or an empty list if there is nothing to send, a batch is already being sent, or the partition is penalized
+     */
+    public synchronized List<FlowFileRecord> startTransfer(final int maxFlowFiles, final long maxBytes, final long expirationMillis, final Set<FlowFileRecord> expiredRecords) {
+        if (transferring || System.currentTimeMillis() < penaltyExpiration) {
+            return Collections.emptyList();
+        }
+
+        final long expirationDate = expirationMillis > 0L ? System.currentTimeMillis() - expirationMillis : Long.MIN_VALUE;
+        final List<FlowFileRecord> batch = new ArrayList<>(Math.min(maxFlowFiles, queue.size()));
+        long batchBytes = 0L;
+        while (batch.size() < maxFlowFiles) {
+            if (swapInIfNecessary() || queue.isEmpty()) {
+                break;
+            }
+
+            final FlowFileRecord next = queue.peekFirst();
+            if (next.getEntryDate() < expirationDate) {
+                queue.pollFirst();
+                queuedBytes -= next.getSize();
+                expiredRecords.add(next);
+                continue;
+            }
+
+            if (!batch.isEmpty() && batchBytes + next.getSize() > maxBytes) {
+                break;
+            }
+
+            queue.pollFirst();
+            batch.add(next);
+            batchBytes += next.getSize();
+        }
+
+        if (batch.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        queuedBytes -= batchBytes;
+        inFlightCount = batch.size();
+        inFlightBytes = batchBytes;
+        transferring = true;
+        return batch;
+    }
+
+    /**
+     * Indicates that the given batch, which was obtained from {@link #startTransfer(int, long, long, Set)}, has been received by the node
+     */
+    public synchronized void onTransferComplete(final List<FlowFileRecord> batch) {
+        inFlightCount = 0;
+        inFlightBytes = 0L;
+        transferring = false;
+    }
+
+    /**
+     * Indicates that the given batch, which was obtained from {@link #startTransfer(int, long, long, Set)}, could not be sent to the node. The FlowFiles
+     * are placed back at the front of the partition, and no further batch is provided until the given penalty has elapsed.
+     */
+    public synchronized void onTransferFailed(final List<FlowFileRecord> batch, final long penaltyMillis) {
+        final ListIterator<FlowFileRecord> itr = batch.listIterator(batch.size());
+        while (itr.hasPrevious()) {
+            final FlowFileRecord flowFile = itr.previous();
+            queue.addFirst(flowFile);
+            queuedBytes += flowFile.getSize();
+        }
+
+        inFlightCount = 0;
+        inFlightBytes = 0L;
+        transferring = false;
+        penaltyExpiration = System.currentTimeMillis() + penaltyMillis;
+    }
+
+    /**
+     * Removes all FlowFiles from the partition that are not currently being sent, swapping in any that were swapped out. The FlowFiles
+     * of a Swap File that cannot be read, and of any that were swapped out after it, remain in the partition.
+     *
+     * @return the FlowFiles that were removed
+     */
+    public synchronized List<FlowFileRecord> drainQueued() {
+        final List<FlowFileRecord> drained = new ArrayList<>(queue);
+        queue.clear();
+
+        while (!swapLocations.isEmpty() || !swapQueue.isEmpty()) {
+            if (swapInIfNecessary()) {
+                break;
+            }
+
+            drained.addAll(queue);
+            queue.clear();
+        }
+
+        queuedBytes = 0L;
+        for (final FlowFileRecord flowFile : swapQueue) {
+            queuedBytes += flowFile.getSize();
+        }
+
+        return drained;
+    }
+
+    @Override
+    public String toString() {
+        return "RemoteQueuePartition[node=" + nodeIdentifier + "]";
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+/**
+ * Distributes FlowFiles evenly across all partitions, including the local partition, one partition after another
+ */
+public class RoundRobinPartitioner implements FlowFilePartitioner {
+    private final AtomicLong counter = new AtomicLong(0L);
+
+    @Override
+    public int getPartition(final FlowFileRecord flowFile, final int partitionCount, final int localPartitionIndex) {
+        return (int) Math.floorMod(counter.getAndIncrement(), (long) partitionCount);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes and reads FlowFile attributes for the load balance protocol. Strings are written as a 4-byte length followed by
+ * their UTF-8 encoding, since attribute values are not limited to the 64 KB that {@link DataOutputStream#writeUTF(String)} allows.
+ */
+public class FlowFileAttributesCodec {
+
+    private FlowFileAttributesCodec() {
+    }
+
+    public static void writeAttributes(final Map<String, String> attributes, final DataOutputStream out) throws IOException {
+        out.writeInt(attributes.size());
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            writeString(entry.getKey(), out);
+            writeString(entry.getValue(), out);
+        }
+    }
+
+    public static Map<String, String> readAttributes(final DataInputStream in) throws IOException {
+        final int attributeCount = in.readInt();
+        if (attributeCount < 0) {
+            throw new IOException("Received invalid attribute count of " + attributeCount);
+        }
+
+        final Map<String, String> attributes = new HashMap<>(attributeCount * 2);
+        for (int i = 0; i < attributeCount; i++) {
+            final String key = readString(in);
+            final String value = readString(in);
+            attributes.put(key, value);
+        }
+
+        return attributes;
+    }
+
+    public static void writeString(final String value, final DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Received invalid String length of " + length);
+        }
+
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.protocol;
+
+/**
+ * <p>
+ * Constants that are used by the protocol that nodes use to send the FlowFiles of a load-balanced connection to one another.
+ * Each transaction is carried out over its own socket connection:
+ * </p>
+ *
+ * <ol>
+ * <li>The client sends its protocol version. The server responds with {@link #VERSION_ACCEPTED} or {@link #ABORT_PROTOCOL_NEGOTIATION}.</li>
+ * <li>The client sends the identifier of the node that is sending the data and the identifier of the connection. The server responds
+ * with {@link #SPACE_AVAILABLE}, {@link #QUEUE_FULL} or {@link #CONNECTION_NOT_FOUND}.</li>
+ * <li>For each FlowFile, the client sends {@link #MORE_FLOWFILES}, the number of attributes followed by each attribute name and value,
+ * the lineage start date, the entry date, the content length and then the content. It then sends {@link #NO_MORE_FLOWFILES}, followed
+ * by a CRC32 checksum of everything that it sent since the connection identifier.</li>
+ * <li>The server responds with {@link #CONFIRM_CHECKSUM} or {@link #REJECT_CHECKSUM}. If the checksum is confirmed, the client sends
+ * {@link #COMPLETE_TRANSACTION} or {@link #ABORT_TRANSACTION}.</li>
+ * <li>Once the FlowFiles have been persisted and queued, the server responds with {@link #CONFIRM_COMPLETE_TRANSACTION}. Only then does
+ * the client consider the FlowFiles transferred.</li>
+ * </ol>
+ */
+public class LoadBalanceProtocolConstants {
+
+    public static final int PROTOCOL_VERSION = 1;
+
+    // protocol negotiation
+    public static final int VERSION_ACCEPTED = 0x10;
+    public static final int ABORT_PROTOCOL_NEGOTIATION = 0x11;
+
+    // response to the connection identifier
+    public static final int SPACE_AVAILABLE = 0x61;
+    public static final int QUEUE_FULL = 0x62;
+    public static final int CONNECTION_NOT_FOUND = 0x63;
+
+    // sent before each FlowFile and after the last
+    public static final int MORE_FLOWFILES = 0x71;
+    public static final int NO_MORE_FLOWFILES = 0x72;
+
+    // response to the checksum
+    public static final int CONFIRM_CHECKSUM = 0x81;
+    public static final int REJECT_CHECKSUM = 0x82;
+
+    // transaction completion
+    public static final int COMPLETE_TRANSACTION = 0x91;
+    public static final int ABORT_TRANSACTION = 0x92;
+    public static final int CONFIRM_COMPLETE_TRANSACTION = 0xA1;
+
+    private LoadBalanceProtocolConstants() {
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Listens for other nodes in the cluster that are sending the FlowFiles of load-balanced connections to this node. Each accepted
+ * socket carries a single transaction, which is handed to a {@link StandardLoadBalanceProtocol} on a bounded pool of threads.
+ */
+public class ConnectionLoadBalanceServer {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionLoadBalanceServer.class);
+
+    private final String hostname;
+    private final int port;
+    private final SSLContext sslContext;
+    private final int maxThreadCount;
+    private final int timeoutMillis;
+    private final StandardLoadBalanceProtocol protocol;
+
+    private volatile boolean stopped = true;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+    private Thread acceptThread;
+
+    public ConnectionLoadBalanceServer(final String hostname, final int port, final SSLContext sslContext, final int maxThreadCount, final int timeoutMillis,
+        final StandardLoadBalanceProtocol protocol) {
+        this.hostname = hostname;
+        this.port = port;
+        this.sslContext = sslContext;
+        this.maxThreadCount = maxThreadCount;
+        this.timeoutMillis = timeoutMillis;
+        this.protocol = protocol;
+    }
+
+    public synchronized void start() throws IOException {
+        if (!stopped) {
+            return;
+        }
+
+        serverSocket = createServerSocket();
+        serverSocket.setSoTimeout(2000);
+
+        final AtomicInteger threadCounter = new AtomicInteger(0);
+        executor = Executors.newFixedThreadPool(maxThreadCount, r -> {
+            final Thread thread = new Thread(r, "Load-Balanced Connection Receiver " + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        stopped = false;
+        acceptThread = new Thread(this::acceptConnections, "Load-Balanced Connection Server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        logger.info("Now listening for load-balanced FlowFiles on port {}", serverSocket.getLocalPort());
+    }
+
+    public synchronized void stop() {
+        if (stopped) {
+            return;
+        }
+
+        stopped = true;
+        try {
+            serverSocket.close();
+        } catch (final IOException ioe) {
+            logger.warn("Failed to close server socket for load-balanced connections", ioe);
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the port that the server is listening on, which may differ from the configured port if the configured port is 0
+     */
+    public synchronized int getPort() {
+        return serverSocket == null ? port : serverSocket.getLocalPort();
+    }
+
+    private ServerSocket createServerSocket() throws IOException {
+        final InetSocketAddress bindAddress = hostname == null || hostname.trim().isEmpty() ? new InetSocketAddress(port) : new InetSocketAddress(hostname, port);
+
+        if (sslContext == null) {
+            final ServerSocket socket = new ServerSocket();
+            socket.bind(bindAddress);
+            return socket;
+        }
+
+        final SSLServerSocket socket = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket();
+        socket.setNeedClientAuth(true);
+        socket.bind(bindAddress);
+        return socket;
+    }
+
+    private void acceptConnections() {
+        while (!stopped) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (final SocketTimeoutException ste) {
+                continue;
+            } catch (final IOException ioe) {
+                if (!stopped) {
+                    logger.error("Failed to accept connection for load-balanced FlowFiles", ioe);
+                }
+                continue;
+            }
+
+            try {
+                executor.submit(() -> receive(socket));
+            } catch (final RejectedExecutionException ree) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private void receive(final Socket socket) {
+        final String peerDescription = socket.getInetAddress().getHostName() + ":" + socket.getPort();
+        try {
+            socket.setSoTimeout(timeoutMillis);
+            protocol.receiveFlowFiles(socket.getInputStream(), socket.getOutputStream(), peerDescription);
+        } catch (final Exception e) {
+            logger.error("Failed to receive load-balanced FlowFiles from {}", peerDescription, e);
+        } finally {
+            closeQuietly(socket);
+        }
+    }
+
+    private void closeQuietly(final Socket socket) {
+        try {
+            socket.close();
+        } catch (final IOException ioe) {
+            logger.debug("Failed to close socket {}", socket, ioe);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.server;
+
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_PROTOCOL_NEGOTIATION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.ABORT_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONNECTION_NOT_FOUND;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.MORE_FLOWFILES;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.NO_MORE_FLOWFILES;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.PROTOCOL_VERSION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.QUEUE_FULL;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.REJECT_CHECKSUM;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.SPACE_AVAILABLE;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.VERSION_ACCEPTED;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.protocol.FlowFileAttributesCodec;
+import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.RepositoryRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.provenance.ProvenanceEventBuilder;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives the FlowFiles of a load-balanced connection from another node in the cluster. The content of each FlowFile is written
+ * to the Content Repository as it is received, but nothing is added to the FlowFile Repository, the Provenance Repository or the
+ * queue until the sender has confirmed that the transaction is to be completed. If the transaction fails for any reason, the
+ * content that was written is released.
+ */
+public class StandardLoadBalanceProtocol {
+    private static final Logger logger = LoggerFactory.getLogger(StandardLoadBalanceProtocol.class);
+
+    private final ConnectionLookup connectionLookup;
+    private final FlowFileRepository flowFileRepository;
+    private final ContentRepository contentRepository;
+    private final ProvenanceEventRepository provenanceRepository;
+
+    public StandardLoadBalanceProtocol(final ConnectionLookup connectionLookup, final FlowFileRepository flowFileRepository, final ContentRepository contentRepository,
+        final ProvenanceEventRepository provenanceRepository) {
+        this.connectionLookup = connectionLookup;
+        this.flowFileRepository = flowFileRepository;
+        this.contentRepository = contentRepository;
+        this.provenanceRepository = provenanceRepository;
+    }
+
+    /**
+     * Receives a single transaction from the given streams
+     *
+     * @param rawIn the stream to read from
+     * @param rawOut the stream to write responses to
+     * @param peerDescription a description of the peer, used in the Transit URI of the RECEIVE events and in log messages
+     * @return the number of FlowFiles received
+     * @throws IOException if unable to communicate with the peer or to persist the FlowFiles
+     */
+    public int receiveFlowFiles(final InputStream rawIn, final OutputStream rawOut, final String peerDescription) throws IOException {
+        final BufferedInputStream bufferedIn = new BufferedInputStream(rawIn, 65536);
+        final DataInputStream in = new DataInputStream(bufferedIn);
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(rawOut));
+
+        final int version = in.readInt();
+        if (version != PROTOCOL_VERSION) {
+            logger.warn("Peer {} requested version {} of the load balance protocol, but only version {} is supported", peerDescription, version, PROTOCOL_VERSION);
+            out.write(ABORT_PROTOCOL_NEGOTIATION);
+            out.flush();
+            return 0;
+        }
+        out.write(VERSION_ACCEPTED);
+        out.flush();
+
+        final String nodeIdentifier = in.readUTF();
+        final String connectionId = in.readUTF();
+
+        final Connection connection = connectionLookup.getConnection(connectionId);
+        if (connection == null || !(connection.getFlowFileQueue() instanceof LoadBalancedFlowFileQueue)) {
+            logger.warn("Node {} at {} attempted to send FlowFiles to Connection {} but no load-balanced Connection exists with that ID", nodeIdentifier, peerDescription, connectionId);
+            out.write(CONNECTION_NOT_FOUND);
+            out.flush();
+            return 0;
+        }
+
+        final LoadBalancedFlowFileQueue queue = (LoadBalancedFlowFileQueue) connection.getFlowFileQueue();
+        if (queue.isLocalPartitionFull()) {
+            logger.debug("Declining FlowFiles from {} for {} because the local partition is full", nodeIdentifier, queue);
+            out.write(QUEUE_FULL);
+            out.flush();
+            return 0;
+        }
+        out.write(SPACE_AVAILABLE);
+        out.flush();
+
+        final List<FlowFileRecord> flowFiles = new ArrayList<>();
+        boolean committed = false;
+        try {
+            final CRC32 checksum = new CRC32();
+            final DataInputStream checkedIn = new DataInputStream(new CheckedInputStream(bufferedIn, checksum));
+
+            int indicator;
+            while ((indicator = checkedIn.read()) == MORE_FLOWFILES) {
+                flowFiles.add(receiveFlowFile(checkedIn));
+            }
+
+            if (indicator != NO_MORE_FLOWFILES) {
+                throw new IOException("Expected to receive the end of the FlowFiles from " + peerDescription + " but received 0x" + Integer.toHexString(indicator));
+            }
+
+            final long expectedChecksum = in.readLong();
+            if (expectedChecksum != checksum.getValue()) {
+                logger.error("Received {} FlowFiles from {} but the checksum did not match; the data will be discarded", flowFiles.size(), peerDescription);
+                out.write(REJECT_CHECKSUM);
+                out.flush();
+                return 0;
+            }
+            out.write(CONFIRM_CHECKSUM);
+            out.flush();
+
+            final int completion = in.read();
+            if (completion == ABORT_TRANSACTION) {
+                logger.debug("Node {} aborted the transaction for {}", nodeIdentifier, queue);
+                return 0;
+            } else if (completion != COMPLETE_TRANSACTION) {
+                throw new IOException("Expected " + peerDescription + " to complete the transaction but received 0x" + Integer.toHexString(completion));
+            }
+
+            commit(queue, flowFiles, "nifi://" + peerDescription + "/loadbalance/" + connectionId);
+            committed = true;
+        } finally {
+            if (!committed) {
+                for (final FlowFileRecord flowFile : flowFiles) {
+                    contentRepository.decrementClaimantCount(flowFile.getContentClaim());
+                }
+            }
+        }
+
+        out.write(CONFIRM_COMPLETE_TRANSACTION);
+        out.flush();
+
+        logger.debug("Received {} FlowFiles from node {} for {}", flowFiles.size(), nodeIdentifier, queue);
+        return flowFiles.size();
+    }
+
+    private FlowFileRecord receiveFlowFile(final DataInputStream in) throws IOException {
+        final Map<String, String> attributes = FlowFileAttributesCodec.readAttributes(in);
+        final long lineageStartDate = in.readLong();
+        final long entryDate = in.readLong();
+        final long size = in.readLong();
+        if (size < 0) {
+            throw new IOException("Received FlowFile with an invalid size of " + size + " bytes");
+        }
+
+        ContentClaim contentClaim = null;
+        if (size > 0) {
+            contentClaim = contentRepository.create(false);
+            try (final OutputStream claimOut = contentRepository.write(contentClaim)) {
+                StreamUtils.copy(in, claimOut, size);
+            } catch (final IOException ioe) {
+                contentRepository.decrementClaimantCount(contentClaim);
+                throw ioe;
+            }
+        }
+
+        return new StandardFlowFileRecord.Builder()
+            .id(flowFileRepository.getNextFlowFileSequence())
+            .addAttributes(attributes)
+            .lineageStart(lineageStartDate, 0L)
+            .entryDate(entryDate)
+            .contentClaim(contentClaim)
+            .contentClaimOffset(0L)
+            .size(size)
+            .build();
+    }
+
+    private void commit(final FlowFileQueue queue, final List<FlowFileRecord> flowFiles, final String transitUri) throws IOException {
+        final List<RepositoryRecord> repositoryRecords = new ArrayList<>(flowFiles.size());
+        final List<ProvenanceEventRecord> provenanceEvents = new ArrayList<>(flowFiles.size());
+        for (final FlowFileRecord flowFile : flowFiles) {
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue);
+            record.setWorking(flowFile, flowFile.getAttributes());
+            record.setDestination(queue);
+            repositoryRecords.add(record);
+
+            final ProvenanceEventBuilder builder = provenanceRepository.eventBuilder();
+            builder.fromFlowFile(flowFile);
+            builder.setEventType(ProvenanceEventType.RECEIVE);
+            builder.setTransitUri(transitUri);
+            builder.setComponentId(queue.getIdentifier());
+            builder.setComponentType("Connection");
+            builder.setSourceQueueIdentifier(queue.getIdentifier());
+            builder.setDetails("Received from another node in the cluster for a load-balanced Connection");
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                builder.setCurrentContentClaim(contentClaim.getResourceClaim().getContainer(), contentClaim.getResourceClaim().getSection(),
+                    contentClaim.getResourceClaim().getId(), contentClaim.getOffset(), flowFile.getSize());
+            }
+            provenanceEvents.add(builder.build());
+        }
+
+        flowFileRepository.updateRepository(repositoryRecords);
+        provenanceRepository.registerEvents(provenanceEvents);
+        ((LoadBalancedFlowFileQueue) queue).receiveFromPeer(flowFiles);
+    }
+
+    /**
+     * Provides the Connection with a given identifier
+     */
+    public interface ConnectionLookup {
+        Connection getConnection(String connectionId);
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.nifi.processor.FlowFileFilter;
 import org.apache.nifi.processor.ProcessSession;
 import org.apache.nifi.processor.ProcessSessionFactory;
 import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.processor.io.InputChannelCallback;
 import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.processor.io.StreamCallback;
@@ -117,6 +118,11 @@ public class BatchingSessionFactory implements ProcessSessionFactory {
             return session.create(parents);
         }
 
+        @Override
+        public List<FlowFile> create(FlowFile parent, List<Map<String, String>> childAttributes) {
+            return session.create(parent, childAttributes);
+        }
+
         @Override
         public FlowFile clone(FlowFile example) {
             return session.clone(example);
@@ -197,6 +203,11 @@ public class BatchingSessionFactory implements ProcessSessionFactory {
             session.read(source, allowSessionStreamManagement, reader);
         }
 
+        @Override
+        public void readChannel(FlowFile source, InputChannelCallback reader) {
+            session.readChannel(source, reader);
+        }
+
         @Override
         public InputStream read(FlowFile flowFile) {
             return session.read(flowFile);
@@ -23,6 +23,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -64,6 +66,7 @@ import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.processor.DataUnit;
@@ -122,6 +125,8 @@ public class FileSystemRepository implements ContentRepository {
     private final Map<String, Long> minUsableContainerBytesForArchive = new HashMap<>();
     private final boolean alwaysSync;
     private final ScheduledExecutorService containerCleanupExecutor;
+    // null if memory-mapped reads are disabled
+    private final MappedResourceClaimCache mappedClaimCache;
 
     private ResourceClaimManager resourceClaimManager; // effectively final
 
@@ -148,6 +153,7 @@ public class FileSystemRepository implements ContentRepository {
         maxAppendableClaimLength = 0;
         maxFlowFilesPerClaim = 0;
         writableClaimQueue = null;
+        mappedClaimCache = null;
     }
 
     public FileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
@@ -248,6 +254,15 @@ public class FileSystemRepository implements ContentRepository {
 
         this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
         LOG.info("Initializing FileSystemRepository with 'Always Sync' set to {}", alwaysSync);
+
+        final String mappedCacheSize = nifiProperties.getProperty(NiFiProperties.CONTENT_REPOSITORY_MAPPED_CACHE_SIZE, NiFiProperties.DEFAULT_CONTENT_REPOSITORY_MAPPED_CACHE_SIZE);
+        final long maxMappedBytes = DataUnit.parseDataSize(mappedCacheSize.trim(), DataUnit.B).longValue();
+        if (maxMappedBytes > 0L) {
+            LOG.info("Initializing FileSystemRepository with up to {} of small-claim content memory-mapped for reading", mappedCacheSize);
+            mappedClaimCache = new MappedResourceClaimCache(maxMappedBytes);
+        } else {
+            mappedClaimCache = null;
+        }
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
@@ -292,6 +307,10 @@ public class FileSystemRepository implements ContentRepository {
             } catch (final IOException ioe) {
             }
         }
+
+        if (mappedClaimCache != null) {
+            mappedClaimCache.clear();
+        }
     }
 
     private static double getRatio(final String value) {
@@ -656,6 +675,10 @@ public class FileSystemRepository implements ContentRepository {
         // Ensure that we have no writable claim streams for this resource claim
         final ByteCountingOutputStream bcos = writableClaimStreams.remove(claim);
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.evict(claim);
+        }
+
         if (bcos != null) {
             try {
                 bcos.close();
@@ -842,7 +865,24 @@ public class FileSystemRepository implements ContentRepository {
         if (claim == null) {
             return new ByteArrayInputStream(new byte[0]);
         }
+
+        // Small claims may be served from a memory-mapped file, which avoids opening the file and skipping to the claim's offset.
+        final boolean mappable = mappedClaimCache != null && claim.getLength() >= 0 && claim.getLength() <= maxAppendableClaimLength;
+        if (mappable) {
+            final ByteBuffer mappedContent = mappedClaimCache.getContent(claim.getResourceClaim(), claim.getOffset(), claim.getLength());
+            if (mappedContent != null) {
+                return new ByteBufferInputStream(mappedContent);
+            }
+        }
+
         final Path path = getPath(claim, true);
+        if (mappable) {
+            final ByteBuffer mappedContent = mappedClaimCache.mapContent(claim.getResourceClaim(), path, claim.getOffset(), claim.getLength());
+            if (mappedContent != null) {
+                return new ByteBufferInputStream(mappedContent);
+            }
+        }
+
         final FileInputStream fis = new FileInputStream(path.toFile());
         if (claim.getOffset() > 0L) {
             try {
@@ -862,6 +902,24 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    @Override
+    public FileChannel readChannel(final ContentClaim claim) throws IOException {
+        if (claim == null) {
+            return null;
+        }
+
+        final Path path = getPath(claim, true);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            channel.position(claim.getOffset());
+        } catch (final IOException ioe) {
+            IOUtils.closeQuietly(channel);
+            throw ioe;
+        }
+
+        return channel;
+    }
+
     @Override
     public OutputStream write(final ContentClaim claim) throws IOException {
         return write(claim, false);
@@ -1030,6 +1088,10 @@ public class FileSystemRepository implements ContentRepository {
 
     @Override
     public void purge() {
+        if (mappedClaimCache != null) {
+            mappedClaimCache.clear();
+        }
+
         // delete all content from repositories
         for (final Path path : containers.values()) {
             FileUtils.deleteFilesInDir(path.toFile(), null, LOG, true);
@@ -1157,6 +1219,10 @@ public class FileSystemRepository implements ContentRepository {
             }
         }
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.evict(claim);
+        }
+
         final Path curPath = getPath(claim);
         if (curPath == null) {
             return false;
@@ -1171,6 +1237,34 @@ public class FileSystemRepository implements ContentRepository {
         return writableClaimStreams.size();
     }
 
+    /**
+     * @return the number of bytes of content that are currently memory-mapped for reading
+     */
+    public long getMappedBytes() {
+        return mappedClaimCache == null ? 0L : mappedClaimCache.getMappedBytes();
+    }
+
+    /**
+     * @return the number of files that are currently memory-mapped for reading
+     */
+    public int getMappedFileCount() {
+        return mappedClaimCache == null ? 0 : mappedClaimCache.getMappedFileCount();
+    }
+
+    /**
+     * @return the number of small-claim reads that were served from a file that was already memory-mapped
+     */
+    public long getMappedReadHitCount() {
+        return mappedClaimCache == null ? 0L : mappedClaimCache.getHitCount();
+    }
+
+    /**
+     * @return the number of small-claim reads that required a file to be memory-mapped first
+     */
+    public long getMappedReadMissCount() {
+        return mappedClaimCache == null ? 0L : mappedClaimCache.getMissCount();
+    }
+
     // marked protected for visibility and ability to override for unit tests.
     protected boolean archive(final Path curPath) throws IOException {
         // check if already archived
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+
+/**
+ * <p>
+ * Keeps the files that back recently read Resource Claims memory-mapped so that the content of small Content Claims can be
+ * served as slices of a ByteBuffer, rather than opening a new FileInputStream and skipping to the claim's offset for every read.
+ * </p>
+ *
+ * <p>
+ * Mappings are held in a least-recently-used map that is bounded by the total number of bytes mapped. A file that is still being
+ * appended to is mapped at its current length; if a claim is later requested that lies beyond the end of the mapping, the file is
+ * mapped again. Mappings are released when evicted, when the Resource Claim is removed or archived, or when the cache is cleared.
+ * Because Java does not provide a way to explicitly unmap a file, the memory is not returned to the Operating System until
+ * the buffer has been garbage collected.
+ * </p>
+ */
+class MappedResourceClaimCache {
+
+    private final long maxMappedBytes;
+    private final Map<ResourceClaim, MappedByteBuffer> mappedBuffers = new LinkedHashMap<>(16, 0.75F, true); // guarded by synchronizing on this
+    private long mappedBytes = 0L; // guarded by synchronizing on this
+
+    private final AtomicLong hitCount = new AtomicLong(0L);
+    private final AtomicLong missCount = new AtomicLong(0L);
+
+    MappedResourceClaimCache(final long maxMappedBytes) {
+        this.maxMappedBytes = maxMappedBytes;
+    }
+
+    /**
+     * Returns a slice of a previously mapped file, if the given region has already been mapped
+     *
+     * @param resourceClaim the Resource Claim whose file holds the content
+     * @param offset the offset into the file at which the content begins
+     * @param length the number of bytes of content
+     * @return a ByteBuffer containing exactly the requested content, or <code>null</code> if the region is not mapped
+     */
+    ByteBuffer getContent(final ResourceClaim resourceClaim, final long offset, final long length) {
+        final MappedByteBuffer mapped;
+        synchronized (this) {
+            mapped = mappedBuffers.get(resourceClaim);
+        }
+
+        if (mapped == null || offset + length > mapped.capacity()) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        hitCount.incrementAndGet();
+        return slice(mapped, offset, length);
+    }
+
+    /**
+     * Maps the file at the given path and returns the requested region of it. The file is not mapped if it is larger than
+     * the maximum number of bytes that may be mapped, or if it does not contain the requested region.
+     *
+     * @param resourceClaim the Resource Claim whose file holds the content
+     * @param path the path of the file
+     * @param offset the offset into the file at which the content begins
+     * @param length the number of bytes of content
+     * @return a ByteBuffer containing exactly the requested content, or <code>null</code> if the file could not be mapped
+     * @throws IOException if unable to map the file
+     */
+    ByteBuffer mapContent(final ResourceClaim resourceClaim, final Path path, final long offset, final long length) throws IOException {
+        final MappedByteBuffer mapped;
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long fileSize = channel.size();
+            if (fileSize > maxMappedBytes || fileSize > Integer.MAX_VALUE || offset + length > fileSize) {
+                return null;
+            }
+
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0L, fileSize);
+        }
+
+        synchronized (this) {
+            final MappedByteBuffer previous = mappedBuffers.put(resourceClaim, mapped);
+            if (previous != null) {
+                mappedBytes -= previous.capacity();
+            }
+            mappedBytes += mapped.capacity();
+
+            final Iterator<MappedByteBuffer> itr = mappedBuffers.values().iterator();
+            while (mappedBytes > maxMappedBytes && itr.hasNext()) {
+                final MappedByteBuffer eldest = itr.next();
+                if (eldest == mapped) {
+                    continue;
+                }
+
+                itr.remove();
+                mappedBytes -= eldest.capacity();
+            }
+        }
+
+        return slice(mapped, offset, length);
+    }
+
+    private ByteBuffer slice(final MappedByteBuffer mapped, final long offset, final long length) {
+        final ByteBuffer duplicate = mapped.duplicate();
+        duplicate.position((int) offset);
+        duplicate.limit((int) (offset + length));
+        return duplicate.slice();
+    }
+
+    synchronized void evict(final ResourceClaim resourceClaim) {
+        final MappedByteBuffer removed = mappedBuffers.remove(resourceClaim);
+        if (removed != null) {
+            mappedBytes -= removed.capacity();
+        }
+    }
+
+    synchronized void clear() {
+        mappedBuffers.clear();
+        mappedBytes = 0L;
+    }
+
+    synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    synchronized int getMappedFileCount() {
+        return mappedBuffers.size();
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+}
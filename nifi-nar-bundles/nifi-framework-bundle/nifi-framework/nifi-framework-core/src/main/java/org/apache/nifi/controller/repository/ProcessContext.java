@@ -43,17 +43,27 @@ public class ProcessContext {
     private final FlowFileEventRepository flowFileEventRepo;
     private final CounterRepository counterRepo;
     private final ProvenanceEventRepository provenanceRepo;
+    private final ProvenanceSamplingPolicy provenanceSamplingPolicy;
     private final AtomicLong connectionIndex;
 
     public ProcessContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
             final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
             final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository,
+            ProvenanceSamplingPolicy.RETAIN_ALL);
+    }
+
+    public ProcessContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
+            final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
+            final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository,
+            final ProvenanceSamplingPolicy provenanceSamplingPolicy) {
         this.connectable = connectable;
         contentRepo = contentRepository;
         flowFileRepo = flowFileRepository;
         flowFileEventRepo = flowFileEventRepository;
         counterRepo = counterRepository;
         provenanceRepo = provenanceRepository;
+        this.provenanceSamplingPolicy = provenanceSamplingPolicy;
 
         this.connectionIndex = connectionIndex;
     }
@@ -147,6 +157,10 @@ public class ProcessContext {
         return provenanceRepo;
     }
 
+    ProvenanceSamplingPolicy getProvenanceSamplingPolicy() {
+        return provenanceSamplingPolicy;
+    }
+
     long getNextFlowFileSequence() {
         return flowFileRepo.getNextFlowFileSequence();
     }
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.util.NiFiProperties;
+
+/**
+ * <p>
+ * Determines which Provenance Events that are generated by a component are sent to the Provenance Repository. Each event is
+ * subject to a single {@link Retention}, which is resolved, in order of precedence, from the retention configured for the
+ * component that generated the event, the retention configured for the type of the event, and the default retention.
+ * </p>
+ *
+ * <p>
+ * A retention is configured in nifi.properties using one of the following values:
+ * </p>
+ * <ul>
+ * <li><code>ALL</code> - all events are retained. This is the default.</li>
+ * <li><code>1-in-N</code> - the first event and every Nth event after it are retained, where N is a positive integer.
+ * Events are counted separately for each component and event type.</li>
+ * <li><code>LINEAGE_ONLY</code> - only the events that create, split, merge, transfer or end a lineage are retained, so that
+ * the lineage of a FlowFile remains connected while events that only describe changes to a FlowFile are discarded.</li>
+ * </ul>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+public class ProvenanceSamplingPolicy {
+
+    public static final ProvenanceSamplingPolicy RETAIN_ALL = new ProvenanceSamplingPolicy(Retention.ALL, Collections.emptyMap(), Collections.emptyMap());
+
+    private static final Set<ProvenanceEventType> LINEAGE_EVENT_TYPES = Collections.unmodifiableSet(EnumSet.of(
+        ProvenanceEventType.CREATE, ProvenanceEventType.RECEIVE, ProvenanceEventType.FETCH, ProvenanceEventType.CLONE, ProvenanceEventType.FORK,
+        ProvenanceEventType.JOIN, ProvenanceEventType.SEND, ProvenanceEventType.DROP, ProvenanceEventType.EXPIRE));
+
+    private static final Pattern SAMPLE_PATTERN = Pattern.compile("1-in-(\\d+)", Pattern.CASE_INSENSITIVE);
+
+    private final Retention defaultRetention;
+    private final Map<ProvenanceEventType, Retention> eventTypeRetentions;
+    private final Map<String, Retention> componentRetentions;
+    private final boolean retainAll;
+    private final ConcurrentMap<String, AtomicLong> sampleCounts = new ConcurrentHashMap<>();
+
+    public ProvenanceSamplingPolicy(final Retention defaultRetention, final Map<ProvenanceEventType, Retention> eventTypeRetentions,
+        final Map<String, Retention> componentRetentions) {
+        this.defaultRetention = defaultRetention;
+        this.eventTypeRetentions = eventTypeRetentions;
+        this.componentRetentions = componentRetentions;
+
+        this.retainAll = defaultRetention.isRetainAll()
+            && eventTypeRetentions.values().stream().allMatch(Retention::isRetainAll)
+            && componentRetentions.values().stream().allMatch(Retention::isRetainAll);
+    }
+
+    /**
+     * @return <code>true</code> if every event is retained, regardless of the component that generated it or its type
+     */
+    public boolean isRetainAll() {
+        return retainAll;
+    }
+
+    /**
+     * Determines whether or not the given event should be sent to the Provenance Repository. If the event is subject to
+     * sampling, calling this method counts the event toward the sample.
+     *
+     * @param event the event
+     * @return <code>true</code> if the event should be sent to the Provenance Repository, <code>false</code> if it should be discarded
+     */
+    public boolean isRetained(final ProvenanceEventRecord event) {
+        if (retainAll) {
+            return true;
+        }
+
+        final String componentId = event.getComponentId();
+        final ProvenanceEventType eventType = event.getEventType();
+
+        Retention retention = componentRetentions.get(componentId);
+        if (retention == null) {
+            retention = eventTypeRetentions.getOrDefault(eventType, defaultRetention);
+        }
+
+        switch (retention.getMode()) {
+            case LINEAGE_ONLY:
+                return LINEAGE_EVENT_TYPES.contains(eventType);
+            case SAMPLE:
+                final AtomicLong count = sampleCounts.computeIfAbsent(componentId + "/" + eventType, key -> new AtomicLong(0L));
+                return count.getAndIncrement() % retention.getSampleInterval() == 0;
+            case ALL:
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Creates a sampling policy from the {@link NiFiProperties#PROVENANCE_SAMPLING_POLICY},
+     * {@link NiFiProperties#PROVENANCE_SAMPLING_POLICY_EVENT_TYPE_PREFIX} and {@link NiFiProperties#PROVENANCE_SAMPLING_POLICY_COMPONENT_PREFIX}
+     * properties.
+     *
+     * @param properties the NiFi properties
+     * @return the sampling policy
+     * @throws IllegalArgumentException if any of the properties has an invalid value
+     */
+    public static ProvenanceSamplingPolicy fromProperties(final NiFiProperties properties) {
+        final Retention defaultRetention = Retention.parse(NiFiProperties.PROVENANCE_SAMPLING_POLICY,
+            properties.getProperty(NiFiProperties.PROVENANCE_SAMPLING_POLICY, Retention.ALL.toString()));
+
+        final Map<ProvenanceEventType, Retention> eventTypeRetentions = new HashMap<>();
+        final Map<String, Retention> componentRetentions = new HashMap<>();
+
+        for (final String propertyName : properties.getPropertyKeys()) {
+            final String value = properties.getProperty(propertyName);
+            if (StringUtils.isBlank(value)) {
+                continue;
+            }
+
+            if (propertyName.startsWith(NiFiProperties.PROVENANCE_SAMPLING_POLICY_EVENT_TYPE_PREFIX)) {
+                final String eventTypeName = StringUtils.substringAfter(propertyName, NiFiProperties.PROVENANCE_SAMPLING_POLICY_EVENT_TYPE_PREFIX);
+
+                final ProvenanceEventType eventType;
+                try {
+                    eventType = ProvenanceEventType.valueOf(eventTypeName.toUpperCase());
+                } catch (final IllegalArgumentException iae) {
+                    throw new IllegalArgumentException("Property " + propertyName + " does not reference a valid Provenance Event Type", iae);
+                }
+
+                eventTypeRetentions.put(eventType, Retention.parse(propertyName, value));
+            } else if (propertyName.startsWith(NiFiProperties.PROVENANCE_SAMPLING_POLICY_COMPONENT_PREFIX)) {
+                final String componentId = StringUtils.substringAfter(propertyName, NiFiProperties.PROVENANCE_SAMPLING_POLICY_COMPONENT_PREFIX);
+                componentRetentions.put(componentId, Retention.parse(propertyName, value));
+            }
+        }
+
+        return new ProvenanceSamplingPolicy(defaultRetention, eventTypeRetentions, componentRetentions);
+    }
+
+    @Override
+    public String toString() {
+        return "ProvenanceSamplingPolicy[default=" + defaultRetention + ", eventTypes=" + eventTypeRetentions + ", components=" + componentRetentions + "]";
+    }
+
+
+    public static enum RetentionMode {
+        ALL,
+        SAMPLE,
+        LINEAGE_ONLY;
+    }
+
+    /**
+     * Describes which of the events that a policy applies to are retained
+     */
+    public static class Retention {
+        public static final Retention ALL = new Retention(RetentionMode.ALL, 1);
+        public static final Retention LINEAGE_ONLY = new Retention(RetentionMode.LINEAGE_ONLY, 1);
+
+        private final RetentionMode mode;
+        private final int sampleInterval;
+
+        private Retention(final RetentionMode mode, final int sampleInterval) {
+            this.mode = mode;
+            this.sampleInterval = sampleInterval;
+        }
+
+        /**
+         * @param sampleInterval the number of events out of which one event is retained
+         * @return a Retention that keeps the first event and every <code>sampleInterval</code>th event after it
+         */
+        public static Retention sample(final int sampleInterval) {
+            if (sampleInterval < 1) {
+                throw new IllegalArgumentException("Sample interval must be positive");
+            }
+
+            return sampleInterval == 1 ? ALL : new Retention(RetentionMode.SAMPLE, sampleInterval);
+        }
+
+        public RetentionMode getMode() {
+            return mode;
+        }
+
+        public int getSampleInterval() {
+            return sampleInterval;
+        }
+
+        boolean isRetainAll() {
+            return mode == RetentionMode.ALL;
+        }
+
+        static Retention parse(final String propertyName, final String value) {
+            final String trimmed = value.trim();
+            if (RetentionMode.ALL.name().equalsIgnoreCase(trimmed)) {
+                return ALL;
+            }
+            if (RetentionMode.LINEAGE_ONLY.name().equalsIgnoreCase(trimmed)) {
+                return LINEAGE_ONLY;
+            }
+
+            final Matcher matcher = SAMPLE_PATTERN.matcher(trimmed);
+            if (matcher.matches()) {
+                try {
+                    return sample(Integer.parseInt(matcher.group(1)));
+                } catch (final IllegalArgumentException iae) {
+                    throw new IllegalArgumentException("Property " + propertyName + " has an invalid sample interval: " + value, iae);
+                }
+            }
+
+            throw new IllegalArgumentException("Property " + propertyName + " has an invalid value of '" + value
+                + "'; valid values are ALL, LINEAGE_ONLY, or 1-in-N, where N is a positive integer");
+        }
+
+        @Override
+        public String toString() {
+            return mode == RetentionMode.SAMPLE ? "1-in-" + sampleInterval : mode.name();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -54,6 +55,7 @@ import org.apache.nifi.controller.repository.claim.ContentClaimWriteCache;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.io.DisableOnCloseInputStream;
 import org.apache.nifi.controller.repository.io.DisableOnCloseOutputStream;
+import org.apache.nifi.controller.repository.io.FlowFileAccessFileChannel;
 import org.apache.nifi.controller.repository.io.FlowFileAccessInputStream;
 import org.apache.nifi.controller.repository.io.FlowFileAccessOutputStream;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
@@ -67,6 +69,7 @@ import org.apache.nifi.processor.exception.FlowFileAccessException;
 import org.apache.nifi.processor.exception.FlowFileHandlingException;
 import org.apache.nifi.processor.exception.MissingFlowFileException;
 import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.io.InputChannelCallback;
 import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.processor.io.StreamCallback;
@@ -78,6 +81,7 @@ import org.apache.nifi.provenance.ProvenanceReporter;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.stream.io.ByteCountingInputStream;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
+import org.apache.nifi.stream.io.InputStreamContentChannel;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -527,6 +531,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             flowFileEvent.setBytesReceived(bytesReceived);
             flowFileEvent.setFlowFilesSent(flowFilesSent);
             flowFileEvent.setBytesSent(bytesSent);
+            flowFileEvent.setProvenanceEventsDiscarded(checkpoint.provenanceEventsDiscarded);
 
             long lineageMillis = 0L;
             for (final Map.Entry<FlowFileRecord, StandardRepositoryRecord> entry : checkpoint.records.entrySet()) {
@@ -706,6 +711,17 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             }
         }
 
+        // Discard any events that the Provenance Sampling Policy does not retain. This is done only after all of the events above
+        // have been determined, so that discarding an event never causes the framework to generate a replacement event for the FlowFile.
+        final List<ProvenanceEventRecord> autoTermEvents = checkpoint.autoTerminatedEvents;
+        final ProvenanceSamplingPolicy samplingPolicy = context.getProvenanceSamplingPolicy();
+        if (!samplingPolicy.isRetainAll()) {
+            final int eventCount = recordsToSubmit.size() + autoTermEvents.size();
+            recordsToSubmit.removeIf(event -> !samplingPolicy.isRetained(event));
+            autoTermEvents.removeIf(event -> !samplingPolicy.isRetained(event));
+            checkpoint.provenanceEventsDiscarded = eventCount - recordsToSubmit.size() - autoTermEvents.size();
+        }
+
         // We want to submit the 'recordsToSubmit' collection, followed by the auto-terminated events to the Provenance Repository.
         // We want to do this with a single call to ProvenanceEventRepository#registerEvents because it may be much more efficient
         // to do so.
@@ -723,7 +739,6 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             flowFileRecordMap.put(flowFile.getAttribute(CoreAttributes.UUID.key()), flowFile);
         }
 
-        final List<ProvenanceEventRecord> autoTermEvents = checkpoint.autoTerminatedEvents;
         final Iterable<ProvenanceEventRecord> iterable = new Iterable<ProvenanceEventRecord>() {
             final Iterator<ProvenanceEventRecord> recordsToSubmitIterator = recordsToSubmit.iterator();
             final Iterator<ProvenanceEventRecord> autoTermIterator = autoTermEvents == null ? null : autoTermEvents.iterator();
@@ -1463,6 +1478,11 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         set.add(flowFile);
 
         incrementConnectionOutputCounts(connection, flowFile);
+
+        final Long lastQueueDate = flowFile.getLastQueueDate();
+        if (lastQueueDate != null) {
+            context.getFlowFileEventRepository().recordDuration(connection.getIdentifier(), System.currentTimeMillis() - lastQueueDate, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
@@ -1698,6 +1718,10 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
     }
 
     private void registerForkEvent(final FlowFile parent, final FlowFile child) {
+        getForkEventBuilder(parent).addChildFlowFile(child);
+    }
+
+    private ProvenanceEventBuilder getForkEventBuilder(final FlowFile parent) {
         ProvenanceEventBuilder eventBuilder = forkEventBuilders.get(parent);
         if (eventBuilder == null) {
             eventBuilder = context.getProvenanceRepository().eventBuilder();
@@ -1718,7 +1742,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             forkEventBuilders.put(parent, eventBuilder);
         }
 
-        eventBuilder.addChildFlowFile(child);
+        return eventBuilder;
     }
 
     private void registerJoinEvent(final FlowFile child, final Collection<FlowFile> parents) {
@@ -2198,6 +2222,72 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         }
     }
 
+    @Override
+    public void readChannel(FlowFile source, final InputChannelCallback reader) {
+        source = validateRecordState(source, true);
+        final StandardRepositoryRecord record = records.get(source);
+        final ContentClaim claim = record.getCurrentClaim();
+
+        try {
+            ensureNotAppending(claim);
+            claimCache.flush(claim);
+        } catch (final IOException e) {
+            throw new FlowFileAccessException("Failed to access ContentClaim for " + source.toString(), e);
+        }
+
+        final FileChannel fileChannel;
+        try {
+            fileChannel = source.getSize() == 0L ? null : context.getContentRepository().readChannel(claim);
+        } catch (final ContentNotFoundException nfe) {
+            handleContentNotFound(nfe, record);
+            return;
+        } catch (final IOException e) {
+            throw new FlowFileAccessException("Failed to read content of " + source, e);
+        }
+
+        // If the Content Repository is not able to provide direct access to the file, fall back to reading the content as a stream.
+        if (fileChannel == null) {
+            final long size = source.getSize();
+            read(source, false, in -> reader.process(new InputStreamContentChannel(in, size)));
+            return;
+        }
+
+        final FlowFileAccessFileChannel contentChannel;
+        try {
+            contentChannel = new FlowFileAccessFileChannel(fileChannel, fileChannel.position() + record.getCurrentClaimOffset(), source, claim);
+        } catch (final IOException e) {
+            IOUtils.closeQuietly(fileChannel);
+            throw new FlowFileAccessException("Failed to read content of " + source, e);
+        }
+
+        try {
+            boolean cnfeThrown = false;
+
+            try {
+                incrementReadCount(source);
+                reader.process(contentChannel);
+            } catch (final ContentNotFoundException cnfe) {
+                cnfeThrown = true;
+                throw cnfe;
+            } finally {
+                decrementReadCount(source);
+                contentChannel.close();
+                bytesRead += contentChannel.getBytesConsumed();
+
+                // if cnfeThrown is true, we don't need to re-thrown the Exception; it will propagate.
+                if (!cnfeThrown && contentChannel.getContentNotFoundException() != null) {
+                    throw contentChannel.getContentNotFoundException();
+                }
+            }
+        } catch (final ContentNotFoundException nfe) {
+            handleContentNotFound(nfe, record);
+        } catch (final IOException ex) {
+            throw new ProcessException("IOException thrown from " + connectableDescription + ": " + ex.toString(), ex);
+        } finally {
+            IOUtils.closeQuietly(fileChannel);
+        }
+    }
+
     @Override
     public InputStream read(FlowFile source) {
         source = validateRecordState(source, true);
@@ -3100,17 +3190,58 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
 
     @Override
     public FlowFile create(final FlowFile parent) {
-        final Map<String, String> newAttributes = new HashMap<>(3);
-        newAttributes.put(CoreAttributes.FILENAME.key(), String.valueOf(System.nanoTime()));
-        newAttributes.put(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
+        final Map<String, String> newAttributes = getInheritedAttributes(parent, 1);
         newAttributes.put(CoreAttributes.UUID.key(), UUID.randomUUID().toString());
 
-        final StandardFlowFileRecord.Builder fFileBuilder = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence());
+        final FlowFileRecord fFile = createChild(parent, newAttributes);
+        registerForkEvent(parent, fFile);
+        return fFile;
+    }
+
+    @Override
+    public List<FlowFile> create(final FlowFile parent, final List<Map<String, String>> childAttributes) {
+        final List<FlowFile> children = new ArrayList<>(childAttributes.size());
+        if (childAttributes.isEmpty()) {
+            return children;
+        }
+
+        final Map<String, String> inheritedAttributes = getInheritedAttributes(parent, 0);
+        final ProvenanceEventBuilder forkEventBuilder = getForkEventBuilder(parent);
+
+        for (final Map<String, String> attributes : childAttributes) {
+            final int attributeCount = inheritedAttributes.size() + (attributes == null ? 0 : attributes.size()) + 1;
+            final Map<String, String> newAttributes = new HashMap<>(attributeCount * 4 / 3 + 1);
+            newAttributes.putAll(inheritedAttributes);
+            if (attributes != null) {
+                newAttributes.putAll(attributes);
+            }
+            newAttributes.put(CoreAttributes.UUID.key(), UUID.randomUUID().toString());
+
+            final FlowFileRecord fFile = createChild(parent, newAttributes);
+            forkEventBuilder.addChildFlowFile(fFile);
+            children.add(fFile);
+        }
+
+        return children;
+    }
+
+    /**
+     * Creates a Map containing the attributes that a child FlowFile should inherit from its parent
+     *
+     * @param parent the parent FlowFile
+     * @param additionalCapacity the number of additional attributes that the caller intends to add to the Map
+     * @return a new, modifiable Map of the attributes that a child of the given parent should have
+     */
+    private Map<String, String> getInheritedAttributes(final FlowFile parent, final int additionalCapacity) {
+        final Map<String, String> parentAttributes = parent.getAttributes();
+        final Map<String, String> newAttributes = new HashMap<>((parentAttributes.size() + 2 + additionalCapacity) * 4 / 3 + 1);
+        newAttributes.put(CoreAttributes.FILENAME.key(), String.valueOf(System.nanoTime()));
+        newAttributes.put(CoreAttributes.PATH.key(), DEFAULT_FLOWFILE_PATH);
 
         // copy all attributes from parent except for the "special" attributes. Copying the special attributes
         // can cause problems -- especially the ALTERNATE_IDENTIFIER, because copying can cause Provenance Events
         // to be incorrectly created.
-        for (final Map.Entry<String, String> entry : parent.getAttributes().entrySet()) {
+        for (final Map.Entry<String, String> entry : parentAttributes.entrySet()) {
             final String key = entry.getKey();
             final String value = entry.getValue();
             if (CoreAttributes.ALTERNATE_IDENTIFIER.key().equals(key)
@@ -3121,16 +3252,19 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             newAttributes.put(key, value);
         }
 
-        fFileBuilder.lineageStart(parent.getLineageStartDate(), parent.getLineageStartIndex());
-        fFileBuilder.addAttributes(newAttributes);
+        return newAttributes;
+    }
+
+    private FlowFileRecord createChild(final FlowFile parent, final Map<String, String> newAttributes) {
+        final FlowFileRecord fFile = new StandardFlowFileRecord.Builder().id(context.getNextFlowFileSequence())
+            .lineageStart(parent.getLineageStartDate(), parent.getLineageStartIndex())
+            .addAttributes(newAttributes)
+            .build();
 
-        final FlowFileRecord fFile = fFileBuilder.build();
         final StandardRepositoryRecord record = new StandardRepositoryRecord(null);
         record.setWorking(fFile, newAttributes);
         records.put(fFile, record);
         createdFlowFiles.add(fFile.getAttribute(CoreAttributes.UUID.key()));
-
-        registerForkEvent(parent, fFile);
         return fFile;
     }
 
@@ -3268,6 +3402,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         private long bytesWritten = 0L;
         private int flowFilesIn = 0, flowFilesOut = 0;
         private long contentSizeIn = 0L, contentSizeOut = 0L;
+        private int provenanceEventsDiscarded = 0; // number of events discarded by the provenance sampling policy when committed
 
         private void checkpoint(final StandardProcessSession session, final List<ProvenanceEventRecord> autoTerminatedEvents) {
             this.processingTime += System.nanoTime() - session.processingStartTime;
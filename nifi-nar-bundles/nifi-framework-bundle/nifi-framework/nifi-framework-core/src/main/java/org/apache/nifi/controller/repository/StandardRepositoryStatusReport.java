@@ -63,6 +63,19 @@ public class StandardRepositoryStatusReport implements RepositoryStatusReport {
         this.entries.put(entry.getComponentIdentifier(), entry);
     }
 
+    @Override
+    public void addDurationHistogram(final String componentId, final DurationHistogram histogram) {
+        if (histogram == null) {
+            throw new NullPointerException("duration histogram may not be null");
+        }
+        this.durationHistograms.put(componentId, histogram);
+    }
+
+    @Override
+    public DurationHistogram getDurationHistogram(final String componentId) {
+        return durationHistograms.get(componentId);
+    }
+
     @Override
     public String toString() {
         final StringBuilder strb = new StringBuilder();
@@ -81,4 +94,5 @@ public class StandardRepositoryStatusReport implements RepositoryStatusReport {
     }
 
     private final Map<String, FlowFileEvent> entries = new HashMap<>();
+    private final Map<String, DurationHistogram> durationHistograms = new HashMap<>();
 }
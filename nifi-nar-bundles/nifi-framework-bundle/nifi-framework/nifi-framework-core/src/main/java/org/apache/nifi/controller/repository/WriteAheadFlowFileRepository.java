@@ -50,6 +50,7 @@ import org.apache.nifi.util.NiFiProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wali.MinimalLockingWriteAheadLog;
+import org.wali.SequentialAccessWriteAheadLog;
 import org.wali.SyncListener;
 import org.wali.WriteAheadRepository;
 
@@ -78,6 +79,8 @@ import org.wali.WriteAheadRepository;
  */
 public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncListener {
     private static final String FLOWFILE_REPOSITORY_DIRECTORY_PREFIX = "nifi.flowfile.repository.directory";
+    static final String MINIMAL_LOCKING_WALI = MinimalLockingWriteAheadLog.class.getName();
+    static final String SEQUENTIAL_ACCESS_WALI = SequentialAccessWriteAheadLog.class.getName();
 
     private final AtomicLong flowFileSequenceGenerator = new AtomicLong(0L);
     private final boolean alwaysSync;
@@ -88,6 +91,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
     private final long checkpointDelayMillis;
     private final SortedSet<Path> flowFileRepositoryPaths = new TreeSet<>();
     private final int numPartitions;
+    private final String walImplementation;
     private final ScheduledExecutorService checkpointExecutor;
 
     // effectively final
@@ -125,6 +129,7 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         alwaysSync = false;
         checkpointDelayMillis = 0l;
         numPartitions = 0;
+        walImplementation = MINIMAL_LOCKING_WALI;
         checkpointExecutor = null;
     }
 
@@ -140,6 +145,11 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         }
 
         numPartitions = nifiProperties.getFlowFileRepositoryPartitions();
+        walImplementation = nifiProperties.getProperty(NiFiProperties.FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION, MINIMAL_LOCKING_WALI).trim();
+        if (!MINIMAL_LOCKING_WALI.equals(walImplementation) && !SEQUENTIAL_ACCESS_WALI.equals(walImplementation)) {
+            throw new IllegalArgumentException("Invalid value for property " + NiFiProperties.FLOWFILE_REPOSITORY_WAL_IMPLEMENTATION + ": '" + walImplementation
+                + "'. Supported values are " + MINIMAL_LOCKING_WALI + " and " + SEQUENTIAL_ACCESS_WALI);
+        }
         checkpointDelayMillis = FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryCheckpointInterval(), TimeUnit.MILLISECONDS);
 
         checkpointExecutor = Executors.newSingleThreadScheduledExecutor();
@@ -158,8 +168,13 @@ public class WriteAheadFlowFileRepository implements FlowFileRepository, SyncLis
         // backup and then the data deleted from the normal location; then can move backup to normal location and
         // delete backup. On restore, if no files exist in partition's directory, would have to check backup directory
         serdeFactory = new RepositoryRecordSerdeFactory(claimManager);
-        wal = new MinimalLockingWriteAheadLog<>(flowFileRepositoryPaths, numPartitions, serdeFactory, this);
-        logger.info("Initialized FlowFile Repository using {} partitions", numPartitions);
+        if (SEQUENTIAL_ACCESS_WALI.equals(walImplementation)) {
+            wal = new SequentialAccessWriteAheadLog<>(flowFileRepositoryPaths, serdeFactory, this);
+            logger.info("Initialized FlowFile Repository using a single sequential journal");
+        } else {
+            wal = new MinimalLockingWriteAheadLog<>(flowFileRepositoryPaths, numPartitions, serdeFactory, this);
+            logger.info("Initialized FlowFile Repository using {} partitions", numPartitions);
+        }
     }
 
     @Override
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.nifi.controller.repository.ContentNotFoundException;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.processor.exception.FlowFileAccessException;
+import org.apache.nifi.processor.io.ContentChannel;
+
+/**
+ * <p>
+ * Provides a {@link ContentChannel} over a region of a FileChannel that holds the content of a FlowFile. Content is never read beyond the end of the region,
+ * as the file may hold the content of other FlowFiles as well. As with {@link FlowFileAccessInputStream}, IOExceptions that are thrown when reading from the
+ * file are wrapped in a FlowFileAccessException, and a ContentNotFoundException is thrown if the file ends before all of the content has been consumed.
+ * </p>
+ *
+ * <p>
+ * Closing this channel does not close the underlying FileChannel; that is the responsibility of the creator.
+ * </p>
+ */
+public class FlowFileAccessFileChannel implements ContentChannel {
+
+    private final FileChannel fileChannel;
+    private final long startPosition;
+    private final FlowFile flowFile;
+    private final ContentClaim claim;
+    private long bytesConsumed;
+    private volatile boolean closed = false;
+    private ContentNotFoundException thrown;
+
+    public FlowFileAccessFileChannel(final FileChannel fileChannel, final long startPosition, final FlowFile flowFile, final ContentClaim claim) {
+        this.fileChannel = fileChannel;
+        this.startPosition = startPosition;
+        this.flowFile = flowFile;
+        this.claim = claim;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    private ContentNotFoundException contentMissing() {
+        thrown = new ContentNotFoundException(claim, "Channel contained only " + bytesConsumed + " bytes but should have contained " + flowFile.getSize());
+        return thrown;
+    }
+
+    private long getBytesRemaining() {
+        return flowFile.getSize() - bytesConsumed;
+    }
+
+    @Override
+    public long size() {
+        return flowFile.getSize();
+    }
+
+    @Override
+    public int read(final ByteBuffer dst) throws IOException {
+        ensureOpen();
+
+        final long remaining = getBytesRemaining();
+        if (remaining <= 0) {
+            return -1;
+        }
+
+        final int originalLimit = dst.limit();
+        if (dst.remaining() > remaining) {
+            dst.limit(dst.position() + (int) remaining);
+        }
+
+        final int count;
+        try {
+            count = fileChannel.read(dst, startPosition + bytesConsumed);
+        } catch (final IOException ioe) {
+            throw new FlowFileAccessException("Could not read from " + flowFile, ioe);
+        } finally {
+            dst.limit(originalLimit);
+        }
+
+        if (count < 0) {
+            throw contentMissing();
+        }
+
+        bytesConsumed += count;
+        return count;
+    }
+
+    @Override
+    public long transferTo(final WritableByteChannel target) throws IOException {
+        ensureOpen();
+
+        long transferred = 0L;
+        while (getBytesRemaining() > 0) {
+            final long count = fileChannel.transferTo(startPosition + bytesConsumed, getBytesRemaining(), target);
+            if (count <= 0) {
+                // FileChannel.transferTo returns 0 both when the file has no more data and when a non-blocking target is full.
+                // Only the former indicates that content is missing.
+                if (fileChannel.size() < startPosition + flowFile.getSize()) {
+                    throw contentMissing();
+                }
+
+                break;
+            }
+
+            bytesConsumed += count;
+            transferred += count;
+        }
+
+        return transferred;
+    }
+
+    /**
+     * @return the number of bytes that have been read or transferred from this channel
+     */
+    public long getBytesConsumed() {
+        return bytesConsumed;
+    }
+
+    /**
+     * @return the ContentNotFoundException that was thrown by this channel, or <code>null</code> if no such Exception was thrown
+     */
+    public ContentNotFoundException getContentNotFoundException() {
+        return thrown;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowFileAccessFileChannel[FlowFile=" + flowFile + "]";
+    }
+}
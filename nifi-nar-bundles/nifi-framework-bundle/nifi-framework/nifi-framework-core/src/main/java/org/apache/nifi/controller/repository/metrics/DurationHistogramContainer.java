@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.nifi.controller.repository.DurationHistogram;
+
+/**
+ * Keeps the durations that were recorded for a component in one bin per minute, so that a histogram of the
+ * durations recorded within a time window can be generated. A new bin is created only when the first duration
+ * of a minute is recorded.
+ */
+public class DurationHistogramContainer {
+    private final int numBins;
+    private final AtomicReferenceArray<DurationHistogramValue> bins;
+    private volatile long lastRecordMillis = 0L;
+
+    public DurationHistogramContainer(final int numMinutes) {
+        numBins = numMinutes + 1;
+        bins = new AtomicReferenceArray<>(numBins);
+    }
+
+    public void record(final long micros) {
+        final long timestamp = System.currentTimeMillis();
+        lastRecordMillis = timestamp;
+
+        final long minute = timestamp / 60000;
+        final int binIdx = (int) (minute % numBins);
+
+        DurationHistogramValue value;
+        while (true) {
+            value = bins.get(binIdx);
+            if (value != null && value.getMinuteTimestamp() == minute) {
+                break;
+            }
+
+            final DurationHistogramValue newValue = new DurationHistogramValue(minute);
+            if (bins.compareAndSet(binIdx, value, newValue)) {
+                value = newValue;
+                break;
+            }
+        }
+
+        value.record(micros);
+    }
+
+    /**
+     * @param sinceEpochMillis the start of the time window
+     * @return a histogram of the durations that were recorded during any minute that overlaps the time window,
+     *         or <code>null</code> if no durations were recorded
+     */
+    public DurationHistogram generateReport(final long sinceEpochMillis) {
+        if (lastRecordMillis < sinceEpochMillis) {
+            return null;
+        }
+
+        final long sinceMinute = sinceEpochMillis / 60000;
+        final long[] counts = new long[StandardDurationHistogram.BUCKET_COUNT];
+        long count = 0L;
+        long maxMicros = 0L;
+
+        for (int i = 0; i < numBins; i++) {
+            final DurationHistogramValue value = bins.get(i);
+            if (value != null && value.getMinuteTimestamp() >= sinceMinute) {
+                count += value.addTo(counts);
+                maxMicros = Math.max(maxMicros, value.getMaxMicros());
+            }
+        }
+
+        return count == 0L ? null : new StandardDurationHistogram(counts, count, maxMicros);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The durations that were recorded for a component during a single minute. Recording a duration
+ * only updates counters and does not allocate memory.
+ */
+public class DurationHistogramValue {
+
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(StandardDurationHistogram.BUCKET_COUNT);
+    private final AtomicLong maxMicros = new AtomicLong(0L);
+    private final long minuteTimestamp;
+
+    public DurationHistogramValue(final long minuteTimestamp) {
+        this.minuteTimestamp = minuteTimestamp;
+    }
+
+    public void record(final long micros) {
+        counts.incrementAndGet(StandardDurationHistogram.getBucketIndex(micros));
+
+        long currentMax = maxMicros.get();
+        while (micros > currentMax) {
+            if (maxMicros.compareAndSet(currentMax, micros)) {
+                break;
+            }
+            currentMax = maxMicros.get();
+        }
+    }
+
+    public long getMinuteTimestamp() {
+        return minuteTimestamp;
+    }
+
+    /**
+     * Adds the counts of this value to the given counts
+     *
+     * @param totals the counts to add to, indexed by bucket
+     * @return the number of durations that were added
+     */
+    long addTo(final long[] totals) {
+        long added = 0L;
+        for (int i = 0; i < totals.length; i++) {
+            final int count = counts.get(i);
+            totals[i] += count;
+            added += count;
+        }
+        return added;
+    }
+
+    long getMaxMicros() {
+        return maxMicros.get();
+    }
+}
@@ -45,6 +45,7 @@ public class EventSumValue {
     private final AtomicLong processingNanos = new AtomicLong(0L);
     private final AtomicLong aggregateLineageMillis = new AtomicLong(0L);
     private final AtomicInteger invocations = new AtomicInteger(0);
+    private final AtomicInteger provenanceEventsDiscarded = new AtomicInteger(0);
     private final ConcurrentMap<String, Long> counters = new ConcurrentHashMap<>();
 
     private final long minuteTimestamp;
@@ -72,6 +73,7 @@ public class EventSumValue {
         this.flowFilesSent.addAndGet(flowFileEvent.getFlowFilesSent());
         this.invocations.addAndGet(flowFileEvent.getInvocations());
         this.processingNanos.addAndGet(flowFileEvent.getProcessingNanoseconds());
+        this.provenanceEventsDiscarded.addAndGet(flowFileEvent.getProvenanceEventsDiscarded());
 
         final Map<String, Long> eventCounters = flowFileEvent.getCounters();
         if (eventCounters != null) {
@@ -101,6 +103,7 @@ public class EventSumValue {
         event.setFlowFilesSent(getFlowFilesSent());
         event.setInvocations(getInvocations());
         event.setProcessingNanos(getProcessingNanoseconds());
+        event.setProvenanceEventsDiscarded(getProvenanceEventsDiscarded());
         event.setCounters(Collections.unmodifiableMap(this.counters));
         return event;
     }
@@ -121,6 +124,7 @@ public class EventSumValue {
         this.flowFilesSent.addAndGet(other.getFlowFilesSent());
         this.invocations.addAndGet(other.getInvocations());
         this.processingNanos.addAndGet(other.getProcessingNanoseconds());
+        this.provenanceEventsDiscarded.addAndGet(other.getProvenanceEventsDiscarded());
 
         final Map<String, Long> eventCounters = other.getCounters();
         if (eventCounters != null) {
@@ -201,6 +205,10 @@ public class EventSumValue {
         return bytesSent.get();
     }
 
+    public int getProvenanceEventsDiscarded() {
+        return provenanceEventsDiscarded.get();
+    }
+
     public Map<String, Long> getCounters() {
         return counters;
     }
@@ -17,9 +17,13 @@
 package org.apache.nifi.controller.repository.metrics;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.nifi.controller.repository.DurationHistogram;
 import org.apache.nifi.controller.repository.FlowFileEvent;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
@@ -28,6 +32,8 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
 
     private final int numMinutes;
     private final ConcurrentMap<String, EventContainer> componentEventMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, EventSumValue> aggregateEventMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DurationHistogramContainer> durationHistogramMap = new ConcurrentHashMap<>();
 
     public RingBufferEventRepository(final int numMinutes) {
         this.numMinutes = numMinutes;
@@ -42,6 +48,19 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
         final String componentId = event.getComponentIdentifier();
         final EventContainer eventContainer = componentEventMap.computeIfAbsent(componentId, id -> new SecondPrecisionEventContainer(numMinutes));
         eventContainer.addEvent(event);
+
+        final EventSumValue aggregateValue = aggregateEventMap.computeIfAbsent(componentId, id -> new EventSumValue());
+        aggregateValue.add(event);
+    }
+
+    @Override
+    public void recordDuration(final String componentId, final long duration, final TimeUnit timeUnit) {
+        DurationHistogramContainer container = durationHistogramMap.get(componentId);
+        if (container == null) {
+            container = durationHistogramMap.computeIfAbsent(componentId, id -> new DurationHistogramContainer(numMinutes));
+        }
+
+        container.record(timeUnit.toMicros(duration));
     }
 
     @Override
@@ -52,6 +71,27 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
             .map(entry -> entry.getValue().generateReport(entry.getKey(), sinceEpochMillis))
             .forEach(event -> report.addReportEntry(event));
 
+        for (final Map.Entry<String, DurationHistogramContainer> entry : durationHistogramMap.entrySet()) {
+            final DurationHistogram histogram = entry.getValue().generateReport(sinceEpochMillis);
+            if (histogram != null) {
+                report.addDurationHistogram(entry.getKey(), histogram);
+            }
+        }
+
+        return report;
+    }
+
+    @Override
+    public StandardRepositoryStatusReport reportAggregateEvents(final Collection<String> componentIds) {
+        final StandardRepositoryStatusReport report = new StandardRepositoryStatusReport();
+
+        for (final String componentId : componentIds) {
+            final EventSumValue aggregateValue = aggregateEventMap.get(componentId);
+            if (aggregateValue != null) {
+                report.addReportEntry(aggregateValue.toFlowFileEvent(componentId));
+            }
+        }
+
         return report;
     }
 
@@ -64,4 +104,11 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
         }
     }
 
+    @Override
+    public void purgeTransferEvents(final String componentIdentifier) {
+        componentEventMap.remove(componentIdentifier);
+        aggregateEventMap.remove(componentIdentifier);
+        durationHistogramMap.remove(componentIdentifier);
+    }
+
 }
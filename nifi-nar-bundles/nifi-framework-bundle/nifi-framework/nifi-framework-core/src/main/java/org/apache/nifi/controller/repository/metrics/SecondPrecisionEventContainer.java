@@ -22,6 +22,8 @@ import org.apache.nifi.controller.repository.FlowFileEvent;
 public class SecondPrecisionEventContainer implements EventContainer {
     private final int numBins;
     private final EventSum[] sums;
+    private volatile long lastEventMillis = 0L;
+    private volatile FlowFileEvent emptyReport;
 
     public SecondPrecisionEventContainer(final int numMinutes) {
         numBins = 1 + numMinutes * 60;
@@ -34,7 +36,10 @@ public class SecondPrecisionEventContainer implements EventContainer {
 
     @Override
     public void addEvent(final FlowFileEvent event) {
-        final int second = (int) (System.currentTimeMillis() / 1000);
+        final long timestamp = System.currentTimeMillis();
+        lastEventMillis = timestamp;
+
+        final int second = (int) (timestamp / 1000);
         final int binIdx = second % numBins;
         final EventSum sum = sums[binIdx];
 
@@ -48,6 +53,18 @@ public class SecondPrecisionEventContainer implements EventContainer {
 
     @Override
     public FlowFileEvent generateReport(final String componentId, final long sinceEpochMillis) {
+        // Most components in a large flow are idle at any given moment. Every bin is stamped no later than the
+        // last event that was added, so if that event is older than the requested window there is nothing to sum.
+        if (lastEventMillis < sinceEpochMillis) {
+            FlowFileEvent report = emptyReport;
+            if (report == null) {
+                report = new EventSumValue().toFlowFileEvent(componentId);
+                emptyReport = report;
+            }
+
+            return report;
+        }
+
         final EventSumValue eventSumValue = new EventSumValue();
         final long second = sinceEpochMillis / 1000;
         final int startBinIdx = (int) (second % numBins);
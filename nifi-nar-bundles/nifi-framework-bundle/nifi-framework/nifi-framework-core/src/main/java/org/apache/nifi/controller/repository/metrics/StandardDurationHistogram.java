@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.controller.repository.DurationHistogram;
+
+/**
+ * <p>
+ * An immutable {@link DurationHistogram} whose durations are counted in log-linear buckets, in the manner of an
+ * HDR histogram. Durations are kept with microsecond resolution. Every power of two is divided into
+ * {@value #SUB_BUCKET_COUNT} buckets of equal width, so that each bucket is no wider than 1/16th of the durations
+ * it holds, and durations of up to 2<sup>36</sup> microseconds (about 19 hours) are distinguished. Longer
+ * durations are counted in the last bucket.
+ * </p>
+ */
+public class StandardDurationHistogram implements DurationHistogram {
+
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int MAX_EXPONENT = 35;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    static final long MAX_TRACKABLE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final long[] counts;
+    private final long count;
+    private final long maxMicros;
+
+    StandardDurationHistogram(final long[] counts, final long count, final long maxMicros) {
+        this.counts = counts;
+        this.count = count;
+        this.maxMicros = maxMicros;
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public long getPercentile(final double percentile, final TimeUnit timeUnit) {
+        if (percentile < 0D || percentile > 100D) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (count == 0L) {
+            return 0L;
+        }
+
+        final long targetCount = Math.max(1L, (long) Math.ceil(count * percentile / 100D));
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= targetCount) {
+                return timeUnit.convert(Math.min(getHighestValue(i), maxMicros), TimeUnit.MICROSECONDS);
+            }
+        }
+
+        return timeUnit.convert(maxMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public long getMax(final TimeUnit timeUnit) {
+        return timeUnit.convert(maxMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * @param micros a duration in microseconds
+     * @return the index of the bucket that counts the given duration
+     */
+    static int getBucketIndex(final long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return micros < 0L ? 0 : (int) micros;
+        }
+
+        final long value = Math.min(micros, MAX_TRACKABLE_MICROS);
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) ((value >>> shift) & (SUB_BUCKET_COUNT - 1));
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * @param bucketIndex the index of a bucket
+     * @return the longest duration, in microseconds, that is counted in the given bucket
+     */
+    static long getHighestValue(final int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+
+        final int shift = (bucketIndex - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        final int subBucket = (bucketIndex - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        final long lowestValue = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "DurationHistogram[count=" + count + ", p50=" + getPercentile(50D, TimeUnit.MICROSECONDS) + "us, p99="
+            + getPercentile(99D, TimeUnit.MICROSECONDS) + "us, max=" + maxMicros + "us]";
+    }
+}
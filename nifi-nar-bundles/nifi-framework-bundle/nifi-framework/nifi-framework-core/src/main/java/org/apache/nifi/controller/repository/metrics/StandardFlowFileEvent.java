@@ -39,6 +39,7 @@ public final class StandardFlowFileEvent implements FlowFileEvent, Cloneable {
     private int flowFilesSent;
     private long bytesSent;
     private int invocations;
+    private int provenanceEventsDiscarded;
     private Map<String, Long> counters;
 
     public StandardFlowFileEvent(final String componentId) {
@@ -176,6 +177,15 @@ public final class StandardFlowFileEvent implements FlowFileEvent, Cloneable {
         this.bytesSent = bytesSent;
     }
 
+    @Override
+    public int getProvenanceEventsDiscarded() {
+        return provenanceEventsDiscarded;
+    }
+
+    public void setProvenanceEventsDiscarded(int provenanceEventsDiscarded) {
+        this.provenanceEventsDiscarded = provenanceEventsDiscarded;
+    }
+
     @Override
     public long getAverageLineageMillis() {
         if (flowFilesOut == 0 && flowFilesRemoved == 0) {
@@ -336,7 +336,9 @@ public class EventDrivenSchedulingAgent extends AbstractSchedulingAgent {
 
             try {
                 try (final AutoCloseable ncl = NarCloseable.withComponentNarLoader(worker.getProcessor().getClass(), worker.getIdentifier())) {
+                    final long triggerStartNanos = System.nanoTime();
                     worker.onTrigger(processContext, sessionFactory);
+                    context.getFlowFileEventRepository().recordDuration(worker.getIdentifier(), System.nanoTime() - triggerStartNanos, TimeUnit.NANOSECONDS);
                 } catch (final ProcessException pe) {
                     final ComponentLog procLog = new SimpleProcessLogger(worker.getIdentifier(), worker.getProcessor());
                     procLog.error("Failed to process session due to {}", new Object[]{pe});
@@ -0,0 +1,368 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.components.state.StateManager;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.ReportingTaskNode;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.tasks.ContinuallyRunProcessorTask;
+import org.apache.nifi.encrypt.StringEncryptor;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.processor.StandardProcessContext;
+import org.apache.nifi.util.Connectables;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A Scheduling Agent for Timer-Driven components that, rather than polling each Processor at a fixed rate, runs a Processor only when
+ * there may be work for it to do. A Processor is woken when one of its incoming queues transitions from empty to non-empty, or when one of
+ * its outgoing queues drops below its back pressure threshold. Once woken, the Processor continues to be triggered for as long as it has
+ * work to do, and then goes idle until it is woken again. Runnable Processors are executed by a work-stealing pool, so a thread that
+ * finishes its work picks up work that was queued by other threads rather than sleeping.
+ * </p>
+ *
+ * <p>
+ * Only Processors whose Run Schedule is 0 and that are triggered by incoming data are handled this way. Processors that have no incoming
+ * connections (or only self-loops), Processors that are triggered when empty, Processors with a non-zero Run Schedule, Ports, Funnels and
+ * Reporting Tasks are delegated to a {@link TimerDrivenSchedulingAgent}. Because some reasons that a Processor becomes able to run are not
+ * signaled (for example, the node becoming Primary), each idle Processor is also checked at a low, fixed interval.
+ * </p>
+ */
+public class QueueAwareSchedulingAgent extends AbstractSchedulingAgent {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueAwareSchedulingAgent.class);
+    private static final long IDLE_CHECK_MILLIS = 1000L;
+
+    private final FlowController flowController;
+    private final ProcessContextFactory contextFactory;
+    private final StringEncryptor encryptor;
+    private final TimerDrivenSchedulingAgent timerDrivenAgent;
+
+    private final ConcurrentMap<Connectable, QueueDrivenComponent> components = new ConcurrentHashMap<>();
+    private final AtomicInteger threadIndex = new AtomicInteger(0);
+    private volatile ForkJoinPool workerPool;
+
+    public QueueAwareSchedulingAgent(
+            final FlowController flowController,
+            final FlowEngine flowEngine,
+            final ProcessContextFactory contextFactory,
+            final StringEncryptor encryptor,
+            final NiFiProperties nifiProperties,
+            final int maxThreadCount) {
+        super(flowEngine);
+        this.flowController = flowController;
+        this.contextFactory = contextFactory;
+        this.encryptor = encryptor;
+        this.timerDrivenAgent = new TimerDrivenSchedulingAgent(flowController, flowEngine, contextFactory, encryptor, nifiProperties);
+        this.workerPool = createWorkerPool(maxThreadCount);
+    }
+
+    private ForkJoinPool createWorkerPool(final int maxThreadCount) {
+        final ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Queue-Aware Process Thread-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        // asyncMode is used so that tasks submitted by worker threads are run in FIFO order, which gives each Processor a fair turn.
+        return new ForkJoinPool(maxThreadCount, threadFactory, (thread, throwable) -> logger.error("Uncaught exception in {}", thread.getName(), throwable), true);
+    }
+
+    private StateManager getStateManager(final String componentId) {
+        return flowController.getStateManagerProvider().getStateManager(componentId);
+    }
+
+    /**
+     * @return the number of threads in the work-stealing pool that are currently running a Processor
+     */
+    public int getActiveThreadCount() {
+        return workerPool.getActiveThreadCount();
+    }
+
+    @Override
+    public void shutdown() {
+        workerPool.shutdown();
+        timerDrivenAgent.shutdown();
+    }
+
+    @Override
+    public void doSchedule(final ReportingTaskNode taskNode, final ScheduleState scheduleState) {
+        timerDrivenAgent.doSchedule(taskNode, scheduleState);
+    }
+
+    @Override
+    public void doUnschedule(final ReportingTaskNode taskNode, final ScheduleState scheduleState) {
+        timerDrivenAgent.doUnschedule(taskNode, scheduleState);
+    }
+
+    private boolean isQueueDriven(final Connectable connectable) {
+        if (connectable.getConnectableType() != ConnectableType.PROCESSOR) {
+            return false;
+        }
+
+        final ProcessorNode procNode = (ProcessorNode) connectable;
+        return procNode.getSchedulingPeriod(TimeUnit.NANOSECONDS) == 0L
+            && !procNode.isTriggerWhenEmpty()
+            && procNode.hasIncomingConnection()
+            && Connectables.hasNonLoopConnection(procNode);
+    }
+
+    @Override
+    public void doSchedule(final Connectable connectable, final ScheduleState scheduleState) {
+        if (!isQueueDriven(connectable)) {
+            timerDrivenAgent.doSchedule(connectable, scheduleState);
+            return;
+        }
+
+        final ProcessorNode procNode = (ProcessorNode) connectable;
+        final Callable<Boolean> processorTask = createProcessorTask(procNode, scheduleState);
+        final QueueDrivenComponent component = new QueueDrivenComponent(procNode, scheduleState, processorTask);
+        components.put(connectable, component);
+
+        final ScheduledFuture<?> idleCheckFuture = flowEngine.scheduleWithFixedDelay(component::wake, IDLE_CHECK_MILLIS, IDLE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        scheduleState.setFutures(Collections.singleton(idleCheckFuture));
+
+        component.wake();
+        logger.info("Scheduled {} to run with up to {} threads when it has work to do", connectable, connectable.getMaxConcurrentTasks());
+    }
+
+    /**
+     * Creates the task that triggers the given Processor once. The task returns <code>true</code> if the Processor had no work to do.
+     * Marked protected for visibility and ability to override for unit tests.
+     */
+    protected Callable<Boolean> createProcessorTask(final ProcessorNode procNode, final ScheduleState scheduleState) {
+        final StandardProcessContext processContext = new StandardProcessContext(procNode, flowController, encryptor, getStateManager(procNode.getIdentifier()));
+        return new ContinuallyRunProcessorTask(this, procNode, flowController, contextFactory, scheduleState, processContext);
+    }
+
+    @Override
+    public void doUnschedule(final Connectable connectable, final ScheduleState scheduleState) {
+        final QueueDrivenComponent component = components.remove(connectable);
+        if (component == null) {
+            timerDrivenAgent.doUnschedule(connectable, scheduleState);
+            return;
+        }
+
+        for (final ScheduledFuture<?> future : scheduleState.getFutures()) {
+            // stop scheduling to run but do not interrupt currently running tasks.
+            future.cancel(false);
+        }
+
+        logger.info("Stopped scheduling {} to run", connectable);
+    }
+
+    @Override
+    public void onEvent(final Connectable connectable) {
+        final QueueDrivenComponent component = components.get(connectable);
+        if (component != null) {
+            component.wake();
+        }
+    }
+
+    @Override
+    public void setAdministrativeYieldDuration(final String yieldDuration) {
+        timerDrivenAgent.setAdministrativeYieldDuration(yieldDuration);
+    }
+
+    @Override
+    public String getAdministrativeYieldDuration() {
+        return timerDrivenAgent.getAdministrativeYieldDuration();
+    }
+
+    @Override
+    public long getAdministrativeYieldDuration(final TimeUnit timeUnit) {
+        return timerDrivenAgent.getAdministrativeYieldDuration(timeUnit);
+    }
+
+    @Override
+    public void setMaxThreadCount(final int maxThreads) {
+        final ForkJoinPool currentPool = workerPool;
+        if (currentPool.getParallelism() == maxThreads) {
+            return;
+        }
+
+        // The parallelism of a ForkJoinPool cannot be changed, so tasks are moved to a new pool as they are resubmitted.
+        workerPool = createWorkerPool(maxThreads);
+        currentPool.shutdown();
+    }
+
+    private void submit(final Runnable task) {
+        try {
+            workerPool.execute(task);
+        } catch (final RejectedExecutionException ree) {
+            final ForkJoinPool currentPool = workerPool;
+            if (currentPool.isShutdown()) {
+                // The Scheduling Agent has been shut down, so the Processor will not run again.
+                logger.debug("Will not run {} because the Scheduling Agent has been shut down", task);
+                return;
+            }
+
+            // The pool was replaced while the task was being submitted.
+            currentPool.execute(task);
+        }
+    }
+
+    /**
+     * Tracks the tasks that are running for a single Processor. The number of active tasks never exceeds the Processor's Max Concurrent Tasks.
+     * Each wake-up increments the signal count, which lets a task that found no work detect that work arrived while it was checking and
+     * run again, rather than going idle and missing the wake-up.
+     */
+    private class QueueDrivenComponent implements Runnable {
+        private final ProcessorNode procNode;
+        private final ScheduleState scheduleState;
+        private final Callable<Boolean> processorTask;
+        private final AtomicInteger activeTasks = new AtomicInteger(0);
+        private final AtomicLong signalCount = new AtomicLong(0L);
+
+        QueueDrivenComponent(final ProcessorNode procNode, final ScheduleState scheduleState, final Callable<Boolean> processorTask) {
+            this.procNode = procNode;
+            this.scheduleState = scheduleState;
+            this.processorTask = processorTask;
+        }
+
+        private boolean isActive() {
+            return scheduleState.isScheduled() && components.get(procNode) == this;
+        }
+
+        void wake() {
+            signalCount.incrementAndGet();
+
+            // If a task is already active, it will see the new signal and run again before going idle.
+            if (activeTasks.get() == 0) {
+                addTask();
+            }
+        }
+
+        private void addTask() {
+            while (true) {
+                final int active = activeTasks.get();
+                if (active >= Math.max(1, procNode.getMaxConcurrentTasks())) {
+                    return;
+                }
+
+                if (activeTasks.compareAndSet(active, active + 1)) {
+                    submit(this);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            if (!isActive()) {
+                activeTasks.decrementAndGet();
+                return;
+            }
+
+            final long signalsBeforeRun = signalCount.get();
+            boolean noWork;
+            if (ContinuallyRunProcessorTask.isRunOnCluster(procNode, flowController)) {
+                try {
+                    noWork = processorTask.call();
+                } catch (final Exception e) {
+                    // Do not let the exception escape, or this task would never be counted as inactive and the Processor would not run again.
+                    logger.error("Failed to trigger {}", procNode, e);
+                    noWork = true;
+                }
+            } else {
+                // Not permitted to run on this node. The idle check will wake the Processor if that changes.
+                noWork = true;
+            }
+
+            if (!isActive()) {
+                activeTasks.decrementAndGet();
+                return;
+            }
+
+            final long yieldMillis = procNode.getYieldExpiration() - System.currentTimeMillis();
+            if (yieldMillis > 0L) {
+                activeTasks.decrementAndGet();
+                flowEngine.schedule(this::wake, yieldMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            if (signalCount.get() == signalsBeforeRun) {
+                final long penaltyMillis = noWork ? 0L : getPenaltyMillis();
+                if (noWork || penaltyMillis > 0L) {
+                    activeTasks.decrementAndGet();
+
+                    if (penaltyMillis > 0L) {
+                        // Every queued FlowFile is penalized, so triggering the Processor again would make no progress. Wait for the
+                        // first penalty to expire; a FlowFile that is queued in the meantime wakes the Processor sooner.
+                        flowEngine.schedule(this::wake, penaltyMillis, TimeUnit.MILLISECONDS);
+                    }
+
+                    // A wake-up may have been signaled after the check above but before this task was counted as inactive; in that
+                    // case the waker saw an active task and relied on it to run again, so we must not miss the signal.
+                    if (signalCount.get() != signalsBeforeRun) {
+                        addTask();
+                    }
+
+                    return;
+                }
+            }
+
+            // There may be more work, so run again and, if more threads are allowed, bring in another one to help.
+            addTask();
+            submit(this);
+        }
+
+        /**
+         * @return the number of milliseconds until the first penalty expires if every FlowFile queued for the Processor is penalized,
+         *         or 0 if a FlowFile may be available for processing now
+         */
+        private long getPenaltyMillis() {
+            final long now = System.currentTimeMillis();
+            long firstExpiration = Long.MAX_VALUE;
+            for (final Connection connection : procNode.getIncomingConnections()) {
+                final FlowFileQueue queue = connection.getFlowFileQueue();
+                if (queue.isActiveQueueEmpty()) {
+                    continue;
+                }
+
+                final long penaltyExpiration = queue.getPenaltyExpiration();
+                if (penaltyExpiration <= now) {
+                    return 0L;
+                }
+
+                firstExpiration = Math.min(firstExpiration, penaltyExpiration);
+            }
+
+            return firstExpiration == Long.MAX_VALUE ? 0L : firstExpiration - now;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.connectable.Size;
 import org.apache.nifi.controller.ScheduledState;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.service.ControllerServiceState;
 import org.apache.nifi.encrypt.EncryptionException;
 import org.apache.nifi.encrypt.StringEncryptor;
@@ -265,6 +266,13 @@ public class FlowFromDOMFactory {
         }
         dto.setFlowFileExpiration(expiration);
 
+        String loadBalanceStrategy = getString(element, "loadBalanceStrategy");
+        if (loadBalanceStrategy == null) {
+            loadBalanceStrategy = LoadBalanceStrategy.DO_NOT_LOAD_BALANCE.name();
+        }
+        dto.setLoadBalanceStrategy(loadBalanceStrategy);
+        dto.setLoadBalancePartitionAttribute(getString(element, "partitioningAttribute"));
+
         final List<String> prioritizerClasses = new ArrayList<>();
         final List<Element> prioritizerNodeList = getChildrenByTagName(element, "queuePrioritizerClass");
         for (final Element prioritizerElement : prioritizerNodeList) {
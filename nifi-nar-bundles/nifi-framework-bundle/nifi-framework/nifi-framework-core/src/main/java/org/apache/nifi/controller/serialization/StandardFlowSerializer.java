@@ -29,6 +29,7 @@ import org.apache.nifi.controller.ProcessorNode;
 import org.apache.nifi.controller.ReportingTaskNode;
 import org.apache.nifi.controller.Template;
 import org.apache.nifi.controller.label.Label;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.service.ControllerServiceNode;
 import org.apache.nifi.controller.service.ControllerServiceState;
 import org.apache.nifi.encrypt.StringEncryptor;
@@ -493,6 +494,15 @@ public class StandardFlowSerializer implements FlowSerializer {
             addTextElement(element, "queuePrioritizerClass", className);
         }
 
+        final LoadBalanceStrategy loadBalanceStrategy = connection.getFlowFileQueue().getLoadBalanceStrategy();
+        if (loadBalanceStrategy != LoadBalanceStrategy.DO_NOT_LOAD_BALANCE) {
+            addTextElement(element, "loadBalanceStrategy", loadBalanceStrategy.name());
+            final String partitioningAttribute = connection.getFlowFileQueue().getPartitioningAttribute();
+            if (partitioningAttribute != null) {
+                addTextElement(element, "partitioningAttribute", partitioningAttribute);
+            }
+        }
+
         parentElement.appendChild(element);
     }
 
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.nifi.controller.repository.RepositoryStatusReport;
+
+/**
+ * An immutable, point-in-time view of the status of every component in the flow. A snapshot is computed once and
+ * then shared by all readers until it expires, so that concurrent status requests neither aggregate the FlowFile
+ * Event Repository nor walk the entire flow independently of one another.
+ */
+public class ControllerStatusSnapshot {
+
+    private final long timestamp;
+    private final RepositoryStatusReport statusReport;
+    private final ProcessGroupStatus rootGroupStatus;
+    private final Map<String, ProcessGroupStatus> groupStatuses;
+
+    public ControllerStatusSnapshot(final RepositoryStatusReport statusReport, final ProcessGroupStatus rootGroupStatus, final long timestamp) {
+        this.statusReport = statusReport;
+        this.rootGroupStatus = rootGroupStatus;
+        this.timestamp = timestamp;
+
+        final Map<String, ProcessGroupStatus> statuses = new HashMap<>();
+        if (rootGroupStatus != null) {
+            index(rootGroupStatus, statuses);
+        }
+        this.groupStatuses = Collections.unmodifiableMap(statuses);
+    }
+
+    private static void index(final ProcessGroupStatus groupStatus, final Map<String, ProcessGroupStatus> statuses) {
+        statuses.put(groupStatus.getId(), groupStatus);
+
+        if (groupStatus.getProcessGroupStatus() != null) {
+            for (final ProcessGroupStatus childStatus : groupStatus.getProcessGroupStatus()) {
+                index(childStatus, statuses);
+            }
+        }
+    }
+
+    /**
+     * @return the time, in milliseconds since epoch, at which this snapshot began to be computed
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @param now the current time in milliseconds since epoch
+     * @param maxAgeMillis the maximum age of a snapshot that may still be handed out
+     * @return <code>true</code> if this snapshot is older than the given age and should be recomputed
+     */
+    public boolean isExpired(final long now, final long maxAgeMillis) {
+        return now - timestamp >= maxAgeMillis || now < timestamp;
+    }
+
+    /**
+     * @return the FlowFile Event report from which this snapshot was computed
+     */
+    public RepositoryStatusReport getStatusReport() {
+        return statusReport;
+    }
+
+    /**
+     * @return the unfiltered status of the root group, or <code>null</code> if no root group was available
+     */
+    public ProcessGroupStatus getRootGroupStatus() {
+        return rootGroupStatus;
+    }
+
+    /**
+     * @param groupId the identifier of a Process Group
+     * @return the unfiltered status of the group with the given identifier, or <code>null</code> if the group
+     *         did not exist at the time that the snapshot was taken
+     */
+    public ProcessGroupStatus getGroupStatus(final String groupId) {
+        return groupStatuses.get(groupId);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the status history of a single component within a single segment as one primitive column per metric,
+ * rather than as one object per point in time. Each column is a <code>long[]</code> that is aligned with the
+ * column of timestamps. Counters come and go, so a counter column holds {@link #ABSENT} for every point at
+ * which the counter did not exist.
+ */
+final class ComponentColumns {
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private long[] timestamps;
+    private final long[][] values;
+    private final Map<String, long[]> counters = new LinkedHashMap<>();
+    private int size = 0;
+
+    ComponentColumns(final int metricCount, final int initialCapacity) {
+        final int capacity = Math.max(1, initialCapacity);
+        timestamps = new long[capacity];
+        values = new long[metricCount][capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getMetricCount() {
+        return values.length;
+    }
+
+    long getTimestamp(final int index) {
+        return timestamps[index];
+    }
+
+    long getLastTimestamp() {
+        return size == 0 ? Long.MIN_VALUE : timestamps[size - 1];
+    }
+
+    /**
+     * @return the value of the given metric at the given index, or <code>null</code> if the metric was not
+     *         known at the time that the value was recorded
+     */
+    Long getValue(final int metric, final int index) {
+        if (metric >= values.length) {
+            return null;
+        }
+        return values[metric][index];
+    }
+
+    Set<String> getCounterNames() {
+        return counters.keySet();
+    }
+
+    /**
+     * @return the value of the given counter at the given index, or <code>null</code> if the counter did not exist at that time
+     */
+    Long getCounterValue(final String counterName, final int index) {
+        final long[] column = counters.get(counterName);
+        if (column == null || column[index] == ABSENT) {
+            return null;
+        }
+        return column[index];
+    }
+
+    /**
+     * Appends the given row to the columns. Rows must be appended in order of their timestamps.
+     */
+    void append(final long timestamp, final StatusRow row) {
+        ensureCapacity(size + 1);
+
+        timestamps[size] = timestamp;
+        final long[] rowValues = row.getValues();
+        for (int metric = 0; metric < values.length; metric++) {
+            values[metric][size] = metric < rowValues.length ? rowValues[metric] : 0L;
+        }
+
+        for (final Map.Entry<String, Long> entry : row.getCounters().entrySet()) {
+            long[] column = counters.get(entry.getKey());
+            if (column == null) {
+                column = new long[timestamps.length];
+                Arrays.fill(column, ABSENT);
+                counters.put(entry.getKey(), column);
+            }
+            column[size] = entry.getValue();
+        }
+
+        size++;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= timestamps.length) {
+            return;
+        }
+
+        final int newCapacity = Math.max(capacity, timestamps.length * 2);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        for (int metric = 0; metric < values.length; metric++) {
+            values[metric] = Arrays.copyOf(values[metric], newCapacity);
+        }
+
+        for (final Map.Entry<String, long[]> entry : counters.entrySet()) {
+            final long[] column = entry.getValue();
+            final long[] grown = Arrays.copyOf(column, newCapacity);
+            Arrays.fill(grown, column.length, newCapacity, ABSENT);
+            entry.setValue(grown);
+        }
+    }
+
+    /**
+     * Reduces all points of these columns to a single row by taking the mean of each metric. This is how
+     * older history is downsampled: every metric is either a gauge or a total over a fixed window, and for
+     * both the mean over a longer period is the value that best represents that period.
+     *
+     * @param ordinal the ordinal of the component
+     * @return a row that holds the mean of each metric
+     */
+    StatusRow mean(final int ordinal) {
+        final long[] means = new long[values.length];
+        if (size > 0) {
+            for (int metric = 0; metric < values.length; metric++) {
+                long sum = 0L;
+                for (int i = 0; i < size; i++) {
+                    sum += values[metric][i];
+                }
+                means[metric] = sum / size;
+            }
+        }
+
+        Map<String, Long> counterMeans = null;
+        for (final Map.Entry<String, long[]> entry : counters.entrySet()) {
+            final long[] column = entry.getValue();
+            long sum = 0L;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (column[i] != ABSENT) {
+                    sum += column[i];
+                    count++;
+                }
+            }
+
+            if (count > 0) {
+                if (counterMeans == null) {
+                    counterMeans = new LinkedHashMap<>();
+                }
+                counterMeans.put(entry.getKey(), sum / count);
+            }
+        }
+
+        return new StatusRow(ordinal, means, counterMeans);
+    }
+
+    /**
+     * Writes the columns one after the other, each as the differences between consecutive values, so that
+     * steady metrics and regular timestamps take close to a byte per point
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        StatusEncoding.writeVarInt(out, size);
+        writeDeltas(out, timestamps);
+
+        StatusEncoding.writeVarInt(out, values.length);
+        for (final long[] column : values) {
+            writeDeltas(out, column);
+        }
+
+        StatusEncoding.writeVarInt(out, counters.size());
+        for (final Map.Entry<String, long[]> entry : counters.entrySet()) {
+            out.writeUTF(entry.getKey());
+            final long[] column = entry.getValue();
+            for (int i = 0; i < size; i++) {
+                // 0 marks an absent value; all others are shifted up by one
+                StatusEncoding.writeVarLong(out, column[i] == ABSENT ? 0L : ((column[i] << 1) ^ (column[i] >> 63)) + 1L);
+            }
+        }
+    }
+
+    private void writeDeltas(final DataOutput out, final long[] column) throws IOException {
+        long previous = 0L;
+        for (int i = 0; i < size; i++) {
+            StatusEncoding.writeSignedVarLong(out, column[i] - previous);
+            previous = column[i];
+        }
+    }
+
+    static ComponentColumns readFrom(final DataInput in) throws IOException {
+        final int size = StatusEncoding.readVarInt(in);
+        final long[] timestamps = readDeltas(in, size);
+
+        final int metricCount = StatusEncoding.readVarInt(in);
+        final ComponentColumns columns = new ComponentColumns(metricCount, 1);
+        columns.timestamps = timestamps;
+        for (int metric = 0; metric < metricCount; metric++) {
+            columns.values[metric] = readDeltas(in, size);
+        }
+
+        final int counterCount = StatusEncoding.readVarInt(in);
+        for (int c = 0; c < counterCount; c++) {
+            final String counterName = in.readUTF();
+            final long[] column = new long[Math.max(1, size)];
+            Arrays.fill(column, ABSENT);
+            for (int i = 0; i < size; i++) {
+                final long encoded = StatusEncoding.readVarLong(in);
+                if (encoded != 0L) {
+                    final long zigZag = encoded - 1L;
+                    column[i] = (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            columns.counters.put(counterName, column);
+        }
+
+        columns.size = size;
+        return columns;
+    }
+
+    private static long[] readDeltas(final DataInput in, final int size) throws IOException {
+        final long[] column = new long[Math.max(1, size)];
+        long previous = 0L;
+        for (int i = 0; i < size; i++) {
+            previous += StatusEncoding.readSignedVarLong(in);
+            column[i] = previous;
+        }
+        return column;
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.nifi.util.ComponentStatusReport.ComponentType;
+
+/**
+ * Assigns each component a small integer, its ordinal, by which its history is stored, and keeps the details of each
+ * component (its name, its group and so on) that are reported alongside its history. Both are kept in an append-only
+ * file: a record is written when a component is first seen, whenever its details change and when it is removed.
+ * Ordinals are never reused, because segment files may still hold history that refers to the ordinal of a component
+ * that has been removed.
+ */
+final class ComponentDictionary implements Closeable {
+    private static final byte COMPONENT_RECORD = 1;
+    private static final byte DETAILS_RECORD = 2;
+    private static final byte REMOVED_RECORD = 3;
+
+    private final File file;
+    private final Map<String, Entry> entriesByKey = new HashMap<>();
+    private final Map<Integer, Entry> entries = new TreeMap<>();
+    private DataOutputStream out;
+    private int nextOrdinal = 0;
+    private int removedRecordCount = 0;
+    private long captureCount = 0L;
+
+    static final class Entry {
+        private final int ordinal;
+        private final ComponentType type;
+        private final String componentId;
+        private Map<String, String> details = Collections.emptyMap();
+        private long lastCapture;
+
+        private Entry(final int ordinal, final ComponentType type, final String componentId) {
+            this.ordinal = ordinal;
+            this.type = type;
+            this.componentId = componentId;
+        }
+
+        int getOrdinal() {
+            return ordinal;
+        }
+
+        ComponentType getType() {
+            return type;
+        }
+
+        String getComponentId() {
+            return componentId;
+        }
+
+        Map<String, String> getDetails() {
+            return details;
+        }
+    }
+
+    ComponentDictionary(final File file) throws IOException {
+        this.file = file;
+
+        StatusEncoding.readRecords(file, in -> {
+            final byte recordType = in.readByte();
+            final int ordinal = in.readInt();
+            if (recordType == COMPONENT_RECORD) {
+                final Entry entry = new Entry(ordinal, ComponentType.valueOf(in.readUTF()), in.readUTF());
+                if (ordinal < nextOrdinal) {
+                    throw new IOException("Status History component dictionary " + file + " is corrupt: expected an ordinal of at least " + nextOrdinal + " but found " + ordinal);
+                }
+                nextOrdinal = ordinal + 1;
+                entries.put(ordinal, entry);
+                entriesByKey.put(getKey(entry.getType(), entry.getComponentId()), entry);
+            } else if (recordType == DETAILS_RECORD) {
+                final int detailCount = in.readInt();
+                final Map<String, String> details = new LinkedHashMap<>(detailCount);
+                for (int i = 0; i < detailCount; i++) {
+                    details.put(in.readUTF(), in.readUTF());
+                }
+                final Entry entry = entries.get(ordinal);
+                if (entry != null) {
+                    entry.details = details;
+                }
+            } else if (recordType == REMOVED_RECORD) {
+                final Entry entry = entries.remove(ordinal);
+                if (entry != null) {
+                    entriesByKey.remove(getKey(entry.getType(), entry.getComponentId()));
+                }
+                nextOrdinal = Math.max(nextOrdinal, ordinal + 1);
+                removedRecordCount++;
+            } else {
+                throw new IOException("Status History component dictionary " + file + " is corrupt: found unknown record type " + recordType);
+            }
+        });
+    }
+
+    private static String getKey(final ComponentType type, final String componentId) {
+        return type.name() + ":" + componentId;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the entry for the given component, or <code>null</code> if the component has never been registered
+     */
+    Entry getEntry(final ComponentType type, final String componentId) {
+        return entriesByKey.get(getKey(type, componentId));
+    }
+
+    /**
+     * Returns the entry for the given component, registering the component if it is not yet known and updating
+     * its details if they have changed. The component is marked as seen in the current capture.
+     *
+     * @param type the type of the component
+     * @param componentId the identifier of the component
+     * @param details the current details of the component; entries with a <code>null</code> value must not be included
+     * @return the entry for the component
+     * @throws IOException if unable to write to the dictionary file
+     */
+    Entry register(final ComponentType type, final String componentId, final Map<String, String> details) throws IOException {
+        final String key = getKey(type, componentId);
+        Entry entry = entriesByKey.get(key);
+        if (entry == null) {
+            entry = new Entry(nextOrdinal++, type, componentId);
+            writeRecord(createComponentRecord(entry));
+
+            entries.put(entry.getOrdinal(), entry);
+            entriesByKey.put(key, entry);
+        }
+
+        if (!entry.details.equals(details)) {
+            entry.details = new LinkedHashMap<>(details);
+            writeRecord(createDetailsRecord(entry));
+        }
+
+        entry.lastCapture = captureCount;
+        return entry;
+    }
+
+    /**
+     * Completes the current capture, removing every component that has not been registered during the given number
+     * of most recent captures, including the current one. The history of a removed component can no longer be retrieved,
+     * and its data is discarded from the segment files as they age out of their retention period.
+     *
+     * @param maxMissedCaptures the number of consecutive captures in which a component may be absent before it is removed
+     * @return the number of components that were removed
+     * @throws IOException if unable to write to the dictionary file
+     */
+    int endCapture(final int maxMissedCaptures) throws IOException {
+        final long oldestRetainedCapture = captureCount - maxMissedCaptures + 1;
+        captureCount++;
+
+        int removed = 0;
+        final Iterator<Entry> itr = entries.values().iterator();
+        while (itr.hasNext()) {
+            final Entry entry = itr.next();
+            if (entry.lastCapture >= oldestRetainedCapture) {
+                continue;
+            }
+
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final DataOutputStream recordOut = new DataOutputStream(baos);
+            recordOut.writeByte(REMOVED_RECORD);
+            recordOut.writeInt(entry.getOrdinal());
+            writeRecord(baos.toByteArray());
+
+            itr.remove();
+            entriesByKey.remove(getKey(entry.getType(), entry.getComponentId()));
+            removedRecordCount++;
+            removed++;
+        }
+
+        // once most of the file describes components that no longer exist, rewrite it with only the remaining components
+        if (removedRecordCount > entries.size()) {
+            compact();
+        }
+
+        return removed;
+    }
+
+    private void compact() throws IOException {
+        close();
+
+        final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (final FileOutputStream fos = new FileOutputStream(tempFile);
+            final DataOutputStream compactOut = new DataOutputStream(new BufferedOutputStream(fos))) {
+
+            for (final Entry entry : entries.values()) {
+                StatusEncoding.writeRecord(compactOut, createComponentRecord(entry));
+                if (!entry.details.isEmpty()) {
+                    StatusEncoding.writeRecord(compactOut, createDetailsRecord(entry));
+                }
+            }
+
+            // the highest ordinal ever assigned must be retained so that it is not given to another component after a restart
+            final int highestOrdinal = nextOrdinal - 1;
+            if (highestOrdinal >= 0 && !entries.containsKey(highestOrdinal)) {
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                final DataOutputStream recordOut = new DataOutputStream(baos);
+                recordOut.writeByte(REMOVED_RECORD);
+                recordOut.writeInt(highestOrdinal);
+                StatusEncoding.writeRecord(compactOut, baos.toByteArray());
+            }
+
+            compactOut.flush();
+            fos.getFD().sync();
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        removedRecordCount = 0;
+    }
+
+    private static byte[] createComponentRecord(final Entry entry) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream recordOut = new DataOutputStream(baos);
+        recordOut.writeByte(COMPONENT_RECORD);
+        recordOut.writeInt(entry.getOrdinal());
+        recordOut.writeUTF(entry.getType().name());
+        recordOut.writeUTF(entry.getComponentId());
+        return baos.toByteArray();
+    }
+
+    private static byte[] createDetailsRecord(final Entry entry) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream recordOut = new DataOutputStream(baos);
+        recordOut.writeByte(DETAILS_RECORD);
+        recordOut.writeInt(entry.getOrdinal());
+        recordOut.writeInt(entry.details.size());
+        for (final Map.Entry<String, String> detail : entry.details.entrySet()) {
+            recordOut.writeUTF(detail.getKey());
+            recordOut.writeUTF(detail.getValue());
+        }
+        return baos.toByteArray();
+    }
+
+    private void writeRecord(final byte[] record) throws IOException {
+        if (out == null) {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        }
+        StatusEncoding.writeRecord(out, record);
+    }
+
+    /**
+     * Flushes any records that have been registered to disk
+     *
+     * @throws IOException if unable to write to the dictionary file
+     */
+    void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
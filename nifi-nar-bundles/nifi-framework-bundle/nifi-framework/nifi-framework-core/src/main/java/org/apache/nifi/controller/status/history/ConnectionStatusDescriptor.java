@@ -17,6 +17,8 @@
 
 package org.apache.nifi.controller.status.history;
 
+import java.util.List;
+
 import org.apache.nifi.controller.status.ConnectionStatus;
 import org.apache.nifi.controller.status.history.MetricDescriptor.Formatter;
 
@@ -61,7 +63,46 @@ public enum ConnectionStatusDescriptor {
         "Queued Count",
         "The number of FlowFiles queued in this Connection",
         Formatter.COUNT,
-        s -> Long.valueOf(s.getQueuedCount())));
+        s -> Long.valueOf(s.getQueuedCount()))),
+
+    QUEUED_DURATION_P50(new StandardMetricDescriptor<ConnectionStatus>(
+        "queuedDurationP50",
+        "Median Queued Duration (5 mins)",
+        "The median amount of time that FlowFiles pulled from this Connection had spent in the queue, over the past 5 minutes",
+        Formatter.DURATION,
+        ConnectionStatus::getQueuedDurationMillisP50,
+        new ValueReducer<StatusSnapshot, Long>() {
+            @Override
+            public Long reduce(final List<StatusSnapshot> values) {
+                return getMaxValue(values, QUEUED_DURATION_P50);
+            }
+        })),
+
+    QUEUED_DURATION_P99(new StandardMetricDescriptor<ConnectionStatus>(
+        "queuedDurationP99",
+        "99th Percentile Queued Duration (5 mins)",
+        "The 99th percentile of the amount of time that FlowFiles pulled from this Connection had spent in the queue, over the past 5 minutes",
+        Formatter.DURATION,
+        ConnectionStatus::getQueuedDurationMillisP99,
+        new ValueReducer<StatusSnapshot, Long>() {
+            @Override
+            public Long reduce(final List<StatusSnapshot> values) {
+                return getMaxValue(values, QUEUED_DURATION_P99);
+            }
+        })),
+
+    QUEUED_DURATION_MAX(new StandardMetricDescriptor<ConnectionStatus>(
+        "queuedDurationMax",
+        "Max Queued Duration (5 mins)",
+        "The longest amount of time that a FlowFile pulled from this Connection had spent in the queue, over the past 5 minutes",
+        Formatter.DURATION,
+        ConnectionStatus::getQueuedDurationMillisMax,
+        new ValueReducer<StatusSnapshot, Long>() {
+            @Override
+            public Long reduce(final List<StatusSnapshot> values) {
+                return getMaxValue(values, QUEUED_DURATION_MAX);
+            }
+        }));
 
 
     private MetricDescriptor<ConnectionStatus> descriptor;
@@ -77,4 +118,16 @@ public enum ConnectionStatusDescriptor {
     public MetricDescriptor<ConnectionStatus> getDescriptor() {
         return descriptor;
     }
+
+    // percentiles of different intervals cannot be combined, so the slowest interval is reported
+    private static long getMaxValue(final List<StatusSnapshot> values, final ConnectionStatusDescriptor descriptor) {
+        long max = 0L;
+        for (final StatusSnapshot snapshot : values) {
+            final Long value = snapshot.getStatusMetrics().get(descriptor.getDescriptor());
+            if (value != null) {
+                max = Math.max(max, value.longValue());
+            }
+        }
+        return max;
+    }
 }
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import org.apache.nifi.controller.status.ConnectionStatus;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
+import org.apache.nifi.controller.status.history.MetricDescriptor.Formatter;
+import org.apache.nifi.util.ComponentStatusReport.ComponentType;
+import org.apache.nifi.util.FormatUtils;
+import org.apache.nifi.util.NiFiProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * A Component Status Repository that stores status history on disk, so that it survives a restart, and that keeps
+ * its memory usage low enough to hold days of history for thousands of components.
+ * </p>
+ *
+ * <p>
+ * Rather than keeping the full tree of status objects for every snapshot, each metric of each component is kept as a
+ * column of primitive longs. History is kept at two resolutions: every snapshot is kept for the raw retention period,
+ * and the mean of every hour is kept for the downsampled retention period. Each resolution is divided into segments
+ * (an hour of snapshots and a day of hourly means, respectively). Only the current segment of each resolution is held
+ * in memory; it is journaled as it is captured and written to an immutable, compressed segment file once complete.
+ * Requests for history read only the segment files that overlap the requested period, and only the part of each file
+ * that holds the requested component.
+ * </p>
+ */
+public class PersistentComponentStatusRepository implements ComponentStatusRepository {
+
+    public static final String DIRECTORY_PROPERTY = "nifi.components.status.repository.directory";
+    public static final String RAW_RETENTION_PROPERTY = "nifi.components.status.repository.raw.retention";
+    public static final String DOWNSAMPLED_RETENTION_PROPERTY = "nifi.components.status.repository.downsampled.retention";
+
+    public static final String DEFAULT_DIRECTORY = "./status_repository";
+    public static final String DEFAULT_RAW_RETENTION = "1 day";
+    public static final String DEFAULT_DOWNSAMPLED_RETENTION = "7 days";
+
+    static final long RAW_SEGMENT_MILLIS = TimeUnit.HOURS.toMillis(1L);
+    static final long DOWNSAMPLED_SEGMENT_MILLIS = TimeUnit.DAYS.toMillis(1L);
+
+    /**
+     * The number of consecutive captures in which a component may be absent from the flow before it is removed from the
+     * dictionary, so that the dictionary does not grow without bound as components are added and removed
+     */
+    static final int MAX_MISSED_CAPTURES = 60;
+
+    private static final List<MetricDescriptor<ProcessorStatus>> PROCESSOR_METRICS = Arrays.stream(ProcessorStatusDescriptor.values())
+        .map(ProcessorStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+    private static final Set<MetricDescriptor<ProcessorStatus>> HIDDEN_PROCESSOR_METRICS = Arrays.stream(ProcessorStatusDescriptor.values())
+        .filter(descriptor -> !descriptor.isVisible())
+        .map(ProcessorStatusDescriptor::getDescriptor)
+        .collect(Collectors.toSet());
+    private static final List<MetricDescriptor<ConnectionStatus>> CONNECTION_METRICS = Arrays.stream(ConnectionStatusDescriptor.values())
+        .map(ConnectionStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+    private static final List<MetricDescriptor<ProcessGroupStatus>> PROCESS_GROUP_METRICS = Arrays.stream(ProcessGroupStatusDescriptor.values())
+        .map(ProcessGroupStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+    private static final List<MetricDescriptor<RemoteProcessGroupStatus>> REMOTE_PROCESS_GROUP_METRICS = Arrays.stream(RemoteProcessGroupStatusDescriptor.values())
+        .map(RemoteProcessGroupStatusDescriptor::getDescriptor)
+        .collect(Collectors.toList());
+
+    private final Logger logger = LoggerFactory.getLogger(PersistentComponentStatusRepository.class);
+
+    private final ComponentDictionary dictionary;
+    private final StatusTier rawTier;
+    private final StatusTier downsampledTier;
+
+    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock();
+    private final Lock writeLock = rwLock.writeLock();
+
+    private volatile long lastCaptureTime = 0L;
+    private boolean shutdown = false;
+
+    /**
+     * Default no args constructor for service loading only
+     */
+    public PersistentComponentStatusRepository() {
+        dictionary = null;
+        rawTier = null;
+        downsampledTier = null;
+    }
+
+    public PersistentComponentStatusRepository(final NiFiProperties nifiProperties) throws IOException {
+        final File directory = new File(nifiProperties.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY));
+        final long rawRetentionMillis = FormatUtils.getTimeDuration(nifiProperties.getProperty(RAW_RETENTION_PROPERTY, DEFAULT_RAW_RETENTION), TimeUnit.MILLISECONDS);
+        final long downsampledRetentionMillis = FormatUtils.getTimeDuration(
+            nifiProperties.getProperty(DOWNSAMPLED_RETENTION_PROPERTY, DEFAULT_DOWNSAMPLED_RETENTION), TimeUnit.MILLISECONDS);
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create Status History directory " + directory.getAbsolutePath());
+        }
+
+        dictionary = new ComponentDictionary(new File(directory, "components.dict"));
+        downsampledTier = new StatusTier("downsampled", new File(directory, "downsampled"), DOWNSAMPLED_SEGMENT_MILLIS, downsampledRetentionMillis, null);
+        rawTier = new StatusTier("raw", new File(directory, "raw"), RAW_SEGMENT_MILLIS, rawRetentionMillis,
+            segment -> downsampledTier.append(segment.getStart(), segment.downsample()));
+
+        logger.info("Loaded Status History for {} components from {}", dictionary.size(), directory.getAbsolutePath());
+    }
+
+    @Override
+    public void capture(final ProcessGroupStatus rootGroupStatus) {
+        capture(rootGroupStatus, new Date());
+    }
+
+    @Override
+    public void capture(final ProcessGroupStatus rootGroupStatus, final Date timestamp) {
+        writeLock.lock();
+        try {
+            if (shutdown) {
+                logger.debug("Will not capture Status History because the repository has been shut down");
+                return;
+            }
+
+            final List<StatusRow> rows = new ArrayList<>();
+            captureGroup(rootGroupStatus, rows);
+
+            // components must be known to the dictionary before any history refers to them
+            dictionary.flush();
+            rawTier.append(timestamp.getTime(), rows);
+
+            final int removed = dictionary.endCapture(MAX_MISSED_CAPTURES);
+            if (removed > 0) {
+                logger.debug("Removed {} components that are no longer part of the flow from the Status History", removed);
+            }
+
+            lastCaptureTime = Math.max(lastCaptureTime, timestamp.getTime());
+            rawTier.purge(lastCaptureTime);
+            downsampledTier.purge(lastCaptureTime);
+            logger.debug("Captured metrics for {} components", rows.size());
+        } catch (final IOException ioe) {
+            logger.error("Failed to capture Status History", ioe);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void captureGroup(final ProcessGroupStatus groupStatus, final List<StatusRow> rows) throws IOException {
+        final ComponentDictionary.Entry groupEntry = dictionary.register(ComponentType.PROCESS_GROUP, groupStatus.getId(),
+            details(COMPONENT_DETAIL_NAME, groupStatus.getName()));
+        rows.add(new StatusRow(groupEntry.getOrdinal(), getValues(groupStatus, PROCESS_GROUP_METRICS), null));
+
+        for (final ProcessorStatus status : groupStatus.getProcessorStatus()) {
+            final ComponentDictionary.Entry entry = dictionary.register(ComponentType.PROCESSOR, status.getId(),
+                details(COMPONENT_DETAIL_GROUP_ID, status.getGroupId(), COMPONENT_DETAIL_NAME, status.getName(), COMPONENT_DETAIL_TYPE, status.getType()));
+
+            Map<String, Long> counters = null;
+            if (status.getCounters() != null && !status.getCounters().isEmpty()) {
+                counters = new LinkedHashMap<>();
+                for (final Map.Entry<String, Long> counter : status.getCounters().entrySet()) {
+                    if (counter.getValue() != null) {
+                        counters.put(counter.getKey(), counter.getValue());
+                    }
+                }
+            }
+
+            rows.add(new StatusRow(entry.getOrdinal(), getValues(status, PROCESSOR_METRICS), counters));
+        }
+
+        for (final ConnectionStatus status : groupStatus.getConnectionStatus()) {
+            final ComponentDictionary.Entry entry = dictionary.register(ComponentType.CONNECTION, status.getId(),
+                details(COMPONENT_DETAIL_GROUP_ID, status.getGroupId(), COMPONENT_DETAIL_NAME, status.getName(),
+                    COMPONENT_DETAIL_SOURCE_NAME, status.getSourceName(), COMPONENT_DETAIL_DESTINATION_NAME, status.getDestinationName()));
+            rows.add(new StatusRow(entry.getOrdinal(), getValues(status, CONNECTION_METRICS), null));
+        }
+
+        for (final RemoteProcessGroupStatus status : groupStatus.getRemoteProcessGroupStatus()) {
+            final ComponentDictionary.Entry entry = dictionary.register(ComponentType.REMOTE_PROCESS_GROUP, status.getId(),
+                details(COMPONENT_DETAIL_GROUP_ID, status.getGroupId(), COMPONENT_DETAIL_NAME, status.getName(), COMPONENT_DETAIL_URI, status.getTargetUri()));
+            rows.add(new StatusRow(entry.getOrdinal(), getValues(status, REMOTE_PROCESS_GROUP_METRICS), null));
+        }
+
+        for (final ProcessGroupStatus childGroupStatus : groupStatus.getProcessGroupStatus()) {
+            captureGroup(childGroupStatus, rows);
+        }
+    }
+
+    private static Map<String, String> details(final String... namesAndValues) {
+        final Map<String, String> details = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                details.put(namesAndValues[i], namesAndValues[i + 1]);
+            }
+        }
+        return details;
+    }
+
+    private static <T> long[] getValues(final T status, final List<MetricDescriptor<T>> metrics) {
+        final long[] values = new long[metrics.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Long value = metrics.get(i).getValueFunction().getValue(status);
+            values[i] = value == null ? 0L : value;
+        }
+        return values;
+    }
+
+    @Override
+    public void shutdown() {
+        if (dictionary == null) {
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+
+            closeQuietly(dictionary);
+            closeQuietly(rawTier);
+            closeQuietly(downsampledTier);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (final IOException ioe) {
+            logger.warn("Failed to close {} of the Status History", closeable, ioe);
+        }
+    }
+
+    @Override
+    public Date getLastCaptureDate() {
+        return new Date(lastCaptureTime);
+    }
+
+    @Override
+    public StatusHistory getProcessorStatusHistory(final String processorId, final Date start, final Date end, final int preferredDataPoints, final boolean includeCounters) {
+        return getStatusHistory(ComponentType.PROCESSOR, processorId, start, end, PROCESSOR_METRICS, includeCounters);
+    }
+
+    @Override
+    public StatusHistory getConnectionStatusHistory(final String connectionId, final Date start, final Date end, final int preferredDataPoints) {
+        return getStatusHistory(ComponentType.CONNECTION, connectionId, start, end, CONNECTION_METRICS, false);
+    }
+
+    @Override
+    public StatusHistory getProcessGroupStatusHistory(final String processGroupId, final Date start, final Date end, final int preferredDataPoints) {
+        return getStatusHistory(ComponentType.PROCESS_GROUP, processGroupId, start, end, PROCESS_GROUP_METRICS, false);
+    }
+
+    @Override
+    public StatusHistory getRemoteProcessGroupStatusHistory(final String remoteGroupId, final Date start, final Date end, final int preferredDataPoints) {
+        return getStatusHistory(ComponentType.REMOTE_PROCESS_GROUP, remoteGroupId, start, end, REMOTE_PROCESS_GROUP_METRICS, false);
+    }
+
+    private <T> StatusHistory getStatusHistory(final ComponentType type, final String componentId, final Date start, final Date end,
+            final List<MetricDescriptor<T>> metrics, final boolean includeCounters) {
+        final StandardStatusHistory history = new StandardStatusHistory();
+        history.setComponentDetail(COMPONENT_DETAIL_ID, componentId);
+
+        final long startMillis = start == null ? Long.MIN_VALUE : start.getTime();
+        final long endMillis = end == null ? Long.MAX_VALUE : end.getTime();
+
+        readLock.lock();
+        try {
+            final ComponentDictionary.Entry entry = dictionary.getEntry(type, componentId);
+            if (entry == null) {
+                return history;
+            }
+
+            for (final Map.Entry<String, String> detail : entry.getDetails().entrySet()) {
+                history.setComponentDetail(detail.getKey(), detail.getValue());
+            }
+
+            // hourly means are used only for the period that is no longer covered by raw snapshots
+            final long rawStart = rawTier.getEarliestTime();
+            if (startMillis < rawStart) {
+                for (final ComponentColumns columns : downsampledTier.scan(entry.getOrdinal(), startMillis, Math.min(endMillis, rawStart - 1))) {
+                    addSnapshots(history, columns, startMillis, Math.min(endMillis, rawStart - 1), metrics, includeCounters);
+                }
+            }
+
+            for (final ComponentColumns columns : rawTier.scan(entry.getOrdinal(), startMillis, endMillis)) {
+                addSnapshots(history, columns, startMillis, endMillis, metrics, includeCounters);
+            }
+        } catch (final IOException ioe) {
+            logger.error("Failed to read Status History for {} {}", type, componentId, ioe);
+        } finally {
+            readLock.unlock();
+        }
+
+        return history;
+    }
+
+    private <T> void addSnapshots(final StandardStatusHistory history, final ComponentColumns columns, final long startMillis, final long endMillis,
+            final List<MetricDescriptor<T>> metrics, final boolean includeCounters) {
+
+        for (int i = 0; i < columns.size(); i++) {
+            final long timestamp = columns.getTimestamp(i);
+            if (timestamp < startMillis || timestamp > endMillis) {
+                continue;
+            }
+
+            final StandardStatusSnapshot snapshot = new StandardStatusSnapshot();
+            snapshot.setTimestamp(new Date(timestamp));
+
+            for (int metric = 0; metric < metrics.size(); metric++) {
+                final MetricDescriptor<T> descriptor = metrics.get(metric);
+                if (HIDDEN_PROCESSOR_METRICS.contains(descriptor)) {
+                    continue;
+                }
+
+                final Long value = columns.getValue(metric, i);
+                snapshot.addStatusMetric(descriptor, value == null ? 0L : value);
+            }
+
+            if (includeCounters) {
+                for (final String counterName : columns.getCounterNames()) {
+                    final Long value = columns.getCounterValue(counterName, i);
+                    if (value == null) {
+                        continue;
+                    }
+
+                    final String label = counterName + " (5 mins)";
+                    final MetricDescriptor<ProcessorStatus> metricDescriptor = new StandardMetricDescriptor<>(counterName, label, label, Formatter.COUNT,
+                        s -> s.getCounters() == null ? null : s.getCounters().get(counterName));
+                    snapshot.addStatusMetric(metricDescriptor, value);
+                }
+            }
+
+            history.addStatusSnapshot(snapshot);
+        }
+    }
+}
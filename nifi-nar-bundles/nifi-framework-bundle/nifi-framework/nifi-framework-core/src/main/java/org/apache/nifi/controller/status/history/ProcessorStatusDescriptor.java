@@ -160,8 +160,46 @@ public enum ProcessorStatusDescriptor {
 
                 return procNanos / invocations;
             }
-        }));
+        })),
 
+    ON_TRIGGER_NANOS_P50(new StandardMetricDescriptor<ProcessorStatus>(
+        "onTriggerNanosP50",
+        "Median Trigger Latency (nanoseconds)",
+        "The median number of nanoseconds that a single invocation of this Processor's onTrigger method took, over the past 5 minutes",
+        Formatter.COUNT,
+        ProcessorStatus::getOnTriggerNanosP50,
+        new ValueReducer<StatusSnapshot, Long>() {
+            @Override
+            public Long reduce(final List<StatusSnapshot> values) {
+                return getMaxValue(values, ON_TRIGGER_NANOS_P50);
+            }
+        })),
+
+    ON_TRIGGER_NANOS_P99(new StandardMetricDescriptor<ProcessorStatus>(
+        "onTriggerNanosP99",
+        "99th Percentile Trigger Latency (nanoseconds)",
+        "The 99th percentile of the number of nanoseconds that a single invocation of this Processor's onTrigger method took, over the past 5 minutes",
+        Formatter.COUNT,
+        ProcessorStatus::getOnTriggerNanosP99,
+        new ValueReducer<StatusSnapshot, Long>() {
+            @Override
+            public Long reduce(final List<StatusSnapshot> values) {
+                return getMaxValue(values, ON_TRIGGER_NANOS_P99);
+            }
+        })),
+
+    ON_TRIGGER_NANOS_MAX(new StandardMetricDescriptor<ProcessorStatus>(
+        "onTriggerNanosMax",
+        "Max Trigger Latency (nanoseconds)",
+        "The largest number of nanoseconds that a single invocation of this Processor's onTrigger method took, over the past 5 minutes",
+        Formatter.COUNT,
+        ProcessorStatus::getOnTriggerNanosMax,
+        new ValueReducer<StatusSnapshot, Long>() {
+            @Override
+            public Long reduce(final List<StatusSnapshot> values) {
+                return getMaxValue(values, ON_TRIGGER_NANOS_MAX);
+            }
+        }));
 
 
     private final MetricDescriptor<ProcessorStatus> descriptor;
@@ -187,4 +225,16 @@ public enum ProcessorStatusDescriptor {
     public boolean isVisible() {
         return visible;
     }
+
+    // percentiles of different intervals cannot be combined, so the slowest interval is reported
+    private static long getMaxValue(final List<StatusSnapshot> values, final ProcessorStatusDescriptor descriptor) {
+        long max = 0L;
+        for (final StatusSnapshot snapshot : values) {
+            final Long value = snapshot.getStatusMetrics().get(descriptor.getDescriptor());
+            if (value != null) {
+                max = Math.max(max, value.longValue());
+            }
+        }
+        return max;
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * Encoding helpers that are shared by the files of the {@link PersistentComponentStatusRepository}.
+ * Numbers are written as variable-length integers so that the small values and small deltas that
+ * make up most status history take only a byte or two.
+ */
+final class StatusEncoding {
+
+    private StatusEncoding() {
+    }
+
+    interface RecordHandler {
+        void handle(DataInput in) throws IOException;
+    }
+
+    static void writeVarLong(final DataOutput out, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0L) {
+            out.writeByte((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    static long readVarLong(final DataInput in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static void writeVarInt(final DataOutput out, final int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(final DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    static void writeSignedVarLong(final DataOutput out, final long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(final DataInput in) throws IOException {
+        final long encoded = readVarLong(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    /**
+     * Writes the given payload as a length-prefixed record, so that a record that was only partially written
+     * when NiFi stopped can be recognized when the file is read again
+     */
+    static void writeRecord(final DataOutputStream out, final byte[] payload) throws IOException {
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    /**
+     * Reads all complete length-prefixed records from the given file, handing each to the given handler, and
+     * truncates any partially written record from the end of the file
+     *
+     * @param file the file to read
+     * @param handler the handler to give each record to
+     * @throws IOException if unable to read the file
+     */
+    static void readRecords(final File file, final RecordHandler handler) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+
+        long validLength = 0L;
+        try (final InputStream fis = new FileInputStream(file);
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(fis))) {
+
+            while (true) {
+                final int length;
+                try {
+                    length = in.readInt();
+                } catch (final EOFException eof) {
+                    break;
+                }
+
+                final byte[] payload = new byte[length];
+                try {
+                    in.readFully(payload);
+                } catch (final EOFException eof) {
+                    break;
+                }
+
+                handler.handle(new DataInputStream(new ByteArrayInputStream(payload)));
+                validLength += 4 + length;
+            }
+        }
+
+        if (validLength < file.length()) {
+            try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(validLength);
+            }
+        }
+    }
+}
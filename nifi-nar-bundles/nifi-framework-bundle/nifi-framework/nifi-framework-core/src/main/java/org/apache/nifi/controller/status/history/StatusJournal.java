@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An append-only log of the rows that have been added to the segment that is currently held in memory, so that
+ * the segment can be rebuilt if NiFi is restarted before the segment is complete and written to a segment file
+ */
+final class StatusJournal implements Closeable {
+    private final File file;
+    private DataOutputStream out;
+
+    interface FrameHandler {
+        void handle(long timestamp, List<StatusRow> rows) throws IOException;
+    }
+
+    StatusJournal(final File file) {
+        this.file = file;
+    }
+
+    /**
+     * Hands every complete frame in the journal to the given handler, in the order in which they were written
+     *
+     * @param handler the handler to give each frame to
+     * @throws IOException if unable to read the journal
+     */
+    void replay(final FrameHandler handler) throws IOException {
+        StatusEncoding.readRecords(file, in -> {
+            final long timestamp = in.readLong();
+            final int rowCount = StatusEncoding.readVarInt(in);
+            final List<StatusRow> rows = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                rows.add(StatusRow.readFrom(in));
+            }
+            handler.handle(timestamp, rows);
+        });
+    }
+
+    void append(final long timestamp, final Collection<StatusRow> rows) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream frameOut = new DataOutputStream(baos);
+        frameOut.writeLong(timestamp);
+        StatusEncoding.writeVarInt(frameOut, rows.size());
+        for (final StatusRow row : rows) {
+            row.writeTo(frameOut);
+        }
+        frameOut.flush();
+
+        if (out == null) {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+        }
+        StatusEncoding.writeRecord(out, baos.toByteArray());
+        out.flush();
+    }
+
+    /**
+     * Removes all frames from the journal. This is called once the frames have been written to a segment file.
+     *
+     * @throws IOException if unable to truncate the journal
+     */
+    void clear() throws IOException {
+        close();
+        new FileOutputStream(file, false).close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
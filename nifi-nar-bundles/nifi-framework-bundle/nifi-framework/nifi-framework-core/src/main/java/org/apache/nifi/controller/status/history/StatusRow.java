@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The values of all metrics of a single component at a single point in time
+ */
+final class StatusRow {
+    private final int ordinal;
+    private final long[] values;
+    private final Map<String, Long> counters;
+
+    /**
+     * @param ordinal the ordinal that the {@link ComponentDictionary} assigned to the component
+     * @param values the value of each metric, indexed by the ordinal of the metric's descriptor
+     * @param counters the values of the component's counters, or <code>null</code> if the component has no counters
+     */
+    StatusRow(final int ordinal, final long[] values, final Map<String, Long> counters) {
+        this.ordinal = ordinal;
+        this.values = values;
+        this.counters = counters == null ? Collections.emptyMap() : counters;
+    }
+
+    int getOrdinal() {
+        return ordinal;
+    }
+
+    long[] getValues() {
+        return values;
+    }
+
+    Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    void writeTo(final DataOutput out) throws IOException {
+        StatusEncoding.writeVarInt(out, ordinal);
+        StatusEncoding.writeVarInt(out, values.length);
+        for (final long value : values) {
+            StatusEncoding.writeSignedVarLong(out, value);
+        }
+
+        StatusEncoding.writeVarInt(out, counters.size());
+        for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+            out.writeUTF(entry.getKey());
+            StatusEncoding.writeSignedVarLong(out, entry.getValue());
+        }
+    }
+
+    static StatusRow readFrom(final DataInput in) throws IOException {
+        final int ordinal = StatusEncoding.readVarInt(in);
+        final long[] values = new long[StatusEncoding.readVarInt(in)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = StatusEncoding.readSignedVarLong(in);
+        }
+
+        final int counterCount = StatusEncoding.readVarInt(in);
+        Map<String, Long> counters = null;
+        if (counterCount > 0) {
+            counters = new LinkedHashMap<>(counterCount);
+            for (int i = 0; i < counterCount; i++) {
+                counters.put(in.readUTF(), StatusEncoding.readSignedVarLong(in));
+            }
+        }
+
+        return new StatusRow(ordinal, values, counters);
+    }
+}
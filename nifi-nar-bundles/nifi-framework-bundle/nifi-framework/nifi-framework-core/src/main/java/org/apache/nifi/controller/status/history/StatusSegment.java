@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The status history of all components for one fixed period of time, held in memory while that period is
+ * still being captured
+ */
+final class StatusSegment {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long start;
+    private final long end;
+    private final Map<Integer, ComponentColumns> components = new TreeMap<>();
+
+    /**
+     * @param start the beginning of the period, inclusive
+     * @param end the end of the period, exclusive
+     */
+    StatusSegment(final long start, final long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    boolean isEmpty() {
+        return components.isEmpty();
+    }
+
+    /**
+     * Adds the given rows to the segment. A row that is not newer than the latest row of the same component is
+     * ignored, so that rows which are replayed after a restart are not recorded twice.
+     */
+    void append(final long timestamp, final Collection<StatusRow> rows) {
+        for (final StatusRow row : rows) {
+            ComponentColumns columns = components.get(row.getOrdinal());
+            if (columns == null) {
+                columns = new ComponentColumns(row.getValues().length, INITIAL_CAPACITY);
+                components.put(row.getOrdinal(), columns);
+            } else if (timestamp <= columns.getLastTimestamp()) {
+                continue;
+            }
+
+            columns.append(timestamp, row);
+        }
+    }
+
+    ComponentColumns getColumns(final int ordinal) {
+        return components.get(ordinal);
+    }
+
+    /**
+     * @return the components of this segment, ordered by their ordinal
+     */
+    Map<Integer, ComponentColumns> getComponents() {
+        return components;
+    }
+
+    /**
+     * @return one row for each component, holding the mean of each of its metrics over the whole segment
+     */
+    List<StatusRow> downsample() {
+        final List<StatusRow> rows = new ArrayList<>(components.size());
+        for (final Map.Entry<Integer, ComponentColumns> entry : components.entrySet()) {
+            rows.add(entry.getValue().mean(entry.getKey()));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An immutable file that holds the status history of all components for one period of time. The history of each
+ * component is written as a separately compressed block, and an index of the blocks is kept at the end of the file
+ * and held in memory, so that the history of a single component can be read without reading the rest of the file.
+ *
+ * <pre>
+ * int magic, int version, long start, long end
+ * block*                                   (deflated {@link ComponentColumns})
+ * int count, (int ordinal, long offset, int length)*
+ * long offset of index
+ * </pre>
+ */
+final class StatusSegmentFile {
+    static final String EXTENSION = ".segment";
+
+    private static final int MAGIC = 0x4E534853;
+    private static final int VERSION = 1;
+
+    private final File file;
+    private final long start;
+    private final long end;
+    private final int[] ordinals;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    private StatusSegmentFile(final File file, final long start, final long end, final int[] ordinals, final long[] offsets, final int[] lengths) {
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.ordinals = ordinals;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    long getStart() {
+        return start;
+    }
+
+    long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the history of the component with the given ordinal, or <code>null</code> if this segment holds no history for it
+     * @throws IOException if unable to read the file
+     */
+    ComponentColumns read(final int ordinal) throws IOException {
+        final int index = Arrays.binarySearch(ordinals, ordinal);
+        if (index < 0) {
+            return null;
+        }
+
+        final byte[] block = new byte[lengths[index]];
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offsets[index]);
+            raf.readFully(block);
+        }
+
+        try (final DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(block)))) {
+            return ComponentColumns.readFrom(in);
+        }
+    }
+
+    /**
+     * Writes the given segment to the given file. The data is first written to a temporary file that is then renamed,
+     * so that the file either holds the complete segment or does not exist.
+     *
+     * @param file the file to write
+     * @param segment the segment to write
+     * @return the written segment file
+     * @throws IOException if unable to write the file
+     */
+    static StatusSegmentFile write(final File file, final StatusSegment segment) throws IOException {
+        final Map<Integer, ComponentColumns> components = segment.getComponents();
+        final int[] ordinals = new int[components.size()];
+        final long[] offsets = new long[components.size()];
+        final int[] lengths = new int[components.size()];
+
+        final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (final FileOutputStream fos = new FileOutputStream(tempFile);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segment.getStart());
+            out.writeLong(segment.getEnd());
+
+            final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+            final Deflater deflater = new Deflater();
+            try {
+                int index = 0;
+                for (final Map.Entry<Integer, ComponentColumns> entry : components.entrySet()) {
+                    blockBytes.reset();
+                    deflater.reset();
+                    try (final DataOutputStream blockOut = new DataOutputStream(new DeflaterOutputStream(blockBytes, deflater))) {
+                        entry.getValue().writeTo(blockOut);
+                    }
+
+                    ordinals[index] = entry.getKey();
+                    offsets[index] = out.size();
+                    lengths[index] = blockBytes.size();
+                    blockBytes.writeTo(out);
+                    index++;
+                }
+            } finally {
+                deflater.end();
+            }
+
+            final long indexOffset = out.size();
+            out.writeInt(ordinals.length);
+            for (int i = 0; i < ordinals.length; i++) {
+                out.writeInt(ordinals[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+            out.writeLong(indexOffset);
+
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return new StatusSegmentFile(file, segment.getStart(), segment.getEnd(), ordinals, offsets, lengths);
+    }
+
+    /**
+     * Reads the header and the index of the given segment file
+     *
+     * @param file the file to open
+     * @return the segment file
+     * @throws IOException if the file cannot be read or is not a segment file
+     */
+    static StatusSegmentFile open(final File file) throws IOException {
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.readInt() != MAGIC) {
+                throw new IOException(file + " is not a Status History segment file");
+            }
+
+            final int version = raf.readInt();
+            if (version != VERSION) {
+                throw new IOException("Cannot read " + file + " because it was written with version " + version + ", but only version " + VERSION + " is supported");
+            }
+
+            final long start = raf.readLong();
+            final long end = raf.readLong();
+
+            raf.seek(raf.length() - 8);
+            raf.seek(raf.readLong());
+
+            final int count = raf.readInt();
+            final int[] ordinals = new int[count];
+            final long[] offsets = new long[count];
+            final int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                ordinals[i] = raf.readInt();
+                offsets[i] = raf.readLong();
+                lengths[i] = raf.readInt();
+            }
+
+            return new StatusSegmentFile(file, start, end, ordinals, offsets, lengths);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One resolution of the status history. Rows are added to a {@link StatusSegment} in memory, and to a
+ * {@link StatusJournal} so that they survive a restart. Once a row arrives for a later period than that of the
+ * segment, the segment is complete: it is handed to the {@link RollListener}, written to a {@link StatusSegmentFile}
+ * and replaced by a new segment. Segment files are never modified; once all of the data in a segment file is older
+ * than the retention period of the tier, the file is deleted.
+ */
+final class StatusTier implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StatusTier.class);
+    private static final String JOURNAL_FILENAME = "journal";
+
+    private final String name;
+    private final File directory;
+    private final long segmentMillis;
+    private final long retentionMillis;
+    private final RollListener rollListener;
+    private final StatusJournal journal;
+    private final List<StatusSegmentFile> segmentFiles = new ArrayList<>();
+
+    private StatusSegment openSegment;
+
+    interface RollListener {
+        void onRoll(StatusSegment segment) throws IOException;
+    }
+
+    /**
+     * @param name the name of the tier, used for logging
+     * @param directory the directory to store the tier's files in
+     * @param segmentMillis the period of time that each segment covers
+     * @param retentionMillis how long to keep the data of the tier
+     * @param rollListener notified of each segment when it is complete, before it is written to disk; may be <code>null</code>
+     * @throws IOException if unable to create the directory or to read the existing segment files and journal
+     */
+    StatusTier(final String name, final File directory, final long segmentMillis, final long retentionMillis, final RollListener rollListener) throws IOException {
+        this.name = name;
+        this.directory = directory;
+        this.segmentMillis = segmentMillis;
+        this.retentionMillis = retentionMillis;
+        this.rollListener = rollListener;
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory);
+        }
+
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                if (file.getName().endsWith(StatusSegmentFile.EXTENSION)) {
+                    try {
+                        segmentFiles.add(StatusSegmentFile.open(file));
+                    } catch (final IOException e) {
+                        logger.warn("Unable to read Status History segment file {}; it will be ignored", file, e);
+                    }
+                } else if (file.getName().endsWith(".tmp") && !file.delete()) {
+                    logger.warn("Unable to delete incomplete Status History segment file {}", file);
+                }
+            }
+        }
+        segmentFiles.sort(Comparator.comparingLong(StatusSegmentFile::getStart));
+
+        journal = new StatusJournal(new File(directory, JOURNAL_FILENAME));
+        journal.replay((timestamp, rows) -> {
+            final long segmentStart = getSegmentStart(timestamp);
+            if (hasSegmentFile(segmentStart)) {
+                // the segment was written to disk but the journal was not cleared before NiFi stopped
+                return;
+            }
+            if (openSegment == null) {
+                openSegment = new StatusSegment(segmentStart, segmentStart + segmentMillis);
+            }
+            if (segmentStart == openSegment.getStart()) {
+                openSegment.append(timestamp, rows);
+            }
+        });
+
+        logger.debug("Loaded {} segment files for the {} tier of the Status History", segmentFiles.size(), name);
+    }
+
+    private long getSegmentStart(final long timestamp) {
+        return timestamp - Math.floorMod(timestamp, segmentMillis);
+    }
+
+    private boolean hasSegmentFile(final long segmentStart) {
+        for (final StatusSegmentFile segmentFile : segmentFiles) {
+            if (segmentFile.getStart() == segmentStart) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given rows to the tier, first completing the current segment if the rows belong to a later period
+     *
+     * @param timestamp the time at which the rows were captured
+     * @param rows the rows to add
+     * @throws IOException if unable to journal the rows or to write a completed segment
+     */
+    void append(final long timestamp, final List<StatusRow> rows) throws IOException {
+        final long segmentStart = getSegmentStart(timestamp);
+        if (openSegment != null && segmentStart != openSegment.getStart()) {
+            if (segmentStart < openSegment.getStart()) {
+                logger.debug("Ignoring status captured at {} for the {} tier because it is older than the current segment", timestamp, name);
+                return;
+            }
+            roll();
+        }
+
+        if (openSegment == null) {
+            openSegment = new StatusSegment(segmentStart, segmentStart + segmentMillis);
+        }
+
+        journal.append(timestamp, rows);
+        openSegment.append(timestamp, rows);
+    }
+
+    private void roll() throws IOException {
+        final StatusSegment segment = openSegment;
+        if (rollListener != null) {
+            rollListener.onRoll(segment);
+        }
+
+        if (!segment.isEmpty() && !hasSegmentFile(segment.getStart())) {
+            final File file = new File(directory, segment.getStart() + StatusSegmentFile.EXTENSION);
+            segmentFiles.add(StatusSegmentFile.write(file, segment));
+            logger.debug("Wrote Status History segment file {} for the {} tier", file, name);
+        }
+
+        journal.clear();
+        openSegment = null;
+    }
+
+    /**
+     * Deletes all segment files that hold only data that is older than the retention period
+     *
+     * @param now the current time
+     */
+    void purge(final long now) {
+        final long cutoff = now - retentionMillis;
+        final Iterator<StatusSegmentFile> itr = segmentFiles.iterator();
+        while (itr.hasNext()) {
+            final StatusSegmentFile segmentFile = itr.next();
+            if (segmentFile.getEnd() > cutoff) {
+                break;
+            }
+
+            if (segmentFile.getFile().delete()) {
+                logger.debug("Deleted expired Status History segment file {} of the {} tier", segmentFile.getFile(), name);
+                itr.remove();
+            } else {
+                logger.warn("Unable to delete expired Status History segment file {}", segmentFile.getFile());
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the earliest time for which this tier holds data, or {@link Long#MAX_VALUE} if the tier is empty
+     */
+    long getEarliestTime() {
+        if (!segmentFiles.isEmpty()) {
+            return segmentFiles.get(0).getStart();
+        }
+        if (openSegment != null && !openSegment.isEmpty()) {
+            return openSegment.getStart();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Collects the history of the given component for all segments that overlap the given period, in chronological order
+     *
+     * @param ordinal the ordinal of the component
+     * @param start the beginning of the period, inclusive
+     * @param end the end of the period, inclusive
+     * @return the history of the component, one entry per segment that holds history for the component
+     * @throws IOException if unable to read a segment file
+     */
+    List<ComponentColumns> scan(final int ordinal, final long start, final long end) throws IOException {
+        final List<ComponentColumns> history = new ArrayList<>();
+        for (final StatusSegmentFile segmentFile : segmentFiles) {
+            if (segmentFile.getEnd() <= start || segmentFile.getStart() > end) {
+                continue;
+            }
+
+            final ComponentColumns columns = segmentFile.read(ordinal);
+            if (columns != null) {
+                history.add(columns);
+            }
+        }
+
+        if (openSegment != null && openSegment.getEnd() > start && openSegment.getStart() <= end) {
+            final ComponentColumns columns = openSegment.getColumns(ordinal);
+            if (columns != null) {
+                history.add(columns);
+            }
+        }
+
+        return history;
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
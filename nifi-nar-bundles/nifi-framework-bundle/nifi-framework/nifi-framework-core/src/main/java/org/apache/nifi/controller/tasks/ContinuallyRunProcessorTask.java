@@ -70,7 +70,7 @@ public class ContinuallyRunProcessorTask implements Callable<Boolean> {
         this.processContext = processContext;
     }
 
-    static boolean isRunOnCluster(final ProcessorNode procNode, FlowController flowController) {
+    public static boolean isRunOnCluster(final ProcessorNode procNode, FlowController flowController) {
         return !procNode.isIsolated() || !flowController.isConfiguredForClustering() || flowController.isPrimary();
     }
 
@@ -144,14 +144,17 @@ public class ContinuallyRunProcessorTask implements Callable<Boolean> {
             try (final AutoCloseable ncl = NarCloseable.withComponentNarLoader(procNode.getProcessor().getClass(), procNode.getIdentifier())) {
                 boolean shouldRun = true;
                 while (shouldRun) {
+                    final long triggerStartNanos = System.nanoTime();
                     procNode.onTrigger(processContext, sessionFactory);
                     invocationCount++;
 
+                    final long nanoTime = System.nanoTime();
+                    context.getFlowFileEventRepository().recordDuration(procNode.getIdentifier(), nanoTime - triggerStartNanos, TimeUnit.NANOSECONDS);
+
                     if (!batch) {
                         return false;
                     }
 
-                    final long nanoTime = System.nanoTime();
                     if (nanoTime > finishNanos) {
                         return false;
                     }
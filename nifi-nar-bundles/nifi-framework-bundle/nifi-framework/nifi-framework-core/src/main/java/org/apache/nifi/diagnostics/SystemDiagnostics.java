@@ -46,6 +46,11 @@ public class SystemDiagnostics implements Cloneable {
     private Map<String, StorageUsage> provenanceRepositoryStorageUsage;
     private Map<String, GarbageCollection> garbageCollection;
 
+    private long contentRepositoryMappedBytes;
+    private int contentRepositoryMappedFileCount;
+    private long contentRepositoryMappedReadHits;
+    private long contentRepositoryMappedReadMisses;
+
     private long creationTimestamp;
 
     public void setTotalNonHeap(final long totalNonHeap) {
@@ -184,6 +189,51 @@ public class SystemDiagnostics implements Cloneable {
         this.garbageCollection = garbageCollection;
     }
 
+    public long getContentRepositoryMappedBytes() {
+        return contentRepositoryMappedBytes;
+    }
+
+    public void setContentRepositoryMappedBytes(final long contentRepositoryMappedBytes) {
+        this.contentRepositoryMappedBytes = contentRepositoryMappedBytes;
+    }
+
+    public int getContentRepositoryMappedFileCount() {
+        return contentRepositoryMappedFileCount;
+    }
+
+    public void setContentRepositoryMappedFileCount(final int contentRepositoryMappedFileCount) {
+        this.contentRepositoryMappedFileCount = contentRepositoryMappedFileCount;
+    }
+
+    public long getContentRepositoryMappedReadHits() {
+        return contentRepositoryMappedReadHits;
+    }
+
+    public void setContentRepositoryMappedReadHits(final long contentRepositoryMappedReadHits) {
+        this.contentRepositoryMappedReadHits = contentRepositoryMappedReadHits;
+    }
+
+    public long getContentRepositoryMappedReadMisses() {
+        return contentRepositoryMappedReadMisses;
+    }
+
+    public void setContentRepositoryMappedReadMisses(final long contentRepositoryMappedReadMisses) {
+        this.contentRepositoryMappedReadMisses = contentRepositoryMappedReadMisses;
+    }
+
+    /**
+     * @return the percentage of memory-mapped content reads that were served from a file that was already mapped, or -1 if
+     *         there have been no such reads
+     */
+    public int getContentRepositoryMappedReadHitRatio() {
+        final long mappedReads = contentRepositoryMappedReadHits + contentRepositoryMappedReadMisses;
+        if (mappedReads == 0L) {
+            return -1;
+        } else {
+            return DiagnosticUtils.getUtilization(contentRepositoryMappedReadHits, mappedReads);
+        }
+    }
+
     public long getCreationTimestamp() {
         return creationTimestamp;
     }
@@ -237,6 +287,10 @@ public class SystemDiagnostics implements Cloneable {
         clonedObj.totalThreads = totalThreads;
         clonedObj.usedHeap = usedHeap;
         clonedObj.usedNonHeap = usedNonHeap;
+        clonedObj.contentRepositoryMappedBytes = contentRepositoryMappedBytes;
+        clonedObj.contentRepositoryMappedFileCount = contentRepositoryMappedFileCount;
+        clonedObj.contentRepositoryMappedReadHits = contentRepositoryMappedReadHits;
+        clonedObj.contentRepositoryMappedReadMisses = contentRepositoryMappedReadMisses;
         clonedObj.creationTimestamp = creationTimestamp;
         clonedObj.uptime = uptime;
 
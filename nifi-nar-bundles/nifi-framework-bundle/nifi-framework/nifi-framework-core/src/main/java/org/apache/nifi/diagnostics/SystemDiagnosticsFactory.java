@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FileSystemRepository;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.slf4j.Logger;
@@ -119,6 +120,15 @@ public class SystemDiagnosticsFactory {
         }
         systemDiagnostics.setContentRepositoryStorageUsage(fileRepositoryUsage);
 
+        // get the usage of memory-mapped content, if the content repository maps files for reading
+        if (contentRepo instanceof FileSystemRepository) {
+            final FileSystemRepository fileSystemRepository = (FileSystemRepository) contentRepo;
+            systemDiagnostics.setContentRepositoryMappedBytes(fileSystemRepository.getMappedBytes());
+            systemDiagnostics.setContentRepositoryMappedFileCount(fileSystemRepository.getMappedFileCount());
+            systemDiagnostics.setContentRepositoryMappedReadHits(fileSystemRepository.getMappedReadHitCount());
+            systemDiagnostics.setContentRepositoryMappedReadMisses(fileSystemRepository.getMappedReadMissCount());
+        }
+
         // get provenance repository disk usage
         final Set<String> provContainerNames = provenanceRepository.getContainerNames();
         final Map<String, StorageUsage> provRepositoryUsage = new LinkedHashMap<>(provContainerNames.size());
@@ -17,6 +17,8 @@
 package org.apache.nifi.controller;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedInputStream;
 import java.io.DataInputStream;
@@ -24,18 +26,24 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.SwapContents;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.util.NiFiProperties;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -63,9 +71,80 @@ public class TestFileSystemSwapManager {
         }
     }
 
+    @Test
+    public void testCompressedSwapFileRoundTrip() throws IOException {
+        final File repoDir = new File("target/test-swap-compression/flowfile-repo");
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, repoDir.getAbsolutePath());
+        props.put(NiFiProperties.SWAP_COMPRESSION_ENABLED, "true");
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(null, props);
+
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final List<FlowFileRecord> toSwap = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            toSwap.add(new StandardFlowFileRecord.Builder()
+                .id(i)
+                .size(i)
+                .addAttribute("key", "value")
+                .addAttribute("index", String.valueOf(i))
+                .build());
+        }
+
+        final FileSystemSwapManager swapManager = createSwapManager(new FileSystemSwapManager(nifiProperties));
+        final String swapLocation = swapManager.swapOut(toSwap, flowFileQueue);
+
+        final byte[] header = new byte[4];
+        try (final InputStream in = new FileInputStream(swapLocation)) {
+            assertEquals(4, in.read(header));
+        }
+        assertEquals("SWPZ", new String(header, "UTF-8"));
+
+        assertEquals(10000, swapManager.getSwapSummary(swapLocation).getQueueSize().getObjectCount());
+        assertTrue(swapManager.recoverSwapLocations(flowFileQueue).contains(swapLocation));
+
+        final List<FlowFileRecord> records = swapManager.swapIn(swapLocation, flowFileQueue).getFlowFiles();
+        assertEquals(10000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            final FlowFileRecord record = records.get(i);
+            assertEquals(i, record.getId());
+            assertEquals(i, record.getSize());
+            assertEquals("value", record.getAttribute("key"));
+            assertEquals(String.valueOf(i), record.getAttribute("index"));
+        }
+
+        assertFalse(new File(swapLocation).exists());
+    }
+
+    @Test
+    public void testUncompressedSwapFileStillReadableWhenCompressionEnabled() throws IOException {
+        final File repoDir = new File("target/test-swap-compression/flowfile-repo");
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, repoDir.getAbsolutePath());
+        props.put(NiFiProperties.SWAP_COMPRESSION_ENABLED, "false");
+
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final List<FlowFileRecord> toSwap = Arrays.asList(new StandardFlowFileRecord.Builder().id(1L).addAttribute("key", "value").build());
+        final FileSystemSwapManager uncompressed = createSwapManager(new FileSystemSwapManager(NiFiProperties.createBasicNiFiProperties(null, props)));
+        final String swapLocation = uncompressed.swapOut(toSwap, flowFileQueue);
+
+        props.put(NiFiProperties.SWAP_COMPRESSION_ENABLED, "true");
+        final FileSystemSwapManager compressed = createSwapManager(new FileSystemSwapManager(NiFiProperties.createBasicNiFiProperties(null, props)));
+        final List<FlowFileRecord> records = compressed.swapIn(swapLocation, flowFileQueue).getFlowFiles();
+        assertEquals(1, records.size());
+        assertEquals("value", records.get(0).getAttribute("key"));
+        assertFalse(new File(swapLocation).exists());
+    }
+
 
     private FileSystemSwapManager createSwapManager() {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager();
+        return createSwapManager(new FileSystemSwapManager());
+    }
+
+    private FileSystemSwapManager createSwapManager(final FileSystemSwapManager swapManager) {
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         final FlowFileRepository flowfileRepo = Mockito.mock(FlowFileRepository.class);
         swapManager.initialize(new SwapManagerInitializationContext() {
@@ -25,6 +25,8 @@ import org.apache.nifi.authorization.Group;
 import org.apache.nifi.authorization.MockPolicyBasedAuthorizer;
 import org.apache.nifi.authorization.RequestAction;
 import org.apache.nifi.authorization.User;
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.authorization.user.StandardNiFiUser;
 import org.apache.nifi.bundle.Bundle;
 import org.apache.nifi.bundle.BundleCoordinate;
 import org.apache.nifi.cluster.protocol.DataFlow;
@@ -32,12 +34,14 @@ import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.controller.exception.ProcessorInstantiationException;
 import org.apache.nifi.controller.reporting.ReportingTaskInstantiationException;
 import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
 import org.apache.nifi.controller.serialization.FlowSynchronizer;
 import org.apache.nifi.controller.service.ControllerServiceNode;
 import org.apache.nifi.controller.service.mock.DummyProcessor;
 import org.apache.nifi.controller.service.mock.DummyReportingTask;
 import org.apache.nifi.controller.service.mock.ServiceA;
 import org.apache.nifi.controller.service.mock.ServiceB;
+import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.encrypt.StringEncryptor;
 import org.apache.nifi.groups.ProcessGroup;
 import org.apache.nifi.logging.LogLevel;
@@ -89,8 +93,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TestFlowController {
@@ -518,6 +527,32 @@ public class TestFlowController {
         assertEquals("0 sec", p_settings.getSchedulingPeriod());
     }
 
+    @Test
+    public void testGroupStatusSharedUntilSnapshotExpires() throws InterruptedException {
+        when(flowFileEventRepo.reportTransferEvents(anyLong())).thenReturn(new StandardRepositoryStatusReport());
+        controller.getRootGroup().setName("root-group");
+        final String rootGroupId = controller.getRootGroupId();
+
+        final ProcessGroupStatus status = controller.getGroupStatus(rootGroupId);
+        assertEquals("root-group", status.getName());
+        assertSame(status, controller.getGroupStatus(rootGroupId));
+
+        // a user-scoped request is served from the same snapshot, redacting what the user may not read
+        final NiFiUser user = new StandardNiFiUser.Builder().identity("user-1").build();
+        final ProcessGroupStatus userStatus = controller.getGroupStatus(rootGroupId, user);
+        assertNotSame(status, userStatus);
+        assertEquals(rootGroupId, userStatus.getName());
+        assertEquals("root-group", status.getName());
+        verify(flowFileEventRepo, times(1)).reportTransferEvents(anyLong());
+
+        Thread.sleep(FlowController.STATUS_SNAPSHOT_MAX_AGE_MILLIS + 100L);
+
+        final ProcessGroupStatus refreshedStatus = controller.getGroupStatus(rootGroupId, user);
+        assertEquals(rootGroupId, refreshedStatus.getName());
+        assertNotSame(status, controller.getGroupStatus(rootGroupId));
+        verify(flowFileEventRepo, times(2)).reportTransferEvents(anyLong());
+    }
+
     @Test
     public void testDeleteProcessGroup() {
         ProcessGroup pg = controller.createProcessGroup("my-process-group");
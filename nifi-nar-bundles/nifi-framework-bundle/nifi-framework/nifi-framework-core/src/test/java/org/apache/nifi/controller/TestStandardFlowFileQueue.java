@@ -25,6 +25,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,8 +34,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.connectable.Connectable;
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.queue.DropFlowFileState;
@@ -42,7 +49,9 @@ import org.apache.nifi.controller.queue.DropFlowFileStatus;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.ListFlowFileState;
 import org.apache.nifi.controller.queue.ListFlowFileStatus;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.clustered.partition.RemoteQueuePartition;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
@@ -66,12 +75,17 @@ import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TestStandardFlowFileQueue {
+    private static final Logger logger = LoggerFactory.getLogger(TestStandardFlowFileQueue.class);
+
     private TestSwapManager swapManager = null;
     private StandardFlowFileQueue queue = null;
 
@@ -149,6 +163,31 @@ public class TestStandardFlowFileQueue {
         assertEquals(0L, unackSize.getByteCount());
     }
 
+    @Test
+    public void testSchedulerNotifiedWhenQueueBecomesNonEmptyOrBackPressureReleased() {
+        queue.setBackPressureObjectThreshold(2);
+
+        // Only the transition from empty to non-empty should notify the destination
+        queue.put(new TestFlowFile());
+        queue.put(new TestFlowFile());
+        Mockito.verify(scheduler, Mockito.times(1)).registerEvent(connection.getDestination());
+        assertTrue(queue.isFull());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final FlowFileRecord first = queue.poll(expiredRecords);
+        final FlowFileRecord second = queue.poll(expiredRecords);
+        Mockito.verify(scheduler, Mockito.never()).registerEvent(connection.getSource());
+
+        // Acknowledging the first FlowFile releases back pressure, so the source should be notified; acknowledging the second should not.
+        queue.acknowledge(first);
+        Mockito.verify(scheduler, Mockito.times(1)).registerEvent(connection.getSource());
+        queue.acknowledge(second);
+        Mockito.verify(scheduler, Mockito.times(1)).registerEvent(connection.getSource());
+
+        queue.putAll(Collections.singletonList(new TestFlowFile()));
+        Mockito.verify(scheduler, Mockito.times(2)).registerEvent(connection.getDestination());
+    }
+
     @Test
     public void testBackPressure() {
         queue.setBackPressureObjectThreshold(10);
@@ -389,6 +428,92 @@ public class TestStandardFlowFileQueue {
         queue.poll(exp);
     }
 
+    @Test
+    public void testSwapOutInBackground() {
+        final List<Runnable> swapOutTasks = new ArrayList<>();
+        queue = new StandardFlowFileQueue("id", connection, flowFileRepo, provRepo, claimManager, scheduler, swapManager, null, 10000, swapOutTasks::add, null);
+
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new TestFlowFile());
+        }
+
+        // FlowFiles are removed from the active queue and counted as swapped, but the swap file has not yet been written
+        assertEquals(0, swapManager.swapOutCalledCount);
+        assertEquals(20000, queue.size().getObjectCount());
+        assertEquals(10000, queue.getActiveQueueSize().getObjectCount());
+        assertEquals(1, swapOutTasks.size());
+
+        swapOutTasks.forEach(Runnable::run);
+        assertEquals(1, swapManager.swapOutCalledCount);
+        assertEquals(1, swapManager.swappedOut.size());
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            assertNotNull(queue.poll(exp));
+        }
+
+        assertEquals(0, swapManager.swapInCalledCount);
+        assertNotNull(queue.poll(exp));
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(9999, queue.getActiveQueueSize().getObjectCount());
+        assertEquals(20000, queue.size().getObjectCount());
+        assertTrue(swapManager.swappedOut.isEmpty());
+    }
+
+    @Test
+    public void testPendingSwapOutReclaimedWithoutSwapFile() {
+        final List<Runnable> swapOutTasks = new ArrayList<>();
+        queue = new StandardFlowFileQueue("id", connection, flowFileRepo, provRepo, claimManager, scheduler, swapManager, null, 10000, swapOutTasks::add, null);
+
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new TestFlowFile());
+        }
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            assertNotNull(queue.poll(exp));
+        }
+
+        // The swap file was never started, so its FlowFiles should be taken back without being written or read
+        assertNotNull(queue.poll(exp));
+        assertEquals(9999, queue.getActiveQueueSize().getObjectCount());
+        assertEquals(20000, queue.size().getObjectCount());
+
+        swapOutTasks.forEach(Runnable::run);
+        assertEquals(0, swapManager.swapOutCalledCount);
+        assertEquals(0, swapManager.swapInCalledCount);
+        assertTrue(swapManager.swappedOut.isEmpty());
+    }
+
+    @Test
+    public void testSwapFileReadAhead() {
+        final List<Runnable> swapInTasks = new ArrayList<>();
+        queue = new StandardFlowFileQueue("id", connection, flowFileRepo, provRepo, claimManager, scheduler, swapManager, null, 10000, null, swapInTasks::add);
+
+        for (int i = 1; i <= 20000; i++) {
+            queue.put(new TestFlowFile());
+        }
+        assertEquals(1, swapManager.swapOutCalledCount);
+
+        final Set<FlowFileRecord> exp = new HashSet<>();
+        assertNotNull(queue.poll(exp));
+        assertEquals(1, swapInTasks.size());
+
+        swapInTasks.forEach(Runnable::run);
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(9999, queue.getActiveQueueSize().getObjectCount());
+
+        for (int i = 0; i < 9999; i++) {
+            assertNotNull(queue.poll(exp));
+        }
+
+        // The swap file has already been read, so this should not read it again
+        assertNotNull(queue.poll(exp));
+        assertEquals(1, swapManager.swapInCalledCount);
+        assertEquals(9999, queue.getActiveQueueSize().getObjectCount());
+        assertEquals(20000, queue.size().getObjectCount());
+    }
+
     @Test
     public void testSwapInWhenThresholdIsLessThanSwapSize() {
         // create a queue where the swap threshold is less than 10k
@@ -584,6 +709,109 @@ public class TestStandardFlowFileQueue {
     }
 
 
+    @Test(timeout = 20000)
+    public void testConcurrentPutWithoutPrioritizers() throws InterruptedException, ExecutionException {
+        final int threadCount = 16;
+        final int flowFilesPerThread = 5000;
+        putConcurrently(queue, threadCount, flowFilesPerThread);
+
+        final int total = threadCount * flowFilesPerThread;
+        assertEquals(total, queue.size().getObjectCount());
+        assertEquals(total, queue.size().getByteCount());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final Set<Long> ids = new HashSet<>();
+        int polled = 0;
+        while (polled < total) {
+            final List<FlowFileRecord> records = queue.poll(1000, expiredRecords);
+            for (final FlowFileRecord record : records) {
+                assertTrue(ids.add(record.getId()));
+            }
+
+            polled += records.size();
+            queue.acknowledge(records);
+        }
+
+        assertTrue(expiredRecords.isEmpty());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size().getObjectCount());
+        assertEquals(0L, queue.size().getByteCount());
+    }
+
+    @Test
+    public void testPrioritizerAppliedToFlowFilesAddedWithoutLock() {
+        // without a prioritizer, FlowFiles are ordered by ID, so add them in the opposite order of their size
+        for (int i = 0; i < 100; i++) {
+            queue.put(new TestFlowFile(99 - i));
+        }
+
+        queue.setPriorities(Collections.singletonList(new FlowFileSizePrioritizer()));
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, queue.poll(expiredRecords).getSize());
+        }
+    }
+
+    @Test
+    @Ignore("For manual testing, in order to judge how throughput scales with the number of concurrent producers")
+    public void testConcurrentPutPerformance() throws InterruptedException, ExecutionException {
+        final int flowFilesPerThread = 2_000_000;
+
+        for (final int threadCount : new int[] {1, 2, 4, 8, 16, 32}) {
+            for (final boolean prioritized : new boolean[] {false, true}) {
+                final StandardFlowFileQueue perfQueue = new StandardFlowFileQueue("perf", connection, flowFileRepo, provRepo, claimManager, scheduler, swapManager, null,
+                    Integer.MAX_VALUE);
+                if (prioritized) {
+                    perfQueue.setPriorities(Collections.singletonList(new FlowFileSizePrioritizer()));
+                }
+
+                final ExecutorService consumerExecutor = Executors.newSingleThreadExecutor();
+                try {
+                    final long start = System.nanoTime();
+                    final Future<?> consumer = consumerExecutor.submit(() -> {
+                        final Set<FlowFileRecord> expired = new HashSet<>();
+                        int polled = 0;
+                        while (polled < threadCount * flowFilesPerThread && !Thread.currentThread().isInterrupted()) {
+                            final List<FlowFileRecord> records = perfQueue.poll(100, expired);
+                            polled += records.size();
+                            perfQueue.acknowledge(records);
+                        }
+                    });
+
+                    putConcurrently(perfQueue, threadCount, flowFilesPerThread);
+                    consumer.get();
+
+                    final long millis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    final long flowFilesPerSecond = threadCount * (long) flowFilesPerThread * 1000L / millis;
+                    logger.info("{} queue with {} producers: {} FlowFiles/sec ({} millis)", prioritized ? "Prioritized" : "Unprioritized", threadCount, flowFilesPerSecond, millis);
+                } finally {
+                    consumerExecutor.shutdownNow();
+                }
+            }
+        }
+    }
+
+    private void putConcurrently(final FlowFileQueue flowFileQueue, final int threadCount, final int flowFilesPerThread) throws InterruptedException, ExecutionException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < flowFilesPerThread; j++) {
+                        flowFileQueue.put(new TestFlowFile());
+                    }
+                }));
+            }
+
+            // rethrows anything thrown by a producer, so that it fails the test
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testOOMEFollowedBySuccessfulSwapIn() {
         final List<FlowFileRecord> flowFiles = new ArrayList<>();
@@ -639,6 +867,217 @@ public class TestStandardFlowFileQueue {
         assertTrue(swapManager.swappedOut.isEmpty());
     }
 
+    @Test
+    public void testRoundRobinDistributesAcrossPartitions() {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-2");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.ROUND_ROBIN, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(createNodeIdentifier("node-1"), localNodeId, createNodeIdentifier("node-3")));
+
+        for (int i = 0; i < 30; i++) {
+            queue.put(new TestFlowFile());
+        }
+
+        assertEquals(30, queue.size().getObjectCount());
+        assertEquals(10, queue.getLocalPartitionSize().getObjectCount());
+        assertEquals(10, queue.getActiveQueueSize().getObjectCount());
+
+        final List<RemoteQueuePartition> remotePartitions = queue.getRemotePartitions();
+        assertEquals(2, remotePartitions.size());
+        for (final RemoteQueuePartition partition : remotePartitions) {
+            assertEquals(10, partition.size().getObjectCount());
+        }
+
+        // only the local partition is available to the destination
+        final List<FlowFileRecord> polled = queue.poll(100, new HashSet<>());
+        assertEquals(10, polled.size());
+        assertTrue(queue.isActiveQueueEmpty());
+        assertFalse(queue.isEmpty());
+    }
+
+    @Test
+    public void testPartitionByAttributeIsConsistent() {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE, "customer");
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, createNodeIdentifier("node-2"), createNodeIdentifier("node-3")));
+
+        for (int i = 0; i < 300; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put("customer", String.valueOf(i % 7));
+            queue.put(new TestFlowFile(attributes, 1L));
+        }
+
+        // every FlowFile with the same attribute value must end up in the same partition; the local partition is recorded as -1
+        final Map<String, Integer> partitionForValue = new HashMap<>();
+        for (final FlowFileRecord flowFile : queue.poll(300, new HashSet<>())) {
+            final Integer previous = partitionForValue.put(flowFile.getAttribute("customer"), -1);
+            assertTrue(previous == null || previous == -1);
+        }
+
+        final List<RemoteQueuePartition> remotePartitions = queue.getRemotePartitions();
+        for (int i = 0; i < remotePartitions.size(); i++) {
+            for (final FlowFileRecord flowFile : remotePartitions.get(i).drainQueued()) {
+                final Integer previous = partitionForValue.put(flowFile.getAttribute("customer"), i);
+                assertTrue(previous == null || previous == i);
+            }
+        }
+
+        assertEquals(7, partitionForValue.size());
+    }
+
+    @Test
+    public void testTransferCompleteRemovesFlowFiles() throws IOException {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.SINGLE_NODE, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, createNodeIdentifier("node-0")));
+
+        for (int i = 0; i < 5; i++) {
+            queue.put(new TestFlowFile(10L));
+        }
+
+        // all FlowFiles belong to the first node, which is not the local node
+        assertEquals(0, queue.getLocalPartitionSize().getObjectCount());
+        final RemoteQueuePartition partition = queue.getRemotePartitions().get(0);
+        final List<FlowFileRecord> batch = queue.startTransfer(partition, 100, 1024L);
+        assertEquals(5, batch.size());
+        assertEquals(5, queue.size().getObjectCount());
+
+        queue.onTransferComplete(partition, batch, "nifi://node-0:6342/loadbalance/id");
+
+        assertTrue(queue.isEmpty());
+        assertEquals(5, provRecords.size());
+        for (final ProvenanceEventRecord event : provRecords) {
+            assertEquals(ProvenanceEventType.SEND, event.getEventType());
+            assertEquals("nifi://node-0:6342/loadbalance/id", event.getTransitUri());
+        }
+        Mockito.verify(flowFileRepo).updateRepository(Mockito.anyCollection());
+    }
+
+    @Test
+    public void testFlowFilesRedistributedWhenNodeLeaves() {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        final NodeIdentifier remoteNodeId = createNodeIdentifier("node-2");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.ROUND_ROBIN, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, remoteNodeId));
+
+        for (int i = 0; i < 10; i++) {
+            queue.put(new TestFlowFile());
+        }
+
+        final RemoteQueuePartition partition = queue.getRemotePartitions().get(0);
+        final List<FlowFileRecord> batch = queue.startTransfer(partition, 2, 1024L);
+        assertEquals(2, batch.size());
+
+        queue.setNodeIdentifiers(localNodeId, Collections.singletonList(localNodeId));
+        assertTrue(queue.getRemotePartitions().isEmpty());
+        assertEquals(8, queue.getLocalPartitionSize().getObjectCount());
+
+        // the batch that was in flight fails, so it must be placed back into the queue rather than into the discarded partition
+        queue.onTransferFailed(partition, batch, 1000L);
+        assertEquals(10, queue.getLocalPartitionSize().getObjectCount());
+        assertEquals(10, queue.size().getObjectCount());
+    }
+
+    @Test
+    public void testDisablingLoadBalancingReturnsFlowFilesToLocalPartition() {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.ROUND_ROBIN, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, createNodeIdentifier("node-2")));
+
+        for (int i = 0; i < 10; i++) {
+            queue.put(new TestFlowFile());
+        }
+        assertEquals(5, queue.getLocalPartitionSize().getObjectCount());
+
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.DO_NOT_LOAD_BALANCE, null);
+        assertTrue(queue.getRemotePartitions().isEmpty());
+        assertEquals(10, queue.getLocalPartitionSize().getObjectCount());
+    }
+
+    @Test
+    public void testRemotePartitionSwapsOutAboveSwapThreshold() {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.SINGLE_NODE, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, createNodeIdentifier("node-0")));
+
+        // the swap threshold is 10,000, so the remaining 20,000 FlowFiles should be written to 2 Swap Files
+        for (int i = 0; i < 30000; i++) {
+            queue.put(new TestFlowFile(1L));
+        }
+
+        assertEquals(2, swapManager.swapOutCalledCount);
+        assertEquals(30000, queue.size().getObjectCount());
+        assertEquals(30000L, queue.size().getByteCount());
+
+        // the FlowFiles must be swapped back in, in the order in which they were added
+        final RemoteQueuePartition partition = queue.getRemotePartitions().get(0);
+        long expectedId = 0L;
+        int sent = 0;
+        while (sent < 30000) {
+            final List<FlowFileRecord> batch = queue.startTransfer(partition, 1000, Long.MAX_VALUE);
+            assertEquals(1000, batch.size());
+            for (final FlowFileRecord flowFile : batch) {
+                assertEquals(expectedId++, flowFile.getId());
+            }
+
+            sent += batch.size();
+            partition.onTransferComplete(batch);
+        }
+
+        assertEquals(2, swapManager.swapInCalledCount);
+        assertTrue(swapManager.swappedOut.isEmpty());
+        assertTrue(partition.isEmpty());
+    }
+
+    @Test
+    public void testRemotePartitionDrainsSwappedFlowFiles() {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.SINGLE_NODE, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, createNodeIdentifier("node-0")));
+
+        for (int i = 0; i < 25000; i++) {
+            queue.put(new TestFlowFile(1L));
+        }
+        assertEquals(1, swapManager.swapOutCalledCount);
+
+        // when the remote node leaves, every FlowFile, including those that were swapped out, must return to the local partition
+        queue.setNodeIdentifiers(localNodeId, Collections.singletonList(localNodeId));
+        assertEquals(25000, queue.getLocalPartitionSize().getObjectCount());
+        assertEquals(25000, queue.size().getObjectCount());
+        assertTrue(queue.getRemotePartitions().isEmpty());
+    }
+
+    @Test
+    public void testExpiredFlowFilesRemovedFromRemotePartition() throws InterruptedException, IOException {
+        final NodeIdentifier localNodeId = createNodeIdentifier("node-1");
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.SINGLE_NODE, null);
+        queue.setNodeIdentifiers(localNodeId, Arrays.asList(localNodeId, createNodeIdentifier("node-0")));
+        queue.setFlowFileExpiration("1 ms");
+
+        for (int i = 0; i < 5; i++) {
+            queue.put(new TestFlowFile(10L));
+        }
+        Thread.sleep(10L);
+
+        final RemoteQueuePartition partition = queue.getRemotePartitions().get(0);
+        assertTrue(queue.startTransfer(partition, 100, 1024L).isEmpty());
+        assertTrue(queue.isEmpty());
+
+        assertEquals(5, provRecords.size());
+        for (final ProvenanceEventRecord event : provRecords) {
+            assertEquals(ProvenanceEventType.EXPIRE, event.getEventType());
+        }
+        Mockito.verify(flowFileRepo).updateRepository(Mockito.anyCollection());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionByAttributeRequiresAttribute() {
+        queue.setLoadBalanceStrategy(LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE, " ");
+    }
+
+    private NodeIdentifier createNodeIdentifier(final String id) {
+        return new NodeIdentifier(id, "localhost", 8080, "localhost", 8081, "localhost", 6342, "localhost", null, null, false, null);
+    }
+
 
     private class TestSwapManager implements FlowFileSwapManager {
         private final Map<String, List<FlowFileRecord>> swappedOut = new HashMap<>();
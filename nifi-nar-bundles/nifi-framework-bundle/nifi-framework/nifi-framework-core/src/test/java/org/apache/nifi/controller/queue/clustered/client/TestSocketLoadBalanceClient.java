@@ -0,0 +1,452 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.queue.clustered.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.protocol.FlowFileAttributesCodec;
+import org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants;
+import org.apache.nifi.controller.queue.clustered.server.StandardLoadBalanceProtocol;
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileRepository;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.provenance.MockProvenanceRepository;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestSocketLoadBalanceClient {
+    private static final String CONNECTION_ID = "load-balanced-connection";
+
+    private final NodeIdentifier nodeId = new NodeIdentifier("node-2", "localhost", 8080, "localhost", 8081, "localhost", 6342, "localhost", null, null, false, null);
+
+    private RecordingContentRepository contentRepo;
+    private FlowFileRepository flowFileRepo;
+    private MockProvenanceRepository provenanceRepo;
+    private LoadBalancedFlowFileQueue queue;
+    private Connection connection;
+    private List<FlowFileRecord> receivedFlowFiles;
+    private ExecutorService executor;
+    private PipedOutputStream clientOut;
+    private PipedInputStream clientIn;
+
+    @Before
+    public void setup() throws IOException {
+        System.setProperty(NiFiProperties.PROPERTIES_FILE_PATH, TestSocketLoadBalanceClient.class.getResource("/conf/nifi.properties").getFile());
+        rmDir(new File("target/content_repository"));
+
+        contentRepo = new RecordingContentRepository(NiFiProperties.createBasicNiFiProperties(null, null));
+        contentRepo.initialize(new StandardResourceClaimManager());
+        contentRepo.purge();
+
+        flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.getNextFlowFileSequence()).thenReturn(1L);
+        provenanceRepo = new MockProvenanceRepository();
+
+        receivedFlowFiles = Collections.synchronizedList(new ArrayList<>());
+        queue = Mockito.mock(LoadBalancedFlowFileQueue.class);
+        when(queue.getIdentifier()).thenReturn(CONNECTION_ID);
+        doAnswer(invocation -> {
+            receivedFlowFiles.addAll(invocation.getArgumentAt(0, Collection.class));
+            return null;
+        }).when(queue).receiveFromPeer(any());
+
+        connection = Mockito.mock(Connection.class);
+        when(connection.getFlowFileQueue()).thenReturn(queue);
+
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+        contentRepo.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testSuccessfulTransfer() throws Exception {
+        final FlowFileRecord helloWorld = createFlowFile("hello, world".getBytes(StandardCharsets.UTF_8), Collections.singletonMap("greeting", "hello"));
+        final FlowFileRecord empty = createFlowFile(new byte[0], Collections.singletonMap("filename", "empty.txt"));
+        contentRepo.createdClaims.clear();
+
+        final Future<Integer> received = startServer(id -> connection);
+        assertTrue(transfer(Arrays.asList(helloWorld, empty)));
+        assertEquals(2, received.get(5, TimeUnit.SECONDS).intValue());
+
+        assertEquals(2, receivedFlowFiles.size());
+        final FlowFileRecord receivedHello = receivedFlowFiles.get(0);
+        assertEquals("hello", receivedHello.getAttribute("greeting"));
+        assertEquals(12L, receivedHello.getSize());
+        assertEquals(1000L, receivedHello.getLineageStartDate());
+        assertEquals("hello, world", new String(readContent(receivedHello), StandardCharsets.UTF_8));
+
+        final FlowFileRecord receivedEmpty = receivedFlowFiles.get(1);
+        assertEquals("empty.txt", receivedEmpty.getAttribute("filename"));
+        assertEquals(0L, receivedEmpty.getSize());
+        assertNull(receivedEmpty.getContentClaim());
+
+        verify(flowFileRepo, times(1)).updateRepository(any());
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10);
+        assertEquals(2, events.size());
+        for (final ProvenanceEventRecord event : events) {
+            assertEquals(ProvenanceEventType.RECEIVE, event.getEventType());
+            assertEquals(CONNECTION_ID, event.getComponentId());
+        }
+
+        assertEquals(1, contentRepo.createdClaims.size());
+        assertTrue(contentRepo.releasedClaims.isEmpty());
+    }
+
+    @Test(timeout = 10000)
+    public void testChecksumMismatchReleasesContent() throws Exception {
+        final byte[] content = new byte[256];
+        Arrays.fill(content, (byte) 0xFE);
+        final FlowFileRecord first = createFlowFile(content, Collections.singletonMap("index", "1"));
+        final FlowFileRecord second = createFlowFile(content, Collections.singletonMap("index", "2"));
+        contentRepo.createdClaims.clear();
+
+        final Future<Integer> received = startServer(id -> connection);
+        try {
+            // Flip a single bit of the first content byte on its way to the server. Lineage and entry dates are fixed so that
+            // 0xFE does not appear in the data before the content.
+            createClient().send(nodeId, CONNECTION_ID, Arrays.asList(first, second), clientIn, new CorruptingOutputStream(clientOut, (byte) 0xFE));
+            fail("Expected the transfer to be rejected because of a checksum mismatch");
+        } catch (final IOException expected) {
+            assertTrue(expected.getMessage().contains("corrupt"));
+        }
+
+        assertEquals(0, received.get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(2, contentRepo.createdClaims.size());
+        assertEquals(new HashSet<>(contentRepo.createdClaims), new HashSet<>(contentRepo.releasedClaims));
+        assertNothingReceived();
+    }
+
+    @Test(timeout = 10000)
+    public void testQueueFull() throws Exception {
+        when(queue.isLocalPartitionFull()).thenReturn(true);
+        final FlowFileRecord flowFile = createFlowFile("hello".getBytes(StandardCharsets.UTF_8), Collections.emptyMap());
+        contentRepo.createdClaims.clear();
+
+        final Future<Integer> received = startServer(id -> connection);
+        assertFalse(transfer(Collections.singletonList(flowFile)));
+        assertEquals(0, received.get(5, TimeUnit.SECONDS).intValue());
+
+        assertTrue(contentRepo.createdClaims.isEmpty());
+        assertNothingReceived();
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectionNotFound() throws Exception {
+        final FlowFileRecord flowFile = createFlowFile("hello".getBytes(StandardCharsets.UTF_8), Collections.emptyMap());
+        contentRepo.createdClaims.clear();
+
+        final Future<Integer> received = startServer(id -> null);
+        try {
+            transfer(Collections.singletonList(flowFile));
+            fail("Expected the transfer to fail because the node has no such Connection");
+        } catch (final IOException expected) {
+            assertTrue(expected.getMessage().contains(CONNECTION_ID));
+        }
+        assertEquals(0, received.get(5, TimeUnit.SECONDS).intValue());
+
+        assertTrue(contentRepo.createdClaims.isEmpty());
+        assertNothingReceived();
+    }
+
+    @Test(timeout = 10000)
+    public void testConnectionLostPartwayThroughTransaction() throws Exception {
+        final FlowFileRecord small = createFlowFile("hello".getBytes(StandardCharsets.UTF_8), Collections.emptyMap());
+        final FlowFileRecord large = createFlowFile(new byte[100_000], Collections.emptyMap());
+        contentRepo.createdClaims.clear();
+
+        final Future<Integer> received = startServer(id -> connection);
+        try {
+            createClient().send(nodeId, CONNECTION_ID, Arrays.asList(small, large), clientIn, new TruncatingOutputStream(clientOut, 50_000));
+            fail("Expected the transfer to fail because the connection was lost");
+        } catch (final IOException expected) {
+        }
+
+        try {
+            received.get(5, TimeUnit.SECONDS);
+            fail("Expected the server to fail because the connection was lost");
+        } catch (final ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof IOException);
+        }
+
+        assertEquals(2, contentRepo.createdClaims.size());
+        assertEquals(new HashSet<>(contentRepo.createdClaims), new HashSet<>(contentRepo.releasedClaims));
+        assertNothingReceived();
+    }
+
+    @Test(timeout = 10000)
+    public void testAbortTransaction() throws Exception {
+        final Future<Integer> received = startServer(id -> connection);
+
+        final DataOutputStream out = new DataOutputStream(clientOut);
+        final DataInputStream in = new DataInputStream(clientIn);
+        out.writeInt(LoadBalanceProtocolConstants.PROTOCOL_VERSION);
+        out.flush();
+        assertEquals(LoadBalanceProtocolConstants.VERSION_ACCEPTED, in.read());
+
+        out.writeUTF("node-1");
+        out.writeUTF(CONNECTION_ID);
+        out.flush();
+        assertEquals(LoadBalanceProtocolConstants.SPACE_AVAILABLE, in.read());
+
+        final CRC32 checksum = new CRC32();
+        final DataOutputStream checkedOut = new DataOutputStream(new CheckedOutputStream(out, checksum));
+        final byte[] content = "hello, world".getBytes(StandardCharsets.UTF_8);
+        checkedOut.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
+        FlowFileAttributesCodec.writeAttributes(Collections.singletonMap("greeting", "hello"), checkedOut);
+        checkedOut.writeLong(1000L);
+        checkedOut.writeLong(1000L);
+        checkedOut.writeLong(content.length);
+        checkedOut.write(content);
+        checkedOut.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
+        out.writeLong(checksum.getValue());
+        out.flush();
+        assertEquals(LoadBalanceProtocolConstants.CONFIRM_CHECKSUM, in.read());
+
+        out.write(LoadBalanceProtocolConstants.ABORT_TRANSACTION);
+        out.flush();
+        assertEquals(0, received.get(5, TimeUnit.SECONDS).intValue());
+
+        assertEquals(1, contentRepo.createdClaims.size());
+        assertEquals(new HashSet<>(contentRepo.createdClaims), new HashSet<>(contentRepo.releasedClaims));
+        assertNothingReceived();
+    }
+
+    private Future<Integer> startServer(final StandardLoadBalanceProtocol.ConnectionLookup connectionLookup) throws IOException {
+        final PipedInputStream serverIn = new PipedInputStream(65536);
+        clientOut = new PipedOutputStream(serverIn);
+        clientIn = new PipedInputStream(65536);
+        final PipedOutputStream serverOut = new PipedOutputStream(clientIn);
+
+        final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(connectionLookup, flowFileRepo, contentRepo, provenanceRepo);
+        return executor.submit(() -> {
+            try {
+                return protocol.receiveFlowFiles(serverIn, serverOut, "localhost:6342");
+            } finally {
+                serverOut.close();
+            }
+        });
+    }
+
+    private boolean transfer(final List<FlowFileRecord> flowFiles) throws IOException {
+        return createClient().send(nodeId, CONNECTION_ID, flowFiles, clientIn, clientOut);
+    }
+
+    private SocketLoadBalanceClient createClient() {
+        return new SocketLoadBalanceClient("node-1", contentRepo, null, 5000);
+    }
+
+    private void assertNothingReceived() throws IOException {
+        verify(flowFileRepo, never()).updateRepository(any());
+        assertTrue(provenanceRepo.getEvents(0L, 10).isEmpty());
+        assertTrue(receivedFlowFiles.isEmpty());
+    }
+
+    private FlowFileRecord createFlowFile(final byte[] content, final Map<String, String> attributes) throws IOException {
+        ContentClaim claim = null;
+        if (content.length > 0) {
+            claim = contentRepo.create(false);
+            try (final OutputStream out = contentRepo.write(claim)) {
+                out.write(content);
+            }
+        }
+
+        return new StandardFlowFileRecord.Builder()
+            .id(1L)
+            .addAttributes(attributes)
+            .addAttribute(CoreAttributes.UUID.key(), UUID.randomUUID().toString())
+            .lineageStart(1000L, 0L)
+            .entryDate(1000L)
+            .contentClaim(claim)
+            .size(content.length)
+            .build();
+    }
+
+    private byte[] readContent(final FlowFileRecord flowFile) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final InputStream in = contentRepo.read(flowFile.getContentClaim())) {
+            final byte[] buffer = new byte[4096];
+            int len;
+            while ((len = in.read(buffer)) > 0) {
+                baos.write(buffer, 0, len);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private void rmDir(final File dir) throws IOException {
+        if (!dir.exists()) {
+            return;
+        }
+
+        final File[] children = dir.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                if (child.isDirectory()) {
+                    rmDir(child);
+                } else {
+                    Files.delete(child.toPath());
+                }
+            }
+        }
+        Files.delete(dir.toPath());
+    }
+
+    /**
+     * Records the Content Claims that are created and released so that tests can verify that the receiving side
+     * cleans up after a failed transaction.
+     */
+    private static class RecordingContentRepository extends FileSystemRepository {
+        private final List<ContentClaim> createdClaims = Collections.synchronizedList(new ArrayList<>());
+        private final List<ContentClaim> releasedClaims = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingContentRepository(final NiFiProperties properties) throws IOException {
+            super(properties);
+        }
+
+        @Override
+        public ContentClaim create(final boolean lossTolerant) throws IOException {
+            final ContentClaim claim = super.create(lossTolerant);
+            createdClaims.add(claim);
+            return claim;
+        }
+
+        @Override
+        public int decrementClaimantCount(final ContentClaim claim) {
+            if (claim != null) {
+                releasedClaims.add(claim);
+            }
+            return super.decrementClaimantCount(claim);
+        }
+    }
+
+    /**
+     * Flips the lowest bit of the first occurrence of the given byte
+     */
+    private static class CorruptingOutputStream extends FilterOutputStream {
+        private final byte target;
+        private boolean corrupted = false;
+
+        CorruptingOutputStream(final OutputStream out, final byte target) {
+            super(out);
+            this.target = target;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (!corrupted && (byte) b == target) {
+                corrupted = true;
+                out.write(b ^ 1);
+            } else {
+                out.write(b);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+    }
+
+    /**
+     * Closes the underlying stream, and fails, once the given number of bytes has been written
+     */
+    private static class TruncatingOutputStream extends FilterOutputStream {
+        private long remaining;
+
+        TruncatingOutputStream(final OutputStream out, final long maxBytes) {
+            super(out);
+            this.remaining = maxBytes;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            if (remaining <= 0) {
+                out.close();
+                throw new IOException("Connection lost");
+            }
+            remaining--;
+            out.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            final int toWrite = (int) Math.min(len, remaining);
+            out.write(b, off, toWrite);
+            remaining -= toWrite;
+            if (toWrite < len) {
+                out.close();
+                throw new IOException("Connection lost");
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.queue.clustered.protocol;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class TestFlowFileAttributesCodec {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("filename", "data.txt");
+        attributes.put("empty", "");
+        attributes.put("unicode", "\u00fcber \u65e5\u672c \uD83D\uDE00");
+
+        assertEquals(attributes, roundTrip(attributes));
+        assertEquals(Collections.emptyMap(), roundTrip(Collections.emptyMap()));
+    }
+
+    @Test
+    public void testValueLargerThanModifiedUtf8Limit() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+
+        final Map<String, String> attributes = Collections.singletonMap("large", sb.toString());
+        assertEquals(attributes, roundTrip(attributes));
+    }
+
+    @Test
+    public void testNegativeAttributeCount() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new DataOutputStream(baos).writeInt(-1);
+
+        try {
+            FlowFileAttributesCodec.readAttributes(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+            fail("Expected an IOException for a negative attribute count");
+        } catch (final IOException expected) {
+        }
+    }
+
+    @Test
+    public void testNegativeStringLength() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(1);
+        out.writeInt(-5);
+
+        try {
+            FlowFileAttributesCodec.readAttributes(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+            fail("Expected an IOException for a negative String length");
+        } catch (final IOException expected) {
+        }
+    }
+
+    private Map<String, String> roundTrip(final Map<String, String> attributes) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            FlowFileAttributesCodec.writeAttributes(attributes, out);
+        }
+
+        return FlowFileAttributesCodec.readAttributes(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+    }
+}
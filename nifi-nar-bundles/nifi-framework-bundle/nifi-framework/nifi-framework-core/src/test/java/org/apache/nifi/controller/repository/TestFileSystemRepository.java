@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -441,6 +443,91 @@ public class TestFileSystemRepository {
         }
     }
 
+    @Test
+    public void testReadChannelTransfersOnlyClaimContent() throws IOException {
+        final ContentClaim claim1 = repository.create(false);
+        try (final OutputStream out = repository.write(claim1)) {
+            out.write("Hello".getBytes());
+        }
+
+        final ContentClaim claim2 = repository.create(false);
+        assertEquals(claim1.getResourceClaim(), claim2.getResourceClaim());
+        try (final OutputStream out = repository.write(claim2)) {
+            out.write("World".getBytes());
+        }
+
+        final ContentClaim claim3 = repository.create(false);
+        try (final OutputStream out = repository.write(claim3)) {
+            out.write("!".getBytes());
+        }
+
+        try (final FileChannel channel = repository.readChannel(claim2)) {
+            assertNotNull(channel);
+            assertEquals(claim2.getOffset(), channel.position());
+
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            final long transferred = channel.transferTo(channel.position(), claim2.getLength(), Channels.newChannel(baos));
+            assertEquals(5L, transferred);
+            assertEquals("World", new String(baos.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testReadSmallClaimsFromMappedFile() throws IOException {
+        // We are going to construct our own repository using different properties, so
+        // we need to shutdown the existing one.
+        shutdown();
+
+        final Map<String, String> addProps = new HashMap<>();
+        addProps.put(NiFiProperties.CONTENT_REPOSITORY_MAPPED_CACHE_SIZE, "10 MB");
+        final NiFiProperties localProps = NiFiProperties.createBasicNiFiProperties(null, addProps);
+        repository = new FileSystemRepository(localProps);
+        repository.initialize(claimManager);
+        repository.purge();
+
+        final ContentClaim claim1 = repository.create(false);
+        try (final OutputStream out = repository.write(claim1)) {
+            out.write("Hello".getBytes());
+        }
+
+        final ContentClaim claim2 = repository.create(false);
+        assertEquals(claim1.getResourceClaim(), claim2.getResourceClaim());
+        try (final OutputStream out = repository.write(claim2)) {
+            out.write("World".getBytes());
+        }
+
+        // The first read maps the file; the second is served from the existing mapping.
+        try (final InputStream in = repository.read(claim1)) {
+            assertArrayEquals("Hello".getBytes(), readFully(in, 5));
+            assertEquals(-1, in.read());
+        }
+        assertEquals(1, repository.getMappedFileCount());
+        assertEquals(10L, repository.getMappedBytes());
+
+        try (final InputStream in = repository.read(claim2)) {
+            assertArrayEquals("World".getBytes(), readFully(in, 5));
+            assertEquals(-1, in.read());
+        }
+        assertEquals(1L, repository.getMappedReadHitCount());
+        assertEquals(1L, repository.getMappedReadMissCount());
+
+        // Content appended after the file was mapped causes the file to be mapped again.
+        final ContentClaim claim3 = repository.create(false);
+        assertEquals(claim1.getResourceClaim(), claim3.getResourceClaim());
+        try (final OutputStream out = repository.write(claim3)) {
+            out.write("!".getBytes());
+        }
+
+        try (final InputStream in = repository.read(claim3)) {
+            assertArrayEquals("!".getBytes(), readFully(in, 1));
+        }
+        assertEquals(11L, repository.getMappedBytes());
+
+        repository.purge();
+        assertEquals(0L, repository.getMappedBytes());
+        assertEquals(0, repository.getMappedFileCount());
+    }
+
     @Test
     public void testReadWithContentArchived() throws IOException {
         assumeFalse(isWindowsEnvironment());//skip if on windows
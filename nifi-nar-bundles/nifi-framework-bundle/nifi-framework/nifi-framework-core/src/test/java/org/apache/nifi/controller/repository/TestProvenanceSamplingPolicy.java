@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.Test;
+
+public class TestProvenanceSamplingPolicy {
+
+    @Test
+    public void testRetainAllByDefault() {
+        final ProvenanceSamplingPolicy policy = ProvenanceSamplingPolicy.fromProperties(createProperties(new HashMap<>()));
+        assertTrue(policy.isRetainAll());
+
+        for (final ProvenanceEventType eventType : ProvenanceEventType.values()) {
+            assertTrue(policy.isRetained(createEvent("1234", eventType)));
+        }
+    }
+
+    @Test
+    public void testLineageOnly() {
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY, "lineage_only");
+        final ProvenanceSamplingPolicy policy = ProvenanceSamplingPolicy.fromProperties(createProperties(props));
+        assertFalse(policy.isRetainAll());
+
+        assertTrue(policy.isRetained(createEvent("1234", ProvenanceEventType.FORK)));
+        assertTrue(policy.isRetained(createEvent("1234", ProvenanceEventType.JOIN)));
+        assertTrue(policy.isRetained(createEvent("1234", ProvenanceEventType.DROP)));
+        assertTrue(policy.isRetained(createEvent("1234", ProvenanceEventType.SEND)));
+        assertTrue(policy.isRetained(createEvent("1234", ProvenanceEventType.RECEIVE)));
+        assertFalse(policy.isRetained(createEvent("1234", ProvenanceEventType.ATTRIBUTES_MODIFIED)));
+        assertFalse(policy.isRetained(createEvent("1234", ProvenanceEventType.CONTENT_MODIFIED)));
+        assertFalse(policy.isRetained(createEvent("1234", ProvenanceEventType.ROUTE)));
+    }
+
+    @Test
+    public void testSampleCountsEachComponentAndEventTypeSeparately() {
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY, "1-in-10");
+        final ProvenanceSamplingPolicy policy = ProvenanceSamplingPolicy.fromProperties(createProperties(props));
+
+        assertEquals(10, countRetained(policy, "1234", ProvenanceEventType.ROUTE, 100));
+        assertEquals(10, countRetained(policy, "1234", ProvenanceEventType.SEND, 100));
+        assertEquals(1, countRetained(policy, "5678", ProvenanceEventType.ROUTE, 5));
+    }
+
+    @Test
+    public void testComponentTakesPrecedenceOverEventType() {
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY_EVENT_TYPE_PREFIX + "ROUTE", "1-in-4");
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY_COMPONENT_PREFIX + "1234", "ALL");
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY_COMPONENT_PREFIX + "5678", "LINEAGE_ONLY");
+        final ProvenanceSamplingPolicy policy = ProvenanceSamplingPolicy.fromProperties(createProperties(props));
+
+        assertEquals(20, countRetained(policy, "1234", ProvenanceEventType.ROUTE, 20));
+        assertEquals(0, countRetained(policy, "5678", ProvenanceEventType.ROUTE, 20));
+        assertEquals(5, countRetained(policy, "9012", ProvenanceEventType.ROUTE, 20));
+        assertEquals(20, countRetained(policy, "9012", ProvenanceEventType.CONTENT_MODIFIED, 20));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRetention() {
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY, "1-in-0");
+        ProvenanceSamplingPolicy.fromProperties(createProperties(props));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEventType() {
+        final Map<String, String> props = new HashMap<>();
+        props.put(NiFiProperties.PROVENANCE_SAMPLING_POLICY_EVENT_TYPE_PREFIX + "MODIFIED", "ALL");
+        ProvenanceSamplingPolicy.fromProperties(createProperties(props));
+    }
+
+    private int countRetained(final ProvenanceSamplingPolicy policy, final String componentId, final ProvenanceEventType eventType, final int eventCount) {
+        int retained = 0;
+        for (int i = 0; i < eventCount; i++) {
+            if (policy.isRetained(createEvent(componentId, eventType))) {
+                retained++;
+            }
+        }
+
+        return retained;
+    }
+
+    private NiFiProperties createProperties(final Map<String, String> props) {
+        return new NiFiProperties() {
+            @Override
+            public String getProperty(final String key) {
+                return props.get(key);
+            }
+
+            @Override
+            public Set<String> getPropertyKeys() {
+                return props.keySet();
+            }
+        };
+    }
+
+    private ProvenanceEventRecord createEvent(final String componentId, final ProvenanceEventType eventType) {
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setComponentId(componentId)
+            .setComponentType("Unit Test")
+            .setFlowFileUUID("00000000-0000-0000-0000-000000000000")
+            .setCurrentContentClaim(null, null, null, null, 0L)
+            .setTransitUri("nifi://unit-test")
+            .setRelationship("success")
+            .setAlternateIdentifierUri("nifi://unit-test")
+            .addParentUuid("11111111-1111-1111-1111-111111111111")
+            .build();
+    }
+}
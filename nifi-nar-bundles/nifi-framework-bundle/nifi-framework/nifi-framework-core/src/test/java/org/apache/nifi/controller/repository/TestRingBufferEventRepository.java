@@ -20,12 +20,17 @@ import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
 import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
 import org.apache.nifi.controller.repository.FlowFileEvent;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 public class TestRingBufferEventRepository {
 
     @Test
@@ -49,6 +54,77 @@ public class TestRingBufferEventRepository {
         repo.close();
     }
 
+    @Test
+    public void testReportExcludesEventsOlderThanWindow() throws IOException {
+        final RingBufferEventRepository repo = new RingBufferEventRepository(5);
+        repo.updateRepository(generateEvent());
+        repo.updateRepository(generateEvent());
+
+        final FlowFileEvent recent = repo.reportTransferEvents(System.currentTimeMillis() - 60000).getReportEntry("ABC");
+        assertEquals(2, recent.getFlowFilesIn());
+        assertEquals(2048L, recent.getContentSizeIn());
+
+        final FlowFileEvent idle = repo.reportTransferEvents(System.currentTimeMillis() + 60000).getReportEntry("ABC");
+        assertEquals(0, idle.getFlowFilesIn());
+        assertEquals(0L, idle.getContentSizeIn());
+        assertEquals(0, idle.getInvocations());
+        assertEquals(0, idle.getCounters().size());
+        repo.close();
+    }
+
+    @Test
+    public void testAggregateReportIsNotLimitedToWindow() throws IOException {
+        final RingBufferEventRepository repo = new RingBufferEventRepository(5);
+        repo.updateRepository(generateEvent());
+        repo.updateRepository(generateEvent());
+        repo.updateRepository(generateEvent());
+
+        repo.purgeTransferEvents(System.currentTimeMillis() + 60000);
+        assertEquals(0, repo.reportTransferEvents(System.currentTimeMillis() + 60000).getReportEntry("ABC").getFlowFilesIn());
+
+        final FlowFileEvent aggregate = repo.reportAggregateEvents(Arrays.asList("ABC", "XYZ")).getReportEntry("ABC");
+        assertEquals(3, aggregate.getFlowFilesIn());
+        assertEquals(3072L, aggregate.getContentSizeIn());
+        assertEquals(3, aggregate.getInvocations());
+        assertNull(repo.reportAggregateEvents(Arrays.asList("ABC", "XYZ")).getReportEntry("XYZ"));
+        assertTrue(repo.reportAggregateEvents(Collections.singleton("XYZ")).getReportEntries().isEmpty());
+        repo.close();
+    }
+
+    @Test
+    public void testPurgeComponent() throws IOException {
+        final RingBufferEventRepository repo = new RingBufferEventRepository(5);
+        repo.updateRepository(generateEvent());
+        repo.recordDuration("ABC", 10L, TimeUnit.MILLISECONDS);
+
+        repo.purgeTransferEvents("ABC");
+
+        final StandardRepositoryStatusReport report = repo.reportTransferEvents(System.currentTimeMillis() - 60000);
+        assertNull(report.getReportEntry("ABC"));
+        assertNull(report.getDurationHistogram("ABC"));
+        assertNull(repo.reportAggregateEvents(Collections.singleton("ABC")).getReportEntry("ABC"));
+        repo.close();
+    }
+
+    @Test
+    public void testDurationHistogramReported() throws IOException {
+        final RingBufferEventRepository repo = new RingBufferEventRepository(5);
+        assertNull(repo.reportTransferEvents(System.currentTimeMillis() - 60000).getDurationHistogram("ABC"));
+
+        for (int i = 1; i <= 100; i++) {
+            repo.recordDuration("ABC", i, TimeUnit.MILLISECONDS);
+        }
+
+        final DurationHistogram histogram = repo.reportTransferEvents(System.currentTimeMillis() - 60000).getDurationHistogram("ABC");
+        assertEquals(100L, histogram.getCount());
+        assertEquals(100L, histogram.getMax(TimeUnit.MILLISECONDS));
+        assertTrue(Math.abs(histogram.getPercentile(50D, TimeUnit.MILLISECONDS) - 50L) <= 3L);
+        assertTrue(Math.abs(histogram.getPercentile(99D, TimeUnit.MILLISECONDS) - 99L) <= 6L);
+
+        assertNull(repo.reportTransferEvents(System.currentTimeMillis() + 60000).getDurationHistogram("ABC"));
+        repo.close();
+    }
+
     private FlowFileEvent generateEvent() {
         return new FlowFileEvent() {
             @Override
@@ -136,6 +212,11 @@ public class TestRingBufferEventRepository {
                 return 0;
             }
 
+            @Override
+            public int getProvenanceEventsDiscarded() {
+                return 0;
+            }
+
             @Override
             public Map<String, Long> getCounters() {
                 return Collections.emptyMap();
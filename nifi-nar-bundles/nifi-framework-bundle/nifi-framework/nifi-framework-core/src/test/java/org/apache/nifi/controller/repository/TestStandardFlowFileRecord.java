@@ -19,14 +19,25 @@ package org.apache.nifi.controller.repository;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+import org.junit.Ignore;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TestStandardFlowFileRecord {
+    private static final Logger logger = LoggerFactory.getLogger(TestStandardFlowFileRecord.class);
 
     @Test
     public void testAttributeCopiedOnModification() {
@@ -57,4 +68,117 @@ public class TestStandardFlowFileRecord {
         assertEquals(addAttributeMapCopy, addAttribute.getAttributes());
     }
 
+    @Test
+    public void testAttributesSharedWithClones() {
+        final FlowFileRecord original = new StandardFlowFileRecord.Builder()
+            .addAttribute("uuid", UUID.randomUUID().toString())
+            .addAttribute("filename", "file.txt")
+            .addAttribute("abc", "xyz")
+            .build();
+
+        final FlowFileRecord unmodified = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .size(100L)
+            .build();
+        assertSame(original.getAttributes(), unmodified.getAttributes());
+
+        final FlowFileRecord clone = new StandardFlowFileRecord.Builder()
+            .fromFlowFile(original)
+            .addAttribute("uuid", UUID.randomUUID().toString())
+            .build();
+
+        final FlowFileAttributes originalAttributes = (FlowFileAttributes) original.getAttributes();
+        final FlowFileAttributes cloneAttributes = (FlowFileAttributes) clone.getAttributes();
+        assertTrue(cloneAttributes.isSharingKeysWith(originalAttributes));
+        assertEquals("xyz", cloneAttributes.get("abc"));
+        assertEquals("file.txt", cloneAttributes.get("filename"));
+        assertFalse(original.getAttribute("uuid").equals(clone.getAttribute("uuid")));
+
+        // A FlowFile built independently with the same keys should share them as well.
+        final Map<String, String> childAttributes = new HashMap<>();
+        childAttributes.put("abc", "123");
+        childAttributes.put("filename", "child.txt");
+        childAttributes.put("uuid", UUID.randomUUID().toString());
+        final FlowFileRecord child = new StandardFlowFileRecord.Builder().addAttributes(childAttributes).build();
+        assertTrue(((FlowFileAttributes) child.getAttributes()).isSharingKeysWith(originalAttributes));
+        assertEquals(childAttributes, child.getAttributes());
+        assertEquals(childAttributes.hashCode(), child.getAttributes().hashCode());
+    }
+
+    @Test
+    public void testAttributesMapView() {
+        final FlowFileRecord flowFile = new StandardFlowFileRecord.Builder()
+            .addAttribute("uuid", "1234")
+            .addAttribute("b", "2")
+            .addAttribute("a", "1")
+            .build();
+
+        final Map<String, String> attributes = flowFile.getAttributes();
+        assertEquals(3, attributes.size());
+        assertEquals("1", attributes.get("a"));
+        assertNull(attributes.get("c"));
+        assertNull(attributes.get(5));
+        assertTrue(attributes.containsKey("uuid"));
+        assertTrue(attributes.containsValue("2"));
+        assertEquals(3, new HashMap<>(attributes).size());
+
+        try {
+            attributes.put("c", "3");
+            fail("Attributes should not be modifiable");
+        } catch (final UnsupportedOperationException expected) {
+        }
+
+        try {
+            attributes.entrySet().iterator().remove();
+            fail("Attributes should not be modifiable");
+        } catch (final UnsupportedOperationException | IllegalStateException expected) {
+        }
+
+        assertTrue(new StandardFlowFileRecord.Builder().build().getAttributes().isEmpty());
+    }
+
+    @Test
+    @Ignore("Intended for manual testing only, in order to judge changes to heap usage")
+    public void testAttributeHeapUsage() {
+        final int flowFileCount = 1_000_000;
+        final Map<String, String> template = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            template.put("attribute-" + i, "value-" + i);
+        }
+
+        final long hashMapBytes = measureHeapUsage(() -> {
+            final List<Map<String, String>> maps = new ArrayList<>(flowFileCount);
+            for (int i = 0; i < flowFileCount; i++) {
+                final Map<String, String> attributes = new HashMap<>(template);
+                attributes.put("uuid", UUID.randomUUID().toString());
+                maps.add(attributes);
+            }
+            return maps;
+        });
+
+        final long compactBytes = measureHeapUsage(() -> {
+            final List<FlowFileAttributes> maps = new ArrayList<>(flowFileCount);
+            for (int i = 0; i < flowFileCount; i++) {
+                final Map<String, String> attributes = new HashMap<>(template);
+                attributes.put("uuid", UUID.randomUUID().toString());
+                maps.add(FlowFileAttributes.of(attributes));
+            }
+            return maps;
+        });
+
+        logger.info("HashMap attributes use {} bytes per FlowFile; compact attributes use {} bytes per FlowFile",
+            hashMapBytes / flowFileCount, compactBytes / flowFileCount);
+        assertTrue(compactBytes < hashMapBytes);
+    }
+
+    private long measureHeapUsage(final Supplier<Object> allocator) {
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        final long before = runtime.totalMemory() - runtime.freeMemory();
+        final Object retained = allocator.get();
+        System.gc();
+        final long after = runtime.totalMemory() - runtime.freeMemory();
+        assertTrue(retained != null);
+        return after - before;
+    }
 }
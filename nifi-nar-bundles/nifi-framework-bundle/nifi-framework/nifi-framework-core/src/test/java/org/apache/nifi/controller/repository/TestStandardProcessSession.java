@@ -19,6 +19,7 @@ package org.apache.nifi.controller.repository;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.notNull;
@@ -37,9 +38,17 @@ import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -48,7 +57,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -67,9 +78,11 @@ import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
 import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.io.FlowFileAccessFileChannel;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.groups.ProcessGroup;
+import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.processor.FlowFileFilter;
 import org.apache.nifi.processor.FlowFileFilter.FlowFileFilterResult;
 import org.apache.nifi.processor.Relationship;
@@ -79,6 +92,7 @@ import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.io.InputStreamCallback;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.processor.io.StreamCallback;
+import org.apache.nifi.processor.util.put.sender.SocketChannelSender;
 import org.apache.nifi.provenance.MockProvenanceRepository;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceEventRepository;
@@ -898,6 +912,61 @@ public class TestStandardProcessSession {
         assertEquals(ProvenanceEventType.DROP, secondRecord.getEventType());
     }
 
+    @Test
+    public void testCreateChildrenInBulk() throws IOException {
+        final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
+                .addAttribute("uuid", "12345678-1234-1234-1234-123456789012")
+                .addAttribute("abc", "xyz")
+                .addAttribute(CoreAttributes.ALTERNATE_IDENTIFIER.key(), "alternate")
+                .entryDate(System.currentTimeMillis())
+                .build();
+
+        flowFileQueue.put(flowFileRecord);
+
+        // we have to increment the ID generator because we are creating a FlowFile without the FlowFile Repository's knowledge
+        flowFileRepo.idGenerator.getAndIncrement();
+
+        final FlowFile orig = session.get();
+
+        final List<Map<String, String>> childAttributes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final Map<String, String> attributes = new HashMap<>();
+            attributes.put("fragment.index", String.valueOf(i));
+            attributes.put("uuid", "should be ignored");
+            childAttributes.add(attributes);
+        }
+        childAttributes.add(null);
+
+        final List<FlowFile> children = session.create(orig, childAttributes);
+        assertEquals(4, children.size());
+
+        final Set<String> uuids = new HashSet<>();
+        for (int i = 0; i < children.size(); i++) {
+            final FlowFile child = children.get(i);
+            assertEquals("xyz", child.getAttribute("abc"));
+            assertEquals(i < 3 ? String.valueOf(i) : null, child.getAttribute("fragment.index"));
+            assertNull(child.getAttribute(CoreAttributes.ALTERNATE_IDENTIFIER.key()));
+            assertNotNull(child.getAttribute(CoreAttributes.FILENAME.key()));
+            assertTrue(uuids.add(child.getAttribute(CoreAttributes.UUID.key())));
+        }
+        assertFalse(uuids.contains(orig.getAttribute(CoreAttributes.UUID.key())));
+        assertFalse(uuids.contains("should be ignored"));
+
+        session.transfer(children, new Relationship.Builder().name("A").build());
+        session.remove(orig);
+        session.commit();
+
+        assertEquals(4, flowFileQueue.size().getObjectCount());
+
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 1000);
+        assertEquals(2, events.size());
+
+        final ProvenanceEventRecord forkEvent = events.stream().filter(event -> event.getEventType() == ProvenanceEventType.FORK).findFirst().get();
+        assertEquals(Collections.singletonList(orig.getAttribute(CoreAttributes.UUID.key())), forkEvent.getParentUuids());
+        assertEquals(uuids, new HashSet<>(forkEvent.getChildUuids()));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType() == ProvenanceEventType.DROP));
+    }
+
     @Test
     public void testProcessExceptionThrownIfCallbackThrowsInOutputStreamCallback() {
         final FlowFile ff1 = session.create();
@@ -1394,6 +1463,38 @@ public class TestStandardProcessSession {
         assertEquals(ProvenanceEventType.CREATE, event.getEventType());
     }
 
+    @Test
+    public void testProvenanceSamplingPolicyDiscardsEvents() throws IOException {
+        final List<FlowFileEvent> flowFileEvents = new ArrayList<>();
+        final FlowFileEventRepository flowFileEventRepo = Mockito.mock(FlowFileEventRepository.class);
+        Mockito.doAnswer(invocation -> flowFileEvents.add(invocation.getArgumentAt(0, FlowFileEvent.class)))
+            .when(flowFileEventRepo).updateRepository(Mockito.any(FlowFileEvent.class));
+
+        final ProvenanceSamplingPolicy samplingPolicy = new ProvenanceSamplingPolicy(ProvenanceSamplingPolicy.Retention.ALL, Collections.emptyMap(),
+            Collections.singletonMap("connectable-1", ProvenanceSamplingPolicy.Retention.LINEAGE_ONLY));
+        context = new ProcessContext(connectable, new AtomicLong(0L), contentRepo, flowFileRepo, flowFileEventRepo, Mockito.mock(CounterRepository.class),
+            provenanceRepo, samplingPolicy);
+        session = new StandardProcessSession(context);
+
+        FlowFile flowFile = session.create();
+        session.getProvenanceReporter().receive(flowFile, "nifi://unit-test");
+        flowFile = session.putAttribute(flowFile, "abc", "xyz");
+        session.getProvenanceReporter().modifyAttributes(flowFile);
+        session.transfer(flowFile, new Relationship.Builder().name("A").build());
+        session.commit();
+
+        final List<ProvenanceEventRecord> events = provenanceRepo.getEvents(0L, 10000);
+        assertEquals(1, events.size());
+        assertEquals(ProvenanceEventType.RECEIVE, events.get(0).getEventType());
+
+        final FlowFileEvent componentEvent = flowFileEvents.stream()
+            .filter(event -> "connectable-1".equals(event.getComponentIdentifier()))
+            .findFirst()
+            .get();
+        assertEquals(1, componentEvent.getProvenanceEventsDiscarded());
+        assertEquals(1, componentEvent.getFlowFilesReceived());
+    }
+
     @Test
     public void testContentModifiedNotEmittedForCreate() throws IOException {
         FlowFile newFlowFile = session.create();
@@ -1494,6 +1595,213 @@ public class TestStandardProcessSession {
         session.commit();
     }
 
+    @Test
+    public void testReadChannel() throws IOException {
+        FlowFile flowFile = session.create();
+        flowFile = session.write(flowFile, out -> out.write("hello, world".getBytes()));
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        session.readChannel(flowFile, channel -> {
+            assertEquals(12L, channel.size());
+            assertEquals(12L, channel.transferTo(Channels.newChannel(baos)));
+        });
+        assertEquals("hello, world", new String(baos.toByteArray()));
+
+        session.remove(flowFile);
+        session.commit();
+    }
+
+    private FileSystemRepository createFileSystemRepository() throws IOException {
+        final File repoDir = new File("target/content_repository");
+        rmDir(repoDir);
+
+        final FileSystemRepository repository = new FileSystemRepository(NiFiProperties.createBasicNiFiProperties(null, null));
+        repository.initialize(new StandardResourceClaimManager());
+        repository.purge();
+        return repository;
+    }
+
+    private StandardProcessSession createSession(final ContentRepository contentRepository) {
+        final ProcessContext fileSystemContext = new ProcessContext(connectable, new AtomicLong(0L), contentRepository, flowFileRepo,
+            Mockito.mock(FlowFileEventRepository.class), Mockito.mock(CounterRepository.class), provenanceRepo);
+        return new StandardProcessSession(fileSystemContext);
+    }
+
+    private List<FlowFileRecord> writeContent(final ContentRepository contentRepository, final byte[]... contents) throws IOException {
+        // Content that is written one claim after another is appended to the same Resource Claim, so that every FlowFile
+        // after the first starts at a non-zero offset within the file.
+        final List<FlowFileRecord> records = new ArrayList<>();
+        for (final byte[] content : contents) {
+            final ContentClaim claim = contentRepository.create(false);
+            try (final OutputStream out = contentRepository.write(claim)) {
+                out.write(content);
+                out.flush();
+            }
+
+            records.add(createFlowFileRecord(claim, content.length));
+        }
+
+        return records;
+    }
+
+    private FlowFileRecord createFlowFileRecord(final ContentClaim claim, final long size) {
+        return new StandardFlowFileRecord.Builder()
+            .contentClaim(claim)
+            .addAttribute("uuid", UUID.randomUUID().toString())
+            .entryDate(System.currentTimeMillis())
+            .size(size)
+            .build();
+    }
+
+    @Test
+    public void testReadChannelFromFileSystemRepository() throws IOException {
+        final FileSystemRepository fileSystemRepo = createFileSystemRepository();
+        try {
+            final List<FlowFileRecord> records = writeContent(fileSystemRepo, "hello, world".getBytes(), "goodbye, world!".getBytes(), "trailing content".getBytes());
+            assertEquals(12L, records.get(1).getContentClaim().getOffset());
+            flowFileQueue.put(records.get(1));
+
+            final StandardProcessSession fileSystemSession = createSession(fileSystemRepo);
+            final FlowFile second = fileSystemSession.get();
+
+            // transferTo must stop at the end of the FlowFile's content, even though the file continues
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            fileSystemSession.readChannel(second, channel -> {
+                assertEquals(15L, channel.size());
+                assertEquals(15L, channel.transferTo(Channels.newChannel(baos)));
+                assertEquals(0L, channel.transferTo(Channels.newChannel(baos)));
+                assertEquals(-1, channel.read(ByteBuffer.allocate(10)));
+            });
+            assertEquals("goodbye, world!", new String(baos.toByteArray()));
+
+            // read must not fill a buffer beyond the end of the content, and transferTo must continue from where read stopped
+            final File targetFile = new File("target/" + UUID.randomUUID().toString() + ".bin");
+            try (final FileChannel target = FileChannel.open(targetFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                fileSystemSession.readChannel(second, channel -> {
+                    final ByteBuffer buffer = ByteBuffer.allocate(100);
+                    buffer.limit(9);
+                    assertEquals(9, channel.read(buffer));
+                    assertEquals("goodbye, ", new String(buffer.array(), 0, 9));
+
+                    buffer.clear();
+                    assertEquals(6L, channel.transferTo(target));
+                    assertEquals(-1, channel.read(buffer));
+                });
+            }
+            assertEquals("world!", new String(Files.readAllBytes(targetFile.toPath())));
+            Files.delete(targetFile.toPath());
+
+            // A clone of part of the content reads only that part
+            final FlowFile clone = fileSystemSession.clone(second, 9L, 5L);
+            final ByteArrayOutputStream cloneContent = new ByteArrayOutputStream();
+            fileSystemSession.readChannel(clone, channel -> {
+                assertEquals(5L, channel.size());
+                final ByteBuffer buffer = ByteBuffer.allocate(100);
+                assertEquals(5, channel.read(buffer));
+                assertEquals(-1, channel.read(buffer));
+                cloneContent.write(buffer.array(), 0, buffer.position());
+            });
+            assertEquals("world", new String(cloneContent.toByteArray()));
+
+            fileSystemSession.remove(second);
+            fileSystemSession.remove(clone);
+            fileSystemSession.commit();
+        } finally {
+            fileSystemRepo.shutdown();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testReadChannelToSocketChannelSender() throws Exception {
+        final FileSystemRepository fileSystemRepo = createFileSystemRepository();
+        try (final ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress("localhost", 0));
+
+            // Several MB so that the sender's non-blocking socket fills up and the transfer has to wait for the receiver
+            final byte[] content = new byte[4 * 1024 * 1024];
+            new Random(0L).nextBytes(content);
+            final List<FlowFileRecord> records = writeContent(fileSystemRepo, "leading content".getBytes(), content);
+            flowFileQueue.put(records.get(1));
+
+            final ByteArrayOutputStream received = new ByteArrayOutputStream();
+            final AtomicReference<IOException> receiveFailure = new AtomicReference<>();
+            final Thread receiver = new Thread(() -> {
+                try (final SocketChannel socketChannel = serverChannel.accept();
+                    final InputStream in = Channels.newInputStream(socketChannel)) {
+                    StreamUtils.copy(in, received);
+                } catch (final IOException ioe) {
+                    receiveFailure.set(ioe);
+                }
+            });
+            receiver.start();
+
+            final SocketChannelSender sender = new SocketChannelSender("localhost", serverChannel.socket().getLocalPort(), 0, Mockito.mock(ComponentLog.class));
+            try {
+                sender.open();
+
+                final StandardProcessSession fileSystemSession = createSession(fileSystemRepo);
+                final FlowFile flowFile = fileSystemSession.get();
+                fileSystemSession.readChannel(flowFile, channel -> {
+                    // the content must be transferred from the file, not copied through a stream
+                    assertTrue(channel instanceof FlowFileAccessFileChannel);
+                    sender.transferFrom(channel);
+                });
+                fileSystemSession.remove(flowFile);
+                fileSystemSession.commit();
+            } finally {
+                sender.close();
+            }
+
+            receiver.join();
+            assertNull(receiveFailure.get());
+            assertTrue(Arrays.equals(content, received.toByteArray()));
+        } finally {
+            fileSystemRepo.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadChannelFromFileSystemRepositoryWithTruncatedContent() throws IOException {
+        final FileSystemRepository fileSystemRepo = createFileSystemRepository();
+        try {
+            final List<FlowFileRecord> records = writeContent(fileSystemRepo, "hello, world".getBytes(), "goodbye, world!".getBytes());
+            final ContentClaim claim = records.get(1).getContentClaim();
+            final ResourceClaim resourceClaim = claim.getResourceClaim();
+            final File file = new File(new File("target/content_repository", resourceClaim.getSection()), resourceClaim.getId());
+
+            // Lose the end of the second FlowFile's content
+            try (final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(claim.getOffset() + 4L);
+            }
+
+            final StandardProcessSession fileSystemSession = createSession(fileSystemRepo);
+            flowFileQueue.put(records.get(1));
+            final FlowFile transferred = fileSystemSession.get();
+            try {
+                fileSystemSession.readChannel(transferred, channel -> channel.transferTo(Channels.newChannel(new ByteArrayOutputStream())));
+                Assert.fail("Expected MissingFlowFileException");
+            } catch (final MissingFlowFileException mffe) {
+                assertTrue(mffe.getCause() instanceof ContentNotFoundException);
+            }
+
+            flowFileQueue.put(createFlowFileRecord(claim, 15L));
+            final FlowFile read = fileSystemSession.get();
+            try {
+                fileSystemSession.readChannel(read, channel -> {
+                    final ByteBuffer buffer = ByteBuffer.allocate(100);
+                    while (channel.read(buffer) >= 0) {
+                        buffer.clear();
+                    }
+                });
+                Assert.fail("Expected MissingFlowFileException");
+            } catch (final MissingFlowFileException mffe) {
+                assertTrue(mffe.getCause() instanceof ContentNotFoundException);
+            }
+        } finally {
+            fileSystemRepo.shutdown();
+        }
+    }
+
     @Test
     public void testReadFromInputStreamWithoutClosingThenRemove() throws IOException {
         FlowFile flowFile = session.create();
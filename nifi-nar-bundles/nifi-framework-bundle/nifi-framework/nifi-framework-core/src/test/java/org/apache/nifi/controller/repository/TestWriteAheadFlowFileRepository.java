@@ -45,6 +45,7 @@ import org.apache.nifi.controller.StandardFlowFileQueue;
 import org.apache.nifi.controller.queue.DropFlowFileStatus;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.ListFlowFileStatus;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
@@ -149,6 +150,11 @@ public class TestWriteAheadFlowFileRepository {
                 return false;
             }
 
+            @Override
+            public long getPenaltyExpiration() {
+                return 0L;
+            }
+
             @Override
             public QueueSize getUnacknowledgedQueueSize() {
                 return null;
@@ -209,6 +215,20 @@ public class TestWriteAheadFlowFileRepository {
             public void setFlowFileExpiration(String flowExpirationPeriod) {
             }
 
+            @Override
+            public void setLoadBalanceStrategy(LoadBalanceStrategy strategy, String partitioningAttribute) {
+            }
+
+            @Override
+            public LoadBalanceStrategy getLoadBalanceStrategy() {
+                return LoadBalanceStrategy.DO_NOT_LOAD_BALANCE;
+            }
+
+            @Override
+            public String getPartitioningAttribute() {
+                return null;
+            }
+
             @Override
             public DropFlowFileStatus dropFlowFiles(String requestIdentifier, String requestor) {
                 return null;
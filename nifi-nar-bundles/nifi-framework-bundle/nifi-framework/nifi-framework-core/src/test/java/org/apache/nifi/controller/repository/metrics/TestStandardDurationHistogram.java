@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.controller.repository.DurationHistogram;
+import org.junit.Test;
+
+public class TestStandardDurationHistogram {
+
+    @Test
+    public void testBucketsCoverEveryValue() {
+        long previousHighest = -1L;
+        for (int i = 0; i < StandardDurationHistogram.BUCKET_COUNT; i++) {
+            final long highest = StandardDurationHistogram.getHighestValue(i);
+            assertEquals(i, StandardDurationHistogram.getBucketIndex(previousHighest + 1));
+            assertEquals(i, StandardDurationHistogram.getBucketIndex(highest));
+            assertTrue((highest - previousHighest - 1) * 16 <= Math.max(16L, highest));
+            previousHighest = highest;
+        }
+
+        assertEquals(StandardDurationHistogram.MAX_TRACKABLE_MICROS, previousHighest);
+        assertEquals(StandardDurationHistogram.BUCKET_COUNT - 1, StandardDurationHistogram.getBucketIndex(Long.MAX_VALUE));
+        assertEquals(0, StandardDurationHistogram.getBucketIndex(-5L));
+    }
+
+    @Test
+    public void testPercentiles() {
+        final DurationHistogramContainer container = new DurationHistogramContainer(5);
+        for (long micros = 1; micros <= 1_000_000L; micros++) {
+            container.record(micros);
+        }
+
+        final DurationHistogram histogram = container.generateReport(System.currentTimeMillis() - 60000L);
+        assertEquals(1_000_000L, histogram.getCount());
+        assertEquals(1_000_000L, histogram.getMax(TimeUnit.MICROSECONDS));
+        assertEquals(1_000L, histogram.getMax(TimeUnit.MILLISECONDS));
+
+        for (final double percentile : new double[] {1D, 10D, 50D, 90D, 99D, 99.9D}) {
+            final long expected = (long) (percentile * 10_000L);
+            final long actual = histogram.getPercentile(percentile, TimeUnit.MICROSECONDS);
+            assertTrue("p" + percentile + " was " + actual, actual >= expected && actual <= expected * 17 / 16);
+        }
+
+        assertEquals(1_000_000L, histogram.getPercentile(100D, TimeUnit.MICROSECONDS));
+    }
+
+    @Test
+    public void testReportExcludesOlderMinutes() {
+        final DurationHistogramContainer container = new DurationHistogramContainer(5);
+        assertNull(container.generateReport(System.currentTimeMillis() - 60000L));
+
+        container.record(250L);
+        assertEquals(1L, container.generateReport(System.currentTimeMillis() - 60000L).getCount());
+        assertNull(container.generateReport(System.currentTimeMillis() + 120000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        new StandardDurationHistogram(new long[StandardDurationHistogram.BUCKET_COUNT], 0L, 0L).getPercentile(101D, TimeUnit.MILLISECONDS);
+    }
+}
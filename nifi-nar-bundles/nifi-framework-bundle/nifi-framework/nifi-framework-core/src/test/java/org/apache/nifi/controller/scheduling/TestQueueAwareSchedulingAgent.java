@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.scheduling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessorNode;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.engine.FlowEngine;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class TestQueueAwareSchedulingAgent {
+
+    // Less than the agent's idle check interval, so that a Processor that runs within this time was woken by a signal rather than by the idle check.
+    private static final long SIGNAL_TIMEOUT_MILLIS = 500L;
+
+    private FlowEngine flowEngine;
+    private QueueAwareSchedulingAgent agent;
+    private ProcessorNode procNode;
+    private FlowFileQueue flowFileQueue;
+    private DummyScheduleState scheduleState;
+
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicInteger processed = new AtomicInteger(0);
+    private final AtomicInteger invocations = new AtomicInteger(0);
+    private final AtomicInteger running = new AtomicInteger(0);
+    private final AtomicInteger maxRunning = new AtomicInteger(0);
+    private volatile Callable<Boolean> processorTask = this::processOne;
+
+    @Before
+    public void setup() {
+        flowEngine = new FlowEngine(2, "Test Queue-Aware Scheduling Agent", true);
+        final NiFiProperties nifiProperties = NiFiProperties.createBasicNiFiProperties(null, null);
+        agent = new QueueAwareSchedulingAgent(Mockito.mock(FlowController.class), flowEngine, null, null, nifiProperties, 8) {
+            @Override
+            protected Callable<Boolean> createProcessorTask(final ProcessorNode procNode, final ScheduleState scheduleState) {
+                return () -> processorTask.call();
+            }
+        };
+
+        flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        final Connection incoming = Mockito.mock(Connection.class);
+        Mockito.when(incoming.getSource()).thenReturn(Mockito.mock(Connectable.class));
+        Mockito.when(incoming.getFlowFileQueue()).thenReturn(flowFileQueue);
+
+        procNode = Mockito.mock(ProcessorNode.class);
+        Mockito.when(procNode.getConnectableType()).thenReturn(ConnectableType.PROCESSOR);
+        Mockito.when(procNode.getSchedulingPeriod(TimeUnit.NANOSECONDS)).thenReturn(0L);
+        Mockito.when(procNode.hasIncomingConnection()).thenReturn(true);
+        Mockito.when(procNode.getIncomingConnections()).thenReturn(Collections.singletonList(incoming));
+        Mockito.when(procNode.getMaxConcurrentTasks()).thenReturn(1);
+
+        scheduleState = new DummyScheduleState(true);
+    }
+
+    @After
+    public void shutdown() {
+        agent.shutdown();
+        flowEngine.shutdownNow();
+    }
+
+    /**
+     * Simulates a Processor that processes one queued FlowFile per invocation and reports whether it had no work to do.
+     */
+    private Boolean processOne() throws InterruptedException {
+        invocations.incrementAndGet();
+        final int concurrent = running.incrementAndGet();
+        maxRunning.accumulateAndGet(concurrent, Math::max);
+        try {
+            if (queued.getAndUpdate(count -> Math.max(0, count - 1)) == 0) {
+                return true;
+            }
+
+            Thread.sleep(2L);
+            processed.incrementAndGet();
+            return false;
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private void enqueue(final int count) {
+        queued.addAndGet(count);
+        agent.onEvent(procNode);
+    }
+
+    private static boolean waitFor(final BooleanSupplier condition, final long timeoutMillis) throws InterruptedException {
+        final long stopTime = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > stopTime) {
+                return false;
+            }
+            Thread.sleep(1L);
+        }
+        return true;
+    }
+
+    private void scheduleAndWaitForIdle() throws InterruptedException {
+        agent.doSchedule(procNode, scheduleState);
+        assertTrue(waitFor(() -> invocations.get() > 0 && agent.getActiveThreadCount() == 0, SIGNAL_TIMEOUT_MILLIS));
+    }
+
+    @Test(timeout = 10000)
+    public void testWakesWhenDataArrives() throws InterruptedException {
+        scheduleAndWaitForIdle();
+        assertEquals(0, processed.get());
+
+        enqueue(1);
+        assertTrue(waitFor(() -> processed.get() == 1, SIGNAL_TIMEOUT_MILLIS));
+
+        enqueue(3);
+        assertTrue(waitFor(() -> processed.get() == 4, SIGNAL_TIMEOUT_MILLIS));
+        assertEquals(0, queued.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testDataArrivingWhileRunningIsNotMissed() throws InterruptedException {
+        final CountDownLatch checkedForWork = new CountDownLatch(1);
+        final CountDownLatch dataArrived = new CountDownLatch(1);
+
+        // The first invocation finds no work, but does not report it until after data has arrived and the Processor has been signaled.
+        processorTask = () -> {
+            if (checkedForWork.getCount() > 0) {
+                invocations.incrementAndGet();
+                checkedForWork.countDown();
+                dataArrived.await();
+                return true;
+            }
+
+            return processOne();
+        };
+
+        agent.doSchedule(procNode, scheduleState);
+        assertTrue(checkedForWork.await(SIGNAL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        enqueue(1);
+        dataArrived.countDown();
+
+        assertTrue(waitFor(() -> processed.get() == 1, SIGNAL_TIMEOUT_MILLIS));
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentTasksDoNotExceedMax() throws InterruptedException {
+        Mockito.when(procNode.getMaxConcurrentTasks()).thenReturn(3);
+        scheduleAndWaitForIdle();
+
+        enqueue(200);
+        for (int i = 0; i < 50; i++) {
+            agent.onEvent(procNode);
+        }
+
+        assertTrue(waitFor(() -> processed.get() == 200, 5000L));
+        assertTrue(maxRunning.get() <= 3);
+        assertTrue(waitFor(() -> agent.getActiveThreadCount() == 0, SIGNAL_TIMEOUT_MILLIS));
+    }
+
+    @Test(timeout = 10000)
+    public void testUnscheduleWhileIdle() throws InterruptedException {
+        scheduleAndWaitForIdle();
+
+        scheduleState.setScheduled(false);
+        agent.doUnschedule(procNode, scheduleState);
+        for (final ScheduledFuture<?> future : scheduleState.getFutures()) {
+            assertTrue(future.isCancelled());
+        }
+
+        // Neither a signal nor the idle check may trigger the Processor once it has been unscheduled.
+        final int invocationsWhenUnscheduled = invocations.get();
+        enqueue(1);
+        Thread.sleep(1500L);
+
+        assertEquals(invocationsWhenUnscheduled, invocations.get());
+        assertEquals(1, queued.get());
+        assertEquals(0, agent.getActiveThreadCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testWaitsForPenaltyToExpire() throws InterruptedException {
+        final long penaltyExpiration = System.currentTimeMillis() + SIGNAL_TIMEOUT_MILLIS;
+        Mockito.when(flowFileQueue.isActiveQueueEmpty()).thenReturn(true);
+        scheduleAndWaitForIdle();
+
+        // The only queued FlowFile is penalized, so until the penalty expires the Processor is triggered but gets nothing from its
+        // session, which it reports in the same way as having done work.
+        final AtomicInteger penalizedInvocations = new AtomicInteger(0);
+        processorTask = () -> {
+            if (System.currentTimeMillis() < penaltyExpiration) {
+                penalizedInvocations.incrementAndGet();
+                return false;
+            }
+
+            return processOne();
+        };
+
+        Mockito.when(flowFileQueue.isActiveQueueEmpty()).thenReturn(false);
+        Mockito.when(flowFileQueue.getPenaltyExpiration()).thenReturn(penaltyExpiration);
+        enqueue(1);
+
+        assertTrue(waitFor(() -> processed.get() == 1, 5000L));
+        assertTrue(penalizedInvocations.get() <= 2);
+    }
+
+    @Test(timeout = 10000)
+    public void testSignalAfterShutdownIsIgnored() throws InterruptedException {
+        scheduleAndWaitForIdle();
+        agent.shutdown();
+
+        final int invocationsAtShutdown = invocations.get();
+        enqueue(1);
+        Thread.sleep(100L);
+
+        assertEquals(invocationsAtShutdown, invocations.get());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.status.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.controller.status.ProcessGroupStatus;
+import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.util.file.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPersistentComponentStatusRepository {
+
+    private static final long START = TimeUnit.DAYS.toMillis(17000L);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1L);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1L);
+
+    private File directory;
+
+    @Before
+    public void setup() {
+        directory = new File("target/status-history-" + UUID.randomUUID());
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtils.deleteFile(directory, true);
+    }
+
+    private PersistentComponentStatusRepository createRepository(final String rawRetention) throws IOException {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(PersistentComponentStatusRepository.DIRECTORY_PROPERTY, directory.getAbsolutePath());
+        properties.put(PersistentComponentStatusRepository.RAW_RETENTION_PROPERTY, rawRetention);
+        properties.put(PersistentComponentStatusRepository.DOWNSAMPLED_RETENTION_PROPERTY, "7 days");
+        return new PersistentComponentStatusRepository(NiFiProperties.createBasicNiFiProperties(null, properties));
+    }
+
+    private ProcessGroupStatus createStatus(final long bytesRead, final Map<String, Long> counters) {
+        final ProcessorStatus processorStatus = new ProcessorStatus();
+        processorStatus.setId("proc-1");
+        processorStatus.setGroupId("root");
+        processorStatus.setName("My Processor");
+        processorStatus.setType("GenerateFlowFile");
+        processorStatus.setBytesRead(bytesRead);
+        processorStatus.setInvocations(10);
+        processorStatus.setProcessingNanos(1000L);
+        processorStatus.setCounters(counters);
+
+        final ProcessGroupStatus groupStatus = new ProcessGroupStatus();
+        groupStatus.setId("root");
+        groupStatus.setName("NiFi Flow");
+        groupStatus.setInputCount(0);
+        groupStatus.setInputContentSize(0L);
+        groupStatus.setOutputCount(0);
+        groupStatus.setOutputContentSize(0L);
+        groupStatus.setQueuedCount(0);
+        groupStatus.setQueuedContentSize(0L);
+        groupStatus.setActiveThreadCount(0);
+        groupStatus.setBytesRead(bytesRead);
+        groupStatus.setBytesWritten(0L);
+        groupStatus.setProcessorStatus(Collections.singletonList(processorStatus));
+        return groupStatus;
+    }
+
+    private ProcessGroupStatus createStatus(final String... processorIds) {
+        final List<ProcessorStatus> processorStatuses = new ArrayList<>();
+        for (final String processorId : processorIds) {
+            final ProcessorStatus processorStatus = new ProcessorStatus();
+            processorStatus.setId(processorId);
+            processorStatus.setGroupId("root");
+            processorStatus.setName(processorId);
+            processorStatuses.add(processorStatus);
+        }
+
+        final ProcessGroupStatus groupStatus = createStatus(0L, null);
+        groupStatus.setProcessorStatus(processorStatuses);
+        return groupStatus;
+    }
+
+    private long getBytesRead(final StatusSnapshot snapshot) {
+        return snapshot.getStatusMetrics().get(ProcessorStatusDescriptor.BYTES_READ.getDescriptor());
+    }
+
+    @Test
+    public void testCaptureAndRetrieveProcessorHistory() throws IOException {
+        final PersistentComponentStatusRepository repository = createRepository("1 day");
+        for (int i = 0; i < 5; i++) {
+            repository.capture(createStatus(i * 100L, Collections.singletonMap("records", (long) i)), new Date(START + i * MINUTE));
+        }
+
+        final StatusHistory history = repository.getProcessorStatusHistory("proc-1", null, null, 100, true);
+        assertEquals("My Processor", history.getComponentDetails().get(ComponentStatusRepository.COMPONENT_DETAIL_NAME));
+        assertEquals("root", history.getComponentDetails().get(ComponentStatusRepository.COMPONENT_DETAIL_GROUP_ID));
+        assertEquals("GenerateFlowFile", history.getComponentDetails().get(ComponentStatusRepository.COMPONENT_DETAIL_TYPE));
+
+        final List<StatusSnapshot> snapshots = history.getStatusSnapshots();
+        assertEquals(5, snapshots.size());
+        for (int i = 0; i < 5; i++) {
+            final StatusSnapshot snapshot = snapshots.get(i);
+            assertEquals(START + i * MINUTE, snapshot.getTimestamp().getTime());
+            assertEquals(i * 100L, getBytesRead(snapshot));
+            assertEquals(Long.valueOf(100L), snapshot.getStatusMetrics().get(ProcessorStatusDescriptor.AVERAGE_TASK_NANOS.getDescriptor()));
+            assertTrue(snapshot.getStatusMetrics().keySet().stream().anyMatch(descriptor -> descriptor.getField().equals("records")));
+        }
+
+        final StatusHistory groupHistory = repository.getProcessGroupStatusHistory("root", null, null, 100);
+        assertEquals(5, groupHistory.getStatusSnapshots().size());
+        assertEquals("NiFi Flow", groupHistory.getComponentDetails().get(ComponentStatusRepository.COMPONENT_DETAIL_NAME));
+
+        assertEquals(0, repository.getProcessorStatusHistory("unknown", null, null, 100, false).getStatusSnapshots().size());
+    }
+
+    @Test
+    public void testRetrieveRange() throws IOException {
+        final PersistentComponentStatusRepository repository = createRepository("1 day");
+        for (int i = 0; i < 180; i++) {
+            repository.capture(createStatus(i, null), new Date(START + i * MINUTE));
+        }
+
+        final List<StatusSnapshot> snapshots = repository.getProcessorStatusHistory("proc-1",
+            new Date(START + 50 * MINUTE), new Date(START + 130 * MINUTE), 100, false).getStatusSnapshots();
+        assertEquals(81, snapshots.size());
+        assertEquals(50L, getBytesRead(snapshots.get(0)));
+        assertEquals(130L, getBytesRead(snapshots.get(80)));
+    }
+
+    @Test
+    public void testHistorySurvivesRestart() throws IOException {
+        PersistentComponentStatusRepository repository = createRepository("1 day");
+        for (int i = 0; i < 150; i++) {
+            repository.capture(createStatus(i, null), new Date(START + i * MINUTE));
+        }
+
+        // the first two hours are in segment files, the last 30 minutes only in the journal
+        repository = createRepository("1 day");
+        List<StatusSnapshot> snapshots = repository.getProcessorStatusHistory("proc-1", null, null, 100, false).getStatusSnapshots();
+        assertEquals(150, snapshots.size());
+        for (int i = 0; i < 150; i++) {
+            assertEquals(START + i * MINUTE, snapshots.get(i).getTimestamp().getTime());
+            assertEquals(i, getBytesRead(snapshots.get(i)));
+        }
+
+        repository.capture(createStatus(150, null), new Date(START + 150 * MINUTE));
+        snapshots = repository.getProcessorStatusHistory("proc-1", null, null, 100, false).getStatusSnapshots();
+        assertEquals(151, snapshots.size());
+    }
+
+    @Test
+    public void testOlderHistoryIsDownsampled() throws IOException {
+        final PersistentComponentStatusRepository repository = createRepository("2 hours");
+
+        // 10 hours of snapshots; in each hour the value rises from 0 to 59
+        for (int i = 0; i < 600; i++) {
+            repository.capture(createStatus(i % 60, null), new Date(START + i * MINUTE));
+        }
+
+        final List<StatusSnapshot> snapshots = repository.getProcessorStatusHistory("proc-1", null, null, 100, false).getStatusSnapshots();
+
+        // the raw segments of the last two hours are complete and the current hour is still being captured
+        final long rawStart = START + 7 * HOUR;
+        int hourly = 0;
+        int raw = 0;
+        for (final StatusSnapshot snapshot : snapshots) {
+            final long timestamp = snapshot.getTimestamp().getTime();
+            if (timestamp < rawStart) {
+                assertEquals(0L, (timestamp - START) % HOUR);
+                assertEquals(29L, getBytesRead(snapshot));
+                hourly++;
+            } else {
+                raw++;
+            }
+        }
+
+        assertEquals(7, hourly);
+        assertEquals(180, raw);
+        for (int i = 1; i < snapshots.size(); i++) {
+            assertTrue(snapshots.get(i).getTimestamp().after(snapshots.get(i - 1).getTimestamp()));
+        }
+    }
+
+    @Test
+    public void testRemovedComponentsArePruned() throws IOException {
+        PersistentComponentStatusRepository repository = createRepository("1 day");
+        repository.capture(createStatus("proc-1", "proc-2", "proc-3"), new Date(START));
+
+        int capture = 1;
+        for (; capture < PersistentComponentStatusRepository.MAX_MISSED_CAPTURES; capture++) {
+            repository.capture(createStatus(), new Date(START + capture * MINUTE));
+        }
+        assertEquals(1, repository.getProcessorStatusHistory("proc-1", null, null, 100, false).getStatusSnapshots().size());
+
+        repository.capture(createStatus(), new Date(START + capture++ * MINUTE));
+        assertEquals(0, repository.getProcessorStatusHistory("proc-1", null, null, 100, false).getStatusSnapshots().size());
+        assertEquals(PersistentComponentStatusRepository.MAX_MISSED_CAPTURES + 1,
+            repository.getProcessGroupStatusHistory("root", null, null, 100).getStatusSnapshots().size());
+        repository.shutdown();
+
+        // a component that is added after a restart must not be given the ordinal of a removed component and so inherit its history
+        repository = createRepository("1 day");
+        assertEquals(0, repository.getProcessorStatusHistory("proc-3", null, null, 100, false).getStatusSnapshots().size());
+        repository.capture(createStatus("proc-4"), new Date(START + capture * MINUTE));
+        assertEquals(1, repository.getProcessorStatusHistory("proc-4", null, null, 100, false).getStatusSnapshots().size());
+    }
+
+    @Test
+    public void testNothingCapturedAfterShutdown() throws IOException {
+        PersistentComponentStatusRepository repository = createRepository("1 day");
+        repository.capture(createStatus(0L, null), new Date(START));
+        repository.shutdown();
+        repository.capture(createStatus(1L, null), new Date(START + MINUTE));
+
+        repository = createRepository("1 day");
+        final List<StatusSnapshot> snapshots = repository.getProcessorStatusHistory("proc-1", null, null, 100, false).getStatusSnapshots();
+        assertEquals(1, snapshots.size());
+        assertEquals(0L, getBytesRead(snapshots.get(0)));
+    }
+}
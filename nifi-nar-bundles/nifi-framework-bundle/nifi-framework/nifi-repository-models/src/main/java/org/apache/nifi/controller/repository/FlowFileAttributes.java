@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * An immutable, array-backed Map of FlowFile attributes. Keys are held in a sorted array and values in a parallel array,
+ * which is considerably more compact than a HashMap when many FlowFiles are held in memory.
+ * </p>
+ *
+ * <p>
+ * Attribute keys are interned, and the sorted key arrays themselves are shared between all instances that have the same set
+ * of keys. As a result, a FlowFile and the clones or children created from it typically differ only in their value arrays.
+ * Both caches are bounded so that flows that generate attribute names dynamically cannot grow them without limit.
+ * </p>
+ *
+ * <b>Immutable - Thread Safe</b>
+ */
+public final class FlowFileAttributes extends AbstractMap<String, String> {
+
+    static final int MAX_INTERNED_KEYS = 10_000;
+    static final int MAX_SHARED_KEY_SETS = 5_000;
+
+    private static final ConcurrentMap<String, String> internedKeys = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<List<String>, String[]> sharedKeySets = new ConcurrentHashMap<>();
+
+    private static final String[] EMPTY_ARRAY = new String[0];
+    public static final FlowFileAttributes EMPTY = new FlowFileAttributes(EMPTY_ARRAY, EMPTY_ARRAY);
+
+    private final String[] keys;
+    private final String[] values;
+
+    private FlowFileAttributes(final String[] keys, final String[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Creates an immutable copy of the given attributes. Any entry with a <code>null</code> key or value is ignored.
+     *
+     * @param attributes the attributes to copy
+     * @return an immutable copy of the given attributes
+     */
+    public static FlowFileAttributes of(final Map<String, String> attributes) {
+        return of(attributes, null);
+    }
+
+    /**
+     * Creates an immutable copy of the given attributes. If the given attributes have exactly the same keys as the given template,
+     * the template's keys are reused without being sorted or looked up again, and if the values are also the same, the template
+     * itself is returned.
+     *
+     * @param attributes the attributes to copy
+     * @param template the attributes that the given attributes were most likely derived from, or <code>null</code>
+     * @return an immutable copy of the given attributes
+     */
+    public static FlowFileAttributes of(final Map<String, String> attributes, final FlowFileAttributes template) {
+        if (attributes instanceof FlowFileAttributes) {
+            return (FlowFileAttributes) attributes;
+        }
+        if (attributes == null || attributes.isEmpty()) {
+            return EMPTY;
+        }
+
+        if (template != null && template.keys.length == attributes.size()) {
+            final FlowFileAttributes derived = deriveFrom(attributes, template);
+            if (derived != null) {
+                return derived;
+            }
+        }
+
+        final String[] unsortedKeys = new String[attributes.size()];
+        int count = 0;
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                unsortedKeys[count++] = entry.getKey();
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        final String[] sortedKeys = count == unsortedKeys.length ? unsortedKeys : Arrays.copyOf(unsortedKeys, count);
+        Arrays.sort(sortedKeys);
+
+        final String[] sharedKeys = shareKeys(sortedKeys);
+        final String[] values = new String[sharedKeys.length];
+        for (int i = 0; i < sharedKeys.length; i++) {
+            values[i] = attributes.get(sharedKeys[i]);
+        }
+
+        return new FlowFileAttributes(sharedKeys, values);
+    }
+
+    private static FlowFileAttributes deriveFrom(final Map<String, String> attributes, final FlowFileAttributes template) {
+        final String[] templateKeys = template.keys;
+        final String[] values = new String[templateKeys.length];
+        boolean valuesChanged = false;
+
+        for (int i = 0; i < templateKeys.length; i++) {
+            final String value = attributes.get(templateKeys[i]);
+            if (value == null) {
+                return null;
+            }
+
+            values[i] = value;
+            valuesChanged |= value != template.values[i];
+        }
+
+        return valuesChanged ? new FlowFileAttributes(templateKeys, values) : template;
+    }
+
+    private static String[] shareKeys(final String[] sortedKeys) {
+        final List<String> keyList = Arrays.asList(sortedKeys);
+        final String[] existing = sharedKeySets.get(keyList);
+        if (existing != null) {
+            return existing;
+        }
+
+        for (int i = 0; i < sortedKeys.length; i++) {
+            sortedKeys[i] = internKey(sortedKeys[i]);
+        }
+
+        if (sharedKeySets.size() >= MAX_SHARED_KEY_SETS) {
+            return sortedKeys;
+        }
+
+        final String[] previous = sharedKeySets.putIfAbsent(keyList, sortedKeys);
+        return previous == null ? sortedKeys : previous;
+    }
+
+    private static String internKey(final String key) {
+        final String existing = internedKeys.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (internedKeys.size() >= MAX_INTERNED_KEYS) {
+            return key;
+        }
+
+        final String previous = internedKeys.putIfAbsent(key, key);
+        return previous == null ? key : previous;
+    }
+
+    private int indexOf(final Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        final int index = Arrays.binarySearch(keys, key);
+        return index < 0 ? -1 : index;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * @param other the attributes to compare against
+     * @return <code>true</code> if this instance and the given attributes share the same key array
+     */
+    boolean isSharingKeysWith(final FlowFileAttributes other) {
+        return other != null && keys == other.keys;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (index >= keys.length) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(keys[index], values[index]);
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
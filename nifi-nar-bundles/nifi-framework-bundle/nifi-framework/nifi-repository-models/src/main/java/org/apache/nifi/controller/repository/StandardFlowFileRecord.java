@@ -16,7 +16,6 @@
  */
 package org.apache.nifi.controller.repository;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -49,7 +48,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
     private final long lineageStartIndex;
     private final long size;
     private final long penaltyExpirationMs;
-    private final Map<String, String> attributes;
+    private final FlowFileAttributes attributes;
     private final ContentClaim claim;
     private final long claimOffset;
     private final long lastQueueDate;
@@ -57,7 +56,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     private StandardFlowFileRecord(final Builder builder) {
         this.id = builder.bId;
-        this.attributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        this.attributes = FlowFileAttributes.of(builder.bAttributes, builder.bBaseAttributes);
         this.entryDate = builder.bEntryDate;
         this.lineageStartDate = builder.bLineageStartDate;
         this.lineageStartIndex = builder.bLineageStartIndex;
@@ -106,7 +105,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     @Override
     public Map<String, String> getAttributes() {
-        return Collections.unmodifiableMap(this.attributes);
+        return this.attributes;
     }
 
     @Override
@@ -181,6 +180,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         private long bLastQueueDate = System.currentTimeMillis();
         private long bQueueDateIndex = 0L;
         private Map<String, String> bAttributes;
+        private FlowFileAttributes bBaseAttributes;
         private boolean bAttributesCopied = false;
 
         public Builder id(final long id) {
@@ -319,12 +319,16 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             bLineageIdentifiers.clear();
             bPenaltyExpirationMs = specFlowFile.getPenaltyExpirationMillis();
             bSize = specFlowFile.getSize();
-            // If this is a StandardFlowFileRecord, access the attributes map directly. Do not use the
-            // getAttributes() method, because that will wrap the original in an UnmodifiableMap. As a result,
-            // a Processor that continually calls session.append() for instance will have a FlowFile whose attributes
-            // Map is wrapped thousands of times until it hits a StackOverflowError. We want the getter to return
-            // UnmodifiableMap, though, so that Processors cannot directly modify that Map.
-            bAttributes = specFlowFile instanceof StandardFlowFileRecord ? ((StandardFlowFileRecord) specFlowFile).attributes : specFlowFile.getAttributes();
+            // If this is a StandardFlowFileRecord, keep a reference to its immutable attributes. If the attributes are not
+            // modified, the new FlowFile shares them entirely; otherwise, they are used as a template so that the new
+            // FlowFile can share the original's key array when only attribute values change.
+            if (specFlowFile instanceof StandardFlowFileRecord) {
+                bBaseAttributes = ((StandardFlowFileRecord) specFlowFile).attributes;
+                bAttributes = bBaseAttributes;
+            } else {
+                bBaseAttributes = null;
+                bAttributes = specFlowFile.getAttributes();
+            }
             bAttributesCopied = false;
             bClaim = specFlowFile.getContentClaim();
             bClaimOffset = specFlowFile.getContentClaimOffset();
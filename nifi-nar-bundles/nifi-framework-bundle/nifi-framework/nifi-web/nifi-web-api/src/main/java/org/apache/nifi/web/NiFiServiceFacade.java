@@ -102,11 +102,14 @@ import org.apache.nifi.web.api.entity.UserEntity;
 import org.apache.nifi.web.api.entity.UserGroupEntity;
 import org.apache.nifi.web.api.entity.VariableRegistryEntity;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
@@ -266,6 +269,19 @@ public interface NiFiServiceFacade {
      */
     ProvenanceEventDTO getProvenanceEvent(Long id);
 
+    /**
+     * Streams the provenance events, starting with the specified event id, to the specified consumer. Events that
+     * the current user is not authorized to read are skipped.
+     *
+     * @param startEventId id of the first event to export
+     * @param maxEvents maximum number of events to export
+     * @param eventTypes event types to export, or empty to export all event types
+     * @param componentIds ids of the components whose events to export, or empty to export events for all components
+     * @param consumer consumer of the exported events
+     * @return the event id from which the next export should start
+     */
+    long exportProvenanceEvents(long startEventId, int maxEvents, Set<String> eventTypes, Set<String> componentIds, Consumer<ProvenanceEventDTO> consumer);
+
     /**
      * Gets the configuration for this controller.
      *
@@ -1803,6 +1819,17 @@ public interface NiFiServiceFacade {
      */
     SystemDiagnosticsDTO getSystemDiagnostics();
 
+    /**
+     * Writes the metrics of this node in the Prometheus text format.
+     *
+     * @param writer writer to write the metrics to
+     * @param groupIds ids of the process groups whose components to write metrics for, or empty to write metrics for all components
+     * @param componentIds ids of the components to write metrics for, or empty to write metrics for all components
+     * @param categories categories of metrics to write, or empty to write all categories
+     * @throws IOException if unable to write the metrics
+     */
+    void writePrometheusMetrics(Writer writer, Set<String> groupIds, Set<String> componentIds, Set<String> categories) throws IOException;
+
     // ----------------------------------------
     // Resources
     // ----------------------------------------
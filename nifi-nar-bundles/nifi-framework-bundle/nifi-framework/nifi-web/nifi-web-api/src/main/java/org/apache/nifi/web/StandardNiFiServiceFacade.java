@@ -226,6 +226,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -244,6 +246,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -2368,6 +2371,12 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         return controllerFacade.getProvenanceEvent(id);
     }
 
+    @Override
+    public long exportProvenanceEvents(final long startEventId, final int maxEvents, final Set<String> eventTypes, final Set<String> componentIds,
+                                       final Consumer<ProvenanceEventDTO> consumer) {
+        return controllerFacade.exportProvenanceEvents(startEventId, maxEvents, eventTypes, componentIds, consumer);
+    }
+
     @Override
     public ProcessGroupStatusEntity getProcessGroupStatus(final String groupId, final boolean recursive) {
         final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
@@ -2692,6 +2701,11 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         return dtoFactory.createSystemDiagnosticsDto(sysDiagnostics);
     }
 
+    @Override
+    public void writePrometheusMetrics(final Writer writer, final Set<String> groupIds, final Set<String> componentIds, final Set<String> categories) throws IOException {
+        controllerFacade.writePrometheusMetrics(writer, groupIds, componentIds, categories);
+    }
+
     @Override
     public List<ResourceDTO> getResources() {
         final List<Resource> resources = controllerFacade.getResources();
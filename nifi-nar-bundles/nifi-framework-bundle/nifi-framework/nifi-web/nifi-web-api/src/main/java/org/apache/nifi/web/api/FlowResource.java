@@ -97,6 +97,8 @@ import org.apache.nifi.web.api.request.BulletinBoardPatternParameter;
 import org.apache.nifi.web.api.request.DateTimeParameter;
 import org.apache.nifi.web.api.request.IntegerParameter;
 import org.apache.nifi.web.api.request.LongParameter;
+import org.apache.nifi.web.controller.ControllerFacade;
+import org.apache.nifi.web.util.PrometheusTextWriter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
@@ -112,7 +114,15 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -859,6 +869,82 @@ public class FlowResource extends ApplicationResource {
         return generateOkResponse(entity).build();
     }
 
+    /**
+     * Retrieves the metrics of this node in the Prometheus text format. The request is not replicated;
+     * in a cluster each node is expected to be scraped individually.
+     *
+     * @param groupIds     The ids of the process groups whose components to include
+     * @param componentIds The ids of the components to include
+     * @param categories   The categories of metrics to include
+     * @return The metrics
+     */
+    @GET
+    @Consumes(MediaType.WILDCARD)
+    @Produces(MediaType.TEXT_PLAIN)
+    @Path("metrics/prometheus")
+    @ApiOperation(
+            value = "Gets the metrics of this node in the Prometheus text format",
+            notes = "The component metrics are read from the counters that are maintained as data is processed and are cumulative "
+                    + "since the node was started. The request is not replicated to the other nodes in a cluster.",
+            response = String.class,
+            authorizations = {
+                    @Authorization(value = "Read - /flow")
+            }
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 400, message = "NiFi was unable to complete the request because it was invalid. The request should not be retried without modification."),
+                    @ApiResponse(code = 401, message = "Client could not be authenticated."),
+                    @ApiResponse(code = 403, message = "Client is not authorized to make this request."),
+                    @ApiResponse(code = 404, message = "The specified resource could not be found."),
+                    @ApiResponse(code = 409, message = "The request was valid but NiFi was not in the appropriate state to process it. Retrying the same request later may be successful.")
+            }
+    )
+    public Response getPrometheusMetrics(
+            @ApiParam(
+                    value = "The ids of the process groups whose components, including those of descendant groups, to include. If not specified, all components are included.",
+                    required = false,
+                    allowMultiple = true
+            )
+            @QueryParam("processGroupId") final Set<String> groupIds,
+            @ApiParam(
+                    value = "The ids of the components to include. If not specified, all components are included.",
+                    required = false,
+                    allowMultiple = true
+            )
+            @QueryParam("componentId") final Set<String> componentIds,
+            @ApiParam(
+                    value = "The categories of metrics to include. If not specified, all categories are included.",
+                    required = false,
+                    allowMultiple = true,
+                    allowableValues = "processor, connection, port, repository, jvm"
+            )
+            @QueryParam("category") final Set<String> categories) {
+
+        authorizeFlow();
+
+        final Set<String> groupIdentifiers = groupIds == null ? Collections.emptySet() : groupIds;
+        final Set<String> componentIdentifiers = componentIds == null ? Collections.emptySet() : componentIds;
+        final Set<String> metricCategories = categories == null ? Collections.emptySet() : categories;
+        for (final String category : metricCategories) {
+            if (!ControllerFacade.METRIC_CATEGORIES.contains(category)) {
+                throw new IllegalArgumentException(String.format("Unknown metric category '%s'. Valid categories are %s.", category, ControllerFacade.METRIC_CATEGORIES));
+            }
+        }
+
+        // generate a streaming response
+        final StreamingOutput response = new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+                serviceFacade.writePrometheusMetrics(writer, groupIdentifiers, componentIdentifiers, metricCategories);
+                writer.flush();
+            }
+        };
+
+        return generateOkResponse(response).type(PrometheusTextWriter.CONTENT_TYPE).build();
+    }
+
     /**
      * Retrieves the cluster summary for this NiFi.
      *
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.web.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -28,6 +30,7 @@ import org.apache.nifi.authorization.resource.Authorizable;
 import org.apache.nifi.authorization.user.NiFiUserUtils;
 import org.apache.nifi.web.NiFiServiceFacade;
 import org.apache.nifi.web.api.dto.provenance.ProvenanceDTO;
+import org.apache.nifi.web.api.dto.provenance.ProvenanceEventDTO;
 import org.apache.nifi.web.api.dto.provenance.ProvenanceOptionsDTO;
 import org.apache.nifi.web.api.dto.provenance.lineage.LineageDTO;
 import org.apache.nifi.web.api.dto.provenance.lineage.LineageRequestDTO;
@@ -36,6 +39,8 @@ import org.apache.nifi.web.api.entity.ComponentEntity;
 import org.apache.nifi.web.api.entity.LineageEntity;
 import org.apache.nifi.web.api.entity.ProvenanceEntity;
 import org.apache.nifi.web.api.entity.ProvenanceOptionsEntity;
+import org.apache.nifi.web.api.request.IntegerParameter;
+import org.apache.nifi.web.api.request.LongParameter;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
@@ -48,12 +53,20 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.Providers;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 
 /**
@@ -69,6 +82,9 @@ public class ProvenanceResource extends ApplicationResource {
     private NiFiServiceFacade serviceFacade;
     private Authorizer authorizer;
 
+    @Context
+    private Providers providers;
+
     /**
      * Populates the uri for the specified provenance.
      */
@@ -621,6 +637,123 @@ public class ProvenanceResource extends ApplicationResource {
         );
     }
 
+    /**
+     * Exports provenance events, in order of event id, as a chunked stream. Unlike a provenance query, the events are not
+     * collected into a result set before they are returned; each event is written to the response as it is read from the
+     * repository. The response also includes the event id from which the next export should start.
+     *
+     * @param clusterNodeId The id of the node in the cluster to export events from. Required if clustered.
+     * @param startEventId  The id of the first event to export
+     * @param maxEvents     The maximum number of events to export
+     * @param eventTypes    The event types to export. If not specified, all event types are exported
+     * @param componentIds  The ids of the components whose events to export. If not specified, events for all components are exported
+     * @return The stream of events
+     */
+    @GET
+    @Consumes(MediaType.WILDCARD)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("export")
+    @ApiOperation(
+            value = "Exports provenance events as a stream",
+            notes = "Events that the user is not authorized to read are skipped. The response contains the exported events in the "
+                    + "provenanceEvents field and the id of the event to start the next export from in the nextEventId field.",
+            response = StreamingOutput.class,
+            authorizations = {
+                    @Authorization(value = "Read - /provenance"),
+                    @Authorization(value = "Read - /data/{component-type}/{uuid}")
+            }
+    )
+    @ApiResponses(
+            value = {
+                    @ApiResponse(code = 400, message = "NiFi was unable to complete the request because it was invalid. The request should not be retried without modification."),
+                    @ApiResponse(code = 401, message = "Client could not be authenticated."),
+                    @ApiResponse(code = 403, message = "Client is not authorized to make this request."),
+                    @ApiResponse(code = 409, message = "The request was valid but NiFi was not in the appropriate state to process it. Retrying the same request later may be successful.")
+            }
+    )
+    public Response exportProvenanceEvents(
+            @ApiParam(
+                    value = "The id of the node to export events from if clustered.",
+                    required = false
+            )
+            @QueryParam("clusterNodeId") final String clusterNodeId,
+            @ApiParam(
+                    value = "The id of the first event to export.",
+                    required = false
+            )
+            @QueryParam("startEventId") @DefaultValue("0") final LongParameter startEventId,
+            @ApiParam(
+                    value = "The maximum number of events to export.",
+                    required = false
+            )
+            @QueryParam("maxEvents") @DefaultValue("10000") final IntegerParameter maxEvents,
+            @ApiParam(
+                    value = "The event types to export.",
+                    required = false,
+                    allowMultiple = true
+            )
+            @QueryParam("eventType") final Set<String> eventTypes,
+            @ApiParam(
+                    value = "The ids of the components whose events to export.",
+                    required = false,
+                    allowMultiple = true
+            )
+            @QueryParam("componentId") final Set<String> componentIds) {
+
+        if (startEventId.getLong() < 0) {
+            throw new IllegalArgumentException("The start event id must not be negative.");
+        }
+        if (maxEvents.getInteger() < 1) {
+            throw new IllegalArgumentException("The maximum number of events must be positive.");
+        }
+
+        authorizeProvenanceRequest();
+
+        // replicate if cluster manager
+        if (isReplicateRequest()) {
+            // event ids are specific to each node so the events can only be exported from a single node
+            if (clusterNodeId == null) {
+                throw new IllegalArgumentException("The id of the node in the cluster is required.");
+            } else {
+                return replicate(HttpMethod.GET, clusterNodeId);
+            }
+        }
+
+        final ObjectMapper objectMapper = providers.getContextResolver(ObjectMapper.class, MediaType.APPLICATION_JSON_TYPE).getContext(ProvenanceEventDTO.class);
+        final Set<String> eventTypeNames = eventTypes == null ? Collections.emptySet() : eventTypes;
+        final Set<String> componentIdentifiers = componentIds == null ? Collections.emptySet() : componentIds;
+
+        // generate a streaming response
+        final StreamingOutput response = new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+                try (final JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+                    generator.writeStartObject();
+                    generator.writeArrayFieldStart("provenanceEvents");
+
+                    final long nextEventId;
+                    try {
+                        nextEventId = serviceFacade.exportProvenanceEvents(startEventId.getLong(), maxEvents.getInteger(), eventTypeNames, componentIdentifiers, event -> {
+                            try {
+                                generator.writeObject(event);
+                            } catch (final IOException ioe) {
+                                throw new UncheckedIOException(ioe);
+                            }
+                        });
+                    } catch (final UncheckedIOException uioe) {
+                        throw uioe.getCause();
+                    }
+
+                    generator.writeEndArray();
+                    generator.writeNumberField("nextEventId", nextEventId);
+                    generator.writeEndObject();
+                }
+            }
+        };
+
+        return generateOkResponse(response).build();
+    }
+
     // setters
 
     public void setServiceFacade(NiFiServiceFacade serviceFacade) {
@@ -92,6 +92,7 @@ import org.apache.nifi.controller.status.ConnectionStatus;
 import org.apache.nifi.controller.status.PortStatus;
 import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.controller.status.ProcessorStatus;
+import org.apache.nifi.controller.status.QueuePartitionStatus;
 import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
 import org.apache.nifi.diagnostics.GarbageCollection;
 import org.apache.nifi.diagnostics.StorageUsage;
@@ -151,6 +152,7 @@ import org.apache.nifi.web.api.dto.status.ProcessGroupStatusDTO;
 import org.apache.nifi.web.api.dto.status.ProcessGroupStatusSnapshotDTO;
 import org.apache.nifi.web.api.dto.status.ProcessorStatusDTO;
 import org.apache.nifi.web.api.dto.status.ProcessorStatusSnapshotDTO;
+import org.apache.nifi.web.api.dto.status.QueuePartitionStatusSnapshotDTO;
 import org.apache.nifi.web.api.dto.status.RemoteProcessGroupStatusDTO;
 import org.apache.nifi.web.api.dto.status.RemoteProcessGroupStatusSnapshotDTO;
 import org.apache.nifi.web.api.entity.AccessPolicyEntity;
@@ -620,6 +622,8 @@ public final class DtoFactory {
         dto.setBackPressureObjectThreshold(connection.getFlowFileQueue().getBackPressureObjectThreshold());
         dto.setBackPressureDataSizeThreshold(connection.getFlowFileQueue().getBackPressureDataSizeThreshold());
         dto.setFlowFileExpiration(connection.getFlowFileQueue().getFlowFileExpiration());
+        dto.setLoadBalanceStrategy(connection.getFlowFileQueue().getLoadBalanceStrategy().name());
+        dto.setLoadBalancePartitionAttribute(connection.getFlowFileQueue().getPartitioningAttribute());
         dto.setPrioritizers(new ArrayList<String>());
         for (final FlowFilePrioritizer comparator : connection.getFlowFileQueue().getPriorities()) {
             dto.getPrioritizers().add(comparator.getClass().getCanonicalName());
@@ -1072,6 +1076,24 @@ public final class DtoFactory {
             snapshot.setPercentUseBytes(Math.min(100, StatusMerger.getUtilization(connectionStatus.getQueuedBytes(), connectionStatus.getBackPressureBytesThreshold())));
         }
 
+        snapshot.setQueuedDurationMillisP50(connectionStatus.getQueuedDurationMillisP50());
+        snapshot.setQueuedDurationMillisP99(connectionStatus.getQueuedDurationMillisP99());
+        snapshot.setQueuedDurationMillisMax(connectionStatus.getQueuedDurationMillisMax());
+
+        final Collection<QueuePartitionStatus> partitionStatuses = connectionStatus.getQueuePartitionStatus();
+        if (partitionStatuses != null && !partitionStatuses.isEmpty()) {
+            final List<QueuePartitionStatusSnapshotDTO> partitionSnapshots = new ArrayList<>(partitionStatuses.size());
+            for (final QueuePartitionStatus partitionStatus : partitionStatuses) {
+                final QueuePartitionStatusSnapshotDTO partitionSnapshot = new QueuePartitionStatusSnapshotDTO();
+                partitionSnapshot.setNodeId(partitionStatus.getNodeId());
+                partitionSnapshot.setNodeAddress(partitionStatus.getNodeAddress());
+                partitionSnapshot.setFlowFilesQueued(partitionStatus.getQueuedCount());
+                partitionSnapshot.setBytesQueued(partitionStatus.getQueuedBytes());
+                partitionSnapshots.add(partitionSnapshot);
+            }
+            snapshot.setPartitionSnapshots(partitionSnapshots);
+        }
+
         StatusMerger.updatePrettyPrintedFields(snapshot);
 
         return connectionStatusDto;
@@ -1103,6 +1125,10 @@ public final class DtoFactory {
         snapshot.setTaskCount(procStatus.getInvocations());
         snapshot.setTasksDurationNanos(procStatus.getProcessingNanos());
         snapshot.setTasksDuration(FormatUtils.formatHoursMinutesSeconds(procStatus.getProcessingNanos(), TimeUnit.NANOSECONDS));
+        snapshot.setProvenanceEventsDiscarded(procStatus.getProvenanceEventsDiscarded());
+        snapshot.setOnTriggerNanosP50(procStatus.getOnTriggerNanosP50());
+        snapshot.setOnTriggerNanosP99(procStatus.getOnTriggerNanosP99());
+        snapshot.setOnTriggerNanosMax(procStatus.getOnTriggerNanosMax());
 
         // determine the run status
         snapshot.setRunStatus(procStatus.getRunStatus().toString());
@@ -2639,18 +2665,17 @@ public final class DtoFactory {
         final List<LineageNode> nodes = results.getNodes();
         final List<LineageEdge> edges = results.getEdges();
 
+        // create the node dto's. if the computation has not finished, these are the nodes of the partial
+        // lineage that has been computed so far, so that clients can begin rendering the graph
         final List<ProvenanceNodeDTO> nodeDtos = new ArrayList<>();
-        if (results.isFinished()) {
-            // create the node dto's
-            for (final LineageNode node : nodes) {
-                switch (node.getNodeType()) {
-                    case FLOWFILE_NODE:
-                        nodeDtos.add(createFlowFileNodeDTO(node));
-                        break;
-                    case PROVENANCE_EVENT_NODE:
-                        nodeDtos.add(createProvenanceEventNodeDTO((ProvenanceEventLineageNode) node));
-                        break;
-                }
+        for (final LineageNode node : nodes) {
+            switch (node.getNodeType()) {
+                case FLOWFILE_NODE:
+                    nodeDtos.add(createFlowFileNodeDTO(node));
+                    break;
+                case PROVENANCE_EVENT_NODE:
+                    nodeDtos.add(createProvenanceEventNodeDTO((ProvenanceEventLineageNode) node));
+                    break;
             }
         }
         resultsDto.setNodes(nodeDtos);
@@ -2731,6 +2756,16 @@ public final class DtoFactory {
             contentRepositoryStorageUsageDtos.add(createStorageUsageDTO(entry.getKey(), entry.getValue()));
         }
 
+        // memory-mapped content
+        snapshot.setContentRepositoryMapped(FormatUtils.formatDataSize(sysDiagnostics.getContentRepositoryMappedBytes()));
+        snapshot.setContentRepositoryMappedBytes(sysDiagnostics.getContentRepositoryMappedBytes());
+        snapshot.setContentRepositoryMappedFileCount(sysDiagnostics.getContentRepositoryMappedFileCount());
+        snapshot.setContentRepositoryMappedReadHits(sysDiagnostics.getContentRepositoryMappedReadHits());
+        snapshot.setContentRepositoryMappedReadMisses(sysDiagnostics.getContentRepositoryMappedReadMisses());
+        if (sysDiagnostics.getContentRepositoryMappedReadHitRatio() != -1) {
+            snapshot.setContentRepositoryMappedReadHitRatio(FormatUtils.formatUtilization(sysDiagnostics.getContentRepositoryMappedReadHitRatio()));
+        }
+
         // provenance disk usage
         final Set<SystemDiagnosticsSnapshotDTO.StorageUsageDTO> provenanceRepositoryStorageUsageDtos = new LinkedHashSet<>();
         snapshot.setProvenanceRepositoryStorageUsage(provenanceRepositoryStorageUsageDtos);
@@ -3123,6 +3158,8 @@ public final class DtoFactory {
         copy.setParentGroupId(original.getParentGroupId());
         copy.setSelectedRelationships(copy(original.getSelectedRelationships()));
         copy.setFlowFileExpiration(original.getFlowFileExpiration());
+        copy.setLoadBalanceStrategy(original.getLoadBalanceStrategy());
+        copy.setLoadBalancePartitionAttribute(original.getLoadBalancePartitionAttribute());
         copy.setBackPressureObjectThreshold(original.getBackPressureObjectThreshold());
         copy.setBackPressureDataSizeThreshold(original.getBackPressureDataSizeThreshold());
         copy.setPrioritizers(copy(original.getPrioritizers()));
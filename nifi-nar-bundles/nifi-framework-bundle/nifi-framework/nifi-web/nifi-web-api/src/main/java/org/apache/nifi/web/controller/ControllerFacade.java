@@ -42,6 +42,7 @@ import org.apache.nifi.controller.ContentAvailability;
 import org.apache.nifi.controller.ControllerService;
 import org.apache.nifi.controller.Counter;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.ProcessScheduler;
 import org.apache.nifi.controller.ProcessorNode;
 import org.apache.nifi.controller.ReportingTaskNode;
 import org.apache.nifi.controller.ScheduledState;
@@ -50,6 +51,8 @@ import org.apache.nifi.controller.label.Label;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.QueueSize;
 import org.apache.nifi.controller.repository.ContentNotFoundException;
+import org.apache.nifi.controller.repository.FlowFileEvent;
+import org.apache.nifi.controller.repository.RepositoryStatusReport;
 import org.apache.nifi.controller.repository.claim.ContentDirection;
 import org.apache.nifi.controller.service.ControllerServiceNode;
 import org.apache.nifi.controller.status.ConnectionStatus;
@@ -58,6 +61,8 @@ import org.apache.nifi.controller.status.ProcessGroupStatus;
 import org.apache.nifi.controller.status.ProcessorStatus;
 import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
 import org.apache.nifi.controller.status.history.ComponentStatusRepository;
+import org.apache.nifi.diagnostics.GarbageCollection;
+import org.apache.nifi.diagnostics.StorageUsage;
 import org.apache.nifi.diagnostics.SystemDiagnostics;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
@@ -69,6 +74,7 @@ import org.apache.nifi.nar.NarCloseable;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.processor.Processor;
 import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.ProvenanceEventCursor;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceRepository;
 import org.apache.nifi.provenance.SearchableFields;
@@ -112,20 +118,26 @@ import org.apache.nifi.web.api.dto.search.ComponentSearchResultDTO;
 import org.apache.nifi.web.api.dto.search.SearchResultsDTO;
 import org.apache.nifi.web.api.dto.status.ControllerStatusDTO;
 import org.apache.nifi.web.api.dto.status.StatusHistoryDTO;
+import org.apache.nifi.web.util.PrometheusTextWriter;
+import org.apache.nifi.web.util.PrometheusTextWriter.MetricType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.text.Collator;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -135,6 +147,10 @@ import java.util.TimeZone;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 
 import static org.apache.nifi.controller.FlowController.ROOT_GROUP_ID_ALIAS;
@@ -143,6 +159,14 @@ public class ControllerFacade implements Authorizable {
 
     private static final Logger logger = LoggerFactory.getLogger(ControllerFacade.class);
 
+    public static final String METRIC_CATEGORY_PROCESSOR = "processor";
+    public static final String METRIC_CATEGORY_CONNECTION = "connection";
+    public static final String METRIC_CATEGORY_PORT = "port";
+    public static final String METRIC_CATEGORY_REPOSITORY = "repository";
+    public static final String METRIC_CATEGORY_JVM = "jvm";
+    public static final Set<String> METRIC_CATEGORIES = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+        METRIC_CATEGORY_PROCESSOR, METRIC_CATEGORY_CONNECTION, METRIC_CATEGORY_PORT, METRIC_CATEGORY_REPOSITORY, METRIC_CATEGORY_JVM)));
+
     // nifi components
     private FlowController flowController;
     private FlowService flowService;
@@ -804,6 +828,327 @@ public class ControllerFacade implements Authorizable {
         return flowController.getSystemDiagnostics();
     }
 
+    /**
+     * Writes the metrics of this node in the Prometheus text format. The component metrics are read directly from the
+     * FlowFile Event Repository and the FlowFile Queues rather than from the component status, and are written as they
+     * are read. The names of components that the current user is not authorized to read are replaced with their ids.
+     *
+     * @param writer the writer to write the metrics to
+     * @param groupIds the ids of the process groups whose components, including those of all descendant groups, to
+     *            write metrics for, or an empty set to write metrics for all components
+     * @param componentIds the ids of the components to write metrics for, or an empty set to write metrics for all components
+     * @param categories the categories of metrics to write, or an empty set to write all categories; see {@link #METRIC_CATEGORIES}
+     * @throws IOException if unable to write to the writer
+     */
+    public void writePrometheusMetrics(final Writer writer, final Set<String> groupIds, final Set<String> componentIds, final Set<String> categories)
+            throws IOException {
+        for (final String category : categories) {
+            if (!METRIC_CATEGORIES.contains(category)) {
+                throw new IllegalArgumentException(String.format("Unknown metric category '%s'. Valid categories are %s.", category, METRIC_CATEGORIES));
+            }
+        }
+
+        final List<ProcessGroup> groups = new ArrayList<>();
+        if (groupIds.isEmpty()) {
+            groups.add(flowController.getGroup(getRootGroupId()));
+        } else {
+            for (final String groupId : groupIds) {
+                final ProcessGroup group = flowController.getGroup(groupId);
+                if (group == null) {
+                    throw new ResourceNotFoundException(String.format("Unable to locate process group with id '%s'.", groupId));
+                }
+                groups.add(group);
+            }
+        }
+
+        // collect the components once so that each metric can be written as a single group of samples, as the format requires
+        final List<ProcessorNode> processors = new ArrayList<>();
+        final List<Connection> connections = new ArrayList<>();
+        final List<Port> ports = new ArrayList<>();
+        final Set<String> visitedGroupIds = new HashSet<>();
+        for (final ProcessGroup group : groups) {
+            collectComponents(group, componentIds, visitedGroupIds, processors, connections, ports);
+        }
+
+        final boolean includeProcessors = categories.isEmpty() || categories.contains(METRIC_CATEGORY_PROCESSOR);
+        final boolean includeConnections = categories.isEmpty() || categories.contains(METRIC_CATEGORY_CONNECTION);
+        final boolean includePorts = categories.isEmpty() || categories.contains(METRIC_CATEGORY_PORT);
+
+        // only the counters of the components that will be written are looked up
+        final List<String> reportedComponentIds = new ArrayList<>();
+        if (includeProcessors) {
+            processors.forEach(processor -> reportedComponentIds.add(processor.getIdentifier()));
+        }
+        if (includeConnections) {
+            connections.forEach(connection -> reportedComponentIds.add(connection.getIdentifier()));
+        }
+        if (includePorts) {
+            ports.forEach(port -> reportedComponentIds.add(port.getIdentifier()));
+        }
+
+        final NiFiUser user = NiFiUserUtils.getNiFiUser();
+        final Predicate<Authorizable> isAuthorized = authorizable -> authorizable.isAuthorized(authorizer, RequestAction.READ, user);
+        final RepositoryStatusReport statusReport = flowController.getAggregateProcessorStats(reportedComponentIds);
+        final ProcessScheduler processScheduler = flowController.getProcessScheduler();
+        final PrometheusTextWriter out = new PrometheusTextWriter(writer);
+
+        if (includeProcessors) {
+            final MetricLabels<ProcessorNode> labels = (labelWriter, processor) -> {
+                labelWriter.writeLabel("process_group_id", processor.getProcessGroup().getIdentifier());
+                labelWriter.writeLabel("component_id", processor.getIdentifier());
+                labelWriter.writeLabel("component_name", isAuthorized.test(processor) ? processor.getName() : processor.getIdentifier());
+                labelWriter.writeLabel("component_type", processor.getComponentType());
+            };
+
+            writeEventMetric(out, "nifi_processor_input_flowfiles_total", "The number of FlowFiles pulled from the processor's incoming connections",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getFlowFilesIn);
+            writeEventMetric(out, "nifi_processor_input_bytes_total", "The size of the FlowFiles pulled from the processor's incoming connections",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getContentSizeIn);
+            writeEventMetric(out, "nifi_processor_output_flowfiles_total", "The number of FlowFiles transferred to the processor's outgoing connections",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getFlowFilesOut);
+            writeEventMetric(out, "nifi_processor_output_bytes_total", "The size of the FlowFiles transferred to the processor's outgoing connections",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getContentSizeOut);
+            writeEventMetric(out, "nifi_processor_read_bytes_total", "The number of bytes the processor read from the Content Repository",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getBytesRead);
+            writeEventMetric(out, "nifi_processor_written_bytes_total", "The number of bytes the processor wrote to the Content Repository",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getBytesWritten);
+            writeEventMetric(out, "nifi_processor_received_flowfiles_total", "The number of FlowFiles the processor received from external sources",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getFlowFilesReceived);
+            writeEventMetric(out, "nifi_processor_received_bytes_total", "The size of the FlowFiles the processor received from external sources",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getBytesReceived);
+            writeEventMetric(out, "nifi_processor_sent_flowfiles_total", "The number of FlowFiles the processor sent to external destinations",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getFlowFilesSent);
+            writeEventMetric(out, "nifi_processor_sent_bytes_total", "The size of the FlowFiles the processor sent to external destinations",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getBytesSent);
+            writeEventMetric(out, "nifi_processor_removed_flowfiles_total", "The number of FlowFiles the processor removed from the flow",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getFlowFilesRemoved);
+            writeEventMetric(out, "nifi_processor_invocations_total", "The number of times the processor was triggered",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getInvocations);
+            writeEventMetric(out, "nifi_processor_provenance_events_discarded_total", "The number of provenance events of the processor discarded by the sampling policy",
+                processors, labels, ProcessorNode::getIdentifier, statusReport, FlowFileEvent::getProvenanceEventsDiscarded);
+            writeDoubleMetric(out, "nifi_processor_processing_seconds_total", "The time the processor spent being triggered", MetricType.COUNTER, processors, labels,
+                processor -> nanosToSeconds(getEventValue(statusReport, processor.getIdentifier(), FlowFileEvent::getProcessingNanoseconds)));
+            writeMetric(out, "nifi_processor_active_threads", "The number of threads currently triggering the processor", MetricType.GAUGE, processors, labels,
+                processor -> processScheduler.getActiveThreadCount(processor));
+        }
+
+        if (includeConnections) {
+            final MetricLabels<Connection> labels = (labelWriter, connection) -> {
+                labelWriter.writeLabel("process_group_id", connection.getProcessGroup().getIdentifier());
+                labelWriter.writeLabel("component_id", connection.getIdentifier());
+                labelWriter.writeLabel("component_name", isAuthorized.test(connection) ? getConnectionName(connection) : connection.getIdentifier());
+                labelWriter.writeLabel("source_id", connection.getSource().getIdentifier());
+                labelWriter.writeLabel("destination_id", connection.getDestination().getIdentifier());
+            };
+
+            writeMetric(out, "nifi_connection_queued_flowfiles", "The number of FlowFiles queued in the connection", MetricType.GAUGE, connections, labels,
+                connection -> connection.getFlowFileQueue().size().getObjectCount());
+            writeMetric(out, "nifi_connection_queued_bytes", "The size of the FlowFiles queued in the connection", MetricType.GAUGE, connections, labels,
+                connection -> connection.getFlowFileQueue().size().getByteCount());
+            writeMetric(out, "nifi_connection_backpressure_object_threshold", "The number of queued FlowFiles at which back pressure is applied", MetricType.GAUGE,
+                connections, labels, connection -> connection.getFlowFileQueue().getBackPressureObjectThreshold());
+            writeMetric(out, "nifi_connection_backpressure_bytes_threshold", "The size of the queued FlowFiles at which back pressure is applied", MetricType.GAUGE,
+                connections, labels, connection -> getBackPressureBytesThreshold(connection.getFlowFileQueue()));
+            writeEventMetric(out, "nifi_connection_input_flowfiles_total", "The number of FlowFiles added to the connection",
+                connections, labels, Connection::getIdentifier, statusReport, FlowFileEvent::getFlowFilesIn);
+            writeEventMetric(out, "nifi_connection_input_bytes_total", "The size of the FlowFiles added to the connection",
+                connections, labels, Connection::getIdentifier, statusReport, FlowFileEvent::getContentSizeIn);
+            writeEventMetric(out, "nifi_connection_output_flowfiles_total", "The number of FlowFiles pulled from the connection",
+                connections, labels, Connection::getIdentifier, statusReport, FlowFileEvent::getFlowFilesOut);
+            writeEventMetric(out, "nifi_connection_output_bytes_total", "The size of the FlowFiles pulled from the connection",
+                connections, labels, Connection::getIdentifier, statusReport, FlowFileEvent::getContentSizeOut);
+        }
+
+        if (includePorts) {
+            final MetricLabels<Port> labels = (labelWriter, port) -> {
+                labelWriter.writeLabel("process_group_id", port.getProcessGroup().getIdentifier());
+                labelWriter.writeLabel("component_id", port.getIdentifier());
+                labelWriter.writeLabel("component_name", isAuthorized.test(port) ? port.getName() : port.getIdentifier());
+                labelWriter.writeLabel("port_type", port.getConnectableType().name());
+            };
+
+            writeEventMetric(out, "nifi_port_input_flowfiles_total", "The number of FlowFiles received by the port",
+                ports, labels, Port::getIdentifier, statusReport, FlowFileEvent::getFlowFilesIn);
+            writeEventMetric(out, "nifi_port_input_bytes_total", "The size of the FlowFiles received by the port",
+                ports, labels, Port::getIdentifier, statusReport, FlowFileEvent::getContentSizeIn);
+            writeEventMetric(out, "nifi_port_output_flowfiles_total", "The number of FlowFiles transferred by the port",
+                ports, labels, Port::getIdentifier, statusReport, FlowFileEvent::getFlowFilesOut);
+            writeEventMetric(out, "nifi_port_output_bytes_total", "The size of the FlowFiles transferred by the port",
+                ports, labels, Port::getIdentifier, statusReport, FlowFileEvent::getContentSizeOut);
+            writeMetric(out, "nifi_port_active_threads", "The number of threads currently triggering the port", MetricType.GAUGE, ports, labels,
+                port -> processScheduler.getActiveThreadCount(port));
+        }
+
+        final boolean includeRepositories = categories.isEmpty() || categories.contains(METRIC_CATEGORY_REPOSITORY);
+        final boolean includeJvm = categories.isEmpty() || categories.contains(METRIC_CATEGORY_JVM);
+        if (includeRepositories || includeJvm) {
+            final SystemDiagnostics systemDiagnostics = flowController.getSystemDiagnostics();
+
+            if (includeRepositories) {
+                final List<Map.Entry<String, StorageUsage>> storageUsages = new ArrayList<>();
+                storageUsages.add(new AbstractMap.SimpleImmutableEntry<>("flowfile", systemDiagnostics.getFlowFileRepositoryStorageUsage()));
+                for (final StorageUsage storageUsage : systemDiagnostics.getContentRepositoryStorageUsage().values()) {
+                    storageUsages.add(new AbstractMap.SimpleImmutableEntry<>("content", storageUsage));
+                }
+                for (final StorageUsage storageUsage : systemDiagnostics.getProvenanceRepositoryStorageUsage().values()) {
+                    storageUsages.add(new AbstractMap.SimpleImmutableEntry<>("provenance", storageUsage));
+                }
+
+                final MetricLabels<Map.Entry<String, StorageUsage>> labels = (labelWriter, entry) -> {
+                    labelWriter.writeLabel("repository", entry.getKey());
+                    labelWriter.writeLabel("container", entry.getValue().getIdentifier());
+                };
+
+                writeMetric(out, "nifi_repository_free_bytes", "The usable space of the repository's storage", MetricType.GAUGE, storageUsages, labels,
+                    entry -> entry.getValue().getFreeSpace());
+                writeMetric(out, "nifi_repository_capacity_bytes", "The capacity of the repository's storage", MetricType.GAUGE, storageUsages, labels,
+                    entry -> entry.getValue().getTotalSpace());
+            }
+
+            if (includeJvm) {
+                final List<SystemDiagnostics> node = Collections.singletonList(systemDiagnostics);
+                final MetricLabels<SystemDiagnostics> noLabels = (labelWriter, diagnostics) -> { };
+
+                writeMetric(out, "nifi_active_threads", "The number of threads currently triggering components", MetricType.GAUGE, node, noLabels,
+                    diagnostics -> flowController.getActiveThreadCount());
+                writeMetric(out, "jvm_heap_used_bytes", "The used heap memory", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getUsedHeap);
+                writeMetric(out, "jvm_heap_committed_bytes", "The committed heap memory", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getTotalHeap);
+                writeMetric(out, "jvm_heap_max_bytes", "The maximum heap memory", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getMaxHeap);
+                writeMetric(out, "jvm_non_heap_used_bytes", "The used non-heap memory", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getUsedNonHeap);
+                writeMetric(out, "jvm_non_heap_committed_bytes", "The committed non-heap memory", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getTotalNonHeap);
+                writeMetric(out, "jvm_threads", "The number of live threads", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getTotalThreads);
+                writeMetric(out, "jvm_daemon_threads", "The number of live daemon threads", MetricType.GAUGE, node, noLabels, SystemDiagnostics::getDaemonThreads);
+                writeMetric(out, "jvm_available_processors", "The number of processors available to the JVM", MetricType.GAUGE, node, noLabels,
+                    SystemDiagnostics::getAvailableProcessors);
+                writeDoubleMetric(out, "jvm_uptime_seconds", "The time since the JVM was started", MetricType.GAUGE, node, noLabels,
+                    diagnostics -> diagnostics.getUptime() / 1000.0D);
+
+                final Double loadAverage = systemDiagnostics.getProcessorLoadAverage();
+                if (loadAverage != null && loadAverage >= 0) {
+                    writeDoubleMetric(out, "jvm_system_load_average", "The system load average for the last minute", MetricType.GAUGE, node, noLabels,
+                        diagnostics -> loadAverage);
+                }
+
+                final List<Map.Entry<String, GarbageCollection>> garbageCollectors = new ArrayList<>(systemDiagnostics.getGarbageCollection().entrySet());
+                final MetricLabels<Map.Entry<String, GarbageCollection>> gcLabels = (labelWriter, entry) -> labelWriter.writeLabel("gc", entry.getKey());
+                writeMetric(out, "jvm_gc_collections_total", "The number of collections performed by the garbage collector", MetricType.COUNTER,
+                    garbageCollectors, gcLabels, entry -> entry.getValue().getCollectionCount());
+                writeDoubleMetric(out, "jvm_gc_collection_seconds_total", "The time spent by the garbage collector", MetricType.COUNTER,
+                    garbageCollectors, gcLabels, entry -> entry.getValue().getCollectionTime() / 1000.0D);
+            }
+        }
+
+        out.flush();
+    }
+
+    private void collectComponents(final ProcessGroup group, final Set<String> componentIds, final Set<String> visitedGroupIds,
+                                   final List<ProcessorNode> processors, final List<Connection> connections, final List<Port> ports) {
+        // a group may be a descendant of another requested group
+        if (!visitedGroupIds.add(group.getIdentifier())) {
+            return;
+        }
+
+        for (final ProcessorNode processor : group.getProcessors()) {
+            if (componentIds.isEmpty() || componentIds.contains(processor.getIdentifier())) {
+                processors.add(processor);
+            }
+        }
+        for (final Connection connection : group.getConnections()) {
+            if (componentIds.isEmpty() || componentIds.contains(connection.getIdentifier())) {
+                connections.add(connection);
+            }
+        }
+        for (final Port port : group.getInputPorts()) {
+            if (componentIds.isEmpty() || componentIds.contains(port.getIdentifier())) {
+                ports.add(port);
+            }
+        }
+        for (final Port port : group.getOutputPorts()) {
+            if (componentIds.isEmpty() || componentIds.contains(port.getIdentifier())) {
+                ports.add(port);
+            }
+        }
+        for (final ProcessGroup childGroup : group.getProcessGroups()) {
+            collectComponents(childGroup, componentIds, visitedGroupIds, processors, connections, ports);
+        }
+    }
+
+    private <T> void writeEventMetric(final PrometheusTextWriter out, final String name, final String help, final List<T> components, final MetricLabels<T> labels,
+                                      final Function<T, String> componentIds, final RepositoryStatusReport statusReport,
+                                      final ToLongFunction<FlowFileEvent> value) throws IOException {
+        if (components.isEmpty()) {
+            return;
+        }
+
+        out.writeMetric(name, help, MetricType.COUNTER);
+        for (final T component : components) {
+            out.startSample(name);
+            labels.write(out, component);
+            out.endSample(getEventValue(statusReport, componentIds.apply(component), value));
+        }
+    }
+
+    private <T> void writeMetric(final PrometheusTextWriter out, final String name, final String help, final MetricType type, final List<T> components,
+                                 final MetricLabels<T> labels, final ToLongFunction<T> value) throws IOException {
+        if (components.isEmpty()) {
+            return;
+        }
+
+        out.writeMetric(name, help, type);
+        for (final T component : components) {
+            out.startSample(name);
+            labels.write(out, component);
+            out.endSample(value.applyAsLong(component));
+        }
+    }
+
+    private <T> void writeDoubleMetric(final PrometheusTextWriter out, final String name, final String help, final MetricType type, final List<T> components,
+                                       final MetricLabels<T> labels, final ToDoubleFunction<T> value) throws IOException {
+        if (components.isEmpty()) {
+            return;
+        }
+
+        out.writeMetric(name, help, type);
+        for (final T component : components) {
+            out.startSample(name);
+            labels.write(out, component);
+            out.endSample(value.applyAsDouble(component));
+        }
+    }
+
+    private long getEventValue(final RepositoryStatusReport statusReport, final String componentId, final ToLongFunction<FlowFileEvent> value) {
+        // components that have not processed any data since this instance was started have no entry
+        final FlowFileEvent event = statusReport.getReportEntry(componentId);
+        return event == null ? 0L : value.applyAsLong(event);
+    }
+
+    private String getConnectionName(final Connection connection) {
+        final Collection<Relationship> relationships = connection.getRelationships();
+        if (StringUtils.isBlank(connection.getName()) && CollectionUtils.isNotEmpty(relationships)) {
+            return StringUtils.join(relationships.stream().map(relationship -> relationship.getName()).collect(Collectors.toList()), ", ");
+        }
+        return connection.getName();
+    }
+
+    private long getBackPressureBytesThreshold(final FlowFileQueue queue) {
+        final String threshold = queue.getBackPressureDataSizeThreshold();
+        return StringUtils.isBlank(threshold) ? 0L : DataUnit.parseDataSize(threshold, DataUnit.B).longValue();
+    }
+
+    private static double nanosToSeconds(final long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1L);
+    }
+
+    /**
+     * Writes the labels of a sample of a metric
+     *
+     * @param <T> the type of component the metric describes
+     */
+    @FunctionalInterface
+    private interface MetricLabels<T> {
+        void write(PrometheusTextWriter labelWriter, T component) throws IOException;
+    }
+
     public List<Resource> getResources() {
         final List<Resource> resources = new ArrayList<>();
         resources.add(ResourceFactory.getFlowResource());
@@ -1347,6 +1692,37 @@ public class ControllerFacade implements Authorizable {
         }
     }
 
+    /**
+     * Streams the provenance events, starting with the given event id, to the given consumer. Events that the current user
+     * is not authorized to read are skipped.
+     *
+     * @param startEventId the id of the first event to export
+     * @param maxEvents the maximum number of events to export
+     * @param eventTypes the names of the event types to export, or an empty set to export all event types
+     * @param componentIds the ids of the components whose events should be exported, or an empty set to export events for all components
+     * @param consumer the consumer of the exported events
+     * @return the event id from which the next export should start
+     */
+    public long exportProvenanceEvents(final long startEventId, final int maxEvents, final Set<String> eventTypes, final Set<String> componentIds,
+                                       final Consumer<ProvenanceEventDTO> consumer) {
+        final Predicate<ProvenanceEventRecord> filter = event -> (eventTypes.isEmpty() || eventTypes.contains(event.getEventType().name()))
+            && (componentIds.isEmpty() || componentIds.contains(event.getComponentId()));
+
+        try (final ProvenanceEventCursor cursor = flowController.getProvenanceRepository().getEventCursor(startEventId, filter, NiFiUserUtils.getNiFiUser())) {
+            int exported = 0;
+            ProvenanceEventRecord event;
+            while (exported < maxEvents && (event = cursor.nextEvent()) != null) {
+                consumer.accept(createProvenanceEventDto(event, false));
+                exported++;
+            }
+
+            final long lastEventIdRead = cursor.getLastEventIdRead();
+            return lastEventIdRead < startEventId ? startEventId : lastEventIdRead + 1;
+        } catch (final IOException ioe) {
+            throw new NiFiCoreException("An error occurred while exporting provenance events.", ioe);
+        }
+    }
+
     /**
      * Creates a ProvenanceEventDTO for the specified ProvenanceEventRecord.
      *
@@ -31,6 +31,7 @@ import org.apache.nifi.controller.exception.ValidationException;
 import org.apache.nifi.controller.queue.DropFlowFileStatus;
 import org.apache.nifi.controller.queue.FlowFileQueue;
 import org.apache.nifi.controller.queue.ListFlowFileStatus;
+import org.apache.nifi.controller.queue.LoadBalanceStrategy;
 import org.apache.nifi.controller.repository.ContentNotFoundException;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
@@ -53,6 +54,7 @@ import javax.ws.rs.WebApplicationException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -177,6 +179,9 @@ public class StandardConnectionDAO extends ComponentDAO implements ConnectionDAO
         if (isNotNull(newPrioritizers)) {
             connection.getFlowFileQueue().setPriorities(newPrioritizers);
         }
+        if (isNotNull(connectionDTO.getLoadBalanceStrategy())) {
+            connection.getFlowFileQueue().setLoadBalanceStrategy(LoadBalanceStrategy.valueOf(connectionDTO.getLoadBalanceStrategy()), connectionDTO.getLoadBalancePartitionAttribute());
+        }
 
         // update the connection state
         if (isNotNull(connectionDTO.getBends())) {
@@ -214,6 +219,17 @@ public class StandardConnectionDAO extends ComponentDAO implements ConnectionDAO
                 validationErrors.add("Flow file expiration is not a valid time duration (ie 30 sec, 5 min)");
             }
         }
+        if (isNotNull(connectionDTO.getLoadBalanceStrategy())) {
+            try {
+                final LoadBalanceStrategy loadBalanceStrategy = LoadBalanceStrategy.valueOf(connectionDTO.getLoadBalanceStrategy());
+                final String partitionAttribute = connectionDTO.getLoadBalancePartitionAttribute();
+                if (loadBalanceStrategy == LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE && (partitionAttribute == null || partitionAttribute.trim().isEmpty())) {
+                    validationErrors.add("A partitioning attribute must be specified when the load balance strategy is " + LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE);
+                }
+            } catch (final IllegalArgumentException iae) {
+                validationErrors.add("Load balance strategy must be one of " + Arrays.toString(LoadBalanceStrategy.values()));
+            }
+        }
         if (isNotNull(connectionDTO.getLabelIndex())) {
             if (connectionDTO.getLabelIndex() < 0) {
                 validationErrors.add("The label index must be positive.");
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * <p>
+ * Writes metrics in the Prometheus text exposition format, version 0.0.4. Samples are written directly to the
+ * underlying Writer as they are produced, so that the size of the output does not determine the amount of memory
+ * that is needed to generate it.
+ * </p>
+ *
+ * <p>
+ * All samples of a metric must immediately follow the call to {@link #writeMetric(String, String, MetricType)}
+ * that describes the metric. Each sample is written by calling {@link #startSample(String)}, then
+ * {@link #writeLabel(String, String)} for each of its labels, and finally {@link #endSample(long)} or
+ * {@link #endSample(double)}.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class PrometheusTextWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Writer writer;
+    private boolean firstLabel;
+
+    public PrometheusTextWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes the HELP and TYPE lines that describe a metric
+     *
+     * @param name the name of the metric
+     * @param help a description of the metric
+     * @param type the type of the metric
+     * @throws IOException if unable to write to the underlying Writer
+     */
+    public void writeMetric(final String name, final String help, final MetricType type) throws IOException {
+        writer.write("# HELP ");
+        writer.write(name);
+        writer.write(' ');
+        writeEscaped(help, false);
+        writer.write('\n');
+
+        writer.write("# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type.getName());
+        writer.write('\n');
+    }
+
+    /**
+     * Starts a sample of the metric with the given name
+     *
+     * @param name the name of the metric
+     * @throws IOException if unable to write to the underlying Writer
+     */
+    public void startSample(final String name) throws IOException {
+        writer.write(name);
+        firstLabel = true;
+    }
+
+    /**
+     * Writes a label of the current sample. Labels whose value is <code>null</code> are omitted.
+     *
+     * @param name the name of the label
+     * @param value the value of the label
+     * @throws IOException if unable to write to the underlying Writer
+     */
+    public void writeLabel(final String name, final String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        writer.write(firstLabel ? '{' : ',');
+        writer.write(name);
+        writer.write("=\"");
+        writeEscaped(value, true);
+        writer.write('"');
+        firstLabel = false;
+    }
+
+    /**
+     * Ends the current sample with the given value
+     *
+     * @param value the value of the sample
+     * @throws IOException if unable to write to the underlying Writer
+     */
+    public void endSample(final long value) throws IOException {
+        endLabels();
+        writer.write(Long.toString(value));
+        writer.write('\n');
+    }
+
+    /**
+     * Ends the current sample with the given value
+     *
+     * @param value the value of the sample
+     * @throws IOException if unable to write to the underlying Writer
+     */
+    public void endSample(final double value) throws IOException {
+        endLabels();
+        if (Double.isNaN(value)) {
+            writer.write("NaN");
+        } else if (Double.isInfinite(value)) {
+            writer.write(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write('\n');
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void endLabels() throws IOException {
+        writer.write(firstLabel ? " " : "} ");
+        firstLabel = true;
+    }
+
+    private void writeEscaped(final String value, final boolean escapeQuotes) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\') {
+                writer.write("\\\\");
+            } else if (c == '\n') {
+                writer.write("\\n");
+            } else if (c == '"' && escapeQuotes) {
+                writer.write("\\\"");
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    /**
+     * The types of metric that can be written
+     */
+    public enum MetricType {
+        COUNTER("counter"),
+        GAUGE("gauge");
+
+        private final String name;
+
+        MetricType(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
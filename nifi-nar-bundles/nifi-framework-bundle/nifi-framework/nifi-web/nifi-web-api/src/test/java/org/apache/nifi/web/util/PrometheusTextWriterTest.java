@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.apache.nifi.web.util.PrometheusTextWriter.MetricType;
+import org.junit.Test;
+
+public class PrometheusTextWriterTest {
+
+    @Test
+    public void testWriteMetricWithLabels() throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        final PrometheusTextWriter writer = new PrometheusTextWriter(stringWriter);
+
+        writer.writeMetric("nifi_processor_invocations_total", "The number of times the processor was triggered", MetricType.COUNTER);
+        writer.startSample("nifi_processor_invocations_total");
+        writer.writeLabel("component_id", "1234");
+        writer.writeLabel("component_name", "Generate");
+        writer.endSample(42L);
+        writer.startSample("nifi_processor_invocations_total");
+        writer.writeLabel("component_id", "5678");
+        writer.writeLabel("component_name", null);
+        writer.endSample(0L);
+
+        assertEquals("# HELP nifi_processor_invocations_total The number of times the processor was triggered\n"
+            + "# TYPE nifi_processor_invocations_total counter\n"
+            + "nifi_processor_invocations_total{component_id=\"1234\",component_name=\"Generate\"} 42\n"
+            + "nifi_processor_invocations_total{component_id=\"5678\"} 0\n", stringWriter.toString());
+    }
+
+    @Test
+    public void testWriteMetricWithoutLabels() throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        final PrometheusTextWriter writer = new PrometheusTextWriter(stringWriter);
+
+        writer.writeMetric("jvm_system_load_average", "The system load average", MetricType.GAUGE);
+        writer.startSample("jvm_system_load_average");
+        writer.endSample(1.5D);
+        writer.startSample("jvm_system_load_average");
+        writer.endSample(Double.NaN);
+
+        assertEquals("# HELP jvm_system_load_average The system load average\n"
+            + "# TYPE jvm_system_load_average gauge\n"
+            + "jvm_system_load_average 1.5\n"
+            + "jvm_system_load_average NaN\n", stringWriter.toString());
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        final StringWriter stringWriter = new StringWriter();
+        final PrometheusTextWriter writer = new PrometheusTextWriter(stringWriter);
+
+        writer.writeMetric("nifi_connection_queued_flowfiles", "Help with a \\ and\na \"quote\"", MetricType.GAUGE);
+        writer.startSample("nifi_connection_queued_flowfiles");
+        writer.writeLabel("component_name", "C:\\data\n\"in\"");
+        writer.endSample(7L);
+
+        assertEquals("# HELP nifi_connection_queued_flowfiles Help with a \\\\ and\\na \"quote\"\n"
+            + "# TYPE nifi_connection_queued_flowfiles gauge\n"
+            + "nifi_connection_queued_flowfiles{component_name=\"C:\\\\data\\n\\\"in\\\"\"} 7\n", stringWriter.toString());
+    }
+}
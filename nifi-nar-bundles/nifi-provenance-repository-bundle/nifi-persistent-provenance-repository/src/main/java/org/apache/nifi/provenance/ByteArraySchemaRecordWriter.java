@@ -28,6 +28,7 @@ import org.apache.nifi.provenance.schema.EventFieldNames;
 import org.apache.nifi.provenance.schema.EventRecord;
 import org.apache.nifi.provenance.schema.ProvenanceEventSchema;
 import org.apache.nifi.provenance.serialization.CompressableRecordWriter;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
 import org.apache.nifi.provenance.toc.TocWriter;
 import org.apache.nifi.repository.schema.Record;
 import org.apache.nifi.repository.schema.RecordSchema;
@@ -46,6 +47,11 @@ public class ByteArraySchemaRecordWriter extends CompressableRecordWriter {
         super(file, idGenerator, tocWriter, compressed, uncompressedBlockSize);
     }
 
+    public ByteArraySchemaRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter tocWriter, final EventFileCodec codec,
+        final int uncompressedBlockSize) throws IOException {
+        super(file, idGenerator, tocWriter, codec, uncompressedBlockSize);
+    }
+
     public ByteArraySchemaRecordWriter(final OutputStream out, final String storageLocation, final AtomicLong idGenerator, final TocWriter tocWriter, final boolean compressed,
         final int uncompressedBlockSize) throws IOException {
         super(out, storageLocation, idGenerator, tocWriter, compressed, uncompressedBlockSize);
@@ -55,6 +55,7 @@ import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QueryResult;
 import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
 import org.apache.nifi.provenance.serialization.RecordReader;
 import org.apache.nifi.provenance.serialization.RecordReaders;
 import org.apache.nifi.provenance.serialization.RecordWriter;
@@ -1520,7 +1521,7 @@ public class PersistentProvenanceRepository implements ProvenanceRepository {
      * <p>
      * If the repository is configured to compress the data, the file written to
      * may not be the same as the <code>suggestedMergeFile</code>, as a filename
-     * extension of '.gz' may be appended. If the journals are successfully
+     * extension of the configured compression codec, such as '.gz', may be appended. If the journals are successfully
      * merged, the file that they were merged into will be returned. If unable
      * to merge the records (for instance, because the repository has been
      * closed or because the list of journal files was empty), this method will
@@ -1615,7 +1616,8 @@ public class PersistentProvenanceRepository implements ProvenanceRepository {
         int records = 0;
 
         final boolean isCompress = configuration.isCompressOnRollover();
-        final File writerFile = isCompress ? new File(suggestedMergeFile.getParentFile(), suggestedMergeFile.getName() + ".gz") : suggestedMergeFile;
+        final EventFileCodec codec = isCompress ? configuration.getCompressionCodec() : null;
+        final File writerFile = isCompress ? new File(suggestedMergeFile.getParentFile(), suggestedMergeFile.getName() + codec.getFileExtension()) : suggestedMergeFile;
 
         try {
             for (final File journalFile : availableFiles) {
@@ -1697,7 +1699,7 @@ public class PersistentProvenanceRepository implements ProvenanceRepository {
 
             // loop over each entry in the map, persisting the records to the merged file in order, and populating the map
             // with the next entry from the journal file from which the previous record was written.
-            try (final RecordWriter writer = RecordWriters.newSchemaRecordWriter(writerFile, idGenerator, configuration.isCompressOnRollover(), true)) {
+            try (final RecordWriter writer = RecordWriters.newSchemaRecordWriter(writerFile, idGenerator, codec, true)) {
                 writer.writeHeader(minEventId);
 
                 final IndexingAction indexingAction = createIndexingAction();
@@ -28,6 +28,8 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.apache.nifi.security.kms.CryptoUtils;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
@@ -39,6 +41,13 @@ public class RepositoryConfiguration {
 
     public static final String CONCURRENT_MERGE_THREADS = "nifi.provenance.repository.concurrent.merge.threads";
     public static final String WARM_CACHE_FREQUENCY = "nifi.provenance.repository.warm.cache.frequency";
+    public static final String INDEX_TYPE = "nifi.provenance.repository.index.type";
+    public static final String LINEAGE_CACHE_EXPIRATION = "nifi.provenance.repository.lineage.cache.expiration";
+    public static final String LINEAGE_CACHE_SIZE = "nifi.provenance.repository.lineage.cache.size";
+    public static final String COMPRESSION_CODEC = "nifi.provenance.repository.compression.codec";
+
+    public static final String LUCENE_INDEX_TYPE = "lucene";
+    public static final String COLUMNAR_INDEX_TYPE = "columnar";
 
     private final Map<String, File> storageDirectories = new LinkedHashMap<>();
     private long recordLifeMillis = TimeUnit.MILLISECONDS.convert(24, TimeUnit.HOURS);
@@ -60,12 +69,16 @@ public class RepositoryConfiguration {
     private List<SearchableField> searchableFields = new ArrayList<>();
     private List<SearchableField> searchableAttributes = new ArrayList<>();
     private boolean compress = true;
+    private EventFileCodec compressionCodec = EventFileCodecs.GZIP;
     private boolean alwaysSync = false;
     private int queryThreadPoolSize = 2;
     private int indexThreadPoolSize = 1;
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
+    private String indexType = LUCENE_INDEX_TYPE;
+    private long lineageCacheExpirationMillis = TimeUnit.SECONDS.toMillis(30L);
+    private int lineageCacheSize = 50;
 
     public void setAllowRollover(final boolean allow) {
         this.allowRollover = allow;
@@ -230,6 +243,20 @@ public class RepositoryConfiguration {
         this.compress = compress;
     }
 
+    /**
+     * @return the codec that event files are compressed with when they are rolled over
+     */
+    public EventFileCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    /**
+     * @param compressionCodec the codec to compress event files with when they are rolled over
+     */
+    public void setCompressionCodec(final EventFileCodec compressionCodec) {
+        this.compressionCodec = compressionCodec;
+    }
+
     /**
      * @return the number of threads to use to query the repo
      */
@@ -266,6 +293,45 @@ public class RepositoryConfiguration {
         return concurrentMergeThreads;
     }
 
+    /**
+     * @return the type of index that is used to search Provenance Events, either {@link #LUCENE_INDEX_TYPE} or {@link #COLUMNAR_INDEX_TYPE}
+     */
+    public String getIndexType() {
+        return indexType;
+    }
+
+    public void setIndexType(final String indexType) {
+        if (!LUCENE_INDEX_TYPE.equalsIgnoreCase(indexType) && !COLUMNAR_INDEX_TYPE.equalsIgnoreCase(indexType)) {
+            throw new IllegalArgumentException("Invalid Provenance Index Type '" + indexType + "'; must be either '" + LUCENE_INDEX_TYPE + "' or '" + COLUMNAR_INDEX_TYPE + "'");
+        }
+
+        this.indexType = indexType.toLowerCase();
+    }
+
+    /**
+     * @param timeUnit the desired time unit
+     * @return how long the result of a lineage computation may be used to answer a repeated request for the lineage
+     *         of the same event. A value of 0 indicates that lineage results are not cached.
+     */
+    public long getLineageCacheExpiration(final TimeUnit timeUnit) {
+        return timeUnit.convert(lineageCacheExpirationMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void setLineageCacheExpiration(final long expiration, final TimeUnit timeUnit) {
+        this.lineageCacheExpirationMillis = TimeUnit.MILLISECONDS.convert(expiration, timeUnit);
+    }
+
+    /**
+     * @return the maximum number of lineage results that are cached
+     */
+    public int getLineageCacheSize() {
+        return lineageCacheSize;
+    }
+
+    public void setLineageCacheSize(final int lineageCacheSize) {
+        this.lineageCacheSize = lineageCacheSize;
+    }
+
     /**
      * <p>
      * Specifies the desired size of each Provenance Event index shard, in
@@ -431,6 +497,9 @@ public class RepositoryConfiguration {
         final int journalCount = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_JOURNAL_COUNT, 16);
         final int concurrentMergeThreads = nifiProperties.getIntegerProperty(CONCURRENT_MERGE_THREADS, 2);
         final String warmCacheFrequency = nifiProperties.getProperty(WARM_CACHE_FREQUENCY);
+        final String indexType = nifiProperties.getProperty(INDEX_TYPE, LUCENE_INDEX_TYPE);
+        final String lineageCacheExpiration = nifiProperties.getProperty(LINEAGE_CACHE_EXPIRATION, "30 secs");
+        final int lineageCacheSize = nifiProperties.getIntegerProperty(LINEAGE_CACHE_SIZE, 50);
 
         final long storageMillis = FormatUtils.getTimeDuration(storageTime, TimeUnit.MILLISECONDS);
         final long maxStorageBytes = DataUnit.parseDataSize(storageSize, DataUnit.B).longValue();
@@ -438,6 +507,7 @@ public class RepositoryConfiguration {
         final long rolloverBytes = DataUnit.parseDataSize(rolloverSize, DataUnit.B).longValue();
 
         final boolean compressOnRollover = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESS_ON_ROLLOVER));
+        final String compressionCodec = nifiProperties.getProperty(COMPRESSION_CODEC, EventFileCodecs.GZIP.getName());
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
 
@@ -471,6 +541,7 @@ public class RepositoryConfiguration {
             config.addStorageDirectory(entry.getKey(), entry.getValue().toFile());
         }
         config.setCompressOnRollover(compressOnRollover);
+        config.setCompressionCodec(EventFileCodecs.forName(compressionCodec.trim()));
         config.setSearchableFields(searchableFields);
         config.setSearchableAttributes(searchableAttributes);
         config.setMaxEventFileCapacity(rolloverBytes);
@@ -482,6 +553,9 @@ public class RepositoryConfiguration {
         config.setJournalCount(journalCount);
         config.setMaxAttributeChars(maxAttrChars);
         config.setConcurrentMergeThreads(concurrentMergeThreads);
+        config.setIndexType(indexType.trim());
+        config.setLineageCacheExpiration(FormatUtils.getTimeDuration(lineageCacheExpiration.trim(), TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS);
+        config.setLineageCacheSize(lineageCacheSize);
 
         if (warmCacheFrequency != null && !warmCacheFrequency.trim().equals("")) {
             config.setWarmCacheFrequencyMinutes((int) FormatUtils.getTimeDuration(warmCacheFrequency, TimeUnit.MINUTES));
@@ -25,6 +25,7 @@ import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.UserEventAuthorizer;
 import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.columnar.ColumnarEventIndex;
 import org.apache.nifi.provenance.index.lucene.LuceneEventIndex;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lucene.IndexManager;
@@ -40,6 +41,7 @@ import org.apache.nifi.provenance.store.PartitionedWriteAheadEventStore;
 import org.apache.nifi.provenance.store.RecordReaderFactory;
 import org.apache.nifi.provenance.store.RecordWriterFactory;
 import org.apache.nifi.provenance.store.StorageResult;
+import org.apache.nifi.provenance.store.iterator.EventIteratorCursor;
 import org.apache.nifi.provenance.toc.StandardTocWriter;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
@@ -57,6 +59,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 
 /**
@@ -81,6 +84,11 @@ import java.util.Set;
  * </p>
  *
  * <p>
+ * Alternatively, the repository may be configured to use the {@link ColumnarEventIndex}, which stores the fields that are most commonly queried
+ * in a compact, columnar form rather than building a Lucene index.
+ * </p>
+ *
+ * <p>
  * This Repositories supports the notion of 'partitions'. The repository can be configured to store data to one or more partitions. Each partition is typically
  * stored on a separate physical partition on disk. As a result, this allows striping of data across multiple partitions in order to achieve linear scalability
  * across disks for far greater performance.
@@ -143,8 +151,12 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
         eventStore = new PartitionedWriteAheadEventStore(config, recordWriterFactory, recordReaderFactory, eventReporter, fileManager);
 
-        final IndexManager indexManager = new SimpleIndexManager(config);
-        eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        if (RepositoryConfiguration.COLUMNAR_INDEX_TYPE.equals(config.getIndexType())) {
+            eventIndex = new ColumnarEventIndex(config, eventReporter);
+        } else {
+            final IndexManager indexManager = new SimpleIndexManager(config);
+            eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        }
 
         this.eventReporter = eventReporter;
         this.authorizer = authorizer;
@@ -241,6 +253,16 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
         return createEventAuthorizer(user).filterUnauthorizedEvents(events);
     }
 
+    @Override
+    public ProvenanceEventCursor getEventCursor(final long firstRecordId, final Predicate<ProvenanceEventRecord> filter) throws IOException {
+        return new EventIteratorCursor(eventStore.createEventIterator(firstRecordId), EventAuthorizer.GRANT_ALL, filter);
+    }
+
+    @Override
+    public ProvenanceEventCursor getEventCursor(final long firstRecordId, final Predicate<ProvenanceEventRecord> filter, final NiFiUser user) throws IOException {
+        return new EventIteratorCursor(eventStore.createEventIterator(firstRecordId), createEventAuthorizer(user), filter);
+    }
+
     private EventAuthorizer createEventAuthorizer(final NiFiUser user) {
         return new UserEventAuthorizer(authorizer, resourceFactory, user);
     }
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.StandardLineageResult;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+
+/**
+ * A bounded cache of lineage computations, keyed by the type of computation, the ID of the event that the lineage was
+ * requested for, and the identity of the user who requested it. When the same user requests the same lineage again within
+ * the configured expiration period, the events that were found by the earlier computation are used to build a new, already
+ * completed submission, so the index does not need to be searched again. Because the events are authorized and transformed
+ * for the user who requested them, entries are never shared between users. Computations that failed or have not yet
+ * completed are not used to answer a request.
+ */
+public class LineageCache {
+    private final long expirationNanos;
+    private final Map<String, AsyncLineageSubmission> submissions;
+
+    public LineageCache(final long expiration, final TimeUnit timeUnit, final int maxSize) {
+        this.expirationNanos = timeUnit.toNanos(expiration);
+        this.submissions = new LinkedHashMap<String, AsyncLineageSubmission>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, AsyncLineageSubmission> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Registers the given submission so that, once it has completed, it can be used to answer repeated requests for
+     * the same lineage. Submissions that do not have an expanded event ID are not cached.
+     *
+     * @param submission the submission to register
+     */
+    public synchronized void register(final AsyncLineageSubmission submission) {
+        if (expirationNanos <= 0L || submission.getExpandedEventId() == null) {
+            return;
+        }
+
+        final String key = createKey(submission.getLineageComputationType(), submission.getExpandedEventId(), submission.getSubmitterIdentity());
+        submissions.put(key, submission);
+    }
+
+    /**
+     * Returns a new, completed submission for the given lineage computation if an earlier computation of the same lineage, for the same user,
+     * completed successfully within the expiration period
+     *
+     * @param computationType the type of lineage computation
+     * @param eventId the ID of the event whose lineage is to be computed
+     * @param userId the identity of the user requesting the lineage
+     * @return a completed submission that was built from the cached results, or <code>null</code> if no usable result is cached
+     */
+    public AsyncLineageSubmission get(final LineageComputationType computationType, final long eventId, final String userId) {
+        final AsyncLineageSubmission cached;
+        synchronized (this) {
+            if (expirationNanos <= 0L) {
+                return null;
+            }
+
+            final String key = createKey(computationType, eventId, userId);
+            cached = submissions.get(key);
+            if (cached == null) {
+                return null;
+            }
+
+            final long ageNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - cached.getSubmissionTime().getTime());
+            if (ageNanos > expirationNanos || cached.getResult().getError() != null) {
+                submissions.remove(key);
+                return null;
+            }
+        }
+
+        final StandardLineageResult cachedResult = cached.getResult();
+        if (!cachedResult.isFinished() || cachedResult.getError() != null) {
+            return null;
+        }
+
+        final List<ProvenanceEventRecord> events = cachedResult.getRelevantRecords();
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, cached.getLineageFlowFileUuids(), 1, userId);
+        submission.getResult().update(events, events.size());
+        return submission;
+    }
+
+    public synchronized int size() {
+        return submissions.size();
+    }
+
+    private static String createKey(final LineageComputationType computationType, final long eventId, final String userId) {
+        return computationType.name() + "/" + eventId + "/" + userId;
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+
+/**
+ * An in-memory segment that accumulates the events of an event file as they are written to the repository.
+ * Once the event file has been rolled over, the segment is sealed by writing it to disk as a {@link SegmentFile}.
+ */
+class ActiveSegment implements IndexSegment {
+    static final int MAX_BLOCK_ROWS = 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String storageLocation;
+
+    private long[] eventIds = new long[INITIAL_CAPACITY];
+    private long[] eventTimes = new long[INITIAL_CAPACITY];
+    private long[] fileSizes = new long[INITIAL_CAPACITY];
+    private byte[] eventTypes = new byte[INITIAL_CAPACITY];
+    private int[] componentCodes = new int[INITIAL_CAPACITY];
+    private int[] blockIndices = new int[INITIAL_CAPACITY];
+    private long[] uuidHashes = new long[INITIAL_CAPACITY];
+    private int[] uuidRows = new int[INITIAL_CAPACITY];
+    private int rowCount = 0;
+    private int uuidCount = 0;
+
+    private final Map<String, Integer> componentCodeMap = new HashMap<>();
+    private final List<String> components = new ArrayList<>();
+
+    private long minEventId = Long.MAX_VALUE;
+    private long maxEventId = -1L;
+    private long minEventTime = Long.MAX_VALUE;
+    private long maxEventTime = Long.MIN_VALUE;
+    private long eventTypeMask = 0L;
+
+    private SegmentColumns snapshot;
+    private volatile long rolledOverMillis = -1L;
+
+    ActiveSegment(final String storageLocation) {
+        this.storageLocation = storageLocation;
+    }
+
+    synchronized void addEvent(final ProvenanceEventRecord event, final StorageSummary summary) {
+        if (rowCount == eventIds.length) {
+            final int capacity = rowCount * 2;
+            eventIds = Arrays.copyOf(eventIds, capacity);
+            eventTimes = Arrays.copyOf(eventTimes, capacity);
+            fileSizes = Arrays.copyOf(fileSizes, capacity);
+            eventTypes = Arrays.copyOf(eventTypes, capacity);
+            componentCodes = Arrays.copyOf(componentCodes, capacity);
+            blockIndices = Arrays.copyOf(blockIndices, capacity);
+        }
+
+        final int row = rowCount++;
+        final long eventId = summary.getEventId();
+        eventIds[row] = eventId;
+        eventTimes[row] = event.getEventTime();
+        fileSizes[row] = event.getFileSize();
+        eventTypes[row] = (byte) event.getEventType().ordinal();
+        blockIndices[row] = summary.getBlockIndex() == null ? -1 : summary.getBlockIndex();
+
+        final String componentId = event.getComponentId() == null ? "" : event.getComponentId().toLowerCase();
+        Integer code = componentCodeMap.get(componentId);
+        if (code == null) {
+            code = components.size();
+            components.add(componentId);
+            componentCodeMap.put(componentId, code);
+        }
+        componentCodes[row] = code;
+
+        for (final String uuid : getFlowFileUuids(event)) {
+            if (uuidCount == uuidHashes.length) {
+                uuidHashes = Arrays.copyOf(uuidHashes, uuidCount * 2);
+                uuidRows = Arrays.copyOf(uuidRows, uuidCount * 2);
+            }
+
+            uuidHashes[uuidCount] = ColumnEncoding.hash(uuid);
+            uuidRows[uuidCount] = row;
+            uuidCount++;
+        }
+
+        minEventId = Math.min(minEventId, eventId);
+        maxEventId = Math.max(maxEventId, eventId);
+        minEventTime = Math.min(minEventTime, event.getEventTime());
+        maxEventTime = Math.max(maxEventTime, event.getEventTime());
+        eventTypeMask |= 1L << event.getEventType().ordinal();
+        snapshot = null;
+    }
+
+    /**
+     * Determines the FlowFile UUIDs that the given event can be found by. In addition to the UUID of the FlowFile itself, these are
+     * the children of a FORK, CLONE or REPLAY, the parents of a JOIN and the source system's identifier of a RECEIVE, consistent
+     * with the way that the Lucene-based index indexes the FlowFile UUID.
+     */
+    static List<String> getFlowFileUuids(final ProvenanceEventRecord event) {
+        final List<String> uuids = new ArrayList<>(2);
+        uuids.add(event.getFlowFileUuid());
+
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            for (final String uuid : event.getChildUuids()) {
+                if (!uuid.equals(event.getFlowFileUuid())) {
+                    uuids.add(uuid);
+                }
+            }
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            for (final String uuid : event.getParentUuids()) {
+                if (!uuid.equals(event.getFlowFileUuid())) {
+                    uuids.add(uuid);
+                }
+            }
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                uuids.add(sourceIdentifier.substring(lastColon + 1));
+            }
+        }
+
+        return uuids;
+    }
+
+    /**
+     * Marks this segment as no longer receiving new events because a newer event file has been started.
+     */
+    void markRolledOver() {
+        if (rolledOverMillis < 0) {
+            rolledOverMillis = System.currentTimeMillis();
+        }
+    }
+
+    boolean isRolledOver() {
+        return rolledOverMillis >= 0;
+    }
+
+    long getRolledOverMillis() {
+        return rolledOverMillis;
+    }
+
+    @Override
+    public String getStorageLocation() {
+        return storageLocation;
+    }
+
+    @Override
+    public synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public synchronized long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public synchronized long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public synchronized long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public synchronized long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public synchronized long getEventTypeMask() {
+        return eventTypeMask;
+    }
+
+    /**
+     * Returns all columns of this segment, regardless of which columns are requested. The columns are built from the events
+     * that have been added so far and are cached until the next event is added.
+     */
+    @Override
+    public synchronized SegmentColumns readColumns(final Set<Column> columns) {
+        if (snapshot == null) {
+            snapshot = createSnapshot();
+        }
+
+        return snapshot;
+    }
+
+    private SegmentColumns createSnapshot() {
+        final int rows = rowCount;
+        final SegmentColumns columns = new SegmentColumns(rows);
+
+        // Events are nearly always added in order of their ID's but this is not guaranteed, so order the rows by Event ID.
+        final long[] sortedIds = Arrays.copyOf(eventIds, rows);
+        final int[] order = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            order[i] = i;
+        }
+        ColumnEncoding.sortByKey(sortedIds, order, rows);
+
+        final String[] dictionary = components.toArray(new String[components.size()]);
+        Arrays.sort(dictionary);
+        final int[] codeMapping = new int[dictionary.length];
+        for (int i = 0; i < components.size(); i++) {
+            codeMapping[i] = Arrays.binarySearch(dictionary, components.get(i));
+        }
+
+        columns.eventIds = sortedIds;
+        columns.eventTimes = new long[rows];
+        columns.fileSizes = new long[rows];
+        columns.eventTypes = new byte[rows];
+        columns.componentCodes = new int[rows];
+        columns.dictionary = dictionary;
+
+        final int[] newRows = new int[rows];
+        final int[] postingCounts = new int[dictionary.length];
+        for (int i = 0; i < rows; i++) {
+            final int row = order[i];
+            newRows[row] = i;
+            columns.eventTimes[i] = eventTimes[row];
+            columns.fileSizes[i] = fileSizes[row];
+            columns.eventTypes[i] = eventTypes[row];
+            columns.componentCodes[i] = codeMapping[componentCodes[row]];
+            postingCounts[columns.componentCodes[i]]++;
+        }
+
+        columns.componentPostings = new int[dictionary.length][];
+        for (int code = 0; code < dictionary.length; code++) {
+            columns.componentPostings[code] = new int[postingCounts[code]];
+            postingCounts[code] = 0;
+        }
+        for (int i = 0; i < rows; i++) {
+            final int code = columns.componentCodes[i];
+            columns.componentPostings[code][postingCounts[code]++] = i;
+        }
+
+        // Group the rows into blocks that correspond to the blocks of the event file, so that a query that is bounded by time
+        // can skip any block that cannot contain a match.
+        final List<long[]> blocks = new ArrayList<>();
+        long[] block = null;
+        for (int i = 0; i < rows; i++) {
+            final int blockIndex = blockIndices[order[i]];
+            final long eventTime = columns.eventTimes[i];
+            if (block == null || block[1] != blockIndex || i - block[0] >= MAX_BLOCK_ROWS) {
+                block = new long[] {i, blockIndex, eventTime, eventTime};
+                blocks.add(block);
+            } else {
+                block[2] = Math.min(block[2], eventTime);
+                block[3] = Math.max(block[3], eventTime);
+            }
+        }
+
+        columns.blockStartRows = new int[blocks.size()];
+        columns.blockMinTimes = new long[blocks.size()];
+        columns.blockMaxTimes = new long[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            columns.blockStartRows[i] = (int) blocks.get(i)[0];
+            columns.blockMinTimes[i] = blocks.get(i)[2];
+            columns.blockMaxTimes[i] = blocks.get(i)[3];
+        }
+
+        columns.uuidHashes = Arrays.copyOf(uuidHashes, uuidCount);
+        columns.uuidRows = new int[uuidCount];
+        for (int i = 0; i < uuidCount; i++) {
+            columns.uuidRows[i] = newRows[uuidRows[i]];
+        }
+        ColumnEncoding.sortByKey(columns.uuidHashes, columns.uuidRows, uuidCount);
+
+        return columns;
+    }
+}
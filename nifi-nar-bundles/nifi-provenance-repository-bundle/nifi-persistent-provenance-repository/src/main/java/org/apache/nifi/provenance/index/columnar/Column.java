@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+/**
+ * The columns that make up an index segment. A segment that is stored on disk loads only those columns
+ * that are needed in order to evaluate a given query.
+ */
+enum Column {
+    /**
+     * Event identifiers, in ascending order, one per row
+     */
+    EVENT_IDS(1),
+
+    /**
+     * Event timestamps, one per row
+     */
+    EVENT_TIMES(2),
+
+    /**
+     * FlowFile sizes, one per row
+     */
+    FILE_SIZES(3),
+
+    /**
+     * Ordinal of the event type, one per row
+     */
+    EVENT_TYPES(4),
+
+    /**
+     * Code of the component identifier in the dictionary, one per row
+     */
+    COMPONENT_CODES(5),
+
+    /**
+     * Sorted dictionary of the lower-cased component identifiers
+     */
+    DICTIONARY(6),
+
+    /**
+     * First row and time range of each block of the event file that the segment covers
+     */
+    BLOCKS(7),
+
+    /**
+     * Hashes of the FlowFile UUIDs that each row refers to, sorted by hash, along with the row of each hash
+     */
+    FLOWFILE_UUIDS(8),
+
+    /**
+     * Posting list of the rows for each code of the dictionary
+     */
+    COMPONENT_POSTINGS(9);
+
+    private final int id;
+
+    Column(final int id) {
+        this.id = id;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    static Column fromId(final int id) {
+        for (final Column column : values()) {
+            if (column.id == id) {
+                return column;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Helper methods for encoding the columns of an index segment. Integral values are written as variable-length
+ * integers so that the delta-encoded event identifiers and timestamps, which are nearly always small, take up
+ * only a byte or two per event.
+ */
+final class ColumnEncoding {
+    private static final byte POSTING_LIST = 0;
+    private static final byte POSTING_BITMAP = 1;
+
+    private ColumnEncoding() {
+    }
+
+    static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0L) {
+            out.write((int) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    static long readVarLong(final ByteBuffer buffer) {
+        long value = 0L;
+        int shift = 0;
+        while (true) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    static long zigZag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes the given, ascending row numbers either as a delta-encoded list or, if the rows are dense enough that it would
+     * be smaller, as a bitmap over all rows of the segment.
+     */
+    static void writePostings(final ByteArrayOutputStream out, final int[] rows, final int count, final int rowCount) {
+        if ((long) count * 16 > rowCount) {
+            final BitSet bitSet = new BitSet(rowCount);
+            for (int i = 0; i < count; i++) {
+                bitSet.set(rows[i]);
+            }
+
+            final long[] words = bitSet.toLongArray();
+            out.write(POSTING_BITMAP);
+            writeVarLong(out, words.length);
+            for (final long word : words) {
+                for (int shift = 0; shift < 64; shift += 8) {
+                    out.write((int) (word >>> shift));
+                }
+            }
+        } else {
+            out.write(POSTING_LIST);
+            writeVarLong(out, count);
+            int previous = 0;
+            for (int i = 0; i < count; i++) {
+                writeVarLong(out, rows[i] - previous);
+                previous = rows[i];
+            }
+        }
+    }
+
+    static int[] readPostings(final ByteBuffer buffer) {
+        final byte kind = buffer.get();
+        if (kind == POSTING_BITMAP) {
+            final long[] words = new long[(int) readVarLong(buffer)];
+            for (int i = 0; i < words.length; i++) {
+                long word = 0L;
+                for (int shift = 0; shift < 64; shift += 8) {
+                    word |= (buffer.get() & 0xFFL) << shift;
+                }
+                words[i] = word;
+            }
+
+            return BitSet.valueOf(words).stream().toArray();
+        }
+
+        final int[] rows = new int[(int) readVarLong(buffer)];
+        int previous = 0;
+        for (int i = 0; i < rows.length; i++) {
+            previous += (int) readVarLong(buffer);
+            rows[i] = previous;
+        }
+        return rows;
+    }
+
+    /**
+     * Computes a 64-bit FNV-1a hash of the lower-cased form of the given value. Collisions are improbable enough within a single
+     * segment that a FlowFile UUID can be looked up by its hash without verifying the matching events.
+     */
+    static long hash(final String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= Character.toLowerCase(value.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static int[] merge(final int[] first, final int[] second) {
+        final int[] merged = new int[first.length + second.length];
+        System.arraycopy(first, 0, merged, 0, first.length);
+        System.arraycopy(second, 0, merged, first.length, second.length);
+        Arrays.sort(merged);
+
+        int unique = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (i == 0 || merged[i] != merged[i - 1]) {
+                merged[unique++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, unique);
+    }
+
+    /**
+     * Sorts the given keys in ascending order, applying the same reordering to the given values.
+     */
+    static void sortByKey(final long[] keys, final int[] values, final int length) {
+        boolean sorted = true;
+        for (int i = 1; i < length && sorted; i++) {
+            sorted = keys[i - 1] <= keys[i];
+        }
+
+        if (!sorted) {
+            quickSort(keys, values, 0, length - 1);
+        }
+    }
+
+    private static void quickSort(final long[] keys, final int[] values, final int low, final int high) {
+        int lo = low;
+        int hi = high;
+        while (hi - lo > 16) {
+            final long pivot = keys[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, values, i++, j--);
+                }
+            }
+
+            // recurse into the smaller partition in order to bound the depth of the stack
+            if (j - lo < hi - i) {
+                quickSort(keys, values, lo, j);
+                lo = i;
+            } else {
+                quickSort(keys, values, i, hi);
+                hi = j;
+            }
+        }
+
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && keys[j - 1] > keys[j]; j--) {
+                swap(keys, values, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(final long[] keys, final int[] values, final int first, final int second) {
+        final long key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+
+        final int value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+}
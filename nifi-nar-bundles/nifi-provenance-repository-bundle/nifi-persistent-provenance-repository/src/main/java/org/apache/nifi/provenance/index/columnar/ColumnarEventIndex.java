@@ -0,0 +1,585 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.authorization.AccessDeniedException;
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.StandardLineageResult;
+import org.apache.nifi.provenance.StandardQueryResult;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.LineageCache;
+import org.apache.nifi.provenance.index.lucene.CachedQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsPerProcessorQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsQuery;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
+import org.apache.nifi.reporting.Severity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * An {@link EventIndex} that stores the most commonly queried fields of each Provenance Event in a columnar layout, rather than
+ * building a Lucene index. For each event file, the index holds the Event ID, Event Time, File Size, Event Type and Component ID
+ * of every event, along with the FlowFile UUIDs that the event refers to. Component ID's are dictionary-encoded, with a posting list
+ * of the matching events for each entry of the dictionary, and FlowFile UUIDs are stored as sorted hashes, so that a query for a
+ * given component or FlowFile, or a lineage computation, need only read the matching rows. Events are grouped into blocks with a
+ * known range of event times so that queries bounded by time skip any block outside of that range.
+ * </p>
+ *
+ * <p>
+ * While events are being written to an event file, its segment of the index is held in memory. Once the repository moves on to a new
+ * event file, the segment is written to the <code>columnar-index</code> directory of the partition, and only a small summary of it is
+ * kept in memory. Criteria that are not stored in the columns, such as attributes and the other searchable fields, are evaluated by
+ * reading the candidate events from the Event Store. As a result, this index is most effective when queries are primarily by time,
+ * component, event type and FlowFile, and the {@link org.apache.nifi.provenance.index.lucene.LuceneEventIndex} may still be preferable
+ * when free-text searches against attributes are common.
+ * </p>
+ */
+public class ColumnarEventIndex implements EventIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEventIndex.class);
+    private static final String EVENT_CATEGORY = "Provenance Repository";
+
+    public static final String INDEX_DIRECTORY_NAME = "columnar-index";
+    public static final int MAX_UNDELETED_QUERY_RESULTS = 10;
+    public static final int MAX_LINEAGE_NODES = 1000;
+
+    // How long a segment must go without receiving events, once a newer event file is being written, before it is sealed
+    static final long SEAL_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    // The number of active segments that a partition may hold before the idle ones are sealed as events are added
+    private static final int MAX_ACTIVE_SEGMENTS = 4;
+
+    private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PartitionSegments> partitions = new ConcurrentHashMap<>();
+    private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private final LineageCache lineageCache;
+    private final ExecutorService queryExecutor;
+    private final RepositoryConfiguration config;
+    private final EventReporter eventReporter;
+
+    private ScheduledExecutorService maintenanceExecutor; // effectively final
+    private EventStore eventStore;
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final EventReporter eventReporter) {
+        this.config = config;
+        this.eventReporter = eventReporter;
+        queryExecutor = Executors.newFixedThreadPool(config.getQueryThreadPoolSize(), new NamedThreadFactory("Provenance Query"));
+        lineageCache = new LineageCache(config.getLineageCacheExpiration(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS, config.getLineageCacheSize());
+    }
+
+    @Override
+    public void initialize(final EventStore eventStore) {
+        this.eventStore = eventStore;
+
+        for (final Map.Entry<String, File> entry : config.getStorageDirectories().entrySet()) {
+            final PartitionSegments partition = new PartitionSegments(entry.getKey(), new File(entry.getValue(), INDEX_DIRECTORY_NAME));
+            try {
+                partition.recover();
+            } catch (final IOException ioe) {
+                logger.error("Failed to recover Provenance Index Segments for Partition {}; events in this Partition will be re-indexed", entry.getKey(), ioe);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to recover Provenance Index for Partition " + entry.getKey() + ". See logs for more information.");
+            }
+            partitions.put(entry.getKey(), partition);
+        }
+
+        maintenanceExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Provenance Repository Maintenance"));
+        maintenanceExecutor.scheduleWithFixedDelay(this::sealIdleSegments, SEAL_IDLE_MILLIS, SEAL_IDLE_MILLIS, TimeUnit.MILLISECONDS);
+        maintenanceExecutor.scheduleWithFixedDelay(this::performMaintenance, 1, 1, TimeUnit.MINUTES);
+        maintenanceExecutor.scheduleWithFixedDelay(this::purgeObsoleteQueries, 30, 30, TimeUnit.SECONDS);
+
+        cachedQueries.add(new LatestEventsQuery());
+        cachedQueries.add(new LatestEventsPerProcessorQuery());
+    }
+
+    @Override
+    public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            addEvent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void reindexEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            final StorageSummary summary = entry.getValue();
+
+            // Events up to the largest sealed Event ID are already contained in a segment on disk.
+            final PartitionSegments partition = getPartition(summary);
+            if (summary.getEventId() <= partition.getMaxSealedEventId()) {
+                for (final CachedQuery cachedQuery : cachedQueries) {
+                    cachedQuery.update(entry.getKey(), summary);
+                }
+                continue;
+            }
+
+            addEvent(entry.getKey(), summary);
+        }
+    }
+
+    protected void addEvent(final ProvenanceEventRecord event, final StorageSummary summary) {
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            cachedQuery.update(event, summary);
+        }
+
+        final PartitionSegments partition = getPartition(summary);
+        partition.addEvent(event, summary);
+
+        if (partition.getActiveSegmentCount() > MAX_ACTIVE_SEGMENTS) {
+            try {
+                partition.sealIdleSegments(0L);
+            } catch (final IOException ioe) {
+                logger.error("Failed to write Provenance Index Segment", ioe);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to write Provenance Index Segment. See logs for more information.");
+            }
+        }
+    }
+
+    private PartitionSegments getPartition(final StorageSummary summary) {
+        final String partitionName = summary.getPartitionName().orElse(null);
+        if (partitionName != null) {
+            final PartitionSegments partition = partitions.get(partitionName);
+            if (partition != null) {
+                return partition;
+            }
+        }
+
+        // An event whose partition is not known is indexed along with the events of the first partition.
+        final Map.Entry<String, File> firstStorageDir = config.getStorageDirectories().entrySet().iterator().next();
+        return partitions.computeIfAbsent(firstStorageDir.getKey(),
+            name -> new PartitionSegments(name, new File(firstStorageDir.getValue(), INDEX_DIRECTORY_NAME)));
+    }
+
+    @Override
+    public long getMinimumEventIdToReindex(final String partitionName) {
+        final PartitionSegments partition = partitions.get(partitionName);
+        if (partition == null) {
+            return 0L;
+        }
+
+        // Any event with a larger ID may have been held only in memory when the repository was last shut down.
+        return partition.getMaxSealedEventId() + 1;
+    }
+
+    @Override
+    public void commitChanges(final String partitionName) throws IOException {
+        final PartitionSegments partition = partitions.get(partitionName);
+        if (partition != null) {
+            partition.sealAll();
+        }
+    }
+
+    @Override
+    public long getSize() {
+        long total = 0L;
+        for (final PartitionSegments partition : partitions.values()) {
+            total += partition.getSize();
+        }
+        return total;
+    }
+
+    private List<IndexSegment> getSegments(final SegmentQuery query, final Comparator<IndexSegment> order) {
+        final List<IndexSegment> segments = new ArrayList<>();
+        for (final PartitionSegments partition : partitions.values()) {
+            for (final IndexSegment segment : partition.getSegments()) {
+                if (query.isCandidate(segment)) {
+                    segments.add(segment);
+                }
+            }
+        }
+
+        segments.sort(order);
+        return segments;
+    }
+
+    @Override
+    public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
+        validate(query);
+
+        // Check if we have any cached queries first that can give us the answer
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            final Optional<List<Long>> eventIdListOption = cachedQuery.evaluate(query);
+            if (eventIdListOption.isPresent()) {
+                final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, 1, userId);
+                querySubmissionMap.put(query.getIdentifier(), submission);
+
+                final List<Long> eventIds = eventIdListOption.get();
+
+                queryExecutor.submit(() -> {
+                    List<ProvenanceEventRecord> events;
+                    try {
+                        events = eventStore.getEvents(eventIds, authorizer, EventTransformer.EMPTY_TRANSFORMER);
+                        submission.getResult().update(events, eventIds.size());
+                    } catch (final Exception e) {
+                        submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
+                        logger.error("Failed to retrieve Provenance Events from store", e);
+                    }
+                });
+
+                awaitCompletion(submission.getResult());
+                return submission;
+            }
+        }
+
+        final SegmentQuery segmentQuery = SegmentQuery.compile(query, config.getSearchableFields(), config.getSearchableAttributes());
+
+        // Search the newest segments first, as the newest events are the ones that are returned.
+        final List<IndexSegment> segments = getSegments(segmentQuery, Comparator.comparingLong(IndexSegment::getMaxEventId).reversed());
+
+        final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, segments.size(), userId);
+        querySubmissionMap.put(query.getIdentifier(), submission);
+        logger.debug("Submitting query with identifier {} against {} index segments", query.getIdentifier(), segments.size());
+
+        if (segments.isEmpty()) {
+            submission.getResult().update(Collections.emptyList(), 0L);
+        } else {
+            for (final IndexSegment segment : segments) {
+                queryExecutor.submit(new ColumnarQueryTask(segmentQuery, submission.getResult(), query.getMaxResults(), segment,
+                    eventStore, authorizer, EventTransformer.EMPTY_TRANSFORMER));
+            }
+        }
+
+        awaitCompletion(submission.getResult());
+        return submission;
+    }
+
+    private void awaitCompletion(final StandardQueryResult result) {
+        // There are some queries that are optimized and will complete very quickly. As a result,
+        // we don't want to wait for the client to issue a second request, so we will give the query
+        // up to 500 milliseconds to complete before running.
+        try {
+            result.awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final long eventId, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        final Optional<ProvenanceEventRecord> eventOption;
+        try {
+            eventOption = eventStore.getEvent(eventId);
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Event with ID " + eventId + " to calculate data lineage due to: " + e, e);
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, user.getIdentity());
+            result.getResult().setError("Failed to retrieve Provenance Event with ID " + eventId + ". See logs for more information.");
+            return result;
+        }
+
+        if (!eventOption.isPresent()) {
+            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, user.getIdentity());
+            result.getResult().setError("Could not find Provenance Event with ID " + eventId);
+            lineageSubmissionMap.put(result.getLineageIdentifier(), result);
+            return result;
+        }
+
+        final ProvenanceEventRecord event = eventOption.get();
+        return submitLineageComputation(Collections.singleton(event.getFlowFileUuid()), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE,
+            eventId, event.getLineageStartDate(), Long.MAX_VALUE);
+    }
+
+    @Override
+    public ComputeLineageSubmission submitLineageComputation(final String flowFileUuid, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
+        return submitLineageComputation(Collections.singleton(flowFileUuid), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE, null, 0L, Long.MAX_VALUE);
+    }
+
+    private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
+        final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+
+        if (eventId != null) {
+            final AsyncLineageSubmission cachedSubmission = lineageCache.get(computationType, eventId, user.getIdentity());
+            if (cachedSubmission != null) {
+                logger.debug("Computation of {} for Event ID {} was answered from the lineage cache", computationType, eventId);
+                lineageSubmissionMap.put(cachedSubmission.getLineageIdentifier(), cachedSubmission);
+                return cachedSubmission;
+            }
+        }
+
+        final SegmentQuery lineageQuery = SegmentQuery.forFlowFileUuids(flowFileUuids, startTimestamp, endTimestamp);
+        final List<IndexSegment> segments = getSegments(lineageQuery, Comparator.comparingLong(IndexSegment::getMinEventId));
+
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, segments.size(), user.getIdentity());
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+        lineageCache.register(submission);
+
+        if (segments.isEmpty()) {
+            submission.getResult().update(Collections.emptyList(), 0L);
+        } else {
+            for (final IndexSegment segment : segments) {
+                queryExecutor.submit(new ColumnarQueryTask(lineageQuery, submission.getResult(), MAX_LINEAGE_NODES, segment,
+                    eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+            }
+        }
+
+        // Some computations will complete very quickly. In this case, we don't want to wait
+        // for the client to submit a second query to obtain the result. Instead, we want to just
+        // wait some short period of time for the computation to complete before returning the submission.
+        try {
+            submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        return submission;
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandChildren(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        final String userId = user.getIdentity();
+
+        try {
+            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
+            if (!eventOption.isPresent()) {
+                final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_CHILDREN, eventId, Collections.emptyList(), 1, userId);
+                lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                submission.getResult().update(Collections.emptyList(), 0L);
+                return submission;
+            }
+
+            final ProvenanceEventRecord event = eventOption.get();
+            switch (event.getEventType()) {
+                case CLONE:
+                case FORK:
+                case JOIN:
+                case REPLAY: {
+                    return submitLineageComputation(event.getChildUuids(), user, authorizer, LineageComputationType.EXPAND_CHILDREN,
+                        eventId, event.getEventTime(), Long.MAX_VALUE);
+                }
+                default: {
+                    final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_CHILDREN,
+                        eventId, Collections.emptyList(), 1, userId);
+
+                    lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its children cannot be expanded");
+                    return submission;
+                }
+            }
+        } catch (final Exception e) {
+            final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_CHILDREN,
+                eventId, Collections.emptyList(), 1, userId);
+            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+            submission.getResult().setError("Failed to expand children for lineage of event with ID " + eventId + " due to: " + e);
+            return submission;
+        }
+    }
+
+    @Override
+    public ComputeLineageSubmission submitExpandParents(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
+        final String userId = user.getIdentity();
+
+        try {
+            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
+            if (!eventOption.isPresent()) {
+                final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_PARENTS, eventId, Collections.emptyList(), 1, userId);
+                lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                submission.getResult().update(Collections.emptyList(), 0L);
+                return submission;
+            }
+
+            final ProvenanceEventRecord event = eventOption.get();
+            switch (event.getEventType()) {
+                case JOIN:
+                case FORK:
+                case CLONE:
+                case REPLAY: {
+                    return submitLineageComputation(event.getParentUuids(), user, authorizer, LineageComputationType.EXPAND_PARENTS,
+                        eventId, event.getLineageStartDate(), event.getEventTime());
+                }
+                default: {
+                    final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_PARENTS,
+                        eventId, Collections.emptyList(), 1, userId);
+
+                    lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its parents cannot be expanded");
+                    return submission;
+                }
+            }
+        } catch (final Exception e) {
+            final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_PARENTS,
+                eventId, Collections.emptyList(), 1, userId);
+            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+
+            submission.getResult().setError("Failed to expand parents for lineage of event with ID " + eventId + " due to: " + e);
+            return submission;
+        }
+    }
+
+    @Override
+    public AsyncLineageSubmission retrieveLineageSubmission(final String lineageIdentifier, final NiFiUser user) {
+        final AsyncLineageSubmission submission = lineageSubmissionMap.get(lineageIdentifier);
+        final String userId = submission.getSubmitterIdentity();
+
+        if (user == null && userId == null) {
+            return submission;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because no user id was provided");
+        }
+
+        if (userId == null || userId.equals(user.getIdentity())) {
+            return submission;
+        }
+
+        throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because " + user.getIdentity() + " is not the user who submitted the request");
+    }
+
+    @Override
+    public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
+        final QuerySubmission submission = querySubmissionMap.get(queryIdentifier);
+
+        final String userId = submission.getSubmitterIdentity();
+
+        if (user == null && userId == null) {
+            return submission;
+        }
+
+        if (user == null) {
+            throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because no user id was provided");
+        }
+
+        if (userId == null || userId.equals(user.getIdentity())) {
+            return submission;
+        }
+
+        throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because " + user.getIdentity() + " is not the user who submitted the request");
+    }
+
+    private void validate(final Query query) {
+        final int numQueries = querySubmissionMap.size();
+        if (numQueries > MAX_UNDELETED_QUERY_RESULTS) {
+            purgeObsoleteQueries();
+            if (querySubmissionMap.size() > MAX_UNDELETED_QUERY_RESULTS) {
+                throw new IllegalStateException("Cannot process query because there are currently " + numQueries + " queries whose results have not "
+                    + "been deleted due to poorly behaving clients not issuing DELETE requests. Please try again later.");
+            }
+        }
+
+        if (query.getEndDate() != null && query.getStartDate() != null && query.getStartDate().getTime() > query.getEndDate().getTime()) {
+            throw new IllegalArgumentException("Query End Time cannot be before Query Start Time");
+        }
+    }
+
+    void sealIdleSegments() {
+        for (final PartitionSegments partition : partitions.values()) {
+            try {
+                partition.sealIdleSegments(SEAL_IDLE_MILLIS);
+            } catch (final Exception e) {
+                logger.error("Failed to write Provenance Index Segments for Partition {}", partition.getPartitionName(), e);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to write Provenance Index Segments. See logs for more information.");
+            }
+        }
+    }
+
+    void performMaintenance() {
+        try {
+            final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
+            if (firstEvents.isEmpty()) {
+                logger.debug("Found no events in the Provenance Repository; will not remove any Provenance Index Segments");
+                return;
+            }
+
+            final long firstEventId = firstEvents.get(0).getEventId();
+            logger.debug("First Event ID is {}; will delete any Provenance Index Segment whose events are all older than this", firstEventId);
+
+            for (final PartitionSegments partition : partitions.values()) {
+                partition.removeSegmentsBefore(firstEventId);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to perform background maintenance procedures", e);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to perform maintenance of Provenance Repository. See logs for more information.");
+        }
+    }
+
+    private void purgeObsoleteQueries() {
+        try {
+            final Date now = new Date();
+
+            final Iterator<Map.Entry<String, AsyncQuerySubmission>> queryIterator = querySubmissionMap.entrySet().iterator();
+            while (queryIterator.hasNext()) {
+                final Map.Entry<String, AsyncQuerySubmission> entry = queryIterator.next();
+
+                final StandardQueryResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    queryIterator.remove();
+                }
+            }
+
+            final Iterator<Map.Entry<String, AsyncLineageSubmission>> lineageIterator = lineageSubmissionMap.entrySet().iterator();
+            while (lineageIterator.hasNext()) {
+                final Map.Entry<String, AsyncLineageSubmission> entry = lineageIterator.next();
+
+                final StandardLineageResult result = entry.getValue().getResult();
+                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
+                    lineageIterator.remove();
+                }
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to expire Provenance Query Results due to {}", e.toString());
+            logger.error("", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        queryExecutor.shutdownNow();
+
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+        }
+
+        // Seal all segments so that their events need not be re-indexed on restart.
+        for (final PartitionSegments partition : partitions.values()) {
+            try {
+                partition.sealAll();
+            } catch (final IOException ioe) {
+                logger.warn("Failed to write Provenance Index Segments for Partition {}; the events will be re-indexed on restart", partition.getPartitionName(), ioe);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.store.EventStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evaluates a {@link SegmentQuery} against a single {@link IndexSegment} and updates the given result with the matching events.
+ */
+class ColumnarQueryTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarQueryTask.class);
+    static final int VERIFY_BATCH_SIZE = 1000;
+
+    private final SegmentQuery query;
+    private final ProgressiveResult queryResult;
+    private final int maxResults;
+    private final IndexSegment segment;
+    private final EventStore eventStore;
+    private final EventAuthorizer authorizer;
+    private final EventTransformer transformer;
+
+    ColumnarQueryTask(final SegmentQuery query, final ProgressiveResult result, final int maxResults, final IndexSegment segment,
+        final EventStore eventStore, final EventAuthorizer authorizer, final EventTransformer transformer) {
+        this.query = query;
+        this.queryResult = result;
+        this.maxResults = maxResults;
+        this.segment = segment;
+        this.eventStore = eventStore;
+        this.authorizer = authorizer;
+        this.transformer = transformer;
+    }
+
+    @Override
+    public void run() {
+        if (queryResult.getTotalHitCount() >= maxResults) {
+            logger.debug("Will not query index segment {} because maximum results have already been obtained", segment);
+            queryResult.update(Collections.emptyList(), 0L);
+            return;
+        }
+
+        if (queryResult.isFinished()) {
+            logger.debug("Will not query index segment {} because the query is already finished", segment);
+            return;
+        }
+
+        try {
+            final long startNanos = System.nanoTime();
+            final long[] eventIds = query.findEventIds(segment);
+
+            final List<ProvenanceEventRecord> events;
+            final long totalHits;
+            if (query.hasResidual()) {
+                events = findMatchingEvents(eventIds);
+                totalHits = events.size();
+            } else {
+                final int firstIndex = Math.max(0, eventIds.length - maxResults);
+                final List<Long> idList = new ArrayList<>(eventIds.length - firstIndex);
+                for (int i = firstIndex; i < eventIds.length; i++) {
+                    idList.add(eventIds[i]);
+                }
+
+                events = idList.isEmpty() ? Collections.emptyList() : eventStore.getEvents(idList, authorizer, transformer);
+                totalHits = eventIds.length;
+            }
+
+            queryResult.update(events, totalHits);
+
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            logger.debug("Successfully queried index segment {}; retrieved {} events with a total of {} hits in {} millis", segment, events.size(), totalHits, millis);
+        } catch (final FileNotFoundException fnfe) {
+            // The segment has been aged off since the query was submitted, so there is nothing to find.
+            queryResult.update(Collections.emptyList(), 0L);
+            logger.info("Attempted to search Provenance Index Segment {} but the segment could not be found. This usually indicates that it was recently aged off.", segment);
+        } catch (final Exception e) {
+            logger.error("Failed to query events against index segment " + segment, e);
+            queryResult.setError("Failed to complete query due to " + e);
+        }
+    }
+
+    /**
+     * Reads the candidate events, newest first, until the maximum number of results has been found or all candidates have been
+     * tested, keeping only those events that satisfy the criteria that could not be evaluated against the columns.
+     */
+    private List<ProvenanceEventRecord> findMatchingEvents(final long[] candidateIds) throws Exception {
+        final List<ProvenanceEventRecord> matches = new ArrayList<>();
+
+        int endIndex = candidateIds.length;
+        while (endIndex > 0 && matches.size() < maxResults && !queryResult.isFinished()) {
+            final int startIndex = Math.max(0, endIndex - VERIFY_BATCH_SIZE);
+            final List<Long> batch = new ArrayList<>(endIndex - startIndex);
+            for (int i = startIndex; i < endIndex; i++) {
+                batch.add(candidateIds[i]);
+            }
+
+            for (final ProvenanceEventRecord event : eventStore.getEvents(batch, authorizer, transformer)) {
+                if (query.matchesResidual(event)) {
+                    matches.add(event);
+                }
+            }
+
+            endIndex = startIndex;
+        }
+
+        if (matches.size() > maxResults) {
+            matches.sort(Comparator.comparingLong(ProvenanceEventRecord::getEventId).reversed());
+            return new ArrayList<>(matches.subList(0, maxResults));
+        }
+
+        return matches;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * A segment of the columnar index, covering the events of a single event file of a single partition.
+ */
+interface IndexSegment {
+
+    /**
+     * @return the location of the event file whose events this segment indexes
+     */
+    String getStorageLocation();
+
+    /**
+     * @return the number of events in this segment
+     */
+    int getRowCount();
+
+    long getMinEventId();
+
+    long getMaxEventId();
+
+    long getMinEventTime();
+
+    long getMaxEventTime();
+
+    /**
+     * @return a bitmask of the ordinals of all event types that occur in this segment
+     */
+    long getEventTypeMask();
+
+    /**
+     * Provides the values of the given columns. Implementations may choose to populate additional columns.
+     *
+     * @param columns the columns that are needed
+     * @return the column values
+     * @throws IOException if unable to read the columns
+     */
+    SegmentColumns readColumns(Set<Column> columns) throws IOException;
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The index segments of a single partition of the repository. Events are accumulated in an {@link ActiveSegment} per event file.
+ * Once no more events are being written to an event file, its segment is sealed into a {@link SegmentFile} in the partition's
+ * index directory.
+ */
+class PartitionSegments {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionSegments.class);
+
+    private final String partitionName;
+    private final File indexDirectory;
+    private final List<SegmentFile> sealedSegments = new CopyOnWriteArrayList<>();
+    private final List<ActiveSegment> sealingSegments = new CopyOnWriteArrayList<>();
+    private final Map<String, ActiveSegment> activeSegments = new LinkedHashMap<>(); // guarded by synchronizing on this
+    private final Map<ActiveSegment, Long> lastUpdated = new LinkedHashMap<>(); // guarded by synchronizing on this
+    private ActiveSegment currentSegment; // guarded by synchronizing on this
+    private volatile long maxSealedEventId = -1L;
+
+    PartitionSegments(final String partitionName, final File indexDirectory) {
+        this.partitionName = partitionName;
+        this.indexDirectory = indexDirectory;
+    }
+
+    /**
+     * Loads the summary of any segment that was sealed before the repository was last shut down
+     */
+    void recover() throws IOException {
+        if (!indexDirectory.exists() && !indexDirectory.mkdirs()) {
+            throw new IOException("Unable to create Provenance Index directory " + indexDirectory);
+        }
+
+        final File[] files = indexDirectory.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list the contents of Provenance Index directory " + indexDirectory);
+        }
+
+        final List<SegmentFile> recovered = new ArrayList<>();
+        for (final File file : files) {
+            if (!file.getName().endsWith(SegmentFile.FILE_EXTENSION)) {
+                if (file.getName().endsWith(".tmp") && !file.delete()) {
+                    logger.warn("Unable to delete incomplete Provenance Index Segment {}", file);
+                }
+                continue;
+            }
+
+            try {
+                recovered.add(SegmentFile.open(file));
+            } catch (final IOException ioe) {
+                logger.warn("Unable to read Provenance Index Segment {}; the segment will be deleted and its events re-indexed", file, ioe);
+                if (!file.delete()) {
+                    logger.warn("Unable to delete invalid Provenance Index Segment {}", file);
+                }
+            }
+        }
+
+        recovered.sort(Comparator.comparingLong(SegmentFile::getMinEventId));
+        sealedSegments.addAll(recovered);
+        maxSealedEventId = recovered.stream().mapToLong(SegmentFile::getMaxEventId).max().orElse(-1L);
+        logger.info("Recovered {} Provenance Index Segments for Partition {}; Max Event ID indexed is {}", recovered.size(), partitionName, maxSealedEventId);
+    }
+
+    String getPartitionName() {
+        return partitionName;
+    }
+
+    /**
+     * @return the largest Event ID of any segment that has been sealed, or -1 if no segment has been sealed
+     */
+    long getMaxSealedEventId() {
+        return maxSealedEventId;
+    }
+
+    synchronized void addEvent(final ProvenanceEventRecord event, final StorageSummary summary) {
+        final String location = summary.getStorageLocation();
+        ActiveSegment segment = activeSegments.get(location);
+        if (segment == null) {
+            segment = new ActiveSegment(location);
+            activeSegments.put(location, segment);
+        }
+
+        segment.addEvent(event, summary);
+        lastUpdated.put(segment, System.currentTimeMillis());
+        currentSegment = segment;
+    }
+
+    synchronized int getActiveSegmentCount() {
+        return activeSegments.size();
+    }
+
+    /**
+     * @return all segments of the partition, including those that have not yet been sealed
+     */
+    List<IndexSegment> getSegments() {
+        final List<IndexSegment> segments = new ArrayList<>(sealedSegments);
+        segments.addAll(sealingSegments);
+        synchronized (this) {
+            segments.addAll(activeSegments.values());
+        }
+        return segments;
+    }
+
+    /**
+     * Seals any segment, other than the one that most recently received an event, that has not received an event for the given
+     * amount of time.
+     */
+    void sealIdleSegments(final long idleMillis) throws IOException {
+        final long now = System.currentTimeMillis();
+        sealSegments(segment -> segment != currentSegment && now - lastUpdated.get(segment) >= idleMillis);
+    }
+
+    /**
+     * Seals all active segments
+     */
+    void sealAll() throws IOException {
+        sealSegments(segment -> true);
+    }
+
+    private void sealSegments(final Predicate<ActiveSegment> filter) throws IOException {
+        final List<ActiveSegment> toSeal = new ArrayList<>();
+        synchronized (this) {
+            final Iterator<ActiveSegment> itr = activeSegments.values().iterator();
+            while (itr.hasNext()) {
+                final ActiveSegment segment = itr.next();
+                if (filter.test(segment)) {
+                    itr.remove();
+                    lastUpdated.remove(segment);
+                    if (segment == currentSegment) {
+                        currentSegment = null;
+                    }
+
+                    // Keep the segment searchable while it is being written out.
+                    sealingSegments.add(segment);
+                    toSeal.add(segment);
+                }
+            }
+        }
+
+        IOException failure = null;
+        for (final ActiveSegment segment : toSeal) {
+            try {
+                seal(segment);
+            } catch (final IOException ioe) {
+                if (failure == null) {
+                    failure = ioe;
+                } else {
+                    failure.addSuppressed(ioe);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void seal(final ActiveSegment segment) throws IOException {
+        if (segment.getRowCount() == 0) {
+            sealingSegments.remove(segment);
+            return;
+        }
+
+        try {
+            File file = new File(indexDirectory, segment.getMinEventId() + SegmentFile.FILE_EXTENSION);
+            for (int i = 1; file.exists(); i++) {
+                file = new File(indexDirectory, segment.getMinEventId() + "-" + i + SegmentFile.FILE_EXTENSION);
+            }
+
+            final SegmentFile segmentFile = SegmentFile.write(segment, file);
+            sealedSegments.add(segmentFile);
+            sealingSegments.remove(segment);
+            synchronized (this) {
+                maxSealedEventId = Math.max(maxSealedEventId, segmentFile.getMaxEventId());
+            }
+            logger.debug("Sealed Provenance Index Segment {} with {} events for {}", file, segmentFile.getRowCount(), segment.getStorageLocation());
+        } catch (final IOException ioe) {
+            // The segment remains searchable in memory. Because it was never sealed, its events will be re-indexed on restart.
+            throw new IOException("Failed to write Provenance Index Segment for " + segment.getStorageLocation() + " in Partition " + partitionName, ioe);
+        }
+    }
+
+    /**
+     * Removes any sealed segment that contains only events whose ID's are less than the given ID
+     *
+     * @param firstEventId the ID of the oldest event that still exists in the repository
+     */
+    void removeSegmentsBefore(final long firstEventId) {
+        for (final SegmentFile segment : sealedSegments) {
+            if (segment.getMaxEventId() < firstEventId) {
+                sealedSegments.remove(segment);
+                if (segment.getFile().delete()) {
+                    logger.debug("Removed expired Provenance Index Segment {}", segment.getFile());
+                } else {
+                    logger.warn("The Provenance Index Segment located at {} has expired and contains no Provenance Events that still exist in the repository. "
+                        + "However, the file could not be deleted.", segment.getFile());
+                }
+            }
+        }
+    }
+
+    long getSize() {
+        long total = 0L;
+        for (final SegmentFile segment : sealedSegments) {
+            total += segment.getFile().length();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+/**
+ * The values of some or all columns of an {@link IndexSegment}. Any column that was not requested may be <code>null</code>.
+ * Rows are ordered by Event ID.
+ */
+class SegmentColumns {
+    private final int rowCount;
+
+    long[] eventIds;
+    long[] eventTimes;
+    long[] fileSizes;
+    byte[] eventTypes;
+    int[] componentCodes;
+
+    // sorted, lower-cased component identifiers; the code of a component is its index in the dictionary
+    String[] dictionary;
+
+    // blocks of consecutive rows, along with the range of event times within each block
+    int[] blockStartRows;
+    long[] blockMinTimes;
+    long[] blockMaxTimes;
+
+    // hashes of FlowFile UUIDs sorted ascending, and the row that each hash belongs to
+    long[] uuidHashes;
+    int[] uuidRows;
+
+    // for each dictionary code, the ascending rows whose component has that code
+    int[][] componentPostings;
+
+    SegmentColumns(final int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int getBlockCount() {
+        return blockStartRows.length;
+    }
+
+    int getBlockEndRow(final int blockIndex) {
+        return blockIndex + 1 < blockStartRows.length ? blockStartRows[blockIndex + 1] : rowCount;
+    }
+}
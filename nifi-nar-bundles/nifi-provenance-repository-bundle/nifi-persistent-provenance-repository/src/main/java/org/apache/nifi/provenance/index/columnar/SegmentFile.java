@@ -0,0 +1,386 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable index segment that has been written to disk. Only a small header is held in memory; the columns are read
+ * from the file as they are needed by a query.
+ *
+ * <p>
+ * The file consists of a header, which provides the summary of the segment and the offset and length of each column,
+ * followed by the columns themselves.
+ * </p>
+ */
+class SegmentFile implements IndexSegment {
+    static final String FILE_EXTENSION = ".cidx";
+    private static final int MAGIC = 0x43494458; // "CIDX"
+    private static final int VERSION = 1;
+
+    private final File file;
+    private final String storageLocation;
+    private final int rowCount;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final long eventTypeMask;
+    private final long dataOffset;
+    private final Map<Column, long[]> columnRanges;
+
+    private SegmentFile(final File file, final String storageLocation, final int rowCount, final long minEventId, final long maxEventId,
+        final long minEventTime, final long maxEventTime, final long eventTypeMask, final long dataOffset, final Map<Column, long[]> columnRanges) {
+        this.file = file;
+        this.storageLocation = storageLocation;
+        this.rowCount = rowCount;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.eventTypeMask = eventTypeMask;
+        this.dataOffset = dataOffset;
+        this.columnRanges = columnRanges;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    @Override
+    public String getStorageLocation() {
+        return storageLocation;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public long getEventTypeMask() {
+        return eventTypeMask;
+    }
+
+    /**
+     * Writes the given segment to the given file. The segment is first written to a temporary file that is then renamed,
+     * so that a segment file is never left partially written.
+     *
+     * @param segment the segment to write
+     * @param file the file to write to
+     * @return a SegmentFile that can be used to read the segment that was written
+     * @throws IOException if unable to write to the file
+     */
+    static SegmentFile write(final IndexSegment segment, final File file) throws IOException {
+        final SegmentColumns columns = segment.readColumns(null);
+        final int rows = columns.getRowCount();
+
+        final Map<Column, byte[]> encoded = new EnumMap<>(Column.class);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rows * 2);
+        long previous = 0L;
+        for (int i = 0; i < rows; i++) {
+            ColumnEncoding.writeVarLong(out, columns.eventIds[i] - previous);
+            previous = columns.eventIds[i];
+        }
+        encoded.put(Column.EVENT_IDS, out.toByteArray());
+
+        out = new ByteArrayOutputStream(rows * 2);
+        previous = 0L;
+        for (int i = 0; i < rows; i++) {
+            ColumnEncoding.writeVarLong(out, ColumnEncoding.zigZag(columns.eventTimes[i] - previous));
+            previous = columns.eventTimes[i];
+        }
+        encoded.put(Column.EVENT_TIMES, out.toByteArray());
+
+        out = new ByteArrayOutputStream(rows * 3);
+        for (int i = 0; i < rows; i++) {
+            ColumnEncoding.writeVarLong(out, ColumnEncoding.zigZag(columns.fileSizes[i]));
+        }
+        encoded.put(Column.FILE_SIZES, out.toByteArray());
+
+        encoded.put(Column.EVENT_TYPES, columns.eventTypes.clone());
+
+        out = new ByteArrayOutputStream(rows);
+        for (int i = 0; i < rows; i++) {
+            ColumnEncoding.writeVarLong(out, columns.componentCodes[i]);
+        }
+        encoded.put(Column.COMPONENT_CODES, out.toByteArray());
+
+        out = new ByteArrayOutputStream();
+        ColumnEncoding.writeVarLong(out, columns.dictionary.length);
+        for (final String component : columns.dictionary) {
+            final byte[] bytes = component.getBytes(StandardCharsets.UTF_8);
+            ColumnEncoding.writeVarLong(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        encoded.put(Column.DICTIONARY, out.toByteArray());
+
+        out = new ByteArrayOutputStream();
+        ColumnEncoding.writeVarLong(out, columns.getBlockCount());
+        int previousRow = 0;
+        previous = 0L;
+        for (int i = 0; i < columns.getBlockCount(); i++) {
+            ColumnEncoding.writeVarLong(out, columns.blockStartRows[i] - previousRow);
+            ColumnEncoding.writeVarLong(out, ColumnEncoding.zigZag(columns.blockMinTimes[i] - previous));
+            ColumnEncoding.writeVarLong(out, columns.blockMaxTimes[i] - columns.blockMinTimes[i]);
+            previousRow = columns.blockStartRows[i];
+            previous = columns.blockMinTimes[i];
+        }
+        encoded.put(Column.BLOCKS, out.toByteArray());
+
+        final int uuidCount = columns.uuidHashes.length;
+        out = new ByteArrayOutputStream(uuidCount * 11);
+        ColumnEncoding.writeVarLong(out, uuidCount);
+        final ByteBuffer hashBuffer = ByteBuffer.allocate(uuidCount * 8);
+        for (final long hash : columns.uuidHashes) {
+            hashBuffer.putLong(hash);
+        }
+        out.write(hashBuffer.array(), 0, hashBuffer.capacity());
+        for (final int row : columns.uuidRows) {
+            ColumnEncoding.writeVarLong(out, row);
+        }
+        encoded.put(Column.FLOWFILE_UUIDS, out.toByteArray());
+
+        out = new ByteArrayOutputStream(rows);
+        ColumnEncoding.writeVarLong(out, columns.componentPostings.length);
+        for (final int[] postings : columns.componentPostings) {
+            ColumnEncoding.writePostings(out, postings, postings.length, rows);
+        }
+        encoded.put(Column.COMPONENT_POSTINGS, out.toByteArray());
+
+        final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (final FileOutputStream fos = new FileOutputStream(tempFile);
+            final DataOutputStream dos = new DataOutputStream(fos)) {
+
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeUTF(segment.getStorageLocation());
+            dos.writeInt(rows);
+            dos.writeLong(segment.getMinEventId());
+            dos.writeLong(segment.getMaxEventId());
+            dos.writeLong(segment.getMinEventTime());
+            dos.writeLong(segment.getMaxEventTime());
+            dos.writeLong(segment.getEventTypeMask());
+
+            dos.writeInt(encoded.size());
+            long offset = 0L;
+            for (final Map.Entry<Column, byte[]> entry : encoded.entrySet()) {
+                dos.writeInt(entry.getKey().getId());
+                dos.writeLong(offset);
+                dos.writeInt(entry.getValue().length);
+                offset += entry.getValue().length;
+            }
+
+            for (final byte[] bytes : encoded.values()) {
+                dos.write(bytes);
+            }
+
+            dos.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    /**
+     * Reads the header of the given segment file
+     *
+     * @param file the segment file
+     * @return a SegmentFile for reading the segment
+     * @throws IOException if unable to read the file or the file is not a valid segment file
+     */
+    static SegmentFile open(final File file) throws IOException {
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            final int magic = raf.readInt();
+            if (magic != MAGIC) {
+                throw new IOException("File " + file + " is not a valid Provenance Index Segment");
+            }
+
+            final int version = raf.readInt();
+            if (version > VERSION) {
+                throw new IOException("File " + file + " is a Provenance Index Segment of version " + version + ", but the maximum version supported is " + VERSION);
+            }
+
+            final String storageLocation = raf.readUTF();
+            final int rowCount = raf.readInt();
+            final long minEventId = raf.readLong();
+            final long maxEventId = raf.readLong();
+            final long minEventTime = raf.readLong();
+            final long maxEventTime = raf.readLong();
+            final long eventTypeMask = raf.readLong();
+
+            final int columnCount = raf.readInt();
+            final Map<Column, long[]> columnRanges = new EnumMap<>(Column.class);
+            for (int i = 0; i < columnCount; i++) {
+                final Column column = Column.fromId(raf.readInt());
+                final long offset = raf.readLong();
+                final int length = raf.readInt();
+                if (column != null) {
+                    columnRanges.put(column, new long[] {offset, length});
+                }
+            }
+
+            return new SegmentFile(file, storageLocation, rowCount, minEventId, maxEventId, minEventTime, maxEventTime, eventTypeMask, raf.getFilePointer(), columnRanges);
+        }
+    }
+
+    @Override
+    public SegmentColumns readColumns(final Set<Column> columns) throws IOException {
+        final SegmentColumns segmentColumns = new SegmentColumns(rowCount);
+
+        try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (final Column column : columns) {
+                final long[] range = columnRanges.get(column);
+                if (range == null) {
+                    throw new IOException("Provenance Index Segment " + file + " does not contain column " + column);
+                }
+
+                final byte[] bytes = new byte[(int) range[1]];
+                raf.seek(dataOffset + range[0]);
+                raf.readFully(bytes);
+                decode(column, ByteBuffer.wrap(bytes), segmentColumns);
+            }
+        }
+
+        return segmentColumns;
+    }
+
+    private void decode(final Column column, final ByteBuffer buffer, final SegmentColumns columns) {
+        switch (column) {
+            case EVENT_IDS: {
+                columns.eventIds = new long[rowCount];
+                long previous = 0L;
+                for (int i = 0; i < rowCount; i++) {
+                    previous += ColumnEncoding.readVarLong(buffer);
+                    columns.eventIds[i] = previous;
+                }
+                break;
+            }
+            case EVENT_TIMES: {
+                columns.eventTimes = new long[rowCount];
+                long previous = 0L;
+                for (int i = 0; i < rowCount; i++) {
+                    previous += ColumnEncoding.unZigZag(ColumnEncoding.readVarLong(buffer));
+                    columns.eventTimes[i] = previous;
+                }
+                break;
+            }
+            case FILE_SIZES: {
+                columns.fileSizes = new long[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    columns.fileSizes[i] = ColumnEncoding.unZigZag(ColumnEncoding.readVarLong(buffer));
+                }
+                break;
+            }
+            case EVENT_TYPES: {
+                columns.eventTypes = new byte[rowCount];
+                buffer.get(columns.eventTypes);
+                break;
+            }
+            case COMPONENT_CODES: {
+                columns.componentCodes = new int[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    columns.componentCodes[i] = (int) ColumnEncoding.readVarLong(buffer);
+                }
+                break;
+            }
+            case DICTIONARY: {
+                columns.dictionary = new String[(int) ColumnEncoding.readVarLong(buffer)];
+                for (int i = 0; i < columns.dictionary.length; i++) {
+                    final byte[] bytes = new byte[(int) ColumnEncoding.readVarLong(buffer)];
+                    buffer.get(bytes);
+                    columns.dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                break;
+            }
+            case BLOCKS: {
+                final int blockCount = (int) ColumnEncoding.readVarLong(buffer);
+                columns.blockStartRows = new int[blockCount];
+                columns.blockMinTimes = new long[blockCount];
+                columns.blockMaxTimes = new long[blockCount];
+                int previousRow = 0;
+                long previousTime = 0L;
+                for (int i = 0; i < blockCount; i++) {
+                    previousRow += (int) ColumnEncoding.readVarLong(buffer);
+                    previousTime += ColumnEncoding.unZigZag(ColumnEncoding.readVarLong(buffer));
+                    columns.blockStartRows[i] = previousRow;
+                    columns.blockMinTimes[i] = previousTime;
+                    columns.blockMaxTimes[i] = previousTime + ColumnEncoding.readVarLong(buffer);
+                }
+                break;
+            }
+            case FLOWFILE_UUIDS: {
+                final int uuidCount = (int) ColumnEncoding.readVarLong(buffer);
+                columns.uuidHashes = new long[uuidCount];
+                columns.uuidRows = new int[uuidCount];
+                for (int i = 0; i < uuidCount; i++) {
+                    columns.uuidHashes[i] = buffer.getLong();
+                }
+                for (int i = 0; i < uuidCount; i++) {
+                    columns.uuidRows[i] = (int) ColumnEncoding.readVarLong(buffer);
+                }
+                break;
+            }
+            case COMPONENT_POSTINGS: {
+                columns.componentPostings = new int[(int) ColumnEncoding.readVarLong(buffer)][];
+                for (int i = 0; i < columns.componentPostings.length; i++) {
+                    columns.componentPostings[i] = ColumnEncoding.readPostings(buffer);
+                }
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentFile[file=" + file + ", events=" + minEventId + "-" + maxEventId + "]";
+    }
+}
@@ -0,0 +1,457 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.search.SearchableField;
+
+/**
+ * A Provenance Query that has been compiled for evaluation against {@link IndexSegment}s. Time, file size, event type,
+ * component and exact FlowFile UUID criteria are evaluated against the columns of a segment, so that a segment, or a block
+ * within a segment, that cannot contain a match is skipped without reading any events. Any other criteria cannot be answered
+ * by the columns; these are exposed as a residual predicate that must be applied to the events themselves.
+ *
+ * <p>
+ * Matching follows the semantics of the Lucene-based index: values are compared case-insensitively, <code>*</code> and
+ * <code>?</code> act as wildcards, and a term for a field that is not configured as searchable matches nothing.
+ * </p>
+ */
+class SegmentQuery {
+    private static final long ALL_EVENT_TYPES = -1L;
+
+    private final boolean matchNothing;
+    private final boolean filterEventsByTime;
+    private final Long minEventTime;
+    private final Long maxEventTime;
+    private final Long minFileSize;
+    private final Long maxFileSize;
+    private final long eventTypeMask;
+    private final Set<String> componentIds;
+    private final List<Pattern> componentPatterns;
+    private final long[] uuidHashes;
+    private final List<Predicate<ProvenanceEventRecord>> residuals;
+
+    private SegmentQuery(final boolean matchNothing, final boolean filterEventsByTime, final Long minEventTime, final Long maxEventTime, final Long minFileSize, final Long maxFileSize,
+        final long eventTypeMask, final Set<String> componentIds, final List<Pattern> componentPatterns, final long[] uuidHashes,
+        final List<Predicate<ProvenanceEventRecord>> residuals) {
+        this.matchNothing = matchNothing;
+        this.filterEventsByTime = filterEventsByTime;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.minFileSize = minFileSize;
+        this.maxFileSize = maxFileSize;
+        this.eventTypeMask = eventTypeMask;
+        this.componentIds = componentIds;
+        this.componentPatterns = componentPatterns;
+        this.uuidHashes = uuidHashes;
+        this.residuals = residuals;
+    }
+
+    /**
+     * Creates a query that matches any event that refers to at least one of the given FlowFile UUIDs, as is needed to compute lineage.
+     * As with the Lucene-based index, the time range is used only to determine which segments to search, not to filter the events.
+     */
+    static SegmentQuery forFlowFileUuids(final Collection<String> flowFileUuids, final Long minEventTime, final Long maxEventTime) {
+        final long[] hashes = flowFileUuids.stream().mapToLong(ColumnEncoding::hash).sorted().distinct().toArray();
+        return new SegmentQuery(hashes.length == 0, false, minEventTime, maxEventTime, null, null, ALL_EVENT_TYPES,
+            Collections.emptySet(), Collections.emptyList(), hashes, Collections.emptyList());
+    }
+
+    static SegmentQuery compile(final Query query, final Collection<SearchableField> searchableFields, final Collection<SearchableField> searchableAttributes) {
+        final Set<String> searchableFieldNames = new HashSet<>();
+        searchableFields.forEach(field -> searchableFieldNames.add(field.getSearchableFieldName()));
+        final Set<String> searchableAttributeNames = new HashSet<>();
+        searchableAttributes.forEach(field -> searchableAttributeNames.add(field.getSearchableFieldName()));
+
+        boolean matchNothing = false;
+        long eventTypeMask = ALL_EVENT_TYPES;
+        final Set<String> componentIds = new HashSet<>();
+        final List<Pattern> componentPatterns = new ArrayList<>();
+        long[] uuidHashes = null;
+        final List<Predicate<ProvenanceEventRecord>> residuals = new ArrayList<>();
+
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final SearchableField field = searchTerm.getSearchableField();
+            final String searchValue = searchTerm.getValue();
+            if (searchValue == null) {
+                throw new IllegalArgumentException("Empty search value not allowed (for term '" + field.getFriendlyName() + "')");
+            }
+
+            final String value = searchValue.toLowerCase();
+            final Pattern pattern = isWildcard(value) ? toPattern(value) : null;
+            final String fieldName = field.getSearchableFieldName();
+
+            if (field.isAttribute()) {
+                if (searchableAttributeNames.contains(fieldName)) {
+                    residuals.add(event -> matches(event.getAttribute(fieldName), value, pattern));
+                } else {
+                    matchNothing = true;
+                }
+                continue;
+            }
+
+            if (!searchableFieldNames.contains(fieldName)) {
+                matchNothing = true;
+                continue;
+            }
+
+            if (fieldName.equals(SearchableFields.ComponentID.getSearchableFieldName())) {
+                if (pattern == null) {
+                    componentIds.add(value);
+                } else {
+                    componentPatterns.add(pattern);
+                }
+            } else if (fieldName.equals(SearchableFields.EventType.getSearchableFieldName())) {
+                long mask = 0L;
+                for (final ProvenanceEventType eventType : ProvenanceEventType.values()) {
+                    if (matches(eventType.name(), value, pattern)) {
+                        mask |= 1L << eventType.ordinal();
+                    }
+                }
+                eventTypeMask &= mask;
+            } else if (fieldName.equals(SearchableFields.FlowFileUUID.getSearchableFieldName())) {
+                if (pattern == null && uuidHashes == null) {
+                    uuidHashes = new long[] {ColumnEncoding.hash(value)};
+                } else {
+                    residuals.add(event -> ActiveSegment.getFlowFileUuids(event).stream().anyMatch(uuid -> matches(uuid, value, pattern)));
+                }
+            } else {
+                final Function<ProvenanceEventRecord, String> fieldValue = getFieldValue(fieldName);
+                if (fieldValue == null) {
+                    matchNothing = true;
+                } else {
+                    residuals.add(event -> matches(fieldValue.apply(event), value, pattern));
+                }
+            }
+        }
+
+        if (componentIds.size() > 1) {
+            matchNothing = true;
+        }
+
+        final Long minEventTime = query.getStartDate() == null ? null : query.getStartDate().getTime();
+        final Long maxEventTime = query.getEndDate() == null ? null : query.getEndDate().getTime();
+        final Long minFileSize = query.getMinFileSize() == null ? null : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+        final Long maxFileSize = query.getMaxFileSize() == null ? null : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+
+        return new SegmentQuery(matchNothing || eventTypeMask == 0L, true, minEventTime, maxEventTime, minFileSize, maxFileSize, eventTypeMask,
+            componentIds, componentPatterns, uuidHashes, residuals);
+    }
+
+    private static Function<ProvenanceEventRecord, String> getFieldValue(final String fieldName) {
+        if (fieldName.equals(SearchableFields.Filename.getSearchableFieldName())) {
+            return event -> event.getAttribute(CoreAttributes.FILENAME.key());
+        } else if (fieldName.equals(SearchableFields.AlternateIdentifierURI.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getAlternateIdentifierUri;
+        } else if (fieldName.equals(SearchableFields.Relationship.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getRelationship;
+        } else if (fieldName.equals(SearchableFields.Details.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getDetails;
+        } else if (fieldName.equals(SearchableFields.ContentClaimSection.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getContentClaimSection;
+        } else if (fieldName.equals(SearchableFields.ContentClaimContainer.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getContentClaimContainer;
+        } else if (fieldName.equals(SearchableFields.ContentClaimIdentifier.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getContentClaimIdentifier;
+        } else if (fieldName.equals(SearchableFields.SourceQueueIdentifier.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getSourceQueueIdentifier;
+        } else if (fieldName.equals(SearchableFields.TransitURI.getSearchableFieldName())) {
+            return ProvenanceEventRecord::getTransitUri;
+        }
+
+        return null;
+    }
+
+    private static boolean isWildcard(final String value) {
+        return value.contains("*") || value.contains("?");
+    }
+
+    private static Pattern toPattern(final String wildcard) {
+        final StringBuilder sb = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        for (final char c : wildcard.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    sb.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                sb.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+
+        if (literal.length() > 0) {
+            sb.append(Pattern.quote(literal.toString()));
+        }
+
+        return Pattern.compile(sb.toString(), Pattern.DOTALL);
+    }
+
+    private static boolean matches(final String actual, final String value, final Pattern pattern) {
+        if (actual == null) {
+            return false;
+        }
+
+        final String lowerCase = actual.toLowerCase();
+        return pattern == null ? lowerCase.equals(value) : pattern.matcher(lowerCase).matches();
+    }
+
+    /**
+     * @return <code>true</code> if the events that match the criteria of the columns must also be tested against {@link #matchesResidual(ProvenanceEventRecord)}
+     */
+    boolean hasResidual() {
+        return !residuals.isEmpty();
+    }
+
+    boolean matchesResidual(final ProvenanceEventRecord event) {
+        for (final Predicate<ProvenanceEventRecord> residual : residuals) {
+            if (!residual.test(event)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines whether or not the given segment may contain events that match this query, based only on the segment's summary
+     */
+    boolean isCandidate(final IndexSegment segment) {
+        if (matchNothing || segment.getRowCount() == 0) {
+            return false;
+        }
+
+        if (minEventTime != null && segment.getMaxEventTime() < minEventTime) {
+            return false;
+        }
+        if (maxEventTime != null && segment.getMinEventTime() > maxEventTime) {
+            return false;
+        }
+
+        return (segment.getEventTypeMask() & eventTypeMask) != 0L;
+    }
+
+    /**
+     * Finds the ID's of all events in the given segment that match the criteria that can be evaluated against the columns of the segment.
+     *
+     * @param segment the segment to search
+     * @return the matching Event ID's, in ascending order
+     * @throws IOException if unable to read the columns of the segment
+     */
+    long[] findEventIds(final IndexSegment segment) throws IOException {
+        if (!isCandidate(segment)) {
+            return new long[0];
+        }
+
+        final boolean filterComponents = !componentIds.isEmpty() || !componentPatterns.isEmpty();
+        int[] componentCodes = null;
+        if (filterComponents) {
+            final String[] dictionary = segment.readColumns(EnumSet.of(Column.DICTIONARY)).dictionary;
+            componentCodes = findComponentCodes(dictionary);
+            if (componentCodes.length == 0) {
+                return new long[0];
+            }
+        }
+
+        final boolean filterTime = filterEventsByTime && ((minEventTime != null && segment.getMinEventTime() < minEventTime)
+            || (maxEventTime != null && segment.getMaxEventTime() > maxEventTime));
+        final boolean filterTypes = (segment.getEventTypeMask() & ~eventTypeMask) != 0L;
+        final boolean filterSizes = minFileSize != null || maxFileSize != null;
+        final boolean usePostings = filterComponents && uuidHashes == null;
+        final boolean filterCodes = filterComponents && !usePostings;
+
+        final Set<Column> needed = EnumSet.of(Column.EVENT_IDS);
+        if (filterTime) {
+            needed.add(Column.BLOCKS);
+            needed.add(Column.EVENT_TIMES);
+        }
+        if (filterTypes) {
+            needed.add(Column.EVENT_TYPES);
+        }
+        if (filterSizes) {
+            needed.add(Column.FILE_SIZES);
+        }
+        if (uuidHashes != null) {
+            needed.add(Column.FLOWFILE_UUIDS);
+        }
+        if (usePostings) {
+            needed.add(Column.COMPONENT_POSTINGS);
+        }
+        if (filterCodes) {
+            needed.add(Column.COMPONENT_CODES);
+        }
+
+        final SegmentColumns columns = segment.readColumns(needed);
+
+        final int[] candidateRows;
+        if (uuidHashes != null) {
+            candidateRows = findUuidRows(columns);
+        } else if (usePostings) {
+            int[] rows = columns.componentPostings[componentCodes[0]];
+            for (int i = 1; i < componentCodes.length; i++) {
+                rows = ColumnEncoding.merge(rows, columns.componentPostings[componentCodes[i]]);
+            }
+            candidateRows = rows;
+        } else {
+            candidateRows = null;
+        }
+
+        final long[] eventIds = new long[candidateRows == null ? columns.getRowCount() : candidateRows.length];
+        int matches = 0;
+
+        if (candidateRows == null) {
+            // No index applies, so scan the rows, skipping over any block that is entirely outside of the time range.
+            final int blockCount = filterTime ? columns.getBlockCount() : 1;
+            for (int block = 0; block < blockCount; block++) {
+                final int startRow;
+                final int endRow;
+                boolean checkTime = false;
+                if (filterTime) {
+                    if ((minEventTime != null && columns.blockMaxTimes[block] < minEventTime) || (maxEventTime != null && columns.blockMinTimes[block] > maxEventTime)) {
+                        continue;
+                    }
+
+                    checkTime = (minEventTime != null && columns.blockMinTimes[block] < minEventTime) || (maxEventTime != null && columns.blockMaxTimes[block] > maxEventTime);
+                    startRow = columns.blockStartRows[block];
+                    endRow = columns.getBlockEndRow(block);
+                } else {
+                    startRow = 0;
+                    endRow = columns.getRowCount();
+                }
+
+                for (int row = startRow; row < endRow; row++) {
+                    if (accept(columns, row, checkTime, filterTypes, filterSizes, null)) {
+                        eventIds[matches++] = columns.eventIds[row];
+                    }
+                }
+            }
+        } else {
+            for (final int row : candidateRows) {
+                if (accept(columns, row, filterTime, filterTypes, filterSizes, filterCodes ? componentCodes : null)) {
+                    eventIds[matches++] = columns.eventIds[row];
+                }
+            }
+        }
+
+        return matches == eventIds.length ? eventIds : Arrays.copyOf(eventIds, matches);
+    }
+
+    private boolean accept(final SegmentColumns columns, final int row, final boolean filterTime, final boolean filterTypes,
+        final boolean filterSizes, final int[] componentCodes) {
+
+        if (filterTime) {
+            final long eventTime = columns.eventTimes[row];
+            if ((minEventTime != null && eventTime < minEventTime) || (maxEventTime != null && eventTime > maxEventTime)) {
+                return false;
+            }
+        }
+
+        if (filterTypes && (eventTypeMask & (1L << columns.eventTypes[row])) == 0L) {
+            return false;
+        }
+
+        if (filterSizes) {
+            final long fileSize = columns.fileSizes[row];
+            if ((minFileSize != null && fileSize < minFileSize) || (maxFileSize != null && fileSize > maxFileSize)) {
+                return false;
+            }
+        }
+
+        return componentCodes == null || Arrays.binarySearch(componentCodes, columns.componentCodes[row]) >= 0;
+    }
+
+    private int[] findComponentCodes(final String[] dictionary) {
+        if (!componentIds.isEmpty()) {
+            final int code = Arrays.binarySearch(dictionary, componentIds.iterator().next());
+            if (code < 0) {
+                return new int[0];
+            }
+
+            for (final Pattern pattern : componentPatterns) {
+                if (!pattern.matcher(dictionary[code]).matches()) {
+                    return new int[0];
+                }
+            }
+
+            return new int[] {code};
+        }
+
+        final int[] codes = new int[dictionary.length];
+        int count = 0;
+        for (int code = 0; code < dictionary.length; code++) {
+            boolean matchesAll = true;
+            for (final Pattern pattern : componentPatterns) {
+                if (!pattern.matcher(dictionary[code]).matches()) {
+                    matchesAll = false;
+                    break;
+                }
+            }
+
+            if (matchesAll) {
+                codes[count++] = code;
+            }
+        }
+
+        return Arrays.copyOf(codes, count);
+    }
+
+    private int[] findUuidRows(final SegmentColumns columns) {
+        final long[] hashes = columns.uuidHashes;
+        int[] rows = new int[16];
+        int count = 0;
+
+        for (final long uuidHash : uuidHashes) {
+            int index = Arrays.binarySearch(hashes, uuidHash);
+            if (index < 0) {
+                continue;
+            }
+
+            while (index > 0 && hashes[index - 1] == uuidHash) {
+                index--;
+            }
+
+            for (; index < hashes.length && hashes[index] == uuidHash; index++) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, count * 2);
+                }
+                rows[count++] = columns.uuidRows[index];
+            }
+        }
+
+        return ColumnEncoding.merge(Arrays.copyOf(rows, count), new int[0]);
+    }
+}
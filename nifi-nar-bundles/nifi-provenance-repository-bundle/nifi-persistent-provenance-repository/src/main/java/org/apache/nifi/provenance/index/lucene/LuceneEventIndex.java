@@ -57,6 +57,7 @@ import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.index.EventIndexSearcher;
 import org.apache.nifi.provenance.index.EventIndexWriter;
+import org.apache.nifi.provenance.index.LineageCache;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lineage.LineageComputationType;
 import org.apache.nifi.provenance.lucene.IndexManager;
@@ -83,6 +84,7 @@ public class LuceneEventIndex implements EventIndex {
     public static final int MAX_UNDELETED_QUERY_RESULTS = 10;
     public static final int MAX_DELETE_INDEX_WAIT_SECONDS = 30;
     public static final int MAX_LINEAGE_NODES = 1000;
+    public static final int MAX_LINEAGE_UUIDS_PER_QUERY = 500;
     public static final int MAX_INDEX_THREADS = 100;
 
     private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
@@ -103,6 +105,7 @@ public class LuceneEventIndex implements EventIndex {
     private final EventReporter eventReporter;
 
     private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private final LineageCache lineageCache;
 
     private ScheduledExecutorService maintenanceExecutor; // effectively final
     private ScheduledExecutorService cacheWarmerExecutor;
@@ -145,6 +148,7 @@ public class LuceneEventIndex implements EventIndex {
         this.config = config;
         this.indexManager = indexManager;
         this.eventConverter = new ConvertEventToLuceneDocument(config.getSearchableFields(), config.getSearchableAttributes());
+        this.lineageCache = new LineageCache(config.getLineageCacheExpiration(TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS, config.getLineageCacheSize());
     }
 
     @Override
@@ -377,20 +381,37 @@ public class LuceneEventIndex implements EventIndex {
     private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
         final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
 
-        final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user.getIdentity());
-        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+        if (eventId != null) {
+            final AsyncLineageSubmission cachedSubmission = lineageCache.get(computationType, eventId, user.getIdentity());
+            if (cachedSubmission != null) {
+                logger.debug("Computation of {} for Event ID {} was answered from the lineage cache", computationType, eventId);
+                lineageSubmissionMap.put(cachedSubmission.getLineageIdentifier(), cachedSubmission);
+                return cachedSubmission;
+            }
+        }
 
-        final BooleanQuery lineageQuery = buildLineageQuery(flowFileUuids);
+        // A FlowFile that was split into many children results in many FlowFile UUIDs. Rather than building a single query
+        // that has a clause for each UUID, we break the UUIDs into batches and search each index directory for each batch.
+        // Each of these is a separate step of the computation, so the steps run in parallel on the query threads, and the
+        // results of each step are made available to the client as soon as that step completes.
+        final List<BooleanQuery> lineageQueries = buildLineageQueries(flowFileUuids);
         final List<File> indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        if (indexDirectories.isEmpty()) {
+        final int numSteps = Math.max(1, indexDirectories.size() * lineageQueries.size());
+
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, numSteps, user.getIdentity());
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+        lineageCache.register(submission);
+
+        if (indexDirectories.isEmpty() || lineageQueries.isEmpty()) {
             submission.getResult().update(Collections.emptyList(), 0L);
         } else {
             Collections.sort(indexDirectories, DirectoryUtils.OLDEST_INDEX_FIRST);
 
-            for (final File indexDir : indexDirectories) {
-                queryExecutor.submit(new QueryTask(lineageQuery, submission.getResult(), MAX_LINEAGE_NODES, indexManager, indexDir,
-                    eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+            for (final BooleanQuery lineageQuery : lineageQueries) {
+                for (final File indexDir : indexDirectories) {
+                    queryExecutor.submit(new QueryTask(lineageQuery, submission.getResult(), MAX_LINEAGE_NODES, indexManager, indexDir,
+                        eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+                }
             }
         }
 
@@ -406,21 +427,27 @@ public class LuceneEventIndex implements EventIndex {
         return submission;
     }
 
-    private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
-        // Create a query for all Events related to the FlowFiles of interest. We do this by adding all ID's as
-        // "SHOULD" clauses and then setting the minimum required to 1.
-        final BooleanQuery lineageQuery;
+    private List<BooleanQuery> buildLineageQueries(final Collection<String> flowFileUuids) {
+        // Create queries for all Events related to the FlowFiles of interest. We do this by adding the ID's as
+        // "SHOULD" clauses and then setting the minimum required to 1. Each query contains at most
+        // MAX_LINEAGE_UUIDS_PER_QUERY clauses, which keeps it well below Lucene's limit on the number of clauses.
         if (flowFileUuids == null || flowFileUuids.isEmpty()) {
-            lineageQuery = null;
-        } else {
-            lineageQuery = new BooleanQuery();
-            for (final String flowFileUuid : flowFileUuids) {
-                lineageQuery.add(new TermQuery(new Term(SearchableFields.FlowFileUUID.getSearchableFieldName(), flowFileUuid)), Occur.SHOULD);
+            return Collections.emptyList();
+        }
+
+        final List<BooleanQuery> lineageQueries = new ArrayList<>();
+        BooleanQuery lineageQuery = null;
+        for (final String flowFileUuid : flowFileUuids) {
+            if (lineageQuery == null || lineageQuery.clauses().size() >= MAX_LINEAGE_UUIDS_PER_QUERY) {
+                lineageQuery = new BooleanQuery();
+                lineageQuery.setMinimumNumberShouldMatch(1);
+                lineageQueries.add(lineageQuery);
             }
-            lineageQuery.setMinimumNumberShouldMatch(1);
+
+            lineageQuery.add(new TermQuery(new Term(SearchableFields.FlowFileUUID.getSearchableFieldName(), flowFileUuid)), Occur.SHOULD);
         }
 
-        return lineageQuery;
+        return lineageQueries;
     }
 
     @Override
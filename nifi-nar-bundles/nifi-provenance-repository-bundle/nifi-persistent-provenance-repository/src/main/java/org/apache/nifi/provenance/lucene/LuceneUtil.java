@@ -35,6 +35,8 @@ import java.util.Map;
 import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.search.SearchTerm;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
@@ -92,9 +94,12 @@ public class LuceneUtil {
                     matchingFiles.add(file);
                 } else {
                     final File dir = file.getParentFile();
-                    final File gzFile = new File(dir, file.getName() + ".gz");
-                    if ( gzFile.exists() ) {
-                        matchingFiles.add(gzFile);
+                    for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+                        final File compressedFile = new File(dir, file.getName() + codec.getFileExtension());
+                        if ( compressedFile.exists() ) {
+                            matchingFiles.add(compressedFile);
+                            break;
+                        }
                     }
                 }
             }
@@ -24,7 +24,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Optional;
-import java.util.zip.GZIPInputStream;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.provenance.toc.TocReader;
@@ -40,7 +39,7 @@ public abstract class CompressableRecordReader implements RecordReader {
     private final ByteCountingInputStream rawInputStream;
     private final String filename;
     private final int serializationVersion;
-    private final boolean compressed;
+    private final EventFileCodec codec;
     private final TocReader tocReader;
     private final int headerLength;
     private final int maxAttributeChars;
@@ -71,13 +70,16 @@ public abstract class CompressableRecordReader implements RecordReader {
             }
         }
 
+        // The Table of Contents records which codec the file was compressed with. If there is no Table of Contents, or it
+        // indicates that the file is not compressed because it has not yet been replaced by the compressed version's
+        // Table of Contents, the extension of the file tells us which codec was used.
+        codec = (tocReader != null && tocReader.isCompressed()) ? tocReader.getCompressionCodec() : EventFileCodecs.forFilename(filename);
+
         final InputStream readableStream;
-        if (filename.endsWith(".gz")) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
-            compressed = true;
-        } else {
+        if (codec == null) {
             readableStream = new BufferedInputStream(limitedStream);
-            compressed = false;
+        } else {
+            readableStream = new BufferedInputStream(codec.decompress(limitedStream));
         }
 
         byteCountingIn = new ByteCountingInputStream(readableStream);
@@ -144,10 +146,10 @@ public abstract class CompressableRecordReader implements RecordReader {
         }
 
         final InputStream readableStream;
-        if (compressed) {
-            readableStream = new BufferedInputStream(new GZIPInputStream(limitedStream));
-        } else {
+        if (codec == null) {
             readableStream = new BufferedInputStream(limitedStream);
+        } else {
+            readableStream = new BufferedInputStream(codec.decompress(limitedStream));
         }
 
         byteCountingIn = new ByteCountingInputStream(readableStream, rawInputStream.getBytesConsumed());
@@ -29,7 +29,6 @@ import org.apache.nifi.provenance.AbstractRecordWriter;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.toc.TocWriter;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
-import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.stream.io.NonCloseableOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,7 +38,7 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
 
     private final FileOutputStream fos;
     private final ByteCountingOutputStream rawOutStream;
-    private final boolean compressed;
+    private final EventFileCodec codec;
     private final int uncompressedBlockSize;
     private final AtomicLong idGenerator;
 
@@ -50,11 +49,16 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
 
 
     public CompressableRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final boolean compressed,
+        final int uncompressedBlockSize) throws IOException {
+        this(file, idGenerator, writer, compressed ? EventFileCodecs.GZIP : null, uncompressedBlockSize);
+    }
+
+    public CompressableRecordWriter(final File file, final AtomicLong idGenerator, final TocWriter writer, final EventFileCodec codec,
         final int uncompressedBlockSize) throws IOException {
         super(file, writer);
         logger.trace("Creating Record Writer for {}", file.getName());
 
-        this.compressed = compressed;
+        this.codec = codec;
         this.fos = new FileOutputStream(file);
         rawOutStream = new ByteCountingOutputStream(fos);
         this.uncompressedBlockSize = uncompressedBlockSize;
@@ -62,11 +66,16 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
     }
 
     public CompressableRecordWriter(final OutputStream out, final String storageLocation, final AtomicLong idGenerator, final TocWriter tocWriter, final boolean compressed,
+        final int uncompressedBlockSize) throws IOException {
+        this(out, storageLocation, idGenerator, tocWriter, compressed ? EventFileCodecs.GZIP : null, uncompressedBlockSize);
+    }
+
+    public CompressableRecordWriter(final OutputStream out, final String storageLocation, final AtomicLong idGenerator, final TocWriter tocWriter, final EventFileCodec codec,
         final int uncompressedBlockSize) throws IOException {
         super(storageLocation, tocWriter);
         this.fos = null;
 
-        this.compressed = compressed;
+        this.codec = codec;
         this.uncompressedBlockSize = uncompressedBlockSize;
         this.rawOutStream = new ByteCountingOutputStream(out);
         this.idGenerator = idGenerator;
@@ -115,8 +124,8 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
             final TocWriter tocWriter = getTocWriter();
 
             final OutputStream writableStream;
-            if (compressed) {
-                // because of the way that GZIPOutputStream works, we need to call close() on it in order for it
+            if (codec != null) {
+                // because of the way that compression streams work, we need to call close() on it in order for it
                 // to write its trailing bytes. But we don't want to close the underlying OutputStream, so we wrap
                 // the underlying OutputStream in a NonCloseableOutputStream
                 // We don't have to check if the writer is dirty because we will have already checked before calling this method.
@@ -128,7 +137,7 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
                     tocWriter.addBlockOffset(rawOutStream.getBytesWritten(), eventId);
                 }
 
-                writableStream = new BufferedOutputStream(new GZIPOutputStream(new NonCloseableOutputStream(rawOutStream), 1), 65536);
+                writableStream = new BufferedOutputStream(codec.compress(new NonCloseableOutputStream(rawOutStream)), 65536);
             } else {
                 if (tocWriter != null && eventId != null) {
                     tocWriter.addBlockOffset(rawOutStream.getBytesWritten(), eventId);
@@ -213,7 +222,11 @@ public abstract class CompressableRecordWriter extends AbstractRecordWriter {
     }
 
     protected boolean isCompressed() {
-        return compressed;
+        return codec != null;
+    }
+
+    protected EventFileCodec getCompressionCodec() {
+        return codec;
     }
 
     protected abstract void writeRecord(final ProvenanceEventRecord event, final long eventId, final DataOutputStream out) throws IOException;
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A compression codec that can be used to compress the blocks of a Provenance Event File. Each block of an Event File
+ * is compressed independently of the others so that any block can be located via the Table of Contents and read without
+ * decompressing the blocks that precede it. The codec that was used is recorded in the Table of Contents and is implied
+ * by the extension of the Event File, which allows a repository to hold Event Files that were written using different codecs.
+ */
+public interface EventFileCodec {
+
+    /**
+     * @return the name of the codec, as it is given in the <code>nifi.properties</code> file
+     */
+    String getName();
+
+    /**
+     * @return the identifier that is written to the Table of Contents in order to indicate that this codec was used.
+     *         The value must be between 1 and 127 and may never change once Event Files have been written with it.
+     */
+    int getIdentifier();
+
+    /**
+     * @return the extension, including the leading period, that is appended to the name of an Event File that has been compressed with this codec
+     */
+    String getFileExtension();
+
+    /**
+     * Wraps the given stream so that data written to the returned stream is compressed. Closing the returned stream completes the compressed
+     * block and closes the given stream, so callers that intend to write additional blocks must protect the given stream from being closed.
+     *
+     * @param out the stream to write the compressed data to
+     * @return a stream that compresses the data that is written to it
+     * @throws IOException if unable to write the header of the compressed block
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the given stream so that data read from the returned stream is decompressed
+     *
+     * @param in the stream that contains the compressed data
+     * @return a stream that decompresses the data read from the given stream
+     * @throws IOException if unable to read the header of the compressed block
+     */
+    InputStream decompress(InputStream in) throws IOException;
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Provides access to the {@link EventFileCodec}s that Provenance Event Files can be compressed with.
+ */
+public class EventFileCodecs {
+    public static final EventFileCodec GZIP = new GzipEventFileCodec();
+    public static final EventFileCodec LZ4 = new Lz4EventFileCodec();
+    public static final EventFileCodec ZSTD = new ZstdEventFileCodec();
+
+    /**
+     * The value that is written to the Table of Contents in place of a codec identifier when the Event File is not compressed
+     */
+    public static final int UNCOMPRESSED_IDENTIFIER = 0;
+
+    private static final List<EventFileCodec> CODECS = Collections.unmodifiableList(Arrays.asList(GZIP, LZ4, ZSTD));
+
+    private EventFileCodecs() {
+    }
+
+    /**
+     * @return all of the codecs that Event Files may be compressed with
+     */
+    public static List<EventFileCodec> getCodecs() {
+        return CODECS;
+    }
+
+    /**
+     * Returns the codec with the given name, ignoring case
+     *
+     * @param name the name of the codec
+     * @return the codec with the given name
+     * @throws IllegalArgumentException if no codec exists with the given name
+     */
+    public static EventFileCodec forName(final String name) {
+        for (final EventFileCodec codec : CODECS) {
+            if (codec.getName().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown Provenance Event File compression codec '" + name + "'; valid values are "
+            + CODECS.stream().map(EventFileCodec::getName).collect(Collectors.joining(", ")));
+    }
+
+    /**
+     * Returns the codec that has the given identifier
+     *
+     * @param identifier the identifier that was written to the Table of Contents
+     * @return the codec with the given identifier, or <code>null</code> if the identifier is {@link #UNCOMPRESSED_IDENTIFIER}
+     * @throws IllegalArgumentException if no codec exists with the given identifier
+     */
+    public static EventFileCodec forIdentifier(final int identifier) {
+        if (identifier == UNCOMPRESSED_IDENTIFIER) {
+            return null;
+        }
+
+        for (final EventFileCodec codec : CODECS) {
+            if (codec.getIdentifier() == identifier) {
+                return codec;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown Provenance Event File compression codec identifier " + identifier);
+    }
+
+    /**
+     * Returns the codec that an Event File with the given name was compressed with, based on the file's extension
+     *
+     * @param filename the name of the Event File
+     * @return the codec that the file was compressed with, or <code>null</code> if the file is not compressed
+     */
+    public static EventFileCodec forFilename(final String filename) {
+        for (final EventFileCodec codec : CODECS) {
+            if (filename.endsWith(codec.getFileExtension())) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the identifier to write to the Table of Contents for the given codec
+     *
+     * @param codec the codec, or <code>null</code> if the Event File is not compressed
+     * @return the identifier of the codec, or {@link #UNCOMPRESSED_IDENTIFIER} if the codec is <code>null</code>
+     */
+    public static int getIdentifier(final EventFileCodec codec) {
+        return codec == null ? UNCOMPRESSED_IDENTIFIER : codec.getIdentifier();
+    }
+}
@@ -34,7 +34,6 @@ import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
 import org.apache.nifi.provenance.util.CloseableUtil;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
-import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.stream.io.NonCloseableOutputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.apache.nifi.util.FormatUtils;
@@ -45,7 +44,7 @@ import org.slf4j.LoggerFactory;
  * <p>
  * This class is responsible for compressing Event Files as a background task. This is done as a background task instead of being
  * done inline because if compression is performed inline, whenever NiFi is restarted (especially if done so abruptly), it is very
- * possible that the GZIP stream will be corrupt. As a result, we would stand to lose some Provenance Events when NiFi is restarted.
+ * possible that the compressed stream will be corrupt. As a result, we would stand to lose some Provenance Events when NiFi is restarted.
  * In order to avoid that, we write data in an uncompressed format and then compress the data in the background. Once the data has
  * been compressed, this task will then remove the original, uncompressed file. If the file is being read by another thread, this
  * task will wait for the other thread to finish reading the data before deleting the file. This synchronization of the File is handled
@@ -56,11 +55,17 @@ public class EventFileCompressor implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(EventFileCompressor.class);
     private final BlockingQueue<File> filesToCompress;
     private final EventFileManager eventFileManager;
+    private final EventFileCodec codec;
     private volatile boolean shutdown = false;
 
     public EventFileCompressor(final BlockingQueue<File> filesToCompress, final EventFileManager eventFileManager) {
+        this(filesToCompress, eventFileManager, EventFileCodecs.GZIP);
+    }
+
+    public EventFileCompressor(final BlockingQueue<File> filesToCompress, final EventFileManager eventFileManager, final EventFileCodec codec) {
         this.filesToCompress = filesToCompress;
         this.eventFileManager = eventFileManager;
+        this.codec = codec;
     }
 
     public void shutdown() {
@@ -99,11 +104,11 @@ public class EventFileCompressor implements Runnable {
                     bytesBefore = uncompressedEventFile.length();
 
                     try {
-                        outputFile = new File(uncompressedEventFile.getParentFile(), uncompressedEventFile.getName() + ".gz");
+                        outputFile = new File(uncompressedEventFile.getParentFile(), uncompressedEventFile.getName() + codec.getFileExtension());
                         try {
                             tmpTocFile = new File(tocFile.getParentFile(), tocFile.getName() + ".tmp");
-                            tocWriter = new StandardTocWriter(tmpTocFile, true, false);
-                            compress(uncompressedEventFile, tocReader, outputFile, tocWriter);
+                            tocWriter = new StandardTocWriter(tmpTocFile, codec, false);
+                            compress(uncompressedEventFile, tocReader, outputFile, tocWriter, codec);
                             tocWriter.close();
                         } catch (final IOException ioe) {
                             logger.error("Failed to compress {} on rollover", uncompressedEventFile, ioe);
@@ -140,8 +145,8 @@ public class EventFileCompressor implements Runnable {
                 final long bytesAfter = outputFile.length();
                 final double reduction = 100 * (1 - (double) bytesAfter / (double) bytesBefore);
                 final String reductionTwoDecimals = String.format("%.2f", reduction);
-                logger.debug("Successfully compressed Provenance Event File {} in {} millis from {} to {}, a reduction of {}%",
-                    uncompressedEventFile, millis, FormatUtils.formatDataSize(bytesBefore), FormatUtils.formatDataSize(bytesAfter), reductionTwoDecimals);
+                logger.debug("Successfully compressed Provenance Event File {} using {} in {} millis from {} to {}, a reduction of {}%",
+                    uncompressedEventFile, codec.getName(), millis, FormatUtils.formatDataSize(bytesBefore), FormatUtils.formatDataSize(bytesAfter), reductionTwoDecimals);
             } catch (final InterruptedException e) {
                 Thread.currentThread().interrupt();
                 return;
@@ -152,6 +157,10 @@ public class EventFileCompressor implements Runnable {
     }
 
     public static void compress(final File input, final TocReader tocReader, final File output, final TocWriter tocWriter) throws IOException {
+        compress(input, tocReader, output, tocWriter, EventFileCodecs.GZIP);
+    }
+
+    public static void compress(final File input, final TocReader tocReader, final File output, final TocWriter tocWriter, final EventFileCodec codec) throws IOException {
         try (final InputStream fis = new FileInputStream(input);
             final OutputStream fos = new FileOutputStream(output);
             final ByteCountingOutputStream byteCountingOut = new ByteCountingOutputStream(fos)) {
@@ -173,8 +182,8 @@ public class EventFileCompressor implements Runnable {
                 final long blockStartOffset = byteCountingOut.getBytesWritten();
 
                 try (final OutputStream ncos = new NonCloseableOutputStream(byteCountingOut);
-                    final OutputStream gzipOut = new GZIPOutputStream(ncos, 1)) {
-                    StreamUtils.copy(fis, gzipOut, blockEnd - blockStart);
+                    final OutputStream compressedOut = codec.compress(ncos)) {
+                    StreamUtils.copy(fis, compressedOut, blockEnd - blockStart);
                 }
 
                 tocWriter.addBlockOffset(blockStartOffset, firstEventId);
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.nifi.stream.io.GZIPOutputStream;
+
+/**
+ * Compresses Event Files using GZIP. This is the codec that was used before the codec became configurable, so Event Files
+ * ending with <code>.gz</code> and Table of Contents files with a compression flag of 1 are always read using this codec.
+ */
+public class GzipEventFileCodec implements EventFileCodec {
+    public static final String NAME = "gzip";
+    public static final int IDENTIFIER = 1;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ".gz";
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, 1);
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in) throws IOException {
+        return new GZIPInputStream(in);
+    }
+
+    @Override
+    public String toString() {
+        return "GZIP Event File Codec";
+    }
+}
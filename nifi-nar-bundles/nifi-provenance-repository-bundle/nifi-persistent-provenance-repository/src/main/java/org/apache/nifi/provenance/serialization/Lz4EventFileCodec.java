@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Compresses Event Files using LZ4. LZ4 compresses and decompresses several times faster than GZIP at the cost of
+ * a somewhat lower compression ratio, which makes it well suited to nodes where background compression of the
+ * Event Files competes with the flow for CPU.
+ */
+public class Lz4EventFileCodec implements EventFileCodec {
+    public static final String NAME = "lz4";
+    public static final int IDENTIFIER = 2;
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ".lz4";
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out) throws IOException {
+        return new LZ4BlockOutputStream(out, BLOCK_SIZE, LZ4Factory.fastestInstance().fastCompressor());
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in) throws IOException {
+        return new LZ4BlockInputStream(in, LZ4Factory.fastestInstance().fastDecompressor());
+    }
+
+    @Override
+    public String toString() {
+        return "LZ4 Event File Codec";
+    }
+}
@@ -26,7 +26,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.zip.GZIPInputStream;
+import java.util.List;
 import org.apache.nifi.properties.NiFiPropertiesLoader;
 import org.apache.nifi.provenance.ByteArraySchemaRecordReader;
 import org.apache.nifi.provenance.ByteArraySchemaRecordWriter;
@@ -92,11 +92,11 @@ public class RecordReaders {
                 final File dir = file.getParentFile();
                 final String baseName = LuceneUtil.substringBefore(file.getName(), ".prov");
 
-                // depending on which rollover actions have occurred, we could have 2 possibilities for the
-                // filename that we need. The majority of the time, we will use the extension ".prov.gz"
-                // because most often we are compressing on rollover and most often we have already finished
-                // compressing by the time that we are querying the data.
-                for (final String extension : new String[]{".prov.gz", ".prov"}) {
+                // depending on which rollover actions have occurred, the file may or may not have been compressed yet,
+                // and it may have been compressed with any of the codecs. The majority of the time, the file will have
+                // been compressed because most often we are compressing on rollover and most often we have already
+                // finished compressing by the time that we are querying the data.
+                for (final String extension : getEventFileExtensions()) {
                     file = new File(dir, baseName + extension);
                     if (file.exists()) {
                         try {
@@ -124,11 +124,18 @@ public class RecordReaders {
             final InputStream bufferedInStream = new BufferedInputStream(fis);
             final String serializationName;
             try {
-                bufferedInStream.mark(4096);
-                final InputStream in = filename.endsWith(".gz") ? new GZIPInputStream(bufferedInStream) : bufferedInStream;
-                final DataInputStream dis = new DataInputStream(in);
-                serializationName = dis.readUTF();
-                bufferedInStream.reset();
+                final EventFileCodec codec = EventFileCodecs.forFilename(filename);
+                if (codec == null) {
+                    bufferedInStream.mark(4096);
+                    serializationName = new DataInputStream(bufferedInStream).readUTF();
+                    bufferedInStream.reset();
+                } else {
+                    // A decompressing stream may read far more than the header from the underlying stream, beyond what
+                    // we could mark and reset, so the header of a compressed file is read using a stream of its own.
+                    try (final InputStream headerIn = codec.decompress(new BufferedInputStream(new FileInputStream(file)))) {
+                        serializationName = new DataInputStream(headerIn).readUTF();
+                    }
+                }
             } catch (final EOFException eof) {
                 fis.close();
                 return new EmptyRecordReader();
@@ -189,6 +196,16 @@ public class RecordReaders {
         }
     }
 
+    private static String[] getEventFileExtensions() {
+        final List<EventFileCodec> codecs = EventFileCodecs.getCodecs();
+        final String[] extensions = new String[codecs.size() + 1];
+        for (int i = 0; i < codecs.size(); i++) {
+            extensions[i] = ".prov" + codecs.get(i).getFileExtension();
+        }
+        extensions[codecs.size()] = ".prov";
+        return extensions;
+    }
+
     private static boolean isEncryptionAvailable() {
         if (encryptionPropertiesRead) {
             return isEncryptionAvailable;
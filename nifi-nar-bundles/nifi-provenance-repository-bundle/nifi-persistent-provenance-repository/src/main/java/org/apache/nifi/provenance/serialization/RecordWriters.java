@@ -34,8 +34,17 @@ public class RecordWriters {
 
     public static RecordWriter newSchemaRecordWriter(final File file, final AtomicLong idGenerator, final boolean compressed, final boolean createToc,
         final int compressionBlockBytes) throws IOException {
-        final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), false, false) : null;
-        return new ByteArraySchemaRecordWriter(file, idGenerator, tocWriter, compressed, compressionBlockBytes);
+        return newSchemaRecordWriter(file, idGenerator, compressed ? EventFileCodecs.GZIP : null, createToc, compressionBlockBytes);
+    }
+
+    public static RecordWriter newSchemaRecordWriter(final File file, final AtomicLong idGenerator, final EventFileCodec codec, final boolean createToc) throws IOException {
+        return newSchemaRecordWriter(file, idGenerator, codec, createToc, DEFAULT_COMPRESSION_BLOCK_SIZE);
+    }
+
+    public static RecordWriter newSchemaRecordWriter(final File file, final AtomicLong idGenerator, final EventFileCodec codec, final boolean createToc,
+        final int compressionBlockBytes) throws IOException {
+        final TocWriter tocWriter = createToc ? new StandardTocWriter(TocUtil.getTocFile(file), codec, false) : null;
+        return new ByteArraySchemaRecordWriter(file, idGenerator, tocWriter, codec, compressionBlockBytes);
     }
 
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Compresses Event Files using Zstandard. At its default level, Zstandard compresses faster than GZIP while
+ * achieving a better compression ratio, and it decompresses considerably faster.
+ */
+public class ZstdEventFileCodec implements EventFileCodec {
+    public static final String NAME = "zstd";
+    public static final int IDENTIFIER = 3;
+
+    private static final int COMPRESSION_LEVEL = 3;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getIdentifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return ".zst";
+    }
+
+    @Override
+    public OutputStream compress(final OutputStream out) throws IOException {
+        return new ZstdOutputStream(out, COMPRESSION_LEVEL);
+    }
+
+    @Override
+    public InputStream decompress(final InputStream in) throws IOException {
+        return new ZstdInputStream(in);
+    }
+
+    @Override
+    public String toString() {
+        return "Zstandard Event File Codec";
+    }
+}
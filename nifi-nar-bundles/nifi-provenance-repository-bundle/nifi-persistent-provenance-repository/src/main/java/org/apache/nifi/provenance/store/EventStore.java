@@ -27,6 +27,7 @@ import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
 
 /**
  * <p>
@@ -102,6 +103,18 @@ public interface EventStore extends Closeable {
      */
     List<ProvenanceEventRecord> getEvents(long firstRecordId, int maxRecords, EventAuthorizer authorizer, EventTransformer unauthorizedTransformer) throws IOException;
 
+    /**
+     * Returns an {@link EventIterator} that iterates over all events in the store, beginning with the event whose ID is equal to
+     * firstRecordId, or the oldest event whose ID is greater than firstRecordId if that event cannot be found. Events are provided
+     * in ascending order of their Event ID's and are read from storage as the iterator advances, so that any number of events can
+     * be iterated over without holding them in memory. The iterator must be closed once it is no longer needed.
+     *
+     * @param firstRecordId the ID of the first event to retrieve
+     * @return an EventIterator over the events in the store
+     * @throws IOException if unable to read events from the store
+     */
+    EventIterator createEventIterator(long firstRecordId) throws IOException;
+
     /**
      * Given a List of Event ID's, returns a List of Provenance Events that contain the events that have those corresponding
      * Event ID's. If any events cannot be found, a warning will be logged but no Exception will be thrown.
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.iterator;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.apache.nifi.provenance.ProvenanceEventCursor;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+
+/**
+ * A {@link ProvenanceEventCursor} that reads events directly from an {@link EventIterator}. Events that the given
+ * authorizer does not authorize or that do not match the filter are skipped, but are still taken into account by
+ * {@link #getLastEventIdRead()}.
+ */
+public class EventIteratorCursor implements ProvenanceEventCursor {
+    private final EventIterator iterator;
+    private final EventAuthorizer authorizer;
+    private final Predicate<ProvenanceEventRecord> filter;
+
+    private long lastEventIdRead = -1L;
+
+    public EventIteratorCursor(final EventIterator iterator, final EventAuthorizer authorizer, final Predicate<ProvenanceEventRecord> filter) {
+        this.iterator = iterator;
+        this.authorizer = authorizer == null ? EventAuthorizer.GRANT_ALL : authorizer;
+        this.filter = filter;
+    }
+
+    @Override
+    public ProvenanceEventRecord nextEvent() throws IOException {
+        while (true) {
+            final Optional<ProvenanceEventRecord> option = iterator.nextEvent();
+            if (!option.isPresent()) {
+                return null;
+            }
+
+            final ProvenanceEventRecord event = option.get();
+            lastEventIdRead = event.getEventId();
+
+            if ((filter == null || filter.test(event)) && authorizer.isAuthorized(event)) {
+                return event;
+            }
+        }
+    }
+
+    @Override
+    public long getLastEventIdRead() {
+        return lastEventIdRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        iterator.close();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.store.iterator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Combines several EventIterators, each of which provides events in ascending order of Event ID, into a single
+ * EventIterator that provides all of their events in ascending order of Event ID. Only the next event from each
+ * of the underlying iterators is held in memory.
+ */
+public class MergingEventIterator implements EventIterator {
+    private static final Logger logger = LoggerFactory.getLogger(MergingEventIterator.class);
+
+    // The key is the next event available from an iterator and the value is the EventIterator from which the event came. This sorted map
+    // is used so that we are always able to get the first entry, which is the next lowest event id among all iterators.
+    private final SortedMap<ProvenanceEventRecord, EventIterator> eventToIteratorMap = new TreeMap<>(
+        (o1, o2) -> Long.compare(o1.getEventId(), o2.getEventId()));
+    private final List<EventIterator> iterators;
+
+    public MergingEventIterator(final Collection<EventIterator> iterators) throws IOException {
+        this.iterators = new ArrayList<>(iterators);
+
+        // Seed our map with the first event from each iterator.
+        try {
+            for (final EventIterator iterator : this.iterators) {
+                final Optional<ProvenanceEventRecord> option = iterator.nextEvent();
+                if (option.isPresent()) {
+                    eventToIteratorMap.put(option.get(), iterator);
+                }
+            }
+        } catch (final IOException ioe) {
+            close();
+            throw ioe;
+        }
+    }
+
+    @Override
+    public Optional<ProvenanceEventRecord> nextEvent() throws IOException {
+        if (eventToIteratorMap.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Take the event with the next-lowest ID, then read the next event from the same EventIterator that this event came from.
+        // This ensures that our map is always populated with the next event for each EventIterator, which also ensures that the
+        // first key in our map is the event with the lowest ID (since all events from a given EventIterator have monotonically
+        // increasing Event ID's).
+        final ProvenanceEventRecord nextEvent = eventToIteratorMap.firstKey();
+        final EventIterator iterator = eventToIteratorMap.remove(nextEvent);
+        final Optional<ProvenanceEventRecord> nextEventFromIterator = iterator.nextEvent();
+        if (nextEventFromIterator.isPresent()) {
+            eventToIteratorMap.put(nextEventFromIterator.get(), iterator);
+        }
+
+        return Optional.of(nextEvent);
+    }
+
+    @Override
+    public void close() {
+        eventToIteratorMap.clear();
+
+        // Ensure that we close all record readers that have been created
+        for (final EventIterator iterator : iterators) {
+            try {
+                iterator.close();
+            } catch (final Exception e) {
+                if (logger.isDebugEnabled()) {
+                    logger.warn("Failed to close Record Reader {}", iterator, e);
+                } else {
+                    logger.warn("Failed to close Record Reader {}", iterator);
+                }
+            }
+        }
+    }
+}
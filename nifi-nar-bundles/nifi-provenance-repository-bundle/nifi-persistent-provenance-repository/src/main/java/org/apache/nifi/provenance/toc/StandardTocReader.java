@@ -21,6 +21,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.apache.nifi.stream.io.StreamUtils;
 
 /**
@@ -29,14 +31,14 @@ import org.apache.nifi.stream.io.StreamUtils;
  * Expects .toc file to be in the following format;
  *
  * byte 0: version
- * byte 1: boolean: compressionFlag -> 0 = journal is NOT compressed, 1 = journal is compressed
+ * byte 1: compression codec -> 0 = journal is NOT compressed, otherwise the identifier of the {@link EventFileCodec} that the journal is compressed with
  * byte 2-9: long: offset of block 0
  * byte 10-17: long: offset of block 1
  * ...
  * byte (N*8+2)-(N*8+9): long: offset of block N
  */
 public class StandardTocReader implements TocReader {
-    private final boolean compressed;
+    private final EventFileCodec codec;
     private final long[] offsets;
     private final long[] firstEventIds;
     private final File file;
@@ -55,13 +57,11 @@ public class StandardTocReader implements TocReader {
             final int version = buffer[0];
             final int compressionFlag = buffer[1];
 
-            if ( compressionFlag == 0 ) {
-                compressed = false;
-            } else if ( compressionFlag == 1 ) {
-                compressed = true;
-            } else {
+            try {
+                codec = EventFileCodecs.forIdentifier(compressionFlag);
+            } catch (final IllegalArgumentException iae) {
                 throw new IOException("Table of Contents file " + file + " appears to be corrupt: could not read 'compression flag' from header; "
-                    + "expected value of 0 or 1 but got " + compressionFlag);
+                    + "expected value of 0 or a known compression codec identifier but got " + compressionFlag);
             }
 
             final int blockInfoBytes;
@@ -110,7 +110,12 @@ public class StandardTocReader implements TocReader {
 
     @Override
     public boolean isCompressed() {
-        return compressed;
+        return codec != null;
+    }
+
+    @Override
+    public EventFileCodec getCompressionCodec() {
+        return codec;
     }
 
     @Override
@@ -186,6 +191,6 @@ public class StandardTocReader implements TocReader {
 
     @Override
     public String toString() {
-        return "StandardTocReader[file=" + file + ", compressed=" + compressed + "]";
+        return "StandardTocReader[file=" + file + ", codec=" + codec + "]";
     }
 }
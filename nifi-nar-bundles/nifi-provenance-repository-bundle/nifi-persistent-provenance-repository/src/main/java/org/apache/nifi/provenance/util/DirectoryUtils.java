@@ -27,10 +27,12 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.serialization.EventFileCodec;
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 
 public class DirectoryUtils {
 
-    public static final FileFilter EVENT_FILE_FILTER = f -> f.getName().endsWith(".prov") || f.getName().endsWith(".prov.gz");
+    public static final FileFilter EVENT_FILE_FILTER = f -> isEventFile(f.getName());
     public static final FileFilter INDEX_FILE_FILTER = f -> f.getName().startsWith("index-");
     public static final Comparator<File> SMALLEST_ID_FIRST = (a, b) -> Long.compare(getMinId(a), getMinId(b));
     public static final Comparator<File> LARGEST_ID_FIRST = SMALLEST_ID_FIRST.reversed();
@@ -47,6 +49,19 @@ public class DirectoryUtils {
             .collect(Collectors.toList());
     }
 
+    /**
+     * @param filename the name of a file in a storage directory
+     * @return <code>true</code> if the file is a Provenance Event File, whether or not it has been compressed
+     */
+    public static boolean isEventFile(final String filename) {
+        if (filename.endsWith(".prov")) {
+            return true;
+        }
+
+        final EventFileCodec codec = EventFileCodecs.forFilename(filename);
+        return codec != null && filename.endsWith(".prov" + codec.getFileExtension());
+    }
+
     public static long getMinId(final File file) {
         final String filename = file.getName();
         final int firstDotIndex = filename.indexOf(".");
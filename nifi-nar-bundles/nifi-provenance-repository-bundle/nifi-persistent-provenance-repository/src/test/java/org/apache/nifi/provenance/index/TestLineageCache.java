@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.junit.Test;
+
+public class TestLineageCache {
+
+    @Test
+    public void testCompletedLineageIsReused() {
+        final LineageCache cache = new LineageCache(1, TimeUnit.MINUTES, 10);
+        final AsyncLineageSubmission original = createSubmission(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test");
+        cache.register(original);
+
+        // the computation has not yet completed
+        assertNull(cache.get(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test"));
+
+        original.getResult().update(Collections.singletonList(createEvent(5L, "1234")), 1L);
+
+        final AsyncLineageSubmission cached = cache.get(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test");
+        assertNotNull(cached);
+        assertNotEquals(original.getLineageIdentifier(), cached.getLineageIdentifier());
+        assertTrue(cached.getResult().isFinished());
+        assertEquals(original.getResult().getNodes().size(), cached.getResult().getNodes().size());
+        assertEquals("unit test", cached.getSubmitterIdentity());
+        assertEquals(Long.valueOf(5L), cached.getExpandedEventId());
+    }
+
+    @Test
+    public void testLineageIsNotSharedBetweenUsersOrComputationTypes() {
+        final LineageCache cache = new LineageCache(1, TimeUnit.MINUTES, 10);
+        final AsyncLineageSubmission original = createSubmission(LineageComputationType.EXPAND_CHILDREN, 5L, "unit test");
+        cache.register(original);
+        original.getResult().update(Collections.singletonList(createEvent(5L, "1234")), 1L);
+
+        assertNotNull(cache.get(LineageComputationType.EXPAND_CHILDREN, 5L, "unit test"));
+        assertNull(cache.get(LineageComputationType.EXPAND_CHILDREN, 5L, "other user"));
+        assertNull(cache.get(LineageComputationType.EXPAND_PARENTS, 5L, "unit test"));
+        assertNull(cache.get(LineageComputationType.EXPAND_CHILDREN, 6L, "unit test"));
+    }
+
+    @Test
+    public void testFailedAndExpiredLineageIsNotReused() throws InterruptedException {
+        final LineageCache cache = new LineageCache(1, TimeUnit.MINUTES, 10);
+        final AsyncLineageSubmission failed = createSubmission(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test");
+        cache.register(failed);
+        failed.getResult().setError("Intentional Unit Test Failure");
+        assertNull(cache.get(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test"));
+        assertEquals(0, cache.size());
+
+        final LineageCache expiringCache = new LineageCache(1, TimeUnit.MILLISECONDS, 10);
+        final AsyncLineageSubmission expired = createSubmission(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test");
+        expiringCache.register(expired);
+        expired.getResult().update(Collections.singletonList(createEvent(5L, "1234")), 1L);
+        Thread.sleep(10L);
+        assertNull(expiringCache.get(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test"));
+        assertEquals(0, expiringCache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        final LineageCache cache = new LineageCache(1, TimeUnit.MINUTES, 2);
+        for (long eventId = 0; eventId < 3; eventId++) {
+            final AsyncLineageSubmission submission = createSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, "unit test");
+            cache.register(submission);
+            submission.getResult().update(Collections.singletonList(createEvent(eventId, "1234")), 1L);
+        }
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(LineageComputationType.FLOWFILE_LINEAGE, 0L, "unit test"));
+        assertNotNull(cache.get(LineageComputationType.FLOWFILE_LINEAGE, 1L, "unit test"));
+        assertNotNull(cache.get(LineageComputationType.FLOWFILE_LINEAGE, 2L, "unit test"));
+    }
+
+    @Test
+    public void testCacheDisabled() {
+        final LineageCache cache = new LineageCache(0, TimeUnit.SECONDS, 10);
+        final AsyncLineageSubmission submission = createSubmission(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test");
+        cache.register(submission);
+        submission.getResult().update(Collections.singletonList(createEvent(5L, "1234")), 1L);
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(LineageComputationType.FLOWFILE_LINEAGE, 5L, "unit test"));
+    }
+
+    private AsyncLineageSubmission createSubmission(final LineageComputationType computationType, final long eventId, final String userId) {
+        return new AsyncLineageSubmission(computationType, eventId, Collections.singleton("1234"), 1, userId);
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final String uuid) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.CONTENT_MODIFIED)
+            .setAttributes(previousAttributes, Collections.emptyMap())
+            .setComponentId("component-1")
+            .setComponentType("unit test")
+            .setEventId(eventId)
+            .setEventTime(System.currentTimeMillis())
+            .setFlowFileEntryDate(System.currentTimeMillis())
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(System.currentTimeMillis())
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+            .build();
+    }
+}
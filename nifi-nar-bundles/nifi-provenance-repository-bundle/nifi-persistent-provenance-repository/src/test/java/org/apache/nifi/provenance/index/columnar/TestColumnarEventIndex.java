@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageNode;
+import org.apache.nifi.provenance.lineage.LineageNodeType;
+import org.apache.nifi.provenance.lineage.ProvenanceEventLineageNode;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.ArrayListEventStore;
+import org.apache.nifi.provenance.store.StorageResult;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+public class TestColumnarEventIndex {
+
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Test(timeout = 60000)
+    public void testQueryByComponentAndTime() throws IOException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = new ColumnarEventIndex(createConfig(), EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                addEvent(index, eventStore, createEvent(1000L + i, UUID.randomUUID().toString(), "component-" + (i % 4), "true"));
+            }
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "COMPONENT-2"));
+            query.setStartDate(new Date(1010L));
+            query.setEndDate(new Date(1050L));
+            query.setMaxResults(100);
+
+            final List<ProvenanceEventRecord> events = submitQuery(index, query);
+            assertEquals(11, events.size());
+            for (final ProvenanceEventRecord event : events) {
+                assertEquals("component-2", event.getComponentId());
+                assertTrue(event.getEventTime() >= 1010L && event.getEventTime() <= 1050L);
+            }
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testQueryReturnsNewestEvents() throws InterruptedException, IOException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = new ColumnarEventIndex(createConfig(), EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 50; i++) {
+                addEvent(index, eventStore, createEvent(1000L + i, UUID.randomUUID().toString(), "component-1", "true"));
+            }
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.EventType, "content_modified"));
+            query.setMaxResults(5);
+
+            final QuerySubmission submission = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test");
+            assertTrue(submission.getResult().awaitCompletion(5, TimeUnit.SECONDS));
+
+            final List<Long> eventIds = submission.getResult().getMatchingEvents().stream()
+                .map(ProvenanceEventRecord::getEventId)
+                .sorted()
+                .collect(Collectors.toList());
+            assertEquals(Arrays.asList(45L, 46L, 47L, 48L, 49L), eventIds);
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWildcardAndAttributeSearch() throws IOException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = new ColumnarEventIndex(createConfig(), EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 40; i++) {
+                final String componentId = (i % 2 == 0 ? "generate-" : "update-") + i;
+                addEvent(index, eventStore, createEvent(1000L + i, UUID.randomUUID().toString(), componentId, String.valueOf(i % 4 == 0)));
+            }
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "GENERATE-*"));
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.newSearchableAttribute("updated"), "TRUE"));
+            query.setMaxResults(100);
+
+            final List<ProvenanceEventRecord> events = submitQuery(index, query);
+            assertEquals(10, events.size());
+            for (final ProvenanceEventRecord event : events) {
+                assertTrue(event.getComponentId().startsWith("generate-"));
+                assertEquals("true", event.getAttribute("updated"));
+            }
+
+            // Relationship is not a searchable field, so a term for it must not match anything.
+            final Query relationshipQuery = new Query(UUID.randomUUID().toString());
+            relationshipQuery.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.Relationship, "*"));
+            assertTrue(submitQuery(index, relationshipQuery).isEmpty());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testSealedSegmentsAreRecoveredOnRestart() throws IOException {
+        final RepositoryConfiguration config = createConfig();
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final String uuid = UUID.randomUUID().toString();
+
+        ColumnarEventIndex index = new ColumnarEventIndex(config, EventReporter.NO_OP);
+        index.initialize(eventStore);
+        try {
+            assertEquals(0L, index.getMinimumEventIdToReindex("1"));
+
+            for (int i = 0; i < 20; i++) {
+                final String location = i < 10 ? "1.prov" : "2.prov";
+                addEvent(index, eventStore, createEvent(1000L + i, i % 5 == 0 ? uuid : UUID.randomUUID().toString(), "component-1", "true"), location);
+            }
+
+            // Events in the sealed segment as well as the in-memory segment must be found.
+            index.commitChanges("1");
+            addEvent(index, eventStore, createEvent(2000L, uuid, "component-1", "true"), "3.prov");
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, uuid));
+            assertEquals(5, submitQuery(index, query).size());
+            assertEquals(20L, index.getMinimumEventIdToReindex("1"));
+            assertTrue(index.getSize() > 0L);
+        } finally {
+            index.close();
+        }
+
+        final File indexDir = new File(config.getStorageDirectories().get("1"), ColumnarEventIndex.INDEX_DIRECTORY_NAME);
+        assertEquals(3, indexDir.listFiles().length);
+
+        index = new ColumnarEventIndex(config, EventReporter.NO_OP);
+        index.initialize(eventStore);
+        try {
+            assertEquals(21L, index.getMinimumEventIdToReindex("1"));
+
+            final Query query = new Query(UUID.randomUUID().toString());
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, uuid));
+            query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "component-1"));
+            query.setEndDate(new Date(1999L));
+            assertEquals(4, submitQuery(index, query).size());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testUnauthorizedEventsGetPlaceholdersForLineage() throws InterruptedException, IOException {
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final ColumnarEventIndex index = new ColumnarEventIndex(createConfig(), EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                addEvent(index, eventStore, createEvent(System.currentTimeMillis(), "1234", "component-1", "true"));
+            }
+            addEvent(index, eventStore, createEvent(System.currentTimeMillis(), "5678", "component-1", "true"));
+
+            final ComputeLineageSubmission submission = index.submitLineageComputation(1L, createUser(), EventAuthorizer.DENY_ALL);
+            assertTrue(submission.getResult().awaitCompletion(5, TimeUnit.SECONDS));
+
+            final List<LineageNode> nodes = submission.getResult().getNodes();
+            assertEquals(3, nodes.size());
+
+            for (final LineageNode node : nodes) {
+                assertEquals(LineageNodeType.PROVENANCE_EVENT_NODE, node.getNodeType());
+                final ProvenanceEventLineageNode eventNode = (ProvenanceEventLineageNode) node;
+                assertEquals(ProvenanceEventType.UNKNOWN, eventNode.getEventType());
+            }
+        } finally {
+            index.close();
+        }
+    }
+
+    private List<ProvenanceEventRecord> submitQuery(final ColumnarEventIndex index, final Query query) {
+        final QuerySubmission submission = index.submitQuery(query, EventAuthorizer.GRANT_ALL, "unit test");
+        try {
+            assertTrue(submission.getResult().awaitCompletion(5, TimeUnit.SECONDS));
+        } catch (final InterruptedException ie) {
+            throw new AssertionError(ie);
+        }
+        return submission.getResult().getMatchingEvents();
+    }
+
+    private void addEvent(final ColumnarEventIndex index, final ArrayListEventStore eventStore, final ProvenanceEventRecord event) {
+        final StorageResult storageResult = eventStore.addEvent(event);
+        index.addEvents(storageResult.getStorageLocations());
+    }
+
+    private void addEvent(final ColumnarEventIndex index, final ArrayListEventStore eventStore, final ProvenanceEventRecord event, final String location) {
+        final StorageSummary summary = eventStore.addEvent(event).getStorageLocations().values().iterator().next();
+        index.addEvents(Collections.singletonMap(event, new StorageSummary(summary.getEventId(), location, "1", 1, 0L, 0L)));
+    }
+
+    private NiFiUser createUser() {
+        return new NiFiUser() {
+            @Override
+            public String getIdentity() {
+                return "unit test";
+            }
+
+            @Override
+            public Set<String> getGroups() {
+                return Collections.emptySet();
+            }
+
+            @Override
+            public NiFiUser getChain() {
+                return null;
+            }
+
+            @Override
+            public boolean isAnonymous() {
+                return false;
+            }
+
+            @Override
+            public String getClientAddress() {
+                return "127.0.0.1";
+            }
+        };
+    }
+
+    private RepositoryConfiguration createConfig() {
+        final RepositoryConfiguration config = new RepositoryConfiguration();
+        final File storageDir = new File("target/storage/" + testName.getMethodName() + "/" + UUID.randomUUID().toString());
+        config.addStorageDirectory("1", storageDir);
+        config.setIndexType(RepositoryConfiguration.COLUMNAR_INDEX_TYPE);
+        config.setSearchableFields(Arrays.asList(SearchableFields.FlowFileUUID, SearchableFields.ComponentID, SearchableFields.EventType, SearchableFields.EventTime));
+        config.setSearchableAttributes(Collections.singletonList(SearchableFields.newSearchableAttribute("updated")));
+
+        assertTrue(storageDir.exists() || storageDir.mkdirs());
+        return config;
+    }
+
+    private ProvenanceEventRecord createEvent(final long timestamp, final String uuid, final String componentId, final String updated) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+        final Map<String, String> updatedAttributes = new HashMap<>();
+        updatedAttributes.put("updated", updated);
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.CONTENT_MODIFIED)
+            .setAttributes(previousAttributes, updatedAttributes)
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventId(idGenerator.getAndIncrement())
+            .setEventTime(timestamp)
+            .setFlowFileEntryDate(timestamp)
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(timestamp)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L)
+            .build();
+    }
+}
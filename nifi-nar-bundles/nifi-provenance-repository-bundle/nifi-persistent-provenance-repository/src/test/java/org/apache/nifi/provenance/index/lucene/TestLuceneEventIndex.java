@@ -337,6 +337,55 @@ public class TestLuceneEventIndex {
         assertEquals(2, events.size());
     }
 
+    @Test(timeout = 60000)
+    public void testExpandChildrenOfForkWithManyChildren() throws InterruptedException {
+        assumeFalse(isWindowsEnvironment());
+        final RepositoryConfiguration repoConfig = createConfig(1);
+        repoConfig.setDesiredIndexSize(1L);
+        final IndexManager indexManager = new SimpleIndexManager(repoConfig);
+
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        final LuceneEventIndex index = new LuceneEventIndex(repoConfig, indexManager, 3, EventReporter.NO_OP);
+        index.initialize(eventStore);
+
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", "4444");
+        final StandardProvenanceEventRecord.Builder forkBuilder = new StandardProvenanceEventRecord.Builder()
+                .setEventType(ProvenanceEventType.FORK)
+                .setAttributes(previousAttributes, Collections.emptyMap())
+                .setComponentId("component-1")
+                .setComponentType("unit test")
+                .setEventId(idGenerator.getAndIncrement())
+                .setEventTime(System.currentTimeMillis())
+                .setFlowFileEntryDate(System.currentTimeMillis())
+                .setFlowFileUUID("4444")
+                .setLineageStartDate(System.currentTimeMillis())
+                .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+
+        // More children than Lucene allows clauses in a single Boolean Query
+        final int numChildren = 2500;
+        for (int i = 0; i < numChildren; i++) {
+            forkBuilder.addChildFlowFile(UUID.randomUUID().toString());
+        }
+
+        index.addEvents(eventStore.addEvent(forkBuilder.build()).getStorageLocations());
+
+        final NiFiUser user = createUser();
+
+        List<LineageNode> nodes = Collections.emptyList();
+        while (nodes.isEmpty()) {
+            final ComputeLineageSubmission submission = index.submitExpandChildren(0L, user, EventAuthorizer.GRANT_ALL);
+            assertTrue(submission.getResult().awaitCompletion(15, TimeUnit.SECONDS));
+            assertNull(submission.getResult().getError());
+
+            nodes = submission.getResult().getNodes();
+            Thread.sleep(25L);
+        }
+
+        assertEquals(1L, nodes.stream().filter(n -> n.getNodeType() == LineageNodeType.PROVENANCE_EVENT_NODE).count());
+        assertEquals(numChildren, nodes.stream().filter(n -> n.getNodeType() == LineageNodeType.FLOWFILE_NODE).count());
+    }
+
     private NiFiUser createUser() {
         return new NiFiUser() {
             @Override
@@ -507,6 +556,9 @@ public class TestLuceneEventIndex {
         config.setSearchableFields(Collections.singletonList(SearchableFields.FlowFileUUID));
         config.setSearchableAttributes(Collections.singletonList(SearchableFields.newSearchableAttribute("updated")));
 
+        // lineage is computed repeatedly while events are still being indexed, so results must not be cached
+        config.setLineageCacheExpiration(0L, TimeUnit.SECONDS);
+
         for (final File file : config.getStorageDirectories().values()) {
             assertTrue(file.exists() || file.mkdirs());
         }
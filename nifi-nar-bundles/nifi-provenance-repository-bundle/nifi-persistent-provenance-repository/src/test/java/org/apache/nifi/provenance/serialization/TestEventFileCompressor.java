@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.TestUtil;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.apache.nifi.provenance.toc.TocWriter;
+import org.apache.nifi.provenance.util.DirectoryUtils;
+import org.apache.nifi.util.file.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEventFileCompressor {
+    private static final int EVENTS_PER_FILE = 1000;
+
+    private File storageDir;
+
+    @Before
+    public void setup() {
+        storageDir = new File("target/storage/" + UUID.randomUUID().toString());
+        storageDir.mkdirs();
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        FileUtils.deleteFile(storageDir, true);
+    }
+
+    @Test
+    public void testCompressAndReadWithEachCodec() throws IOException {
+        long firstEventId = 0L;
+        for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+            final File compressed = writeCompressedEventFile(firstEventId, codec);
+            assertTrue(compressed.getName().endsWith(".prov" + codec.getFileExtension()));
+
+            try (final TocReader tocReader = new StandardTocReader(TocUtil.getTocFile(compressed))) {
+                assertTrue(tocReader.isCompressed());
+                assertSame(codec, tocReader.getCompressionCodec());
+            }
+
+            try (final RecordReader reader = RecordReaders.newRecordReader(compressed, null, 65536)) {
+                for (int i = 0; i < EVENTS_PER_FILE; i++) {
+                    final StandardProvenanceEventRecord event = reader.nextRecord();
+                    assertNotNull(event);
+                    assertEquals(firstEventId + i, event.getEventId());
+                }
+
+                assertNull(reader.nextRecord());
+            }
+
+            firstEventId += EVENTS_PER_FILE;
+        }
+    }
+
+    @Test
+    public void testSkipToEventInCompressedBlock() throws IOException {
+        for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+            final File compressed = writeCompressedEventFile(0L, codec);
+
+            try (final RecordReader reader = RecordReaders.newRecordReader(compressed, null, 65536)) {
+                assertTrue(reader.getTocReader().getBlockOffset(2) > 0);
+
+                for (final long eventId : new long[] {3L, 250L, 251L, 700L, 999L}) {
+                    final Optional<ProvenanceEventRecord> event = reader.skipToEvent(eventId);
+                    assertTrue(event.isPresent());
+                    assertEquals(eventId, event.get().getEventId());
+                    assertEquals(eventId, reader.nextRecord().getEventId());
+                }
+            }
+
+            cleanup();
+            setup();
+        }
+    }
+
+    @Test
+    public void testReadRepositoryWithMixedCodecs() throws IOException {
+        final List<File> uncompressedFiles = new ArrayList<>();
+        long firstEventId = 0L;
+        for (final EventFileCodec codec : EventFileCodecs.getCodecs()) {
+            writeCompressedEventFile(firstEventId, codec);
+            uncompressedFiles.add(new File(storageDir, firstEventId + ".prov"));
+            firstEventId += EVENTS_PER_FILE;
+        }
+
+        final File uncompressed = writeEventFile(firstEventId);
+        uncompressedFiles.add(uncompressed);
+        assertTrue(DirectoryUtils.isEventFile(uncompressed.getName()));
+
+        final File[] eventFiles = storageDir.listFiles(DirectoryUtils.EVENT_FILE_FILTER);
+        assertNotNull(eventFiles);
+        assertEquals(uncompressedFiles.size(), eventFiles.length);
+
+        // The name of the uncompressed file is resolved to whichever compressed version of it exists
+        long expectedEventId = 0L;
+        for (final File file : uncompressedFiles) {
+            try (final RecordReader reader = RecordReaders.newRecordReader(file, null, 65536)) {
+                StandardProvenanceEventRecord event;
+                while ((event = reader.nextRecord()) != null) {
+                    assertEquals(expectedEventId++, event.getEventId());
+                }
+            }
+        }
+
+        assertEquals(firstEventId + EVENTS_PER_FILE, expectedEventId);
+    }
+
+    @Test
+    public void testCodecLookups() {
+        assertSame(EventFileCodecs.LZ4, EventFileCodecs.forName("LZ4"));
+        assertSame(EventFileCodecs.ZSTD, EventFileCodecs.forIdentifier(ZstdEventFileCodec.IDENTIFIER));
+        assertSame(EventFileCodecs.GZIP, EventFileCodecs.forFilename("10.prov.gz"));
+        assertNull(EventFileCodecs.forFilename("10.prov"));
+        assertNull(EventFileCodecs.forIdentifier(EventFileCodecs.UNCOMPRESSED_IDENTIFIER));
+        assertFalse(DirectoryUtils.isEventFile("10.toc"));
+        assertFalse(DirectoryUtils.isEventFile("archive.tar.gz"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownCodecName() {
+        EventFileCodecs.forName("snappy");
+    }
+
+    private File writeEventFile(final long firstEventId) throws IOException {
+        final File eventFile = new File(storageDir, firstEventId + ".prov");
+        final AtomicLong idGenerator = new AtomicLong(firstEventId);
+
+        // Use a small block size so that the file consists of several blocks that are compressed independently
+        try (final RecordWriter writer = RecordWriters.newSchemaRecordWriter(eventFile, idGenerator, (EventFileCodec) null, true, 16 * 1024)) {
+            writer.writeHeader(firstEventId);
+            for (int i = 0; i < EVENTS_PER_FILE; i++) {
+                writer.writeRecord(TestUtil.createEvent());
+            }
+        }
+
+        return eventFile;
+    }
+
+    private File writeCompressedEventFile(final long firstEventId, final EventFileCodec codec) throws IOException {
+        final File eventFile = writeEventFile(firstEventId);
+        final File tocFile = TocUtil.getTocFile(eventFile);
+        final File tmpTocFile = new File(tocFile.getParentFile(), tocFile.getName() + ".tmp");
+        final File compressed = new File(storageDir, eventFile.getName() + codec.getFileExtension());
+
+        try (final TocReader tocReader = new StandardTocReader(tocFile);
+            final TocWriter tocWriter = new StandardTocWriter(tmpTocFile, codec, false)) {
+            EventFileCompressor.compress(eventFile, tocReader, compressed, tocWriter, codec);
+        }
+
+        assertTrue(eventFile.delete());
+        assertTrue(tocFile.delete());
+        assertTrue(tmpTocFile.renameTo(tocFile));
+        return compressed;
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.index.EventIndex;
 import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -120,6 +121,26 @@ public class ArrayListEventStore implements EventStore {
         return events;
     }
 
+    @Override
+    public EventIterator createEventIterator(final long firstRecordId) {
+        final AtomicLong nextId = new AtomicLong(Math.max(0L, firstRecordId));
+        return new EventIterator() {
+            @Override
+            public Optional<ProvenanceEventRecord> nextEvent() throws IOException {
+                final Optional<ProvenanceEventRecord> eventOption = getEvent(nextId.get());
+                if (eventOption.isPresent()) {
+                    nextId.incrementAndGet();
+                }
+
+                return eventOption;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
     @Override
     public List<ProvenanceEventRecord> getEvents(final List<Long> eventIds, final EventAuthorizer authorizer, final EventTransformer transformer) {
         final List<ProvenanceEventRecord> events = new ArrayList<>();
@@ -30,15 +30,18 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import org.apache.nifi.authorization.AccessDeniedException;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.EventIdFirstSchemaRecordWriter;
 import org.apache.nifi.provenance.IdentifierLookup;
+import org.apache.nifi.provenance.ProvenanceEventCursor;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.RepositoryConfiguration;
@@ -48,6 +51,8 @@ import org.apache.nifi.provenance.authorization.EventTransformer;
 import org.apache.nifi.provenance.serialization.RecordReaders;
 import org.apache.nifi.provenance.serialization.RecordWriters;
 import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.iterator.EventIterator;
+import org.apache.nifi.provenance.store.iterator.EventIteratorCursor;
 import org.apache.nifi.provenance.toc.StandardTocWriter;
 import org.apache.nifi.provenance.toc.TocUtil;
 import org.apache.nifi.provenance.toc.TocWriter;
@@ -280,6 +285,75 @@ public class TestPartitionedWriteAheadEventStore {
         assertTrue(store.getEvents(numEvents, 100).isEmpty());
     }
 
+    @Test
+    public void testCreateEventIteratorAcrossPartitions() throws IOException {
+        final RepositoryConfiguration config = createConfig(3);
+        config.setMaxEventFileCount(100);
+        final PartitionedWriteAheadEventStore store = new PartitionedWriteAheadEventStore(config, writerFactory, readerFactory, EventReporter.NO_OP, new EventFileManager());
+        store.initialize();
+
+        final int numEvents = 10_000;
+        for (int i = 0; i < numEvents; i++) {
+            store.addEvents(Collections.singleton(createEvent()));
+        }
+
+        try (final EventIterator iterator = store.createEventIterator(2500L)) {
+            long expectedId = 2500L;
+            Optional<ProvenanceEventRecord> event;
+            while ((event = iterator.nextEvent()).isPresent()) {
+                assertEquals(expectedId++, event.get().getEventId());
+            }
+
+            assertEquals(numEvents, expectedId);
+        }
+
+        try (final EventIterator iterator = store.createEventIterator(numEvents)) {
+            assertFalse(iterator.nextEvent().isPresent());
+        }
+    }
+
+    @Test
+    public void testEventIteratorCursorFiltersAndAuthorizes() throws IOException {
+        final RepositoryConfiguration config = createConfig();
+        final PartitionedWriteAheadEventStore store = new PartitionedWriteAheadEventStore(config, writerFactory, readerFactory, EventReporter.NO_OP, new EventFileManager());
+        store.initialize();
+
+        final int numEvents = 100;
+        for (int i = 0; i < numEvents; i++) {
+            store.addEvents(Collections.singleton(createEvent()));
+        }
+
+        final EventAuthorizer allowEvenNumberedEventIds = new EventAuthorizer() {
+            @Override
+            public boolean isAuthorized(final ProvenanceEventRecord event) {
+                return event.getEventId() % 2 == 0L;
+            }
+
+            @Override
+            public void authorize(ProvenanceEventRecord event) throws AccessDeniedException {
+                if (!isAuthorized(event)) {
+                    throw new AccessDeniedException();
+                }
+            }
+        };
+
+        // Only every fourth event is both authorized and matches the filter
+        final Predicate<ProvenanceEventRecord> filter = event -> event.getEventId() % 4 == 0L;
+        try (final ProvenanceEventCursor cursor = new EventIteratorCursor(store.createEventIterator(10L), allowEvenNumberedEventIds, filter)) {
+            assertEquals(-1L, cursor.getLastEventIdRead());
+            assertEquals(12L, cursor.nextEvent().getEventId());
+            assertEquals(12L, cursor.getLastEventIdRead());
+
+            int count = 1;
+            while (cursor.nextEvent() != null) {
+                count++;
+            }
+
+            assertEquals(22, count);
+            assertEquals(numEvents - 1, cursor.getLastEventIdRead());
+        }
+    }
+
     @Test
     public void testGetEventsWithMinIdAndCountWithAuthorizer() throws IOException {
         final RepositoryConfiguration config = createConfig();
@@ -18,6 +18,7 @@ package org.apache.nifi.provenance.toc;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.DataOutputStream;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.UUID;
 
+import org.apache.nifi.provenance.serialization.EventFileCodecs;
 import org.junit.Test;
 
 public class TestStandardTocReader {
@@ -62,6 +64,38 @@ public class TestStandardTocReader {
         }
     }
 
+    @Test
+    public void testDetectsCompressionCodec() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID().toString());
+        try (final OutputStream out = new FileOutputStream(file)) {
+            out.write(2);
+            out.write(EventFileCodecs.LZ4.getIdentifier());
+        }
+
+        try {
+            try(final StandardTocReader reader = new StandardTocReader(file)) {
+                assertTrue(reader.isCompressed());
+                assertSame(EventFileCodecs.LZ4, reader.getCompressionCodec());
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownCompressionCodec() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID().toString());
+        try (final OutputStream out = new FileOutputStream(file)) {
+            out.write(2);
+            out.write(42);
+        }
+
+        try {
+            new StandardTocReader(file).close();
+        } finally {
+            file.delete();
+        }
+    }
 
     @Test
     public void testGetBlockIndexV1() throws IOException {
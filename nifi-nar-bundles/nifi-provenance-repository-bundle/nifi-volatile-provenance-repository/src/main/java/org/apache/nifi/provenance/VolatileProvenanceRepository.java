@@ -26,6 +26,9 @@ import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.attributes.CoreAttributes;
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.buffer.HeapProvenanceEventBuffer;
+import org.apache.nifi.provenance.buffer.OffHeapProvenanceEventBuffer;
+import org.apache.nifi.provenance.buffer.ProvenanceEventBuffer;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lineage.FlowFileLineage;
 import org.apache.nifi.provenance.lineage.Lineage;
@@ -36,10 +39,8 @@ import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchTerm;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.util.NiFiProperties;
-import org.apache.nifi.util.RingBuffer;
 import org.apache.nifi.util.RingBuffer.Filter;
 import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
-import org.apache.nifi.util.RingBuffer.IterationDirection;
 import org.apache.nifi.web.ResourceNotFoundException;
 
 import java.io.IOException;
@@ -61,19 +62,29 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     // properties
     public static final String BUFFER_SIZE = "nifi.provenance.repository.buffer.size";
+    public static final String BUFFER_STORAGE = "nifi.provenance.repository.buffer.storage";
+    public static final String BUFFER_OFF_HEAP_SIZE = "nifi.provenance.repository.buffer.off.heap.size";
+    public static final String BUFFER_SEGMENT_SIZE = "nifi.provenance.repository.buffer.segment.size";
+
+    // values of the buffer storage property
+    public static final String HEAP_BUFFER_STORAGE = "heap";
+    public static final String OFF_HEAP_BUFFER_STORAGE = "off-heap";
 
     // default property values
     public static final int DEFAULT_BUFFER_SIZE = 10000;
+    public static final String DEFAULT_BUFFER_OFF_HEAP_SIZE = "512 MB";
+    public static final String DEFAULT_BUFFER_SEGMENT_SIZE = "16 MB";
 
     public static String CONTAINER_NAME = "in-memory";
 
-    private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+    private final ProvenanceEventBuffer eventBuffer;
     private final int maxSize;
     private final List<SearchableField> searchableFields;
     private final List<SearchableField> searchableAttributes;
@@ -92,7 +103,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
      * Default no args constructor for service loading only
      */
     public VolatileProvenanceRepository() {
-        ringBuffer = null;
+        eventBuffer = null;
         searchableFields = null;
         searchableAttributes = null;
         queryExecService = null;
@@ -105,7 +116,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     public VolatileProvenanceRepository(final NiFiProperties nifiProperties) {
 
         maxSize = nifiProperties.getIntegerProperty(BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
-        ringBuffer = new RingBuffer<>(maxSize);
+        eventBuffer = createEventBuffer(nifiProperties, maxSize);
 
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
@@ -128,6 +139,26 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
         scheduledExecService = Executors.newScheduledThreadPool(2);
     }
 
+    private static ProvenanceEventBuffer createEventBuffer(final NiFiProperties nifiProperties, final int maxEvents) {
+        final String storage = nifiProperties.getProperty(BUFFER_STORAGE, HEAP_BUFFER_STORAGE).trim();
+        if (HEAP_BUFFER_STORAGE.equalsIgnoreCase(storage)) {
+            return new HeapProvenanceEventBuffer(maxEvents);
+        }
+
+        if (OFF_HEAP_BUFFER_STORAGE.equalsIgnoreCase(storage)) {
+            final long maxBytes = DataUnit.parseDataSize(nifiProperties.getProperty(BUFFER_OFF_HEAP_SIZE, DEFAULT_BUFFER_OFF_HEAP_SIZE), DataUnit.B).longValue();
+            final long segmentSize = DataUnit.parseDataSize(nifiProperties.getProperty(BUFFER_SEGMENT_SIZE, DEFAULT_BUFFER_SEGMENT_SIZE), DataUnit.B).longValue();
+            if (segmentSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid value for property " + BUFFER_SEGMENT_SIZE + ": a segment cannot be larger than 2 GB");
+            }
+
+            return new OffHeapProvenanceEventBuffer(maxEvents, maxBytes, (int) segmentSize);
+        }
+
+        throw new IllegalArgumentException("Invalid value for property " + BUFFER_STORAGE + ": '" + storage + "'; must be either '"
+            + HEAP_BUFFER_STORAGE + "' or '" + OFF_HEAP_BUFFER_STORAGE + "'");
+    }
+
     @Override
     public void initialize(final EventReporter eventReporter, final Authorizer authorizer, final ProvenanceAuthorizableFactory resourceFactory,
         final IdentifierLookup idLookup) throws IOException {
@@ -154,7 +185,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     @Override
     public void registerEvent(final ProvenanceEventRecord event) {
         final long id = idGenerator.getAndIncrement();
-        ringBuffer.add(new IdEnrichedProvEvent(event, id));
+        eventBuffer.add(new IdEnrichedProvEvent(event, id));
     }
 
     @Override
@@ -171,44 +202,37 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords, final NiFiUser user) throws IOException {
-        return ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
+        return eventBuffer.getEvents(firstRecordId, maxRecords, new Filter<ProvenanceEventRecord>() {
             @Override
             public boolean select(final ProvenanceEventRecord value) {
-                if (user != null && !isAuthorized(value, user)) {
-                    return false;
-                }
-
-                return value.getEventId() >= firstRecordId;
+                return user == null || isAuthorized(value, user);
             }
-        }, maxRecords);
+        });
     }
 
     @Override
     public Long getMaxEventId() {
-        final ProvenanceEventRecord newest = ringBuffer.getNewestElement();
-        return (newest == null) ? null : newest.getEventId();
+        return eventBuffer.getMaxEventId();
     }
 
     public ProvenanceEventRecord getEvent(final String identifier) throws IOException {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
+        // events are visited newest first, so keep the last match in order to return the oldest event for the FlowFile
+        final AtomicReference<ProvenanceEventRecord> oldest = new AtomicReference<>();
+        eventBuffer.forEach(Collections.singleton(identifier), null, new ForEachEvaluator<ProvenanceEventRecord>() {
             @Override
-            public boolean select(final ProvenanceEventRecord event) {
-                return identifier.equals(event.getFlowFileUuid());
+            public boolean evaluate(final ProvenanceEventRecord event) {
+                if (identifier.equals(event.getFlowFileUuid())) {
+                    oldest.set(event);
+                }
+                return true;
             }
-        }, 1);
-        return records.isEmpty() ? null : records.get(0);
+        });
+        return oldest.get();
     }
 
     @Override
     public ProvenanceEventRecord getEvent(final long id) {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
-            @Override
-            public boolean select(final ProvenanceEventRecord event) {
-                return event.getEventId() == id;
-            }
-        }, 1);
-
-        return records.isEmpty() ? null : records.get(0);
+        return eventBuffer.getEvent(id);
     }
 
     @Override
@@ -444,18 +468,34 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
         if (query.getSearchTerms().isEmpty() && query.getStartDate() == null && query.getEndDate() == null) {
             final AsyncQuerySubmission result = new AsyncQuerySubmission(query, 1, user.getIdentity());
-            queryExecService.submit(new QueryRunnable(ringBuffer, createFilter(query, user), query.getMaxResults(), result));
+            queryExecService.submit(new QueryRunnable(eventBuffer, null, null, createFilter(query, user), query.getMaxResults(), result));
             querySubmissionMap.put(query.getIdentifier(), result);
             return result;
         }
 
+        // If the query is for a specific FlowFile or component, the buffer may be able to skip the events that do not pertain to it
+        final String flowFileUuid = getExactSearchValue(query, SearchableFields.FlowFileUUID);
+        final String componentId = getExactSearchValue(query, SearchableFields.ComponentID);
+
         final AsyncQuerySubmission result = new AsyncQuerySubmission(query, 1, user.getIdentity());
         querySubmissionMap.put(query.getIdentifier(), result);
-        queryExecService.submit(new QueryRunnable(ringBuffer, createFilter(query, user), query.getMaxResults(), result));
+        queryExecService.submit(new QueryRunnable(eventBuffer, flowFileUuid == null ? null : Collections.singleton(flowFileUuid), componentId,
+            createFilter(query, user), query.getMaxResults(), result));
 
         return result;
     }
 
+    private String getExactSearchValue(final Query query, final SearchableField field) {
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String value = searchTerm.getValue();
+            if (field.equals(searchTerm.getSearchableField()) && value != null && !value.contains("?") && !value.contains("*")) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
         final QuerySubmission submission = querySubmissionMap.get(queryIdentifier);
@@ -610,7 +650,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public long getContainerUsableSpace(String containerName) throws IOException {
-        return maxSize - ringBuffer.getSize();
+        return maxSize - eventBuffer.getSize();
     }
 
     private AsyncLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final LineageComputationType computationType, final Long eventId) {
@@ -645,20 +685,25 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
             }
         };
 
-        queryExecService.submit(new ComputeLineageRunnable(ringBuffer, filter, result));
+        queryExecService.submit(new ComputeLineageRunnable(eventBuffer, flowFileUuids, filter, result));
 
         return result;
     }
 
     private static class QueryRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final ProvenanceEventBuffer eventBuffer;
+        private final Collection<String> flowFileUuids;
+        private final String componentId;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncQuerySubmission submission;
         private final int maxRecords;
 
-        public QueryRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final int maxRecords, final AsyncQuerySubmission submission) {
-            this.ringBuffer = ringBuffer;
+        public QueryRunnable(final ProvenanceEventBuffer eventBuffer, final Collection<String> flowFileUuids, final String componentId, final Filter<ProvenanceEventRecord> filter,
+                             final int maxRecords, final AsyncQuerySubmission submission) {
+            this.eventBuffer = eventBuffer;
+            this.flowFileUuids = flowFileUuids;
+            this.componentId = componentId;
             this.filter = filter;
             this.submission = submission;
             this.maxRecords = maxRecords;
@@ -669,19 +714,23 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
             // Retrieve the most recent results and count the total number of matches
             final AtomicInteger matchingCount = new AtomicInteger(0);
             final List<ProvenanceEventRecord> matchingRecords = new ArrayList<>(maxRecords);
-            ringBuffer.forEach(new ForEachEvaluator<ProvenanceEventRecord>() {
-                @Override
-                public boolean evaluate(final ProvenanceEventRecord record) {
-                    if (filter.select(record)) {
-                        if (matchingCount.incrementAndGet() <= maxRecords) {
-                            matchingRecords.add(record);
+            try {
+                eventBuffer.forEach(flowFileUuids, componentId, new ForEachEvaluator<ProvenanceEventRecord>() {
+                    @Override
+                    public boolean evaluate(final ProvenanceEventRecord record) {
+                        if (filter.select(record)) {
+                            if (matchingCount.incrementAndGet() <= maxRecords) {
+                                matchingRecords.add(record);
+                            }
                         }
-                    }
 
-                    return true;
-                }
-
-            }, IterationDirection.BACKWARD);
+                        return true;
+                    }
+                });
+            } catch (final Exception e) {
+                submission.getResult().setError("Failed to query Provenance Events due to " + e);
+                return;
+            }
 
             submission.getResult().update(matchingRecords, matchingCount.get());
         }
@@ -689,19 +738,37 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     private static class ComputeLineageRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final ProvenanceEventBuffer eventBuffer;
+        private final Collection<String> flowFileUuids;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncLineageSubmission submission;
 
-        public ComputeLineageRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final AsyncLineageSubmission submission) {
-            this.ringBuffer = ringBuffer;
+        public ComputeLineageRunnable(final ProvenanceEventBuffer eventBuffer, final Collection<String> flowFileUuids, final Filter<ProvenanceEventRecord> filter,
+                                      final AsyncLineageSubmission submission) {
+            this.eventBuffer = eventBuffer;
+            this.flowFileUuids = flowFileUuids;
             this.filter = filter;
             this.submission = submission;
         }
 
         @Override
         public void run() {
-            final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(filter);
+            final List<ProvenanceEventRecord> records = new ArrayList<>();
+            try {
+                eventBuffer.forEach(flowFileUuids, null, new ForEachEvaluator<ProvenanceEventRecord>() {
+                    @Override
+                    public boolean evaluate(final ProvenanceEventRecord record) {
+                        if (filter.select(record)) {
+                            records.add(record);
+                        }
+                        return true;
+                    }
+                });
+            } catch (final Exception e) {
+                submission.getResult().setError("Failed to compute lineage due to " + e);
+                return;
+            }
+
             submission.getResult().update(records, records.size());
         }
     }
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.buffer;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A fixed-size segment of an {@link OffHeapProvenanceEventBuffer}. The serialized events are held in a direct ByteBuffer,
+ * while a few small arrays on the heap record, for each event (or row), its offset within the buffer, its Event ID and the
+ * code of the component that generated it. The FlowFile UUIDs that each event refers to are recorded as entries that
+ * combine a 32-bit hash of the UUID with the row, so that the rows for a given FlowFile can be found without reading the events.
+ * Once the segment is full, it is sealed, and the entries are sorted so that they can be searched.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe. The owning buffer modifies it only while holding its write lock, and obtains a {@link View} of it
+ * while holding its read lock. A View can be used without holding any lock, because rows are only ever appended to the segment, and
+ * the bytes and array elements of the rows that a View covers are never modified. Evicting a row from the segment only hides it
+ * from the Views that are obtained afterward.
+ * </p>
+ */
+class EventSegment {
+    private static final int INITIAL_ROWS = 1024;
+
+    private final ByteBuffer buffer;
+
+    private int[] offsets = new int[INITIAL_ROWS];
+    private long[] eventIds = new long[INITIAL_ROWS];
+    private int[] componentCodes = new int[INITIAL_ROWS];
+    private long[] flowFileEntries = new long[INITIAL_ROWS];
+    private int flowFileEntryCount = 0;
+    private int rowCount = 0;
+    private int firstRow = 0;
+    private long minEventId = Long.MAX_VALUE;
+    private long maxEventId = Long.MIN_VALUE;
+    private boolean sealed = false;
+
+    EventSegment(final int capacity) {
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    int getCapacity() {
+        return buffer.capacity();
+    }
+
+    boolean hasRoom(final int length) {
+        return !sealed && buffer.remaining() >= length;
+    }
+
+    /**
+     * Appends the given serialized event to the segment
+     *
+     * @param serialized the serialized event
+     * @param eventId the ID of the event
+     * @param componentCode the code of the component that generated the event
+     * @param flowFileHashes the hashes of the FlowFile UUIDs that the event refers to
+     */
+    void append(final byte[] serialized, final long eventId, final int componentCode, final int[] flowFileHashes) {
+        if (rowCount == offsets.length) {
+            final int newLength = offsets.length * 2;
+            offsets = Arrays.copyOf(offsets, newLength);
+            eventIds = Arrays.copyOf(eventIds, newLength);
+            componentCodes = Arrays.copyOf(componentCodes, newLength);
+        }
+
+        if (flowFileEntryCount + flowFileHashes.length > flowFileEntries.length) {
+            flowFileEntries = Arrays.copyOf(flowFileEntries, Math.max(flowFileEntries.length * 2, flowFileEntryCount + flowFileHashes.length));
+        }
+
+        final int row = rowCount;
+        offsets[row] = buffer.position();
+        eventIds[row] = eventId;
+        componentCodes[row] = componentCode;
+        for (final int hash : flowFileHashes) {
+            flowFileEntries[flowFileEntryCount++] = createEntry(hash, row);
+        }
+
+        buffer.put(serialized);
+        minEventId = Math.min(minEventId, eventId);
+        maxEventId = Math.max(maxEventId, eventId);
+        rowCount++;
+    }
+
+    /**
+     * Seals the segment so that no more events are added to it, and sorts its FlowFile entries. The entries are sorted into a
+     * new array, rather than in place, because Views that were obtained before the segment was sealed may still be scanning them.
+     */
+    void seal() {
+        if (sealed) {
+            return;
+        }
+
+        final long[] sortedEntries = Arrays.copyOf(flowFileEntries, flowFileEntryCount);
+        Arrays.sort(sortedEntries);
+        flowFileEntries = sortedEntries;
+        sealed = true;
+    }
+
+    int getLiveRowCount() {
+        return rowCount - firstRow;
+    }
+
+    /**
+     * Evicts the oldest row that has not yet been evicted
+     */
+    void evictOldestRow() {
+        if (firstRow < rowCount) {
+            firstRow++;
+        }
+    }
+
+    View createView() {
+        return new View(buffer.duplicate(), offsets, eventIds, componentCodes, flowFileEntries, flowFileEntryCount, sealed, firstRow, rowCount, minEventId, maxEventId);
+    }
+
+    private static long createEntry(final int hash, final int row) {
+        return ((long) hash << 32) | row;
+    }
+
+    private static int getHash(final long entry) {
+        return (int) (entry >> 32);
+    }
+
+    private static int getRow(final long entry) {
+        return (int) entry;
+    }
+
+    /**
+     * An immutable view of the rows of a segment at the time that the view was created
+     */
+    static class View {
+        private final ByteBuffer buffer;
+        private final int[] offsets;
+        private final long[] eventIds;
+        private final int[] componentCodes;
+        private final long[] flowFileEntries;
+        private final int flowFileEntryCount;
+        private final boolean sorted;
+        private final int firstRow;
+        private final int rowCount;
+        private final long minEventId;
+        private final long maxEventId;
+
+        private View(final ByteBuffer buffer, final int[] offsets, final long[] eventIds, final int[] componentCodes, final long[] flowFileEntries,
+                     final int flowFileEntryCount, final boolean sorted, final int firstRow, final int rowCount, final long minEventId, final long maxEventId) {
+            this.buffer = buffer;
+            this.offsets = offsets;
+            this.eventIds = eventIds;
+            this.componentCodes = componentCodes;
+            this.flowFileEntries = flowFileEntries;
+            this.flowFileEntryCount = flowFileEntryCount;
+            this.sorted = sorted;
+            this.firstRow = firstRow;
+            this.rowCount = rowCount;
+            this.minEventId = minEventId;
+            this.maxEventId = maxEventId;
+        }
+
+        int getFirstRow() {
+            return firstRow;
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        long getEventId(final int row) {
+            return eventIds[row];
+        }
+
+        int getComponentCode(final int row) {
+            return componentCodes[row];
+        }
+
+        int getOffset(final int row) {
+            return offsets[row];
+        }
+
+        boolean mayContain(final long eventId) {
+            return eventId >= minEventId && eventId <= maxEventId;
+        }
+
+        long getMaxEventId() {
+            return maxEventId;
+        }
+
+        /**
+         * @param row the row of the event
+         * @return an InputStream that begins with the serialized form of the event in the given row
+         */
+        InputStream openRow(final int row) {
+            final ByteBuffer rowBuffer = buffer.duplicate();
+            rowBuffer.position(offsets[row]);
+            return new ByteBufferInputStream(rowBuffer);
+        }
+
+        /**
+         * Returns, in ascending order, the rows of the events that may refer to a FlowFile whose UUID has one of the given hashes.
+         * Because different UUIDs may have the same hash, the events must still be checked.
+         *
+         * @param hashes the hashes of the FlowFile UUIDs, sorted in ascending order
+         * @return the rows, in ascending order
+         */
+        int[] findFlowFileRows(final int[] hashes) {
+            int[] rows = new int[16];
+            int count = 0;
+
+            if (sorted) {
+                for (final int hash : hashes) {
+                    int index = lowerBound(createEntry(hash, 0));
+                    while (index < flowFileEntryCount && getHash(flowFileEntries[index]) == hash) {
+                        final int row = getRow(flowFileEntries[index++]);
+                        if (row >= firstRow && row < rowCount) {
+                            if (count == rows.length) {
+                                rows = Arrays.copyOf(rows, count * 2);
+                            }
+                            rows[count++] = row;
+                        }
+                    }
+                }
+            } else {
+                for (int i = 0; i < flowFileEntryCount; i++) {
+                    final long entry = flowFileEntries[i];
+                    final int row = getRow(entry);
+                    if (row >= firstRow && row < rowCount && Arrays.binarySearch(hashes, getHash(entry)) >= 0) {
+                        if (count == rows.length) {
+                            rows = Arrays.copyOf(rows, count * 2);
+                        }
+                        rows[count++] = row;
+                    }
+                }
+            }
+
+            Arrays.sort(rows, 0, count);
+
+            // an event may refer to more than one of the FlowFiles, so remove duplicate rows
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                if (distinct == 0 || rows[distinct - 1] != rows[i]) {
+                    rows[distinct++] = rows[i];
+                }
+            }
+
+            return Arrays.copyOf(rows, distinct);
+        }
+
+        private int lowerBound(final long key) {
+            int low = 0;
+            int high = flowFileEntryCount;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (flowFileEntries[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            return low;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] destination, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            final int bytesToRead = Math.min(length, buffer.remaining());
+            buffer.get(destination, offset, bytesToRead);
+            return bytesToRead;
+        }
+    }
+}
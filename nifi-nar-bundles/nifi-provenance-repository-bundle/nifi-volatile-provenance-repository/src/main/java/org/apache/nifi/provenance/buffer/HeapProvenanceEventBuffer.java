@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.buffer;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.util.RingBuffer;
+import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
+import org.apache.nifi.util.RingBuffer.IterationDirection;
+
+/**
+ * A {@link ProvenanceEventBuffer} that holds the events themselves on the Java heap, in a {@link RingBuffer}.
+ */
+public class HeapProvenanceEventBuffer implements ProvenanceEventBuffer {
+    private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+
+    public HeapProvenanceEventBuffer(final int maxEvents) {
+        this.ringBuffer = new RingBuffer<>(maxEvents);
+    }
+
+    @Override
+    public void add(final ProvenanceEventRecord event) {
+        ringBuffer.add(event);
+    }
+
+    @Override
+    public int getSize() {
+        return ringBuffer.getSize();
+    }
+
+    @Override
+    public Long getMaxEventId() {
+        final ProvenanceEventRecord newest = ringBuffer.getNewestElement();
+        return (newest == null) ? null : newest.getEventId();
+    }
+
+    @Override
+    public ProvenanceEventRecord getEvent(final long eventId) {
+        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
+            @Override
+            public boolean select(final ProvenanceEventRecord event) {
+                return event.getEventId() == eventId;
+            }
+        }, 1);
+
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getEvents(final long firstEventId, final int maxEvents, final Filter<ProvenanceEventRecord> filter) {
+        return ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
+            @Override
+            public boolean select(final ProvenanceEventRecord event) {
+                return event.getEventId() >= firstEventId && filter.select(event);
+            }
+        }, maxEvents);
+    }
+
+    @Override
+    public void forEach(final Collection<String> flowFileUuids, final String componentId, final ForEachEvaluator<ProvenanceEventRecord> evaluator) {
+        // The events are already on the heap, so it is no more expensive for the evaluator to check each of them
+        ringBuffer.forEach(evaluator, IterationDirection.BACKWARD);
+    }
+}
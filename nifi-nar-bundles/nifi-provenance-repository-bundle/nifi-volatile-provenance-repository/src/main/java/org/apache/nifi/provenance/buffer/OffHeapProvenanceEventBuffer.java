@@ -0,0 +1,373 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.buffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.schema.EventFieldNames;
+import org.apache.nifi.provenance.schema.EventRecord;
+import org.apache.nifi.provenance.schema.ProvenanceEventSchema;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
+
+/**
+ * <p>
+ * A {@link ProvenanceEventBuffer} that serializes events, using the same schema as the Write-Ahead Provenance Repository, into a ring of
+ * fixed-size segments that are allocated outside of the Java heap. Events are deserialized only when they are retrieved or queried, so a
+ * large buffer adds very little to the heap and to the work of the garbage collector. For each event, the heap holds only its offset,
+ * its Event ID, a code for the component that generated it, and a hash of each FlowFile UUID that it refers to. This allows the events
+ * for a given component or FlowFile to be found without deserializing the others.
+ * </p>
+ *
+ * <p>
+ * The buffer holds at most the configured number of events, and at most the configured number of bytes. When the number of events is
+ * exceeded, the oldest event is evicted. When a new segment is needed and the number of bytes would be exceeded, the oldest segment is
+ * discarded. The memory of a discarded segment is released once it is no longer referenced, which allows queries that are reading the
+ * segment to complete without holding a lock that would prevent events from being added.
+ * </p>
+ */
+public class OffHeapProvenanceEventBuffer implements ProvenanceEventBuffer {
+    private static final RecordSchema eventSchema = ProvenanceEventSchema.PROVENANCE_EVENT_SCHEMA_V1;
+    private static final RecordSchema contentClaimSchema = new RecordSchema(eventSchema.getField(EventFieldNames.CONTENT_CLAIM).getSubFields());
+    private static final String STORAGE_NAME = "off-heap-buffer";
+
+    private final int maxEvents;
+    private final long maxBytes;
+    private final int segmentSize;
+
+    private final SchemaRecordWriter recordWriter = new SchemaRecordWriter();
+    private final SchemaRecordReader recordReader = SchemaRecordReader.fromSchema(eventSchema);
+    private final ConcurrentMap<String, Integer> componentCodes = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock();
+    private final Lock writeLock = rwLock.writeLock();
+
+    // guarded by the lock; the oldest segment is first and the segment that events are being added to is last
+    private final Deque<EventSegment> segments = new ArrayDeque<>();
+    private long allocatedBytes = 0L;
+    private int size = 0;
+    private Long newestEventId = null;
+
+    /**
+     * @param maxEvents the maximum number of events to hold
+     * @param maxBytes the maximum number of bytes to allocate for the segments
+     * @param segmentSize the number of bytes to allocate for each segment
+     */
+    public OffHeapProvenanceEventBuffer(final int maxEvents, final long maxBytes, final int segmentSize) {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        if (maxBytes < segmentSize) {
+            throw new IllegalArgumentException("The maximum size of the buffer (" + maxBytes + " bytes) cannot be smaller than the size of a segment (" + segmentSize + " bytes)");
+        }
+
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+        this.segmentSize = segmentSize;
+    }
+
+    @Override
+    public void add(final ProvenanceEventRecord event) {
+        // Serialize the event and compute its index entries before obtaining the lock, so that threads adding events
+        // contend only for the time that it takes to copy the bytes into the segment.
+        final byte[] serialized = serialize(event);
+        final int componentCode = getComponentCode(event.getComponentId());
+        final int[] flowFileHashes = hashFlowFileUuids(event);
+
+        writeLock.lock();
+        try {
+            EventSegment segment = segments.peekLast();
+            if (segment == null || !segment.hasRoom(serialized.length)) {
+                if (segment != null) {
+                    segment.seal();
+                }
+
+                segment = createSegment(serialized.length);
+            }
+
+            segment.append(serialized, event.getEventId(), componentCode, flowFileHashes);
+            newestEventId = event.getEventId();
+            size++;
+
+            while (size > maxEvents) {
+                evictOldestEvent();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private EventSegment createSegment(final int minimumCapacity) {
+        // An event that is larger than a segment is given a segment of its own
+        final int capacity = Math.max(segmentSize, minimumCapacity);
+        while (!segments.isEmpty() && allocatedBytes + capacity > maxBytes) {
+            final EventSegment oldest = segments.pollFirst();
+            size -= oldest.getLiveRowCount();
+            allocatedBytes -= oldest.getCapacity();
+        }
+
+        final EventSegment segment = new EventSegment(capacity);
+        segments.addLast(segment);
+        allocatedBytes += capacity;
+        return segment;
+    }
+
+    private void evictOldestEvent() {
+        final EventSegment oldest = segments.peekFirst();
+        oldest.evictOldestRow();
+        size--;
+
+        if (oldest.getLiveRowCount() == 0 && segments.size() > 1) {
+            segments.pollFirst();
+            allocatedBytes -= oldest.getCapacity();
+        }
+    }
+
+    @Override
+    public int getSize() {
+        readLock.lock();
+        try {
+            return size;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of bytes that are currently allocated for the segments of the buffer
+     */
+    public long getAllocatedBytes() {
+        readLock.lock();
+        try {
+            return allocatedBytes;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Long getMaxEventId() {
+        readLock.lock();
+        try {
+            return size == 0 ? null : newestEventId;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public ProvenanceEventRecord getEvent(final long eventId) {
+        final List<EventSegment.View> views = createViews();
+        for (int i = views.size() - 1; i >= 0; i--) {
+            final EventSegment.View view = views.get(i);
+            if (!view.mayContain(eventId)) {
+                continue;
+            }
+
+            for (int row = view.getRowCount() - 1; row >= view.getFirstRow(); row--) {
+                if (view.getEventId(row) == eventId) {
+                    return readEvent(view, row);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getEvents(final long firstEventId, final int maxEvents, final Filter<ProvenanceEventRecord> filter) {
+        final List<ProvenanceEventRecord> events = new ArrayList<>(Math.min(maxEvents, 1000));
+        if (maxEvents <= 0) {
+            return events;
+        }
+
+        for (final EventSegment.View view : createViews()) {
+            if (view.getMaxEventId() < firstEventId) {
+                continue;
+            }
+
+            for (int row = view.getFirstRow(); row < view.getRowCount(); row++) {
+                if (view.getEventId(row) < firstEventId) {
+                    continue;
+                }
+
+                final ProvenanceEventRecord event = readEvent(view, row);
+                if (filter.select(event)) {
+                    events.add(event);
+                    if (events.size() >= maxEvents) {
+                        return events;
+                    }
+                }
+            }
+        }
+
+        return events;
+    }
+
+    @Override
+    public void forEach(final Collection<String> flowFileUuids, final String componentId, final ForEachEvaluator<ProvenanceEventRecord> evaluator) {
+        final int[] flowFileHashes;
+        if (flowFileUuids == null) {
+            flowFileHashes = null;
+        } else {
+            flowFileHashes = new int[flowFileUuids.size()];
+            int index = 0;
+            for (final String uuid : flowFileUuids) {
+                flowFileHashes[index++] = hash(uuid);
+            }
+            Arrays.sort(flowFileHashes);
+        }
+
+        final Integer componentCode;
+        if (componentId == null) {
+            componentCode = null;
+        } else {
+            componentCode = componentCodes.get(componentId.toLowerCase(Locale.ROOT));
+            if (componentCode == null) {
+                return;
+            }
+        }
+
+        final List<EventSegment.View> views = createViews();
+        for (int i = views.size() - 1; i >= 0; i--) {
+            final EventSegment.View view = views.get(i);
+
+            if (flowFileHashes == null) {
+                for (int row = view.getRowCount() - 1; row >= view.getFirstRow(); row--) {
+                    if (!evaluate(view, row, componentCode, evaluator)) {
+                        return;
+                    }
+                }
+            } else {
+                final int[] rows = view.findFlowFileRows(flowFileHashes);
+                for (int r = rows.length - 1; r >= 0; r--) {
+                    if (!evaluate(view, rows[r], componentCode, evaluator)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean evaluate(final EventSegment.View view, final int row, final Integer componentCode, final ForEachEvaluator<ProvenanceEventRecord> evaluator) {
+        if (componentCode != null && view.getComponentCode(row) != componentCode) {
+            return true;
+        }
+
+        return evaluator.evaluate(readEvent(view, row));
+    }
+
+    private List<EventSegment.View> createViews() {
+        readLock.lock();
+        try {
+            final List<EventSegment.View> views = new ArrayList<>(segments.size());
+            for (final EventSegment segment : segments) {
+                views.add(segment.createView());
+            }
+            return views;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private byte[] serialize(final ProvenanceEventRecord event) {
+        final Record record = new EventRecord(event, event.getEventId(), eventSchema, contentClaimSchema);
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(512);
+        try {
+            recordWriter.writeRecord(record, baos);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Failed to serialize Provenance Event " + event.getEventId(), ioe);
+        }
+
+        return baos.toByteArray();
+    }
+
+    private ProvenanceEventRecord readEvent(final EventSegment.View view, final int row) {
+        try {
+            final Record record = recordReader.readRecord(view.openRow(row));
+            return EventRecord.getEvent(record, STORAGE_NAME, view.getOffset(row), Integer.MAX_VALUE);
+        } catch (final IOException ioe) {
+            throw new UncheckedIOException("Failed to read Provenance Event " + view.getEventId(row) + " from off-heap buffer", ioe);
+        }
+    }
+
+    private int getComponentCode(final String componentId) {
+        if (componentId == null) {
+            return -1;
+        }
+
+        final String key = componentId.toLowerCase(Locale.ROOT);
+        final Integer existing = componentCodes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        synchronized (componentCodes) {
+            return componentCodes.computeIfAbsent(key, k -> componentCodes.size());
+        }
+    }
+
+    private static int[] hashFlowFileUuids(final ProvenanceEventRecord event) {
+        final List<String> parentUuids = event.getParentUuids();
+        final List<String> childUuids = event.getChildUuids();
+        final int parentCount = parentUuids == null ? 0 : parentUuids.size();
+        final int childCount = childUuids == null ? 0 : childUuids.size();
+
+        final int[] hashes = new int[1 + parentCount + childCount];
+        int index = 0;
+        hashes[index++] = hash(event.getFlowFileUuid());
+        for (int i = 0; i < parentCount; i++) {
+            hashes[index++] = hash(parentUuids.get(i));
+        }
+        for (int i = 0; i < childCount; i++) {
+            hashes[index++] = hash(childUuids.get(i));
+        }
+
+        return hashes;
+    }
+
+    private static int hash(final String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        // spread the bits of the String's hash code, as HashMap does
+        final int hashCode = value.hashCode();
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
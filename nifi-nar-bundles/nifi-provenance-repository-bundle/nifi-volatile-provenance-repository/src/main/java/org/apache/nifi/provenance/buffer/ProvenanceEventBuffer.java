@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.buffer;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
+
+/**
+ * A bounded buffer of Provenance Events that is used by the VolatileProvenanceRepository. Once the buffer is full,
+ * adding an event causes the oldest events to be evicted.
+ */
+public interface ProvenanceEventBuffer {
+
+    /**
+     * Adds the given event to the buffer, evicting the oldest events if the buffer is full
+     *
+     * @param event the event to add, whose Event ID has already been assigned
+     */
+    void add(ProvenanceEventRecord event);
+
+    /**
+     * @return the number of events in the buffer
+     */
+    int getSize();
+
+    /**
+     * @return the Event ID of the event that was most recently added to the buffer, or <code>null</code> if the buffer is empty
+     */
+    Long getMaxEventId();
+
+    /**
+     * @param eventId the ID of the event
+     * @return the event with the given ID, or <code>null</code> if the buffer does not contain it
+     */
+    ProvenanceEventRecord getEvent(long eventId);
+
+    /**
+     * Returns the events whose Event ID is at least the given ID and that are selected by the given filter, in the order
+     * that they were added to the buffer
+     *
+     * @param firstEventId the smallest Event ID to return
+     * @param maxEvents the maximum number of events to return
+     * @param filter the filter that selects the events to return
+     * @return the selected events
+     */
+    List<ProvenanceEventRecord> getEvents(long firstEventId, int maxEvents, Filter<ProvenanceEventRecord> filter);
+
+    /**
+     * Passes events to the given evaluator, newest first, until the evaluator returns <code>false</code> or there are no more events.
+     * The FlowFile UUIDs and Component ID are hints that allow the buffer to skip events that cannot match: if they are not
+     * <code>null</code>, the buffer need only pass the events that refer to one of the FlowFile UUIDs, as the FlowFile, a parent or a child,
+     * and that were generated by the component with the given ID, ignoring case. Because the buffer may pass other events as well,
+     * the evaluator remains responsible for checking each event.
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest, or <code>null</code> if the events are not limited to particular FlowFiles
+     * @param componentId the ID of the component of interest, or <code>null</code> if the events are not limited to a particular component
+     * @param evaluator the evaluator to pass the events to
+     */
+    void forEach(Collection<String> flowFileUuids, String componentId, ForEachEvaluator<ProvenanceEventRecord> evaluator);
+}
@@ -18,6 +18,7 @@ package org.apache.nifi.provenance;
 
 import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.search.Query;
 import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchTerms;
@@ -32,8 +33,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class TestVolatileProvenanceRepository {
 
@@ -119,6 +123,60 @@ public class TestVolatileProvenanceRepository {
         }
     }
 
+    @Test
+    public void testOffHeapBufferQueryAndLineage() throws InterruptedException, IOException {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(VolatileProvenanceRepository.BUFFER_STORAGE, VolatileProvenanceRepository.OFF_HEAP_BUFFER_STORAGE);
+        properties.put(VolatileProvenanceRepository.BUFFER_OFF_HEAP_SIZE, "1 MB");
+        properties.put(VolatileProvenanceRepository.BUFFER_SEGMENT_SIZE, "16 KB");
+        repo = new VolatileProvenanceRepository(NiFiProperties.createBasicNiFiProperties(null, properties));
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("abc", "xyz");
+        attributes.put("filename", "file-1");
+
+        final ProvenanceEventBuilder builder = new StandardProvenanceEventRecord.Builder();
+        builder.setEventTime(System.currentTimeMillis());
+        builder.setTransitUri("nifi://unit-test");
+        builder.setComponentType("dummy processor");
+
+        for (int i = 0; i < 500; i++) {
+            attributes.put("uuid", "00000000-0000-0000-0000-" + String.format("%012d", i % 100));
+            builder.fromFlowFile(createFlowFile(i, 3000L, attributes));
+            builder.setEventType(i < 100 ? ProvenanceEventType.RECEIVE : ProvenanceEventType.ATTRIBUTES_MODIFIED);
+            builder.setComponentId(i % 2 == 0 ? "1234" : "5678");
+            repo.registerEvent(builder.build());
+        }
+
+        final List<ProvenanceEventRecord> retrieved = repo.getEvents(495L, 10);
+        assertEquals(5, retrieved.size());
+        assertEquals(495L, retrieved.get(0).getEventId());
+        assertEquals(attributes.get("abc"), retrieved.get(0).getAttributes().get("abc"));
+
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.FlowFileUUID, "00000000-0000-0000-0000-000000000042"));
+        query.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.ComponentID, "1234"));
+        query.setMaxResults(100);
+
+        final QuerySubmission submission = repo.submitQuery(query, createUser());
+        while (!submission.getResult().isFinished()) {
+            Thread.sleep(100L);
+        }
+
+        final List<ProvenanceEventRecord> matches = submission.getResult().getMatchingEvents();
+        assertEquals(5, matches.size());
+        for (final ProvenanceEventRecord match : matches) {
+            assertEquals("00000000-0000-0000-0000-000000000042", match.getFlowFileUuid());
+            assertEquals("1234", match.getComponentId());
+        }
+
+        final ComputeLineageSubmission lineageSubmission = repo.submitLineageComputation(42L, createUser());
+        assertTrue(lineageSubmission.getResult().awaitCompletion(5, TimeUnit.SECONDS));
+        assertNull(lineageSubmission.getResult().getError());
+        // one RECEIVE event, the FlowFile it created and the four subsequent events
+        assertEquals(6, lineageSubmission.getResult().getNodes().size());
+    }
+
     private FlowFile createFlowFile(final long id, final long fileSize, final Map<String, String> attributes) {
         final Map<String, String> attrCopy = new HashMap<>(attributes);
 
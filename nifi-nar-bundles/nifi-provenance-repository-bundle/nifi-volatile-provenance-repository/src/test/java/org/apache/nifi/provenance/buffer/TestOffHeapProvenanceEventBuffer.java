@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.junit.Test;
+
+public class TestOffHeapProvenanceEventBuffer {
+
+    @Test
+    public void testAddAndGetEvents() {
+        final OffHeapProvenanceEventBuffer buffer = new OffHeapProvenanceEventBuffer(1000, 1024 * 1024, 64 * 1024);
+        for (int i = 0; i < 100; i++) {
+            buffer.add(createEvent(i, "uuid-" + i, "component-" + (i % 3)));
+        }
+
+        assertEquals(100, buffer.getSize());
+        assertEquals(Long.valueOf(99L), buffer.getMaxEventId());
+
+        final ProvenanceEventRecord event = buffer.getEvent(42L);
+        assertNotNull(event);
+        assertEquals(42L, event.getEventId());
+        assertEquals("uuid-42", event.getFlowFileUuid());
+        assertEquals("component-0", event.getComponentId());
+        assertEquals(ProvenanceEventType.CONTENT_MODIFIED, event.getEventType());
+        assertEquals("true", event.getAttributes().get("updated"));
+        assertEquals("uuid-42", event.getAttributes().get("uuid"));
+        assertEquals(1024L, event.getFileSize());
+        assertNull(buffer.getEvent(100L));
+
+        final List<ProvenanceEventRecord> events = buffer.getEvents(90L, 5, e -> true);
+        assertEquals(5, events.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(90L + i, events.get(i).getEventId());
+        }
+    }
+
+    @Test
+    public void testOldestEventsEvictedWhenFull() {
+        final OffHeapProvenanceEventBuffer buffer = new OffHeapProvenanceEventBuffer(100, 1024 * 1024, 4 * 1024);
+        for (int i = 0; i < 250; i++) {
+            buffer.add(createEvent(i, "uuid-" + i, "component-1"));
+        }
+
+        assertEquals(100, buffer.getSize());
+        assertNull(buffer.getEvent(149L));
+        assertNotNull(buffer.getEvent(150L));
+        assertNotNull(buffer.getEvent(249L));
+
+        final List<ProvenanceEventRecord> events = buffer.getEvents(0L, 1000, e -> true);
+        assertEquals(100, events.size());
+        assertEquals(150L, events.get(0).getEventId());
+        assertEquals(249L, events.get(99).getEventId());
+    }
+
+    @Test
+    public void testOldestSegmentsDiscardedWhenOutOfMemory() {
+        final int segmentSize = 4 * 1024;
+        final OffHeapProvenanceEventBuffer buffer = new OffHeapProvenanceEventBuffer(100_000, 4 * segmentSize, segmentSize);
+        for (int i = 0; i < 1000; i++) {
+            buffer.add(createEvent(i, "uuid-" + i, "component-1"));
+        }
+
+        assertTrue(buffer.getAllocatedBytes() <= 4 * segmentSize);
+        assertTrue(buffer.getSize() < 1000);
+        assertNull(buffer.getEvent(0L));
+        assertNotNull(buffer.getEvent(999L));
+        assertEquals(buffer.getSize(), buffer.getEvents(0L, 1000, e -> true).size());
+    }
+
+    @Test
+    public void testEventLargerThanSegment() {
+        final OffHeapProvenanceEventBuffer buffer = new OffHeapProvenanceEventBuffer(1000, 1024 * 1024, 1024);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append('x');
+        }
+
+        buffer.add(createEvent(0L, "uuid-0", "component-1"));
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("large", sb.toString());
+        buffer.add(createEvent(1L, "uuid-1", "component-1", attributes, Collections.emptyList()));
+        buffer.add(createEvent(2L, "uuid-2", "component-1"));
+
+        assertEquals(3, buffer.getSize());
+        assertEquals(sb.toString(), buffer.getEvent(1L).getAttributes().get("large"));
+        assertEquals("uuid-2", buffer.getEvent(2L).getFlowFileUuid());
+    }
+
+    @Test
+    public void testFlowFileAndComponentLookups() {
+        final OffHeapProvenanceEventBuffer buffer = new OffHeapProvenanceEventBuffer(10_000, 1024 * 1024, 8 * 1024);
+        for (int i = 0; i < 500; i++) {
+            buffer.add(createEvent(i, "uuid-" + (i % 50), "Component-" + (i % 7)));
+        }
+        buffer.add(createEvent(500L, "parent", "Component-1", Collections.emptyMap(), Arrays.asList("uuid-3", "child")));
+
+        final List<ProvenanceEventRecord> forFlowFile = new ArrayList<>();
+        buffer.forEach(Collections.singleton("uuid-3"), null, event -> forFlowFile.add(event));
+        assertEquals(11, forFlowFile.size());
+        assertEquals(500L, forFlowFile.get(0).getEventId());
+        for (int i = 1; i < forFlowFile.size(); i++) {
+            assertEquals("uuid-3", forFlowFile.get(i).getFlowFileUuid());
+            assertTrue(forFlowFile.get(i).getEventId() < forFlowFile.get(i - 1).getEventId());
+        }
+
+        final List<ProvenanceEventRecord> forComponent = new ArrayList<>();
+        buffer.forEach(null, "component-2", event -> forComponent.add(event));
+        assertEquals(72, forComponent.size());
+        forComponent.forEach(event -> assertEquals("Component-2", event.getComponentId()));
+
+        final List<ProvenanceEventRecord> forBoth = new ArrayList<>();
+        buffer.forEach(Arrays.asList("uuid-3", "child"), "COMPONENT-1", event -> forBoth.add(event));
+        assertEquals(2, forBoth.size());
+        assertEquals(500L, forBoth.get(0).getEventId());
+        assertEquals(253L, forBoth.get(1).getEventId());
+
+        final List<ProvenanceEventRecord> forUnknownComponent = new ArrayList<>();
+        buffer.forEach(null, "unknown", event -> forUnknownComponent.add(event));
+        assertTrue(forUnknownComponent.isEmpty());
+
+        final List<ProvenanceEventRecord> firstTen = new ArrayList<>();
+        buffer.forEach(null, null, event -> firstTen.add(event) && firstTen.size() < 10);
+        assertEquals(10, firstTen.size());
+        assertEquals(500L, firstTen.get(0).getEventId());
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final String uuid, final String componentId) {
+        final Map<String, String> updatedAttributes = new HashMap<>();
+        updatedAttributes.put("updated", "true");
+        return createEvent(eventId, uuid, componentId, updatedAttributes, Collections.emptyList());
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final String uuid, final String componentId, final Map<String, String> updatedAttributes,
+                                              final List<String> childUuids) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder()
+            .setEventType(childUuids.isEmpty() ? ProvenanceEventType.CONTENT_MODIFIED : ProvenanceEventType.FORK)
+            .setAttributes(previousAttributes, updatedAttributes)
+            .setComponentId(componentId)
+            .setComponentType("unit test")
+            .setEventId(eventId)
+            .setEventTime(System.currentTimeMillis())
+            .setFlowFileEntryDate(System.currentTimeMillis())
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(System.currentTimeMillis())
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+
+        for (final String childUuid : childUuids) {
+            builder.addChildFlowFile(childUuid);
+        }
+
+        return builder.build();
+    }
+}
@@ -35,17 +35,20 @@ import org.apache.nifi.controller.status.ProcessorStatus;
 import org.apache.nifi.controller.status.RemoteProcessGroupStatus;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.provenance.ProvenanceEventCursor;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.remote.Transaction;
 import org.apache.nifi.remote.TransferDirection;
 
 import javax.json.Json;
-import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonBuilderFactory;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonGeneratorFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -272,21 +275,6 @@ public class SiteToSiteProvenanceReportingTask extends AbstractSiteToSiteReporti
             return;
         }
 
-        List<ProvenanceEventRecord> rawEvents;
-        List<ProvenanceEventRecord> filteredEvents;
-        try {
-            rawEvents = context.getEventAccess().getProvenanceEvents(firstEventId, context.getProperty(BATCH_SIZE).asInteger());
-            filteredEvents = filterEvents(rawEvents);
-        } catch (final IOException ioe) {
-            getLogger().error("Failed to retrieve Provenance Events from repository due to: " + ioe.getMessage(), ioe);
-            return;
-        }
-
-        if (rawEvents == null || rawEvents.isEmpty()) {
-            getLogger().debug("No events to send due to 'events' being null or empty.");
-            return;
-        }
-
         final String nifiUrl = context.getProperty(INSTANCE_URL).evaluateAttributeExpressions().getValue();
         URL url;
         try {
@@ -298,110 +286,116 @@ public class SiteToSiteProvenanceReportingTask extends AbstractSiteToSiteReporti
 
         final String hostname = url.getHost();
         final String platform = context.getProperty(PLATFORM).evaluateAttributeExpressions().getValue();
+        final int batchSize = context.getProperty(BATCH_SIZE).asInteger();
 
         final Map<String, ?> config = Collections.emptyMap();
         final JsonBuilderFactory factory = Json.createBuilderFactory(config);
+        final JsonGeneratorFactory generatorFactory = Json.createGeneratorFactory(config);
         final JsonObjectBuilder builder = factory.createObjectBuilder();
 
         final DateFormat df = new SimpleDateFormat(TIMESTAMP_FORMAT);
         df.setTimeZone(TimeZone.getTimeZone("Z"));
 
-        while (rawEvents != null && !rawEvents.isEmpty() && isScheduled()) {
-            final long start = System.nanoTime();
+        // Events are read from the repository through a cursor and serialized as they are read, so that only the JSON
+        // for the current batch, rather than the events themselves, is held in memory.
+        try (final ProvenanceEventCursor cursor = context.getEventAccess().getProvenanceRepository().getEventCursor(firstEventId, this::isEventIncluded)) {
+            while (isScheduled()) {
+                final long start = System.nanoTime();
+
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int eventCount = 0;
+                long batchFirstEventId = -1L;
+                try (final JsonGenerator generator = generatorFactory.createGenerator(out, StandardCharsets.UTF_8)) {
+                    generator.writeStartArray();
+
+                    ProvenanceEventRecord event;
+                    while (eventCount < batchSize && (event = cursor.nextEvent()) != null) {
+                        if (batchFirstEventId < 0) {
+                            batchFirstEventId = event.getEventId();
+                        }
+
+                        final String componentName = componentMap.get(event.getComponentId());
+                        generator.write(serialize(factory, builder, event, df, componentName, hostname, url, rootGroupName, platform, nodeId));
+                        eventCount++;
+                    }
 
-            if (!filteredEvents.isEmpty()) {
-                // Create a JSON array of all the events in the current batch
-                final JsonArrayBuilder arrayBuilder = factory.createArrayBuilder();
-                for (final ProvenanceEventRecord event : filteredEvents) {
-                    final String componentName = componentMap.get(event.getComponentId());
-                    arrayBuilder.add(serialize(factory, builder, event, df, componentName, hostname, url, rootGroupName, platform, nodeId));
+                    generator.writeEnd();
                 }
-                final JsonArray jsonArray = arrayBuilder.build();
 
-                // Send the JSON document for the current batch
-                try {
-                    final Transaction transaction = getClient().createTransaction(TransferDirection.SEND);
-                    if (transaction == null) {
-                        getLogger().debug("All destination nodes are penalized; will attempt to send data later");
-                        return;
-                    }
+                final long lastEventIdRead = cursor.getLastEventIdRead();
+                if (lastEventIdRead < Math.max(0L, firstEventId)) {
+                    getLogger().debug("No events to send because no new events were found in the Provenance Repository.");
+                    return;
+                }
 
-                    final Map<String, String> attributes = new HashMap<>();
-                    final String transactionId = UUID.randomUUID().toString();
-                    attributes.put("reporting.task.transaction.id", transactionId);
-                    attributes.put("mime.type", "application/json");
-
-                    final byte[] data = jsonArray.toString().getBytes(StandardCharsets.UTF_8);
-                    transaction.send(data, attributes);
-                    transaction.confirm();
-                    transaction.complete();
-
-                    final long transferMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
-                    getLogger().info("Successfully sent {} Provenance Events to destination in {} ms; Transaction ID = {}; First Event ID = {}",
-                        new Object[] {filteredEvents.size(), transferMillis, transactionId, rawEvents.get(0).getEventId()});
-                } catch (final IOException e) {
-                    throw new ProcessException("Failed to send Provenance Events to destination due to IOException:" + e.getMessage(), e);
+                if (eventCount > 0) {
+                    // Send the JSON document for the current batch
+                    try {
+                        final Transaction transaction = getClient().createTransaction(TransferDirection.SEND);
+                        if (transaction == null) {
+                            getLogger().debug("All destination nodes are penalized; will attempt to send data later");
+                            return;
+                        }
+
+                        final Map<String, String> attributes = new HashMap<>();
+                        final String transactionId = UUID.randomUUID().toString();
+                        attributes.put("reporting.task.transaction.id", transactionId);
+                        attributes.put("mime.type", "application/json");
+
+                        transaction.send(out.toByteArray(), attributes);
+                        transaction.confirm();
+                        transaction.complete();
+
+                        final long transferMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        getLogger().info("Successfully sent {} Provenance Events to destination in {} ms; Transaction ID = {}; First Event ID = {}",
+                            new Object[] {eventCount, transferMillis, transactionId, batchFirstEventId});
+                    } catch (final IOException e) {
+                        throw new ProcessException("Failed to send Provenance Events to destination due to IOException:" + e.getMessage(), e);
+                    }
                 }
-            }
 
-            firstEventId = updateLastEventId(rawEvents, context.getStateManager());
+                firstEventId = updateLastEventId(lastEventIdRead, context.getStateManager());
 
-            // Retrieve the next batch
-            try {
-                rawEvents = context.getEventAccess().getProvenanceEvents(firstEventId, context.getProperty(BATCH_SIZE).asInteger());
-                filteredEvents = filterEvents(rawEvents);
-            } catch (final IOException ioe) {
-                getLogger().error("Failed to retrieve Provenance Events from repository due to: " + ioe.getMessage(), ioe);
-                return;
+                // If the batch was not filled, the cursor has reached the end of the events that are currently in the repository
+                if (eventCount < batchSize) {
+                    return;
+                }
             }
+        } catch (final IOException ioe) {
+            getLogger().error("Failed to retrieve Provenance Events from repository due to: " + ioe.getMessage(), ioe);
         }
     }
 
-    private long updateLastEventId(final List<ProvenanceEventRecord> events, final StateManager stateManager) {
-        if (events == null || events.isEmpty()) {
-            return firstEventId;
-        }
-
+    private long updateLastEventId(final long lastEventId, final StateManager stateManager) {
         // Store the id of the last event so we know where we left off
-        final ProvenanceEventRecord lastEvent = events.get(events.size() - 1);
-        final String lastEventId = String.valueOf(lastEvent.getEventId());
         try {
             Map<String, String> newMapOfState = new HashMap<>();
-            newMapOfState.put(LAST_EVENT_ID_KEY, lastEventId);
+            newMapOfState.put(LAST_EVENT_ID_KEY, String.valueOf(lastEventId));
             stateManager.setState(newMapOfState, Scope.LOCAL);
         } catch (final IOException ioe) {
             getLogger().error("Failed to update state to {} due to {}; this could result in events being re-sent after a restart. The message of {} was: {}",
                 new Object[] {lastEventId, ioe, ioe, ioe.getMessage()}, ioe);
         }
 
-        return lastEvent.getEventId() + 1;
+        return lastEventId + 1;
     }
 
-    private List<ProvenanceEventRecord> filterEvents(final List<ProvenanceEventRecord> provenanceEvents) {
-        if (provenanceEvents == null || provenanceEvents.isEmpty()) {
-            return Collections.emptyList();
+    private boolean isEventIncluded(final ProvenanceEventRecord provenanceEventRecord) {
+        if (!isFilteringEnabled) {
+            return true;
         }
 
-        if(isFilteringEnabled) {
-            List<ProvenanceEventRecord> filteredEvents = new ArrayList<ProvenanceEventRecord>();
-
-            for (ProvenanceEventRecord provenanceEventRecord : provenanceEvents) {
-                if(!componentIds.isEmpty() && !componentIds.contains(provenanceEventRecord.getComponentId())) {
-                    continue;
-                }
-                if(!eventTypes.isEmpty() && !eventTypes.contains(provenanceEventRecord.getEventType())) {
-                    continue;
-                }
-                if(componentTypeRegex != null && !componentTypeRegex.matcher(provenanceEventRecord.getComponentType()).matches()) {
-                    continue;
-                }
-                filteredEvents.add(provenanceEventRecord);
-            }
-
-            return filteredEvents;
-        } else {
-            return provenanceEvents;
+        if (!componentIds.isEmpty() && !componentIds.contains(provenanceEventRecord.getComponentId())) {
+            return false;
+        }
+        if (!eventTypes.isEmpty() && !eventTypes.contains(provenanceEventRecord.getEventType())) {
+            return false;
         }
+        if (componentTypeRegex != null && !componentTypeRegex.matcher(provenanceEventRecord.getComponentType()).matches()) {
+            return false;
+        }
+
+        return true;
     }
 
     static JsonObject serialize(final JsonBuilderFactory factory, final JsonObjectBuilder builder, final ProvenanceEventRecord event, final DateFormat df,
@@ -25,6 +25,7 @@ import org.apache.nifi.controller.ConfigurationContext;
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.provenance.ProvenanceEventBuilder;
+import org.apache.nifi.provenance.ProvenanceEventCursor;
 import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceEventRepository;
 import org.apache.nifi.provenance.ProvenanceEventType;
@@ -52,7 +53,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import static org.junit.Assert.assertEquals;
 
@@ -84,28 +85,48 @@ public class TestSiteToSiteProvenanceReportingTask {
         }).when(confContext).getProperty(Mockito.any(PropertyDescriptor.class));
 
         final long maxEventId = 2500;
-        final AtomicInteger totalEvents = new AtomicInteger(0);
 
         final EventAccess eventAccess = Mockito.mock(EventAccess.class);
-        Mockito.doAnswer(new Answer<List<ProvenanceEventRecord>>() {
+        final ProvenanceEventRepository provenanceRepository = Mockito.mock(ProvenanceEventRepository.class);
+        Mockito.doAnswer(new Answer<ProvenanceEventCursor>() {
             @Override
-            public List<ProvenanceEventRecord> answer(final InvocationOnMock invocation) throws Throwable {
+            @SuppressWarnings("unchecked")
+            public ProvenanceEventCursor answer(final InvocationOnMock invocation) throws Throwable {
                 final long startId = invocation.getArgumentAt(0, long.class);
-                final int maxRecords = invocation.getArgumentAt(1, int.class);
+                final Predicate<ProvenanceEventRecord> filter = invocation.getArgumentAt(1, Predicate.class);
+                return new ProvenanceEventCursor() {
+                    private long nextId = Math.max(0, startId);
+                    private long lastEventIdRead = -1L;
+
+                    @Override
+                    public ProvenanceEventRecord nextEvent() {
+                        while (event != null && nextId < maxEventId) {
+                            lastEventIdRead = nextId++;
+                            final ProvenanceEventRecord eventWithId = new StandardProvenanceEventRecord.Builder()
+                                .fromEvent(event)
+                                .setEventId(lastEventIdRead)
+                                .build();
+
+                            if (filter == null || filter.test(eventWithId)) {
+                                return eventWithId;
+                            }
+                        }
 
-                final List<ProvenanceEventRecord> eventsToReturn = new ArrayList<>();
-                for (int i = (int) Math.max(0, startId); i < (int) (startId + maxRecords) && totalEvents.get() < maxEventId; i++) {
-                    if (event != null) {
-                        eventsToReturn.add(event);
+                        return null;
+                    }
+
+                    @Override
+                    public long getLastEventIdRead() {
+                        return lastEventIdRead;
                     }
 
-                    totalEvents.getAndIncrement();
-                }
-                return eventsToReturn;
+                    @Override
+                    public void close() {
+                    }
+                };
             }
-        }).when(eventAccess).getProvenanceEvents(Mockito.anyLong(), Mockito.anyInt());
+        }).when(provenanceRepository).getEventCursor(Mockito.anyLong(), Mockito.any(Predicate.class));
 
-        final ProvenanceEventRepository provenanceRepository = Mockito.mock(ProvenanceEventRepository.class);
         Mockito.doAnswer(new Answer<Long>() {
             @Override
             public Long answer(final InvocationOnMock invocation) throws Throwable {
@@ -184,6 +205,27 @@ public class TestSiteToSiteProvenanceReportingTask {
         assertEquals(0, task.dataSent.size());
     }
 
+    @Test
+    public void testLastEventIdStoredWhenAllEventsFiltered() throws IOException, InitializationException {
+        final Map<PropertyDescriptor, String> properties = new HashMap<>();
+        for (final PropertyDescriptor descriptor : new MockSiteToSiteProvenanceReportingTask().getSupportedPropertyDescriptors()) {
+            properties.put(descriptor, descriptor.getDefaultValue());
+        }
+        properties.put(SiteToSiteProvenanceReportingTask.BATCH_SIZE, "1000");
+        properties.put(SiteToSiteProvenanceReportingTask.FILTER_COMPONENT_ID, "9999");
+
+        ProvenanceEventRecord event = createProvenanceEventRecord();
+
+        MockSiteToSiteProvenanceReportingTask task = setup(event, properties);
+        task.initialize(initContext);
+        task.onScheduled(confContext);
+        task.onTrigger(context);
+
+        // No events are sent, but the task must not read the filtered events again
+        assertEquals(0, task.dataSent.size());
+        assertEquals("2499", context.getStateManager().getState(Scope.LOCAL).get(SiteToSiteProvenanceReportingTask.LAST_EVENT_ID_KEY));
+    }
+
     @Test
     public void testFilterComponentTypeSuccess() throws IOException, InitializationException {
         final Map<PropertyDescriptor, String> properties = new HashMap<>();
@@ -300,50 +300,63 @@ public class LookupRecord extends AbstractRouteRecord<Tuple<Map<String, RecordPa
             return rels;
         }
 
-        // Ensure that the Record has the appropriate schema to account for the newly added values
         final RecordPath resultPath = flowFileContext.getValue();
         if (resultPath != null) {
-            record.incorporateSchema(writeSchema);
-
-            final Object lookupValue = lookupValueOption.get();
-            final RecordPathResult resultPathResult = flowFileContext.getValue().evaluate(record);
-
-            final String resultContentsValue = context.getProperty(RESULT_CONTENTS).getValue();
-            if (RESULT_RECORD_FIELDS.getValue().equals(resultContentsValue) && lookupValue instanceof Record) {
-                final Record lookupRecord = (Record) lookupValue;
-
-                // Use wants to add all fields of the resultant Record to the specified Record Path.
-                // If the destination Record Path returns to us a Record, then we will add all field values of
-                // the Lookup Record to the destination Record. However, if the destination Record Path returns
-                // something other than a Record, then we can't add the fields to it. We can only replace it,
-                // because it doesn't make sense to add fields to anything but a Record.
-                resultPathResult.getSelectedFields().forEach(fieldVal -> {
-                    final Object destinationValue = fieldVal.getValue();
-
-                    if (destinationValue instanceof Record) {
-                        final Record destinationRecord = (Record) destinationValue;
-
-                        for (final String fieldName : lookupRecord.getRawFieldNames()) {
-                            final Object value = lookupRecord.getValue(fieldName);
-                            destinationRecord.setValue(fieldName, value);
-                        }
-                    } else {
-                        final Optional<Record> parentOption = fieldVal.getParentRecord();
-
-                        if (parentOption.isPresent()) {
-                            parentOption.get().setValue(fieldVal.getField().getFieldName(), lookupRecord);
-                        }
-                    }
-                });
-            } else {
-                resultPathResult.getSelectedFields().forEach(fieldVal -> fieldVal.updateValue(lookupValue));
-            }
+            final boolean insertRecordFields = RESULT_RECORD_FIELDS.getValue().equals(context.getProperty(RESULT_CONTENTS).getValue());
+            insertLookupResult(record, writeSchema, resultPath, lookupValueOption.get(), insertRecordFields);
         }
 
         final Set<Relationship> rels = routeToMatchedUnmatched ? MATCHED_COLLECTION : SUCCESS_COLLECTION;
         return rels;
     }
 
+    /**
+     * Inserts the given value, which was returned by a Lookup Service, into the given Record at the fields selected by the given RecordPath
+     *
+     * @param record the Record to update
+     * @param writeSchema the schema that the Record will be written with, which must account for the inserted values
+     * @param resultPath the RecordPath that selects the fields to update
+     * @param lookupValue the value returned by the Lookup Service
+     * @param insertRecordFields if <code>true</code> and the value is a Record, the fields of the value are inserted into the selected
+     *            fields, rather than the value itself
+     */
+    static void insertLookupResult(final Record record, final RecordSchema writeSchema, final RecordPath resultPath, final Object lookupValue, final boolean insertRecordFields) {
+        // Ensure that the Record has the appropriate schema to account for the newly added values
+        record.incorporateSchema(writeSchema);
+
+        final RecordPathResult resultPathResult = resultPath.evaluate(record);
+
+        if (insertRecordFields && lookupValue instanceof Record) {
+            final Record lookupRecord = (Record) lookupValue;
+
+            // Use wants to add all fields of the resultant Record to the specified Record Path.
+            // If the destination Record Path returns to us a Record, then we will add all field values of
+            // the Lookup Record to the destination Record. However, if the destination Record Path returns
+            // something other than a Record, then we can't add the fields to it. We can only replace it,
+            // because it doesn't make sense to add fields to anything but a Record.
+            resultPathResult.getSelectedFields().forEach(fieldVal -> {
+                final Object destinationValue = fieldVal.getValue();
+
+                if (destinationValue instanceof Record) {
+                    final Record destinationRecord = (Record) destinationValue;
+
+                    for (final String fieldName : lookupRecord.getRawFieldNames()) {
+                        final Object value = lookupRecord.getValue(fieldName);
+                        destinationRecord.setValue(fieldName, value);
+                    }
+                } else {
+                    final Optional<Record> parentOption = fieldVal.getParentRecord();
+
+                    if (parentOption.isPresent()) {
+                        parentOption.get().setValue(fieldVal.getField().getFieldName(), lookupRecord);
+                    }
+                }
+            });
+        } else {
+            resultPathResult.getSelectedFields().forEach(fieldVal -> fieldVal.updateValue(lookupValue));
+        }
+    }
+
     @Override
     protected boolean isRouteOriginal() {
         return false;
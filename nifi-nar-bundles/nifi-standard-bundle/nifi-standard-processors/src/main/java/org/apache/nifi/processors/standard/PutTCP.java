@@ -16,7 +16,6 @@
  */
 package org.apache.nifi.processors.standard;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.nifi.annotation.behavior.InputRequirement;
 import org.apache.nifi.annotation.behavior.InputRequirement.Requirement;
 import org.apache.nifi.annotation.behavior.TriggerWhenEmpty;
@@ -37,9 +36,7 @@ import org.apache.nifi.ssl.SSLContextService;
 import org.apache.nifi.util.StopWatch;
 
 import javax.net.ssl.SSLContext;
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Arrays;
@@ -192,13 +189,14 @@ public class PutTCP extends AbstractPutEventProcessor {
         boolean closeSender = isConnectionPerFlowFile(context);
         try {
             // We might keep the connection open across invocations of the processor so don't auto-close this
-            final OutputStream out = ((SocketChannelSender)sender).getOutputStream();
+            final SocketChannelSender socketSender = (SocketChannelSender) sender;
+            final OutputStream out = socketSender.getOutputStream();
             final String delimiter = getOutgoingMessageDelimiter(context, flowFile);
 
             final StopWatch stopWatch = new StopWatch(true);
-            try (final InputStream rawIn = session.read(flowFile);
-                 final BufferedInputStream in = new BufferedInputStream(rawIn)) {
-                IOUtils.copy(in, out);
+            try {
+                // transfer the content straight from the content repository to the socket, rather than copying it through the heap
+                session.readChannel(flowFile, socketSender::transferFrom);
                 if (delimiter != null) {
                     final Charset charSet = Charset.forName(context.getProperty(CHARSET).getValue());
                     out.write(delimiter.getBytes(charSet), 0, delimiter.length());
@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.processors.standard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.nifi.annotation.behavior.DynamicProperty;
+import org.apache.nifi.annotation.behavior.EventDriven;
+import org.apache.nifi.annotation.behavior.InputRequirement;
+import org.apache.nifi.annotation.behavior.InputRequirement.Requirement;
+import org.apache.nifi.annotation.behavior.SideEffectFree;
+import org.apache.nifi.annotation.behavior.SupportsBatching;
+import org.apache.nifi.annotation.behavior.WritesAttribute;
+import org.apache.nifi.annotation.behavior.WritesAttributes;
+import org.apache.nifi.annotation.documentation.CapabilityDescription;
+import org.apache.nifi.annotation.documentation.SeeAlso;
+import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
+import org.apache.nifi.components.AllowableValue;
+import org.apache.nifi.components.PropertyDescriptor;
+import org.apache.nifi.components.PropertyValue;
+import org.apache.nifi.components.ValidationContext;
+import org.apache.nifi.components.ValidationResult;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.lookup.LookupService;
+import org.apache.nifi.processor.ProcessContext;
+import org.apache.nifi.processor.ProcessSession;
+import org.apache.nifi.processor.exception.ProcessException;
+import org.apache.nifi.processor.util.StandardValidators;
+import org.apache.nifi.record.path.FieldValue;
+import org.apache.nifi.record.path.RecordPath;
+import org.apache.nifi.record.path.util.RecordPathCache;
+import org.apache.nifi.record.path.validation.RecordPathPropertyNameValidator;
+import org.apache.nifi.record.path.validation.RecordPathValidator;
+import org.apache.nifi.schema.validation.SchemaValidationContext;
+import org.apache.nifi.schema.validation.StandardSchemaValidator;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.RecordTransform;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+import org.apache.nifi.serialization.record.validation.RecordSchemaValidator;
+import org.apache.nifi.serialization.record.validation.SchemaValidationResult;
+import org.apache.nifi.serialization.record.validation.ValidationError;
+
+
+@EventDriven
+@SideEffectFree
+@SupportsBatching
+@InputRequirement(Requirement.INPUT_REQUIRED)
+@WritesAttributes({
+    @WritesAttribute(attribute = "mime.type", description = "Sets the mime.type attribute to the MIME Type specified by the Record Writer"),
+    @WritesAttribute(attribute = "record.count", description = "The number of records in the FlowFile"),
+    @WritesAttribute(attribute = "record.dropped.count", description = "The number of records that were not written, either because the Filter RecordPath "
+        + "did not select a non-null value or because they were invalid and the Validation Strategy is to drop invalid records")
+})
+@Tags({"transform", "update", "lookup", "enrichment", "filter", "validate", "record", "generic", "schema", "json", "csv", "avro", "log", "logs", "freeform", "text"})
+@CapabilityDescription("Applies several operations to each Record in a FlowFile in a single pass: each Record is read once, using the configured Record Reader, "
+    + "passed through each of the configured operations in turn, and written once, using the configured Record Writer. This produces the same result as a chain of "
+    + "UpdateRecord, LookupRecord, and ValidateRecord Processors, without the cost of reading and writing every Record again for each one. Any operation that is not "
+    + "configured is skipped. The operations are applied in the following order. First, each user-defined Property, whose name is a RecordPath, updates the fields "
+    + "that the RecordPath selects with the value of the Property, as UpdateRecord does with literal values. Second, if a Lookup Service is configured, the value "
+    + "selected by the Lookup Key RecordPath is looked up and any result is inserted at the Lookup Result RecordPath, as LookupRecord does; Records without a match "
+    + "are left unchanged. Third, if a Filter RecordPath is configured, any Record for which it does not select a non-null value is dropped. Finally, Records are "
+    + "validated against the schema of the Record Writer, according to the Validation Strategy. The number of Records that were dropped is added to the FlowFile "
+    + "as the 'record.dropped.count' attribute, and a warning is logged for each FlowFile from which invalid Records were dropped.")
+@DynamicProperty(name = "A RecordPath", value = "The value to use to replace fields in the record that match the RecordPath", supportsExpressionLanguage = true,
+    description = "Updates the fields of each Record that match the RecordPath with the value of the property. Expression Language may reference the variables "
+        + "'field.name', 'field.type', and 'field.value' to access information about the field being updated.")
+@SeeAlso({UpdateRecord.class, LookupRecord.class, ValidateRecord.class, PartitionRecord.class, ConvertRecord.class})
+public class TransformRecord extends AbstractRecordTransformProcessor {
+
+    static final AllowableValue VALIDATION_NONE = new AllowableValue("none", "None",
+        "Records are not validated");
+    static final AllowableValue VALIDATION_DROP_INVALID = new AllowableValue("drop-invalid", "Drop Invalid Records",
+        "Records that are not valid according to the schema of the Record Writer are not written. They are counted in the 'record.dropped.count' attribute and "
+            + "a warning that describes why the first of them was invalid is logged for each FlowFile.");
+    static final AllowableValue VALIDATION_FAIL_INVALID = new AllowableValue("fail-invalid", "Route FlowFile to Failure",
+        "If any Record is not valid according to the schema of the Record Writer, the unchanged FlowFile is routed to 'failure'");
+
+    static final PropertyDescriptor LOOKUP_SERVICE = new PropertyDescriptor.Builder()
+        .name("lookup-service")
+        .displayName("Lookup Service")
+        .description("The Lookup Service to use in order to lookup a value for each Record. If not specified, no lookup is performed.")
+        .identifiesControllerService(LookupService.class)
+        .required(false)
+        .build();
+
+    static final PropertyDescriptor LOOKUP_KEY = new PropertyDescriptor.Builder()
+        .name("lookup-key")
+        .displayName("Lookup Key")
+        .description("The name of the key, in the coordinates that are given to the Lookup Service, whose value is the value selected by the Lookup Key RecordPath")
+        .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
+        .expressionLanguageSupported(false)
+        .defaultValue("key")
+        .required(true)
+        .build();
+
+    static final PropertyDescriptor LOOKUP_KEY_RECORD_PATH = new PropertyDescriptor.Builder()
+        .name("lookup-key-record-path")
+        .displayName("Lookup Key RecordPath")
+        .description("A RecordPath that points to the field whose value will be looked up in the configured Lookup Service. If the RecordPath does not select "
+            + "exactly one non-null value, the Record is left unchanged. Required if a Lookup Service is configured.")
+        .addValidator(new RecordPathValidator())
+        .expressionLanguageSupported(true)
+        .required(false)
+        .build();
+
+    static final PropertyDescriptor LOOKUP_RESULT_RECORD_PATH = new PropertyDescriptor.Builder()
+        .name("lookup-result-record-path")
+        .displayName("Lookup Result RecordPath")
+        .description("A RecordPath that points to the field whose value should be updated with whatever value is returned from the Lookup Service. "
+            + "If not specified, the value that is returned from the Lookup Service will be ignored.")
+        .addValidator(new RecordPathValidator())
+        .expressionLanguageSupported(true)
+        .required(false)
+        .build();
+
+    static final PropertyDescriptor LOOKUP_RESULT_CONTENTS = new PropertyDescriptor.Builder()
+        .name("lookup-result-contents")
+        .displayName("Lookup Result Contents")
+        .description("When a result is obtained that contains a Record, this property determines whether the Record itself is inserted at the configured "
+            + "path or if the contents of the Record (i.e., the sub-fields) will be inserted at the configured path.")
+        .allowableValues(LookupRecord.RESULT_ENTIRE_RECORD, LookupRecord.RESULT_RECORD_FIELDS)
+        .defaultValue(LookupRecord.RESULT_ENTIRE_RECORD.getValue())
+        .required(true)
+        .build();
+
+    static final PropertyDescriptor FILTER_RECORD_PATH = new PropertyDescriptor.Builder()
+        .name("filter-record-path")
+        .displayName("Filter RecordPath")
+        .description("A RecordPath that is evaluated against each Record. Records for which it selects at least one non-null value are kept and all other Records are dropped. "
+            + "For example, /status[. = 'active'] keeps only the Records whose status is 'active'. If not specified, all Records are kept.")
+        .addValidator(new RecordPathValidator())
+        .expressionLanguageSupported(true)
+        .required(false)
+        .build();
+
+    static final PropertyDescriptor VALIDATION_STRATEGY = new PropertyDescriptor.Builder()
+        .name("validation-strategy")
+        .displayName("Validation Strategy")
+        .description("Specifies whether Records are validated against the schema of the Record Writer, after all other operations have been applied, and what happens to "
+            + "Records that are not valid. Fields that are not in the schema are allowed, and fields whose values can be coerced into the type given by the schema are valid.")
+        .allowableValues(VALIDATION_NONE, VALIDATION_DROP_INVALID, VALIDATION_FAIL_INVALID)
+        .defaultValue(VALIDATION_NONE.getValue())
+        .expressionLanguageSupported(false)
+        .required(true)
+        .build();
+
+    private volatile RecordPathCache recordPathCache;
+    private volatile Map<RecordPath, PropertyDescriptor> updates;
+    private volatile LookupService<?> lookupService;
+
+    @Override
+    protected List<PropertyDescriptor> getSupportedPropertyDescriptors() {
+        final List<PropertyDescriptor> properties = new ArrayList<>(super.getSupportedPropertyDescriptors());
+        properties.add(LOOKUP_SERVICE);
+        properties.add(LOOKUP_KEY);
+        properties.add(LOOKUP_KEY_RECORD_PATH);
+        properties.add(LOOKUP_RESULT_RECORD_PATH);
+        properties.add(LOOKUP_RESULT_CONTENTS);
+        properties.add(FILTER_RECORD_PATH);
+        properties.add(VALIDATION_STRATEGY);
+        return properties;
+    }
+
+    @Override
+    protected PropertyDescriptor getSupportedDynamicPropertyDescriptor(final String propertyDescriptorName) {
+        return new PropertyDescriptor.Builder()
+            .name(propertyDescriptorName)
+            .description("Specifies the value to use to replace fields in the record that match the RecordPath: " + propertyDescriptorName)
+            .required(false)
+            .dynamic(true)
+            .expressionLanguageSupported(true)
+            .addValidator(new RecordPathPropertyNameValidator())
+            .build();
+    }
+
+    @Override
+    protected Collection<ValidationResult> customValidate(final ValidationContext validationContext) {
+        if (!validationContext.getProperty(LOOKUP_SERVICE).isSet()) {
+            return Collections.emptyList();
+        }
+
+        if (!validationContext.getProperty(LOOKUP_KEY_RECORD_PATH).isSet()) {
+            return Collections.singleton(new ValidationResult.Builder()
+                .subject(LOOKUP_KEY_RECORD_PATH.getDisplayName())
+                .valid(false)
+                .explanation("A Lookup Key RecordPath must be specified when a Lookup Service is configured")
+                .build());
+        }
+
+        final String lookupKey = validationContext.getProperty(LOOKUP_KEY).getValue();
+        final Set<String> requiredKeys = validationContext.getProperty(LOOKUP_SERVICE).asControllerService(LookupService.class).getRequiredKeys();
+        final List<ValidationResult> validationResults = new ArrayList<>();
+        for (final String requiredKey : requiredKeys) {
+            if (!requiredKey.equals(lookupKey)) {
+                validationResults.add(new ValidationResult.Builder()
+                    .subject(LOOKUP_KEY.getDisplayName())
+                    .valid(false)
+                    .explanation("The configured Lookup Service requires that a key be provided with the name '" + requiredKey
+                        + "' but the only key that this Processor provides is '" + lookupKey + "'")
+                    .build());
+            }
+        }
+
+        return validationResults;
+    }
+
+    @OnScheduled
+    public void onScheduled(final ProcessContext context) {
+        recordPathCache = new RecordPathCache(context.getProperties().size() * 2);
+
+        final Map<RecordPath, PropertyDescriptor> updates = new LinkedHashMap<>();
+        for (final PropertyDescriptor property : context.getProperties().keySet()) {
+            if (property.isDynamic()) {
+                updates.put(recordPathCache.getCompiled(property.getName()), property);
+            }
+        }
+        this.updates = updates;
+
+        if (context.getProperty(LOOKUP_SERVICE).isSet()) {
+            lookupService = context.getProperty(LOOKUP_SERVICE).asControllerService(LookupService.class);
+        } else {
+            lookupService = null;
+        }
+    }
+
+    @Override
+    protected RecordTransform getRecordTransform(final RecordSchema writeSchema, final FlowFile flowFile, final ProcessContext context) {
+        return new FlowFileTransform(writeSchema, flowFile, context);
+    }
+
+    @Override
+    protected FlowFile onRecordsTransformed(final FlowFile flowFile, final RecordTransform transform, final ProcessSession session) {
+        final FlowFileTransform flowFileTransform = (FlowFileTransform) transform;
+        final int filteredCount = flowFileTransform.getFilteredCount();
+        final int invalidCount = flowFileTransform.getInvalidCount();
+
+        if (invalidCount > 0) {
+            getLogger().warn("Dropped {} Records from {} because they were not valid according to the schema of the Record Writer. The first invalid Record had "
+                + "the following problems: {}", new Object[] {invalidCount, flowFile, flowFileTransform.getFirstValidationErrors()});
+        }
+        if (filteredCount > 0) {
+            getLogger().debug("Dropped {} Records from {} because the Filter RecordPath did not select a non-null value", new Object[] {filteredCount, flowFile});
+        }
+
+        session.adjustCounter("Records Filtered", filteredCount, false);
+        session.adjustCounter("Invalid Records Dropped", invalidCount, false);
+        return session.putAttribute(flowFile, "record.dropped.count", String.valueOf(filteredCount + invalidCount));
+    }
+
+    private RecordTransform createUpdateTransform(final RecordSchema writeSchema, final FlowFile flowFile, final ProcessContext context) {
+        final Map<RecordPath, PropertyValue> replacementValues = new LinkedHashMap<>();
+        for (final Map.Entry<RecordPath, PropertyDescriptor> entry : updates.entrySet()) {
+            replacementValues.put(entry.getKey(), context.getProperty(entry.getValue()));
+        }
+
+        return record -> {
+            // Incorporate the RecordSchema that we will use for writing records into the Schema that we have
+            // for the record, because it's possible that the updates to the record will not be valid otherwise.
+            record.incorporateSchema(writeSchema);
+
+            for (final Map.Entry<RecordPath, PropertyValue> entry : replacementValues.entrySet()) {
+                UpdateRecord.updateWithLiteralValue(entry.getKey().evaluate(record).getSelectedFields(), entry.getValue(), flowFile);
+            }
+
+            return record;
+        };
+    }
+
+    private RecordTransform createLookupTransform(final RecordSchema writeSchema, final FlowFile flowFile, final ProcessContext context) {
+        final LookupService<?> lookupService = this.lookupService;
+        final String lookupKey = context.getProperty(LOOKUP_KEY).getValue();
+        final RecordPath keyPath = getRecordPath(context, LOOKUP_KEY_RECORD_PATH, flowFile);
+        final RecordPath resultPath = context.getProperty(LOOKUP_RESULT_RECORD_PATH).isSet() ? getRecordPath(context, LOOKUP_RESULT_RECORD_PATH, flowFile) : null;
+        final boolean insertRecordFields = LookupRecord.RESULT_RECORD_FIELDS.getValue().equals(context.getProperty(LOOKUP_RESULT_CONTENTS).getValue());
+
+        return record -> {
+            final List<FieldValue> keyFieldValues = keyPath.evaluate(record).getSelectedFields()
+                .filter(fieldVal -> fieldVal.getValue() != null)
+                .collect(Collectors.toList());
+
+            if (keyFieldValues.size() != 1) {
+                getLogger().debug("Lookup Key RecordPath matched {} fields in a record for {}; record will not be enriched", new Object[] {keyFieldValues.size(), flowFile});
+                return record;
+            }
+
+            final String keyValue = DataTypeUtils.toString(keyFieldValues.get(0).getValue(), (String) null);
+            final Map<String, String> lookupCoordinates = Collections.singletonMap(lookupKey, keyValue);
+
+            final Optional<?> lookupValueOption;
+            try {
+                lookupValueOption = lookupService.lookup(lookupCoordinates);
+            } catch (final Exception e) {
+                throw new ProcessException("Failed to lookup coordinates " + lookupCoordinates + " in Lookup Service", e);
+            }
+
+            if (lookupValueOption.isPresent() && resultPath != null) {
+                LookupRecord.insertLookupResult(record, writeSchema, resultPath, lookupValueOption.get(), insertRecordFields);
+            }
+
+            return record;
+        };
+    }
+
+    private RecordPath getRecordPath(final ProcessContext context, final PropertyDescriptor prop, final FlowFile flowFile) {
+        final String pathText = context.getProperty(prop).evaluateAttributeExpressions(flowFile).getValue();
+        return recordPathCache.getCompiled(pathText);
+    }
+
+    /**
+     * Applies each of the configured operations to the Records of one FlowFile, keeping count of the Records that are dropped
+     */
+    private class FlowFileTransform implements RecordTransform {
+        private final RecordTransform transform;
+        private int filteredCount = 0;
+        private int invalidCount = 0;
+        private Collection<ValidationError> firstValidationErrors;
+
+        FlowFileTransform(final RecordSchema writeSchema, final FlowFile flowFile, final ProcessContext context) {
+            RecordTransform transform = RecordTransform.identity();
+
+            if (!updates.isEmpty()) {
+                transform = transform.andThen(createUpdateTransform(writeSchema, flowFile, context));
+            }
+
+            if (lookupService != null) {
+                transform = transform.andThen(createLookupTransform(writeSchema, flowFile, context));
+            }
+
+            if (context.getProperty(FILTER_RECORD_PATH).isSet()) {
+                transform = transform.andThen(createFilterTransform(getRecordPath(context, FILTER_RECORD_PATH, flowFile)));
+            }
+
+            final String validationStrategy = context.getProperty(VALIDATION_STRATEGY).getValue();
+            if (!VALIDATION_NONE.getValue().equals(validationStrategy)) {
+                transform = transform.andThen(createValidationTransform(writeSchema, flowFile, VALIDATION_FAIL_INVALID.getValue().equals(validationStrategy)));
+            }
+
+            this.transform = transform;
+        }
+
+        private RecordTransform createFilterTransform(final RecordPath filterPath) {
+            return record -> {
+                if (filterPath.evaluate(record).getSelectedFields().anyMatch(fieldVal -> fieldVal.getValue() != null)) {
+                    return record;
+                }
+
+                filteredCount++;
+                return null;
+            };
+        }
+
+        private RecordTransform createValidationTransform(final RecordSchema writeSchema, final FlowFile flowFile, final boolean failOnInvalid) {
+            final RecordSchemaValidator validator = new StandardSchemaValidator(new SchemaValidationContext(writeSchema, true, false));
+
+            return record -> {
+                final SchemaValidationResult result = validator.validate(record);
+                if (result.isValid()) {
+                    return record;
+                }
+
+                if (failOnInvalid) {
+                    throw new ProcessException("Found a Record in " + flowFile + " that is not valid according to the schema of the Record Writer: " + result.getValidationErrors());
+                }
+
+                if (firstValidationErrors == null) {
+                    firstValidationErrors = result.getValidationErrors();
+                }
+
+                invalidCount++;
+                return null;
+            };
+        }
+
+        @Override
+        public Record transform(final Record record) {
+            return transform.transform(record);
+        }
+
+        int getFilteredCount() {
+            return filteredCount;
+        }
+
+        int getInvalidCount() {
+            return invalidCount;
+        }
+
+        Collection<ValidationError> getFirstValidationErrors() {
+            return firstValidationErrors;
+        }
+    }
+}
@@ -165,23 +165,31 @@ public class UpdateRecord extends AbstractRecordProcessor {
                 }
             } else {
                 final PropertyValue replacementValue = context.getProperty(recordPathText);
-                final Map<String, String> fieldVariables = new HashMap<>(4);
-
-                result.getSelectedFields().forEach(fieldVal -> {
-                    fieldVariables.clear();
-                    fieldVariables.put(FIELD_NAME, fieldVal.getField().getFieldName());
-                    fieldVariables.put(FIELD_VALUE, DataTypeUtils.toString(fieldVal.getValue(), (String) null));
-                    fieldVariables.put(FIELD_TYPE, fieldVal.getField().getDataType().getFieldType().name());
-
-                    final String evaluatedReplacementVal = replacementValue.evaluateAttributeExpressions(flowFile, fieldVariables).getValue();
-                    fieldVal.updateValue(evaluatedReplacementVal);
-                });
+                updateWithLiteralValue(result.getSelectedFields(), replacementValue, flowFile);
             }
         }
 
         return record;
     }
 
+    /**
+     * Updates each of the given fields with the value of the given property, evaluating the property's Expression Language against the
+     * FlowFile and the variables 'field.name', 'field.value', and 'field.type' that describe the field being updated
+     */
+    static void updateWithLiteralValue(final Stream<FieldValue> selectedFields, final PropertyValue replacementValue, final FlowFile flowFile) {
+        final Map<String, String> fieldVariables = new HashMap<>(4);
+
+        selectedFields.forEach(fieldVal -> {
+            fieldVariables.clear();
+            fieldVariables.put(FIELD_NAME, fieldVal.getField().getFieldName());
+            fieldVariables.put(FIELD_VALUE, DataTypeUtils.toString(fieldVal.getValue(), (String) null));
+            fieldVariables.put(FIELD_TYPE, fieldVal.getField().getDataType().getFieldType().name());
+
+            final String evaluatedReplacementVal = replacementValue.evaluateAttributeExpressions(flowFile, fieldVariables).getValue();
+            fieldVal.updateValue(evaluatedReplacementVal);
+        });
+    }
+
     private Record processAbsolutePath(final RecordPath replacementRecordPath, final Stream<FieldValue> destinationFields, final Record record) {
         final RecordPathResult replacementResult = replacementRecordPath.evaluate(record);
         final List<FieldValue> selectedFields = replacementResult.getSelectedFields().collect(Collectors.toList());
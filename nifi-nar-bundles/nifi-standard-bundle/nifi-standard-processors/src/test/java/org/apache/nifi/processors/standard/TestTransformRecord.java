@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.processors.standard;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.nifi.controller.AbstractControllerService;
+import org.apache.nifi.lookup.StringLookupService;
+import org.apache.nifi.reporting.InitializationException;
+import org.apache.nifi.serialization.record.MockRecordParser;
+import org.apache.nifi.serialization.record.MockRecordWriter;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.util.MockFlowFile;
+import org.apache.nifi.util.TestRunner;
+import org.apache.nifi.util.TestRunners;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTransformRecord {
+
+    private TestRunner runner;
+    private MapLookup lookupService;
+    private MockRecordParser recordReader;
+    private MockRecordWriter recordWriter;
+
+    @Before
+    public void setup() throws InitializationException {
+        recordReader = new MockRecordParser();
+        recordWriter = new MockRecordWriter(null, false);
+        lookupService = new MapLookup();
+
+        runner = TestRunners.newTestRunner(TransformRecord.class);
+        runner.addControllerService("reader", recordReader);
+        runner.enableControllerService(recordReader);
+        runner.addControllerService("writer", recordWriter);
+        runner.enableControllerService(recordWriter);
+        runner.addControllerService("lookup", lookupService);
+        runner.enableControllerService(lookupService);
+
+        runner.setProperty(TransformRecord.RECORD_READER, "reader");
+        runner.setProperty(TransformRecord.RECORD_WRITER, "writer");
+
+        recordReader.addSchemaField("name", RecordFieldType.STRING);
+        recordReader.addSchemaField("age", RecordFieldType.INT);
+        recordReader.addSchemaField("sport", RecordFieldType.STRING);
+
+        recordReader.addRecord("John Doe", 48, null);
+        recordReader.addRecord("Jane Doe", 47, null);
+        recordReader.addRecord("Jimmy Doe", 14, null);
+    }
+
+    @Test
+    public void testNoOperations() {
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(TransformRecord.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(TransformRecord.REL_SUCCESS).get(0);
+        out.assertAttributeEquals("record.count", "3");
+        out.assertAttributeEquals("record.dropped.count", "0");
+        out.assertContentEquals("John Doe,48,\nJane Doe,47,\nJimmy Doe,14,\n");
+    }
+
+    @Test
+    public void testUpdateLookupAndFilterInOnePass() {
+        lookupService.addValue("JOHN DOE", "Soccer");
+        lookupService.addValue("JIMMY DOE", "Football");
+
+        runner.setProperty("/name", "${field.value:toUpper()}");
+        runner.setProperty(TransformRecord.LOOKUP_SERVICE, "lookup");
+        runner.setProperty(TransformRecord.LOOKUP_KEY, "lookup");
+        runner.setProperty(TransformRecord.LOOKUP_KEY_RECORD_PATH, "/name");
+        runner.setProperty(TransformRecord.LOOKUP_RESULT_RECORD_PATH, "/sport");
+        runner.setProperty(TransformRecord.FILTER_RECORD_PATH, "/sport");
+
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(TransformRecord.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(TransformRecord.REL_SUCCESS).get(0);
+        out.assertAttributeEquals("record.count", "2");
+        out.assertAttributeEquals("record.dropped.count", "1");
+        out.assertAttributeEquals("mime.type", "text/plain");
+        out.assertContentEquals("JOHN DOE,48,Soccer\nJIMMY DOE,14,Football\n");
+    }
+
+    @Test
+    public void testUnmatchedRecordsAreUnchanged() {
+        lookupService.addValue("Jane Doe", "Basketball");
+
+        runner.setProperty(TransformRecord.LOOKUP_SERVICE, "lookup");
+        runner.setProperty(TransformRecord.LOOKUP_KEY, "lookup");
+        runner.setProperty(TransformRecord.LOOKUP_KEY_RECORD_PATH, "/name");
+        runner.setProperty(TransformRecord.LOOKUP_RESULT_RECORD_PATH, "/sport");
+
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(TransformRecord.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(TransformRecord.REL_SUCCESS).get(0);
+        out.assertAttributeEquals("record.count", "3");
+        out.assertContentEquals("John Doe,48,\nJane Doe,47,Basketball\nJimmy Doe,14,\n");
+    }
+
+    @Test
+    public void testLookupServiceRequiresKeyRecordPath() {
+        runner.setProperty(TransformRecord.LOOKUP_SERVICE, "lookup");
+        runner.setProperty(TransformRecord.LOOKUP_KEY, "lookup");
+        runner.assertNotValid();
+
+        runner.setProperty(TransformRecord.LOOKUP_KEY_RECORD_PATH, "/name");
+        runner.assertValid();
+    }
+
+    @Test
+    public void testLookupKeyMustMatchRequiredKeys() {
+        runner.setProperty(TransformRecord.LOOKUP_SERVICE, "lookup");
+        runner.setProperty(TransformRecord.LOOKUP_KEY_RECORD_PATH, "/name");
+        runner.assertNotValid();
+
+        runner.setProperty(TransformRecord.LOOKUP_KEY, "lookup");
+        runner.assertValid();
+    }
+
+    @Test
+    public void testDropInvalidRecords() {
+        recordReader.addRecord("John Smith", "unknown", null);
+        runner.setProperty(TransformRecord.VALIDATION_STRATEGY, TransformRecord.VALIDATION_DROP_INVALID);
+
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(TransformRecord.REL_SUCCESS, 1);
+        final MockFlowFile out = runner.getFlowFilesForRelationship(TransformRecord.REL_SUCCESS).get(0);
+        out.assertAttributeEquals("record.count", "3");
+        out.assertAttributeEquals("record.dropped.count", "1");
+        assertEquals(1, runner.getLogger().getWarnMessages().size());
+        out.assertContentEquals("John Doe,48,\nJane Doe,47,\nJimmy Doe,14,\n");
+    }
+
+    @Test
+    public void testFailOnInvalidRecord() {
+        recordReader.addRecord("John Smith", "unknown", null);
+        runner.setProperty(TransformRecord.VALIDATION_STRATEGY, TransformRecord.VALIDATION_FAIL_INVALID);
+
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertAllFlowFilesTransferred(TransformRecord.REL_FAILURE, 1);
+        runner.getFlowFilesForRelationship(TransformRecord.REL_FAILURE).get(0).assertContentEquals("");
+    }
+
+
+    private static class MapLookup extends AbstractControllerService implements StringLookupService {
+        private final Map<String, String> values = new HashMap<>();
+
+        public void addValue(final String key, final String value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public Class<?> getValueType() {
+            return String.class;
+        }
+
+        @Override
+        public Optional<String> lookup(final Map<String, String> coordinates) {
+            if (coordinates == null) {
+                return Optional.empty();
+            }
+
+            final String key = coordinates.get("lookup");
+            if (key == null) {
+                return Optional.empty();
+            }
+
+            return Optional.ofNullable(values.get(key));
+        }
+
+        @Override
+        public Set<String> getRequiredKeys() {
+            return Collections.singleton("lookup");
+        }
+    }
+}
@@ -23,12 +23,16 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.apache.commons.csv.CSVFormat;
@@ -38,8 +42,8 @@ import org.apache.commons.io.input.BOMInputStream;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.record.ArrayRecord;
 import org.apache.nifi.serialization.record.DataType;
-import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.util.DataTypeUtils;
@@ -54,6 +58,10 @@ public class CSVRecordReader implements RecordReader {
     private final Supplier<DateFormat> LAZY_TIMESTAMP_FORMAT;
 
     private List<String> rawFieldNames;
+    private int[] fieldIndices;
+    private Function<Object, Object>[] fieldConverters;
+    private Set<String> sourceFieldNames;
+    private Set<String> knownSourceFieldNames;
 
     public CSVRecordReader(final InputStream in, final ComponentLog logger, final RecordSchema schema, final CSVFormat csvFormat, final boolean hasHeader, final boolean ignoreHeader,
         final String dateFormat, final String timeFormat, final String timestampFormat) throws IOException {
@@ -88,36 +96,53 @@ public class CSVRecordReader implements RecordReader {
         final RecordSchema schema = getSchema();
 
         final List<String> rawFieldNames = getRawFieldNames();
+        final int[] fieldIndices = getFieldIndices();
+        final Function<Object, Object>[] fieldConverters = getFieldConverters();
         final int numFieldNames = rawFieldNames.size();
 
         for (final CSVRecord csvRecord : csvParser) {
-            final Map<String, Object> values = new LinkedHashMap<>();
+            final Object[] values = new Object[schema.getFieldCount()];
+            final boolean[] missing = new boolean[values.length];
+            Arrays.fill(missing, true);
+            Map<String, Object> unknownValues = null;
+
             for (int i = 0; i < csvRecord.size(); i++) {
                 final String rawFieldName = numFieldNames <= i ? "unknown_field_index_" + i : rawFieldNames.get(i);
                 final String rawValue = csvRecord.get(i);
 
-                final Optional<DataType> dataTypeOption = schema.getDataType(rawFieldName);
+                final int fieldIndex = numFieldNames <= i ? schema.getFieldIndex(rawFieldName).orElse(-1) : fieldIndices[i];
+                if (fieldIndex < 0) {
+                    if (dropUnknownFields) {
+                        continue;
+                    }
 
-                if (!dataTypeOption.isPresent() && dropUnknownFields) {
+                    if (unknownValues == null) {
+                        unknownValues = new LinkedHashMap<>();
+                    }
+                    unknownValues.put(rawFieldName, rawValue);
                     continue;
                 }
 
+                final DataType dataType = schema.getField(fieldIndex).getDataType();
                 final Object value;
-                if (coerceTypes && dataTypeOption.isPresent()) {
-                    value = convert(rawValue, dataTypeOption.get(), rawFieldName);
-                } else if (dataTypeOption.isPresent()) {
+                if (coerceTypes) {
+                    value = numFieldNames <= i ? convert(rawValue, dataType, rawFieldName) : convert(rawValue, fieldConverters[i]);
+                } else {
                     // The CSV Reader is going to return all fields as Strings, because CSV doesn't have any way to
                     // dictate a field type. As a result, we will use the schema that we have to attempt to convert
                     // the value into the desired type if it's a simple type.
-                    value = convertSimpleIfPossible(rawValue, dataTypeOption.get(), rawFieldName);
-                } else {
-                    value = rawValue;
+                    value = convertSimpleIfPossible(rawValue, dataType, rawFieldName);
                 }
 
-                values.put(rawFieldName, value);
+                values[fieldIndex] = value;
+                missing[fieldIndex] = false;
             }
 
-            return new MapRecord(schema, values, coerceTypes, dropUnknownFields);
+            // Keep the column order and the names that the header uses, which may be aliases, so that writing the record back out
+            // as CSV produces the same columns.
+            final Set<String> sourceFieldNames = csvRecord.size() == numFieldNames ? getSourceFieldNames(dropUnknownFields)
+                : createSourceFieldNames(csvRecord.size(), dropUnknownFields);
+            return new ArrayRecord(schema, values, missing, unknownValues, sourceFieldNames, null, coerceTypes, dropUnknownFields);
         }
 
         return null;
@@ -140,6 +165,83 @@ public class CSVRecordReader implements RecordReader {
     }
 
 
+    /**
+     * @return the names of the fields in a record that has a value for every column of the header, in column order
+     */
+    private Set<String> getSourceFieldNames(final boolean dropUnknownFields) {
+        if (dropUnknownFields) {
+            if (knownSourceFieldNames == null) {
+                knownSourceFieldNames = createSourceFieldNames(getRawFieldNames().size(), true);
+            }
+            return knownSourceFieldNames;
+        }
+
+        if (sourceFieldNames == null) {
+            sourceFieldNames = createSourceFieldNames(getRawFieldNames().size(), false);
+        }
+        return sourceFieldNames;
+    }
+
+    private Set<String> createSourceFieldNames(final int columnCount, final boolean dropUnknownFields) {
+        final List<String> rawFieldNames = getRawFieldNames();
+        final int[] fieldIndices = getFieldIndices();
+
+        final Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < columnCount; i++) {
+            final String rawFieldName = rawFieldNames.size() <= i ? "unknown_field_index_" + i : rawFieldNames.get(i);
+            final int fieldIndex = rawFieldNames.size() <= i ? schema.getFieldIndex(rawFieldName).orElse(-1) : fieldIndices[i];
+            if (fieldIndex < 0 && dropUnknownFields) {
+                continue;
+            }
+
+            names.add(rawFieldName);
+        }
+
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * @return for each of the raw field names, the index of the corresponding field in the schema, or -1 if the schema has no such field
+     */
+    private int[] getFieldIndices() {
+        if (this.fieldIndices != null) {
+            return this.fieldIndices;
+        }
+
+        final List<String> rawFieldNames = getRawFieldNames();
+        final int[] indices = new int[rawFieldNames.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = schema.getFieldIndex(rawFieldNames.get(i)).orElse(-1);
+        }
+
+        this.fieldIndices = indices;
+        return indices;
+    }
+
+    /**
+     * @return for each of the raw field names that has a corresponding field in the schema, the converter to that field's type, so that
+     *         the conversion for each column is chosen only once rather than for every record
+     */
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object>[] getFieldConverters() {
+        if (this.fieldConverters != null) {
+            return this.fieldConverters;
+        }
+
+        final List<String> rawFieldNames = getRawFieldNames();
+        final int[] fieldIndices = getFieldIndices();
+        final Function<Object, Object>[] converters = new Function[fieldIndices.length];
+        for (int i = 0; i < converters.length; i++) {
+            if (fieldIndices[i] > -1) {
+                final DataType dataType = schema.getField(fieldIndices[i]).getDataType();
+                converters[i] = DataTypeUtils.createConverter(dataType, LAZY_DATE_FORMAT, LAZY_TIME_FORMAT, LAZY_TIMESTAMP_FORMAT, rawFieldNames.get(i));
+            }
+        }
+
+        this.fieldConverters = converters;
+        return converters;
+    }
+
     @Override
     public RecordSchema getSchema() {
         return schema;
@@ -158,6 +260,19 @@ public class CSVRecordReader implements RecordReader {
         return DataTypeUtils.convertType(trimmed, dataType, LAZY_DATE_FORMAT, LAZY_TIME_FORMAT, LAZY_TIMESTAMP_FORMAT, fieldName);
     }
 
+    private Object convert(final String value, final Function<Object, Object> converter) {
+        if (value == null) {
+            return null;
+        }
+
+        final String trimmed = value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
+        if (trimmed.isEmpty()) {
+            return null;
+        }
+
+        return converter.apply(trimmed);
+    }
+
     private Object convertSimpleIfPossible(final String value, final DataType dataType, final String fieldName) {
         if (dataType == null || value == null) {
             return value;
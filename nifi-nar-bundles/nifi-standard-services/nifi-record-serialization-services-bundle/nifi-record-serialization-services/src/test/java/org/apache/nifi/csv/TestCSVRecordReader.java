@@ -22,19 +22,23 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Date;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.List;
 import java.util.TimeZone;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.schema.access.SchemaNameAsAttribute;
 import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.SimpleRecordSchema;
 import org.apache.nifi.serialization.record.DataType;
@@ -324,6 +328,64 @@ public class TestCSVRecordReader {
         }
     }
 
+    @Test
+    public void testRawFieldNamesFollowHeader() throws IOException, MalformedRecordException {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("zipCode", RecordFieldType.STRING.getDataType(), Collections.singleton("zip")));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        final String headerLine = "name, zip, id, country";
+        final String inputRecord = "John, 11111, 1, USA";
+        final String shortRecord = "Jane, 22222";
+        final String csvData = headerLine + "\n" + inputRecord + "\n" + shortRecord;
+
+        try (final InputStream bais = new ByteArrayInputStream(csvData.getBytes());
+            final CSVRecordReader reader = createReader(bais, schema, format)) {
+
+            final Record record = reader.nextRecord(false, false);
+            assertEquals(Arrays.asList("name", "zip", "id", "country"), new ArrayList<>(record.getRawFieldNames()));
+            assertEquals("11111", record.getValue("zipCode"));
+
+            final Record knownFieldsRecord = reader.nextRecord(true, true);
+            assertEquals(Arrays.asList("name", "zip"), new ArrayList<>(knownFieldsRecord.getRawFieldNames()));
+            assertEquals("22222", knownFieldsRecord.getValue("zipCode"));
+            assertNull(knownFieldsRecord.getValue("id"));
+
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    @Test
+    public void testWriteRawRecordKeepsColumns() throws IOException, MalformedRecordException {
+        final RecordSchema schema = new SimpleRecordSchema(getDefaultFields());
+
+        final String csvData = "name,zipCode,id,balance,continent\nJohn,11111,1,40.80,North America\nJane,22222,2,10.00,Europe\n";
+
+        final CSVFormat writeFormat = CSVFormat.DEFAULT.withRecordSeparator("\n");
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final InputStream bais = new ByteArrayInputStream(csvData.getBytes());
+            final CSVRecordReader reader = createReader(bais, schema, format);
+            final WriteCSVResult writer = new WriteCSVResult(writeFormat, schema, new SchemaNameAsAttribute(), baos,
+                RecordFieldType.DATE.getDefaultFormat(), RecordFieldType.TIME.getDefaultFormat(), RecordFieldType.TIMESTAMP.getDefaultFormat(), true)) {
+
+            writer.beginRecordSet();
+            Record record;
+            while ((record = reader.nextRecord(false, false)) != null) {
+                writer.writeRawRecord(record);
+            }
+            writer.finishRecordSet();
+            writer.flush();
+        }
+
+        // Columns that the schema has but the data does not are appended, with no value
+        final String expected = "name,zipCode,id,balance,continent,address,city,state,country\n"
+            + "John,11111,1,40.80,North America,,,,\n"
+            + "Jane,22222,2,10.00,Europe,,,,\n";
+        assertEquals(expected, baos.toString());
+    }
+
     @Test
     public void testMultipleRecordsEscapedWithSpecialChar() throws IOException, MalformedRecordException {
 